@@ -18,6 +18,9 @@ package com.ershixiong.ai;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcTransactionManagerAutoConfiguration;
+import org.springframework.boot.context.properties.ConfigurationPropertiesScan;
 
 /**
  * 应用程序主入口类。
@@ -27,9 +30,13 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * <ul>
  *   <li>自动配置Spring Boot组件
  *   <li>启用MyBatis Plus支持
+ *   <li>扫描并注册配置属性类
  *   <li>开启Web服务
  * </ul>
  *
+ * <p>R2DBC自动配置被排除，响应式数据源仅在reactive profile下由{@code ReactiveCityConfig}创建，
+ * 避免阻塞式部署中出现第二个事务管理器。
+ *
  * <p>技术栈：
  *
  * <ul>
@@ -42,8 +49,10 @@ import org.springframework.boot.autoconfigure.SpringBootApplication;
  * @since 1.0.0
  * @date 2025-01-31
  */
-@SpringBootApplication
+@SpringBootApplication(
+    exclude = {R2dbcAutoConfiguration.class, R2dbcTransactionManagerAutoConfiguration.class})
 @MapperScan("com.ershixiong.ai.infrastructure.repository.mybatis.mapper")
+@ConfigurationPropertiesScan("com.ershixiong.ai.infrastructure.config")
 public class Application {
 
   public static void main(String[] args) {
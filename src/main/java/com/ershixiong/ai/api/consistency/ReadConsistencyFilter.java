@@ -0,0 +1,89 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.consistency;
+
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
+import com.ershixiong.ai.infrastructure.degraded.StaleReadContext;
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import java.io.IOException;
+
+/**
+ * 读己之写一致性令牌过滤器。
+ *
+ * <p>写请求的响应头{@value #TOKEN_HEADER}携带写入版本，客户端在后续读请求中原样带回：
+ *
+ * <ul>
+ *   <li>令牌有效时，只有已回放到该版本的从库才能承接本次读请求，否则读主库
+ *   <li>令牌无法解析时按最严格要求处理，本次读请求全部走主库
+ *   <li>请求结束后清理线程上的路由上下文
+ * </ul>
+ *
+ * <p>同时开启{@link StaleReadContext}：数据库熔断期间从本地快照读取时，响应头{@value #STALE_HEADER}为true，
+ * {@value #SNAPSHOT_TIME_HEADER}为快照时间。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Component
+public class ReadConsistencyFilter extends OncePerRequestFilter {
+
+  /** 一致性令牌请求头和响应头 */
+  public static final String TOKEN_HEADER = "X-City-Consistency-Token";
+
+  /** 数据可能过期的响应头 */
+  public static final String STALE_HEADER = "X-City-Stale";
+
+  /** 降级读取的快照时间响应头 */
+  public static final String SNAPSHOT_TIME_HEADER = "X-City-Snapshot-Time";
+
+  /** 保存本次请求{@link StaleReadContext}的请求属性，异步请求再次分发时从中读取 */
+  static final String STALE_READ_ATTRIBUTE = StaleReadContext.class.getName();
+
+  @Override
+  protected void doFilterInternal(
+      HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+      throws ServletException, IOException {
+    ReadRoutingContext.begin();
+    request.setAttribute(STALE_READ_ATTRIBUTE, StaleReadContext.begin());
+    String token = request.getHeader(TOKEN_HEADER);
+    if (StringUtils.hasText(token)) {
+      ReadRoutingContext.requireVersion(parseToken(token.trim()));
+    }
+    try {
+      filterChain.doFilter(request, response);
+    } finally {
+      ReadRoutingContext.clear();
+      StaleReadContext.clear();
+    }
+  }
+
+  private static long parseToken(String token) {
+    try {
+      long version = Long.parseLong(token);
+      return version < 0 ? Long.MAX_VALUE : version;
+    } catch (NumberFormatException e) {
+      return Long.MAX_VALUE;
+    }
+  }
+}
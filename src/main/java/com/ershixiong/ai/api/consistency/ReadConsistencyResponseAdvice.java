@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.consistency;
+
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
+import com.ershixiong.ai.infrastructure.degraded.StaleReadContext;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.MethodParameter;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.HttpMessageConverter;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyAdvice;
+
+/**
+ * 在写请求的响应头中返回一致性令牌，在降级读取的响应头中标记数据可能过期。
+ *
+ * <p>响应体写出前读取本次请求的写入版本，写入{@link ReadConsistencyFilter#TOKEN_HEADER}；
+ * 只读请求不返回令牌。本次请求读取过本地快照时写入{@link ReadConsistencyFilter#STALE_HEADER}和
+ * {@link ReadConsistencyFilter#SNAPSHOT_TIME_HEADER}，异步请求的标记从请求属性中读取。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestControllerAdvice
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+public class ReadConsistencyResponseAdvice implements ResponseBodyAdvice<Object> {
+
+  @Override
+  public boolean supports(
+      MethodParameter returnType, Class<? extends HttpMessageConverter<?>> converterType) {
+    return true;
+  }
+
+  @Override
+  public Object beforeBodyWrite(
+      Object body,
+      MethodParameter returnType,
+      MediaType selectedContentType,
+      Class<? extends HttpMessageConverter<?>> selectedConverterType,
+      ServerHttpRequest request,
+      ServerHttpResponse response) {
+    Long version = ReadRoutingContext.getLastWriteVersion();
+    if (version != null) {
+      response.getHeaders().set(ReadConsistencyFilter.TOKEN_HEADER, String.valueOf(version));
+    }
+    if (request instanceof ServletServerHttpRequest servletRequest
+        && servletRequest
+                .getServletRequest()
+                .getAttribute(ReadConsistencyFilter.STALE_READ_ATTRIBUTE)
+            instanceof StaleReadContext staleRead
+        && staleRead.isStale()) {
+      response.getHeaders().set(ReadConsistencyFilter.STALE_HEADER, "true");
+      response
+          .getHeaders()
+          .set(ReadConsistencyFilter.SNAPSHOT_TIME_HEADER, staleRead.getSnapshotTime().toString());
+    }
+    return body;
+  }
+}
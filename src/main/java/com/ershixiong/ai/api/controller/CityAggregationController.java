@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.controller;
+
+import com.ershixiong.ai.api.dto.CityAggregationDTO;
+import com.ershixiong.ai.api.request.AggregateCityRequest;
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.application.service.CityAggregationService;
+import com.ershixiong.ai.common.Result;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 城市聚合控制器。
+ *
+ * <p>在服务端按国家代码或行政区统计人口，替代客户端拉取GET /api/cities全表后自行聚合。
+ * 仅在启用列式快照（city.columnar.enabled）时注册。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "city.columnar", name = "enabled", havingValue = "true")
+@RequestMapping("/api/cities")
+public class CityAggregationController {
+
+  private final CityAggregationService cityAggregationService;
+  private final CityConverter cityConverter;
+
+  public CityAggregationController(
+      CityAggregationService cityAggregationService, CityConverter cityConverter) {
+    this.cityAggregationService = cityAggregationService;
+    this.cityConverter = cityConverter;
+  }
+
+  /**
+   * 按条件过滤后分组统计人口 HTTP GET /api/cities/aggregate?groupBy={groupBy}&countrycode={code}
+   *
+   * <p>还可以按district、minPopulation和maxPopulation过滤。返回每组的城市数以及人口的总和、最小值、最大值和平均值，人口未知的城市只计入城市数。
+   *
+   * @param request 聚合请求对象
+   * @return 聚合结果
+   */
+  @GetMapping("/aggregate")
+  public Result<CityAggregationDTO> aggregateCities(@Valid AggregateCityRequest request) {
+    return Result.success(
+        cityConverter.toAggregationDTO(
+            cityAggregationService.aggregate(
+                request.getGroupBy(),
+                request.getCountrycode(),
+                request.getDistrict(),
+                request.getMinPopulation(),
+                request.getMaxPopulation())));
+  }
+}
@@ -16,19 +16,36 @@
 package com.ershixiong.ai.api.controller;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.api.dto.CityChangesDTO;
+import com.ershixiong.ai.api.deadline.RequestTimeout;
 import com.ershixiong.ai.api.dto.CityDTO;
+import com.ershixiong.ai.api.dto.CitySearchPageDTO;
+import com.ershixiong.ai.api.lane.UseLane;
 import com.ershixiong.ai.api.request.CreateCityRequest;
 import com.ershixiong.ai.api.request.SearchCityRequest;
 import com.ershixiong.ai.api.request.UpdateCityRequest;
 import com.ershixiong.ai.application.converter.CityConverter;
 import com.ershixiong.ai.application.service.CityApplicationService;
+import com.ershixiong.ai.application.service.CityChangeService;
 import com.ershixiong.ai.common.Result;
 import com.ershixiong.ai.common.page.PageResponse;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.bind.annotation.*;
 
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 城市资源控制器，处理所有与城市相关的HTTP请求。
@@ -36,12 +53,18 @@ import java.util.List;
  * <p>该控制器提供以下功能：
  *
  * <ul>
- *   <li>查询城市信息
+ *   <li>查询城市信息，列表、单条和搜索另有异步版本
  *   <li>创建新城市
  *   <li>更新城市信息
  *   <li>删除城市
+ *   <li>导出城市
  * </ul>
  *
+ * <p>各接口通过{@link UseLane}分配流量通道：单条读写走OLTP，搜索走SEARCH，全量查询、增量同步和导出走BULK。
+ *
+ * <p>搜索接口支持按id、name或population排序，响应头{@value #QUERY_PLAN_HEADER}返回实际采用的执行计划；
+ * 指定facets参数时在同一响应中附带匹配城市的国家代码和行政区分面计数。
+ *
  * <p>所有响应数据都会被自动转换为JSON格式
  *
  * @author ershixiong
@@ -49,21 +72,30 @@ import java.util.List;
  * @date 2025-01-31
  */
 @RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
 @RequestMapping("/api/cities")
 public class CityController {
 
+  /** 搜索执行计划的响应头，取值见{@link com.ershixiong.ai.domain.model.CitySearchPlan} */
+  public static final String QUERY_PLAN_HEADER = "X-City-Query-Plan";
+
   private final CityApplicationService cityApplicationService;
+  private final CityChangeService cityChangeService;
   private final CityConverter cityConverter;
 
   /**
    * 构造函数注入必要的服务
    *
    * @param cityApplicationService 城市应用服务，处理业务逻辑
+   * @param cityChangeService 城市增量同步服务
    * @param cityConverter DTO转换器，处理数据转换
    */
   public CityController(
-      CityApplicationService cityApplicationService, CityConverter cityConverter) {
+      CityApplicationService cityApplicationService,
+      CityChangeService cityChangeService,
+      CityConverter cityConverter) {
     this.cityApplicationService = cityApplicationService;
+    this.cityChangeService = cityChangeService;
     this.cityConverter = cityConverter;
   }
 
@@ -72,17 +104,71 @@ public class CityController {
    *
    * @return 所有城市的DTO列表
    */
+  @UseLane(Lane.BULK)
   @GetMapping
   public Result<List<CityDTO>> getAllCities() {
     return Result.success(cityConverter.toDTOList(cityApplicationService.getAll()));
   }
 
+  /**
+   * 以CSV格式导出所有城市 HTTP GET /api/cities/export
+   *
+   * <p>按ID升序流式写出，不在内存中缓存整表。读到第一行（即已通过并发限制）后才设置CSV响应头，
+   * 被限流拒绝或超时时以JSON返回错误。
+   *
+   * @param response HTTP响应
+   * @throws IOException 写出响应失败
+   */
+  @UseLane(Lane.BULK)
+  @GetMapping("/export")
+  public void exportCities(HttpServletResponse response) throws IOException {
+    CsvResponse csv = new CsvResponse(response);
+    try {
+      cityApplicationService.exportAll(
+          city -> {
+            try {
+              writeCsvLine(csv.writer(), city);
+            } catch (IOException e) {
+              throw new UncheckedIOException(e);
+            }
+          });
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } catch (RuntimeException e) {
+      // 尚未提交的响应去掉CSV响应头和已缓冲的内容，由全局异常处理写出JSON错误
+      if (!response.isCommitted()) {
+        response.reset();
+      }
+      throw e;
+    }
+    csv.writer().flush();
+  }
+
+  /**
+   * 增量同步城市数据 HTTP GET /api/cities/changes?since={token}&limit={limit}
+   *
+   * <p>返回令牌之后新增、更新和删除的城市以及新的令牌；不带since参数时从头全量同步。
+   *
+   * @param since 上一次返回的增量令牌
+   * @param limit 最多返回的变更条数
+   * @return 城市增量变更
+   */
+  @UseLane(Lane.BULK)
+  @GetMapping("/changes")
+  public Result<CityChangesDTO> getCityChanges(
+      @RequestParam(required = false) String since,
+      @RequestParam(required = false) Integer limit) {
+    return Result.success(
+        cityConverter.toChangesDTO(cityChangeService.getChangesSince(since, limit)));
+  }
+
   /**
    * 根据ID获取指定城市信息 HTTP GET /api/cities/{id}
    *
    * @param id 城市ID
    * @return 城市DTO，如果找不到对应城市会抛出异常
    */
+  @UseLane(Lane.OLTP)
   @GetMapping("/{id}")
   public Result<CityDTO> getCityById(@PathVariable Long id) {
     return Result.success(cityConverter.toDTO(cityApplicationService.getById(id)));
@@ -91,16 +177,89 @@ public class CityController {
   /**
    * 根据名称搜索城市，支持分页 HTTP GET /api/cities/search?name={name}&pageNo={pageNo}&pageSize={pageSize}
    *
+   * <p>默认10秒超时，客户端可以通过X-Request-Timeout请求头缩短，超时后中止模糊查询和COUNT查询。
+   * 可以通过countrycode和district参数过滤（多个取值以逗号分隔），通过sort和direction参数排序，
+   * 执行计划写入响应头{@value #QUERY_PLAN_HEADER}。facets参数大于0时，响应附带匹配城市数最多的国家代码和行政区。
+   *
    * @param request 搜索请求对象
-   * @return 分页的城市DTO列表
+   * @param response HTTP响应
+   * @return 分页的城市DTO列表，请求分面时附带分面计数
    */
+  @UseLane(Lane.SEARCH)
+  @RequestTimeout("10s")
   @GetMapping("/search")
-  public Result<PageResponse<CityDTO>> searchCitiesByName(@Valid SearchCityRequest request) {
-    Page<City> result =
+  public Result<CitySearchPageDTO> searchCitiesByName(
+      @Valid SearchCityRequest request, HttpServletResponse response) {
+    CitySearchResult result =
         cityApplicationService.searchByName(
-            request.getName(), request.getPageNo(), request.getPageSize());
-    List<CityDTO> dtos = cityConverter.toDTOList(result.getRecords());
-    return Result.success(PageResponse.of(dtos, result.getTotal(), (int)result.getCurrent(), (int)result.getSize()));
+            request.getName(),
+            request.getCountrycode(),
+            request.getDistrict(),
+            request.getSort(),
+            request.getDirection(),
+            request.getFacets(),
+            request.getPageNo(),
+            request.getPageSize());
+    response.setHeader(QUERY_PLAN_HEADER, result.getPlan().name());
+    return Result.success(toSearchPageResponse(result));
+  }
+
+  /**
+   * 异步获取所有城市信息 HTTP GET /api/cities/async
+   *
+   * <p>查询在独立的有界线程池中执行，等待数据库期间不占用Servlet线程。
+   *
+   * @return 所有城市的DTO列表
+   */
+  @UseLane(Lane.BULK)
+  @GetMapping("/async")
+  public CompletableFuture<Result<List<CityDTO>>> getAllCitiesAsync() {
+    return cityApplicationService
+        .getAllAsync()
+        .thenApply(cities -> Result.success(cityConverter.toDTOList(cities)));
+  }
+
+  /**
+   * 异步根据ID获取指定城市信息 HTTP GET /api/cities/async/{id}
+   *
+   * @param id 城市ID
+   * @return 城市DTO
+   */
+  @UseLane(Lane.OLTP)
+  @GetMapping("/async/{id}")
+  public CompletableFuture<Result<CityDTO>> getCityByIdAsync(@PathVariable Long id) {
+    return cityApplicationService
+        .getByIdAsync(id)
+        .thenApply(city -> Result.success(cityConverter.toDTO(city)));
+  }
+
+  /**
+   * 异步根据名称搜索城市 HTTP GET /api/cities/async/search?name={name}&pageNo={pageNo}&pageSize={pageSize}
+   *
+   * @param request 搜索请求对象
+   * @param response HTTP响应，查询完成后写入执行计划响应头
+   * @return 分页的城市DTO列表
+   */
+  @UseLane(Lane.SEARCH)
+  @RequestTimeout("10s")
+  @GetMapping("/async/search")
+  public CompletableFuture<Result<CitySearchPageDTO>> searchCitiesByNameAsync(
+      @Valid SearchCityRequest request, HttpServletResponse response) {
+    return cityApplicationService
+        .searchByNameAsync(
+            request.getName(),
+            request.getCountrycode(),
+            request.getDistrict(),
+            request.getSort(),
+            request.getDirection(),
+            request.getFacets(),
+            request.getPageNo(),
+            request.getPageSize())
+        .thenApply(
+            result -> {
+              response.setHeader(QUERY_PLAN_HEADER, result.getPlan().name());
+              return Result.success(toSearchPageResponse(result));
+            });
   }
 
   /**
@@ -109,6 +268,7 @@ public class CityController {
    * @param request 创建城市请求对象
    * @return 创建成功的城市DTO，包含生成的ID
    */
+  @UseLane(Lane.OLTP)
   @PostMapping
   public Result<CityDTO> createCity(@Valid @RequestBody CreateCityRequest request) {
     City city = new City();
@@ -128,6 +288,7 @@ public class CityController {
    * @param request 更新城市请求对象
    * @return 更新后的城市DTO
    */
+  @UseLane(Lane.OLTP)
   @PutMapping("/{id}")
   public Result<CityDTO> updateCity(
       @PathVariable Long id, @Valid @RequestBody UpdateCityRequest request) {
@@ -151,9 +312,70 @@ public class CityController {
    *
    * @param id 要删除的城市ID
    */
+  @UseLane(Lane.OLTP)
   @DeleteMapping("/{id}")
   public Result<Void> deleteCity(@PathVariable Long id) {
     cityApplicationService.deleteCity(id);
     return Result.success();
   }
+
+  private PageResponse<CityDTO> toPageResponse(Page<City> page) {
+    List<CityDTO> dtos = cityConverter.toDTOList(page.getRecords());
+    return PageResponse.of(dtos, page.getTotal(), (int) page.getCurrent(), (int) page.getSize());
+  }
+
+  private CitySearchPageDTO toSearchPageResponse(CitySearchResult result) {
+    return CitySearchPageDTO.of(
+        toPageResponse(result.getPage()), cityConverter.toFacetsDTO(result.getFacets()));
+  }
+
+  /** 首次写出时才设置CSV响应头并写出表头的响应 */
+  private static final class CsvResponse {
+    private final HttpServletResponse response;
+    private Writer writer;
+
+    private CsvResponse(HttpServletResponse response) {
+      this.response = response;
+    }
+
+    private Writer writer() throws IOException {
+      if (writer == null) {
+        response.setContentType("text/csv");
+        response.setCharacterEncoding(StandardCharsets.UTF_8.name());
+        response.setHeader(
+            HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"cities.csv\"");
+        writer =
+            new BufferedWriter(
+                new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8));
+        writer.write("id,name,countrycode,district,population\n");
+      }
+      return writer;
+    }
+  }
+
+  private static void writeCsvLine(Writer writer, City city) throws IOException {
+    writer.write(String.valueOf(city.getId()));
+    writer.write(',');
+    writer.write(csvField(city.getName()));
+    writer.write(',');
+    writer.write(csvField(city.getCountrycode()));
+    writer.write(',');
+    writer.write(csvField(city.getDistrict()));
+    writer.write(',');
+    writer.write(city.getPopulation() == null ? "" : city.getPopulation().toString());
+    writer.write('\n');
+  }
+
+  private static String csvField(String value) {
+    if (value == null) {
+      return "";
+    }
+    if (value.indexOf(',') < 0
+        && value.indexOf('"') < 0
+        && value.indexOf('\n') < 0
+        && value.indexOf('\r') < 0) {
+      return value;
+    }
+    return '"' + value.replace("\"", "\"\"") + '"';
+  }
 }
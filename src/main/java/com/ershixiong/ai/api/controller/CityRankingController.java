@@ -0,0 +1,114 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.controller;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.api.dto.CityDTO;
+import com.ershixiong.ai.api.dto.CityRankDTO;
+import com.ershixiong.ai.api.lane.UseLane;
+import com.ershixiong.ai.api.request.PopulationRangeRequest;
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.application.service.CityApplicationService;
+import com.ershixiong.ai.common.Result;
+import com.ershixiong.ai.common.page.PageResponse;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import jakarta.validation.Valid;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 城市人口排序查询控制器。
+ *
+ * <p>提供人口最多的城市、人口范围内的城市和城市人口排名，结果按人口降序、人口相同时按ID升序。
+ * 启用人口索引（city.ranking.enabled）时由进程内索引回答，否则由仓储查询数据库的人口索引。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/cities")
+public class CityRankingController {
+
+  private final CityApplicationService cityApplicationService;
+  private final CityConverter cityConverter;
+
+  public CityRankingController(
+      CityApplicationService cityApplicationService, CityConverter cityConverter) {
+    this.cityApplicationService = cityApplicationService;
+    this.cityConverter = cityConverter;
+  }
+
+  /**
+   * 查询人口最多的城市 HTTP GET /api/cities/top?countrycode={code}&limit={limit}
+   *
+   * @param countrycode 国家代码，省略时在全部城市中查询
+   * @param limit 最多返回的城市数，默认10，不超过100
+   * @return 按人口降序的城市DTO列表
+   */
+  @UseLane(Lane.SEARCH)
+  @GetMapping("/top")
+  public Result<List<CityDTO>> getTopCities(
+      @RequestParam(required = false) String countrycode,
+      @RequestParam(defaultValue = "10") int limit) {
+    return Result.success(
+        cityConverter.toDTOList(cityApplicationService.getTopByPopulation(countrycode, limit)));
+  }
+
+  /**
+   * 查询人口在范围内的城市 HTTP GET
+   * /api/cities/population?countrycode={code}&minPopulation={min}&maxPopulation={max}
+   *
+   * @param request 人口范围查询请求对象
+   * @return 按人口降序分页的城市DTO列表
+   */
+  @UseLane(Lane.SEARCH)
+  @GetMapping("/population")
+  public Result<PageResponse<CityDTO>> searchCitiesByPopulation(
+      @Valid PopulationRangeRequest request) {
+    Page<City> result =
+        cityApplicationService.searchByPopulation(
+            request.getCountrycode(),
+            request.getMinPopulation(),
+            request.getMaxPopulation(),
+            request.getPageNo(),
+            request.getPageSize());
+    List<CityDTO> dtos = cityConverter.toDTOList(result.getRecords());
+    return Result.success(
+        PageResponse.of(
+            dtos, result.getTotal(), (int) result.getCurrent(), (int) result.getSize()));
+  }
+
+  /**
+   * 查询城市的人口排名 HTTP GET /api/cities/{id}/rank
+   *
+   * @param id 城市ID
+   * @return 城市在所属国家和全部城市中的排名
+   */
+  @UseLane(Lane.SEARCH)
+  @GetMapping("/{id}/rank")
+  public Result<CityRankDTO> getCityRank(@PathVariable Long id) {
+    return Result.success(cityConverter.toRankDTO(cityApplicationService.getPopulationRank(id)));
+  }
+}
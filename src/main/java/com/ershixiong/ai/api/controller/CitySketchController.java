@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.controller;
+
+import com.ershixiong.ai.api.dto.CitySketchStatsDTO;
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.application.service.CitySketchService;
+import com.ershixiong.ai.common.Result;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+/**
+ * 城市近似统计控制器。
+ *
+ * <p>由流式草图返回人口分位数、不同行政区数和高频行政区，每项估计都附带误差界；
+ * 这些统计无法像计数和总和那样增量维护精确值，精确计算需要排序或去重全表。
+ * 仅在启用近似统计（city.sketch.enabled）时注册。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "city.sketch", name = "enabled", havingValue = "true")
+@RequestMapping("/api/cities/stats")
+public class CitySketchController {
+
+  private final CitySketchService citySketchService;
+  private final CityConverter cityConverter;
+
+  public CitySketchController(CitySketchService citySketchService, CityConverter cityConverter) {
+    this.citySketchService = citySketchService;
+    this.cityConverter = cityConverter;
+  }
+
+  /**
+   * 查询近似统计 HTTP GET /api/cities/stats/approximate?countrycode={code}&quantiles=0.5,0.99&top=10
+   *
+   * @param countrycode 国家代码，为空时统计全部国家
+   * @param quantiles 人口分位点
+   * @param top 返回的高频行政区数
+   * @return 近似统计
+   */
+  @GetMapping("/approximate")
+  public Result<CitySketchStatsDTO> getApproximateStats(
+      @RequestParam(required = false) String countrycode,
+      @RequestParam(required = false) List<Double> quantiles,
+      @RequestParam(required = false) Integer top) {
+    return Result.success(
+        cityConverter.toSketchStatsDTO(citySketchService.getStats(countrycode, quantiles, top)));
+  }
+
+  /**
+   * 导出序列化的草图 HTTP GET /api/cities/stats/sketches
+   *
+   * <p>持有不同数据（例如不同分片）的节点可以拉取彼此的草图，用{@code CitySketches.fromBytes}
+   * 反序列化后合并，得到全局的近似统计。
+   *
+   * @return 序列化的草图
+   */
+  @GetMapping(value = "/sketches", produces = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+  public byte[] exportSketches() {
+    return citySketchService.export();
+  }
+}
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.controller;
+
+import com.ershixiong.ai.api.dto.CityStatsDTO;
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.application.service.CityStatsService;
+import com.ershixiong.ai.common.Result;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * 城市人口统计控制器。
+ *
+ * <p>返回增量维护的国家和行政区人口汇总，替代每次请求对城市表执行GROUP BY。
+ * 仅在启用人口汇总（city.rollup.enabled）时注册。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@ConditionalOnProperty(prefix = "city.rollup", name = "enabled", havingValue = "true")
+@RequestMapping("/api/cities")
+public class CityStatsController {
+
+  private final CityStatsService cityStatsService;
+  private final CityConverter cityConverter;
+
+  public CityStatsController(CityStatsService cityStatsService, CityConverter cityConverter) {
+    this.cityStatsService = cityStatsService;
+    this.cityConverter = cityConverter;
+  }
+
+  /**
+   * 查询人口统计 HTTP GET /api/cities/stats?countrycode={code}
+   *
+   * <p>不带countrycode时返回全部国家的总计和各国的城市数与人口统计，带countrycode时返回该国总计和各行政区统计。
+   *
+   * @param countrycode 国家代码
+   * @return 人口统计
+   */
+  @GetMapping("/stats")
+  public Result<CityStatsDTO> getCityStats(@RequestParam(required = false) String countrycode) {
+    return Result.success(cityConverter.toStatsDTO(cityStatsService.getStats(countrycode)));
+  }
+}
@@ -0,0 +1,64 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.controller;
+
+import com.ershixiong.ai.api.stream.CityEventStreamHub;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+/**
+ * 城市变更事件流控制器。
+ *
+ * <p>以Server-Sent Events推送城市的创建、更新和删除事件，替代下游对城市列表的轮询：
+ *
+ * <ul>
+ *   <li>事件名称为created、updated、deleted，data为{@link com.ershixiong.ai.api.dto.CityEventDTO}
+ *   <li>断线重连时浏览器会自动携带Last-Event-ID，服务端从最近事件中续传
+ *   <li>收到reset事件时，客户端应通过GET /api/cities/changes重新对齐数据
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@RestController
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.SERVLET)
+@RequestMapping("/api/cities")
+public class CityStreamController {
+
+  private final CityEventStreamHub cityEventStreamHub;
+
+  public CityStreamController(CityEventStreamHub cityEventStreamHub) {
+    this.cityEventStreamHub = cityEventStreamHub;
+  }
+
+  /**
+   * 订阅城市变更事件 HTTP GET /api/cities/stream
+   *
+   * @param lastEventId 最后收到的事件ID，用于断线续传
+   * @return SSE发射器
+   */
+  @GetMapping(path = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter streamCityChanges(
+      @RequestHeader(value = "Last-Event-ID", required = false) String lastEventId) {
+    return cityEventStreamHub.subscribe(lastEventId);
+  }
+}
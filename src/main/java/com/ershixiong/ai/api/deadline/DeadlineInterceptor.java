@@ -0,0 +1,177 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.deadline;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.config.CityDeadlineProperties;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineWatchdog;
+import jakarta.servlet.AsyncEvent;
+import jakarta.servlet.AsyncListener;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.util.StringUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+import java.time.Duration;
+import java.util.concurrent.ScheduledFuture;
+
+/**
+ * 请求截止时间拦截器。
+ *
+ * <p>截止时间取请求头{@value #TIMEOUT_HEADER}、接口{@link RequestTimeout}和默认超时中最短的一个：
+ *
+ * <ul>
+ *   <li>请求头超时不大于零时直接返回RPC_CALL_TIMEOUT，不进入业务处理
+ *   <li>处理期间在线程上记录截止时间，仓储据此设置查询超时
+ *   <li>截止时间到达时由看门狗取消执行中的查询；异步请求出错或超时（包括客户端断开）时同样取消
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class DeadlineInterceptor implements AsyncHandlerInterceptor {
+
+  /** 请求超时请求头，格式如500ms、2s，纯数字按毫秒计 */
+  public static final String TIMEOUT_HEADER = "X-Request-Timeout";
+
+  private static final String DEADLINE_ATTRIBUTE =
+      DeadlineInterceptor.class.getName() + ".deadline";
+  private static final String WATCH_ATTRIBUTE = DeadlineInterceptor.class.getName() + ".watch";
+
+  private final CityDeadlineProperties properties;
+  private final DeadlineWatchdog watchdog;
+
+  public DeadlineInterceptor(CityDeadlineProperties properties, DeadlineWatchdog watchdog) {
+    this.properties = properties;
+    this.watchdog = watchdog;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    // 异步请求的再次分发沿用首次分发创建的截止时间
+    if (request.getAttribute(DEADLINE_ATTRIBUTE) instanceof Deadline existing) {
+      DeadlineContext.set(existing);
+      return true;
+    }
+    Duration timeout = resolveTimeout(request, handler);
+    if (timeout == null) {
+      return true;
+    }
+    if (timeout.isZero() || timeout.isNegative()) {
+      throw new BusinessException(ErrorCode.RPC_CALL_TIMEOUT, "请求已超时");
+    }
+    Deadline deadline = Deadline.after(timeout);
+    request.setAttribute(DEADLINE_ATTRIBUTE, deadline);
+    request.setAttribute(WATCH_ATTRIBUTE, watchdog.watch(deadline));
+    DeadlineContext.set(deadline);
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (request.getAttribute(DEADLINE_ATTRIBUTE) instanceof Deadline deadline) {
+      request.getAsyncContext().addListener(new CancelOnAbort(deadline));
+    }
+    DeadlineContext.clear();
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    if (request.getAttribute(WATCH_ATTRIBUTE) instanceof ScheduledFuture<?> watch) {
+      watch.cancel(false);
+    }
+    DeadlineContext.clear();
+  }
+
+  private Duration resolveTimeout(HttpServletRequest request, Object handler) {
+    Duration timeout = properties.getDefaultTimeout();
+    if (handler instanceof HandlerMethod handlerMethod) {
+      RequestTimeout endpoint = findRequestTimeout(handlerMethod);
+      if (endpoint != null) {
+        timeout = parse(endpoint.value());
+      }
+    }
+    String header = request.getHeader(TIMEOUT_HEADER);
+    if (StringUtils.hasText(header)) {
+      Duration requested = parse(header.trim());
+      if (requested.compareTo(properties.getMaxTimeout()) > 0) {
+        requested = properties.getMaxTimeout();
+      }
+      if (timeout == null || requested.compareTo(timeout) < 0) {
+        timeout = requested;
+      }
+    }
+    return timeout;
+  }
+
+  private static Duration parse(String value) {
+    try {
+      return DurationStyle.detectAndParse(value);
+    } catch (IllegalArgumentException e) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, "请求超时格式无效：" + value, e);
+    }
+  }
+
+  private static RequestTimeout findRequestTimeout(HandlerMethod handlerMethod) {
+    RequestTimeout timeout =
+        AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), RequestTimeout.class);
+    if (timeout != null) {
+      return timeout;
+    }
+    return AnnotatedElementUtils.findMergedAnnotation(
+        handlerMethod.getBeanType(), RequestTimeout.class);
+  }
+
+  /** 异步请求出错或超时时取消截止时间 */
+  private static final class CancelOnAbort implements AsyncListener {
+
+    private final Deadline deadline;
+
+    private CancelOnAbort(Deadline deadline) {
+      this.deadline = deadline;
+    }
+
+    @Override
+    public void onComplete(AsyncEvent event) {
+      // 正常完成无需处理
+    }
+
+    @Override
+    public void onTimeout(AsyncEvent event) {
+      deadline.cancel();
+    }
+
+    @Override
+    public void onError(AsyncEvent event) {
+      deadline.cancel();
+    }
+
+    @Override
+    public void onStartAsync(AsyncEvent event) {
+      // 重新开始异步处理时无需处理
+    }
+  }
+}
@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.deadline;
+
+import com.ershixiong.ai.infrastructure.config.CityDeadlineProperties;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineWatchdog;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 注册请求截止时间拦截器，先于其他拦截器执行，截止时间从请求进入时开始计算。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(
+    prefix = "city.deadline",
+    name = "enabled",
+    havingValue = "true",
+    matchIfMissing = true)
+public class DeadlineWebMvcConfigurer implements WebMvcConfigurer {
+
+  private final CityDeadlineProperties properties;
+  private final DeadlineWatchdog watchdog;
+
+  public DeadlineWebMvcConfigurer(CityDeadlineProperties properties, DeadlineWatchdog watchdog) {
+    this.properties = properties;
+    this.watchdog = watchdog;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry
+        .addInterceptor(new DeadlineInterceptor(properties, watchdog))
+        .addPathPatterns("/api/**")
+        .order(Ordered.HIGHEST_PRECEDENCE);
+  }
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 城市人口聚合数据传输对象。
+ *
+ * <p>GET /api/cities/aggregate 的响应数据，包含：
+ *
+ * <ul>
+ *   <li>groupBy: 分组维度
+ *   <li>version: 计算所基于的数据版本，与GET /api/cities/changes的令牌可比较
+ *   <li>scannedRows: 参与扫描的城市数
+ *   <li>matchedRows: 满足过滤条件的城市数
+ *   <li>groups: 各组人口统计，按分组键升序
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityAggregationDTO {
+  /** 分组维度 */
+  private String groupBy;
+
+  /** 数据版本 */
+  private long version;
+
+  /** 扫描的城市数 */
+  private long scannedRows;
+
+  /** 匹配的城市数 */
+  private long matchedRows;
+
+  /** 各组统计 */
+  private List<Group> groups;
+
+  /** 一组城市的人口统计，人口全部未知时sum、min、max、avg为null */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Group {
+    /** 分组键，不分组时为null */
+    private String key;
+
+    /** 城市数 */
+    private long count;
+
+    /** 人口总和 */
+    private Long sum;
+
+    /** 最小人口 */
+    private Integer min;
+
+    /** 最大人口 */
+    private Integer max;
+
+    /** 平均人口 */
+    private Double avg;
+  }
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 城市增量变更数据传输对象。
+ *
+ * <p>GET /api/cities/changes 的响应数据，包含：
+ *
+ * <ul>
+ *   <li>upserts: 新增或更新的城市
+ *   <li>deletedIds: 已删除的城市ID
+ *   <li>nextToken: 下一次增量请求使用的since参数
+ *   <li>hasMore: 是否还有未返回的变更，为true时应立即使用nextToken继续拉取
+ *   <li>resetRequired: 为true时客户端必须清空本地数据，不带since参数重新全量同步
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityChangesDTO {
+  /** 新增或更新的城市 */
+  private List<CityDTO> upserts;
+
+  /** 已删除的城市ID */
+  private List<Long> deletedIds;
+
+  /** 下一次增量请求的起点 */
+  private String nextToken;
+
+  /** 是否还有未返回的变更 */
+  private boolean hasMore;
+
+  /** 是否需要全量重新同步 */
+  private boolean resetRequired;
+}
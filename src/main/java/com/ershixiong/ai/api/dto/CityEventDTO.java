@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 城市变更事件数据传输对象。
+ *
+ * <p>作为SSE事件的data推送给订阅者：
+ *
+ * <ul>
+ *   <li>type: 变更类型（CREATED、UPDATED、DELETED）
+ *   <li>cityId: 城市ID
+ *   <li>city: 变更后的城市，删除事件为null
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityEventDTO {
+  /** 变更类型 */
+  private String type;
+
+  /** 城市ID */
+  private Long cityId;
+
+  /** 变更后的城市 */
+  private CityDTO city;
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 城市搜索分面计数数据传输对象。
+ *
+ * <p>GET /api/cities/search 指定facets参数时随分页结果返回，包含：
+ *
+ * <ul>
+ *   <li>countrycodes: 匹配城市数最多的国家代码，按城市数降序
+ *   <li>districts: 匹配城市数最多的行政区，按城市数降序
+ *   <li>truncated: 是否因不同取值过多或超出耗时预算而只统计了部分城市
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityFacetsDTO {
+  /** 国家代码分面 */
+  private List<Count> countrycodes;
+
+  /** 行政区分面 */
+  private List<Count> districts;
+
+  /** 是否截断 */
+  private boolean truncated;
+
+  /** 一个取值的匹配城市数 */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Count {
+    /** 取值 */
+    private String key;
+
+    /** 城市数 */
+    private long count;
+  }
+}
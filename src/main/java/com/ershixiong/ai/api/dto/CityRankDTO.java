@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 城市人口排名数据传输对象。
+ *
+ * <p>GET /api/cities/{id}/rank 的响应数据，排名按人口降序、人口相同时按ID升序，从1开始，
+ * 人口未知的城市不参与排名，其排名为null：
+ *
+ * <ul>
+ *   <li>city: 城市
+ *   <li>countryRank / countryCities: 在所属国家中的排名和该国参与排名的城市数
+ *   <li>globalRank / globalCities: 在全部城市中的排名和参与排名的城市数
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityRankDTO {
+  /** 城市 */
+  private CityDTO city;
+
+  /** 国家内排名 */
+  private Long countryRank;
+
+  /** 国家内参与排名的城市数 */
+  private long countryCities;
+
+  /** 全局排名 */
+  private Long globalRank;
+
+  /** 全局参与排名的城市数 */
+  private long globalCities;
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import com.ershixiong.ai.common.page.PageResponse;
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+/**
+ * 城市搜索分页响应对象。
+ *
+ * <p>在{@link PageResponse}的基础上附带分面计数，未请求分面时不输出facets字段，响应与普通分页结果相同。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class CitySearchPageDTO extends PageResponse<CityDTO> {
+  private CityFacetsDTO facets;
+
+  @JsonInclude(JsonInclude.Include.NON_NULL)
+  public CityFacetsDTO getFacets() {
+    return facets;
+  }
+
+  public void setFacets(CityFacetsDTO facets) {
+    this.facets = facets;
+  }
+
+  /**
+   * 由分页结果和分面计数构建响应
+   *
+   * @param page 分页结果
+   * @param facets 分面计数，未请求时为null
+   * @return 搜索分页响应
+   */
+  public static CitySearchPageDTO of(PageResponse<CityDTO> page, CityFacetsDTO facets) {
+    CitySearchPageDTO response = new CitySearchPageDTO();
+    response.setDatas(page.getDatas());
+    response.setTotalCount(page.getTotalCount());
+    response.setTotalPage(page.getTotalPage());
+    response.setCurrentPage(page.getCurrentPage());
+    response.setPageSize(page.getPageSize());
+    response.setFacets(facets);
+    return response;
+  }
+}
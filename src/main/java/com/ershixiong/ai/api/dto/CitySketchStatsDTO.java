@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 城市近似统计数据传输对象。
+ *
+ * <p>GET /api/cities/stats/approximate 的响应数据，包含：
+ *
+ * <ul>
+ *   <li>countrycode: 统计范围，为null表示全部国家
+ *   <li>cities: 城市数
+ *   <li>removedSinceRebuild: 重建后删除或修改的城市数，其旧值仍计入分位数和不同行政区数
+ *   <li>populationQuantiles: 人口分位数，真实秩与分位点之差不超过quantileRankError
+ *   <li>distinctDistricts: 不同行政区数，相对标准误差为distinctStandardError
+ *   <li>topDistricts: 城市数最多的行政区，估计值不低于真实值，以frequencyConfidence的概率不超过真实值加frequencyError
+ *   <li>builtAt: 草图最近一次全量重建的时间
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitySketchStatsDTO {
+  /** 国家代码 */
+  private String countrycode;
+
+  /** 城市数 */
+  private long cities;
+
+  /** 重建后删除或修改的城市数 */
+  private long removedSinceRebuild;
+
+  /** 人口分位数 */
+  private List<Quantile> populationQuantiles;
+
+  /** 分位数的归一化秩误差 */
+  private double quantileRankError;
+
+  /** 不同行政区数 */
+  private long distinctDistricts;
+
+  /** 不同行政区数的相对标准误差 */
+  private double distinctStandardError;
+
+  /** 城市数最多的行政区 */
+  private List<District> topDistricts;
+
+  /** 行政区城市数的绝对误差上界 */
+  private long frequencyError;
+
+  /** 行政区城市数不超过误差上界的概率 */
+  private double frequencyConfidence;
+
+  /** 最近重建时间 */
+  private Instant builtAt;
+
+  /** 一个人口分位数 */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Quantile {
+    /** 分位点 */
+    private double fraction;
+
+    /** 人口，没有城市时为null */
+    private Integer population;
+  }
+
+  /** 一个行政区的估计城市数 */
+  @Data
+  @Builder
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class District {
+    /** 国家代码 */
+    private String countrycode;
+
+    /** 行政区 */
+    private String district;
+
+    /** 估计城市数 */
+    private long count;
+  }
+}
@@ -0,0 +1,98 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.lane;
+
+import com.ershixiong.ai.infrastructure.lane.LaneContext;
+import com.ershixiong.ai.infrastructure.lane.LaneGate;
+import com.ershixiong.ai.infrastructure.lane.LaneGates;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.core.annotation.AnnotatedElementUtils;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.AsyncHandlerInterceptor;
+
+/**
+ * 流量通道拦截器。
+ *
+ * <p>按{@link UseLane}把请求分配到通道：
+ *
+ * <ul>
+ *   <li>进入处理器前先通过通道闸门，并发和排队都已满时直接拒绝，不占用其他通道的线程和连接
+ *   <li>处理期间在线程上记录当前通道，数据库访问路由到该通道的连接池
+ *   <li>请求完成后释放闸门并清理线程上的通道；异步请求在整个异步处理期间占用闸门
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class LaneInterceptor implements AsyncHandlerInterceptor {
+
+  private static final String GATE_ATTRIBUTE = LaneInterceptor.class.getName() + ".gate";
+
+  private final LaneGates gates;
+
+  public LaneInterceptor(LaneGates gates) {
+    this.gates = gates;
+  }
+
+  @Override
+  public boolean preHandle(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    if (!(handler instanceof HandlerMethod handlerMethod)) {
+      return true;
+    }
+    // 异步请求的再次分发沿用首次分发进入的闸门，请求完成时只释放一次
+    if (request.getAttribute(GATE_ATTRIBUTE) instanceof LaneGate) {
+      return true;
+    }
+    UseLane useLane = findUseLane(handlerMethod);
+    if (useLane == null) {
+      return true;
+    }
+    LaneGate gate = gates.get(useLane.value());
+    gate.enter();
+    request.setAttribute(GATE_ATTRIBUTE, gate);
+    LaneContext.set(useLane.value());
+    return true;
+  }
+
+  @Override
+  public void afterConcurrentHandlingStarted(
+      HttpServletRequest request, HttpServletResponse response, Object handler) {
+    LaneContext.clear();
+  }
+
+  @Override
+  public void afterCompletion(
+      HttpServletRequest request, HttpServletResponse response, Object handler, Exception ex) {
+    Object gate = request.getAttribute(GATE_ATTRIBUTE);
+    if (gate instanceof LaneGate laneGate) {
+      request.removeAttribute(GATE_ATTRIBUTE);
+      laneGate.exit();
+    }
+    LaneContext.clear();
+  }
+
+  private static UseLane findUseLane(HandlerMethod handlerMethod) {
+    UseLane useLane =
+        AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getMethod(), UseLane.class);
+    if (useLane != null) {
+      return useLane;
+    }
+    return AnnotatedElementUtils.findMergedAnnotation(handlerMethod.getBeanType(), UseLane.class);
+  }
+}
@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.lane;
+
+import com.ershixiong.ai.infrastructure.lane.LaneGates;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+/**
+ * 注册流量通道拦截器，仅在启用流量通道（city.lanes.enabled）时生效。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.lanes", name = "enabled", havingValue = "true")
+public class LaneWebMvcConfigurer implements WebMvcConfigurer {
+
+  private final LaneGates gates;
+
+  public LaneWebMvcConfigurer(LaneGates gates) {
+    this.gates = gates;
+  }
+
+  @Override
+  public void addInterceptors(InterceptorRegistry registry) {
+    registry.addInterceptor(new LaneInterceptor(gates)).addPathPatterns("/api/**");
+  }
+}
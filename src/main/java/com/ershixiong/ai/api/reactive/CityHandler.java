@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.reactive;
+
+import com.ershixiong.ai.api.dto.CityDTO;
+import com.ershixiong.ai.api.request.CreateCityRequest;
+import com.ershixiong.ai.api.request.SearchCityRequest;
+import com.ershixiong.ai.api.request.UpdateCityRequest;
+import com.ershixiong.ai.application.service.ReactiveCityApplicationService;
+import com.ershixiong.ai.common.Result;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.server.ServerRequest;
+import org.springframework.web.reactive.function.server.ServerResponse;
+import reactor.core.publisher.Mono;
+
+import java.util.Comparator;
+import java.util.Set;
+
+/**
+ * 响应式城市接口处理器，与{@code CityController}的接口一一对应。
+ *
+ * <p>单条查询和写操作返回{@link Result}包装的JSON；列表和搜索以流的形式逐条写出，
+ * 请求头Accept为application/x-ndjson时按行分隔输出，否则输出JSON数组，搜索结果总数放在响应头
+ * {@value #TOTAL_COUNT_HEADER}中。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Component
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CityHandler {
+
+  /** 搜索结果总数响应头 */
+  public static final String TOTAL_COUNT_HEADER = "X-Total-Count";
+
+  private final ReactiveCityApplicationService cityApplicationService;
+  private final Validator validator;
+
+  public CityHandler(ReactiveCityApplicationService cityApplicationService, Validator validator) {
+    this.cityApplicationService = cityApplicationService;
+    this.validator = validator;
+  }
+
+  /**
+   * 流式返回所有城市 HTTP GET /api/cities
+   *
+   * @param request 请求
+   * @return 城市DTO流
+   */
+  public Mono<ServerResponse> getAllCities(ServerRequest request) {
+    return ServerResponse.ok()
+        .contentType(streamingType(request))
+        .body(cityApplicationService.getAll().map(City::toDTO), CityDTO.class);
+  }
+
+  /**
+   * 根据ID获取城市 HTTP GET /api/cities/{id}
+   *
+   * @param request 请求
+   * @return 城市DTO
+   */
+  public Mono<ServerResponse> getCityById(ServerRequest request) {
+    return Mono.defer(() -> cityApplicationService.getById(pathId(request)))
+        .flatMap(city -> ok(Result.success(city.toDTO())));
+  }
+
+  /**
+   * 根据名称搜索城市 HTTP GET /api/cities/search?name={name}&pageNo={pageNo}&pageSize={pageSize}
+   *
+   * @param request 请求
+   * @return 当前页的城市DTO流
+   */
+  public Mono<ServerResponse> searchCitiesByName(ServerRequest request) {
+    return Mono.fromCallable(() -> validate(searchRequest(request)))
+        .flatMap(
+            search ->
+                cityApplicationService
+                    .countByName(search.getName())
+                    .flatMap(
+                        total ->
+                            ServerResponse.ok()
+                                .header(TOTAL_COUNT_HEADER, String.valueOf(total))
+                                .contentType(streamingType(request))
+                                .body(
+                                    cityApplicationService
+                                        .searchByName(
+                                            search.getName(),
+                                            search.getPageNo(),
+                                            search.getPageSize())
+                                        .map(City::toDTO),
+                                    CityDTO.class)));
+  }
+
+  /**
+   * 创建新城市 HTTP POST /api/cities
+   *
+   * @param request 请求
+   * @return 创建成功的城市DTO
+   */
+  public Mono<ServerResponse> createCity(ServerRequest request) {
+    return request
+        .bodyToMono(CreateCityRequest.class)
+        .map(this::validate)
+        .map(
+            body -> {
+              City city = new City();
+              city.setName(body.getName());
+              city.setCountrycode(body.getCountrycode());
+              city.setDistrict(body.getDistrict());
+              city.setPopulation(body.getPopulation());
+              return city;
+            })
+        .flatMap(cityApplicationService::create)
+        .flatMap(saved -> ok(Result.success("城市创建成功", saved.toDTO())));
+  }
+
+  /**
+   * 更新指定城市 HTTP PUT /api/cities/{id}
+   *
+   * @param request 请求
+   * @return 更新后的城市DTO
+   */
+  public Mono<ServerResponse> updateCity(ServerRequest request) {
+    return Mono.fromCallable(() -> pathId(request))
+        .zipWith(request.bodyToMono(UpdateCityRequest.class).map(this::validate))
+        .flatMap(
+            tuple -> {
+              UpdateCityRequest body = tuple.getT2();
+              if (!tuple.getT1().equals(body.getId())) {
+                return ok(Result.fail("路径ID与请求体ID不匹配"));
+              }
+              City city = new City();
+              city.setId(body.getId());
+              city.setName(body.getName());
+              city.setCountrycode(body.getCountrycode());
+              city.setDistrict(body.getDistrict());
+              city.setPopulation(body.getPopulation());
+              return cityApplicationService
+                  .updateCity(city)
+                  .flatMap(updated -> ok(Result.success("城市更新成功", updated.toDTO())));
+            });
+  }
+
+  /**
+   * 删除指定城市 HTTP DELETE /api/cities/{id}
+   *
+   * @param request 请求
+   * @return 空结果
+   */
+  public Mono<ServerResponse> deleteCity(ServerRequest request) {
+    return Mono.defer(() -> cityApplicationService.deleteCity(pathId(request)))
+        .then(ok(Result.success()));
+  }
+
+  private static Mono<ServerResponse> ok(Result<?> result) {
+    return ServerResponse.ok().contentType(MediaType.APPLICATION_JSON).bodyValue(result);
+  }
+
+  private static MediaType streamingType(ServerRequest request) {
+    return request.headers().accept().stream()
+            .anyMatch(MediaType.APPLICATION_NDJSON::isCompatibleWith)
+        ? MediaType.APPLICATION_NDJSON
+        : MediaType.APPLICATION_JSON;
+  }
+
+  private static Long pathId(ServerRequest request) {
+    String id = request.pathVariable("id");
+    try {
+      return Long.valueOf(id);
+    } catch (NumberFormatException e) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, "城市ID格式无效：" + id, e);
+    }
+  }
+
+  private static SearchCityRequest searchRequest(ServerRequest request) {
+    SearchCityRequest search = new SearchCityRequest();
+    search.setName(request.queryParam("name").orElse(null));
+    request.queryParam("pageNo").ifPresent(value -> search.setPageNo(intParam("pageNo", value)));
+    request
+        .queryParam("pageSize")
+        .ifPresent(value -> search.setPageSize(intParam("pageSize", value)));
+    return search;
+  }
+
+  private static int intParam(String name, String value) {
+    try {
+      return Integer.parseInt(value);
+    } catch (NumberFormatException e) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, name + "格式无效：" + value, e);
+    }
+  }
+
+  /**
+   * 按请求对象上的约束注解校验，错误信息格式与阻塞式接口的参数校验一致
+   *
+   * @param target 请求对象
+   * @param <T> 请求类型
+   * @return 校验通过的请求对象
+   */
+  private <T> T validate(T target) {
+    Set<ConstraintViolation<T>> violations = validator.validate(target);
+    violations.stream()
+        .min(Comparator.comparing(violation -> violation.getPropertyPath().toString()))
+        .ifPresent(
+            violation -> {
+              throw new BusinessException(
+                  ErrorCode.PARAM_INVALID,
+                  violation.getPropertyPath() + ": " + violation.getMessage());
+            });
+    return target;
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.reactive;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.web.reactive.function.server.RouterFunction;
+import org.springframework.web.reactive.function.server.RouterFunctions;
+import org.springframework.web.reactive.function.server.ServerResponse;
+
+/**
+ * 响应式城市接口路由，路径与{@code CityController}保持一致。
+ *
+ * <p>增量同步、导出和事件流仍由阻塞式部署提供。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class CityRouter {
+
+  /**
+   * 配置城市接口路由
+   *
+   * @param handler 城市接口处理器
+   * @return 路由函数
+   */
+  @Bean
+  public RouterFunction<ServerResponse> cityRoutes(CityHandler handler) {
+    return RouterFunctions.route()
+        .path(
+            "/api/cities",
+            builder ->
+                builder
+                    .GET("", handler::getAllCities)
+                    .GET("/search", handler::searchCitiesByName)
+                    .GET("/{id}", handler::getCityById)
+                    .POST("", handler::createCity)
+                    .PUT("/{id}", handler::updateCity)
+                    .DELETE("/{id}", handler::deleteCity))
+        .build();
+  }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.reactive;
+
+import com.ershixiong.ai.common.Result;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.common.exception.GlobalExceptionHandler;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.core.annotation.Order;
+import org.springframework.core.codec.DecodingException;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.server.ServerWebInputException;
+import org.springframework.web.server.WebExceptionHandler;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式接口的异常处理器，与{@link GlobalExceptionHandler}返回相同的错误码、消息和HTTP状态码。
+ *
+ * <p>路由分发过程中抛出的异常先由{@link GlobalExceptionHandler}处理，本处理器兜底处理分发之外的异常，
+ * 例如过滤器中的异常，以及单独绑定路由函数时（如测试）的全部异常。在Spring Boot默认错误处理器之前执行，
+ * 路由不存在等其他{@link ResponseStatusException}仍交给默认处理器。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@Order(-2)
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveExceptionHandler implements WebExceptionHandler {
+
+  private final ObjectMapper objectMapper;
+
+  public ReactiveExceptionHandler(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+  }
+
+  @Override
+  public Mono<Void> handle(ServerWebExchange exchange, Throwable ex) {
+    if (exchange.getResponse().isCommitted()) {
+      // 流式响应已开始写出，无法再改写状态码
+      return Mono.error(ex);
+    }
+    if (ex instanceof BusinessException businessException) {
+      log.warn("业务异常: {}", businessException.getMessage());
+      ErrorCode errorCode = businessException.getErrorCode();
+      return write(
+          exchange.getResponse(),
+          GlobalExceptionHandler.resolveStatus(errorCode),
+          Result.fail(errorCode.getCode(), businessException.getMessage()));
+    }
+    if (ex instanceof ServerWebInputException inputException) {
+      log.warn("参数校验异常: {}", inputException.getReason());
+      return write(
+          exchange.getResponse(),
+          HttpStatus.BAD_REQUEST,
+          Result.fail(ErrorCode.PARAM_INVALID.getCode(), inputException.getReason()));
+    }
+    if (ex instanceof DecodingException decodingException) {
+      log.warn("请求体解析异常: {}", decodingException.getMessage());
+      return write(
+          exchange.getResponse(),
+          HttpStatus.BAD_REQUEST,
+          Result.fail(ErrorCode.PARAM_INVALID.getCode(), "请求体格式无效"));
+    }
+    if (ex instanceof ResponseStatusException) {
+      return Mono.error(ex);
+    }
+    log.error("系统异常: ", ex);
+    return write(
+        exchange.getResponse(),
+        HttpStatus.INTERNAL_SERVER_ERROR,
+        Result.fail(ErrorCode.SYS_INTERNAL_ERROR.getCode(), "系统内部错误"));
+  }
+
+  private Mono<Void> write(ServerHttpResponse response, HttpStatus status, Result<?> result) {
+    byte[] body;
+    try {
+      body = objectMapper.writeValueAsBytes(result);
+    } catch (JsonProcessingException e) {
+      return Mono.error(e);
+    }
+    response.setStatusCode(status);
+    response.getHeaders().setContentType(MediaType.APPLICATION_JSON);
+    DataBuffer buffer = response.bufferFactory().wrap(body);
+    return response.writeWith(Mono.just(buffer));
+  }
+}
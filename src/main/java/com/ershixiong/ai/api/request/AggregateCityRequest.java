@@ -0,0 +1,134 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.request;
+
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.util.Objects;
+
+/**
+ * 城市人口聚合请求对象。
+ *
+ * <p>用于接收聚合接口的请求参数，所有参数均可省略：
+ *
+ * <ul>
+ *   <li>groupBy: 分组维度，none、countrycode或district，默认none
+ *   <li>countrycode: 国家代码（精确匹配）
+ *   <li>district: 行政区（精确匹配）
+ *   <li>minPopulation: 最小人口数（包含）
+ *   <li>maxPopulation: 最大人口数（包含）
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class AggregateCityRequest {
+  private String groupBy;
+
+  @Size(min = 3, max = 3, message = "国家代码必须是3个字符")
+  private String countrycode;
+
+  @Size(max = 50, message = "行政区长度不能超过50个字符")
+  private String district;
+
+  @Min(value = 0, message = "最小人口数不能为负数")
+  private Integer minPopulation;
+
+  @Min(value = 0, message = "最大人口数不能为负数")
+  private Integer maxPopulation;
+
+  public String getGroupBy() {
+    return groupBy;
+  }
+
+  public void setGroupBy(String groupBy) {
+    this.groupBy = groupBy;
+  }
+
+  public String getCountrycode() {
+    return countrycode;
+  }
+
+  public void setCountrycode(String countrycode) {
+    this.countrycode = countrycode;
+  }
+
+  public String getDistrict() {
+    return district;
+  }
+
+  public void setDistrict(String district) {
+    this.district = district;
+  }
+
+  public Integer getMinPopulation() {
+    return minPopulation;
+  }
+
+  public void setMinPopulation(Integer minPopulation) {
+    this.minPopulation = minPopulation;
+  }
+
+  public Integer getMaxPopulation() {
+    return maxPopulation;
+  }
+
+  public void setMaxPopulation(Integer maxPopulation) {
+    this.maxPopulation = maxPopulation;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    AggregateCityRequest that = (AggregateCityRequest) o;
+    return Objects.equals(groupBy, that.groupBy)
+        && Objects.equals(countrycode, that.countrycode)
+        && Objects.equals(district, that.district)
+        && Objects.equals(minPopulation, that.minPopulation)
+        && Objects.equals(maxPopulation, that.maxPopulation);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(groupBy, countrycode, district, minPopulation, maxPopulation);
+  }
+
+  @Override
+  public String toString() {
+    return "AggregateCityRequest{"
+        + "groupBy='"
+        + groupBy
+        + '\''
+        + ", countrycode='"
+        + countrycode
+        + '\''
+        + ", district='"
+        + district
+        + '\''
+        + ", minPopulation="
+        + minPopulation
+        + ", maxPopulation="
+        + maxPopulation
+        + '}';
+  }
+}
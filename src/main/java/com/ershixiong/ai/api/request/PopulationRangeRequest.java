@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.request;
+
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Size;
+
+import java.util.Objects;
+
+/**
+ * 人口范围查询请求对象。
+ *
+ * <p>用于接收人口范围查询的API请求参数：
+ *
+ * <ul>
+ *   <li>countrycode: 国家代码（精确匹配），省略时在全部城市中查询
+ *   <li>minPopulation: 最小人口数（包含），默认不限
+ *   <li>maxPopulation: 最大人口数（包含），默认不限
+ * </ul>
+ *
+ * <p>分页参数：
+ *
+ * <ul>
+ *   <li>pageSize: 每页记录数，默认10
+ *   <li>pageNo: 页码，从1开始
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class PopulationRangeRequest {
+  @Size(min = 3, max = 3, message = "国家代码必须是3个字符")
+  private String countrycode;
+
+  @Min(value = 0, message = "最小人口数不能为负数")
+  private Integer minPopulation;
+
+  @Min(value = 0, message = "最大人口数不能为负数")
+  private Integer maxPopulation;
+
+  @Min(value = 1, message = "页码必须大于0")
+  private int pageNo = 1;
+
+  @Min(value = 1, message = "每页记录数必须大于0")
+  @Max(value = 100, message = "每页记录数不能超过100")
+  private int pageSize = 10;
+
+  public String getCountrycode() {
+    return countrycode;
+  }
+
+  public void setCountrycode(String countrycode) {
+    this.countrycode = countrycode;
+  }
+
+  public Integer getMinPopulation() {
+    return minPopulation;
+  }
+
+  public void setMinPopulation(Integer minPopulation) {
+    this.minPopulation = minPopulation;
+  }
+
+  public Integer getMaxPopulation() {
+    return maxPopulation;
+  }
+
+  public void setMaxPopulation(Integer maxPopulation) {
+    this.maxPopulation = maxPopulation;
+  }
+
+  public int getPageNo() {
+    return pageNo;
+  }
+
+  public void setPageNo(int pageNo) {
+    this.pageNo = pageNo;
+  }
+
+  public int getPageSize() {
+    return pageSize;
+  }
+
+  public void setPageSize(int pageSize) {
+    this.pageSize = pageSize;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    PopulationRangeRequest that = (PopulationRangeRequest) o;
+    return pageNo == that.pageNo
+        && pageSize == that.pageSize
+        && Objects.equals(countrycode, that.countrycode)
+        && Objects.equals(minPopulation, that.minPopulation)
+        && Objects.equals(maxPopulation, that.maxPopulation);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(countrycode, minPopulation, maxPopulation, pageNo, pageSize);
+  }
+
+  @Override
+  public String toString() {
+    return "PopulationRangeRequest{"
+        + "countrycode='"
+        + countrycode
+        + '\''
+        + ", minPopulation="
+        + minPopulation
+        + ", maxPopulation="
+        + maxPopulation
+        + ", pageNo="
+        + pageNo
+        + ", pageSize="
+        + pageSize
+        + '}';
+  }
+}
@@ -15,9 +15,11 @@
  */
 package com.ershixiong.ai.api.request;
 
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.Max;
 import jakarta.validation.constraints.Min;
-import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Size;
 
 import java.util.Objects;
 
@@ -27,13 +29,28 @@ import java.util.Objects;
  * <p>用于接收城市搜索的API请求参数，支持以下搜索条件：
  *
  * <ul>
- *   <li>name: 城市名称（模糊匹配）
- *   <li>countryCode: 国家代码（精确匹配）
- *   <li>district: 地区（模糊匹配）
+ *   <li>name: 城市名称（模糊匹配），省略时按国家代码或行政区列出城市
+ *   <li>countrycode: 国家代码，多个以逗号分隔（精确匹配）
+ *   <li>district: 行政区，多个以逗号分隔（精确匹配）
  *   <li>minPopulation: 最小人口数
  *   <li>maxPopulation: 最大人口数
  * </ul>
  *
+ * <p>名称、国家代码和行政区至少指定一项。
+ *
+ * <p>排序参数：
+ *
+ * <ul>
+ *   <li>sort: 排序字段id、name或population，省略时不排序
+ *   <li>direction: 排序方向asc或desc，默认asc
+ * </ul>
+ *
+ * <p>分面参数：
+ *
+ * <ul>
+ *   <li>facets: 每个维度返回匹配城市数最多的前几个国家代码和行政区，默认0不返回
+ * </ul>
+ *
  * <p>分页参数：
  *
  * <ul>
@@ -46,7 +63,6 @@ import java.util.Objects;
  * @date 2025-01-31
  */
 public class SearchCityRequest {
-  @NotBlank(message = "搜索关键词不能为空")
   private String name;
 
   @Min(value = 1, message = "页码必须大于0")
@@ -56,6 +72,22 @@ public class SearchCityRequest {
   @Max(value = 100, message = "每页记录数不能超过100")
   private int pageSize = 10;
 
+  @Pattern(regexp = "[A-Za-z]{3}(\\s*,\\s*[A-Za-z]{3})*", message = "国家代码必须是逗号分隔的3个字母")
+  private String countrycode;
+
+  @Size(max = 500, message = "行政区过滤条件不能超过500个字符")
+  private String district;
+
+  @Pattern(regexp = "(?i)id|name|population", message = "排序字段必须是id、name或population")
+  private String sort;
+
+  @Pattern(regexp = "(?i)asc|desc", message = "排序方向必须是asc或desc")
+  private String direction;
+
+  @Min(value = 0, message = "分面数不能为负数")
+  @Max(value = 50, message = "分面数不能超过50")
+  private int facets;
+
   public String getName() {
     return name;
   }
@@ -80,6 +112,60 @@ public class SearchCityRequest {
     this.pageSize = pageSize;
   }
 
+  public String getCountrycode() {
+    return countrycode;
+  }
+
+  public void setCountrycode(String countrycode) {
+    this.countrycode = countrycode;
+  }
+
+  public String getDistrict() {
+    return district;
+  }
+
+  public void setDistrict(String district) {
+    this.district = district;
+  }
+
+  public String getSort() {
+    return sort;
+  }
+
+  public void setSort(String sort) {
+    this.sort = sort;
+  }
+
+  public String getDirection() {
+    return direction;
+  }
+
+  public void setDirection(String direction) {
+    this.direction = direction;
+  }
+
+  public int getFacets() {
+    return facets;
+  }
+
+  public void setFacets(int facets) {
+    this.facets = facets;
+  }
+
+  /**
+   * 名称、国家代码和行政区是否至少指定了一项
+   *
+   * @return 至少指定一项时为true
+   */
+  @AssertTrue(message = "城市名称、国家代码和行政区至少指定一项")
+  public boolean isCriteriaPresent() {
+    return hasText(name) || hasText(countrycode) || hasText(district);
+  }
+
+  private static boolean hasText(String value) {
+    return value != null && !value.isBlank();
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
@@ -89,12 +175,19 @@ public class SearchCityRequest {
       return false;
     }
     SearchCityRequest that = (SearchCityRequest) o;
-    return pageNo == that.pageNo && pageSize == that.pageSize && Objects.equals(name, that.name);
+    return pageNo == that.pageNo
+        && pageSize == that.pageSize
+        && facets == that.facets
+        && Objects.equals(name, that.name)
+        && Objects.equals(countrycode, that.countrycode)
+        && Objects.equals(district, that.district)
+        && Objects.equals(sort, that.sort)
+        && Objects.equals(direction, that.direction);
   }
 
   @Override
   public int hashCode() {
-    return Objects.hash(name, pageNo, pageSize);
+    return Objects.hash(name, pageNo, pageSize, countrycode, district, sort, direction, facets);
   }
 
   @Override
@@ -107,6 +200,20 @@ public class SearchCityRequest {
         + pageNo
         + ", pageSize="
         + pageSize
+        + ", countrycode='"
+        + countrycode
+        + '\''
+        + ", district='"
+        + district
+        + '\''
+        + ", sort='"
+        + sort
+        + '\''
+        + ", direction='"
+        + direction
+        + '\''
+        + ", facets="
+        + facets
         + '}';
   }
 }
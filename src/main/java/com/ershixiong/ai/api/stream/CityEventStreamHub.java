@@ -0,0 +1,487 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.stream;
+
+import com.ershixiong.ai.api.dto.CityEventDTO;
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.infrastructure.config.CityStreamProperties;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 城市变更事件流分发中心。
+ *
+ * <p>负责把{@link CityChangedEvent}以SSE的形式推送给订阅者：
+ *
+ * <ul>
+ *   <li>写路径只做一次非阻塞入队，由独立的扇出线程分配事件ID、写入环形缓冲区并投递给订阅者
+ *   <li>每个订阅者有独立的有界缓冲区，缓冲区满即视为慢消费者并断开连接
+ *   <li>空闲连接不占用线程，只有存在待发送事件的订阅者才会被少量分发线程处理
+ *   <li>单次写出超过send-timeout的订阅者被断开，并为仍阻塞在其socket上的分发线程补充一个线程，
+ *       少数卡住的连接不会拖住其余订阅者的投递
+ *   <li>重连时根据Last-Event-ID从环形缓冲区续传，超出缓冲范围时推送reset事件，
+ *       客户端应通过增量同步接口重新对齐
+ * </ul>
+ *
+ * <p>事件ID格式为"启动纪元-序号"，服务重启后旧的Last-Event-ID会被识别并触发reset。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+public class CityEventStreamHub {
+
+  /** reset事件名称 */
+  public static final String RESET_EVENT = "reset";
+
+  /** 心跳占位事件 */
+  private static final StreamEvent HEARTBEAT = new StreamEvent(0L, null, null);
+
+  private final CityStreamProperties properties;
+  private final CityConverter cityConverter;
+  private final ObjectMapper objectMapper;
+  private final long epoch = System.currentTimeMillis();
+  private final BlockingQueue<CityChangedEvent> inbound;
+  private final StreamEvent[] ring;
+  private final ReentrantLock lock = new ReentrantLock();
+  private final Map<Long, Subscriber> subscribers = new ConcurrentHashMap<>();
+  private final AtomicLong subscriberIds = new AtomicLong();
+  private final AtomicLong droppedEvents = new AtomicLong();
+  private final AtomicLong evictedSubscribers = new AtomicLong();
+  private final ThreadPoolExecutor dispatcher;
+  /** 仍阻塞在写出超时连接上的分发线程数，分发线程池按此扩容 */
+  private final AtomicInteger stalledSenders = new AtomicInteger();
+  private final Thread fanOutThread;
+  private volatile boolean running = true;
+
+  /** 最近分配的事件序号 受lock保护 */
+  private long lastSequence;
+
+  /** 可续传的最小事件序号 入站队列溢出后推进，受lock保护 */
+  private long oldestReplayableId = 1L;
+
+  /** 扇出线程已处理的丢弃事件数 仅扇出线程访问 */
+  private long seenDroppedEvents;
+
+  public CityEventStreamHub(
+      CityStreamProperties properties,
+      CityConverter cityConverter,
+      ObjectMapper objectMapper,
+      MeterRegistry meterRegistry) {
+    this.properties = properties;
+    this.cityConverter = cityConverter;
+    this.objectMapper = objectMapper;
+    this.inbound = new ArrayBlockingQueue<>(properties.getInboundBufferSize());
+    this.ring = new StreamEvent[properties.getRingBufferSize()];
+    AtomicInteger threadIndex = new AtomicInteger();
+    this.dispatcher =
+        new ThreadPoolExecutor(
+            properties.getDispatcherThreads(),
+            properties.getDispatcherThreads(),
+            0L,
+            TimeUnit.MILLISECONDS,
+            new LinkedBlockingQueue<>(),
+            r -> {
+              Thread thread =
+                  new Thread(r, "city-stream-dispatch-" + threadIndex.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    this.fanOutThread = new Thread(this::fanOutLoop, "city-stream-fanout");
+    this.fanOutThread.setDaemon(true);
+    this.fanOutThread.start();
+
+    Gauge.builder("city.stream.subscribers", subscribers, Map::size).register(meterRegistry);
+    FunctionCounter.builder("city.stream.events.dropped", droppedEvents, AtomicLong::get)
+        .register(meterRegistry);
+    FunctionCounter.builder("city.stream.subscribers.evicted", evictedSubscribers, AtomicLong::get)
+        .register(meterRegistry);
+  }
+
+  /**
+   * 接收城市变更事件，只做非阻塞入队，不阻塞写路径
+   *
+   * @param event 城市变更事件
+   */
+  @EventListener
+  public void onCityChanged(CityChangedEvent event) {
+    if (event.getSource() != properties.getSource()) {
+      return;
+    }
+    if (!inbound.offer(event)) {
+      droppedEvents.incrementAndGet();
+    }
+  }
+
+  /**
+   * 新增订阅者
+   *
+   * @param lastEventId 客户端最后收到的事件ID，为空表示只接收之后的新事件
+   * @return SSE发射器
+   */
+  public SseEmitter subscribe(String lastEventId) {
+    return subscribe(lastEventId, new SseEmitter(properties.getEmitterTimeout().toMillis()));
+  }
+
+  /**
+   * 以给定的发射器新增订阅者
+   *
+   * <p>订阅者数量已达上限时返回RPC_SERVICE_UNAVAILABLE（503），这是容量不足而不是请求错误，
+   * 客户端应退避后重连。上限在lock内检查，并发订阅不会超出。
+   *
+   * @param lastEventId 客户端最后收到的事件ID，为空表示只接收之后的新事件
+   * @param emitter SSE发射器
+   * @return 传入的发射器
+   */
+  SseEmitter subscribe(String lastEventId, SseEmitter emitter) {
+    Subscriber subscriber = new Subscriber(subscriberIds.incrementAndGet(), emitter);
+    lock.lock();
+    try {
+      if (subscribers.size() >= properties.getMaxSubscribers()) {
+        throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "事件流订阅者数量已达上限");
+      }
+      emitter.onCompletion(() -> remove(subscriber));
+      emitter.onTimeout(() -> remove(subscriber));
+      emitter.onError(e -> remove(subscriber));
+      replay(subscriber, lastEventId);
+      subscribers.put(subscriber.id, subscriber);
+    } finally {
+      lock.unlock();
+    }
+    return emitter;
+  }
+
+  /** 向所有订阅者发送心跳，及时清理已断开的连接 */
+  @Scheduled(
+      initialDelayString = "${city.stream.heartbeat-interval:PT15S}",
+      fixedDelayString = "${city.stream.heartbeat-interval:PT15S}")
+  public void heartbeat() {
+    for (Subscriber subscriber : subscribers.values()) {
+      if (!subscriber.offer(HEARTBEAT)) {
+        evict(subscriber);
+      }
+    }
+  }
+
+  /**
+   * 断开单次写出超过send-timeout的订阅者
+   *
+   * <p>阻塞在socket上的写出无法可靠地取消，因此为仍阻塞的分发线程补充一个线程，写出返回后再收回。
+   * 检查间隔等于send-timeout，卡住的连接最迟在两倍超时后被断开。
+   */
+  @Scheduled(
+      initialDelayString = "${city.stream.send-timeout:PT5S}",
+      fixedDelayString = "${city.stream.send-timeout:PT5S}")
+  public void evictStalledSubscribers() {
+    long now = System.nanoTime();
+    long timeout = properties.getSendTimeout().toNanos();
+    for (Subscriber subscriber : subscribers.values()) {
+      long started = subscriber.sendStartedNanos;
+      if (started == 0L || now - started <= timeout) {
+        continue;
+      }
+      if (!subscriber.stalled.compareAndSet(false, true)) {
+        continue;
+      }
+      stalledSenders.incrementAndGet();
+      resizeDispatcher();
+      if (subscriber.sendStartedNanos != started) {
+        // 写出在标记前后已经返回，由未收回补充线程的一方收回
+        if (subscriber.stalled.compareAndSet(true, false)) {
+          stalledSenders.decrementAndGet();
+          resizeDispatcher();
+        }
+        continue;
+      }
+      log.warn(
+          "Evicting city stream subscriber {} blocked on send for over {}",
+          subscriber.id,
+          properties.getSendTimeout());
+      evict(subscriber);
+    }
+  }
+
+  /**
+   * 获取当前订阅者数量
+   *
+   * @return 订阅者数量
+   */
+  public int getSubscriberCount() {
+    return subscribers.size();
+  }
+
+  /** 当前分发线程池的大小，包括为写出超时连接补充的线程 */
+  int getDispatcherPoolSize() {
+    return dispatcher.getCorePoolSize();
+  }
+
+  /** 关闭分发线程并结束所有连接 */
+  @PreDestroy
+  public void shutdown() {
+    running = false;
+    fanOutThread.interrupt();
+    dispatcher.shutdownNow();
+    for (Subscriber subscriber : subscribers.values()) {
+      remove(subscriber);
+      subscriber.emitter.complete();
+    }
+  }
+
+  /** 续传Last-Event-ID之后的事件，调用方必须持有lock */
+  private void replay(Subscriber subscriber, String lastEventId) {
+    if (lastEventId == null || lastEventId.isBlank()) {
+      return;
+    }
+    long lastSeen = parseSequence(lastEventId);
+    long firstAvailable = Math.max(oldestReplayableId, lastSequence - ring.length + 1);
+    if (lastSeen < 0 || lastSeen + 1 < firstAvailable || lastSeen > lastSequence) {
+      subscriber.offer(resetEvent());
+      return;
+    }
+    if (lastSequence - lastSeen > properties.getSubscriberBufferSize()) {
+      subscriber.offer(resetEvent());
+      return;
+    }
+    for (long id = lastSeen + 1; id <= lastSequence; id++) {
+      subscriber.offer(ring[(int) (id % ring.length)]);
+    }
+  }
+
+  /** 解析事件ID中的序号，纪元不匹配或格式错误时返回-1 */
+  private long parseSequence(String eventId) {
+    int separator = eventId.indexOf('-');
+    if (separator <= 0) {
+      return -1L;
+    }
+    try {
+      long eventEpoch = Long.parseLong(eventId.substring(0, separator));
+      long sequence = Long.parseLong(eventId.substring(separator + 1));
+      return eventEpoch == epoch ? sequence : -1L;
+    } catch (NumberFormatException e) {
+      return -1L;
+    }
+  }
+
+  private StreamEvent resetEvent() {
+    return new StreamEvent(lastSequence, RESET_EVENT, "{}");
+  }
+
+  private void fanOutLoop() {
+    while (running) {
+      CityChangedEvent event;
+      try {
+        event = inbound.poll(1, TimeUnit.SECONDS);
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+        return;
+      }
+      if (event == null) {
+        continue;
+      }
+      String json = toJson(event);
+      lock.lock();
+      try {
+        handleDroppedEvents();
+        StreamEvent streamEvent =
+            new StreamEvent(++lastSequence, event.getType().name().toLowerCase(), json);
+        ring[(int) (lastSequence % ring.length)] = streamEvent;
+        for (Subscriber subscriber : subscribers.values()) {
+          if (!subscriber.offer(streamEvent)) {
+            evict(subscriber);
+          }
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+  }
+
+  /** 入站队列溢出时，之前的事件流已不完整，通知所有订阅者重新对齐，调用方必须持有lock */
+  private void handleDroppedEvents() {
+    long dropped = droppedEvents.get();
+    if (dropped == seenDroppedEvents) {
+      return;
+    }
+    seenDroppedEvents = dropped;
+    oldestReplayableId = lastSequence + 1;
+    log.warn("City stream inbound buffer overflowed, {} events dropped in total", dropped);
+    StreamEvent reset = resetEvent();
+    for (Subscriber subscriber : subscribers.values()) {
+      if (!subscriber.offer(reset)) {
+        evict(subscriber);
+      }
+    }
+  }
+
+  private String toJson(CityChangedEvent event) {
+    CityEventDTO dto =
+        CityEventDTO.builder()
+            .type(event.getType().name())
+            .cityId(event.getCityId())
+            .city(cityConverter.toDTO(event.getCity()))
+            .build();
+    try {
+      return objectMapper.writeValueAsString(dto);
+    } catch (JsonProcessingException e) {
+      throw new IllegalStateException("Failed to serialize city event " + event, e);
+    }
+  }
+
+  /** 分发线程数为配置值加上仍阻塞在写出超时连接上的线程数 */
+  private void resizeDispatcher() {
+    lock.lock();
+    try {
+      int size = properties.getDispatcherThreads() + stalledSenders.get();
+      if (size > dispatcher.getMaximumPoolSize()) {
+        dispatcher.setMaximumPoolSize(size);
+        dispatcher.setCorePoolSize(size);
+      } else {
+        dispatcher.setCorePoolSize(size);
+        dispatcher.setMaximumPoolSize(size);
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void evict(Subscriber subscriber) {
+    if (remove(subscriber)) {
+      evictedSubscribers.incrementAndGet();
+      subscriber.emitter.complete();
+    }
+  }
+
+  private boolean remove(Subscriber subscriber) {
+    subscriber.closed = true;
+    return subscribers.remove(subscriber.id) != null;
+  }
+
+  /** 已分配ID并序列化的事件，所有订阅者共享同一份 */
+  private static final class StreamEvent {
+    private final long id;
+    private final String name;
+    private final String data;
+
+    private StreamEvent(long id, String name, String data) {
+      this.id = id;
+      this.name = name;
+      this.data = data;
+    }
+  }
+
+  /** 订阅者 由分发线程按需排空其缓冲区，同一时刻最多一个线程向其写出 */
+  private final class Subscriber {
+    private final long id;
+    private final SseEmitter emitter;
+    private final BlockingQueue<StreamEvent> queue;
+    private final AtomicBoolean scheduled = new AtomicBoolean();
+    /** 写出超时后是否已为其补充分发线程 */
+    private final AtomicBoolean stalled = new AtomicBoolean();
+    private volatile boolean closed;
+    /** 当前写出开始的时间，未在写出时为0 */
+    private volatile long sendStartedNanos;
+
+    private Subscriber(long id, SseEmitter emitter) {
+      this.id = id;
+      this.emitter = emitter;
+      this.queue = new ArrayBlockingQueue<>(properties.getSubscriberBufferSize());
+    }
+
+    /** 非阻塞入队，缓冲区已满时返回false */
+    private boolean offer(StreamEvent event) {
+      if (closed) {
+        return true;
+      }
+      if (!queue.offer(event)) {
+        return false;
+      }
+      schedule();
+      return true;
+    }
+
+    private void schedule() {
+      if (scheduled.compareAndSet(false, true)) {
+        try {
+          dispatcher.execute(this::drain);
+        } catch (RejectedExecutionException e) {
+          scheduled.set(false);
+        }
+      }
+    }
+
+    private void drain() {
+      try {
+        StreamEvent event;
+        while (!closed && (event = queue.poll()) != null) {
+          send(event);
+        }
+      } finally {
+        scheduled.set(false);
+        if (!closed && !queue.isEmpty()) {
+          schedule();
+        }
+      }
+    }
+
+    private void send(StreamEvent event) {
+      sendStartedNanos = System.nanoTime() | 1L;
+      try {
+        if (event == HEARTBEAT) {
+          emitter.send(SseEmitter.event().comment("ping"));
+        } else {
+          emitter.send(
+              SseEmitter.event().id(epoch + "-" + event.id).name(event.name).data(event.data));
+        }
+      } catch (IOException | IllegalStateException e) {
+        remove(this);
+      } finally {
+        sendStartedNanos = 0L;
+        if (stalled.compareAndSet(true, false)) {
+          stalledSenders.decrementAndGet();
+          resizeDispatcher();
+        }
+      }
+    }
+  }
+}
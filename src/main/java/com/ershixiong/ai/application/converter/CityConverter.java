@@ -15,12 +15,27 @@
  */
 package com.ershixiong.ai.application.converter;
 
+import com.ershixiong.ai.api.dto.CityAggregationDTO;
+import com.ershixiong.ai.api.dto.CityChangesDTO;
 import com.ershixiong.ai.api.dto.CityDTO;
+import com.ershixiong.ai.api.dto.CityFacetsDTO;
+import com.ershixiong.ai.api.dto.CityRankDTO;
+import com.ershixiong.ai.api.dto.CitySketchStatsDTO;
+import com.ershixiong.ai.api.dto.CityStatsDTO;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityAggregation;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.model.CitySketchStats;
+import com.ershixiong.ai.domain.model.CityStats;
 import org.springframework.stereotype.Component;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Locale;
 
 /**
  * 城市对象转换器。
@@ -97,4 +112,169 @@ public class CityConverter {
     }
     return cities;
   }
+
+  /**
+   * 将城市变更集转换为增量变更DTO。
+   *
+   * <p>增量令牌即本批变更的最大版本号，版本号从1开始分配，空表时令牌为0。
+   *
+   * @param changeSet 城市变更集
+   * @return 增量变更DTO，如果输入为null则返回null
+   */
+  public CityChangesDTO toChangesDTO(CityChangeSet changeSet) {
+    if (changeSet == null) {
+      return null;
+    }
+    return CityChangesDTO.builder()
+        .upserts(toDTOList(changeSet.getUpserts()))
+        .deletedIds(changeSet.getDeletedIds())
+        .nextToken(String.valueOf(Math.max(changeSet.getLastVersion(), 0L)))
+        .hasMore(changeSet.isHasMore())
+        .resetRequired(changeSet.isResetRequired())
+        .build();
+  }
+
+  /**
+   * 将人口聚合结果转换为DTO。
+   *
+   * @param aggregation 人口聚合结果
+   * @return 聚合DTO，如果输入为null则返回null
+   */
+  public CityAggregationDTO toAggregationDTO(CityAggregation aggregation) {
+    if (aggregation == null) {
+      return null;
+    }
+    return CityAggregationDTO.builder()
+        .groupBy(aggregation.getGroupBy().name().toLowerCase(Locale.ROOT))
+        .version(aggregation.getVersion())
+        .scannedRows(aggregation.getScannedRows())
+        .matchedRows(aggregation.getMatchedRows())
+        .groups(toGroupDTOs(aggregation.getGroups()))
+        .build();
+  }
+
+  /**
+   * 将人口排名转换为DTO。
+   *
+   * @param rank 人口排名
+   * @return 人口排名DTO，如果输入为null则返回null
+   */
+  public CityRankDTO toRankDTO(CityPopulationRank rank) {
+    if (rank == null) {
+      return null;
+    }
+    return CityRankDTO.builder()
+        .city(toDTO(rank.getCity()))
+        .countryRank(rank.getCountryRank())
+        .countryCities(rank.getCountryCities())
+        .globalRank(rank.getGlobalRank())
+        .globalCities(rank.getGlobalCities())
+        .build();
+  }
+
+  /**
+   * 将人口统计转换为DTO。
+   *
+   * @param stats 人口统计
+   * @return 人口统计DTO，如果输入为null则返回null
+   */
+  public CityStatsDTO toStatsDTO(CityStats stats) {
+    if (stats == null) {
+      return null;
+    }
+    return CityStatsDTO.builder()
+        .countrycode(stats.getCountrycode())
+        .total(toGroupDTO(stats.getTotal()))
+        .groups(toGroupDTOs(stats.getGroups()))
+        .reconciledAt(stats.getReconciledAt())
+        .build();
+  }
+
+  /**
+   * 将近似统计转换为DTO。
+   *
+   * @param stats 近似统计
+   * @return 近似统计DTO，如果输入为null则返回null
+   */
+  public CitySketchStatsDTO toSketchStatsDTO(CitySketchStats stats) {
+    if (stats == null) {
+      return null;
+    }
+    List<CitySketchStatsDTO.Quantile> quantiles =
+        new ArrayList<>(stats.getPopulationQuantiles().size());
+    for (CitySketchStats.Quantile quantile : stats.getPopulationQuantiles()) {
+      quantiles.add(
+          CitySketchStatsDTO.Quantile.builder()
+              .fraction(quantile.getFraction())
+              .population(quantile.getPopulation())
+              .build());
+    }
+    List<CitySketchStatsDTO.District> districts = new ArrayList<>(stats.getTopDistricts().size());
+    for (CitySketchStats.Frequency frequency : stats.getTopDistricts()) {
+      districts.add(
+          CitySketchStatsDTO.District.builder()
+              .countrycode(frequency.getCountrycode())
+              .district(frequency.getDistrict())
+              .count(frequency.getCount())
+              .build());
+    }
+    return CitySketchStatsDTO.builder()
+        .countrycode(stats.getCountrycode())
+        .cities(stats.getCities())
+        .removedSinceRebuild(stats.getRemovedSinceRebuild())
+        .populationQuantiles(quantiles)
+        .quantileRankError(stats.getQuantileRankError())
+        .distinctDistricts(stats.getDistinctDistricts())
+        .distinctStandardError(stats.getDistinctStandardError())
+        .topDistricts(districts)
+        .frequencyError(stats.getFrequencyError())
+        .frequencyConfidence(stats.getFrequencyConfidence())
+        .builtAt(stats.getBuiltAt())
+        .build();
+  }
+
+  /**
+   * 将搜索分面计数转换为DTO。
+   *
+   * @param facets 分面计数
+   * @return 分面计数DTO，如果输入为null则返回null
+   */
+  public CityFacetsDTO toFacetsDTO(CityFacets facets) {
+    if (facets == null) {
+      return null;
+    }
+    return CityFacetsDTO.builder()
+        .countrycodes(toCountDTOs(facets.getCountrycodes()))
+        .districts(toCountDTOs(facets.getDistricts()))
+        .truncated(facets.isTruncated())
+        .build();
+  }
+
+  private static List<CityFacetsDTO.Count> toCountDTOs(List<CityFacetCount> counts) {
+    List<CityFacetsDTO.Count> result = new ArrayList<>(counts.size());
+    for (CityFacetCount count : counts) {
+      result.add(
+          CityFacetsDTO.Count.builder().key(count.getKey()).count(count.getCount()).build());
+    }
+    return result;
+  }
+
+  private static List<CityAggregationDTO.Group> toGroupDTOs(List<CityPopulationStats> stats) {
+    List<CityAggregationDTO.Group> groups = new ArrayList<>(stats.size());
+    for (CityPopulationStats group : stats) {
+      groups.add(toGroupDTO(group));
+    }
+    return groups;
+  }
+
+  private static CityAggregationDTO.Group toGroupDTO(CityPopulationStats stats) {
+    return CityAggregationDTO.Group.builder()
+        .key(stats.getKey())
+        .count(stats.getCount())
+        .sum(stats.getSum())
+        .min(stats.getMin())
+        .max(stats.getMax())
+        .avg(stats.getAvg())
+        .build();
+  }
 }
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.bitmap.CityBitmapIndex;
+import com.ershixiong.ai.infrastructure.config.CityBitmapProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * 城市位图索引重建任务。
+ *
+ * <p>首次执行时流式扫描全表建立索引，之后按重建间隔重新扫描，修复遗漏的写入并回收已删除的行号。
+ * 重建期间查询继续使用旧索引，失败时保留旧索引，下次重试。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.bitmap", name = "enabled", havingValue = "true")
+public class CityBitmapIndexJob {
+
+  private final CityBitmapIndex cityBitmapIndex;
+  private final CityRepository cityRepository;
+  private final CityBitmapProperties properties;
+
+  public CityBitmapIndexJob(
+      CityBitmapIndex cityBitmapIndex,
+      CityRepository cityRepository,
+      CityBitmapProperties properties) {
+    this.cityBitmapIndex = cityBitmapIndex;
+    this.cityRepository = cityRepository;
+    this.properties = properties;
+  }
+
+  /** 按需重建索引 */
+  @Scheduled(fixedDelayString = "${city.bitmap.check-interval:PT10S}")
+  public void rebuildIfNeeded() {
+    Instant builtAt = cityBitmapIndex.getBuiltAt();
+    if (builtAt != null && builtAt.plus(properties.getRebuildInterval()).isAfter(Instant.now())) {
+      return;
+    }
+    try {
+      cityBitmapIndex.rebuild(cityRepository::scanAll);
+    } catch (RuntimeException e) {
+      log.warn("City bitmap index rebuild failed: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.config.CityRankingProperties;
+import com.ershixiong.ai.infrastructure.ranking.CityPopulationIndex;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * 城市人口索引重建任务。
+ *
+ * <p>首次执行时流式扫描全表建立索引，之后按重建间隔重新扫描，修复未经过本实例也未被binlog捕获的写入。
+ * 重建期间查询继续使用旧索引，失败时保留旧索引，下次重试。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.ranking", name = "enabled", havingValue = "true")
+public class CityPopulationIndexJob {
+
+  private final CityPopulationIndex cityPopulationIndex;
+  private final CityRepository cityRepository;
+  private final CityRankingProperties properties;
+
+  public CityPopulationIndexJob(
+      CityPopulationIndex cityPopulationIndex,
+      CityRepository cityRepository,
+      CityRankingProperties properties) {
+    this.cityPopulationIndex = cityPopulationIndex;
+    this.cityRepository = cityRepository;
+    this.properties = properties;
+  }
+
+  /** 按需重建索引 */
+  @Scheduled(fixedDelayString = "${city.ranking.check-interval:PT10S}")
+  public void rebuildIfNeeded() {
+    Instant builtAt = cityPopulationIndex.getBuiltAt();
+    if (builtAt != null && builtAt.plus(properties.getRebuildInterval()).isAfter(Instant.now())) {
+      return;
+    }
+    try {
+      cityPopulationIndex.rebuild(cityRepository::scanAll);
+    } catch (RuntimeException e) {
+      log.warn("City population index rebuild failed: {}", e.getMessage());
+    }
+  }
+}
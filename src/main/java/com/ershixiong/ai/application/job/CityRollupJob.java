@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.infrastructure.rollup.CityRollupStore;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 城市人口汇总维护任务。
+ *
+ * <p>按回写间隔把已修改的汇总写入city_rollup表，首次执行时加载汇总；按核对间隔与城市表的分组统计比较，
+ * 修复绕过应用服务的写入、其他实例的写入和进程中断造成的偏差。失败时保留内存中的汇总，下次重试。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.rollup", name = "enabled", havingValue = "true")
+public class CityRollupJob {
+
+  private final CityRollupStore cityRollupStore;
+
+  public CityRollupJob(CityRollupStore cityRollupStore) {
+    this.cityRollupStore = cityRollupStore;
+  }
+
+  /** 首次执行时加载汇总，之后回写已修改的汇总 */
+  @Scheduled(fixedDelayString = "${city.rollup.flush-interval:PT1S}")
+  public void flush() {
+    try {
+      if (!cityRollupStore.isReady()) {
+        cityRollupStore.load();
+        return;
+      }
+      int written = cityRollupStore.flush();
+      if (written > 0) {
+        log.debug("Flushed {} city rollups", written);
+      }
+    } catch (RuntimeException e) {
+      log.warn("City rollup flush failed: {}", e.getMessage());
+    }
+  }
+
+  /** 按配置的间隔与城市表核对 */
+  @Scheduled(
+      initialDelayString = "${city.rollup.reconcile-interval:PT10M}",
+      fixedDelayString = "${city.rollup.reconcile-interval:PT10M}")
+  public void reconcile() {
+    try {
+      cityRollupStore.reconcile();
+    } catch (RuntimeException e) {
+      log.warn("City rollup reconciliation failed: {}", e.getMessage());
+    }
+  }
+}
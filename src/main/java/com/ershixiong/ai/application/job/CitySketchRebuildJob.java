@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.config.CitySketchProperties;
+import com.ershixiong.ai.infrastructure.sketch.CitySketches;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 城市草图重建任务。
+ *
+ * <p>首次执行时流式扫描全表建立草图；之后按检查间隔判断草图是否超过重建间隔，或删除和修改的城市是否超过阈值，
+ * 满足任一条件时重新扫描全表。重建在后台生成新草图后整体替换，期间统计接口继续使用旧草图。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.sketch", name = "enabled", havingValue = "true")
+public class CitySketchRebuildJob {
+
+  private final CitySketches citySketches;
+  private final CityRepository cityRepository;
+  private final CitySketchProperties properties;
+
+  public CitySketchRebuildJob(
+      CitySketches citySketches, CityRepository cityRepository, CitySketchProperties properties) {
+    this.citySketches = citySketches;
+    this.cityRepository = cityRepository;
+    this.properties = properties;
+  }
+
+  /** 按需重建草图 */
+  @Scheduled(fixedDelayString = "${city.sketch.check-interval:PT10S}")
+  public void rebuildIfNeeded() {
+    if (!citySketches.needsRebuild(
+        properties.getRebuildInterval(), properties.getRebuildRemovalRatio())) {
+      return;
+    }
+    try {
+      citySketches.rebuild(cityRepository::scanAll);
+    } catch (RuntimeException e) {
+      log.warn("City sketch rebuild failed: {}", e.getMessage());
+    }
+  }
+}
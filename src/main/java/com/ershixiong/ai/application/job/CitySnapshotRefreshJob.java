@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.infrastructure.config.CityDegradedProperties;
+import com.ershixiong.ai.infrastructure.degraded.CitySnapshot;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * 城市快照刷新任务。
+ *
+ * <p>启动后立即加载快照（已从快照文件恢复时只追赶文件之后的变更），此后按配置的间隔增量追赶。
+ * 数据库不可用时刷新失败，快照保持上一次的内容，继续为降级读取提供数据。
+ *
+ * <p>配置了快照文件时定期写入文件，应用关闭时再写入一次，供下次启动恢复。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.degraded", name = "enabled", havingValue = "true")
+public class CitySnapshotRefreshJob {
+
+  private final CitySnapshot citySnapshot;
+  private final Path snapshotFile;
+
+  public CitySnapshotRefreshJob(CitySnapshot citySnapshot, CityDegradedProperties properties) {
+    this.citySnapshot = citySnapshot;
+    this.snapshotFile =
+        StringUtils.hasText(properties.getSnapshotFile())
+            ? Path.of(properties.getSnapshotFile())
+            : null;
+  }
+
+  /** 按配置的间隔增量刷新快照 */
+  @Scheduled(fixedDelayString = "${city.degraded.refresh-interval:PT30S}")
+  public void refresh() {
+    try {
+      int applied = citySnapshot.refresh();
+      if (applied > 0) {
+        log.debug(
+            "City snapshot applied {} changes, version {}", applied, citySnapshot.getVersion());
+      }
+    } catch (RuntimeException e) {
+      log.warn("City snapshot refresh failed: {}", e.getMessage());
+    }
+  }
+
+  /** 按配置的间隔写入快照文件 */
+  @Scheduled(
+      initialDelayString = "${city.degraded.snapshot-write-interval:PT5M}",
+      fixedDelayString = "${city.degraded.snapshot-write-interval:PT5M}")
+  @PreDestroy
+  public void persist() {
+    if (snapshotFile == null) {
+      return;
+    }
+    try {
+      if (citySnapshot.persist(snapshotFile)) {
+        log.debug(
+            "City snapshot version {} written to {}", citySnapshot.getVersion(), snapshotFile);
+      }
+    } catch (IOException | RuntimeException e) {
+      log.warn("City snapshot write to {} failed: {}", snapshotFile, e.getMessage());
+    }
+  }
+}
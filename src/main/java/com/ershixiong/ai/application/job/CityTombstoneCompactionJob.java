@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.config.CityChangeProperties;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * 城市墓碑压缩任务。
+ *
+ * <p>定期清理超过保留时长的墓碑记录，防止墓碑表无限增长。客户端若在保留期内没有同步，
+ * 下次增量请求会收到全量重新同步的提示。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+public class CityTombstoneCompactionJob {
+
+  private final CityChangeRepository cityChangeRepository;
+  private final CityChangeProperties properties;
+
+  public CityTombstoneCompactionJob(
+      CityChangeRepository cityChangeRepository, CityChangeProperties properties) {
+    this.cityChangeRepository = cityChangeRepository;
+    this.properties = properties;
+  }
+
+  /** 按配置的间隔压缩过期墓碑 */
+  @Scheduled(
+      initialDelayString = "${city.changes.compaction-interval:PT1H}",
+      fixedDelayString = "${city.changes.compaction-interval:PT1H}")
+  public void compact() {
+    try {
+      cityChangeRepository.compactTombstones(
+          Instant.now().minus(properties.getTombstoneRetention()));
+    } catch (RuntimeException e) {
+      log.warn("City tombstone compaction failed: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.job;
+
+import com.ershixiong.ai.infrastructure.columnar.ColumnarCitySnapshot;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+/**
+ * 列式快照刷新任务。
+ *
+ * <p>按配置的间隔通过增量同步追赶数据库，首次执行时全量加载；刷新失败时保留上一版本，下次继续追赶。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.columnar", name = "enabled", havingValue = "true")
+public class ColumnarSnapshotRefreshJob {
+
+  private final ColumnarCitySnapshot columnarCitySnapshot;
+
+  public ColumnarSnapshotRefreshJob(ColumnarCitySnapshot columnarCitySnapshot) {
+    this.columnarCitySnapshot = columnarCitySnapshot;
+  }
+
+  /** 按配置的间隔增量刷新快照 */
+  @Scheduled(fixedDelayString = "${city.columnar.refresh-interval:PT5S}")
+  public void refresh() {
+    try {
+      int applied = columnarCitySnapshot.refresh();
+      if (applied > 0) {
+        log.debug(
+            "Columnar city snapshot applied {} changes, version {}",
+            applied,
+            columnarCitySnapshot.getVersion());
+      }
+    } catch (RuntimeException e) {
+      log.warn("Columnar city snapshot refresh failed: {}", e.getMessage());
+    }
+  }
+}
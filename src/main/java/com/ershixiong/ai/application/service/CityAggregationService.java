@@ -0,0 +1,78 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.service;
+
+import com.ershixiong.ai.application.validator.CityValidator;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.CityAggregation;
+import com.ershixiong.ai.domain.model.CityAggregationQuery;
+import com.ershixiong.ai.infrastructure.columnar.ColumnarCitySnapshot;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+/**
+ * 城市人口聚合服务。
+ *
+ * <p>在{@link ColumnarCitySnapshot}上执行聚合，不访问数据库，也不受仓储并发限制；
+ * 结果最多落后数据库一个快照刷新间隔，响应中的版本号标明所基于的数据版本。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Service
+@ConditionalOnProperty(prefix = "city.columnar", name = "enabled", havingValue = "true")
+public class CityAggregationService {
+
+  private final ColumnarCitySnapshot columnarCitySnapshot;
+
+  public CityAggregationService(ColumnarCitySnapshot columnarCitySnapshot) {
+    this.columnarCitySnapshot = columnarCitySnapshot;
+  }
+
+  /**
+   * 按条件过滤后分组统计人口
+   *
+   * @param groupBy 分组维度，none、countrycode或district，为空时不分组
+   * @param countrycode 国家代码，为空时不过滤
+   * @param district 行政区，为空时不过滤
+   * @param minPopulation 最小人口数（包含），可以为null
+   * @param maxPopulation 最大人口数（包含），可以为null
+   * @return 聚合结果
+   */
+  public CityAggregation aggregate(
+      String groupBy,
+      String countrycode,
+      String district,
+      Integer minPopulation,
+      Integer maxPopulation) {
+    CityValidator.validatePopulationRange(minPopulation, maxPopulation);
+    CityAggregationQuery query =
+        CityAggregationQuery.builder()
+            .groupBy(CityValidator.toGroupBy(groupBy))
+            .countrycode(StringUtils.trimToNull(countrycode))
+            .district(StringUtils.trimToNull(district))
+            .minPopulation(minPopulation)
+            .maxPopulation(maxPopulation)
+            .build();
+    if (!columnarCitySnapshot.isReady()) {
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "聚合数据尚未加载完成，请稍后重试");
+    }
+    return columnarCitySnapshot.aggregate(query);
+  }
+}
@@ -16,15 +16,32 @@
 package com.ershixiong.ai.application.service;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.application.validator.CityValidator;
 import com.ershixiong.ai.common.exception.BusinessException;
 import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
 import com.ershixiong.ai.domain.repository.CityRepository;
-import org.apache.commons.lang3.StringUtils;
+import com.ershixiong.ai.infrastructure.async.CityQueryExecutor;
+import com.ershixiong.ai.infrastructure.config.CityFacetProperties;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.limiter.OperationClass;
+import com.ershixiong.ai.infrastructure.limiter.OperationLimiters;
+import com.ershixiong.ai.infrastructure.rollup.CityRollupStore;
+import com.ershixiong.ai.infrastructure.sketch.CitySketches;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * 城市应用服务。
@@ -43,6 +60,12 @@ import java.util.Optional;
  *   <li>采用领域驱动设计思想
  *   <li>通过CityConverter进行DTO和领域对象的转换
  *   <li>通过CityRepository进行数据持久化
+ *   <li>写操作成功后发布{@link CityChangedEvent}，由订阅方异步处理
+ *   <li>仓储调用按{@link OperationClass}在{@link OperationLimiters}的并发限制下执行，过载时快速失败
+ *   <li>仓储调用受{@link DeadlineContext}中的请求截止时间约束，过期或被取消时返回RPC_CALL_TIMEOUT
+ *   <li>异步查询方法在{@link CityQueryExecutor}中执行同步版本，调用线程不等待数据库
+ *   <li>启用人口汇总或近似统计时，写操作成功后在同一调用中更新{@link CityRollupStore}和{@link
+ *       CitySketches}
  * </ul>
  *
  * @author ershixiong
@@ -52,104 +75,221 @@ import java.util.Optional;
 @Service
 public class CityApplicationService {
 
-  private static final int MAX_PAGE_SIZE = 100;
   private final CityRepository cityRepository;
+  private final CityFacetProperties cityFacetProperties;
+  private final ApplicationEventPublisher eventPublisher;
+  private final OperationLimiters operationLimiters;
+  private final CityQueryExecutor cityQueryExecutor;
+  /** 人口汇总，未启用时为null */
+  private final CityRollupStore cityRollupStore;
+  /** 近似统计草图，未启用时为null */
+  private final CitySketches citySketches;
 
-  public CityApplicationService(CityRepository cityRepository) {
+  public CityApplicationService(
+      CityRepository cityRepository,
+      CityFacetProperties cityFacetProperties,
+      ApplicationEventPublisher eventPublisher,
+      OperationLimiters operationLimiters,
+      CityQueryExecutor cityQueryExecutor,
+      ObjectProvider<CityRollupStore> cityRollupStore,
+      ObjectProvider<CitySketches> citySketches) {
     this.cityRepository = cityRepository;
+    this.cityFacetProperties = cityFacetProperties;
+    this.eventPublisher = eventPublisher;
+    this.operationLimiters = operationLimiters;
+    this.cityQueryExecutor = cityQueryExecutor;
+    this.cityRollupStore = cityRollupStore.getIfAvailable();
+    this.citySketches = citySketches.getIfAvailable();
   }
 
   /** 根据ID查询城市 */
   public City getById(Long id) {
-    if (id == null) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市ID不能为空");
-    }
-    return cityRepository
-        .findById(id)
-        .orElseThrow(
-            () ->
-                new BusinessException(
-                    ErrorCode.BIZ_DATA_NOT_FOUND, String.format("城市不存在，ID：%d", id)));
+    CityValidator.validateId(id);
+    return execute(OperationClass.POINT_READ, () -> requireExisting(id));
   }
 
   /** 查询所有城市 */
   public List<City> getAll() {
-    return cityRepository.findAll();
+    return execute(OperationClass.LIST, cityRepository::findAll);
+  }
+
+  /** 异步根据ID查询城市 */
+  public CompletableFuture<City> getByIdAsync(Long id) {
+    return cityQueryExecutor.supply(() -> getById(id));
+  }
+
+  /** 异步查询所有城市 */
+  public CompletableFuture<List<City>> getAllAsync() {
+    return cityQueryExecutor.supply(this::getAll);
   }
 
   /**
-   * 根据名称搜索城市 处理搜索参数中的特殊字符，并添加模糊匹配 支持分页查询
+   * 异步根据名称搜索城市
    *
    * @param name 城市名称
    * @param page 页码（从1开始）
    * @param size 每页记录数
    * @return 分页的城市列表
    */
-  public Page<City> searchByName(String name, long page, long size) {
-    // 校验分页参数
-    if (page <= 0) {
-      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "页码必须大于0");
-    }
-    if (size <= 0) {
-      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "每页记录数必须大于0");
-    }
-    if (size > MAX_PAGE_SIZE) {
-      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "每页记录数不能超过" + MAX_PAGE_SIZE);
-    }
-
-    if (name == null || name.trim().isEmpty()) {
-      return new Page<>(page, size);
-    }
-
-    // 转义特殊字符
-    String escapedName = name.replace("%", "").replace("_", "");
-
-    // 添加模糊匹配
-    String likePattern = "%" + escapedName + "%";
-    return cityRepository.findByNameLike(likePattern, new Page<>(page, size));
+  public CompletableFuture<Page<City>> searchByNameAsync(String name, long page, long size) {
+    return cityQueryExecutor.supply(() -> searchByName(name, page, size));
   }
 
   /**
-   * 验证城市数据
+   * 异步根据名称搜索城市，按国家代码和行政区过滤并按指定字段排序
    *
-   * @param city 城市对象
+   * @param name 城市名称，为空时不按名称过滤
+   * @param countrycode 逗号分隔的国家代码，为空时不过滤
+   * @param district 逗号分隔的行政区，为空时不过滤
+   * @param sort 排序字段，为空时不排序
+   * @param direction 排序方向，为空时升序
+   * @param facets 每个维度返回的分面取值数，0表示不返回分面
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   * @return 分页的城市列表、执行计划和分面计数
    */
-  private void validateCity(City city) {
-    if (city == null) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市对象不能为空");
-    }
-
-    if (StringUtils.isBlank(city.getName())) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市名称不能为空");
-    }
-
-    if (city.getName().length() > 50) {
-      throw new BusinessException(ErrorCode.PARAM_INVALID, "城市名称长度不能超过50个字符");
-    }
+  public CompletableFuture<CitySearchResult> searchByNameAsync(
+      String name,
+      String countrycode,
+      String district,
+      String sort,
+      String direction,
+      int facets,
+      long page,
+      long size) {
+    return cityQueryExecutor.supply(
+        () -> searchByName(name, countrycode, district, sort, direction, facets, page, size));
+  }
 
-    if (StringUtils.isBlank(city.getCountrycode())) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "国家代码不能为空");
-    }
+  /**
+   * 按ID升序逐条导出所有城市
+   *
+   * @param consumer 城市处理函数
+   */
+  public void exportAll(Consumer<City> consumer) {
+    run(OperationClass.BULK, () -> cityRepository.scanAll(consumer));
+  }
 
-    if (city.getCountrycode().length() != 3) {
-      throw new BusinessException(ErrorCode.PARAM_INVALID, "国家代码必须是3个字符");
+  /**
+   * 根据名称搜索城市 处理搜索参数中的特殊字符，并添加模糊匹配 支持分页查询
+   *
+   * @param name 城市名称
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   * @return 分页的城市列表
+   */
+  public Page<City> searchByName(String name, long page, long size) {
+    CityValidator.validatePage(page, size);
+    String likePattern = CityValidator.toLikePattern(name);
+    if (likePattern == null) {
+      return new Page<>(page, size);
     }
+    return execute(
+        OperationClass.SEARCH,
+        () -> cityRepository.findByNameLike(likePattern, new Page<>(page, size)));
+  }
 
-    if (StringUtils.isBlank(city.getDistrict())) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "行政区不能为空");
+  /**
+   * 根据名称搜索城市，按国家代码和行政区过滤并按指定字段排序
+   *
+   * <p>同一维度的多个取值之间为或，不同维度之间为且；名称为空时只按国家代码和行政区过滤。启用位图索引时由索引求出匹配的城市；
+   * 否则排序字段有索引时由数据库按索引顺序读取一页，没有索引时逐行读取匹配的城市在内存中取前若干个。
+   * 返回结果中的执行计划说明采用了哪种方式。
+   *
+   * <p>facets大于0时在同一次查询中统计全部匹配城市的国家代码和行政区分面，每个维度返回城市数最多的facets个取值；
+   * 统计的不同取值数和耗时受{@link CityFacetProperties}限制，超出时结果标记为截断。
+   *
+   * @param name 城市名称，为空时不按名称过滤
+   * @param countrycode 逗号分隔的国家代码，为空时不过滤
+   * @param district 逗号分隔的行政区，精确匹配，为空时不过滤
+   * @param sort 排序字段id、name或population，为空时不排序
+   * @param direction 排序方向asc或desc，为空时升序
+   * @param facets 每个维度返回的分面取值数，0表示不返回分面
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   * @return 分页的城市列表、执行计划和分面计数
+   * @throws BusinessException 名称、国家代码和行政区都为空时抛出，错误码为PARAM_MISSING
+   */
+  public CitySearchResult searchByName(
+      String name,
+      String countrycode,
+      String district,
+      String sort,
+      String direction,
+      int facets,
+      long page,
+      long size) {
+    CityValidator.validatePage(page, size);
+    CityValidator.validateFacets(facets, cityFacetProperties.getMaxLimit());
+    String namePattern = CityValidator.toLikePattern(name);
+    CitySearchQuery query =
+        CitySearchQuery.builder()
+            // 只按国家代码或行政区过滤时名称匹配任意值
+            .namePattern(namePattern == null ? "%" : namePattern)
+            .countrycodes(CityValidator.toCountrycodes(countrycode))
+            .districts(CityValidator.toDistricts(district))
+            .sort(CityValidator.toSort(sort, direction))
+            .facets(facets == 0 ? null : toFacetOptions(facets))
+            .build();
+    if (namePattern == null && !query.hasFilters()) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市名称、国家代码和行政区至少指定一项");
     }
+    return execute(
+        OperationClass.SEARCH, () -> cityRepository.search(query, new Page<>(page, size)));
+  }
 
-    if (city.getDistrict().length() > 50) {
-      throw new BusinessException(ErrorCode.PARAM_INVALID, "行政区长度不能超过50个字符");
-    }
+  /**
+   * 查询人口最多的城市
+   *
+   * @param countrycode 国家代码，为空时在全部城市中查询
+   * @param limit 最多返回的城市数
+   * @return 按人口降序的城市列表
+   */
+  public List<City> getTopByPopulation(String countrycode, int limit) {
+    String code = CityValidator.toCountrycode(countrycode);
+    CityValidator.validateLimit(limit);
+    return execute(OperationClass.SEARCH, () -> cityRepository.findTopByPopulation(code, limit));
+  }
 
-    if (city.getPopulation() == null) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "人口数量不能为空");
-    }
+  /**
+   * 查询人口在范围内的城市，按人口降序
+   *
+   * @param countrycode 国家代码，为空时在全部城市中查询
+   * @param minPopulation 最小人口数（包含），为空时不限
+   * @param maxPopulation 最大人口数（包含），为空时不限
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   * @return 分页的城市列表
+   */
+  public Page<City> searchByPopulation(
+      String countrycode, Integer minPopulation, Integer maxPopulation, long page, long size) {
+    String code = CityValidator.toCountrycode(countrycode);
+    CityValidator.validatePage(page, size);
+    CityValidator.validatePopulationRange(minPopulation, maxPopulation);
+    int min = minPopulation == null ? Integer.MIN_VALUE : minPopulation;
+    int max = maxPopulation == null ? Integer.MAX_VALUE : maxPopulation;
+    return execute(
+        OperationClass.SEARCH,
+        () -> cityRepository.findByPopulationBetween(code, min, max, new Page<>(page, size)));
+  }
 
-    if (city.getPopulation() < 0) {
-      throw new BusinessException(ErrorCode.PARAM_INVALID, "人口数量不能为负数");
-    }
+  /**
+   * 查询城市在所属国家和全部城市中的人口排名
+   *
+   * @param id 城市ID
+   * @return 人口排名
+   */
+  public CityPopulationRank getPopulationRank(Long id) {
+    CityValidator.validateId(id);
+    return execute(
+        OperationClass.SEARCH,
+        () ->
+            cityRepository
+                .findPopulationRank(id)
+                .orElseThrow(
+                    () ->
+                        new BusinessException(
+                            ErrorCode.BIZ_DATA_NOT_FOUND, String.format("城市不存在，ID：%d", id))));
   }
 
   /**
@@ -159,27 +299,126 @@ public class CityApplicationService {
    * @return 创建后的城市对象
    */
   public City create(City city) {
-    validateCity(city);
-    return cityRepository.save(city);
+    CityValidator.validateCity(city);
+    City saved =
+        execute(
+            OperationClass.WRITE,
+            () -> {
+              City result = cityRepository.save(city);
+              recordWrite(null, result);
+              return result;
+            });
+    eventPublisher.publishEvent(CityChangedEvent.created(saved));
+    return saved;
   }
 
   /** 更新城市 */
   public City updateCity(City city) {
-    validateCity(city);
-    Optional<City> existingCity = cityRepository.findById(city.getId());
-    if (existingCity.isEmpty()) {
-      throw new BusinessException(ErrorCode.BIZ_DATA_NOT_FOUND, "城市不存在");
-    }
-    return cityRepository.save(city);
+    CityValidator.validateCity(city);
+    City saved =
+        execute(
+            OperationClass.WRITE,
+            () -> {
+              Optional<City> existingCity = cityRepository.findByIdForWrite(city.getId());
+              if (existingCity.isEmpty()) {
+                throw new BusinessException(ErrorCode.BIZ_DATA_NOT_FOUND, "城市不存在");
+              }
+              City result = cityRepository.save(city);
+              recordWrite(existingCity.get(), result);
+              return result;
+            });
+    eventPublisher.publishEvent(CityChangedEvent.updated(saved));
+    return saved;
   }
 
   /** 删除城市 */
   public void deleteCity(Long id) {
-    if (id == null) {
-      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市ID不能为空");
+    CityValidator.validateId(id);
+    run(
+        OperationClass.WRITE,
+        () -> {
+          // 确保城市存在
+          City existing = requireExistingForWrite(id);
+          cityRepository.deleteById(id);
+          recordWrite(existing, null);
+        });
+    eventPublisher.publishEvent(CityChangedEvent.deleted(id));
+  }
+
+  private CityFacetOptions toFacetOptions(int limit) {
+    return CityFacetOptions.builder()
+        .limit(limit)
+        .maxValues(cityFacetProperties.getMaxValues())
+        .budget(cityFacetProperties.getBudget())
+        .build();
+  }
+
+  /**
+   * 查询城市，不存在时抛出异常
+   *
+   * @param id 城市ID
+   * @return 城市
+   */
+  private City requireExisting(Long id) {
+    return orNotFound(cityRepository.findById(id), id);
+  }
+
+  /**
+   * 从写入所在的存储查询城市，不存在时抛出异常，结果作为汇总的写入前镜像
+   *
+   * @param id 城市ID
+   * @return 城市
+   */
+  private City requireExistingForWrite(Long id) {
+    return orNotFound(cityRepository.findByIdForWrite(id), id);
+  }
+
+  private static City orNotFound(Optional<City> city, Long id) {
+    return city.orElseThrow(
+        () ->
+            new BusinessException(
+                ErrorCode.BIZ_DATA_NOT_FOUND, String.format("城市不存在，ID：%d", id)));
+  }
+
+  /**
+   * 把一次写入计入人口汇总和近似统计草图，未启用的忽略
+   *
+   * @param before 写入前的城市，新建时为null
+   * @param after 写入后的城市，删除时为null
+   */
+  private void recordWrite(City before, City after) {
+    if (cityRollupStore != null) {
+      cityRollupStore.apply(before, after);
+    }
+    if (citySketches != null) {
+      citySketches.apply(before, after);
     }
-    // 确保城市存在
-    getById(id);
-    cityRepository.deleteById(id);
+  }
+
+  /**
+   * 在并发限制和请求截止时间内执行仓储调用
+   *
+   * @param operation 操作类别
+   * @param action 仓储调用
+   * @param <T> 返回值类型
+   * @return 调用结果
+   */
+  private <T> T execute(OperationClass operation, Supplier<T> action) {
+    return operationLimiters.execute(operation, () -> DeadlineContext.call(action));
+  }
+
+  /**
+   * 在并发限制和请求截止时间内执行无返回值的仓储调用
+   *
+   * @param operation 操作类别
+   * @param action 仓储调用
+   */
+  private void run(OperationClass operation, Runnable action) {
+    execute(
+        operation,
+        () -> {
+          action.run();
+          return null;
+        });
   }
 }
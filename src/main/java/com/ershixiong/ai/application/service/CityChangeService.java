@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.service;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.config.CityChangeProperties;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.limiter.OperationClass;
+import com.ershixiong.ai.infrastructure.limiter.OperationLimiters;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.stereotype.Service;
+
+/**
+ * 城市增量同步服务。
+ *
+ * <p>按增量令牌从{@link CityChangeRepository}读取新增、更新和删除的城市，令牌是上一次返回的最大版本号。
+ * 查询和其他列表查询一样在{@link OperationLimiters}的并发限制和请求截止时间内执行。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Service
+public class CityChangeService {
+
+  private final CityChangeRepository cityChangeRepository;
+  private final CityChangeProperties cityChangeProperties;
+  private final OperationLimiters operationLimiters;
+
+  public CityChangeService(
+      CityChangeRepository cityChangeRepository,
+      CityChangeProperties cityChangeProperties,
+      OperationLimiters operationLimiters) {
+    this.cityChangeRepository = cityChangeRepository;
+    this.cityChangeProperties = cityChangeProperties;
+    this.operationLimiters = operationLimiters;
+  }
+
+  /**
+   * 查询增量令牌之后的城市变更
+   *
+   * @param sinceToken 上一次增量请求返回的令牌，为空表示从头全量同步
+   * @param limit 最多返回的变更条数，为空时使用默认值
+   * @return 城市变更集
+   */
+  public CityChangeSet getChangesSince(String sinceToken, Integer limit) {
+    int effectiveLimit = limit == null ? cityChangeProperties.getDefaultLimit() : limit;
+    if (effectiveLimit <= 0) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "变更条数必须大于0");
+    }
+    if (effectiveLimit > cityChangeProperties.getMaxLimit()) {
+      throw new BusinessException(
+          ErrorCode.PARAM_OUT_OF_RANGE, "变更条数不能超过" + cityChangeProperties.getMaxLimit());
+    }
+    long sinceVersion = parseChangeToken(sinceToken);
+    return operationLimiters.execute(
+        OperationClass.LIST,
+        () ->
+            DeadlineContext.call(
+                () -> cityChangeRepository.findChangesSince(sinceVersion, effectiveLimit)));
+  }
+
+  /**
+   * 解析增量令牌
+   *
+   * @param token 增量令牌
+   * @return 起始版本号，令牌为空时返回-1
+   */
+  private static long parseChangeToken(String token) {
+    if (StringUtils.isBlank(token)) {
+      return -1L;
+    }
+    try {
+      long version = Long.parseLong(token.trim());
+      if (version < 0) {
+        throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, "增量令牌无效：" + token);
+      }
+      return version;
+    } catch (NumberFormatException e) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, "增量令牌无效：" + token, e);
+    }
+  }
+}
@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.service;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.CitySketchStats;
+import com.ershixiong.ai.infrastructure.config.CitySketchProperties;
+import com.ershixiong.ai.infrastructure.sketch.CitySketches;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * 城市近似统计服务。
+ *
+ * <p>读取{@link CitySketches}中按国家维护的流式草图，不访问数据库；草图由{@link
+ * CityApplicationService}的写入同步更新，并由重建任务定期从全表重建。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Service
+@ConditionalOnProperty(prefix = "city.sketch", name = "enabled", havingValue = "true")
+public class CitySketchService {
+
+  /** 未指定时返回的人口分位点 */
+  private static final double[] DEFAULT_QUANTILES = {0.5, 0.9, 0.99};
+
+  /** 未指定时返回的高频行政区数 */
+  private static final int DEFAULT_TOP = 10;
+
+  /** 一次请求的分位点数上限 */
+  private static final int MAX_QUANTILES = 20;
+
+  private final CitySketches citySketches;
+  private final CitySketchProperties properties;
+
+  public CitySketchService(CitySketches citySketches, CitySketchProperties properties) {
+    this.citySketches = citySketches;
+    this.properties = properties;
+  }
+
+  /**
+   * 查询近似统计
+   *
+   * @param countrycode 国家代码，为空时统计全部国家
+   * @param quantiles 人口分位点，取值0~1，为空时返回0.5、0.9、0.99
+   * @param top 返回的高频行政区数，为空时返回10个
+   * @return 近似统计
+   */
+  public CitySketchStats getStats(String countrycode, List<Double> quantiles, Integer top) {
+    String code = StringUtils.trimToNull(countrycode);
+    if (code != null && code.length() != 3) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "国家代码必须是3个字符");
+    }
+    double[] fractions = fractions(quantiles);
+    int limit = top == null ? Math.min(DEFAULT_TOP, properties.getHeavyHitters()) : top;
+    if (limit < 1 || limit > properties.getHeavyHitters()) {
+      throw new BusinessException(
+          ErrorCode.PARAM_OUT_OF_RANGE, "top必须在1到" + properties.getHeavyHitters() + "之间");
+    }
+    if (!citySketches.isReady()) {
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "统计数据尚未加载完成，请稍后重试");
+    }
+    CitySketchStats stats =
+        citySketches.stats(code == null ? null : code.toUpperCase(Locale.ROOT), fractions, limit);
+    if (stats == null) {
+      throw new BusinessException(
+          ErrorCode.BIZ_DATA_NOT_FOUND, String.format("国家没有城市，国家代码：%s", code));
+    }
+    return stats;
+  }
+
+  /**
+   * 导出序列化的草图，供其他节点合并
+   *
+   * @return 序列化的草图
+   */
+  public byte[] export() {
+    if (!citySketches.isReady()) {
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "统计数据尚未加载完成，请稍后重试");
+    }
+    return citySketches.toBytes();
+  }
+
+  private static double[] fractions(List<Double> quantiles) {
+    if (quantiles == null || quantiles.isEmpty()) {
+      return DEFAULT_QUANTILES.clone();
+    }
+    if (quantiles.size() > MAX_QUANTILES) {
+      throw new BusinessException(
+          ErrorCode.PARAM_OUT_OF_RANGE, "分位点不能超过" + MAX_QUANTILES + "个");
+    }
+    double[] fractions = new double[quantiles.size()];
+    for (int i = 0; i < fractions.length; i++) {
+      Double fraction = quantiles.get(i);
+      if (fraction == null || !(fraction >= 0 && fraction <= 1)) {
+        throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "分位点必须在0到1之间");
+      }
+      fractions[i] = fraction;
+    }
+    return fractions;
+  }
+}
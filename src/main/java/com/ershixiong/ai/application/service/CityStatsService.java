@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.service;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.CityStats;
+import com.ershixiong.ai.infrastructure.rollup.CityRollupStore;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import java.util.Locale;
+
+/**
+ * 城市人口统计服务。
+ *
+ * <p>直接读取{@link CityRollupStore}中增量维护的汇总，不访问数据库，也不受仓储并发限制；
+ * 汇总由{@link CityApplicationService}的写入同步更新，并定期与城市表核对。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Service
+@ConditionalOnProperty(prefix = "city.rollup", name = "enabled", havingValue = "true")
+public class CityStatsService {
+
+  private final CityRollupStore cityRollupStore;
+
+  public CityStatsService(CityRollupStore cityRollupStore) {
+    this.cityRollupStore = cityRollupStore;
+  }
+
+  /**
+   * 查询人口统计
+   *
+   * @param countrycode 国家代码，为空时返回全部国家的总计和各国统计，否则返回该国总计和各行政区统计
+   * @return 人口统计
+   */
+  public CityStats getStats(String countrycode) {
+    String code = StringUtils.trimToNull(countrycode);
+    if (code != null && code.length() != 3) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "国家代码必须是3个字符");
+    }
+    if (!cityRollupStore.isReady()) {
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "统计数据尚未加载完成，请稍后重试");
+    }
+    CityStats stats = cityRollupStore.stats(code == null ? null : code.toUpperCase(Locale.ROOT));
+    if (stats == null) {
+      throw new BusinessException(
+          ErrorCode.BIZ_DATA_NOT_FOUND, String.format("国家没有城市，国家代码：%s", code));
+    }
+    return stats;
+  }
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.service;
+
+import com.ershixiong.ai.application.validator.CityValidator;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.ReactiveCityRepository;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式城市应用服务。
+ *
+ * <p>{@link CityApplicationService}的非阻塞版本，仅在响应式Web应用中生效：
+ *
+ * <ul>
+ *   <li>参数校验通过{@link CityValidator}与阻塞式服务共用，错误码一致
+ *   <li>列表和搜索以{@link Flux}返回，由调用方按需拉取
+ *   <li>写操作成功后同样发布{@link CityChangedEvent}
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Service
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+public class ReactiveCityApplicationService {
+
+  private final ReactiveCityRepository cityRepository;
+  private final ApplicationEventPublisher eventPublisher;
+
+  public ReactiveCityApplicationService(
+      ReactiveCityRepository cityRepository, ApplicationEventPublisher eventPublisher) {
+    this.cityRepository = cityRepository;
+    this.eventPublisher = eventPublisher;
+  }
+
+  /** 根据ID查询城市 */
+  public Mono<City> getById(Long id) {
+    return Mono.defer(
+        () -> {
+          CityValidator.validateId(id);
+          return requireExisting(id);
+        });
+  }
+
+  /** 按ID升序查询所有城市 */
+  public Flux<City> getAll() {
+    return cityRepository.findAll();
+  }
+
+  /**
+   * 根据名称搜索城市，按ID升序分页
+   *
+   * @param name 城市名称
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   * @return 当前页的城市
+   */
+  public Flux<City> searchByName(String name, long page, long size) {
+    return Flux.defer(
+        () -> {
+          CityValidator.validatePage(page, size);
+          String likePattern = CityValidator.toLikePattern(name);
+          if (likePattern == null) {
+            return Flux.empty();
+          }
+          return cityRepository.findByNameLike(likePattern, (page - 1) * size, size);
+        });
+  }
+
+  /**
+   * 统计名称匹配的城市数
+   *
+   * @param name 城市名称
+   * @return 匹配的城市数，名称为空时为0
+   */
+  public Mono<Long> countByName(String name) {
+    String likePattern = CityValidator.toLikePattern(name);
+    return likePattern == null ? Mono.just(0L) : cityRepository.countByNameLike(likePattern);
+  }
+
+  /**
+   * 创建城市
+   *
+   * @param city 城市对象
+   * @return 创建后的城市对象
+   */
+  public Mono<City> create(City city) {
+    return Mono.defer(
+        () -> {
+          CityValidator.validateCity(city);
+          return cityRepository
+              .save(city)
+              .doOnNext(saved -> eventPublisher.publishEvent(CityChangedEvent.created(saved)));
+        });
+  }
+
+  /** 更新城市 */
+  public Mono<City> updateCity(City city) {
+    return Mono.defer(
+        () -> {
+          CityValidator.validateCity(city);
+          return cityRepository
+              .findById(city.getId())
+              .switchIfEmpty(
+                  Mono.error(new BusinessException(ErrorCode.BIZ_DATA_NOT_FOUND, "城市不存在")))
+              .flatMap(existing -> cityRepository.save(city))
+              .doOnNext(saved -> eventPublisher.publishEvent(CityChangedEvent.updated(saved)));
+        });
+  }
+
+  /** 删除城市 */
+  public Mono<Void> deleteCity(Long id) {
+    return Mono.defer(
+        () -> {
+          CityValidator.validateId(id);
+          return requireExisting(id)
+              .flatMap(existing -> cityRepository.deleteById(id))
+              .then(
+                  Mono.fromRunnable(
+                      () -> eventPublisher.publishEvent(CityChangedEvent.deleted(id))));
+        });
+  }
+
+  /**
+   * 查询城市，不存在时返回错误
+   *
+   * @param id 城市ID
+   * @return 城市
+   */
+  private Mono<City> requireExisting(Long id) {
+    return cityRepository
+        .findById(id)
+        .switchIfEmpty(
+            Mono.error(
+                new BusinessException(
+                    ErrorCode.BIZ_DATA_NOT_FOUND, String.format("城市不存在，ID：%d", id))));
+  }
+}
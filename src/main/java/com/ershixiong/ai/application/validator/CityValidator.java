@@ -0,0 +1,285 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.application.validator;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityGroupBy;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
+import org.apache.commons.lang3.StringUtils;
+
+import java.util.LinkedHashSet;
+import java.util.Locale;
+import java.util.Set;
+
+/**
+ * 城市参数校验。
+ *
+ * <p>阻塞式和响应式应用服务共用同一套校验规则和错误码。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CityValidator {
+
+  /** 每页最大记录数 */
+  public static final int MAX_PAGE_SIZE = 100;
+
+  /** 每个过滤维度最多的取值数 */
+  public static final int MAX_FILTER_VALUES = 20;
+
+  private CityValidator() {
+  }
+
+  /**
+   * 校验城市ID
+   *
+   * @param id 城市ID
+   */
+  public static void validateId(Long id) {
+    if (id == null) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市ID不能为空");
+    }
+  }
+
+  /**
+   * 校验分页参数
+   *
+   * @param page 页码（从1开始）
+   * @param size 每页记录数
+   */
+  public static void validatePage(long page, long size) {
+    if (page <= 0) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "页码必须大于0");
+    }
+    if (size <= 0) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "每页记录数必须大于0");
+    }
+    if (size > MAX_PAGE_SIZE) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "每页记录数不能超过" + MAX_PAGE_SIZE);
+    }
+  }
+
+  /**
+   * 把搜索关键字转换为LIKE模式，去掉通配符后前后加%
+   *
+   * @param name 搜索关键字
+   * @return LIKE模式，关键字为空时返回null
+   */
+  public static String toLikePattern(String name) {
+    if (name == null || name.trim().isEmpty()) {
+      return null;
+    }
+    // 转义特殊字符
+    String escapedName = name.replace("%", "").replace("_", "");
+    return "%" + escapedName + "%";
+  }
+
+  /**
+   * 解析分组维度，不区分大小写
+   *
+   * @param groupBy 分组维度名称
+   * @return 分组维度，名称为空时不分组
+   */
+  public static CityGroupBy toGroupBy(String groupBy) {
+    if (StringUtils.isBlank(groupBy)) {
+      return CityGroupBy.NONE;
+    }
+    try {
+      return CityGroupBy.valueOf(groupBy.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BusinessException(
+          ErrorCode.PARAM_INVALID_FORMAT, "分组维度必须是none、countrycode或district：" + groupBy, e);
+    }
+  }
+
+  /**
+   * 校验人口范围
+   *
+   * @param minPopulation 最小人口数，可以为null
+   * @param maxPopulation 最大人口数，可以为null
+   */
+  public static void validatePopulationRange(Integer minPopulation, Integer maxPopulation) {
+    if (minPopulation != null && maxPopulation != null && minPopulation > maxPopulation) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "最小人口数不能大于最大人口数");
+    }
+  }
+
+  /**
+   * 解析搜索结果的排序方式，不区分大小写
+   *
+   * @param sort 排序字段名称，为空时不排序
+   * @param direction 排序方向asc或desc，为空时升序
+   * @return 排序方式，排序字段为空时返回null
+   */
+  public static CitySort toSort(String sort, String direction) {
+    if (StringUtils.isBlank(sort)) {
+      return null;
+    }
+    CitySortField field;
+    try {
+      field = CitySortField.valueOf(sort.trim().toUpperCase(Locale.ROOT));
+    } catch (IllegalArgumentException e) {
+      throw new BusinessException(
+          ErrorCode.PARAM_INVALID_FORMAT, "排序字段必须是id、name或population：" + sort, e);
+    }
+    if (StringUtils.isBlank(direction) || "asc".equalsIgnoreCase(direction.trim())) {
+      return new CitySort(field, false);
+    }
+    if ("desc".equalsIgnoreCase(direction.trim())) {
+      return new CitySort(field, true);
+    }
+    throw new BusinessException(ErrorCode.PARAM_INVALID_FORMAT, "排序方向必须是asc或desc：" + direction);
+  }
+
+  /**
+   * 规范化可选的国家代码过滤条件
+   *
+   * @param countrycode 国家代码，可以为空
+   * @return 大写的国家代码，为空时返回null
+   */
+  public static String toCountrycode(String countrycode) {
+    String code = StringUtils.trimToNull(countrycode);
+    if (code == null) {
+      return null;
+    }
+    if (code.length() != 3) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "国家代码必须是3个字符");
+    }
+    return code.toUpperCase(Locale.ROOT);
+  }
+
+  /**
+   * 解析逗号分隔的多个国家代码过滤条件，每个代码按{@link #toCountrycode}规范化
+   *
+   * @param countrycodes 逗号分隔的国家代码，可以为空
+   * @return 去重后的国家代码，为空时返回null
+   */
+  public static Set<String> toCountrycodes(String countrycodes) {
+    Set<String> codes = split(countrycodes, "国家代码");
+    if (codes == null) {
+      return null;
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (String code : codes) {
+      result.add(toCountrycode(code));
+    }
+    return result;
+  }
+
+  /**
+   * 解析逗号分隔的多个行政区过滤条件，行政区精确匹配，区分大小写
+   *
+   * @param districts 逗号分隔的行政区，可以为空
+   * @return 去重后的行政区，为空时返回null
+   */
+  public static Set<String> toDistricts(String districts) {
+    return split(districts, "行政区");
+  }
+
+  private static Set<String> split(String values, String label) {
+    if (StringUtils.isBlank(values)) {
+      return null;
+    }
+    Set<String> result = new LinkedHashSet<>();
+    for (String value : values.split(",")) {
+      String trimmed = StringUtils.trimToNull(value);
+      if (trimmed != null) {
+        result.add(trimmed);
+      }
+    }
+    if (result.size() > MAX_FILTER_VALUES) {
+      throw new BusinessException(
+          ErrorCode.PARAM_OUT_OF_RANGE, label + "不能超过" + MAX_FILTER_VALUES + "个");
+    }
+    return result.isEmpty() ? null : result;
+  }
+
+  /**
+   * 校验返回城市数
+   *
+   * @param limit 最多返回的城市数
+   */
+  public static void validateLimit(int limit) {
+    if (limit <= 0) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "返回城市数必须大于0");
+    }
+    if (limit > MAX_PAGE_SIZE) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "返回城市数不能超过" + MAX_PAGE_SIZE);
+    }
+  }
+
+  /**
+   * 校验每个维度返回的分面取值数
+   *
+   * @param facets 分面取值数，0表示不返回分面
+   * @param maxLimit 上限
+   */
+  public static void validateFacets(int facets, int maxLimit) {
+    if (facets < 0) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "分面数不能为负数");
+    }
+    if (facets > maxLimit) {
+      throw new BusinessException(ErrorCode.PARAM_OUT_OF_RANGE, "分面数不能超过" + maxLimit);
+    }
+  }
+
+  /**
+   * 验证城市数据
+   *
+   * @param city 城市对象
+   */
+  public static void validateCity(City city) {
+    if (city == null) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市对象不能为空");
+    }
+
+    if (StringUtils.isBlank(city.getName())) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "城市名称不能为空");
+    }
+
+    if (city.getName().length() > 50) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "城市名称长度不能超过50个字符");
+    }
+
+    if (StringUtils.isBlank(city.getCountrycode())) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "国家代码不能为空");
+    }
+
+    if (city.getCountrycode().length() != 3) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "国家代码必须是3个字符");
+    }
+
+    if (StringUtils.isBlank(city.getDistrict())) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "行政区不能为空");
+    }
+
+    if (city.getDistrict().length() > 50) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "行政区长度不能超过50个字符");
+    }
+
+    if (city.getPopulation() == null) {
+      throw new BusinessException(ErrorCode.PARAM_MISSING, "人口数量不能为空");
+    }
+
+    if (city.getPopulation() < 0) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "人口数量不能为负数");
+    }
+  }
+}
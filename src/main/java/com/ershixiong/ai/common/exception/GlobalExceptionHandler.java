@@ -23,6 +23,8 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.validation.BindException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.context.request.async.AsyncRequestTimeoutException;
+import org.springframework.web.server.ServerWebInputException;
 
 /**
  * 全局异常处理器。
@@ -38,7 +40,7 @@ import org.springframework.web.bind.annotation.RestControllerAdvice;
  * <p>异常处理策略：
  *
  * <ul>
- *   <li>业务异常：返回具体的错误码和消息
+ *   <li>业务异常：返回具体的错误码和消息，过载和熔断返回503，请求超时返回504，其余返回400
  *   <li>参数验证异常：返回详细的参数错误信息
  *   <li>系统异常：返回统一的系统错误提示
  * </ul>
@@ -61,7 +63,23 @@ public class GlobalExceptionHandler {
   public ResponseEntity<Result<Void>> handleBusinessException(BusinessException ex) {
     LOGGER.warn("业务异常: {}", ex.getMessage());
     Result<Void> result = Result.fail(ex.getErrorCode().getCode(), ex.getMessage());
-    return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
+    return new ResponseEntity<>(result, resolveStatus(ex.getErrorCode()));
+  }
+
+  /**
+   * 根据错误码确定HTTP状态码，过载和熔断类错误返回503，便于客户端和负载均衡器退避重试；请求超时返回504
+   *
+   * <p>响应式接口的兜底异常处理器复用同一映射。
+   *
+   * @param errorCode 错误码
+   * @return HTTP状态码
+   */
+  public static HttpStatus resolveStatus(ErrorCode errorCode) {
+    return switch (errorCode) {
+      case RPC_CIRCUIT_BREAK, RPC_SERVICE_UNAVAILABLE -> HttpStatus.SERVICE_UNAVAILABLE;
+      case RPC_CALL_TIMEOUT -> HttpStatus.GATEWAY_TIMEOUT;
+      default -> HttpStatus.BAD_REQUEST;
+    };
   }
 
   /**
@@ -82,6 +100,33 @@ public class GlobalExceptionHandler {
     return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
   }
 
+  /**
+   * 处理异步请求超时异常，与截止时间超时一致返回504
+   *
+   * @param ex 异步请求超时异常
+   * @return 统一响应结果
+   */
+  @ExceptionHandler(AsyncRequestTimeoutException.class)
+  public ResponseEntity<Result<Void>> handleAsyncRequestTimeoutException(
+      AsyncRequestTimeoutException ex) {
+    LOGGER.warn("异步请求超时");
+    Result<Void> result = Result.fail(ErrorCode.RPC_CALL_TIMEOUT.getCode(), "请求已超时");
+    return new ResponseEntity<>(result, resolveStatus(ErrorCode.RPC_CALL_TIMEOUT));
+  }
+
+  /**
+   * 处理响应式接口的请求参数和请求体解析异常
+   *
+   * @param ex 请求输入异常
+   * @return 统一响应结果
+   */
+  @ExceptionHandler(ServerWebInputException.class)
+  public ResponseEntity<Result<Void>> handleServerWebInputException(ServerWebInputException ex) {
+    LOGGER.warn("参数校验异常: {}", ex.getReason());
+    Result<Void> result = Result.fail(ErrorCode.PARAM_INVALID.getCode(), ex.getReason());
+    return new ResponseEntity<>(result, HttpStatus.BAD_REQUEST);
+  }
+
   /**
    * 处理其他未预期的异常
    *
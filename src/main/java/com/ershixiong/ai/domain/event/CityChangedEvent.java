@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.event;
+
+import com.ershixiong.ai.domain.model.City;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import lombok.ToString;
+
+/**
+ * 城市变更领域事件。
+ *
+ * <p>城市被创建、更新或删除后发布，供事件流推送、缓存失效和内存索引等订阅方使用：
+ *
+ * <ul>
+ *   <li>type: 变更类型
+ *   <li>cityId: 城市ID
+ *   <li>city: 变更后的城市，删除事件为null
+ *   <li>source: 变更来源，应用写入或数据库binlog
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Getter
+@ToString
+@AllArgsConstructor
+public final class CityChangedEvent {
+
+  /** 变更类型 */
+  public enum Type {
+    /** 创建 */
+    CREATED,
+    /** 更新 */
+    UPDATED,
+    /** 删除 */
+    DELETED
+  }
+
+  /** 变更来源 */
+  public enum Source {
+    /** 通过应用服务写入 */
+    APPLICATION,
+    /** 从MySQL binlog捕获，包括绕过应用直接修改数据库的写入 */
+    BINLOG
+  }
+
+  /** 变更类型 */
+  private final Type type;
+
+  /** 城市ID */
+  private final Long cityId;
+
+  /** 变更后的城市 删除事件为null */
+  private final City city;
+
+  /** 变更来源 */
+  private final Source source;
+
+  /**
+   * 创建城市新增事件
+   *
+   * @param city 新增的城市
+   * @return 城市变更事件
+   */
+  public static CityChangedEvent created(City city) {
+    return new CityChangedEvent(Type.CREATED, city.getId(), city, Source.APPLICATION);
+  }
+
+  /**
+   * 创建城市更新事件
+   *
+   * @param city 更新后的城市
+   * @return 城市变更事件
+   */
+  public static CityChangedEvent updated(City city) {
+    return new CityChangedEvent(Type.UPDATED, city.getId(), city, Source.APPLICATION);
+  }
+
+  /**
+   * 创建城市删除事件
+   *
+   * @param cityId 被删除的城市ID
+   * @return 城市变更事件
+   */
+  public static CityChangedEvent deleted(Long cityId) {
+    return new CityChangedEvent(Type.DELETED, cityId, null, Source.APPLICATION);
+  }
+}
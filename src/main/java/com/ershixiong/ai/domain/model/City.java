@@ -35,6 +35,7 @@ import java.util.Objects;
  *   <li>countrycode: 国家代码
  *   <li>district: 地区
  *   <li>population: 人口数量
+ *   <li>version: 变更版本号（元数据，不参与相等性比较）
  * </ul>
  *
  * @author ershixiong
@@ -61,6 +62,22 @@ public class City {
   /** 城市人口 记录城市的常住人口数量 可以为null，表示未知人口数量 */
   private Integer population;
 
+  /** 变更版本号 由仓储在每次写入时分配，全局单调递增，用于增量同步；新建对象时为null */
+  private Long version;
+
+  /**
+   * 不带版本号的构造函数，版本号由仓储在保存时分配
+   *
+   * @param id 城市ID
+   * @param name 城市名称
+   * @param countrycode 国家代码
+   * @param district 行政区
+   * @param population 人口数量
+   */
+  public City(Long id, String name, String countrycode, String district, Integer population) {
+    this(id, name, countrycode, district, population, null);
+  }
+
   /**
    * 从 DTO 创建领域对象
    *
@@ -96,6 +113,7 @@ public class City {
         .countrycode(cityDO.getCountrycode())
         .district(cityDO.getDistrict())
         .population(cityDO.getPopulation())
+        .version(cityDO.getVersion())
         .build();
   }
 
@@ -126,6 +144,7 @@ public class City {
         .countrycode(this.countrycode)
         .district(this.district)
         .population(this.population)
+        .version(this.version)
         .build();
   }
 
@@ -166,6 +185,8 @@ public class City {
         + '\''
         + ", population="
         + population
+        + ", version="
+        + version
         + '}';
   }
 }
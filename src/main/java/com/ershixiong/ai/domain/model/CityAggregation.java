@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 城市人口聚合结果。
+ *
+ * <ul>
+ *   <li>groupBy: 分组维度
+ *   <li>version: 计算所基于的数据版本
+ *   <li>scannedRows: 参与扫描的城市数
+ *   <li>matchedRows: 满足过滤条件的城市数
+ *   <li>groups: 各组统计，按分组键升序，只包含有城市的组
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityAggregation {
+  /** 分组维度 */
+  private CityGroupBy groupBy;
+
+  /** 数据版本 */
+  private long version;
+
+  /** 扫描的城市数 */
+  private long scannedRows;
+
+  /** 匹配的城市数 */
+  private long matchedRows;
+
+  /** 各组统计 */
+  private List<CityPopulationStats> groups;
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 城市人口聚合查询。
+ *
+ * <p>先按条件过滤，再按分组维度统计人口，所有条件之间是AND关系，为null的条件不生效：
+ *
+ * <ul>
+ *   <li>groupBy: 分组维度
+ *   <li>countrycode: 国家代码，精确匹配
+ *   <li>district: 行政区，精确匹配
+ *   <li>minPopulation: 最小人口（包含），人口未知的城市不匹配
+ *   <li>maxPopulation: 最大人口（包含），人口未知的城市不匹配
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityAggregationQuery {
+  /** 分组维度 */
+  @Builder.Default private CityGroupBy groupBy = CityGroupBy.NONE;
+
+  /** 国家代码过滤条件 */
+  private String countrycode;
+
+  /** 行政区过滤条件 */
+  private String district;
+
+  /** 最小人口过滤条件 */
+  private Integer minPopulation;
+
+  /** 最大人口过滤条件 */
+  private Integer maxPopulation;
+}
@@ -0,0 +1,61 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 城市变更集领域模型。
+ *
+ * <p>表示某个版本之后城市表发生的变更，包含：
+ *
+ * <ul>
+ *   <li>upserts: 新增或更新的城市（每个城市只保留最新版本）
+ *   <li>deletedIds: 已删除城市的ID（来自墓碑表）
+ *   <li>lastVersion: 本批变更中的最大版本号，作为下一次增量同步的起点
+ *   <li>hasMore: 是否还有未返回的变更
+ *   <li>resetRequired: 起始版本早于墓碑压缩水位线，客户端必须丢弃本地数据并全量重新同步
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityChangeSet {
+  /** 新增或更新的城市 按版本号升序排列 */
+  private List<City> upserts;
+
+  /** 已删除的城市ID 按删除版本号升序排列 */
+  private List<Long> deletedIds;
+
+  /** 本批变更中的最大版本号 没有变更时等于请求的起始版本号 */
+  private long lastVersion;
+
+  /** 是否还有未返回的变更 */
+  private boolean hasMore;
+
+  /** 是否需要全量重新同步 */
+  private boolean resetRequired;
+}
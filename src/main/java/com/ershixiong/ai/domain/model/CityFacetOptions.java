@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Duration;
+
+/**
+ * 搜索结果分面计数的参数。
+ *
+ * <p>分面计数统计全部匹配的城市（名称、国家代码和行政区条件都满足）按国家代码和行政区的分布，
+ * 每个维度只返回城市数最多的limit个取值。统计的不同取值数和耗时都有上限，超出时停止统计，
+ * 返回的计数可能偏小，并在结果中标记为截断。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityFacetOptions {
+  /** 每个维度返回的取值数 */
+  private int limit;
+
+  /** 每个维度最多统计的不同取值数 */
+  private int maxValues;
+
+  /** 统计的耗时预算 */
+  private Duration budget;
+}
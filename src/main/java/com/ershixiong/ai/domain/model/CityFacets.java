@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * 搜索结果按国家代码和行政区的分面计数，各维度按城市数降序、城市数相同时按取值升序。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityFacets {
+  /** 城市数最多的国家代码 */
+  private List<CityFacetCount> countrycodes;
+
+  /** 城市数最多的行政区 */
+  private List<CityFacetCount> districts;
+
+  /** 是否因不同取值数或耗时超出上限而提前停止，为true时计数和排名可能不完整 */
+  private boolean truncated;
+}
@@ -0,0 +1,54 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 一组城市的人口统计。
+ *
+ * <p>count统计组内全部城市，sum、min、max、avg只统计人口已知的城市，组内人口全部未知时为null。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityPopulationStats {
+  /** 分组键，不分组时为null */
+  private String key;
+
+  /** 城市数 */
+  private long count;
+
+  /** 人口总和 */
+  private Long sum;
+
+  /** 最小人口 */
+  private Integer min;
+
+  /** 最大人口 */
+  private Integer max;
+
+  /** 平均人口 */
+  private Double avg;
+}
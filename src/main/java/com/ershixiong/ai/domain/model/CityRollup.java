@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 城市人口汇总领域模型。
+ *
+ * <p>一个国家下一个行政区的城市数与人口汇总，对应city_rollup汇总表中的一行：
+ *
+ * <ul>
+ *   <li>countrycode: 国家代码
+ *   <li>district: 行政区
+ *   <li>cityCount: 城市数
+ *   <li>populationCount: 人口已知的城市数
+ *   <li>populationSum: 已知人口的总和
+ *   <li>populationMin: 最小人口，人口全部未知时为null
+ *   <li>populationMax: 最大人口，人口全部未知时为null
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityRollup {
+  /** 国家代码 */
+  private String countrycode;
+
+  /** 行政区 */
+  private String district;
+
+  /** 城市数 */
+  private long cityCount;
+
+  /** 人口已知的城市数 */
+  private long populationCount;
+
+  /** 已知人口的总和 */
+  private long populationSum;
+
+  /** 最小人口 */
+  private Integer populationMin;
+
+  /** 最大人口 */
+  private Integer populationMax;
+}
@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+/**
+ * 城市搜索的执行计划，随响应返回便于排查慢查询。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public enum CitySearchPlan {
+  /** 未指定排序，结果顺序由存储决定 */
+  UNSORTED,
+  /** 排序下推到存储，按索引顺序读取一页 */
+  INDEX_ORDER,
+  /** 逐行读取全部匹配的城市，用有界堆保留到当前页为止的前若干个 */
+  TOP_K,
+  /** 由进程内位图索引求出匹配行，总数即匹配行数，排序时再对匹配行用有界堆取当前页 */
+  BITMAP
+}
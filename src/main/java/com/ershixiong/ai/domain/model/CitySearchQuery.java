@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Set;
+
+/**
+ * 城市搜索条件。
+ *
+ * <p>名称模糊匹配，国家代码和行政区精确匹配：同一维度的多个取值之间是“或”，不同维度之间是“且”，
+ * 维度为空时不按该维度过滤。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitySearchQuery {
+  /** 名称模式（包含%通配符） */
+  private String namePattern;
+
+  /** 国家代码，匹配其中任意一个 */
+  private Set<String> countrycodes;
+
+  /** 行政区，匹配其中任意一个 */
+  private Set<String> districts;
+
+  /** 排序方式，为null时不排序 */
+  private CitySort sort;
+
+  /** 分面计数参数，为null时不统计 */
+  private CityFacetOptions facets;
+
+  /** 是否按国家代码或行政区过滤 */
+  public boolean hasFilters() {
+    return (countrycodes != null && !countrycodes.isEmpty())
+        || (districts != null && !districts.isEmpty());
+  }
+
+  /**
+   * 城市是否满足国家代码和行政区条件，不检查名称
+   *
+   * @param city 城市
+   * @return 是否满足
+   */
+  public boolean matchesFilters(City city) {
+    return (countrycodes == null
+            || countrycodes.isEmpty()
+            || countrycodes.contains(city.getCountrycode()))
+        && (districts == null || districts.isEmpty() || districts.contains(city.getDistrict()));
+  }
+}
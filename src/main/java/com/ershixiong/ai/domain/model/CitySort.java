@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.Comparator;
+
+/**
+ * 城市搜索的排序方式。
+ *
+ * <p>排序字段相同时总是按ID升序，保证分页结果稳定；人口未知和名称为空视为最小，与MySQL中NULL的排序一致。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CitySort {
+  /** 排序字段 */
+  private CitySortField field;
+
+  /** 是否降序 */
+  private boolean descending;
+
+  /**
+   * 与排序方式对应的比较器
+   *
+   * @return 比较器
+   */
+  public Comparator<City> comparator() {
+    Comparator<City> order =
+        switch (field) {
+          case ID -> Comparator.comparing(City::getId);
+          case NAME ->
+              Comparator.comparing(
+                  City::getName, Comparator.nullsFirst(String.CASE_INSENSITIVE_ORDER));
+          case POPULATION ->
+              Comparator.comparing(
+                  City::getPopulation, Comparator.nullsFirst(Comparator.naturalOrder()));
+        };
+    if (descending) {
+      order = order.reversed();
+    }
+    return field == CitySortField.ID ? order : order.thenComparing(City::getId);
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 城市人口统计领域模型。
+ *
+ * <p>由增量维护的人口汇总直接读出，不扫描城市表：
+ *
+ * <ul>
+ *   <li>countrycode: 统计范围，为null表示全部国家
+ *   <li>total: 统计范围内的总计
+ *   <li>groups: 未指定国家时为各国统计，指定国家时为该国各行政区统计，按键升序
+ *   <li>reconciledAt: 最近一次与城市表核对的时间，尚未核对时为null
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityStats {
+  /** 国家代码 */
+  private String countrycode;
+
+  /** 总计 */
+  private CityPopulationStats total;
+
+  /** 分组统计 */
+  private List<CityPopulationStats> groups;
+
+  /** 最近核对时间 */
+  private Instant reconciledAt;
+}
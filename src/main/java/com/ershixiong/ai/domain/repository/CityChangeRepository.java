@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.ershixiong.ai.domain.model.CityChangeSet;
+
+import java.time.Instant;
+
+/**
+ * 城市变更仓储接口。
+ *
+ * <p>基于版本号提供城市表的增量变更查询：
+ *
+ * <ul>
+ *   <li>每次通过{@link CityRepository}保存城市都会分配新的全局版本号
+ *   <li>每次通过{@link CityRepository#deleteById(Long)}删除城市都会写入一条墓碑记录
+ *   <li>过期墓碑会被定期压缩，早于压缩水位线的增量请求需要全量重新同步
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public interface CityChangeRepository {
+
+  /**
+   * 查询指定版本之后的变更
+   *
+   * @param sinceVersion 起始版本号（不包含），小于0表示从头开始
+   * @param limit 最多返回的变更条数（新增、更新和删除合计）
+   * @return 变更集
+   */
+  CityChangeSet findChangesSince(long sinceVersion, int limit);
+
+  /**
+   * 压缩删除时间早于指定时间的墓碑记录
+   *
+   * @param deletedBefore 删除时间上限
+   * @return 被清理的墓碑数量
+   */
+  int compactTombstones(Instant deletedBefore);
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 在一次遍历匹配城市的过程中统计国家代码和行政区的分面计数。
+ *
+ * <ul>
+ *   <li>每个维度的不同取值达到{@link CityFacetOptions#getMaxValues()}后，新出现的取值不再统计
+ *   <li>每统计{@link #CLOCK_INTERVAL}个城市检查一次耗时，超出预算后停止统计
+ * </ul>
+ *
+ * <p>出现以上任一情况时结果标记为截断。非线程安全。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CityFacetCounter {
+
+  /** 检查耗时的间隔城市数 */
+  static final int CLOCK_INTERVAL = 256;
+
+  /** 分面取值的排列顺序：城市数降序，城市数相同时按取值升序 */
+  public static final Comparator<CityFacetCount> ORDER =
+      Comparator.comparingLong(CityFacetCount::getCount)
+          .reversed()
+          .thenComparing(CityFacetCount::getKey);
+
+  private final CityFacetOptions options;
+  private final long deadlineNanos;
+  private final Map<String, long[]> countrycodes = new HashMap<>();
+  private final Map<String, long[]> districts = new HashMap<>();
+  private long accepted;
+  private boolean expired;
+  private boolean truncated;
+
+  /**
+   * 创建计数器，耗时预算从此刻开始计算
+   *
+   * @param options 分面计数参数
+   */
+  public CityFacetCounter(CityFacetOptions options) {
+    this.options = options;
+    this.deadlineNanos = System.nanoTime() + options.getBudget().toNanos();
+  }
+
+  /**
+   * 统计一个匹配的城市
+   *
+   * @param city 城市
+   */
+  public void accept(City city) {
+    add(city.getCountrycode(), city.getDistrict(), 1);
+  }
+
+  /**
+   * 统计一组国家代码和行政区相同的城市
+   *
+   * @param countrycode 国家代码，为null时不计入国家代码分面
+   * @param district 行政区，为null时不计入行政区分面
+   * @param count 城市数
+   */
+  public void add(String countrycode, String district, long count) {
+    if (expired) {
+      return;
+    }
+    if (++accepted % CLOCK_INTERVAL == 0 && System.nanoTime() - deadlineNanos > 0) {
+      expired = true;
+      truncated = true;
+      return;
+    }
+    increment(countrycodes, countrycode, count);
+    increment(districts, district, count);
+  }
+
+  /** 是否已超出耗时预算，超出后继续遍历没有意义 */
+  public boolean isExpired() {
+    return expired;
+  }
+
+  /** 标记结果为截断，用于调用方在计数器之外丢弃了部分城市的情况 */
+  public void truncate() {
+    truncated = true;
+  }
+
+  /**
+   * 取每个维度城市数最多的取值
+   *
+   * @return 分面计数
+   */
+  public CityFacets toFacets() {
+    return CityFacets.builder()
+        .countrycodes(top(countrycodes, options.getLimit()))
+        .districts(top(districts, options.getLimit()))
+        .truncated(truncated)
+        .build();
+  }
+
+  private void increment(Map<String, long[]> counts, String key, long count) {
+    if (key == null) {
+      return;
+    }
+    long[] counter = counts.get(key);
+    if (counter == null) {
+      if (counts.size() >= options.getMaxValues()) {
+        truncated = true;
+        return;
+      }
+      counter = new long[1];
+      counts.put(key, counter);
+    }
+    counter[0] += count;
+  }
+
+  private static List<CityFacetCount> top(Map<String, long[]> counts, int limit) {
+    List<CityFacetCount> result = new ArrayList<>(counts.size());
+    counts.forEach((key, count) -> result.add(new CityFacetCount(key, count[0])));
+    result.sort(ORDER);
+    return result.size() > limit ? new ArrayList<>(result.subList(0, limit)) : result;
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.Consumer;
+
+/**
+ * 基于全表遍历的人口查询。
+ *
+ * <p>{@link CityRepository}人口查询的默认实现，也供只能遍历数据的降级数据源使用。
+ * 每次查询都遍历全部城市，最多查询只保留前limit个城市，范围查询保留全部匹配的城市后排序。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CityPopulationScans {
+
+  private CityPopulationScans() {
+  }
+
+  /**
+   * 查询人口最多的城市
+   *
+   * @param scan 遍历函数，对每个城市调用一次传入的回调
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param limit 最多返回的城市数
+   * @return 按{@link CityRepository#POPULATION_ORDER}排序的城市列表
+   */
+  public static List<City> findTop(Consumer<Consumer<City>> scan, String countrycode, int limit) {
+    PriorityQueue<City> top =
+        new PriorityQueue<>(limit + 1, CityRepository.POPULATION_ORDER.reversed());
+    scan.accept(
+        city -> {
+          if (city.getPopulation() != null
+              && (countrycode == null || countrycode.equals(city.getCountrycode()))) {
+            top.offer(city);
+            if (top.size() > limit) {
+              top.poll();
+            }
+          }
+        });
+    List<City> result = new ArrayList<>(top);
+    result.sort(CityRepository.POPULATION_ORDER);
+    return result;
+  }
+
+  /**
+   * 查询人口在范围内的城市
+   *
+   * @param scan 遍历函数，对每个城市调用一次传入的回调
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param minPopulation 最小人口数（包含）
+   * @param maxPopulation 最大人口数（包含）
+   * @param page 分页对象
+   * @return 分页的城市列表
+   */
+  public static Page<City> findBetween(
+      Consumer<Consumer<City>> scan,
+      String countrycode,
+      int minPopulation,
+      int maxPopulation,
+      Page<City> page) {
+    List<City> matched = new ArrayList<>();
+    scan.accept(
+        city -> {
+          Integer population = city.getPopulation();
+          if (population != null
+              && population >= minPopulation
+              && population <= maxPopulation
+              && (countrycode == null || countrycode.equals(city.getCountrycode()))) {
+            matched.add(city);
+          }
+        });
+    matched.sort(CityRepository.POPULATION_ORDER);
+    Page<City> result = new Page<>(page.getCurrent(), page.getSize(), matched.size());
+    long offset = (page.getCurrent() - 1) * page.getSize();
+    result.setRecords(
+        offset >= matched.size()
+            ? List.of()
+            : new ArrayList<>(
+                matched.subList(
+                    (int) offset, (int) Math.min(matched.size(), offset + page.getSize()))));
+    return result;
+  }
+
+  /**
+   * 计算城市的人口排名
+   *
+   * @param scan 遍历函数，对每个城市调用一次传入的回调
+   * @param target 城市
+   * @return 人口排名
+   */
+  public static CityPopulationRank rank(Consumer<Consumer<City>> scan, City target) {
+    boolean ranked = target.getPopulation() != null;
+    // 依次为国家内排在前面的城市数、国家内城市数、全局排在前面的城市数、全局城市数
+    long[] counts = new long[4];
+    scan.accept(
+        city -> {
+          if (city.getPopulation() == null) {
+            return;
+          }
+          boolean sameCountry = Objects.equals(city.getCountrycode(), target.getCountrycode());
+          boolean ahead = ranked && CityRepository.POPULATION_ORDER.compare(city, target) < 0;
+          counts[0] += sameCountry && ahead ? 1 : 0;
+          counts[1] += sameCountry ? 1 : 0;
+          counts[2] += ahead ? 1 : 0;
+          counts[3]++;
+        });
+    return CityPopulationRank.builder()
+        .city(target)
+        .countryRank(ranked ? counts[0] + 1 : null)
+        .countryCities(counts[1])
+        .globalRank(ranked ? counts[2] + 1 : null)
+        .globalCities(counts[3])
+        .build();
+  }
+}
@@ -17,9 +17,14 @@ package com.ershixiong.ai.domain.repository;
 
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
 
+import java.util.Comparator;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 /**
  * 城市仓储接口。
@@ -30,7 +35,8 @@ import java.util.Optional;
  *   <li>保存城市信息
  *   <li>查询城市信息
  *   <li>删除城市信息
- *   <li>分页查询城市列表
+ *   <li>分页查询城市列表，支持按国家代码和行政区过滤、按ID、名称或人口排序
+ *   <li>按人口查询最大的城市、人口范围内的城市和城市的人口排名
  * </ul>
  *
  * <p>设计原则：
@@ -54,12 +60,41 @@ import java.util.Optional;
  * @date 2025-01-31
  */
 public interface CityRepository {
+  /** 人口查询的结果顺序：人口降序，人口相同时按ID升序 */
+  Comparator<City> POPULATION_ORDER =
+      Comparator.comparing(City::getPopulation, Comparator.reverseOrder())
+          .thenComparing(City::getId);
+
   /** 根据ID查询城市 */
   Optional<City> findById(Long id);
 
+  /**
+   * 从写入所在的存储读取城市的当前状态，作为写入前的镜像
+   *
+   * <p>不经过缓存、从库和降级快照，以免用过期数据修正汇总。默认实现等同于{@link #findById}，
+   * 适用于读写都在同一份数据上的实现。
+   *
+   * @param id 城市ID
+   * @return 城市
+   */
+  default Optional<City> findByIdForWrite(Long id) {
+    return findById(id);
+  }
+
   /** 查询所有城市 */
   List<City> findAll();
 
+  /**
+   * 逐条遍历所有城市，供导出等批量场景使用
+   *
+   * <p>默认实现基于{@link #findAll()}，实现类可以改为流式读取，避免一次性加载全表。
+   *
+   * @param consumer 城市处理函数，按ID升序调用
+   */
+  default void scanAll(Consumer<City> consumer) {
+    findAll().forEach(consumer);
+  }
+
   /**
    * 根据名称模糊查询城市，支持分页
    *
@@ -69,6 +104,62 @@ public interface CityRepository {
    */
   Page<City> findByNameLike(String namePattern, Page<City> page);
 
+  /**
+   * 按名称、国家代码和行政区搜索城市，按指定方式排序后分页
+   *
+   * <p>默认实现按批读取名称匹配的城市，在内存中过滤后用有界堆取出当前页，要求分面计数时在同一次遍历中统计，
+   * 实现类可以把过滤、排序和分面计数下推到索引。
+   *
+   * @param query 搜索条件
+   * @param page 分页对象
+   * @return 分页的城市列表、执行计划和分面计数
+   */
+  default CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return CitySearchScans.search(this::findByNameLike, query, page);
+  }
+
+  /**
+   * 查询人口最多的城市，按{@link #POPULATION_ORDER}排序，不含人口未知的城市
+   *
+   * <p>默认实现遍历全表并保留前limit个，实现类可以借助索引。
+   *
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param limit 最多返回的城市数
+   * @return 城市列表
+   */
+  default List<City> findTopByPopulation(String countrycode, int limit) {
+    return CityPopulationScans.findTop(this::scanAll, countrycode, limit);
+  }
+
+  /**
+   * 查询人口在范围内的城市，按{@link #POPULATION_ORDER}排序，支持分页
+   *
+   * <p>默认实现遍历全表后排序，实现类可以借助索引。
+   *
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param minPopulation 最小人口数（包含）
+   * @param maxPopulation 最大人口数（包含）
+   * @param page 分页对象
+   * @return 分页的城市列表
+   */
+  default Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return CityPopulationScans.findBetween(
+        this::scanAll, countrycode, minPopulation, maxPopulation, page);
+  }
+
+  /**
+   * 查询城市在所属国家和全部城市中的人口排名
+   *
+   * <p>默认实现遍历全表计数，实现类可以借助索引。
+   *
+   * @param id 城市ID
+   * @return 人口排名，城市不存在时为空
+   */
+  default Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return findById(id).map(city -> CityPopulationScans.rank(this::scanAll, city));
+  }
+
   /**
    * 保存城市
    *
@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.ershixiong.ai.domain.model.CityRollup;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 城市人口汇总仓储接口。
+ *
+ * <p>汇总按（国家代码，行政区）保存，国家级汇总由行政区汇总合并得到：
+ *
+ * <ul>
+ *   <li>汇总表保存内存汇总的持久化副本，实例启动时直接加载，无需扫描城市表
+ *   <li>按城市表实时分组统计的结果作为核对基准，用于发现和修复汇总的偏差
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public interface CityRollupRepository {
+
+  /**
+   * 读取汇总表中的全部汇总
+   *
+   * @return 各行政区的汇总
+   */
+  List<CityRollup> findAll();
+
+  /**
+   * 按城市表实时分组统计
+   *
+   * @param countrycode 国家代码，为null时统计全部国家
+   * @return 各行政区的汇总
+   */
+  List<CityRollup> aggregateCities(String countrycode);
+
+  /**
+   * 写入汇总表，城市数为0的汇总从表中删除
+   *
+   * @param rollups 各行政区的汇总
+   */
+  void saveAll(Collection<CityRollup> rollups);
+}
@@ -0,0 +1,153 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+
+/**
+ * 基于逐行读取的排序搜索。
+ *
+ * <p>{@link CityRepository}搜索的默认实现，也供无法在存储中排序的实现和降级数据源使用。
+ * 只用大小为“偏移量+每页记录数”的有界堆保留排在前面的城市，不对全部匹配的城市排序。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CitySearchScans {
+
+  /** 按批读取匹配城市时每批的记录数 */
+  static final int BATCH_SIZE = 1000;
+
+  private CitySearchScans() {
+  }
+
+  /**
+   * 通过未排序的分页查询按批读取全部匹配名称的城市，在内存中过滤后取排序后的一页
+   *
+   * <p>没有过滤条件、不排序也不统计分面时直接执行一次未排序的分页查询；其余情况按ID升序读取全部匹配的城市，
+   * 在同一次遍历中统计分面。
+   *
+   * @param findByNameLike 未排序的分页查询
+   * @param query 搜索条件
+   * @param page 分页对象
+   * @return 搜索结果
+   */
+  public static CitySearchResult search(
+      BiFunction<String, Page<City>, Page<City>> findByNameLike,
+      CitySearchQuery query,
+      Page<City> page) {
+    if (query.getSort() == null && !query.hasFilters() && query.getFacets() == null) {
+      return CitySearchResult.builder()
+          .page(findByNameLike.apply(query.getNamePattern(), page))
+          .plan(CitySearchPlan.UNSORTED)
+          .build();
+    }
+    CitySort sort =
+        query.getSort() == null ? new CitySort(CitySortField.ID, false) : query.getSort();
+    CityFacetCounter facets =
+        query.getFacets() == null ? null : new CityFacetCounter(query.getFacets());
+    return topK(
+        consumer -> {
+          long batchNo = 1;
+          List<City> batch;
+          do {
+            batch =
+                findByNameLike
+                    .apply(query.getNamePattern(), new Page<>(batchNo++, BATCH_SIZE))
+                    .getRecords();
+            for (City city : batch) {
+              if (query.matchesFilters(city)) {
+                consumer.accept(city);
+              }
+            }
+          } while (batch.size() == BATCH_SIZE);
+        },
+        sort,
+        page,
+        facets);
+  }
+
+  /**
+   * 从逐行读取的匹配城市中取排序后的一页
+   *
+   * @param scan 遍历函数，对每个匹配的城市调用一次传入的回调
+   * @param sort 排序方式
+   * @param page 分页对象
+   * @return 搜索结果，总记录数为匹配的城市数
+   */
+  public static CitySearchResult topK(
+      Consumer<Consumer<City>> scan, CitySort sort, Page<City> page) {
+    return topK(scan, sort, page, null);
+  }
+
+  /**
+   * 从逐行读取的匹配城市中取排序后的一页，同时统计分面
+   *
+   * @param scan 遍历函数，对每个匹配的城市调用一次传入的回调
+   * @param sort 排序方式
+   * @param page 分页对象
+   * @param facets 分面计数器，为null时不统计
+   * @return 搜索结果，总记录数为匹配的城市数
+   */
+  public static CitySearchResult topK(
+      Consumer<Consumer<City>> scan, CitySort sort, Page<City> page, CityFacetCounter facets) {
+    long offset = (page.getCurrent() - 1) * page.getSize();
+    int capacity = (int) Math.min(Integer.MAX_VALUE - 1L, offset + page.getSize());
+    Comparator<City> order = sort.comparator();
+    // 堆顶是已保留城市中排在最后的一个，新城市排在它前面时替换
+    PriorityQueue<City> top = new PriorityQueue<>(Math.min(capacity, 1024) + 1, order.reversed());
+    long[] total = new long[1];
+    scan.accept(
+        city -> {
+          total[0]++;
+          if (facets != null) {
+            facets.accept(city);
+          }
+          if (top.size() < capacity) {
+            top.offer(city);
+          } else if (order.compare(city, top.peek()) < 0) {
+            top.poll();
+            top.offer(city);
+          }
+        });
+    List<City> sorted = new ArrayList<>(top);
+    sorted.sort(order);
+    Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total[0]);
+    result.setRecords(
+        offset >= sorted.size()
+            ? List.of()
+            : new ArrayList<>(sorted.subList((int) offset, sorted.size())));
+    return CitySearchResult.builder()
+        .page(result)
+        .plan(CitySearchPlan.TOP_K)
+        .facets(facets == null ? null : facets.toFacets())
+        .build();
+  }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.ershixiong.ai.domain.model.City;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 响应式城市仓储接口。
+ *
+ * <p>与{@link CityRepository}语义一致的非阻塞版本，列表类查询以{@link Flux}逐条返回，
+ * 由下游按需拉取，不在内存中缓存整个结果集。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public interface ReactiveCityRepository {
+  /** 根据ID查询城市，不存在时返回空 */
+  Mono<City> findById(Long id);
+
+  /** 按ID升序查询所有城市 */
+  Flux<City> findAll();
+
+  /**
+   * 根据名称模糊查询城市，按ID升序分页
+   *
+   * @param namePattern 名称模式（包含%通配符）
+   * @param offset 跳过的记录数
+   * @param limit 最多返回的记录数
+   * @return 当前页的城市
+   */
+  Flux<City> findByNameLike(String namePattern, long offset, long limit);
+
+  /**
+   * 统计名称匹配的城市数
+   *
+   * @param namePattern 名称模式（包含%通配符）
+   * @return 匹配的城市数
+   */
+  Mono<Long> countByNameLike(String namePattern);
+
+  /**
+   * 保存城市
+   *
+   * @return 保存后的城市对象
+   */
+  Mono<City> save(City city);
+
+  /** 删除城市 */
+  Mono<Void> deleteById(Long id);
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.async;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.degraded.StaleReadContext;
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import com.ershixiong.ai.infrastructure.lane.LaneContext;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * 异步接口的城市查询执行器。
+ *
+ * <p>异步接口把仓储调用提交到有界线程池，Servlet线程在数据库查询期间被释放：
+ *
+ * <ul>
+ *   <li>提交时捕获请求线程上的流量通道、截止时间、一致性令牌和过期读取标记，在查询线程上恢复，执行完毕后清理
+ *   <li>线程池和队列都已满时不阻塞请求线程，直接以RPC_SERVICE_UNAVAILABLE失败
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class CityQueryExecutor implements AutoCloseable {
+
+  private final ThreadPoolExecutor pool;
+  private final LongAdder rejected = new LongAdder();
+
+  public CityQueryExecutor(ThreadPoolExecutor pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * 在查询线程池中执行操作
+   *
+   * @param action 操作
+   * @param <T> 返回值类型
+   * @return 操作结果
+   */
+  public <T> CompletableFuture<T> supply(Supplier<T> action) {
+    Lane lane = LaneContext.current();
+    Deadline deadline = DeadlineContext.current();
+    long requiredVersion = ReadRoutingContext.getRequiredVersion();
+    StaleReadContext staleRead = StaleReadContext.current();
+    try {
+      return CompletableFuture.supplyAsync(
+          () -> {
+            LaneContext.set(lane);
+            if (deadline != null) {
+              DeadlineContext.set(deadline);
+            }
+            if (requiredVersion > 0) {
+              ReadRoutingContext.requireVersion(requiredVersion);
+            }
+            StaleReadContext.set(staleRead);
+            try {
+              return action.get();
+            } finally {
+              LaneContext.clear();
+              DeadlineContext.clear();
+              ReadRoutingContext.clear();
+              StaleReadContext.clear();
+            }
+          },
+          pool);
+    } catch (RejectedExecutionException e) {
+      rejected.increment();
+      return CompletableFuture.failedFuture(
+          new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "查询线程池已满，请稍后重试", e));
+    }
+  }
+
+  /** 执行中的查询数 */
+  public int getActive() {
+    return pool.getActiveCount();
+  }
+
+  /** 排队中的查询数 */
+  public int getQueued() {
+    return pool.getQueue().size();
+  }
+
+  /** 因线程池已满被拒绝的查询数 */
+  public long getRejected() {
+    return rejected.sum();
+  }
+
+  @Override
+  public void close() {
+    pool.shutdownNow();
+  }
+}
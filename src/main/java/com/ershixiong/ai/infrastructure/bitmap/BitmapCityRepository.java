@@ -0,0 +1,110 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.bitmap;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 以进程内位图索引回答城市搜索的城市仓储装饰器。
+ *
+ * <ul>
+ *   <li>搜索在{@link CityBitmapIndex}加载完成后由索引回答，加载完成前透传给下层仓储
+ *   <li>写操作成功后同步更新索引，binlog来源的变更由索引自身监听
+ *   <li>其余查询直接透传给下层仓储
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class BitmapCityRepository implements CityRepository {
+
+  private final CityRepository delegate;
+  private final CityBitmapIndex index;
+
+  public BitmapCityRepository(CityRepository delegate, CityBitmapIndex index) {
+    this.delegate = delegate;
+    this.index = index;
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return delegate.findByIdForWrite(id);
+  }
+
+  @Override
+  public List<City> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    delegate.scanAll(consumer);
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return delegate.findByNameLike(namePattern, page);
+  }
+
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return index.isReady() ? index.search(query, page) : delegate.search(query, page);
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    return delegate.findTopByPopulation(countrycode, limit);
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return delegate.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page);
+  }
+
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return delegate.findPopulationRank(id);
+  }
+
+  @Override
+  public City save(City city) {
+    City saved = delegate.save(city);
+    index.upsert(saved);
+    return saved;
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    delegate.deleteById(id);
+    index.delete(id);
+  }
+}
@@ -0,0 +1,555 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.bitmap;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityFacetCounter;
+import com.ershixiong.ai.domain.repository.CitySearchScans;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.function.ToLongFunction;
+import java.util.regex.Pattern;
+
+/**
+ * 国家代码和行政区的进程内位图索引。
+ *
+ * <p>每个城市分配一个行号，国家代码和行政区的每个取值各有一个{@link RoaringBitmap}，记录取该值的行号：
+ *
+ * <ul>
+ *   <li>同一维度的多个取值求并集，不同维度之间求交集，得到候选行
+ *   <li>只对候选行匹配名称，匹配的行号再组成位图，总数即位图的元素个数
+ *   <li>不排序时按行号顺序分页；排序时对匹配的行用有界堆取出当前页
+ *   <li>请求分面时，匹配行较少则逐行计数，较多则对各取值的位图与匹配行求交集大小
+ * </ul>
+ *
+ * <p>行号按写入顺序分配，重建时按ID升序扫描，因此不排序的结果基本按ID升序。更新城市时保留原行号，
+ * 删除的行号不再复用，直到下一次重建整体压缩。查询持有读锁，写入持有写锁。
+ *
+ * <p>{@link #rebuild(Consumer)}的暂存与重放方式与人口索引相同，重建期间经过本索引的写入不会丢失；
+ * binlog捕获的变更由{@link #onCityChanged}应用。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CityBitmapIndex {
+
+  /** 匹配行不多于取值总数的该倍数时逐行统计分面，否则按取值求交集大小 */
+  private static final long SCAN_FACTOR = 8;
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** 同一时刻只允许一次重建；扫描会阻塞在数据库IO上，虚拟线程持有synchronized会固定载体线程 */
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  // 以下状态由lock保护
+  private Entries entries;
+  /** 重建期间暂存的写入，未在重建时为null */
+  private List<Write> pending;
+  private Instant builtAt;
+
+  /** 是否已完成首次重建 */
+  public boolean isReady() {
+    lock.readLock().lock();
+    try {
+      return entries != null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 最近一次重建的时间，尚未重建时为null */
+  public Instant getBuiltAt() {
+    lock.readLock().lock();
+    try {
+      return builtAt;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 索引中的城市数 */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 已删除、等待重建时回收的行数 */
+  public int getDeadRows() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.deadRows();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 全部位图占用的字节数，不含城市副本 */
+  public long getBitmapBytes() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.sum(RoaringBitmap::bytes);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 全部位图的容器数 */
+  public long getContainerCount() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.sum(RoaringBitmap::containerCount);
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 流式扫描全表重建索引
+   *
+   * @param scan 扫描函数，对每个城市调用一次传入的回调
+   * @return 索引的城市数
+   */
+  public int rebuild(Consumer<Consumer<City>> scan) {
+    rebuildLock.lock();
+    try {
+      lock.writeLock().lock();
+      try {
+        pending = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      Entries rebuilt = new Entries();
+      try {
+        scan.accept(city -> rebuilt.put(copy(city)));
+      } catch (RuntimeException e) {
+        lock.writeLock().lock();
+        try {
+          pending = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+        throw e;
+      }
+      lock.writeLock().lock();
+      try {
+        for (Write write : pending) {
+          if (write.city() == null) {
+            rebuilt.remove(write.id());
+          } else {
+            rebuilt.put(write.city());
+          }
+        }
+        log.info(
+            "Rebuilt city bitmap index with {} cities, replayed {} concurrent writes",
+            rebuilt.size(),
+            pending.size());
+        pending = null;
+        entries = rebuilt;
+        builtAt = Instant.now();
+        return rebuilt.size();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  /**
+   * 写入或更新城市
+   *
+   * @param city 保存后的城市
+   */
+  public void upsert(City city) {
+    City copy = copy(city);
+    lock.writeLock().lock();
+    try {
+      if (pending != null) {
+        pending.add(new Write(copy.getId(), copy));
+      }
+      if (entries != null) {
+        entries.put(copy);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 删除城市
+   *
+   * @param id 城市ID
+   */
+  public void delete(Long id) {
+    lock.writeLock().lock();
+    try {
+      if (pending != null) {
+        pending.add(new Write(id, null));
+      }
+      if (entries != null) {
+        entries.remove(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 处理binlog捕获的变更，应用自身的写入由仓储装饰器在保存和删除后应用
+   *
+   * @param event 城市变更事件
+   */
+  @EventListener
+  public void onCityChanged(CityChangedEvent event) {
+    if (event.getSource() != CityChangedEvent.Source.BINLOG) {
+      return;
+    }
+    if (event.getCity() == null) {
+      delete(event.getCityId());
+    } else {
+      upsert(event.getCity());
+    }
+  }
+
+  /**
+   * 按名称、国家代码和行政区搜索城市
+   *
+   * @param query 搜索条件
+   * @param page 分页对象
+   * @return 搜索结果，总记录数为匹配行位图的元素个数
+   */
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    lock.readLock().lock();
+    try {
+      Entries current = requireEntries();
+      RoaringBitmap candidates = current.live();
+      if (query.getCountrycodes() != null && !query.getCountrycodes().isEmpty()) {
+        candidates =
+            RoaringBitmap.and(candidates, union(current.countrycodes(), query.getCountrycodes()));
+      }
+      if (query.getDistricts() != null && !query.getDistricts().isEmpty()) {
+        candidates =
+            RoaringBitmap.and(candidates, union(current.districts(), query.getDistricts()));
+      }
+      RoaringBitmap matched = matchName(current, candidates, query.getNamePattern());
+      Page<City> result;
+      if (query.getSort() != null) {
+        result =
+            CitySearchScans.topK(
+                    consumer ->
+                        matched.forEach(
+                            ordinal -> {
+                              consumer.accept(current.row(ordinal));
+                              return true;
+                            }),
+                    query.getSort(),
+                    page)
+                .getPage();
+        result.setRecords(new ArrayList<>(result.getRecords().stream().map(this::copy).toList()));
+      } else {
+        result = new Page<>(page.getCurrent(), page.getSize(), matched.cardinality());
+        result.setRecords(slice(current, matched, page));
+      }
+      return CitySearchResult.builder()
+          .page(result)
+          .plan(CitySearchPlan.BITMAP)
+          .facets(query.getFacets() == null ? null : facets(current, matched, query.getFacets()))
+          .build();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Entries requireEntries() {
+    if (entries == null) {
+      throw new IllegalStateException("City bitmap index is not built");
+    }
+    return entries;
+  }
+
+  /** 同一维度多个取值的并集，不存在的取值视为空集 */
+  private static RoaringBitmap union(Map<String, RoaringBitmap> index, Collection<String> keys) {
+    RoaringBitmap result = new RoaringBitmap();
+    for (String key : keys) {
+      RoaringBitmap bitmap = index.get(key);
+      if (bitmap != null) {
+        result = RoaringBitmap.or(result, bitmap);
+      }
+    }
+    return result;
+  }
+
+  /** 在候选行中匹配名称，模式匹配任意名称时直接返回候选行 */
+  private static RoaringBitmap matchName(
+      Entries current, RoaringBitmap candidates, String namePattern) {
+    if (namePattern == null || namePattern.isEmpty() || namePattern.matches("%+")) {
+      return candidates;
+    }
+    Pattern pattern = LikePattern.compile(namePattern);
+    RoaringBitmap matched = new RoaringBitmap();
+    candidates.forEach(
+        ordinal -> {
+          String name = current.row(ordinal).getName();
+          if (name != null && pattern.matcher(name).matches()) {
+            matched.add(ordinal);
+          }
+          return true;
+        });
+    return matched;
+  }
+
+  /**
+   * 统计匹配行的国家代码和行政区分面
+   *
+   * <p>匹配行不多于取值总数的{@link #SCAN_FACTOR}倍时逐行计数；否则对每个取值求其位图与匹配行的交集大小，
+   * 见{@link #topByIntersection}。
+   */
+  private static CityFacets facets(
+      Entries current, RoaringBitmap matched, CityFacetOptions options) {
+    long values = current.countrycodes().size() + current.districts().size();
+    if (matched.cardinality() <= SCAN_FACTOR * values) {
+      CityFacetCounter counter = new CityFacetCounter(options);
+      matched.forEach(
+          ordinal -> {
+            counter.accept(current.row(ordinal));
+            return !counter.isExpired();
+          });
+      return counter.toFacets();
+    }
+    long deadlineNanos = System.nanoTime() + options.getBudget().toNanos();
+    FacetTop countrycodes =
+        topByIntersection(current.countrycodes(), matched, options, deadlineNanos);
+    FacetTop districts = topByIntersection(current.districts(), matched, options, deadlineNanos);
+    return CityFacets.builder()
+        .countrycodes(countrycodes.counts())
+        .districts(districts.counts())
+        .truncated(countrycodes.truncated() || districts.truncated())
+        .build();
+  }
+
+  /**
+   * 按交集大小取一个维度城市数最多的取值
+   *
+   * <p>取值按自身城市总数降序处理，交集大小不超过城市总数，因此一个取值的总数小于当前第limit名的计数时，
+   * 它和之后的取值都不可能进入前limit名，直接结束，结果仍是精确的。处理的取值数达到上限或超出耗时预算时
+   * 也提前结束，结果标记为截断。
+   */
+  private static FacetTop topByIntersection(
+      Map<String, RoaringBitmap> index,
+      RoaringBitmap matched,
+      CityFacetOptions options,
+      long deadlineNanos) {
+    List<Candidate> candidates = new ArrayList<>(index.size());
+    index.forEach(
+        (key, bitmap) -> candidates.add(new Candidate(key, bitmap, bitmap.cardinality())));
+    candidates.sort(Comparator.comparingLong(Candidate::total).reversed());
+    // 堆顶是当前前limit名中最靠后的取值
+    PriorityQueue<CityFacetCount> top = new PriorityQueue<>(CityFacetCounter.ORDER.reversed());
+    boolean truncated = false;
+    int evaluated = 0;
+    for (Candidate candidate : candidates) {
+      if (top.size() == options.getLimit() && candidate.total() < top.peek().getCount()) {
+        break;
+      }
+      if (evaluated++ == options.getMaxValues() || System.nanoTime() - deadlineNanos > 0) {
+        truncated = true;
+        break;
+      }
+      long count = RoaringBitmap.andCardinality(matched, candidate.bitmap());
+      if (count > 0) {
+        top.offer(new CityFacetCount(candidate.key(), count));
+        if (top.size() > options.getLimit()) {
+          top.poll();
+        }
+      }
+    }
+    List<CityFacetCount> counts = new ArrayList<>(top);
+    counts.sort(CityFacetCounter.ORDER);
+    return new FacetTop(counts, truncated);
+  }
+
+  /** 按行号顺序跳过偏移量后取一页 */
+  private List<City> slice(Entries current, RoaringBitmap matched, Page<City> page) {
+    long offset = (page.getCurrent() - 1) * page.getSize();
+    List<City> records = new ArrayList<>();
+    long[] skipped = new long[1];
+    matched.forEach(
+        ordinal -> {
+          if (skipped[0] < offset) {
+            skipped[0]++;
+            return true;
+          }
+          records.add(copy(current.row(ordinal)));
+          return records.size() < page.getSize();
+        });
+    return records;
+  }
+
+  private City copy(City city) {
+    return new City(
+        city.getId(),
+        city.getName(),
+        city.getCountrycode(),
+        city.getDistrict(),
+        city.getPopulation(),
+        city.getVersion());
+  }
+
+  /** 参与分面计数的一个取值及其城市总数 */
+  private record Candidate(String key, RoaringBitmap bitmap, long total) {
+  }
+
+  /** 一个维度的分面计数及是否截断 */
+  private record FacetTop(List<CityFacetCount> counts, boolean truncated) {
+  }
+
+  /**
+   * 重建期间暂存的一次写入
+   *
+   * @param id 城市ID
+   * @param city 写入后的城市，删除时为null
+   */
+  private record Write(Long id, City city) {
+  }
+
+  /** 一次重建得到的行、行号和位图 */
+  private static final class Entries {
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private final List<City> rows = new ArrayList<>();
+    private final RoaringBitmap live = new RoaringBitmap();
+    private final Map<String, RoaringBitmap> countrycodes = new HashMap<>();
+    private final Map<String, RoaringBitmap> districts = new HashMap<>();
+
+    int size() {
+      return ordinals.size();
+    }
+
+    /** 已删除、等待重建时回收的行数 */
+    int deadRows() {
+      return rows.size() - ordinals.size();
+    }
+
+    /** 行号对应的城市，已删除时为null */
+    City row(int ordinal) {
+      return rows.get(ordinal);
+    }
+
+    /** 未删除行的位图 */
+    RoaringBitmap live() {
+      return live;
+    }
+
+    Map<String, RoaringBitmap> countrycodes() {
+      return countrycodes;
+    }
+
+    Map<String, RoaringBitmap> districts() {
+      return districts;
+    }
+
+    /** 对全部位图求和，用于统计字节数和容器数 */
+    long sum(ToLongFunction<RoaringBitmap> metric) {
+      long total = metric.applyAsLong(live);
+      for (RoaringBitmap bitmap : countrycodes.values()) {
+        total += metric.applyAsLong(bitmap);
+      }
+      for (RoaringBitmap bitmap : districts.values()) {
+        total += metric.applyAsLong(bitmap);
+      }
+      return total;
+    }
+
+    /** 写入城市，已有版本更新的副本时忽略，避免迟到的binlog事件覆盖新值 */
+    void put(City city) {
+      Integer ordinal = ordinals.get(city.getId());
+      if (ordinal == null) {
+        ordinal = rows.size();
+        ordinals.put(city.getId(), ordinal);
+        rows.add(city);
+        live.add(ordinal);
+      } else {
+        City existing = rows.get(ordinal);
+        if (existing.getVersion() != null
+            && city.getVersion() != null
+            && existing.getVersion() > city.getVersion()) {
+          return;
+        }
+        unindex(ordinal, existing);
+        rows.set(ordinal, city);
+      }
+      index(countrycodes, city.getCountrycode(), ordinal);
+      index(districts, city.getDistrict(), ordinal);
+    }
+
+    void remove(Long id) {
+      Integer ordinal = ordinals.remove(id);
+      if (ordinal == null) {
+        return;
+      }
+      unindex(ordinal, rows.get(ordinal));
+      rows.set(ordinal, null);
+      live.remove(ordinal);
+    }
+
+    private void unindex(int ordinal, City city) {
+      unindex(countrycodes, city.getCountrycode(), ordinal);
+      unindex(districts, city.getDistrict(), ordinal);
+    }
+
+    private static void index(Map<String, RoaringBitmap> index, String key, int ordinal) {
+      if (key != null) {
+        index.computeIfAbsent(key, k -> new RoaringBitmap()).add(ordinal);
+      }
+    }
+
+    private static void unindex(Map<String, RoaringBitmap> index, String key, int ordinal) {
+      RoaringBitmap bitmap = key == null ? null : index.get(key);
+      if (bitmap != null) {
+        bitmap.remove(ordinal);
+        if (bitmap.isEmpty()) {
+          index.remove(key);
+        }
+      }
+    }
+  }
+}
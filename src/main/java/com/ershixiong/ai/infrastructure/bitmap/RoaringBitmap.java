@@ -0,0 +1,550 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.bitmap;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+/**
+ * 按Roaring格式压缩的非负整数位图。
+ *
+ * <p>整数按高16位分桶，每个桶是一个容器，容器按桶号升序存放：
+ *
+ * <ul>
+ *   <li>桶内元素不超过{@link #ARRAY_LIMIT}个时用有序的char数组，每个元素2字节
+ *   <li>超过时用1024个long的位图，固定8KB
+ *   <li>增删和集合运算后按元素数在两种容器间转换，保持占用不超过两者中较小的一个
+ * </ul>
+ *
+ * <p>交集和并集按桶号归并，对应的容器两两运算；数组与数组求交用归并，数组与位图求交逐个查位，
+ * 位图与位图按字做与或运算后用bitCount计数。只需要交集大小时不生成交集。非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class RoaringBitmap {
+
+  /** 数组容器的最大元素数，超过后数组比位图更占空间 */
+  static final int ARRAY_LIMIT = 4096;
+
+  private static final int WORDS = 1024;
+
+  private char[] keys = new char[4];
+  private Container[] containers = new Container[4];
+  private int size;
+
+  /**
+   * 添加整数
+   *
+   * @param value 非负整数
+   */
+  void add(int value) {
+    char key = (char) (value >>> 16);
+    int index = find(key);
+    if (index < 0) {
+      index = -index - 1;
+      insertAt(index, key, new ArrayContainer());
+    }
+    containers[index] = containers[index].add((char) value);
+  }
+
+  /**
+   * 删除整数
+   *
+   * @param value 非负整数
+   */
+  void remove(int value) {
+    int index = find((char) (value >>> 16));
+    if (index < 0) {
+      return;
+    }
+    Container container = containers[index].remove((char) value);
+    if (container.cardinality() == 0) {
+      removeAt(index);
+    } else {
+      containers[index] = container;
+    }
+  }
+
+  /** 是否包含整数 */
+  boolean contains(int value) {
+    int index = find((char) (value >>> 16));
+    return index >= 0 && containers[index].contains((char) value);
+  }
+
+  /** 元素个数 */
+  long cardinality() {
+    long cardinality = 0;
+    for (int i = 0; i < size; i++) {
+      cardinality += containers[i].cardinality();
+    }
+    return cardinality;
+  }
+
+  /** 是否为空 */
+  boolean isEmpty() {
+    return size == 0;
+  }
+
+  /** 容器数 */
+  int containerCount() {
+    return size;
+  }
+
+  /** 估算的内存占用字节数，包括桶号和容器数组 */
+  long bytes() {
+    long bytes = 16L + keys.length * 2L + containers.length * 8L;
+    for (int i = 0; i < size; i++) {
+      bytes += containers[i].bytes();
+    }
+    return bytes;
+  }
+
+  /**
+   * 按升序遍历元素
+   *
+   * @param visitor 访问函数，返回false时停止遍历
+   */
+  void forEach(IntPredicate visitor) {
+    for (int i = 0; i < size; i++) {
+      if (!containers[i].forEach(keys[i] << 16, visitor)) {
+        return;
+      }
+    }
+  }
+
+  /**
+   * 求交集
+   *
+   * @param a 位图
+   * @param b 位图
+   * @return 新的位图
+   */
+  static RoaringBitmap and(RoaringBitmap a, RoaringBitmap b) {
+    RoaringBitmap result = new RoaringBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < a.size && j < b.size) {
+      int cmp = Character.compare(a.keys[i], b.keys[j]);
+      if (cmp < 0) {
+        i++;
+      } else if (cmp > 0) {
+        j++;
+      } else {
+        Container container = a.containers[i].and(b.containers[j]);
+        if (container.cardinality() > 0) {
+          result.append(a.keys[i], container);
+        }
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  /**
+   * 求交集的元素个数，不生成交集
+   *
+   * @param a 位图
+   * @param b 位图
+   * @return 交集的元素个数
+   */
+  static long andCardinality(RoaringBitmap a, RoaringBitmap b) {
+    long cardinality = 0;
+    int i = 0;
+    int j = 0;
+    while (i < a.size && j < b.size) {
+      int cmp = Character.compare(a.keys[i], b.keys[j]);
+      if (cmp < 0) {
+        i++;
+      } else if (cmp > 0) {
+        j++;
+      } else {
+        cardinality += a.containers[i].andCardinality(b.containers[j]);
+        i++;
+        j++;
+      }
+    }
+    return cardinality;
+  }
+
+  /**
+   * 求并集
+   *
+   * @param a 位图
+   * @param b 位图
+   * @return 新的位图
+   */
+  static RoaringBitmap or(RoaringBitmap a, RoaringBitmap b) {
+    RoaringBitmap result = new RoaringBitmap();
+    int i = 0;
+    int j = 0;
+    while (i < a.size || j < b.size) {
+      int cmp =
+          i == a.size ? 1 : j == b.size ? -1 : Character.compare(a.keys[i], b.keys[j]);
+      if (cmp < 0) {
+        result.append(a.keys[i], a.containers[i].copy());
+        i++;
+      } else if (cmp > 0) {
+        result.append(b.keys[j], b.containers[j].copy());
+        j++;
+      } else {
+        result.append(a.keys[i], a.containers[i].or(b.containers[j]));
+        i++;
+        j++;
+      }
+    }
+    return result;
+  }
+
+  private int find(char key) {
+    return Arrays.binarySearch(keys, 0, size, key);
+  }
+
+  private void append(char key, Container container) {
+    insertAt(size, key, container);
+  }
+
+  private void insertAt(int index, char key, Container container) {
+    if (size == keys.length) {
+      keys = Arrays.copyOf(keys, size * 2);
+      containers = Arrays.copyOf(containers, size * 2);
+    }
+    System.arraycopy(keys, index, keys, index + 1, size - index);
+    System.arraycopy(containers, index, containers, index + 1, size - index);
+    keys[index] = key;
+    containers[index] = container;
+    size++;
+  }
+
+  private void removeAt(int index) {
+    System.arraycopy(keys, index + 1, keys, index, size - index - 1);
+    System.arraycopy(containers, index + 1, containers, index, size - index - 1);
+    containers[--size] = null;
+  }
+
+  /** 一个桶内的低16位集合，增删可能返回另一种容器 */
+  private abstract static sealed class Container permits ArrayContainer, BitmapContainer {
+
+    abstract int cardinality();
+
+    abstract long bytes();
+
+    abstract boolean contains(char value);
+
+    abstract Container add(char value);
+
+    abstract Container remove(char value);
+
+    abstract Container and(Container other);
+
+    abstract int andCardinality(Container other);
+
+    abstract Container or(Container other);
+
+    abstract Container copy();
+
+    /** 按升序访问元素，high为桶号左移16位，返回false表示访问函数要求停止 */
+    abstract boolean forEach(int high, IntPredicate visitor);
+  }
+
+  /** 有序char数组容器 */
+  private static final class ArrayContainer extends Container {
+    private char[] values;
+    private int cardinality;
+
+    ArrayContainer() {
+      this(new char[4], 0);
+    }
+
+    ArrayContainer(char[] values, int cardinality) {
+      this.values = values;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    long bytes() {
+      return 24L + values.length * 2L;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return Arrays.binarySearch(values, 0, cardinality, value) >= 0;
+    }
+
+    @Override
+    Container add(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        return this;
+      }
+      if (cardinality == ARRAY_LIMIT) {
+        return toBitmap().add(value);
+      }
+      index = -index - 1;
+      if (cardinality == values.length) {
+        values = Arrays.copyOf(values, Math.min(ARRAY_LIMIT, Math.max(4, cardinality * 2)));
+      }
+      System.arraycopy(values, index, values, index + 1, cardinality - index);
+      values[index] = value;
+      cardinality++;
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      int index = Arrays.binarySearch(values, 0, cardinality, value);
+      if (index >= 0) {
+        System.arraycopy(values, index + 1, values, index, cardinality - index - 1);
+        cardinality--;
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other) {
+      char[] result = new char[Math.min(cardinality, other.cardinality())];
+      int count = 0;
+      if (other instanceof ArrayContainer array) {
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < array.cardinality) {
+          if (values[i] < array.values[j]) {
+            i++;
+          } else if (values[i] > array.values[j]) {
+            j++;
+          } else {
+            result[count++] = values[i];
+            i++;
+            j++;
+          }
+        }
+      } else {
+        for (int i = 0; i < cardinality; i++) {
+          if (other.contains(values[i])) {
+            result[count++] = values[i];
+          }
+        }
+      }
+      return new ArrayContainer(result, count);
+    }
+
+    @Override
+    int andCardinality(Container other) {
+      int count = 0;
+      if (other instanceof ArrayContainer array) {
+        int i = 0;
+        int j = 0;
+        while (i < cardinality && j < array.cardinality) {
+          if (values[i] < array.values[j]) {
+            i++;
+          } else if (values[i] > array.values[j]) {
+            j++;
+          } else {
+            count++;
+            i++;
+            j++;
+          }
+        }
+      } else {
+        for (int i = 0; i < cardinality; i++) {
+          if (other.contains(values[i])) {
+            count++;
+          }
+        }
+      }
+      return count;
+    }
+
+    @Override
+    Container or(Container other) {
+      if (other instanceof BitmapContainer bitmap) {
+        return bitmap.or(this);
+      }
+      ArrayContainer array = (ArrayContainer) other;
+      char[] result = new char[cardinality + array.cardinality];
+      int count = 0;
+      int i = 0;
+      int j = 0;
+      while (i < cardinality || j < array.cardinality) {
+        if (j == array.cardinality || (i < cardinality && values[i] < array.values[j])) {
+          result[count++] = values[i++];
+        } else if (i == cardinality || values[i] > array.values[j]) {
+          result[count++] = array.values[j++];
+        } else {
+          result[count++] = values[i++];
+          j++;
+        }
+      }
+      ArrayContainer merged = new ArrayContainer(result, count);
+      return count > ARRAY_LIMIT ? merged.toBitmap() : merged;
+    }
+
+    @Override
+    Container copy() {
+      return new ArrayContainer(Arrays.copyOf(values, Math.max(cardinality, 1)), cardinality);
+    }
+
+    @Override
+    boolean forEach(int high, IntPredicate visitor) {
+      for (int i = 0; i < cardinality; i++) {
+        if (!visitor.test(high | values[i])) {
+          return false;
+        }
+      }
+      return true;
+    }
+
+    private BitmapContainer toBitmap() {
+      long[] words = new long[WORDS];
+      for (int i = 0; i < cardinality; i++) {
+        words[values[i] >>> 6] |= 1L << values[i];
+      }
+      return new BitmapContainer(words, cardinality);
+    }
+  }
+
+  /** 65536位的位图容器 */
+  private static final class BitmapContainer extends Container {
+    private final long[] words;
+    private int cardinality;
+
+    BitmapContainer(long[] words, int cardinality) {
+      this.words = words;
+      this.cardinality = cardinality;
+    }
+
+    @Override
+    int cardinality() {
+      return cardinality;
+    }
+
+    @Override
+    long bytes() {
+      return 24L + WORDS * 8L;
+    }
+
+    @Override
+    boolean contains(char value) {
+      return (words[value >>> 6] & 1L << value) != 0;
+    }
+
+    @Override
+    Container add(char value) {
+      long before = words[value >>> 6];
+      words[value >>> 6] = before | 1L << value;
+      cardinality += before == words[value >>> 6] ? 0 : 1;
+      return this;
+    }
+
+    @Override
+    Container remove(char value) {
+      long before = words[value >>> 6];
+      words[value >>> 6] = before & ~(1L << value);
+      if (before != words[value >>> 6] && --cardinality <= ARRAY_LIMIT) {
+        return toArray();
+      }
+      return this;
+    }
+
+    @Override
+    Container and(Container other) {
+      if (other instanceof ArrayContainer array) {
+        return array.and(this);
+      }
+      long[] result = new long[WORDS];
+      long[] otherWords = ((BitmapContainer) other).words;
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        result[i] = words[i] & otherWords[i];
+        count += Long.bitCount(result[i]);
+      }
+      BitmapContainer bitmap = new BitmapContainer(result, count);
+      return count <= ARRAY_LIMIT ? bitmap.toArray() : bitmap;
+    }
+
+    @Override
+    int andCardinality(Container other) {
+      if (other instanceof ArrayContainer array) {
+        return array.andCardinality(this);
+      }
+      long[] otherWords = ((BitmapContainer) other).words;
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        count += Long.bitCount(words[i] & otherWords[i]);
+      }
+      return count;
+    }
+
+    @Override
+    Container or(Container other) {
+      long[] result = words.clone();
+      if (other instanceof ArrayContainer array) {
+        for (int i = 0; i < array.cardinality; i++) {
+          result[array.values[i] >>> 6] |= 1L << array.values[i];
+        }
+      } else {
+        long[] otherWords = ((BitmapContainer) other).words;
+        for (int i = 0; i < WORDS; i++) {
+          result[i] |= otherWords[i];
+        }
+      }
+      int count = 0;
+      for (long word : result) {
+        count += Long.bitCount(word);
+      }
+      return new BitmapContainer(result, count);
+    }
+
+    @Override
+    Container copy() {
+      return new BitmapContainer(words.clone(), cardinality);
+    }
+
+    @Override
+    boolean forEach(int high, IntPredicate visitor) {
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          if (!visitor.test(high | i << 6 | Long.numberOfTrailingZeros(word))) {
+            return false;
+          }
+          word &= word - 1;
+        }
+      }
+      return true;
+    }
+
+    private ArrayContainer toArray() {
+      char[] values = new char[Math.max(cardinality, 1)];
+      int count = 0;
+      for (int i = 0; i < WORDS; i++) {
+        long word = words[i];
+        while (word != 0) {
+          values[count++] = (char) (i << 6 | Long.numberOfTrailingZeros(word));
+          word &= word - 1;
+        }
+      }
+      return new ArrayContainer(values, count);
+    }
+  }
+}
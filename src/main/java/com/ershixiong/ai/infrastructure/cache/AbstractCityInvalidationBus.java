@@ -0,0 +1,256 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import com.ershixiong.ai.infrastructure.config.CityCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 失效总线的公共实现。
+ *
+ * <p>负责与传输方式无关的部分：
+ *
+ * <ul>
+ *   <li>发送端：在合并窗口内按城市ID去重（保留最大版本号），按批次分配递增序号
+ *   <li>发送端：定期发送携带最新序号的心跳
+ *   <li>接收端：忽略自己发出的批次和重复批次，按发送端检测序号缺口
+ * </ul>
+ *
+ * <p>子类只需实现{@link #transmit(InvalidationBatch)}，并在收到数据后调用{@link #receive(InvalidationBatch)}。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public abstract class AbstractCityInvalidationBus implements CityInvalidationBus {
+
+  private final long senderId = ThreadLocalRandom.current().nextLong();
+  private final CityCacheProperties.Bus properties;
+  private final List<CityInvalidationListener> listeners = new CopyOnWriteArrayList<>();
+  private final ScheduledExecutorService scheduler;
+
+  private final ReentrantLock sendLock = new ReentrantLock();
+  private final Map<Long, Long> pending = new LinkedHashMap<>();
+  private long sequence;
+
+  private final ReentrantLock receiveLock = new ReentrantLock();
+  private final Map<Long, SequenceGapDetector> detectors = new HashMap<>();
+
+  protected AbstractCityInvalidationBus(String name, CityCacheProperties.Bus properties) {
+    this.properties = properties;
+    this.scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "city-invalidation-" + name);
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /** 启动合并发送和心跳任务，子类在完成传输层初始化后调用 */
+  protected void start() {
+    long window = properties.getBatchWindow().toNanos();
+    long heartbeat = properties.getHeartbeatInterval().toNanos();
+    scheduler.scheduleWithFixedDelay(this::safeFlush, window, window, TimeUnit.NANOSECONDS);
+    scheduler.scheduleWithFixedDelay(this::heartbeat, heartbeat, heartbeat, TimeUnit.NANOSECONDS);
+  }
+
+  /**
+   * 发送一个批次
+   *
+   * @param batch 批次
+   */
+  protected abstract void transmit(InvalidationBatch batch);
+
+  /**
+   * 单个批次最多可容纳的消息数，由传输层的报文大小决定
+   *
+   * @return 消息数
+   */
+  protected int maxEntriesPerBatch() {
+    return Integer.MAX_VALUE;
+  }
+
+  @Override
+  public void publish(long cityId, long version) {
+    boolean full;
+    sendLock.lock();
+    try {
+      pending.merge(cityId, version, Math::max);
+      full = pending.size() >= properties.getMaxBatchSize();
+    } finally {
+      sendLock.unlock();
+    }
+    if (full) {
+      flush();
+    }
+  }
+
+  @Override
+  public void addListener(CityInvalidationListener listener) {
+    listeners.add(listener);
+  }
+
+  @Override
+  public void flush() {
+    List<InvalidationBatch> batches = new ArrayList<>();
+    sendLock.lock();
+    try {
+      if (pending.isEmpty()) {
+        return;
+      }
+      int batchSize = Math.min(properties.getMaxBatchSize(), maxEntriesPerBatch());
+      List<CityInvalidation> current = new ArrayList<>(batchSize);
+      for (Map.Entry<Long, Long> entry : pending.entrySet()) {
+        current.add(new CityInvalidation(entry.getKey(), entry.getValue()));
+        if (current.size() == batchSize) {
+          batches.add(new InvalidationBatch(senderId, ++sequence, current));
+          current = new ArrayList<>(batchSize);
+        }
+      }
+      if (!current.isEmpty()) {
+        batches.add(new InvalidationBatch(senderId, ++sequence, current));
+      }
+      pending.clear();
+    } finally {
+      sendLock.unlock();
+    }
+    for (InvalidationBatch batch : batches) {
+      transmit(batch);
+    }
+  }
+
+  /**
+   * 处理收到的批次
+   *
+   * @param batch 批次，为null时忽略
+   */
+  protected void receive(InvalidationBatch batch) {
+    if (batch == null || batch.getSenderId() == senderId) {
+      return;
+    }
+    boolean resync;
+    boolean duplicate = false;
+    long now = System.nanoTime();
+    receiveLock.lock();
+    try {
+      SequenceGapDetector detector =
+          detectors.computeIfAbsent(
+              batch.getSenderId(),
+              id ->
+                  new SequenceGapDetector(
+                      properties.getGapTimeout().toNanos(), properties.getMaxPendingBatches()));
+      if (batch.isHeartbeat()) {
+        resync = detector.onHeartbeat(batch.getSequence(), now);
+      } else {
+        duplicate = detector.isDuplicate(batch.getSequence());
+        resync = !duplicate && detector.onBatch(batch.getSequence(), now);
+      }
+    } finally {
+      receiveLock.unlock();
+    }
+    if (!batch.isHeartbeat() && !duplicate) {
+      for (CityInvalidationListener listener : listeners) {
+        listener.onInvalidations(batch.getInvalidations());
+      }
+    }
+    if (resync) {
+      requestResync(batch.getSenderId());
+    }
+  }
+
+  @Override
+  public void close() {
+    safeFlush();
+    scheduler.shutdownNow();
+  }
+
+  private void safeFlush() {
+    try {
+      flush();
+    } catch (RuntimeException e) {
+      log.warn("Failed to flush city invalidations: {}", e.getMessage());
+    }
+  }
+
+  private void heartbeat() {
+    long latest;
+    sendLock.lock();
+    try {
+      latest = sequence;
+    } finally {
+      sendLock.unlock();
+    }
+    try {
+      transmit(new InvalidationBatch(senderId, latest, List.of()));
+    } catch (RuntimeException e) {
+      log.warn("Failed to send city invalidation heartbeat: {}", e.getMessage());
+    }
+
+    List<Long> lostSenders = new ArrayList<>();
+    long now = System.nanoTime();
+    long silence = properties.getSenderTimeout().toNanos();
+    receiveLock.lock();
+    try {
+      Iterator<Map.Entry<Long, SequenceGapDetector>> iterator = detectors.entrySet().iterator();
+      while (iterator.hasNext()) {
+        Map.Entry<Long, SequenceGapDetector> entry = iterator.next();
+        if (entry.getValue().isSilent(now, silence)) {
+          // 下线的发送端不再占用检测器；静默期间可能有批次未送达（例如网络分区），
+          // 重新出现时新检测器无法发现这段缺口，因此清理时同样要求重新同步
+          iterator.remove();
+          lostSenders.add(entry.getKey());
+        } else if (entry.getValue().check(now)) {
+          lostSenders.add(entry.getKey());
+        }
+      }
+    } finally {
+      receiveLock.unlock();
+    }
+    lostSenders.forEach(this::requestResync);
+  }
+
+  /** 正在跟踪的发送端数量 */
+  int getTrackedSenderCount() {
+    receiveLock.lock();
+    try {
+      return detectors.size();
+    } finally {
+      receiveLock.unlock();
+    }
+  }
+
+  private void requestResync(long sender) {
+    log.warn("Detected lost city invalidations from sender {}, requesting full resync", sender);
+    for (CityInvalidationListener listener : listeners) {
+      listener.onResyncRequired();
+    }
+  }
+}
@@ -0,0 +1,251 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+
+/**
+ * 带进程内缓存的城市仓储装饰器。
+ *
+ * <p>缓存按ID查询的结果，并通过{@link CityInvalidationBus}与其他实例保持一致：
+ *
+ * <ul>
+ *   <li>本地写入后淘汰本地缓存，并广播(id, version)失效消息
+ *   <li>收到失效消息时，淘汰版本号不新于消息版本的缓存条目
+ *   <li>检测到消息丢失时清空缓存，随后按需从下层仓储重新加载
+ *   <li>收到binlog来源的变更事件时同样淘汰并广播，覆盖绕过应用的数据库写入
+ *   <li>列表和搜索查询直接透传给下层仓储
+ * </ul>
+ *
+ * <p>回源加载期间如果发生过任何淘汰，加载结果不会写入缓存，避免把旧值写回。
+ *
+ * <p>缓存按访问顺序排列，达到容量上限后写入新条目时淘汰最久未访问的条目，热点随访问变化而更替。
+ * 读写都在一把锁内完成，锁内只有常数时间的哈希表操作。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CachingCityRepository implements CityRepository, CityInvalidationListener {
+
+  private final CityRepository delegate;
+  private final CityInvalidationBus invalidationBus;
+  private final ReentrantLock lock = new ReentrantLock();
+  /** 按访问顺序排列的缓存，受lock保护 */
+  private final LinkedHashMap<Long, City> cache;
+  private final AtomicLong invalidationEpoch = new AtomicLong();
+
+  public CachingCityRepository(
+      CityRepository delegate, CityInvalidationBus invalidationBus, int maxSize) {
+    this.delegate = delegate;
+    this.invalidationBus = invalidationBus;
+    this.cache =
+        new LinkedHashMap<>(16, 0.75f, true) {
+          @Override
+          protected boolean removeEldestEntry(Map.Entry<Long, City> eldest) {
+            return size() > maxSize;
+          }
+        };
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    City cached;
+    lock.lock();
+    try {
+      cached = cache.get(id);
+    } finally {
+      lock.unlock();
+    }
+    if (cached != null) {
+      return Optional.of(copy(cached));
+    }
+    long epoch = invalidationEpoch.get();
+    Optional<City> loaded = delegate.findById(id);
+    if (loaded.isPresent()) {
+      City copy = copy(loaded.get());
+      lock.lock();
+      try {
+        // 在锁内复核，淘汰与写入互斥，不会把加载期间已失效的旧值写回
+        if (invalidationEpoch.get() == epoch) {
+          cache.put(id, copy);
+        }
+      } finally {
+        lock.unlock();
+      }
+    }
+    return loaded;
+  }
+
+  /** 绕过缓存，读取结果也不写入缓存 */
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return delegate.findByIdForWrite(id);
+  }
+
+  @Override
+  public List<City> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    delegate.scanAll(consumer);
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return delegate.findByNameLike(namePattern, page);
+  }
+
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return delegate.search(query, page);
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    return delegate.findTopByPopulation(countrycode, limit);
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return delegate.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page);
+  }
+
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return delegate.findPopulationRank(id);
+  }
+
+
+  @Override
+  public City save(City city) {
+    City saved = delegate.save(city);
+    evict(saved.getId());
+    long version =
+        saved.getVersion() == null ? CityInvalidation.DELETED_VERSION : saved.getVersion();
+    invalidationBus.publish(saved.getId(), version);
+    return saved;
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    delegate.deleteById(id);
+    evict(id);
+    invalidationBus.publish(id, CityInvalidation.DELETED_VERSION);
+  }
+
+  /**
+   * 处理binlog捕获的变更，应用自身的写入已在save/deleteById中处理
+   *
+   * <p>绕过应用直接修改数据库时version列不会递增，远端节点按版本比较会保留旧值，
+   * 因此binlog来源的变更一律以{@link CityInvalidation#DELETED_VERSION}发布，强制无条件淘汰。
+   *
+   * @param event 城市变更事件
+   */
+  @EventListener
+  public void onCityChanged(CityChangedEvent event) {
+    if (event.getSource() != CityChangedEvent.Source.BINLOG) {
+      return;
+    }
+    evict(event.getCityId());
+    invalidationBus.publish(event.getCityId(), CityInvalidation.DELETED_VERSION);
+  }
+
+  @Override
+  public void onInvalidations(List<CityInvalidation> invalidations) {
+    lock.lock();
+    try {
+      invalidationEpoch.incrementAndGet();
+      for (CityInvalidation invalidation : invalidations) {
+        City cached = cache.get(invalidation.getCityId());
+        if (cached != null
+            && (cached.getVersion() == null
+                || cached.getVersion() < invalidation.getVersion())) {
+          cache.remove(invalidation.getCityId());
+        }
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  @Override
+  public void onResyncRequired() {
+    lock.lock();
+    try {
+      invalidationEpoch.incrementAndGet();
+      cache.clear();
+    } finally {
+      lock.unlock();
+    }
+    log.info("City local cache cleared for full resync");
+  }
+
+  /**
+   * 获取当前缓存的城市数量
+   *
+   * @return 缓存数量
+   */
+  public int size() {
+    lock.lock();
+    try {
+      return cache.size();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void evict(Long id) {
+    lock.lock();
+    try {
+      invalidationEpoch.incrementAndGet();
+      cache.remove(id);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private static City copy(City city) {
+    return City.builder()
+        .id(city.getId())
+        .name(city.getName())
+        .countrycode(city.getCountrycode())
+        .district(city.getDistrict())
+        .population(city.getPopulation())
+        .version(city.getVersion())
+        .build();
+  }
+}
@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import java.util.Objects;
+
+/**
+ * 城市缓存失效消息。
+ *
+ * <p>只包含城市ID和写入后的版本号，节点收到后淘汰本地缓存中不新于该版本的条目。
+ * 删除操作以及binlog捕获的变更使用{@link #DELETED_VERSION}，表示无条件淘汰。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CityInvalidation {
+
+  /** 无条件淘汰的版本号 大于任何真实版本 */
+  public static final long DELETED_VERSION = Long.MAX_VALUE;
+
+  /** 城市ID */
+  private final long cityId;
+
+  /** 写入后的版本号 */
+  private final long version;
+
+  public CityInvalidation(long cityId, long version) {
+    this.cityId = cityId;
+    this.version = version;
+  }
+
+  public long getCityId() {
+    return cityId;
+  }
+
+  public long getVersion() {
+    return version;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    CityInvalidation that = (CityInvalidation) o;
+    return cityId == that.cityId && version == that.version;
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(cityId, version);
+  }
+
+  @Override
+  public String toString() {
+    return "CityInvalidation{" + "cityId=" + cityId + ", version=" + version + '}';
+  }
+}
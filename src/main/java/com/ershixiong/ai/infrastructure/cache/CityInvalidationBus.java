@@ -0,0 +1,56 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+/**
+ * 城市缓存失效总线。
+ *
+ * <p>在多个应用实例之间广播城市的(id, version)失效消息，保证各节点进程内缓存的一致性：
+ *
+ * <ul>
+ *   <li>发送端对短时间内的失效消息做批量合并和按ID去重
+ *   <li>接收端按发送端的批次序号检测消息丢失，丢失时触发全量重新同步
+ *   <li>不会把消息回送给发送者本身
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public interface CityInvalidationBus extends AutoCloseable {
+
+  /**
+   * 广播一条失效消息
+   *
+   * @param cityId 城市ID
+   * @param version 写入后的版本号，删除时为{@link CityInvalidation#DELETED_VERSION}
+   */
+  void publish(long cityId, long version);
+
+  /**
+   * 注册失效监听器
+   *
+   * @param listener 监听器
+   */
+  void addListener(CityInvalidationListener listener);
+
+  /** 立即发送所有待发送的失效消息 */
+  void flush();
+
+  /** 关闭总线并释放网络资源 */
+  @Override
+  void close();
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import java.util.List;
+
+/**
+ * 城市缓存失效监听器。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public interface CityInvalidationListener {
+
+  /**
+   * 收到其他节点的失效消息
+   *
+   * @param invalidations 已去重的失效消息
+   */
+  void onInvalidations(List<CityInvalidation> invalidations);
+
+  /** 检测到消息丢失，本地缓存已不可信，需要全量重新同步 */
+  void onResyncRequired();
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import com.ershixiong.ai.infrastructure.config.CityCacheProperties;
+
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * 进程内失效总线。
+ *
+ * <p>同一{@link Network}中的总线实例互相投递批次，批次经过完整的编解码，行为与网络总线一致。
+ * 用于单元测试中模拟多个节点，以及单实例部署。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class InJvmCityInvalidationBus extends AbstractCityInvalidationBus {
+
+  private static final Network DEFAULT_NETWORK = new Network();
+
+  private final Network network;
+
+  public InJvmCityInvalidationBus(CityCacheProperties.Bus properties) {
+    this(properties, DEFAULT_NETWORK);
+  }
+
+  public InJvmCityInvalidationBus(CityCacheProperties.Bus properties, Network network) {
+    super("in-jvm", properties);
+    this.network = network;
+    network.members.add(this);
+    start();
+  }
+
+  @Override
+  protected void transmit(InvalidationBatch batch) {
+    for (InJvmCityInvalidationBus member : network.members) {
+      if (member != this) {
+        member.receive(InvalidationBatch.decode(batch.encode()));
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    network.members.remove(this);
+  }
+
+  /** 进程内的虚拟网络 */
+  public static final class Network {
+    private final List<InJvmCityInvalidationBus> members = new CopyOnWriteArrayList<>();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 失效消息批次。
+ *
+ * <p>二进制格式（大端序）：
+ *
+ * <pre>
+ * magic(int) | senderId(long) | sequence(long) | count(short)
+ * count * (cityId(long) | version(long))
+ * </pre>
+ *
+ * <p>count为0的批次是心跳，sequence为发送端最近一次使用的序号，不占用新序号。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class InvalidationBatch {
+
+  /** 魔数 "CITY" */
+  static final int MAGIC = 0x43495459;
+
+  /** 头部长度 */
+  static final int HEADER_BYTES = 4 + 8 + 8 + 2;
+
+  /** 单条失效消息长度 */
+  static final int ENTRY_BYTES = 8 + 8;
+
+  private final long senderId;
+  private final long sequence;
+  private final List<CityInvalidation> invalidations;
+
+  InvalidationBatch(long senderId, long sequence, List<CityInvalidation> invalidations) {
+    this.senderId = senderId;
+    this.sequence = sequence;
+    this.invalidations = invalidations;
+  }
+
+  long getSenderId() {
+    return senderId;
+  }
+
+  long getSequence() {
+    return sequence;
+  }
+
+  List<CityInvalidation> getInvalidations() {
+    return invalidations;
+  }
+
+  boolean isHeartbeat() {
+    return invalidations.isEmpty();
+  }
+
+  /**
+   * 计算指定字节数内最多可容纳的失效消息条数
+   *
+   * @param maxBytes 最大字节数
+   * @return 条数
+   */
+  static int capacity(int maxBytes) {
+    return Math.min((maxBytes - HEADER_BYTES) / ENTRY_BYTES, Short.MAX_VALUE);
+  }
+
+  /**
+   * 编码为字节缓冲区
+   *
+   * @return 已翻转、可直接读取的缓冲区
+   */
+  ByteBuffer encode() {
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + invalidations.size() * ENTRY_BYTES);
+    buffer.putInt(MAGIC).putLong(senderId).putLong(sequence).putShort((short) invalidations.size());
+    for (CityInvalidation invalidation : invalidations) {
+      buffer.putLong(invalidation.getCityId()).putLong(invalidation.getVersion());
+    }
+    return buffer.flip();
+  }
+
+  /**
+   * 从字节缓冲区解码
+   *
+   * @param buffer 字节缓冲区
+   * @return 批次，格式不合法时返回null
+   */
+  static InvalidationBatch decode(ByteBuffer buffer) {
+    if (buffer.remaining() < HEADER_BYTES || buffer.getInt() != MAGIC) {
+      return null;
+    }
+    long senderId = buffer.getLong();
+    long sequence = buffer.getLong();
+    int count = buffer.getShort();
+    if (count < 0 || buffer.remaining() < count * ENTRY_BYTES) {
+      return null;
+    }
+    List<CityInvalidation> invalidations = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      invalidations.add(new CityInvalidation(buffer.getLong(), buffer.getLong()));
+    }
+    return new InvalidationBatch(senderId, sequence, invalidations);
+  }
+}
@@ -0,0 +1,144 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import java.util.TreeSet;
+
+/**
+ * 批次序号缺口检测器。
+ *
+ * <p>跟踪单个发送端的批次序号：
+ *
+ * <ul>
+ *   <li>记录已连续收到的最大序号，乱序到达的批次暂存等待补齐
+ *   <li>缺口持续超过超时时间，或暂存批次过多时，判定消息丢失
+ *   <li>心跳携带发送端最新序号，用于发现尾部批次的丢失
+ *   <li>记录最近一次收到批次或心跳的时间，供调用方清理已经下线的发送端
+ * </ul>
+ *
+ * <p>非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class SequenceGapDetector {
+
+  private final long gapTimeoutNanos;
+  private final int maxPending;
+  private final TreeSet<Long> pending = new TreeSet<>();
+
+  /** 已连续收到的最大序号 -1表示尚未收到任何批次 */
+  private long contiguous = -1L;
+
+  /** 发送端通过心跳宣告的最新序号 */
+  private long announced = -1L;
+
+  /** 缺口出现的时间 0表示当前没有缺口 */
+  private long gapSinceNanos;
+
+  /** 最近一次收到批次或心跳的时间 */
+  private long lastSeenNanos;
+
+  SequenceGapDetector(long gapTimeoutNanos, int maxPending) {
+    this.gapTimeoutNanos = gapTimeoutNanos;
+    this.maxPending = maxPending;
+  }
+
+  /**
+   * 判断批次是否已经收到过
+   *
+   * @param sequence 批次序号
+   * @return 是否重复
+   */
+  boolean isDuplicate(long sequence) {
+    return contiguous >= 0 && (sequence <= contiguous || pending.contains(sequence));
+  }
+
+  /**
+   * 记录收到的批次序号
+   *
+   * @param sequence 批次序号
+   * @param nowNanos 当前时间
+   * @return 是否检测到消息丢失
+   */
+  boolean onBatch(long sequence, long nowNanos) {
+    lastSeenNanos = nowNanos;
+    if (contiguous < 0) {
+      // 从加入时刻开始跟踪，不追溯之前的历史
+      contiguous = sequence - 1;
+    }
+    if (sequence <= contiguous) {
+      return false;
+    }
+    pending.add(sequence);
+    while (!pending.isEmpty() && pending.first() == contiguous + 1) {
+      contiguous = pending.pollFirst();
+    }
+    return check(nowNanos);
+  }
+
+  /**
+   * 记录心跳
+   *
+   * @param latestSequence 发送端最新序号
+   * @param nowNanos 当前时间
+   * @return 是否检测到消息丢失
+   */
+  boolean onHeartbeat(long latestSequence, long nowNanos) {
+    lastSeenNanos = nowNanos;
+    if (contiguous < 0) {
+      contiguous = latestSequence;
+    }
+    announced = Math.max(announced, latestSequence);
+    return check(nowNanos);
+  }
+
+  /**
+   * 判断发送端是否已经静默超过指定时长
+   *
+   * @param nowNanos 当前时间
+   * @param silenceNanos 静默时长
+   * @return 是否静默
+   */
+  boolean isSilent(long nowNanos, long silenceNanos) {
+    return nowNanos - lastSeenNanos >= silenceNanos;
+  }
+
+  /**
+   * 检查缺口是否已超时
+   *
+   * @param nowNanos 当前时间
+   * @return 是否检测到消息丢失，检测到后从最新序号重新开始跟踪
+   */
+  boolean check(long nowNanos) {
+    long latest = Math.max(announced, pending.isEmpty() ? contiguous : pending.last());
+    if (latest <= contiguous) {
+      gapSinceNanos = 0L;
+      return false;
+    }
+    if (gapSinceNanos == 0L) {
+      gapSinceNanos = nowNanos;
+    }
+    if (pending.size() > maxPending || nowNanos - gapSinceNanos >= gapTimeoutNanos) {
+      contiguous = latest;
+      pending.clear();
+      gapSinceNanos = 0L;
+      return true;
+    }
+    return false;
+  }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import com.ershixiong.ai.infrastructure.config.CityCacheProperties;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.nio.channels.ClosedChannelException;
+import java.nio.channels.DatagramChannel;
+import java.util.List;
+
+/**
+ * UDP点对点失效总线。
+ *
+ * <p>每个节点监听一个UDP端口，并把批次以数据报的形式发送给配置的所有对端：
+ *
+ * <ul>
+ *   <li>单个数据报不超过1400字节，避免IP分片，一个批次最多容纳85条失效消息
+ *   <li>数据报可能丢失或乱序，由批次序号和心跳检测丢失并触发全量重新同步
+ *   <li>在127.0.0.1上使用不同端口即可在本机运行多节点测试
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class UdpCityInvalidationBus extends AbstractCityInvalidationBus {
+
+  /** 单个数据报的最大字节数 */
+  private static final int MAX_DATAGRAM_BYTES = 1400;
+
+  private final DatagramChannel channel;
+  private final List<InetSocketAddress> peers;
+  private final Thread receiver;
+
+  public UdpCityInvalidationBus(CityCacheProperties.Bus properties) {
+    super("udp", properties);
+    this.peers = properties.getPeers().stream().map(UdpCityInvalidationBus::parseAddress).toList();
+    try {
+      this.channel = DatagramChannel.open();
+      this.channel.bind(
+          new InetSocketAddress(properties.getBindAddress(), properties.getBindPort()));
+    } catch (IOException e) {
+      throw new IllegalStateException("Failed to bind city invalidation bus", e);
+    }
+    this.receiver = new Thread(this::receiveLoop, "city-invalidation-udp-receiver");
+    this.receiver.setDaemon(true);
+    this.receiver.start();
+    start();
+  }
+
+  /**
+   * 获取本地监听端口
+   *
+   * @return 端口号
+   */
+  public int getLocalPort() {
+    try {
+      return ((InetSocketAddress) channel.getLocalAddress()).getPort();
+    } catch (IOException e) {
+      throw new IllegalStateException("City invalidation bus is closed", e);
+    }
+  }
+
+  @Override
+  protected int maxEntriesPerBatch() {
+    return InvalidationBatch.capacity(MAX_DATAGRAM_BYTES);
+  }
+
+  @Override
+  protected void transmit(InvalidationBatch batch) {
+    ByteBuffer datagram = batch.encode();
+    for (InetSocketAddress peer : peers) {
+      try {
+        channel.send(datagram.duplicate(), peer);
+      } catch (IOException e) {
+        log.debug("Failed to send city invalidations to {}: {}", peer, e.getMessage());
+      }
+    }
+  }
+
+  @Override
+  public void close() {
+    super.close();
+    receiver.interrupt();
+    try {
+      channel.close();
+    } catch (IOException e) {
+      log.debug("Failed to close city invalidation channel: {}", e.getMessage());
+    }
+  }
+
+  private void receiveLoop() {
+    ByteBuffer buffer = ByteBuffer.allocate(MAX_DATAGRAM_BYTES);
+    while (channel.isOpen()) {
+      try {
+        buffer.clear();
+        channel.receive(buffer);
+        receive(InvalidationBatch.decode(buffer.flip()));
+      } catch (ClosedChannelException e) {
+        return;
+      } catch (IOException | RuntimeException e) {
+        log.warn("Failed to receive city invalidations: {}", e.getMessage());
+      }
+    }
+  }
+
+  private static InetSocketAddress parseAddress(String address) {
+    int separator = address.lastIndexOf(':');
+    if (separator <= 0) {
+      throw new IllegalArgumentException("Invalid peer address, expected host:port: " + address);
+    }
+    return new InetSocketAddress(
+        address.substring(0, separator), Integer.parseInt(address.substring(separator + 1)));
+  }
+}
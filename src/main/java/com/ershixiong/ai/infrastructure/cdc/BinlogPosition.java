@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cdc;
+
+import java.util.Objects;
+
+/**
+ * binlog位点。
+ *
+ * <p>由binlog文件名和文件内偏移量组成，始终指向某个事务提交之后的位置。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class BinlogPosition {
+
+  /** binlog文件名 */
+  private final String filename;
+
+  /** 文件内偏移量 */
+  private final long position;
+
+  public BinlogPosition(String filename, long position) {
+    this.filename = filename;
+    this.position = position;
+  }
+
+  public String getFilename() {
+    return filename;
+  }
+
+  public long getPosition() {
+    return position;
+  }
+
+  @Override
+  public boolean equals(Object o) {
+    if (this == o) {
+      return true;
+    }
+    if (o == null || getClass() != o.getClass()) {
+      return false;
+    }
+    BinlogPosition that = (BinlogPosition) o;
+    return position == that.position && Objects.equals(filename, that.filename);
+  }
+
+  @Override
+  public int hashCode() {
+    return Objects.hash(filename, position);
+  }
+
+  @Override
+  public String toString() {
+    return filename + ":" + position;
+  }
+}
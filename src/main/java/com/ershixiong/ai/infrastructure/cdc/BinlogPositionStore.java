@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cdc;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Optional;
+
+/**
+ * 基于本地文件的binlog位点存储。
+ *
+ * <p>文件内容为一行"文件名:偏移量"。写入时先写临时文件再原子替换，进程崩溃时不会留下半写的位点。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class BinlogPositionStore {
+
+  private final Path file;
+
+  public BinlogPositionStore(Path file) {
+    this.file = file;
+  }
+
+  /**
+   * 读取已保存的位点
+   *
+   * @return 位点，文件不存在或内容无效时为空
+   */
+  public Optional<BinlogPosition> load() {
+    if (!Files.exists(file)) {
+      return Optional.empty();
+    }
+    try {
+      String content = Files.readString(file, StandardCharsets.UTF_8).trim();
+      int separator = content.lastIndexOf(':');
+      if (separator <= 0) {
+        return Optional.empty();
+      }
+      return Optional.of(
+          new BinlogPosition(
+              content.substring(0, separator), Long.parseLong(content.substring(separator + 1))));
+    } catch (IOException | NumberFormatException e) {
+      return Optional.empty();
+    }
+  }
+
+  /**
+   * 保存位点
+   *
+   * @param position 位点
+   */
+  public void save(BinlogPosition position) {
+    try {
+      Path parent = file.toAbsolutePath().getParent();
+      if (parent != null) {
+        Files.createDirectories(parent);
+      }
+      Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+      Files.writeString(temp, position.toString(), StandardCharsets.UTF_8);
+      Files.move(
+          temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to save binlog position to " + file, e);
+    }
+  }
+}
@@ -0,0 +1,319 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cdc;
+
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.infrastructure.config.CityBinlogProperties;
+import com.github.shyiko.mysql.binlog.BinaryLogClient;
+import com.github.shyiko.mysql.binlog.event.DeleteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.Event;
+import com.github.shyiko.mysql.binlog.event.EventHeaderV4;
+import com.github.shyiko.mysql.binlog.event.EventType;
+import com.github.shyiko.mysql.binlog.event.TableMapEventData;
+import com.github.shyiko.mysql.binlog.event.UpdateRowsEventData;
+import com.github.shyiko.mysql.binlog.event.WriteRowsEventData;
+import com.github.shyiko.mysql.binlog.event.deserialization.EventDeserializer;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 城市表binlog订阅器。
+ *
+ * <p>以从库身份连接MySQL，捕获城市表的行变更，包括数据团队绕过应用直接修改数据库的写入：
+ *
+ * <ul>
+ *   <li>只处理配置的库表，插入、更新、删除分别发布为{@link CityChangedEvent}（来源为BINLOG）
+ *   <li>缓存、事件流、内存索引等订阅方通过事件增量更新，无需全量重新加载
+ *   <li>每个事务提交（XID）后记录位点并定期落盘，重启或断线后从该位点继续
+ *   <li>位点之后的事件可能被重放，订阅方需保证幂等
+ * </ul>
+ *
+ * <p>要求MySQL开启binlog_format=ROW。列名优先取自binlog_row_metadata=FULL时的表元数据，
+ * 否则从information_schema读取列顺序。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "city.cdc", name = "enabled", havingValue = "true")
+public class CityBinlogTailer implements SmartLifecycle {
+
+  private final CityBinlogProperties properties;
+  private final ApplicationEventPublisher eventPublisher;
+  private final JdbcTemplate jdbcTemplate;
+  private final BinlogPositionStore positionStore;
+  private final Map<Long, Boolean> cityTableIds = new HashMap<>();
+  private final ScheduledExecutorService positionFlusher;
+
+  private volatile boolean running;
+  private volatile BinaryLogClient client;
+  private volatile BinlogPosition committedPosition;
+  private volatile BinlogPosition flushedPosition;
+  private volatile Map<String, Integer> columnOrdinals = Map.of();
+  private Thread tailerThread;
+
+  public CityBinlogTailer(
+      CityBinlogProperties properties,
+      ApplicationEventPublisher eventPublisher,
+      JdbcTemplate jdbcTemplate) {
+    this.properties = properties;
+    this.eventPublisher = eventPublisher;
+    this.jdbcTemplate = jdbcTemplate;
+    this.positionStore = new BinlogPositionStore(Path.of(properties.getPositionFile()));
+    this.positionFlusher =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "city-binlog-position");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  @Override
+  public void start() {
+    committedPosition = positionStore.load().orElse(null);
+    flushedPosition = committedPosition;
+    log.info(
+        "Starting city binlog tailer from {}",
+        committedPosition == null ? "current position" : committedPosition);
+    running = true;
+    long flushInterval = properties.getPositionFlushInterval().toMillis();
+    positionFlusher.scheduleWithFixedDelay(
+        this::flushPosition, flushInterval, flushInterval, TimeUnit.MILLISECONDS);
+    tailerThread = new Thread(this::tailLoop, "city-binlog-tailer");
+    tailerThread.setDaemon(true);
+    tailerThread.start();
+  }
+
+  @Override
+  public void stop() {
+    running = false;
+    BinaryLogClient current = client;
+    if (current != null) {
+      try {
+        current.disconnect();
+      } catch (IOException e) {
+        log.debug("Failed to disconnect binlog client: {}", e.getMessage());
+      }
+    }
+    if (tailerThread != null) {
+      tailerThread.interrupt();
+    }
+    positionFlusher.shutdownNow();
+    flushPosition();
+  }
+
+  @Override
+  public boolean isRunning() {
+    return running;
+  }
+
+  /**
+   * 获取最近一次已处理事务的位点
+   *
+   * @return 位点，尚未处理任何事务时为null
+   */
+  public BinlogPosition getCommittedPosition() {
+    return committedPosition;
+  }
+
+  private void tailLoop() {
+    while (running) {
+      try {
+        refreshColumnOrdinals();
+        BinaryLogClient newClient = createClient();
+        client = newClient;
+        newClient.connect();
+      } catch (IOException | RuntimeException e) {
+        log.warn("City binlog tailer disconnected: {}", e.getMessage());
+      }
+      if (running) {
+        try {
+          Thread.sleep(properties.getReconnectInterval().toMillis());
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          return;
+        }
+      }
+    }
+  }
+
+  private BinaryLogClient createClient() {
+    BinaryLogClient newClient =
+        new BinaryLogClient(
+            properties.getHost(),
+            properties.getPort(),
+            properties.getUsername(),
+            properties.getPassword());
+    newClient.setServerId(properties.getServerId());
+    newClient.setKeepAlive(false);
+    EventDeserializer deserializer = new EventDeserializer();
+    deserializer.setCompatibilityMode(
+        EventDeserializer.CompatibilityMode.DATE_AND_TIME_AS_LONG,
+        EventDeserializer.CompatibilityMode.CHAR_AND_BINARY_AS_BYTE_ARRAY);
+    newClient.setEventDeserializer(deserializer);
+    BinlogPosition position = committedPosition;
+    if (position != null) {
+      newClient.setBinlogFilename(position.getFilename());
+      newClient.setBinlogPosition(position.getPosition());
+    }
+    newClient.registerEventListener(event -> onEvent(newClient, event));
+    return newClient;
+  }
+
+  private void onEvent(BinaryLogClient source, Event event) {
+    EventType type = event.getHeader().getEventType();
+    if (type == EventType.TABLE_MAP) {
+      onTableMap(event.getData());
+    } else if (EventType.isWrite(type)) {
+      WriteRowsEventData data = event.getData();
+      if (isCityTable(data.getTableId())) {
+        data.getRows().forEach(row -> publish(CityChangedEvent.Type.CREATED, row));
+      }
+    } else if (EventType.isUpdate(type)) {
+      UpdateRowsEventData data = event.getData();
+      if (isCityTable(data.getTableId())) {
+        data.getRows().forEach(row -> publish(CityChangedEvent.Type.UPDATED, row.getValue()));
+      }
+    } else if (EventType.isDelete(type)) {
+      DeleteRowsEventData data = event.getData();
+      if (isCityTable(data.getTableId())) {
+        data.getRows().forEach(row -> publish(CityChangedEvent.Type.DELETED, row));
+      }
+    } else if (type == EventType.XID) {
+      EventHeaderV4 header = event.getHeader();
+      committedPosition = new BinlogPosition(source.getBinlogFilename(), header.getNextPosition());
+    }
+  }
+
+  private void onTableMap(TableMapEventData data) {
+    boolean isCity =
+        properties.getDatabase().equalsIgnoreCase(data.getDatabase())
+            && properties.getTable().equalsIgnoreCase(data.getTable());
+    cityTableIds.put(data.getTableId(), isCity);
+    if (!isCity) {
+      return;
+    }
+    if (data.getEventMetadata() != null && data.getEventMetadata().getColumnNames() != null) {
+      columnOrdinals = ordinalsOf(data.getEventMetadata().getColumnNames());
+    } else if (data.getColumnTypes().length != columnOrdinals.size()) {
+      // 表结构发生了变化
+      refreshColumnOrdinals();
+    }
+  }
+
+  private boolean isCityTable(long tableId) {
+    return Boolean.TRUE.equals(cityTableIds.get(tableId));
+  }
+
+  private void publish(CityChangedEvent.Type type, Serializable[] row) {
+    City city = toCity(row, columnOrdinals);
+    City payload = type == CityChangedEvent.Type.DELETED ? null : city;
+    eventPublisher.publishEvent(
+        new CityChangedEvent(type, city.getId(), payload, CityChangedEvent.Source.BINLOG));
+  }
+
+  private void refreshColumnOrdinals() {
+    List<String> columns =
+        jdbcTemplate.queryForList(
+            "SELECT COLUMN_NAME FROM information_schema.COLUMNS"
+                + " WHERE TABLE_SCHEMA = ? AND TABLE_NAME = ? ORDER BY ORDINAL_POSITION",
+            String.class,
+            properties.getDatabase(),
+            properties.getTable());
+    columnOrdinals = ordinalsOf(columns);
+  }
+
+  private void flushPosition() {
+    BinlogPosition position = committedPosition;
+    if (position == null || position.equals(flushedPosition)) {
+      return;
+    }
+    try {
+      positionStore.save(position);
+      flushedPosition = position;
+    } catch (RuntimeException e) {
+      log.warn("Failed to persist city binlog position {}: {}", position, e.getMessage());
+    }
+  }
+
+  /**
+   * 按列名构建列序号映射
+   *
+   * @param columns 按表定义顺序排列的列名
+   * @return 小写列名到序号的映射
+   */
+  static Map<String, Integer> ordinalsOf(List<String> columns) {
+    Map<String, Integer> ordinals = new HashMap<>();
+    for (int i = 0; i < columns.size(); i++) {
+      ordinals.put(columns.get(i).toLowerCase(), i);
+    }
+    return ordinals;
+  }
+
+  /**
+   * 把binlog行数据转换为城市领域对象
+   *
+   * @param row 行数据
+   * @param ordinals 列序号映射
+   * @return 城市
+   */
+  static City toCity(Serializable[] row, Map<String, Integer> ordinals) {
+    Number id = (Number) value(row, ordinals, "id");
+    Number population = (Number) value(row, ordinals, "population");
+    Number version = (Number) value(row, ordinals, "version");
+    return City.builder()
+        .id(Objects.requireNonNull(id, "city row without id").longValue())
+        .name(text(value(row, ordinals, "name")))
+        .countrycode(text(value(row, ordinals, "countrycode")))
+        .district(text(value(row, ordinals, "district")))
+        .population(population == null ? null : population.intValue())
+        .version(version == null ? null : version.longValue())
+        .build();
+  }
+
+  private static Serializable value(
+      Serializable[] row, Map<String, Integer> ordinals, String column) {
+    Integer ordinal = ordinals.get(column);
+    return ordinal == null || ordinal >= row.length ? null : row[ordinal];
+  }
+
+  private static String text(Serializable value) {
+    if (value instanceof byte[] bytes) {
+      return new String(bytes, StandardCharsets.UTF_8);
+    }
+    return value == null ? null : value.toString();
+  }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+/**
+ * 列式快照中固定行数的一段数据。
+ *
+ * <p>每列是一个基本类型数组，国家代码和行政区保存字典编号，人口未知时保存{@link #UNKNOWN}。
+ * 段发布到快照后不再修改，刷新时只复制被修改的段，其余段在新旧快照之间共享。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class ColumnChunk {
+
+  static final int SHIFT = 14;
+
+  /** 每段的行数 */
+  static final int ROWS = 1 << SHIFT;
+
+  static final int MASK = ROWS - 1;
+
+  /** 人口未知的标记值，小于任何有效人口，不影响最大值的计算 */
+  static final int UNKNOWN = Integer.MIN_VALUE;
+
+  private final long[] ids;
+  private final int[] populations;
+  private final int[] countrycodes;
+  private final int[] districts;
+  private int size;
+
+  ColumnChunk() {
+    ids = new long[ROWS];
+    populations = new int[ROWS];
+    countrycodes = new int[ROWS];
+    districts = new int[ROWS];
+  }
+
+  private ColumnChunk(ColumnChunk source) {
+    ids = source.ids.clone();
+    populations = source.populations.clone();
+    countrycodes = source.countrycodes.clone();
+    districts = source.districts.clone();
+    size = source.size;
+  }
+
+  ColumnChunk copy() {
+    return new ColumnChunk(this);
+  }
+
+  /** 已使用的行数 */
+  int size() {
+    return size;
+  }
+
+  boolean isFull() {
+    return size == ROWS;
+  }
+
+  /** 占用下一行，返回其行号 */
+  int append() {
+    return size++;
+  }
+
+  /** 释放最后一行，返回剩余行数 */
+  int removeLast() {
+    return --size;
+  }
+
+  long id(int row) {
+    return ids[row];
+  }
+
+  /** 人口列，调用方只读 */
+  int[] populations() {
+    return populations;
+  }
+
+  /** 国家代码字典编号列，调用方只读 */
+  int[] countrycodes() {
+    return countrycodes;
+  }
+
+  /** 行政区字典编号列，调用方只读 */
+  int[] districts() {
+    return districts;
+  }
+
+  void set(int row, long id, Integer population, int countrycode, int district) {
+    ids[row] = id;
+    populations[row] = population == null ? UNKNOWN : population;
+    countrycodes[row] = countrycode;
+    districts[row] = district;
+  }
+
+  void move(int row, ColumnChunk source, int sourceRow) {
+    ids[row] = source.ids[sourceRow];
+    populations[row] = source.populations[sourceRow];
+    countrycodes[row] = source.countrycodes[sourceRow];
+    districts[row] = source.districts[sourceRow];
+  }
+
+  /** 各列数组占用的字节数 */
+  static long bytes() {
+    return (long) ROWS * (Long.BYTES + 3 * Integer.BYTES);
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+import com.ershixiong.ai.domain.model.CityGroupBy;
+
+import java.util.Arrays;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * 列式快照上的人口聚合内核。
+ *
+ * <p>以段为单位分治：每个叶子任务扫描连续的若干段，结果按组累加后两两合并。
+ * 每个叶子都要分配并合并与分组数等长的累加数组，因此叶子数只取并行度的数倍，而不是每段一个。
+ * 不分组且没有过滤条件时走无分支的归约循环，便于JIT编译为SIMD指令；
+ * 其余情况逐行判断过滤条件，按分组列中的字典编号直接索引累加数组，不做哈希查找。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class ColumnarAggregator {
+
+  /** 字典编号过滤条件不生效 */
+  static final int ANY = -1;
+
+  private ColumnarAggregator() {
+  }
+
+  /**
+   * 已解析为字典编号的过滤条件
+   *
+   * @param countrycode 国家代码编号，{@link #ANY}表示不过滤
+   * @param district 行政区编号，{@link #ANY}表示不过滤
+   * @param ranged 是否按人口范围过滤
+   * @param minPopulation 最小人口（包含）
+   * @param maxPopulation 最大人口（包含）
+   */
+  record Filter(
+      int countrycode, int district, boolean ranged, int minPopulation, int maxPopulation) {
+
+    boolean isEmpty() {
+      return countrycode == ANY && district == ANY && !ranged;
+    }
+  }
+
+  /**
+   * 扫描一段数据并累加到结果中
+   *
+   * @param chunk 数据段
+   * @param filter 过滤条件
+   * @param groupBy 分组维度
+   * @param result 累加结果
+   */
+  static void scan(ColumnChunk chunk, Filter filter, CityGroupBy groupBy, Accumulator result) {
+    if (groupBy == CityGroupBy.NONE && filter.isEmpty()) {
+      reduce(chunk.populations(), chunk.size(), result);
+      return;
+    }
+    int[] groups =
+        switch (groupBy) {
+          case COUNTRYCODE -> chunk.countrycodes();
+          case DISTRICT -> chunk.districts();
+          case NONE -> null;
+        };
+    int[] populations = chunk.populations();
+    int[] countrycodes = chunk.countrycodes();
+    int[] districts = chunk.districts();
+    int countrycode = filter.countrycode();
+    int district = filter.district();
+    boolean ranged = filter.ranged();
+    int minPopulation = filter.minPopulation();
+    int maxPopulation = filter.maxPopulation();
+    int size = chunk.size();
+    for (int i = 0; i < size; i++) {
+      if (countrycode != ANY && countrycodes[i] != countrycode) {
+        continue;
+      }
+      if (district != ANY && districts[i] != district) {
+        continue;
+      }
+      int population = populations[i];
+      if (ranged
+          && (population == ColumnChunk.UNKNOWN
+              || population < minPopulation
+              || population > maxPopulation)) {
+        continue;
+      }
+      result.add(groups == null ? 0 : groups[i], population);
+    }
+  }
+
+  /** 不分组、无过滤的全段归约，循环体内没有分支 */
+  private static void reduce(int[] populations, int size, Accumulator result) {
+    long sum = 0;
+    int unknown = 0;
+    int min = Integer.MAX_VALUE;
+    int max = Integer.MIN_VALUE;
+    for (int i = 0; i < size; i++) {
+      int population = populations[i];
+      boolean known = population != ColumnChunk.UNKNOWN;
+      sum += known ? population : 0;
+      unknown += known ? 0 : 1;
+      min = Math.min(min, known ? population : Integer.MAX_VALUE);
+      // UNKNOWN是int的最小值，不会成为最大值
+      max = Math.max(max, population);
+    }
+    result.counts[0] += size;
+    result.known[0] += size - unknown;
+    result.sums[0] += sum;
+    result.mins[0] = Math.min(result.mins[0], min);
+    result.maxs[0] = Math.max(result.maxs[0], max);
+  }
+
+  /** 按组累加的计数、总和和极值，下标为分组键的字典编号，不分组时只有一组 */
+  static final class Accumulator {
+    private final long[] counts;
+    private final long[] known;
+    private final long[] sums;
+    private final int[] mins;
+    private final int[] maxs;
+
+    Accumulator(int groups) {
+      counts = new long[groups];
+      known = new long[groups];
+      sums = new long[groups];
+      mins = new int[groups];
+      maxs = new int[groups];
+      Arrays.fill(mins, Integer.MAX_VALUE);
+      Arrays.fill(maxs, Integer.MIN_VALUE);
+    }
+
+    void add(int group, int population) {
+      counts[group]++;
+      if (population != ColumnChunk.UNKNOWN) {
+        known[group]++;
+        sums[group] += population;
+        mins[group] = Math.min(mins[group], population);
+        maxs[group] = Math.max(maxs[group], population);
+      }
+    }
+
+    long count(int group) {
+      return counts[group];
+    }
+
+    /** 人口已知的城市数 */
+    long known(int group) {
+      return known[group];
+    }
+
+    long sum(int group) {
+      return sums[group];
+    }
+
+    int min(int group) {
+      return mins[group];
+    }
+
+    int max(int group) {
+      return maxs[group];
+    }
+
+    void merge(Accumulator other) {
+      for (int g = 0; g < counts.length; g++) {
+        counts[g] += other.counts[g];
+        known[g] += other.known[g];
+        sums[g] += other.sums[g];
+        mins[g] = Math.min(mins[g], other.mins[g]);
+        maxs[g] = Math.max(maxs[g], other.maxs[g]);
+      }
+    }
+  }
+
+  /** 对一组数据段分治扫描的fork-join任务 */
+  static final class ScanTask extends RecursiveTask<Accumulator> {
+
+    private final ColumnChunk[] chunks;
+    private final int from;
+    private final int to;
+    private final Filter filter;
+    private final CityGroupBy groupBy;
+    private final int groups;
+    private final int leafChunks;
+
+    ScanTask(
+        ColumnChunk[] chunks,
+        int from,
+        int to,
+        Filter filter,
+        CityGroupBy groupBy,
+        int groups,
+        int leafChunks) {
+      this.chunks = chunks;
+      this.from = from;
+      this.to = to;
+      this.filter = filter;
+      this.groupBy = groupBy;
+      this.groups = groups;
+      this.leafChunks = leafChunks;
+    }
+
+    @Override
+    protected Accumulator compute() {
+      if (to - from <= leafChunks) {
+        Accumulator result = new Accumulator(groups);
+        for (int i = from; i < to; i++) {
+          scan(chunks[i], filter, groupBy, result);
+        }
+        return result;
+      }
+      int mid = (from + to) >>> 1;
+      ScanTask left = new ScanTask(chunks, from, mid, filter, groupBy, groups, leafChunks);
+      left.fork();
+      Accumulator right =
+          new ScanTask(chunks, mid, to, filter, groupBy, groups, leafChunks).compute();
+      Accumulator result = left.join();
+      result.merge(right);
+      return result;
+    }
+  }
+}
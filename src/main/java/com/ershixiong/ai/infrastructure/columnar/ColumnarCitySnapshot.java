@@ -0,0 +1,360 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityAggregation;
+import com.ershixiong.ai.domain.model.CityAggregationQuery;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.model.CityGroupBy;
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.columnar.ColumnarAggregator.Accumulator;
+import com.ershixiong.ai.infrastructure.columnar.ColumnarAggregator.Filter;
+import com.ershixiong.ai.infrastructure.columnar.ColumnarAggregator.ScanTask;
+import com.ershixiong.ai.infrastructure.repository.LongIntHashMap;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 城市表的列式内存快照，用于人口聚合查询。
+ *
+ * <p>存储方式：
+ *
+ * <ul>
+ *   <li>数据按{@link ColumnChunk#ROWS}行分段，每段的ID、人口、国家代码和行政区各是一个基本类型数组
+ *   <li>国家代码和行政区使用字典编码，分组时以编号直接索引累加数组
+ *   <li>行在段内无序，删除时把最后一行移到空位，各段保持紧凑
+ * </ul>
+ *
+ * <p>刷新方式与{@link com.ershixiong.ai.infrastructure.degraded.CitySnapshot}相同，通过{@link
+ * CityChangeRepository}按版本增量追赶；每次刷新只复制被修改的段，生成新视图后整体替换，
+ * 聚合查询在视图上无锁执行，由专用的{@link ForkJoinPool}按段并行扫描。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class ColumnarCitySnapshot implements AutoCloseable {
+
+  /** 过滤值不在字典中，没有城市能够匹配 */
+  private static final int MISSING = -2;
+
+  /** 每个并行线程分到的叶子任务数，多于1个以便工作窃取平衡负载 */
+  private static final int LEAVES_PER_THREAD = 4;
+
+  private final CityChangeRepository cityChangeRepository;
+  private final int batchSize;
+  private final ForkJoinPool pool;
+  /** 串行化刷新；刷新期间分批读取数据库，使用ReentrantLock以免固定虚拟线程 */
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  // 以下状态只在持有refreshLock的刷新过程中访问
+  private final StringDictionary countrycodes = new StringDictionary();
+  private final StringDictionary districts = new StringDictionary();
+  private List<ColumnChunk> chunks = new ArrayList<>();
+  private LongIntHashMap locations = new LongIntHashMap(1024);
+  /** 本次刷新中新建或复制的段，尚未发布，可以原地修改 */
+  private final Set<ColumnChunk> owned = Collections.newSetFromMap(new IdentityHashMap<>());
+
+  private volatile View view;
+
+  /**
+   * 创建列式快照
+   *
+   * @param cityChangeRepository 城市变更仓储
+   * @param batchSize 每次拉取的变更条数
+   * @param parallelism 聚合查询的并行度
+   */
+  public ColumnarCitySnapshot(
+      CityChangeRepository cityChangeRepository, int batchSize, int parallelism) {
+    this.cityChangeRepository = cityChangeRepository;
+    this.batchSize = batchSize;
+    this.pool = new ForkJoinPool(parallelism);
+  }
+
+  /**
+   * 从数据库追赶到最新版本
+   *
+   * @return 本次应用的变更条数
+   */
+  public int refresh() {
+    refreshLock.lock();
+    try {
+      View current = view;
+      long version = current == null ? -1L : current.version();
+      int applied = 0;
+      CityChangeSet changes;
+      try {
+        do {
+          changes = cityChangeRepository.findChangesSince(version, batchSize);
+          if (changes.isResetRequired()) {
+            log.warn("Columnar city snapshot fell behind the tombstone horizon, rebuilding");
+            version = -1L;
+            chunks = new ArrayList<>();
+            locations = new LongIntHashMap(1024);
+            continue;
+          }
+          for (City city : changes.getUpserts()) {
+            upsert(city);
+          }
+          for (Long id : changes.getDeletedIds()) {
+            delete(id);
+          }
+          applied += changes.getUpserts().size() + changes.getDeletedIds().size();
+          version = changes.getLastVersion();
+        } while (changes.isHasMore() || changes.isResetRequired());
+      } catch (RuntimeException e) {
+        rollback(current);
+        throw e;
+      }
+      owned.clear();
+      view =
+          new View(
+              chunks.toArray(new ColumnChunk[0]),
+              countrycodes.snapshot(),
+              districts.snapshot(),
+              locations.size(),
+              version,
+              Instant.now());
+      return applied;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /** 快照是否已完成首次加载 */
+  public boolean isReady() {
+    return view != null;
+  }
+
+  /** 快照对应的数据库版本，未加载时为-1 */
+  public long getVersion() {
+    View current = view;
+    return current == null ? -1L : current.version();
+  }
+
+  /** 最近一次成功刷新的时间，未加载时为null */
+  public Instant getRefreshedAt() {
+    View current = view;
+    return current == null ? null : current.refreshedAt();
+  }
+
+  /** 快照中的城市数 */
+  public int size() {
+    View current = view;
+    return current == null ? 0 : current.size();
+  }
+
+  /** 各列数组占用的字节数 */
+  public long getColumnBytes() {
+    View current = view;
+    return current == null ? 0L : current.chunks().length * ColumnChunk.bytes();
+  }
+
+  /**
+   * 按条件过滤后分组统计人口
+   *
+   * @param query 聚合查询
+   * @return 聚合结果
+   */
+  public CityAggregation aggregate(CityAggregationQuery query) {
+    View current = view;
+    if (current == null) {
+      throw new IllegalStateException("Columnar city snapshot is not loaded");
+    }
+    CityGroupBy groupBy = query.getGroupBy() == null ? CityGroupBy.NONE : query.getGroupBy();
+    String[] keys =
+        switch (groupBy) {
+          case COUNTRYCODE -> current.countrycodes();
+          case DISTRICT -> current.districts();
+          case NONE -> new String[1];
+        };
+    int countrycode = code(current.countrycodes(), query.getCountrycode());
+    int district = code(current.districts(), query.getDistrict());
+    int minPopulation =
+        query.getMinPopulation() == null ? Integer.MIN_VALUE : query.getMinPopulation();
+    int maxPopulation =
+        query.getMaxPopulation() == null ? Integer.MAX_VALUE : query.getMaxPopulation();
+    Accumulator result = new Accumulator(keys.length);
+    // 过滤值不在字典中或人口范围为空时没有城市匹配，无需扫描
+    boolean matchable =
+        countrycode != MISSING && district != MISSING && minPopulation <= maxPopulation;
+    if (matchable && current.chunks().length > 0) {
+      Filter filter =
+          new Filter(
+              countrycode,
+              district,
+              query.getMinPopulation() != null || query.getMaxPopulation() != null,
+              minPopulation,
+              maxPopulation);
+      int chunkCount = current.chunks().length;
+      int leafChunks = Math.max(1, chunkCount / (pool.getParallelism() * LEAVES_PER_THREAD));
+      ScanTask task =
+          new ScanTask(current.chunks(), 0, chunkCount, filter, groupBy, keys.length, leafChunks);
+      result = chunkCount <= leafChunks ? task.compute() : pool.invoke(task);
+    }
+    return toAggregation(current, groupBy, keys, result);
+  }
+
+  /** 关闭聚合线程池 */
+  @Override
+  public void close() {
+    pool.shutdown();
+  }
+
+  /**
+   * 把过滤值转换为字典编号
+   *
+   * @return 编号，值为null时返回{@link ColumnarAggregator#ANY}，不在字典中时返回{@link #MISSING}
+   */
+  private static int code(String[] dictionary, String value) {
+    if (value == null) {
+      return ColumnarAggregator.ANY;
+    }
+    for (int i = 0; i < dictionary.length; i++) {
+      if (value.equals(dictionary[i])) {
+        return i;
+      }
+    }
+    return MISSING;
+  }
+
+  private static CityAggregation toAggregation(
+      View view, CityGroupBy groupBy, String[] keys, Accumulator result) {
+    List<CityPopulationStats> groups = new ArrayList<>();
+    long matched = 0;
+    for (int g = 0; g < keys.length; g++) {
+      long count = result.count(g);
+      matched += count;
+      // 不分组时总是返回一组，分组时只返回有城市的组
+      if (count == 0 && groupBy != CityGroupBy.NONE) {
+        continue;
+      }
+      long known = result.known(g);
+      groups.add(
+          CityPopulationStats.builder()
+              .key(keys[g])
+              .count(count)
+              .sum(known == 0 ? null : result.sum(g))
+              .min(known == 0 ? null : result.min(g))
+              .max(known == 0 ? null : result.max(g))
+              .avg(known == 0 ? null : (double) result.sum(g) / known)
+              .build());
+    }
+    groups.sort(
+        Comparator.comparing(
+            CityPopulationStats::getKey, Comparator.nullsFirst(Comparator.naturalOrder())));
+    return CityAggregation.builder()
+        .groupBy(groupBy)
+        .version(view.version())
+        .scannedRows(view.size())
+        .matchedRows(matched)
+        .groups(groups)
+        .build();
+  }
+
+  private void upsert(City city) {
+    int countrycode = countrycodes.encode(city.getCountrycode());
+    int district = districts.encode(city.getDistrict());
+    int position = locations.get(city.getId());
+    if (position == LongIntHashMap.MISSING) {
+      int last = chunks.size() - 1;
+      if (last < 0 || chunks.get(last).isFull()) {
+        ColumnChunk chunk = new ColumnChunk();
+        chunks.add(chunk);
+        owned.add(chunk);
+        last++;
+      }
+      ColumnChunk chunk = writable(last);
+      position = last << ColumnChunk.SHIFT | chunk.append();
+      locations.put(city.getId(), position);
+    }
+    writable(position >>> ColumnChunk.SHIFT)
+        .set(
+            position & ColumnChunk.MASK,
+            city.getId(),
+            city.getPopulation(),
+            countrycode,
+            district);
+  }
+
+  private void delete(Long id) {
+    int position = locations.remove(id);
+    if (position == LongIntHashMap.MISSING) {
+      return;
+    }
+    int lastIndex = chunks.size() - 1;
+    ColumnChunk last = writable(lastIndex);
+    int lastRow = last.size() - 1;
+    if (position != (lastIndex << ColumnChunk.SHIFT | lastRow)) {
+      // 把最后一行移到被删除的位置
+      writable(position >>> ColumnChunk.SHIFT).move(position & ColumnChunk.MASK, last, lastRow);
+      locations.put(last.id(lastRow), position);
+    }
+    if (last.removeLast() == 0) {
+      chunks.remove(lastIndex);
+    }
+  }
+
+  /** 取可以原地修改的段，已发布的段先复制 */
+  private ColumnChunk writable(int index) {
+    ColumnChunk chunk = chunks.get(index);
+    if (!owned.contains(chunk)) {
+      chunk = chunk.copy();
+      chunks.set(index, chunk);
+      owned.add(chunk);
+    }
+    return chunk;
+  }
+
+  /** 刷新失败时丢弃未发布的修改，从当前视图重建写入状态 */
+  private void rollback(View current) {
+    owned.clear();
+    chunks = new ArrayList<>();
+    locations = new LongIntHashMap(current == null ? 1024 : current.size());
+    if (current == null) {
+      return;
+    }
+    for (int c = 0; c < current.chunks().length; c++) {
+      ColumnChunk chunk = current.chunks()[c];
+      chunks.add(chunk);
+      for (int row = 0; row < chunk.size(); row++) {
+        locations.put(chunk.id(row), c << ColumnChunk.SHIFT | row);
+      }
+    }
+  }
+
+  /** 快照的不可变视图 */
+  private record View(
+      ColumnChunk[] chunks,
+      String[] countrycodes,
+      String[] districts,
+      int size,
+      long version,
+      Instant refreshedAt) {
+  }
+}
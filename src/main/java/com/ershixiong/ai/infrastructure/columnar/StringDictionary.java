@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 字符串列的字典编码。
+ *
+ * <p>每个不同的取值（包括null）分配一个从0开始的编号，列中只保存编号；只追加不删除，
+ * 已分配的编号永远不变，因此旧快照中的编号在新字典中仍然有效。非线程安全，只由刷新线程修改，
+ * 读取方使用{@link #snapshot()}返回的数组。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class StringDictionary {
+
+  private final Map<String, Integer> codes = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+  private String[] snapshot = new String[0];
+
+  /**
+   * 取值的编号，不存在时分配新编号
+   *
+   * @param value 取值
+   * @return 编号
+   */
+  int encode(String value) {
+    Integer code = codes.get(value);
+    if (code == null) {
+      code = values.size();
+      values.add(value);
+      codes.put(value, code);
+    }
+    return code;
+  }
+
+  /**
+   * 编号到取值的不可变数组，字典没有增长时返回同一个数组
+   *
+   * @return 下标为编号的取值数组
+   */
+  String[] snapshot() {
+    if (snapshot.length != values.size()) {
+      snapshot = values.toArray(new String[0]);
+    }
+    return snapshot;
+  }
+}
@@ -0,0 +1,73 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.async.CityQueryExecutor;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 异步查询配置类，为异步接口提供有界的查询线程池。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+public class AsyncQueryConfig {
+
+  /**
+   * 配置城市查询执行器
+   *
+   * @param properties 异步查询配置
+   * @param meterRegistry 指标注册表
+   * @return 城市查询执行器
+   */
+  @Bean(destroyMethod = "close")
+  public CityQueryExecutor cityQueryExecutor(
+      CityAsyncProperties properties, MeterRegistry meterRegistry) {
+    AtomicInteger threadIds = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            properties.getThreads(),
+            properties.getThreads(),
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            r -> {
+              Thread thread = new Thread(r, "city-async-query-" + threadIds.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    pool.allowCoreThreadTimeOut(true);
+    CityQueryExecutor executor = new CityQueryExecutor(pool);
+    Gauge.builder("city.async.active", executor, CityQueryExecutor::getActive)
+        .register(meterRegistry);
+    Gauge.builder("city.async.queued", executor, CityQueryExecutor::getQueued)
+        .register(meterRegistry);
+    FunctionCounter.builder("city.async.rejected", executor, CityQueryExecutor::getRejected)
+        .register(meterRegistry);
+    return executor;
+  }
+}
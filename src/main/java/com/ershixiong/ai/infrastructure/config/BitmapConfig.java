@@ -0,0 +1,55 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.bitmap.CityBitmapIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 城市位图索引配置类，索引由{@link CityRepositoryConfig}装配到主仓储。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.bitmap", name = "enabled", havingValue = "true")
+public class BitmapConfig {
+
+  /**
+   * 配置位图索引，首次加载由重建任务完成
+   *
+   * @param meterRegistry 指标注册表
+   * @return 位图索引
+   */
+  @Bean
+  public CityBitmapIndex cityBitmapIndex(MeterRegistry meterRegistry) {
+    CityBitmapIndex index = new CityBitmapIndex();
+    Gauge.builder("city.bitmap.size", index, CityBitmapIndex::size).register(meterRegistry);
+    Gauge.builder("city.bitmap.memory", index, CityBitmapIndex::getBitmapBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("city.bitmap.containers", index, CityBitmapIndex::getContainerCount)
+        .register(meterRegistry);
+    Gauge.builder("city.bitmap.dead", index, CityBitmapIndex::getDeadRows)
+        .register(meterRegistry);
+    return index;
+  }
+}
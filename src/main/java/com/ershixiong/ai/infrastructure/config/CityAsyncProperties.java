@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 异步查询配置。
+ *
+ * <p>配置项（前缀 city.async）：
+ *
+ * <ul>
+ *   <li>threads: 执行异步接口仓储调用的线程数，应不超过连接池大小
+ *   <li>queue-capacity: 等待执行的查询数上限，超出时直接返回503
+ * </ul>
+ *
+ * <p>异步请求的整体超时由spring.mvc.async.request-timeout控制，超时返回504。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.async")
+public class CityAsyncProperties {
+  /** 查询线程数 */
+  private int threads = 16;
+
+  /** 查询队列长度 */
+  private int queueCapacity = 256;
+}
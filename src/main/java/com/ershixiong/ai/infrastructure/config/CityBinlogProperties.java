@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市表binlog变更捕获配置。
+ *
+ * <p>配置项（前缀 city.cdc）：
+ *
+ * <ul>
+ *   <li>enabled: 是否启用binlog订阅，要求MySQL开启binlog_format=ROW
+ *   <li>host / port / username / password: binlog连接信息，账号需要REPLICATION SLAVE和REPLICATION CLIENT权限
+ *   <li>server-id: 伪装从库的server_id，集群内必须唯一
+ *   <li>database / table: 需要捕获的库表
+ *   <li>position-file: binlog位点持久化文件，重启后从该位点继续
+ *   <li>position-flush-interval: 位点落盘间隔
+ *   <li>reconnect-interval: 连接失败后的重试间隔
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.cdc")
+public class CityBinlogProperties {
+  /** 是否启用 */
+  private boolean enabled = false;
+
+  /** MySQL主机 */
+  private String host = "localhost";
+
+  /** MySQL端口 */
+  private int port = 3306;
+
+  /** 用户名 */
+  private String username = "root";
+
+  /** 密码 */
+  private String password;
+
+  /** 伪装从库的server_id */
+  private long serverId = 65535L;
+
+  /** 数据库名 */
+  private String database = "world";
+
+  /** 表名 */
+  private String table = "city";
+
+  /** 位点文件 */
+  private String positionFile = "data/city-binlog.position";
+
+  /** 位点落盘间隔 */
+  private Duration positionFlushInterval = Duration.ofSeconds(1);
+
+  /** 重连间隔 */
+  private Duration reconnectInterval = Duration.ofSeconds(5);
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市位图索引配置。
+ *
+ * <p>配置项（前缀 city.bitmap）：
+ *
+ * <ul>
+ *   <li>enabled: 是否在进程内维护国家代码和行政区的位图索引，由索引回答按名称、国家代码和行政区的搜索
+ *   <li>rebuild-interval: 全量重建索引的间隔，未启用binlog订阅时即索引遗漏其他实例写入的最长时间，
+ *       也是回收已删除行号的间隔
+ *   <li>check-interval: 检查是否需要重建的间隔，也是启动后首次加载的延迟
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.bitmap")
+public class CityBitmapProperties {
+  /** 是否启用位图索引 */
+  private boolean enabled = false;
+
+  /** 重建间隔 */
+  private Duration rebuildInterval = Duration.ofHours(1);
+
+  /** 检查间隔 */
+  private Duration checkInterval = Duration.ofSeconds(10);
+}
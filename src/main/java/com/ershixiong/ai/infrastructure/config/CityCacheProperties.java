@@ -0,0 +1,107 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 城市本地缓存配置。
+ *
+ * <p>配置项（前缀 city.cache）：
+ *
+ * <ul>
+ *   <li>enabled: 是否在CityRepository前启用进程内缓存
+ *   <li>max-size: 缓存的最大城市数量，达到后淘汰最久未访问的城市
+ *   <li>bus.*: 跨实例失效总线配置，见{@link Bus}
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.cache")
+public class CityCacheProperties {
+  /** 是否启用本地缓存 */
+  private boolean enabled = false;
+
+  /** 最大缓存数量 */
+  private int maxSize = 100000;
+
+  /** 失效总线配置 */
+  private Bus bus = new Bus();
+
+  /** 失效总线类型 */
+  public enum BusType {
+    /** 进程内总线 仅用于测试和单实例部署 */
+    IN_JVM,
+    /** UDP点对点总线 向peers中的每个节点发送数据报 */
+    UDP
+  }
+
+  /**
+   * 失效总线配置。
+   *
+   * <ul>
+   *   <li>type: 总线类型
+   *   <li>bind-address / bind-port: UDP总线本地监听地址
+   *   <li>peers: UDP总线的对端地址列表，格式为host:port
+   *   <li>batch-window: 失效消息合并窗口
+   *   <li>max-batch-size: 单个批次的最大消息数，达到后立即发送
+   *   <li>heartbeat-interval: 心跳间隔，用于发现尾部批次丢失
+   *   <li>gap-timeout: 序号缺口等待补齐的最长时间，超时即触发全量重新同步
+   *   <li>max-pending-batches: 等待补齐的乱序批次上限
+   *   <li>sender-timeout: 发送端连心跳都没有的最长时间，超过后视为下线，清理其序号状态并触发一次全量重新同步
+   * </ul>
+   */
+  @Data
+  public static class Bus {
+    /** 总线类型 */
+    private BusType type = BusType.IN_JVM;
+
+    /** 本地监听地址 */
+    private String bindAddress = "127.0.0.1";
+
+    /** 本地监听端口 0表示随机端口 */
+    private int bindPort = 7601;
+
+    /** 对端地址列表 */
+    private List<String> peers = new ArrayList<>();
+
+    /** 合并窗口 */
+    private Duration batchWindow = Duration.ofMillis(5);
+
+    /** 单批次最大消息数 */
+    private int maxBatchSize = 64;
+
+    /** 心跳间隔 */
+    private Duration heartbeatInterval = Duration.ofSeconds(1);
+
+    /** 缺口超时时间 */
+    private Duration gapTimeout = Duration.ofSeconds(2);
+
+    /** 乱序批次上限 */
+    private int maxPendingBatches = 64;
+
+    /** 发送端下线判定时间 */
+    private Duration senderTimeout = Duration.ofSeconds(30);
+  }
+}
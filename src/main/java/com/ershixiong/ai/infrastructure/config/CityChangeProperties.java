@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市增量同步配置。
+ *
+ * <p>配置项（前缀 city.changes）：
+ *
+ * <ul>
+ *   <li>default-limit: 单次增量请求默认返回的变更条数
+ *   <li>max-limit: 单次增量请求允许返回的最大变更条数
+ *   <li>tombstone-retention: 墓碑保留时长，超过后会被压缩
+ *   <li>compaction-interval: 墓碑压缩任务执行间隔
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.changes")
+public class CityChangeProperties {
+  /** 默认返回条数 */
+  private int defaultLimit = 500;
+
+  /** 最大返回条数 */
+  private int maxLimit = 1000;
+
+  /** 墓碑保留时长 */
+  private Duration tombstoneRetention = Duration.ofDays(7);
+
+  /** 墓碑压缩间隔 */
+  private Duration compactionInterval = Duration.ofHours(1);
+}
@@ -0,0 +1,53 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 列式快照与聚合查询配置。
+ *
+ * <p>配置项（前缀 city.columnar）：
+ *
+ * <ul>
+ *   <li>enabled: 是否在内存中维护城市表的列式快照，并开放GET /api/cities/aggregate聚合接口
+ *   <li>refresh-interval: 快照增量刷新间隔，即聚合结果最多落后数据库的时长
+ *   <li>batch-size: 快照每次拉取的变更条数
+ *   <li>parallelism: 聚合查询的并行线程数，0表示CPU核数
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.columnar")
+public class CityColumnarProperties {
+  /** 是否启用列式快照 */
+  private boolean enabled = false;
+
+  /** 快照刷新间隔 */
+  private Duration refreshInterval = Duration.ofSeconds(5);
+
+  /** 快照每批变更条数 */
+  private int batchSize = 5000;
+
+  /** 聚合并行度 */
+  private int parallelism = 0;
+}
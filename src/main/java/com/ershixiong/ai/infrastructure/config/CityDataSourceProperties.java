@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 读写分离配置。
+ *
+ * <p>配置项（前缀 city.datasource）：
+ *
+ * <ul>
+ *   <li>enabled: 是否启用读写分离，主库沿用spring.datasource配置
+ *   <li>replicas: 从库列表，连接池参数沿用spring.datasource.hikari
+ *   <li>max-replica-lag: 从库允许的最大复制延迟，超过后读请求回退到主库
+ *   <li>lag-check-interval: 复制延迟检查间隔
+ * </ul>
+ *
+ * <p>同时启用本地缓存时，缓存未命中的回源读取同样走从库，可能把落后不超过max-replica-lag的数据
+ * 写入缓存，直到该城市下一次变更时被淘汰。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.datasource")
+public class CityDataSourceProperties {
+  /** 是否启用读写分离 */
+  private boolean enabled = false;
+
+  /** 从库列表 */
+  private List<Replica> replicas = new ArrayList<>();
+
+  /** 最大复制延迟 */
+  private Duration maxReplicaLag = Duration.ofSeconds(1);
+
+  /** 延迟检查间隔 */
+  private Duration lagCheckInterval = Duration.ofMillis(200);
+
+  /** 从库连接配置 */
+  @Data
+  public static class Replica {
+    /** 从库名称，用于日志和指标，为空时按顺序命名 */
+    private String name;
+
+    /** JDBC地址 */
+    private String url;
+
+    /** 用户名，为空时沿用主库 */
+    private String username;
+
+    /** 密码，为空时沿用主库 */
+    private String password;
+  }
+}
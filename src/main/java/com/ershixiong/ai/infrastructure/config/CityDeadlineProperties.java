@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 请求截止时间配置。
+ *
+ * <p>配置项（前缀 city.deadline）：
+ *
+ * <ul>
+ *   <li>enabled: 是否解析请求截止时间并传递到数据库查询
+ *   <li>default-timeout: 请求头和接口都未声明时的默认超时，不配置表示不限制
+ *   <li>max-timeout: 请求头声明的超时上限
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.deadline")
+public class CityDeadlineProperties {
+  /** 是否启用请求截止时间 */
+  private boolean enabled = true;
+
+  /** 默认超时 */
+  private Duration defaultTimeout;
+
+  /** 超时上限 */
+  private Duration maxTimeout = Duration.ofSeconds(30);
+}
@@ -0,0 +1,69 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 只读降级配置。
+ *
+ * <p>配置项（前缀 city.degraded）：
+ *
+ * <ul>
+ *   <li>enabled: 是否在数据库不可用时熔断并从本地快照读取
+ *   <li>failure-threshold: 连续多少次连接或超时失败后熔断
+ *   <li>open-duration: 熔断后多久开始半开探测
+ *   <li>half-open-probes: 半开状态下需要连续成功的探测次数
+ *   <li>refresh-interval: 快照增量刷新间隔，即降级读取时数据最多过期的时长
+ *   <li>batch-size: 快照每次拉取的变更条数
+ *   <li>snapshot-file: 快照文件路径，配置后定期持久化快照，启动时从文件恢复后再按版本追赶
+ *   <li>snapshot-write-interval: 快照文件写入间隔，数据版本未变化时跳过
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.degraded")
+public class CityDegradedProperties {
+  /** 是否启用只读降级 */
+  private boolean enabled = false;
+
+  /** 熔断的连续失败次数 */
+  private int failureThreshold = 5;
+
+  /** 熔断时长 */
+  private Duration openDuration = Duration.ofSeconds(10);
+
+  /** 半开探测次数 */
+  private int halfOpenProbes = 3;
+
+  /** 快照刷新间隔 */
+  private Duration refreshInterval = Duration.ofSeconds(30);
+
+  /** 快照每批变更条数 */
+  private int batchSize = 1000;
+
+  /** 快照文件路径，为空时不持久化 */
+  private String snapshotFile;
+
+  /** 快照文件写入间隔 */
+  private Duration snapshotWriteInterval = Duration.ofMinutes(5);
+}
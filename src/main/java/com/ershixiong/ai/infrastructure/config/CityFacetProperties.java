@@ -0,0 +1,50 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市搜索分面计数配置。
+ *
+ * <p>配置项（前缀 city.facet）：
+ *
+ * <ul>
+ *   <li>max-limit: 每个维度最多返回的取值数，即搜索请求facets参数的上限
+ *   <li>max-values: 每个维度最多统计的不同取值数，超出后结果标记为截断
+ *   <li>budget: 分面计数的耗时预算，超出后返回已统计的部分并标记为截断；数据库分组统计的超时以秒为单位，
+ *       不足1秒按1秒计
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.facet")
+public class CityFacetProperties {
+  /** 每个维度最多返回的取值数 */
+  private int maxLimit = 50;
+
+  /** 每个维度最多统计的不同取值数 */
+  private int maxValues = 1000;
+
+  /** 耗时预算 */
+  private Duration budget = Duration.ofMillis(200);
+}
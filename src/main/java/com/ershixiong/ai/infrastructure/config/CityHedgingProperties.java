@@ -0,0 +1,75 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 对冲读取配置。
+ *
+ * <p>配置项（前缀 city.hedging），需要同时启用读写分离并配置至少两个从库：
+ *
+ * <ul>
+ *   <li>enabled: 是否对按ID查询启用对冲
+ *   <li>percentile: 对冲延迟取最近查询耗时的该分位数
+ *   <li>min-delay / max-delay: 对冲延迟的上下限
+ *   <li>window-size: 参与分位数计算的最近样本数
+ *   <li>budget-ratio: 对冲请求占原始请求的最大比例，即允许增加的最大负载
+ *   <li>budget-max-tokens: 对冲预算令牌上限，限制突发对冲数量
+ *   <li>threads / queue-capacity: 执行从库查询的线程池大小和队列长度，队列满时直接读主库
+ *   <li>query-timeout: 一次对冲查询的总超时，超过后取消从库查询并读主库
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.hedging")
+public class CityHedgingProperties {
+  /** 是否启用对冲 */
+  private boolean enabled = false;
+
+  /** 对冲延迟分位数 */
+  private double percentile = 0.95;
+
+  /** 最小对冲延迟 */
+  private Duration minDelay = Duration.ofMillis(2);
+
+  /** 最大对冲延迟 */
+  private Duration maxDelay = Duration.ofMillis(200);
+
+  /** 耗时样本窗口大小 */
+  private int windowSize = 1000;
+
+  /** 对冲预算比例 */
+  private double budgetRatio = 0.1;
+
+  /** 对冲预算令牌上限 */
+  private int budgetMaxTokens = 50;
+
+  /** 查询线程数 */
+  private int threads = 32;
+
+  /** 查询队列长度 */
+  private int queueCapacity = 256;
+
+  /** 对冲查询总超时 */
+  private Duration queryTimeout = Duration.ofSeconds(2);
+}
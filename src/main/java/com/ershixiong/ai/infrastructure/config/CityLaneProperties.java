@@ -0,0 +1,79 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 流量通道配置。
+ *
+ * <p>配置项（前缀 city.lanes）：
+ *
+ * <ul>
+ *   <li>enabled: 是否为各通道启用独立连接池和并发闸门，不能与读写分离同时启用
+ *   <li>settings.&lt;lane&gt;.pool-size: 通道连接池大小，其余连接池参数沿用spring.datasource.hikari
+ *   <li>settings.&lt;lane&gt;.max-concurrency: 通道同时处理的最大请求数
+ *   <li>settings.&lt;lane&gt;.max-queue: 并发已满时最多排队的请求数
+ *   <li>settings.&lt;lane&gt;.queue-timeout: 排队的最长等待时间
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.lanes")
+public class CityLaneProperties {
+  /** 是否启用流量通道 */
+  private boolean enabled = false;
+
+  /** 各通道配置 */
+  private Map<Lane, Settings> settings = defaultSettings();
+
+  private static Map<Lane, Settings> defaultSettings() {
+    Map<Lane, Settings> settings = new EnumMap<>(Lane.class);
+    settings.put(Lane.OLTP, new Settings(12, 100, 200, Duration.ofSeconds(1)));
+    settings.put(Lane.SEARCH, new Settings(5, 20, 50, Duration.ofSeconds(2)));
+    settings.put(Lane.BULK, new Settings(3, 2, 4, Duration.ofSeconds(5)));
+    return settings;
+  }
+
+  /** 单个通道的配置 */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Settings {
+    /** 连接池大小 */
+    private int poolSize = 5;
+
+    /** 最大并发请求数 */
+    private int maxConcurrency = 20;
+
+    /** 最大排队请求数 */
+    private int maxQueue = 50;
+
+    /** 最长排队时间 */
+    private Duration queueTimeout = Duration.ofSeconds(1);
+  }
+}
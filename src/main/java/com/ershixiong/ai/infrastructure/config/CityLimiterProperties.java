@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.limiter.OperationClass;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 自适应并发限制配置。
+ *
+ * <p>配置项（前缀 city.limiter）：
+ *
+ * <ul>
+ *   <li>enabled: 是否在应用服务的仓储调用前启用并发限制
+ *   <li>tolerance: 允许的延迟增长倍数，超过后开始收缩并发限制
+ *   <li>window-size: 每次调整限制所需的样本数
+ *   <li>operations.&lt;class&gt;: 各操作类别的初始、最小、最大并发限制，见{@link OperationClass}
+ * </ul>
+ *
+ * <p>各类别的最大限制之和可以超过连接池大小，实际并发由延迟反馈收敛到连接池能承受的水平。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.limiter")
+public class CityLimiterProperties {
+  /** 是否启用并发限制 */
+  private boolean enabled = true;
+
+  /** 延迟容忍倍数 */
+  private double tolerance = 1.5;
+
+  /** 采样窗口大小 */
+  private int windowSize = 10;
+
+  /** 各操作类别的并发限制 */
+  private Map<OperationClass, Limit> operations = defaultLimits();
+
+  private static Map<OperationClass, Limit> defaultLimits() {
+    Map<OperationClass, Limit> limits = new EnumMap<>(OperationClass.class);
+    limits.put(OperationClass.POINT_READ, new Limit(20, 4, 200));
+    limits.put(OperationClass.SEARCH, new Limit(10, 2, 50));
+    limits.put(OperationClass.WRITE, new Limit(10, 2, 50));
+    limits.put(OperationClass.LIST, new Limit(10, 2, 40));
+    limits.put(OperationClass.BULK, new Limit(2, 1, 4));
+    return limits;
+  }
+
+  /** 单个操作类别的并发限制 */
+  @Data
+  @NoArgsConstructor
+  @AllArgsConstructor
+  public static class Limit {
+    /** 初始限制 */
+    private int initial = 10;
+
+    /** 最小限制 */
+    private int min = 1;
+
+    /** 最大限制 */
+    private int max = 100;
+  }
+}
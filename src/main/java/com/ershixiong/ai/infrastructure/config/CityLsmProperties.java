@@ -0,0 +1,60 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+/**
+ * 嵌入式日志结构存储配置。
+ *
+ * <p>配置项（前缀 city.lsm）：
+ *
+ * <ul>
+ *   <li>enabled: 是否以本地持久化存储替换MyBatis仓储，用于无法运行MySQL的站点
+ *   <li>directory: 数据目录，保存预写日志和段文件
+ *   <li>memtable-size: 内存表达到该大小后冻结并刷成段文件，也是崩溃后需要重放的日志量上限
+ *   <li>compaction-threshold: 段文件达到该数量时后台合并为一个
+ *   <li>index-interval: 段文件稀疏索引间隔，越小按ID查询读取的字节越少，常驻内存越多
+ *   <li>bloom-bits-per-key: 布隆过滤器每个键的位数，10位时误判率约1%
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.lsm")
+public class CityLsmProperties {
+  /** 是否启用本地持久化存储 */
+  private boolean enabled = false;
+
+  /** 数据目录 */
+  private String directory = "data/city-lsm";
+
+  /** 内存表冻结阈值 */
+  private DataSize memtableSize = DataSize.ofMegabytes(16);
+
+  /** 触发合并的段数 */
+  private int compactionThreshold = 4;
+
+  /** 稀疏索引间隔 */
+  private int indexInterval = 64;
+
+  /** 布隆过滤器每个键的位数 */
+  private int bloomBitsPerKey = 10;
+}
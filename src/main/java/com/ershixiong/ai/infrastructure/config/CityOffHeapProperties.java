@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * 堆外城市仓储配置。
+ *
+ * <p>配置项（前缀 city.offheap）：
+ *
+ * <ul>
+ *   <li>enabled: 是否以堆外仓储替换MyBatis仓储，数据只在进程内，不写入数据库
+ *   <li>expected-size: 预计城市数，用于预分配ID索引，避免装载过程中反复扩容
+ *   <li>slots-per-chunk: 每块直接内存容纳的城市数，每个城市48字节
+ *   <li>arena-chunk-size: 名称和行政区字符串区每块的字节数
+ *   <li>snapshot-file: 启动时装载的快照文件，格式见CitySnapshotFile，为空时从空仓储开始
+ * </ul>
+ *
+ * <p>堆外仓储不分配数据库变更版本号，增量同步、事件流和只读降级仍以数据库为准，不应同时启用分片。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.offheap")
+public class CityOffHeapProperties {
+  /** 是否启用堆外仓储 */
+  private boolean enabled = false;
+
+  /** 预计城市数 */
+  private int expectedSize = 100_000;
+
+  /** 每块槽位数 */
+  private int slotsPerChunk = 65_536;
+
+  /** 字符串区每块字节数 */
+  private int arenaChunkSize = 4 * 1024 * 1024;
+
+  /** 启动时装载的快照文件 */
+  private String snapshotFile;
+}
@@ -0,0 +1,481 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.bitmap.BitmapCityRepository;
+import com.ershixiong.ai.infrastructure.bitmap.CityBitmapIndex;
+import com.ershixiong.ai.infrastructure.cache.CachingCityRepository;
+import com.ershixiong.ai.infrastructure.cache.CityInvalidationBus;
+import com.ershixiong.ai.infrastructure.cache.InJvmCityInvalidationBus;
+import com.ershixiong.ai.infrastructure.cache.UdpCityInvalidationBus;
+import com.ershixiong.ai.infrastructure.datasource.CityRoutingDataSource;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineJdbcTemplate;
+import com.ershixiong.ai.infrastructure.degraded.CircuitBreaker;
+import com.ershixiong.ai.infrastructure.degraded.CitySnapshot;
+import com.ershixiong.ai.infrastructure.degraded.CitySnapshotFile;
+import com.ershixiong.ai.infrastructure.degraded.DegradedCityRepository;
+import com.ershixiong.ai.infrastructure.hedging.HedgeBudget;
+import com.ershixiong.ai.infrastructure.hedging.HedgedQueryExecutor;
+import com.ershixiong.ai.infrastructure.hedging.HedgingCityRepository;
+import com.ershixiong.ai.infrastructure.hedging.LatencyTracker;
+import com.ershixiong.ai.infrastructure.ranking.CityPopulationIndex;
+import com.ershixiong.ai.infrastructure.ranking.RankingCityRepository;
+import com.ershixiong.ai.infrastructure.repository.lsm.LsmCityRepository;
+import com.ershixiong.ai.infrastructure.repository.memory.MvccCityRepository;
+import com.ershixiong.ai.infrastructure.repository.mybatis.MybatisCityRepository;
+import com.ershixiong.ai.infrastructure.repository.offheap.OffHeapCityRepository;
+import com.ershixiong.ai.infrastructure.repository.sharding.ShardedCityRepository;
+import com.ershixiong.ai.infrastructure.repository.sharding.ShardedIdGenerator;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.ToDoubleFunction;
+
+/**
+ * 城市仓储装配配置类。
+ *
+ * <p>以{@link MybatisCityRepository}为基础，按配置依次叠加装饰器，作为应用层使用的主仓储：
+ *
+ * <ul>
+ *   <li>按国家代码分片（city.sharding.enabled），启用后替换单库仓储
+ *   <li>堆外存储（city.offheap.enabled），用于没有数据库的边缘部署，启用后替换单库仓储
+ *   <li>多版本内存存储（city.memory.enabled），用于测试、基准和小规模部署，启用后替换单库仓储
+ *   <li>本地日志结构存储（city.lsm.enabled），用于需要持久化但没有数据库的站点，启用后替换单库仓储
+ *   <li>数据库不可用时熔断并从本地快照只读降级（city.degraded.enabled）
+ *   <li>按ID查询在从库间对冲（city.hedging.enabled，需要启用读写分离）
+ *   <li>进程内人口索引回答人口排序查询（city.ranking.enabled）
+ *   <li>进程内位图索引回答按国家代码和行政区过滤的搜索（city.bitmap.enabled）
+ *   <li>进程内缓存与跨实例失效总线（city.cache.enabled）
+ * </ul>
+ *
+ * <p>缓存装饰器通过{@code @EventListener}处理binlog失效，只有作为Bean返回的最外层仓储的监听方法会被注册，
+ * 因此缓存始终位于最外层；两个索引自行监听binlog变更。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Configuration
+public class CityRepositoryConfig {
+
+  /**
+   * 配置城市缓存失效总线
+   *
+   * @param properties 缓存配置
+   * @return 失效总线
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "city.cache", name = "enabled", havingValue = "true")
+  public CityInvalidationBus cityInvalidationBus(CityCacheProperties properties) {
+    return switch (properties.getBus().getType()) {
+      case UDP -> new UdpCityInvalidationBus(properties.getBus());
+      case IN_JVM -> new InJvmCityInvalidationBus(properties.getBus());
+    };
+  }
+
+  /**
+   * 配置分片城市仓储
+   *
+   * @param properties 分片配置
+   * @return 分片城市仓储
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "city.sharding", name = "enabled", havingValue = "true")
+  public ShardedCityRepository shardedCityRepository(CityShardingProperties properties) {
+    List<JdbcTemplate> shards = new ArrayList<>();
+    List<ShardedIdGenerator> idGenerators = new ArrayList<>();
+    List<AutoCloseable> pools = new ArrayList<>();
+    for (int i = 0; i < properties.getShards().size(); i++) {
+      CityShardingProperties.Shard shard = properties.getShards().get(i);
+      HikariDataSource dataSource = new HikariDataSource();
+      dataSource.setPoolName("city-shard-" + i);
+      dataSource.setJdbcUrl(shard.getUrl());
+      dataSource.setUsername(shard.getUsername());
+      dataSource.setPassword(shard.getPassword());
+      dataSource.setMaximumPoolSize(properties.getMaxPoolSize());
+      JdbcTemplate jdbcTemplate = new DeadlineJdbcTemplate(dataSource);
+      shards.add(jdbcTemplate);
+      idGenerators.add(
+          new ShardedIdGenerator(
+              i,
+              jdbcTemplate,
+              new TransactionTemplate(new DataSourceTransactionManager(dataSource)),
+              properties.getIdBlockSize()));
+      pools.add(dataSource);
+    }
+    AtomicInteger threadIds = new AtomicInteger();
+    ExecutorService scatterExecutor =
+        Executors.newFixedThreadPool(
+            properties.getScatterThreads(),
+            r -> {
+              Thread thread = new Thread(r, "city-shard-scatter-" + threadIds.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    return new ShardedCityRepository(shards, idGenerators, scatterExecutor, pools);
+  }
+
+  /**
+   * 配置堆外城市仓储，配置了快照文件时先从文件装载
+   *
+   * @param properties 堆外仓储配置
+   * @param meterRegistry 指标注册表
+   * @return 堆外城市仓储
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "city.offheap", name = "enabled", havingValue = "true")
+  public OffHeapCityRepository offHeapCityRepository(
+      CityOffHeapProperties properties, MeterRegistry meterRegistry) {
+    OffHeapCityRepository repository =
+        new OffHeapCityRepository(
+            properties.getExpectedSize(),
+            properties.getSlotsPerChunk(),
+            properties.getArenaChunkSize());
+    if (StringUtils.hasText(properties.getSnapshotFile())) {
+      Path file = Path.of(properties.getSnapshotFile());
+      try {
+        for (City city : CitySnapshotFile.read(file).cities()) {
+          repository.save(city);
+        }
+        log.info("Loaded {} cities off-heap from {}", repository.size(), file);
+      } catch (IOException e) {
+        throw new BusinessException(
+            ErrorCode.SYS_CONFIG_ERROR,
+            "Cannot load city snapshot " + file + ": " + e.getMessage());
+      }
+    }
+    Gauge.builder("city.offheap.size", repository, OffHeapCityRepository::size)
+        .register(meterRegistry);
+    Gauge.builder("city.offheap.memory", repository, OffHeapCityRepository::getOffHeapBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder(
+            "city.offheap.index.memory", repository, OffHeapCityRepository::getHeapIndexBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("city.offheap.wasted", repository, OffHeapCityRepository::getWastedBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    return repository;
+  }
+
+  /**
+   * 配置多版本内存城市仓储
+   *
+   * @param meterRegistry 指标注册表
+   * @return 内存城市仓储
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "city.memory", name = "enabled", havingValue = "true")
+  public MvccCityRepository mvccCityRepository(MeterRegistry meterRegistry) {
+    MvccCityRepository repository = new MvccCityRepository();
+    Gauge.builder("city.memory.size", repository, r -> r.snapshot().size())
+        .register(meterRegistry);
+    Gauge.builder("city.memory.version", repository, r -> r.snapshot().getVersion())
+        .register(meterRegistry);
+    return repository;
+  }
+
+  /**
+   * 配置本地日志结构存储的城市仓储，启动时重放未刷盘的预写日志
+   *
+   * @param properties 存储配置
+   * @param meterRegistry 指标注册表
+   * @return 日志结构存储城市仓储
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "city.lsm", name = "enabled", havingValue = "true")
+  public LsmCityRepository lsmCityRepository(
+      CityLsmProperties properties, MeterRegistry meterRegistry) {
+    Path directory = Path.of(properties.getDirectory());
+    LsmCityRepository repository;
+    try {
+      repository =
+          LsmCityRepository.open(
+              directory,
+              new LsmCityRepository.Options(
+                  properties.getMemtableSize().toBytes(),
+                  properties.getCompactionThreshold(),
+                  properties.getIndexInterval(),
+                  properties.getBloomBitsPerKey()));
+    } catch (IOException e) {
+      throw new BusinessException(
+          ErrorCode.SYS_CONFIG_ERROR,
+          "Cannot open city store " + directory + ": " + e.getMessage());
+    }
+    Gauge.builder("city.lsm.segments", repository, LsmCityRepository::getSegmentCount)
+        .register(meterRegistry);
+    Gauge.builder("city.lsm.memtable", repository, LsmCityRepository::getMemtableBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    FunctionCounter.builder("city.lsm.wal.syncs", repository, LsmCityRepository::getWalSyncCount)
+        .register(meterRegistry);
+    FunctionCounter.builder("city.lsm.flushes", repository, LsmCityRepository::getFlushCount)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "city.lsm.compactions", repository, LsmCityRepository::getCompactionCount)
+        .register(meterRegistry);
+    return repository;
+  }
+
+  /**
+   * 配置对冲查询执行器
+   *
+   * @param properties 对冲配置
+   * @param meterRegistry 指标注册表
+   * @return 对冲查询执行器
+   */
+  @Bean(destroyMethod = "close")
+  @ConditionalOnProperty(prefix = "city.hedging", name = "enabled", havingValue = "true")
+  public HedgedQueryExecutor hedgedQueryExecutor(
+      CityHedgingProperties properties, MeterRegistry meterRegistry) {
+    AtomicInteger threadIds = new AtomicInteger();
+    ThreadPoolExecutor pool =
+        new ThreadPoolExecutor(
+            properties.getThreads(),
+            properties.getThreads(),
+            60L,
+            TimeUnit.SECONDS,
+            new ArrayBlockingQueue<>(properties.getQueueCapacity()),
+            r -> {
+              Thread thread = new Thread(r, "city-hedged-read-" + threadIds.incrementAndGet());
+              thread.setDaemon(true);
+              return thread;
+            });
+    HedgedQueryExecutor executor =
+        new HedgedQueryExecutor(
+            pool,
+            new LatencyTracker(
+                properties.getWindowSize(),
+                properties.getPercentile(),
+                properties.getMinDelay(),
+                properties.getMaxDelay()),
+            new HedgeBudget(properties.getBudgetRatio(), properties.getBudgetMaxTokens()),
+            properties.getQueryTimeout());
+    registerCounter(meterRegistry, "queries", executor, HedgedQueryExecutor::getQueries);
+    registerCounter(meterRegistry, "issued", executor, HedgedQueryExecutor::getHedgesIssued);
+    registerCounter(meterRegistry, "won", executor, HedgedQueryExecutor::getHedgesWon);
+    registerCounter(
+        meterRegistry, "budget.exhausted", executor, HedgedQueryExecutor::getBudgetExhausted);
+    registerCounter(meterRegistry, "fallbacks", executor, HedgedQueryExecutor::getFallbacks);
+    return executor;
+  }
+
+  /**
+   * 配置降级读取使用的城市快照，配置了快照文件时先从文件恢复
+   *
+   * @param cityChangeRepository 城市变更仓储
+   * @param properties 降级配置
+   * @param meterRegistry 指标注册表
+   * @return 城市快照
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "city.degraded", name = "enabled", havingValue = "true")
+  public CitySnapshot citySnapshot(
+      CityChangeRepository cityChangeRepository,
+      CityDegradedProperties properties,
+      MeterRegistry meterRegistry) {
+    CitySnapshot snapshot = new CitySnapshot(cityChangeRepository, properties.getBatchSize());
+    if (StringUtils.hasText(properties.getSnapshotFile())) {
+      Path file = Path.of(properties.getSnapshotFile());
+      if (Files.exists(file)) {
+        try {
+          snapshot.restore(file);
+          log.info(
+              "Restored {} cities at version {} from {}",
+              snapshot.size(),
+              snapshot.getVersion(),
+              file);
+        } catch (IOException e) {
+          log.warn("Ignoring unreadable city snapshot {}: {}", file, e.getMessage());
+        }
+      }
+    }
+    Gauge.builder("city.snapshot.size", snapshot, CitySnapshot::size).register(meterRegistry);
+    Gauge.builder("city.snapshot.age", snapshot, CityRepositoryConfig::snapshotAgeSeconds)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    return snapshot;
+  }
+
+  /**
+   * 配置数据库熔断器
+   *
+   * @param properties 降级配置
+   * @param meterRegistry 指标注册表
+   * @return 熔断器
+   */
+  @Bean
+  @ConditionalOnProperty(prefix = "city.degraded", name = "enabled", havingValue = "true")
+  public CircuitBreaker cityCircuitBreaker(
+      CityDegradedProperties properties, MeterRegistry meterRegistry) {
+    CircuitBreaker breaker =
+        new CircuitBreaker(
+            properties.getFailureThreshold(),
+            properties.getOpenDuration(),
+            properties.getHalfOpenProbes());
+    Gauge.builder("city.breaker.state", breaker, b -> b.getState().ordinal())
+        .description("0=closed, 1=open, 2=half-open")
+        .register(meterRegistry);
+    FunctionCounter.builder("city.breaker.opened", breaker, CircuitBreaker::getOpened)
+        .register(meterRegistry);
+    return breaker;
+  }
+
+  /**
+   * 配置底层城市仓储：从MyBatis、分片、堆外、内存和日志结构存储中选出启用的一个，启用降级时包装熔断和快照兜底
+   *
+   * <p>各存储自身是独立的Bean，由各自的Bean负责关闭，这里不推断销毁方法。
+   *
+   * @param mybatisCityRepository MyBatis城市仓储
+   * @param shardedCityRepository 分片城市仓储，未启用分片时不存在
+   * @param offHeapCityRepository 堆外城市仓储，未启用堆外存储时不存在
+   * @param mvccCityRepository 内存城市仓储，未启用内存存储时不存在
+   * @param lsmCityRepository 日志结构存储城市仓储，未启用本地存储时不存在
+   * @param circuitBreaker 熔断器，未启用降级时不存在
+   * @param citySnapshot 城市快照，未启用降级时不存在
+   * @return 底层城市仓储
+   */
+  @Bean(destroyMethod = "")
+  public CityRepository cityStorageRepository(
+      MybatisCityRepository mybatisCityRepository,
+      ObjectProvider<ShardedCityRepository> shardedCityRepository,
+      ObjectProvider<OffHeapCityRepository> offHeapCityRepository,
+      ObjectProvider<MvccCityRepository> mvccCityRepository,
+      ObjectProvider<LsmCityRepository> lsmCityRepository,
+      ObjectProvider<CircuitBreaker> circuitBreaker,
+      ObjectProvider<CitySnapshot> citySnapshot) {
+    List<CityRepository> replacements = new ArrayList<>();
+    shardedCityRepository.ifAvailable(replacements::add);
+    offHeapCityRepository.ifAvailable(replacements::add);
+    mvccCityRepository.ifAvailable(replacements::add);
+    lsmCityRepository.ifAvailable(replacements::add);
+    if (replacements.size() > 1) {
+      throw new BusinessException(
+          ErrorCode.SYS_CONFIG_ERROR,
+          "Only one of city.sharding, city.offheap, city.memory and city.lsm can be enabled");
+    }
+    CityRepository repository =
+        replacements.isEmpty() ? mybatisCityRepository : replacements.get(0);
+    CircuitBreaker breaker = circuitBreaker.getIfAvailable();
+    if (breaker != null) {
+      repository = new DegradedCityRepository(repository, breaker, citySnapshot.getObject());
+    }
+    return repository;
+  }
+
+  /**
+   * 配置应用层使用的主城市仓储，在底层城市仓储外依次包装对冲、人口索引、位图索引和缓存
+   *
+   * @param cityStorageRepository 底层城市仓储
+   * @param shardedCityRepository 分片城市仓储，未启用分片时不存在
+   * @param cacheProperties 缓存配置
+   * @param invalidationBus 失效总线，未启用缓存时不存在
+   * @param hedgedQueryExecutor 对冲查询执行器，未启用对冲时不存在
+   * @param routingDataSource 读写分离数据源，未启用读写分离时不存在
+   * @param populationIndex 人口索引，未启用人口索引时不存在
+   * @param bitmapIndex 位图索引，未启用位图索引时不存在
+   * @return 城市仓储
+   */
+  @Bean
+  @Primary
+  public CityRepository cityRepository(
+      @Qualifier("cityStorageRepository") CityRepository cityStorageRepository,
+      ObjectProvider<ShardedCityRepository> shardedCityRepository,
+      CityCacheProperties cacheProperties,
+      ObjectProvider<CityInvalidationBus> invalidationBus,
+      ObjectProvider<HedgedQueryExecutor> hedgedQueryExecutor,
+      ObjectProvider<CityRoutingDataSource> routingDataSource,
+      ObjectProvider<CityPopulationIndex> populationIndex,
+      ObjectProvider<CityBitmapIndex> bitmapIndex) {
+    ShardedCityRepository sharded = shardedCityRepository.getIfAvailable();
+    CityRepository repository = cityStorageRepository;
+    HedgedQueryExecutor executor = hedgedQueryExecutor.getIfAvailable();
+    if (executor != null) {
+      CityRoutingDataSource dataSource = routingDataSource.getIfAvailable();
+      if (dataSource == null || sharded != null) {
+        throw new BusinessException(
+            ErrorCode.SYS_CONFIG_ERROR,
+            "city.hedging requires city.datasource.enabled and no sharding");
+      }
+      repository = new HedgingCityRepository(repository, dataSource, executor);
+    }
+    CityPopulationIndex index = populationIndex.getIfAvailable();
+    if (index != null) {
+      repository = new RankingCityRepository(repository, index);
+    }
+    CityBitmapIndex bitmap = bitmapIndex.getIfAvailable();
+    if (bitmap != null) {
+      repository = new BitmapCityRepository(repository, bitmap);
+    }
+    if (cacheProperties.isEnabled()) {
+      CityInvalidationBus bus = invalidationBus.getObject();
+      CachingCityRepository cachingRepository =
+          new CachingCityRepository(repository, bus, cacheProperties.getMaxSize());
+      bus.addListener(cachingRepository);
+      repository = cachingRepository;
+    }
+    return repository;
+  }
+
+  private static void registerCounter(
+      MeterRegistry meterRegistry,
+      String name,
+      HedgedQueryExecutor executor,
+      ToDoubleFunction<HedgedQueryExecutor> count) {
+    FunctionCounter.builder("city.repository.hedge." + name, executor, count)
+        .register(meterRegistry);
+  }
+
+  private static double snapshotAgeSeconds(CitySnapshot snapshot) {
+    Instant refreshedAt = snapshot.getRefreshedAt();
+    return refreshedAt == null
+        ? Double.NaN
+        : Duration.between(refreshedAt, Instant.now()).toMillis() / 1000.0;
+  }
+}
@@ -0,0 +1,49 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市人口汇总配置。
+ *
+ * <p>配置项（前缀 city.rollup）：
+ *
+ * <ul>
+ *   <li>enabled: 是否增量维护按国家和行政区的人口汇总，并开放GET /api/cities/stats统计接口
+ *   <li>flush-interval: 已修改的汇总写回city_rollup表的间隔
+ *   <li>reconcile-interval: 与城市表分组统计核对的间隔，即汇总遗漏其他实例或直接修改数据库的写入的最长时间
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.rollup")
+public class CityRollupProperties {
+  /** 是否启用人口汇总 */
+  private boolean enabled = false;
+
+  /** 回写间隔 */
+  private Duration flushInterval = Duration.ofSeconds(1);
+
+  /** 核对间隔 */
+  private Duration reconcileInterval = Duration.ofMinutes(10);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 城市分片配置。
+ *
+ * <p>配置项（前缀 city.sharding）：
+ *
+ * <ul>
+ *   <li>enabled: 是否以分片仓储替换单库MyBatis仓储
+ *   <li>shards: 分片列表，列表下标即分片序号，上线后不能调整顺序和数量
+ *   <li>id-block-size: ID生成器每次从分片申请的号段大小
+ *   <li>scatter-threads: 跨分片并行查询的线程数
+ *   <li>max-pool-size: 每个分片的最大连接数
+ * </ul>
+ *
+ * <p>每个分片需要执行db/city_sharding.sql建立ID序列表。分片仓储不分配变更版本号，
+ * 增量同步和事件流仍以单库为准。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.sharding")
+public class CityShardingProperties {
+  /** 是否启用分片 */
+  private boolean enabled = false;
+
+  /** 分片列表 */
+  private List<Shard> shards = new ArrayList<>();
+
+  /** ID号段大小 */
+  private int idBlockSize = 100;
+
+  /** 并行查询线程数 */
+  private int scatterThreads = 16;
+
+  /** 每个分片的最大连接数 */
+  private int maxPoolSize = 10;
+
+  /** 分片连接配置 */
+  @Data
+  public static class Shard {
+    /** JDBC地址 */
+    private String url;
+
+    /** 用户名 */
+    private String username;
+
+    /** 密码 */
+    private String password;
+  }
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市近似统计配置。
+ *
+ * <p>配置项（前缀 city.sketch）：
+ *
+ * <ul>
+ *   <li>enabled: 是否维护人口分位数、不同行政区数和高频行政区的流式草图，并开放GET
+ *       /api/cities/stats/approximate近似统计接口
+ *   <li>quantile-accuracy: KLL分位数草图的精度参数k，秩误差约为2.3/k^0.97（k=200时约1.3%）
+ *   <li>distinct-precision: HyperLogLog的精度p（4~16），相对标准误差为1.04/sqrt(2^p)
+ *   <li>frequency-epsilon: Count-Min草图相对城市数的误差，决定草图宽度
+ *   <li>frequency-delta: Count-Min草图超出误差的概率，决定草图深度
+ *   <li>heavy-hitters: 每个国家保留的高频行政区候选数，也是top参数的上限
+ *   <li>rebuild-interval: 全量重建草图的最长间隔
+ *   <li>rebuild-removal-ratio: 删除和修改的城市超过城市数的该比例时提前重建
+ *   <li>check-interval: 检查是否需要重建的间隔
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.sketch")
+public class CitySketchProperties {
+  /** 是否启用近似统计 */
+  private boolean enabled = false;
+
+  /** KLL精度参数 */
+  private int quantileAccuracy = 200;
+
+  /** HyperLogLog精度 */
+  private int distinctPrecision = 11;
+
+  /** Count-Min误差 */
+  private double frequencyEpsilon = 0.01;
+
+  /** Count-Min失败概率 */
+  private double frequencyDelta = 0.01;
+
+  /** 高频行政区候选数 */
+  private int heavyHitters = 32;
+
+  /** 重建间隔 */
+  private Duration rebuildInterval = Duration.ofHours(1);
+
+  /** 提前重建的删除比例 */
+  private double rebuildRemovalRatio = 0.05;
+
+  /** 检查间隔 */
+  private Duration checkInterval = Duration.ofSeconds(10);
+}
@@ -0,0 +1,74 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import java.time.Duration;
+
+/**
+ * 城市变更事件流配置。
+ *
+ * <p>配置项（前缀 city.stream）：
+ *
+ * <ul>
+ *   <li>ring-buffer-size: 最近事件环形缓冲区大小，决定Last-Event-ID可以续传的范围
+ *   <li>inbound-buffer-size: 写路径到分发线程的事件队列大小
+ *   <li>subscriber-buffer-size: 每个订阅者的待发送事件上限，超出即视为慢消费者并断开
+ *   <li>max-subscribers: 最大订阅者数量
+ *   <li>dispatcher-threads: 负责向订阅者写出事件的线程数
+ *   <li>heartbeat-interval: 心跳间隔，用于及时发现断开的连接
+ *   <li>send-timeout: 单次写出的最长阻塞时间，超出即断开该订阅者，避免卡住的连接占用分发线程
+ *   <li>emitter-timeout: 单个连接的最长存活时间，到期后客户端携带Last-Event-ID重连
+ *   <li>source: 事件来源，开启binlog订阅后可切换为BINLOG，以覆盖绕过应用的数据库写入
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@ConfigurationProperties(prefix = "city.stream")
+public class CityStreamProperties {
+  /** 环形缓冲区大小 */
+  private int ringBufferSize = 4096;
+
+  /** 写路径事件队列大小 */
+  private int inboundBufferSize = 10000;
+
+  /** 订阅者缓冲区大小 */
+  private int subscriberBufferSize = 256;
+
+  /** 最大订阅者数量 */
+  private int maxSubscribers = 10000;
+
+  /** 分发线程数 */
+  private int dispatcherThreads = 2;
+
+  /** 心跳间隔 */
+  private Duration heartbeatInterval = Duration.ofSeconds(15);
+
+  /** 单次写出超时 */
+  private Duration sendTimeout = Duration.ofSeconds(5);
+
+  /** 连接最长存活时间 */
+  private Duration emitterTimeout = Duration.ofMinutes(30);
+
+  /** 事件来源，只推送该来源的事件，避免同一变更重复推送 */
+  private CityChangedEvent.Source source = CityChangedEvent.Source.APPLICATION;
+}
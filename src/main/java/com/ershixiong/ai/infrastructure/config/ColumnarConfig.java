@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.columnar.ColumnarCitySnapshot;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.time.Instant;
+
+/**
+ * 列式快照配置类，为聚合接口提供城市表的列式内存副本。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.columnar", name = "enabled", havingValue = "true")
+public class ColumnarConfig {
+
+  /**
+   * 配置列式快照，首次加载由刷新任务完成
+   *
+   * @param cityChangeRepository 城市变更仓储
+   * @param properties 列式快照配置
+   * @param meterRegistry 指标注册表
+   * @return 列式快照
+   */
+  @Bean(destroyMethod = "close")
+  public ColumnarCitySnapshot columnarCitySnapshot(
+      CityChangeRepository cityChangeRepository,
+      CityColumnarProperties properties,
+      MeterRegistry meterRegistry) {
+    int parallelism =
+        properties.getParallelism() > 0
+            ? properties.getParallelism()
+            : Runtime.getRuntime().availableProcessors();
+    ColumnarCitySnapshot snapshot =
+        new ColumnarCitySnapshot(cityChangeRepository, properties.getBatchSize(), parallelism);
+    Gauge.builder("city.columnar.size", snapshot, ColumnarCitySnapshot::size)
+        .register(meterRegistry);
+    Gauge.builder("city.columnar.memory", snapshot, ColumnarCitySnapshot::getColumnBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    Gauge.builder("city.columnar.age", snapshot, ColumnarConfig::ageSeconds)
+        .baseUnit("seconds")
+        .register(meterRegistry);
+    return snapshot;
+  }
+
+  private static double ageSeconds(ColumnarCitySnapshot snapshot) {
+    Instant refreshedAt = snapshot.getRefreshedAt();
+    return refreshedAt == null
+        ? Double.NaN
+        : Duration.between(refreshedAt, Instant.now()).toMillis() / 1000.0;
+  }
+}
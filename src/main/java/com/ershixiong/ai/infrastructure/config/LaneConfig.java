@@ -0,0 +1,166 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.datasource.BoundedDataSource;
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import com.ershixiong.ai.infrastructure.lane.LaneGate;
+import com.ershixiong.ai.infrastructure.lane.LaneGates;
+import com.ershixiong.ai.infrastructure.lane.LaneRoutingDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+/**
+ * 流量通道配置类。
+ *
+ * <p>启用后（city.lanes.enabled）为OLTP、SEARCH、BULK三个通道分别创建连接池和并发闸门：
+ *
+ * <ul>
+ *   <li>OLTP连接池按spring.datasource创建，其余通道复制其参数，仅替换连接池名称和大小
+ *   <li>{@link LaneRoutingDataSource}替换默认数据源，按当前请求所属通道选择连接池
+ *   <li>连接池指标以pool标签区分，闸门指标以lane标签区分
+ *   <li>虚拟线程模式下每个通道的连接池按{@link VirtualThreadConfig}以信号量限制并发
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.lanes", name = "enabled", havingValue = "true")
+public class LaneConfig {
+
+  /**
+   * 配置OLTP通道连接池
+   *
+   * @param properties 数据源配置
+   * @return OLTP通道连接池
+   */
+  @Bean
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  public HikariDataSource oltpDataSource(DataSourceProperties properties) {
+    return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+  }
+
+  /**
+   * 配置按通道路由的数据源
+   *
+   * @param oltpDataSource OLTP通道连接池
+   * @param properties 通道配置
+   * @param dataSourceProperties 读写分离配置
+   * @param meterRegistry 指标注册表
+   * @param environment 运行环境，用于判断是否启用虚拟线程
+   * @return 通道路由数据源
+   */
+  @Bean
+  @Primary
+  public LaneRoutingDataSource dataSource(
+      HikariDataSource oltpDataSource,
+      CityLaneProperties properties,
+      CityDataSourceProperties dataSourceProperties,
+      MeterRegistry meterRegistry,
+      Environment environment) {
+    if (dataSourceProperties.isEnabled()) {
+      throw new BusinessException(
+          ErrorCode.SYS_CONFIG_ERROR, "city.lanes cannot be combined with city.datasource");
+    }
+    boolean virtualThreads = Threading.VIRTUAL.isActive(environment);
+    Map<Lane, DataSource> pools = new EnumMap<>(Lane.class);
+    for (Lane lane : Lane.values()) {
+      HikariDataSource pool;
+      if (lane == Lane.OLTP) {
+        pool = oltpDataSource;
+      } else {
+        pool = new HikariDataSource();
+        oltpDataSource.copyStateTo(pool);
+        if (pool.getMetricRegistry() == null) {
+          pool.setMetricRegistry(meterRegistry);
+        }
+      }
+      int poolSize = settings(properties, lane).getPoolSize();
+      pool.setPoolName("city-" + lane.name().toLowerCase());
+      pool.setMaximumPoolSize(poolSize);
+      pool.setMinimumIdle(Math.min(pool.getMinimumIdle(), poolSize));
+      if (virtualThreads) {
+        BoundedDataSource bounded = VirtualThreadConfig.bound(pool);
+        bounded.bindTo(meterRegistry);
+        pools.put(lane, bounded);
+      } else {
+        pools.put(lane, pool);
+      }
+    }
+    return new LaneRoutingDataSource(pools);
+  }
+
+  /**
+   * 配置各通道的并发闸门
+   *
+   * @param properties 通道配置
+   * @param meterRegistry 指标注册表
+   * @return 闸门集合
+   */
+  @Bean
+  public LaneGates laneGates(CityLaneProperties properties, MeterRegistry meterRegistry) {
+    Map<Lane, LaneGate> gates = new EnumMap<>(Lane.class);
+    for (Lane lane : Lane.values()) {
+      CityLaneProperties.Settings settings = settings(properties, lane);
+      LaneGate gate =
+          new LaneGate(
+              lane,
+              settings.getMaxConcurrency(),
+              settings.getMaxQueue(),
+              settings.getQueueTimeout());
+      String tag = lane.name().toLowerCase();
+      Gauge.builder("city.lane.active", gate, LaneGate::getActive)
+          .tag("lane", tag)
+          .register(meterRegistry);
+      Gauge.builder("city.lane.queued", gate, LaneGate::getQueued)
+          .tag("lane", tag)
+          .register(meterRegistry);
+      FunctionCounter.builder("city.lane.rejected", gate, LaneGate::getRejected)
+          .tag("lane", tag)
+          .register(meterRegistry);
+      FunctionCounter.builder(
+              "city.lane.wait", gate, g -> g.getWaitNanos() / (double) TimeUnit.SECONDS.toNanos(1))
+          .tag("lane", tag)
+          .baseUnit("seconds")
+          .register(meterRegistry);
+      gates.put(lane, gate);
+    }
+    return new LaneGates(gates);
+  }
+
+  private static CityLaneProperties.Settings settings(CityLaneProperties properties, Lane lane) {
+    return properties.getSettings().getOrDefault(lane, new CityLaneProperties.Settings());
+  }
+}
@@ -18,6 +18,7 @@ package com.ershixiong.ai.infrastructure.config;
 import com.baomidou.mybatisplus.annotation.DbType;
 import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
 import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineStatementInterceptor;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -30,6 +31,7 @@ import org.springframework.context.annotation.Configuration;
  *   <li>分页插件配置
  *   <li>性能分析插件配置
  *   <li>SQL注入器配置
+ *   <li>请求截止时间插件配置
  * </ul>
  *
  * <p>配置说明：
@@ -76,4 +78,14 @@ public class MybatisPlusConfig {
     interceptor.addInnerInterceptor(paginationInterceptor);
     return interceptor;
   }
+
+  /**
+   * 配置请求截止时间插件，按请求剩余时间设置查询超时，过期或取消时中止执行中的语句
+   *
+   * @return 截止时间插件
+   */
+  @Bean
+  public DeadlineStatementInterceptor deadlineStatementInterceptor() {
+    return new DeadlineStatementInterceptor();
+  }
 }
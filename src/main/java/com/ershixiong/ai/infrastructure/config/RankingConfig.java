@@ -0,0 +1,51 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.ranking.CityPopulationIndex;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 城市人口索引配置类，索引由{@link CityRepositoryConfig}装配到主仓储。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.ranking", name = "enabled", havingValue = "true")
+public class RankingConfig {
+
+  /**
+   * 配置人口索引，首次加载由重建任务完成
+   *
+   * @param meterRegistry 指标注册表
+   * @return 人口索引
+   */
+  @Bean
+  public CityPopulationIndex cityPopulationIndex(MeterRegistry meterRegistry) {
+    CityPopulationIndex index = new CityPopulationIndex();
+    Gauge.builder("city.ranking.size", index, CityPopulationIndex::size).register(meterRegistry);
+    Gauge.builder("city.ranking.memory", index, CityPopulationIndex::getTreeBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    return index;
+  }
+}
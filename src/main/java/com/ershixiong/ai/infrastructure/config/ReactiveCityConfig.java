@@ -0,0 +1,113 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.domain.repository.ReactiveCityRepository;
+import com.ershixiong.ai.infrastructure.repository.r2dbc.R2dbcCityRepository;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnWebApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.r2dbc.ConnectionFactoryBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.r2dbc.connection.R2dbcTransactionManager;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import org.springframework.util.StringUtils;
+
+/**
+ * 响应式数据访问配置类，仅在响应式Web应用（reactive profile）中生效。
+ *
+ * <p>R2DBC连接按spring.r2dbc配置创建并放入连接池。连接池不注册为{@link ConnectionFactory}类型的Bean，
+ * 否则JDBC数据源自动配置会退让，依赖JDBC的增量同步和墓碑清理任务将无法启动；连接池随本配置类销毁而关闭。
+ * 事务管理器同样不注册为Bean，只供{@link TransactionalOperator}使用，阻塞式代码中的@Transactional
+ * 仍然只有一个事务管理器。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnWebApplication(type = ConditionalOnWebApplication.Type.REACTIVE)
+@EnableConfigurationProperties(R2dbcProperties.class)
+public class ReactiveCityConfig implements DisposableBean {
+
+  private ConnectionPool connectionPool;
+
+  /**
+   * 配置基于R2DBC连接池的数据库客户端
+   *
+   * @param properties R2DBC配置
+   * @return 数据库客户端
+   */
+  @Bean
+  public DatabaseClient cityDatabaseClient(R2dbcProperties properties) {
+    ConnectionFactory connectionFactory =
+        ConnectionFactoryBuilder.withUrl(properties.getUrl())
+            .username(properties.getUsername())
+            .password(properties.getPassword())
+            .build();
+    R2dbcProperties.Pool pool = properties.getPool();
+    ConnectionPoolConfiguration.Builder builder =
+        ConnectionPoolConfiguration.builder(connectionFactory)
+            .name("city-r2dbc")
+            .initialSize(pool.getInitialSize())
+            .maxSize(pool.getMaxSize())
+            .maxIdleTime(pool.getMaxIdleTime())
+            .maxAcquireTime(pool.getMaxAcquireTime());
+    if (StringUtils.hasText(pool.getValidationQuery())) {
+      builder.validationQuery(pool.getValidationQuery());
+    }
+    connectionPool = new ConnectionPool(builder.build());
+    return DatabaseClient.create(connectionPool);
+  }
+
+  /**
+   * 配置响应式事务模板
+   *
+   * @param cityDatabaseClient 数据库客户端
+   * @return 事务模板
+   */
+  @Bean
+  public TransactionalOperator cityTransactionalOperator(DatabaseClient cityDatabaseClient) {
+    return TransactionalOperator.create(
+        new R2dbcTransactionManager(cityDatabaseClient.getConnectionFactory()));
+  }
+
+  /**
+   * 配置响应式城市仓储
+   *
+   * @param cityDatabaseClient 数据库客户端
+   * @param cityTransactionalOperator 事务模板
+   * @return 响应式城市仓储
+   */
+  @Bean
+  public ReactiveCityRepository reactiveCityRepository(
+      DatabaseClient cityDatabaseClient, TransactionalOperator cityTransactionalOperator) {
+    return new R2dbcCityRepository(cityDatabaseClient, cityTransactionalOperator);
+  }
+
+  @Override
+  public void destroy() {
+    if (connectionPool != null) {
+      connectionPool.dispose();
+    }
+  }
+}
@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.datasource.BoundedDataSource;
+import com.ershixiong.ai.infrastructure.datasource.CityRoutingDataSource;
+import com.ershixiong.ai.infrastructure.datasource.ReplicaLagMonitor;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.core.env.Environment;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * 读写分离数据源配置类。
+ *
+ * <p>启用后（city.datasource.enabled）以{@link CityRoutingDataSource}替换默认数据源：
+ *
+ * <ul>
+ *   <li>主库按spring.datasource创建，连接池参数绑定spring.datasource.hikari
+ *   <li>从库复制主库连接池参数，仅替换连接地址和账号
+ *   <li>复制延迟由{@link ReplicaLagMonitor}定期检查
+ *   <li>虚拟线程模式下主库和从库连接池按{@link VirtualThreadConfig}以信号量限制并发
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.datasource", name = "enabled", havingValue = "true")
+public class ReadWriteSplittingConfig {
+
+  /**
+   * 配置主库连接池
+   *
+   * @param properties 数据源配置
+   * @return 主库连接池
+   */
+  @Bean
+  @ConfigurationProperties(prefix = "spring.datasource.hikari")
+  public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+    HikariDataSource dataSource =
+        properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    dataSource.setPoolName("city-primary");
+    return dataSource;
+  }
+
+  /**
+   * 配置读写分离路由数据源
+   *
+   * @param primaryDataSource 主库连接池
+   * @param properties 读写分离配置
+   * @param meterRegistry 指标注册表
+   * @param environment 运行环境，用于判断是否启用虚拟线程
+   * @return 路由数据源
+   */
+  @Bean
+  @Primary
+  public CityRoutingDataSource dataSource(
+      HikariDataSource primaryDataSource,
+      CityDataSourceProperties properties,
+      MeterRegistry meterRegistry,
+      Environment environment) {
+    Map<String, DataSource> replicas = new LinkedHashMap<>();
+    List<CityDataSourceProperties.Replica> replicaProperties = properties.getReplicas();
+    for (int i = 0; i < replicaProperties.size(); i++) {
+      CityDataSourceProperties.Replica replica = replicaProperties.get(i);
+      String name = replica.getName() == null ? "replica-" + i : replica.getName();
+      // 连接池在首次获取连接时才初始化，从库不可用不影响应用启动
+      HikariDataSource replicaDataSource = new HikariDataSource();
+      primaryDataSource.copyStateTo(replicaDataSource);
+      replicaDataSource.setPoolName("city-" + name);
+      replicaDataSource.setJdbcUrl(replica.getUrl());
+      if (replica.getUsername() != null) {
+        replicaDataSource.setUsername(replica.getUsername());
+      }
+      if (replica.getPassword() != null) {
+        replicaDataSource.setPassword(replica.getPassword());
+      }
+      replicas.put(name, replicaDataSource);
+    }
+
+    ReplicaLagMonitor lagMonitor = new ReplicaLagMonitor(primaryDataSource, replicas);
+    lagMonitor.start(properties.getLagCheckInterval());
+    DataSource primary = primaryDataSource;
+    if (Threading.VIRTUAL.isActive(environment)) {
+      // 延迟监控直接使用原始连接池，业务读写经过信号量
+      BoundedDataSource boundedPrimary = VirtualThreadConfig.bound(primaryDataSource);
+      boundedPrimary.bindTo(meterRegistry);
+      primary = boundedPrimary;
+      Map<String, DataSource> boundedReplicas = new LinkedHashMap<>();
+      replicas.forEach(
+          (name, replica) -> {
+            BoundedDataSource bounded = VirtualThreadConfig.bound((HikariDataSource) replica);
+            bounded.bindTo(meterRegistry);
+            boundedReplicas.put(name, bounded);
+          });
+      replicas = boundedReplicas;
+    }
+    CityRoutingDataSource dataSource =
+        new CityRoutingDataSource(primary, replicas, lagMonitor, properties.getMaxReplicaLag());
+
+    FunctionCounter.builder(
+            "city.datasource.replica.reads", dataSource, CityRoutingDataSource::getReplicaReads)
+        .register(meterRegistry);
+    FunctionCounter.builder(
+            "city.datasource.primary.fallbacks",
+            dataSource,
+            CityRoutingDataSource::getPrimaryFallbacks)
+        .register(meterRegistry);
+    return dataSource;
+  }
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.domain.repository.CityRollupRepository;
+import com.ershixiong.ai.infrastructure.rollup.CityRollupStore;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 城市人口汇总配置类，为统计接口提供增量维护的国家和行政区人口汇总。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.rollup", name = "enabled", havingValue = "true")
+public class RollupConfig {
+
+  /**
+   * 配置人口汇总，首次加载由汇总任务完成
+   *
+   * @param cityRollupRepository 城市人口汇总仓储
+   * @param meterRegistry 指标注册表
+   * @return 人口汇总
+   */
+  @Bean
+  public CityRollupStore cityRollupStore(
+      CityRollupRepository cityRollupRepository, MeterRegistry meterRegistry) {
+    CityRollupStore store = new CityRollupStore(cityRollupRepository);
+    Gauge.builder("city.rollup.districts", store, CityRollupStore::getDistrictCount)
+        .register(meterRegistry);
+    Gauge.builder("city.rollup.pending", store, CityRollupStore::getPendingCount)
+        .register(meterRegistry);
+    FunctionCounter.builder("city.rollup.repairs", store, CityRollupStore::getRepairCount)
+        .register(meterRegistry);
+    return store;
+  }
+}
@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.sketch.CitySketches;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * 城市近似统计配置类，为近似统计接口提供按国家维护的流式草图。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnProperty(prefix = "city.sketch", name = "enabled", havingValue = "true")
+public class SketchConfig {
+
+  /**
+   * 配置城市草图，首次重建由重建任务完成
+   *
+   * @param properties 近似统计配置
+   * @param meterRegistry 指标注册表
+   * @return 城市草图
+   */
+  @Bean
+  public CitySketches citySketches(CitySketchProperties properties, MeterRegistry meterRegistry) {
+    CitySketches sketches =
+        new CitySketches(
+            new CitySketches.Settings(
+                properties.getQuantileAccuracy(),
+                properties.getDistinctPrecision(),
+                properties.getFrequencyEpsilon(),
+                properties.getFrequencyDelta(),
+                properties.getHeavyHitters()));
+    Gauge.builder("city.sketch.memory", sketches, CitySketches::getMemoryBytes)
+        .baseUnit("bytes")
+        .register(meterRegistry);
+    return sketches;
+  }
+}
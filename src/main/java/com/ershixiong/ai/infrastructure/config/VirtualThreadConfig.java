@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.config;
+
+import com.ershixiong.ai.infrastructure.datasource.BoundedDataSource;
+import com.zaxxer.hikari.HikariDataSource;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import javax.sql.DataSource;
+
+/**
+ * 虚拟线程模式配置，仅在spring.threads.virtual.enabled=true时生效。
+ *
+ * <p>Tomcat请求线程和异步任务由Spring Boot切换为虚拟线程，本配置负责数据访问一侧：
+ *
+ * <ul>
+ *   <li>每个连接池外包一层{@link BoundedDataSource}，许可数等于连接池大小，获取超时沿用connection-timeout
+ *   <li>默认单连接池模式在此包装dataSource；读写分离和流量通道模式在各自配置中包装每个连接池
+ *   <li>MySQL驱动使用9.x版本，驱动内部以ReentrantLock代替synchronized，网络IO期间不固定载体线程
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Configuration
+@ConditionalOnThreading(Threading.VIRTUAL)
+public class VirtualThreadConfig {
+
+  /**
+   * 包装默认数据源
+   *
+   * @return 数据源后置处理器
+   */
+  @Bean
+  public static BeanPostProcessor boundedDataSourcePostProcessor() {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if ("dataSource".equals(beanName) && bean instanceof HikariDataSource pool) {
+          return bound(pool);
+        }
+        return bean;
+      }
+    };
+  }
+
+  /**
+   * 注册默认数据源的信号量指标
+   *
+   * @param dataSource 默认数据源
+   * @return 指标绑定器
+   */
+  @Bean
+  public MeterBinder boundedDataSourceMetrics(DataSource dataSource) {
+    return registry -> {
+      if (dataSource instanceof BoundedDataSource bounded) {
+        bounded.bindTo(registry);
+      }
+    };
+  }
+
+  /**
+   * 以信号量包装连接池，许可数等于连接池大小
+   *
+   * @param pool 连接池，必须已设置最终的连接池大小
+   * @return 受限数据源
+   */
+  static BoundedDataSource bound(HikariDataSource pool) {
+    String name = pool.getPoolName() == null ? "dataSource" : pool.getPoolName();
+    return new BoundedDataSource(
+        name,
+        pool,
+        pool.getMaximumPoolSize(),
+        Duration.ofMillis(pool.getConnectionTimeout()));
+  }
+}
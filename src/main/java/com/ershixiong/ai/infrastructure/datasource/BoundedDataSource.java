@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+
+/**
+ * 以信号量限制并发连接数的数据源。
+ *
+ * <p>虚拟线程模式下请求线程数不再受限，数千个虚拟线程可能同时争抢连接。信号量许可数与连接池大小一致：
+ *
+ * <ul>
+ *   <li>获取连接前先获取许可，超出连接池容量的线程在信号量上挂起，不占用载体线程
+ *   <li>等待超过获取超时抛出{@link SQLTransientConnectionException}，与连接池耗尽时的行为一致
+ *   <li>连接关闭时归还许可，重复关闭只归还一次
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class BoundedDataSource extends DelegatingDataSource implements MeterBinder, AutoCloseable {
+
+  private final String name;
+  private final Semaphore permits;
+  private final long acquireTimeoutNanos;
+
+  public BoundedDataSource(
+      String name, DataSource target, int maxConnections, Duration acquireTimeout) {
+    super(target);
+    this.name = name;
+    this.permits = new Semaphore(maxConnections, true);
+    this.acquireTimeoutNanos = acquireTimeout.toNanos();
+  }
+
+  @Override
+  public Connection getConnection() throws SQLException {
+    acquire();
+    try {
+      return guard(obtainTargetDataSource().getConnection());
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  @Override
+  public Connection getConnection(String username, String password) throws SQLException {
+    acquire();
+    try {
+      return guard(obtainTargetDataSource().getConnection(username, password));
+    } catch (SQLException | RuntimeException e) {
+      permits.release();
+      throw e;
+    }
+  }
+
+  private void acquire() throws SQLException {
+    try {
+      if (!permits.tryAcquire(acquireTimeoutNanos, TimeUnit.NANOSECONDS)) {
+        throw new SQLTransientConnectionException(
+            name
+                + " - Connection is not available, request timed out after "
+                + TimeUnit.NANOSECONDS.toMillis(acquireTimeoutNanos)
+                + "ms");
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new SQLTransientConnectionException(
+          name + " - Interrupted during connection acquisition", e);
+    }
+  }
+
+  private Connection guard(Connection connection) {
+    AtomicBoolean released = new AtomicBoolean();
+    return (Connection)
+        Proxy.newProxyInstance(
+            Connection.class.getClassLoader(),
+            new Class<?>[] {Connection.class},
+            (proxy, method, args) -> invoke(connection, released, method, args));
+  }
+
+  private Object invoke(Connection connection, AtomicBoolean released, Method method, Object[] args)
+      throws Throwable {
+    if ("close".equals(method.getName()) && method.getParameterCount() == 0) {
+      try {
+        connection.close();
+      } finally {
+        if (released.compareAndSet(false, true)) {
+          permits.release();
+        }
+      }
+      return null;
+    }
+    try {
+      return method.invoke(connection, args);
+    } catch (InvocationTargetException e) {
+      throw e.getTargetException();
+    }
+  }
+
+  /**
+   * 获取等待连接的线程数
+   *
+   * @return 等待线程数
+   */
+  public int getWaiting() {
+    return permits.getQueueLength();
+  }
+
+  /**
+   * 获取剩余许可数
+   *
+   * @return 剩余许可数
+   */
+  public int getAvailable() {
+    return permits.availablePermits();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("city.datasource.bounded.waiting", this, BoundedDataSource::getWaiting)
+        .tag("pool", name)
+        .register(registry);
+    Gauge.builder("city.datasource.bounded.available", this, BoundedDataSource::getAvailable)
+        .tag("pool", name)
+        .register(registry);
+  }
+
+  /** 关闭被包装的连接池 */
+  @Override
+  public void close() {
+    if (getTargetDataSource() instanceof AutoCloseable closeable) {
+      try {
+        closeable.close();
+      } catch (Exception e) {
+        log.warn("Failed to close data source {}: {}", name, e.getMessage());
+      }
+    }
+  }
+}
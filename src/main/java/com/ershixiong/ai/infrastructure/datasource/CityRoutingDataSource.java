@@ -0,0 +1,142 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+/**
+ * 读写分离路由数据源。
+ *
+ * <p>获取连接时根据{@link ReadRoutingContext}选择目标库：
+ *
+ * <ul>
+ *   <li>写操作、事务内操作以及未声明为从库读的操作一律使用主库
+ *   <li>从库读在延迟不超过阈值、且已回放到所需版本的从库之间轮询
+ *   <li>没有满足条件的从库时回退到主库，保证读到自己的写入
+ * </ul>
+ *
+ * <p>事务开启后连接已绑定到线程，事务内的读操作沿用主库连接。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CityRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  /** 主库路由键 */
+  public static final String PRIMARY = "primary";
+
+  private final Map<String, DataSource> replicas;
+  private final ReplicaLagMonitor lagMonitor;
+  private final Duration maxReplicaLag;
+  private final AtomicLong roundRobin = new AtomicLong();
+  private final AtomicLong replicaReads = new AtomicLong();
+  private final AtomicLong primaryFallbacks = new AtomicLong();
+
+  public CityRoutingDataSource(
+      DataSource primary,
+      Map<String, DataSource> replicas,
+      ReplicaLagMonitor lagMonitor,
+      Duration maxReplicaLag) {
+    this.replicas = replicas;
+    this.lagMonitor = lagMonitor;
+    this.maxReplicaLag = maxReplicaLag;
+    Map<Object, Object> targets = new HashMap<>(replicas);
+    targets.put(PRIMARY, primary);
+    setTargetDataSources(targets);
+    setDefaultTargetDataSource(primary);
+    setLenientFallback(false);
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    if (!ReadRoutingContext.isReplicaRead()) {
+      return PRIMARY;
+    }
+    List<String> eligible =
+        lagMonitor.eligibleReplicas(maxReplicaLag, ReadRoutingContext.getRequiredVersion());
+    if (eligible.isEmpty()) {
+      primaryFallbacks.incrementAndGet();
+      return PRIMARY;
+    }
+    replicaReads.incrementAndGet();
+    return eligible.get((int) Math.floorMod(roundRobin.getAndIncrement(), eligible.size()));
+  }
+
+  /**
+   * 获取当前可承接读请求的从库，按轮询顺序排列，供需要直接控制连接的读取方式使用
+   *
+   * @return 满足延迟和版本要求的从库，可能为空
+   */
+  public List<DataSource> replicaCandidates() {
+    List<String> eligible =
+        lagMonitor.eligibleReplicas(maxReplicaLag, ReadRoutingContext.getRequiredVersion());
+    if (eligible.isEmpty()) {
+      return List.of();
+    }
+    int start = (int) Math.floorMod(roundRobin.getAndIncrement(), eligible.size());
+    List<DataSource> candidates = new ArrayList<>(eligible.size());
+    for (int i = 0; i < eligible.size(); i++) {
+      candidates.add(replicas.get(eligible.get((start + i) % eligible.size())));
+    }
+    return candidates;
+  }
+
+  /**
+   * 获取路由到从库的读请求数
+   *
+   * @return 从库读次数
+   */
+  public long getReplicaReads() {
+    return replicaReads.get();
+  }
+
+  /**
+   * 获取因从库延迟或版本不足回退到主库的读请求数
+   *
+   * @return 回退次数
+   */
+  public long getPrimaryFallbacks() {
+    return primaryFallbacks.get();
+  }
+
+  /** 停止延迟监控并关闭从库连接池，主库连接池由容器单独管理 */
+  @Override
+  public void close() {
+    lagMonitor.close();
+    replicas.forEach(
+        (name, dataSource) -> {
+          if (dataSource instanceof AutoCloseable closeable) {
+            try {
+              closeable.close();
+            } catch (Exception e) {
+              log.warn("Failed to close replica data source {}: {}", name, e.getMessage());
+            }
+          }
+        });
+  }
+}
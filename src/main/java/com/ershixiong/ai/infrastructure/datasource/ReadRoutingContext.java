@@ -0,0 +1,132 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import java.util.function.Supplier;
+
+/**
+ * 读写分离路由上下文。
+ *
+ * <p>以线程为单位记录当前操作的路由要求，供{@link CityRoutingDataSource}在获取连接时决定目标库：
+ *
+ * <ul>
+ *   <li>只有显式声明为从库读的操作才会路由到从库，其余操作一律走主库
+ *   <li>required version: 客户端携带的一致性令牌，从库必须已回放到该版本才能承接读请求
+ *   <li>last write version: 当前请求写入产生的版本，随响应返回给客户端作为一致性令牌
+ * </ul>
+ *
+ * <p>写入版本只在{@link #begin()}开启的请求范围内记录，同一请求内写后读同样受其约束；
+ * 定时任务等非请求线程不记录，避免线程复用导致后续读请求全部回退主库。请求结束时必须调用{@link #clear()}。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class ReadRoutingContext {
+
+  private static final ThreadLocal<Boolean> IN_REQUEST = new ThreadLocal<>();
+  private static final ThreadLocal<Boolean> REPLICA_READ = new ThreadLocal<>();
+  private static final ThreadLocal<Long> REQUIRED_VERSION = new ThreadLocal<>();
+  private static final ThreadLocal<Long> LAST_WRITE_VERSION = new ThreadLocal<>();
+
+  private ReadRoutingContext() {
+  }
+
+  /** 开启请求范围，此后的写入版本会被记录 */
+  public static void begin() {
+    IN_REQUEST.set(Boolean.TRUE);
+  }
+
+  /**
+   * 以从库读的方式执行操作
+   *
+   * @param action 只读操作
+   * @param <T> 返回值类型
+   * @return 操作结果
+   */
+  public static <T> T replicaRead(Supplier<T> action) {
+    Boolean previous = REPLICA_READ.get();
+    REPLICA_READ.set(Boolean.TRUE);
+    try {
+      return action.get();
+    } finally {
+      if (previous == null) {
+        REPLICA_READ.remove();
+      } else {
+        REPLICA_READ.set(previous);
+      }
+    }
+  }
+
+  /**
+   * 当前操作是否允许路由到从库
+   *
+   * @return 是否从库读
+   */
+  public static boolean isReplicaRead() {
+    return Boolean.TRUE.equals(REPLICA_READ.get());
+  }
+
+  /**
+   * 设置客户端要求的最低版本
+   *
+   * @param version 最低版本
+   */
+  public static void requireVersion(long version) {
+    REQUIRED_VERSION.set(version);
+  }
+
+  /**
+   * 获取从库需要达到的最低版本，取客户端令牌与本请求写入版本中的较大值
+   *
+   * @return 最低版本，无要求时为0
+   */
+  public static long getRequiredVersion() {
+    Long required = REQUIRED_VERSION.get();
+    Long written = LAST_WRITE_VERSION.get();
+    return Math.max(required == null ? 0L : required, written == null ? 0L : written);
+  }
+
+  /**
+   * 记录当前请求写入产生的版本，不在请求范围内时忽略
+   *
+   * @param version 写入版本
+   */
+  public static void recordWrite(long version) {
+    if (!Boolean.TRUE.equals(IN_REQUEST.get())) {
+      return;
+    }
+    Long previous = LAST_WRITE_VERSION.get();
+    LAST_WRITE_VERSION.set(previous == null ? version : Math.max(previous, version));
+  }
+
+  /**
+   * 获取当前请求写入产生的最大版本
+   *
+   * @return 写入版本，未写入时为null
+   */
+  public static Long getLastWriteVersion() {
+    return LAST_WRITE_VERSION.get();
+  }
+
+  /** 清理当前线程的路由上下文 */
+  public static void clear() {
+    IN_REQUEST.remove();
+    REPLICA_READ.remove();
+    REQUIRED_VERSION.remove();
+    LAST_WRITE_VERSION.remove();
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.LongSupplier;
+import javax.sql.DataSource;
+
+/**
+ * 从库复制延迟监控。
+ *
+ * <p>定期读取主库和各从库city_change_seq中的城市版本序列，以版本号衡量复制进度：
+ *
+ * <ul>
+ *   <li>记录主库每个新版本首次被观察到的时间
+ *   <li>从库延迟 = 当前时间 - 主库首次出现比从库已回放版本更新的版本的时间，已追平时为0
+ *   <li>版本序列与城市数据在同一事务提交，从库版本达到N即保证版本N及之前的写入可见
+ *   <li>查询失败的从库标记为不可用，直到下一次检查成功
+ * </ul>
+ *
+ * <p>该方式不依赖SHOW REPLICA STATUS，对级联复制和只读账号同样适用，精度受检查间隔限制。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class ReplicaLagMonitor implements AutoCloseable {
+
+  static final String VERSION_QUERY = "SELECT seq FROM city_change_seq WHERE name = 'city'";
+
+  private static final int MAX_PRIMARY_SAMPLES = 1024;
+
+  private final DataSource primary;
+  private final Map<String, DataSource> replicas;
+  private final LongSupplier nanoTime;
+  private final Map<String, ReplicaState> states = new LinkedHashMap<>();
+
+  /** 主库版本样本（版本号, 首次观察时间），按版本递增，由lock保护 */
+  private final Deque<long[]> primarySamples = new ArrayDeque<>();
+
+  private final ReentrantLock lock = new ReentrantLock();
+  private ScheduledExecutorService scheduler;
+
+  public ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas) {
+    this(primary, replicas, System::nanoTime);
+  }
+
+  ReplicaLagMonitor(DataSource primary, Map<String, DataSource> replicas, LongSupplier nanoTime) {
+    this.primary = primary;
+    this.replicas = new LinkedHashMap<>(replicas);
+    this.nanoTime = nanoTime;
+    replicas.keySet().forEach(name -> states.put(name, new ReplicaState()));
+  }
+
+  /**
+   * 启动定期检查
+   *
+   * @param interval 检查间隔
+   */
+  public void start(Duration interval) {
+    refresh();
+    scheduler =
+        Executors.newSingleThreadScheduledExecutor(
+            r -> {
+              Thread thread = new Thread(r, "city-replica-lag-monitor");
+              thread.setDaemon(true);
+              return thread;
+            });
+    scheduler.scheduleWithFixedDelay(
+        this::refresh, interval.toMillis(), interval.toMillis(), TimeUnit.MILLISECONDS);
+  }
+
+  /** 立即检查一次主库和所有从库的复制进度 */
+  public void refresh() {
+    long now = nanoTime.getAsLong();
+    try {
+      recordPrimaryVersion(queryVersion(primary), now);
+    } catch (SQLException | RuntimeException e) {
+      log.warn("Failed to read city version from primary: {}", e.getMessage());
+    }
+    replicas.forEach(
+        (name, dataSource) -> {
+          ReplicaState state = states.get(name);
+          try {
+            state.appliedVersion = queryVersion(dataSource);
+            state.healthy = true;
+          } catch (SQLException | RuntimeException e) {
+            state.healthy = false;
+            log.warn("Failed to read city version from replica {}: {}", name, e.getMessage());
+          }
+        });
+    lock.lock();
+    try {
+      states.values().forEach(state -> state.lagNanos = lagNanos(state.appliedVersion, now));
+      trimSamples();
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 获取满足延迟和版本要求的从库
+   *
+   * @param maxLag 允许的最大延迟
+   * @param requiredVersion 从库需要达到的最低版本
+   * @return 可用从库名称列表
+   */
+  public List<String> eligibleReplicas(Duration maxLag, long requiredVersion) {
+    long maxLagNanos = maxLag.toNanos();
+    List<String> eligible = new ArrayList<>(states.size());
+    states.forEach(
+        (name, state) -> {
+          if (state.healthy
+              && state.lagNanos <= maxLagNanos
+              && state.appliedVersion >= requiredVersion) {
+            eligible.add(name);
+          }
+        });
+    return eligible;
+  }
+
+  /**
+   * 获取从库最近一次检查时的复制延迟
+   *
+   * @param replica 从库名称
+   * @return 复制延迟
+   */
+  public Duration getLag(String replica) {
+    return Duration.ofNanos(states.get(replica).lagNanos);
+  }
+
+  /**
+   * 获取从库最近一次检查时已回放的版本
+   *
+   * @param replica 从库名称
+   * @return 版本号
+   */
+  public long getAppliedVersion(String replica) {
+    return states.get(replica).appliedVersion;
+  }
+
+  @Override
+  public void close() {
+    if (scheduler != null) {
+      scheduler.shutdownNow();
+    }
+  }
+
+  private void recordPrimaryVersion(long version, long now) {
+    lock.lock();
+    try {
+      if (primarySamples.isEmpty() || primarySamples.peekLast()[0] < version) {
+        primarySamples.addLast(new long[] {version, now});
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private long lagNanos(long appliedVersion, long now) {
+    for (long[] sample : primarySamples) {
+      if (sample[0] > appliedVersion) {
+        return Math.max(0L, now - sample[1]);
+      }
+    }
+    return 0L;
+  }
+
+  /** 丢弃所有从库都已回放的旧样本，保留最新样本作为比较基准 */
+  private void trimSamples() {
+    long minApplied =
+        states.values().stream().mapToLong(state -> state.appliedVersion).min().orElse(0L);
+    while (primarySamples.size() > 1
+        && (primarySamples.peekFirst()[0] <= minApplied
+            || primarySamples.size() > MAX_PRIMARY_SAMPLES)) {
+      primarySamples.pollFirst();
+    }
+  }
+
+  private static long queryVersion(DataSource dataSource) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(VERSION_QUERY);
+        ResultSet resultSet = statement.executeQuery()) {
+      return resultSet.next() ? resultSet.getLong(1) : 0L;
+    }
+  }
+
+  /** 单个从库的检查结果 */
+  private static final class ReplicaState {
+    private volatile long appliedVersion;
+    private volatile long lagNanos = Long.MAX_VALUE;
+    private volatile boolean healthy;
+  }
+}
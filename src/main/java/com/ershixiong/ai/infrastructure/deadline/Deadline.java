@@ -0,0 +1,173 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 请求截止时间。
+ *
+ * <p>一个请求对应一个实例，由Web层创建并通过{@link DeadlineContext}传递到仓储：
+ *
+ * <ul>
+ *   <li>执行SQL前检查是否已过期，剩余时间折算为JDBC查询超时
+ *   <li>执行中的语句登记在实例上，过期或被取消时通过{@link Statement#cancel()}中止，立即释放数据库和连接池
+ *   <li>取消可以由其他线程发起，例如截止时间看门狗或异步请求的错误回调
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public final class Deadline {
+
+  private final long expiresAtNanos;
+  private final Set<Statement> statements = ConcurrentHashMap.newKeySet();
+  private volatile boolean cancelled;
+
+  private Deadline(long expiresAtNanos) {
+    this.expiresAtNanos = expiresAtNanos;
+  }
+
+  /**
+   * 创建从当前时刻起经过指定时长到期的截止时间
+   *
+   * @param timeout 超时时长
+   * @return 截止时间
+   */
+  public static Deadline after(Duration timeout) {
+    return new Deadline(System.nanoTime() + timeout.toNanos());
+  }
+
+  /**
+   * 获取剩余时间
+   *
+   * @return 剩余时间，已过期时为零或负数
+   */
+  public Duration remaining() {
+    return Duration.ofNanos(expiresAtNanos - System.nanoTime());
+  }
+
+  /**
+   * 判断是否已过期或被取消
+   *
+   * @return 已过期或被取消返回true
+   */
+  public boolean isExpired() {
+    return cancelled || expiresAtNanos - System.nanoTime() <= 0;
+  }
+
+  /**
+   * 检查截止时间，已过期或被取消时快速失败
+   *
+   * @throws BusinessException 已过期或被取消，错误码为RPC_CALL_TIMEOUT
+   */
+  public void check() {
+    if (isExpired()) {
+      throw timeout(null);
+    }
+  }
+
+  /**
+   * 把剩余时间应用为语句的查询超时，并登记语句以便取消
+   *
+   * <p>JDBC查询超时以秒为单位，不足一秒按一秒计；更精确的中止由{@link #cancel()}完成。
+   *
+   * @param statement 已准备好的语句
+   * @throws SQLException 设置查询超时失败
+   */
+  public void applyTo(Statement statement) throws SQLException {
+    applyTimeoutTo(statement);
+    statements.add(statement);
+    // 登记期间可能已被取消
+    if (cancelled) {
+      cancelQuietly(statement);
+    }
+  }
+
+  /**
+   * 只把剩余时间应用为语句的查询超时，不登记语句
+   *
+   * <p>用于无法在执行结束后解除登记的语句，例如由JdbcTemplate创建和关闭的语句，过期后由数据库按超时中止。
+   *
+   * @param statement 已准备好的语句
+   * @throws SQLException 设置查询超时失败
+   */
+  public void applyTimeoutTo(Statement statement) throws SQLException {
+    check();
+    long remainingNanos = expiresAtNanos - System.nanoTime();
+    int seconds = (int) Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(remainingNanos - 1) + 1);
+    int current = statement.getQueryTimeout();
+    if (current == 0 || seconds < current) {
+      statement.setQueryTimeout(seconds);
+    }
+  }
+
+  /**
+   * 语句执行完成后解除登记
+   *
+   * @param statement 语句
+   */
+  public void release(Statement statement) {
+    statements.remove(statement);
+  }
+
+  /** 取消截止时间，中止所有执行中的语句 */
+  public void cancel() {
+    cancelled = true;
+    statements.forEach(Deadline::cancelQuietly);
+  }
+
+  /**
+   * 判断是否被主动取消
+   *
+   * @return 被取消返回true
+   */
+  public boolean isCancelled() {
+    return cancelled;
+  }
+
+  /**
+   * 创建超时异常
+   *
+   * @param cause 原始异常，可以为null
+   * @return 错误码为RPC_CALL_TIMEOUT的业务异常
+   */
+  public BusinessException timeout(Throwable cause) {
+    String message = expiresAtNanos - System.nanoTime() <= 0 ? "请求已超时" : "请求已取消";
+    return cause == null
+        ? new BusinessException(ErrorCode.RPC_CALL_TIMEOUT, message)
+        : new BusinessException(ErrorCode.RPC_CALL_TIMEOUT, message, cause);
+  }
+
+  private static void cancelQuietly(Statement statement) {
+    try {
+      statement.cancel();
+    } catch (SQLException e) {
+      log.debug("Failed to cancel statement: {}", e.getMessage());
+    }
+  }
+}
@@ -0,0 +1,84 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import java.util.function.Supplier;
+
+/**
+ * 当前线程所属请求的截止时间。
+ *
+ * <p>由Web层在请求进入时设置，{@link DeadlineStatementInterceptor}和{@link DeadlineJdbcTemplate}
+ * 据此设置查询超时；未设置时不限制。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class DeadlineContext {
+
+  private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+  private DeadlineContext() {
+  }
+
+  /**
+   * 获取当前截止时间
+   *
+   * @return 当前截止时间，未设置时为null
+   */
+  public static Deadline current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * 设置当前截止时间
+   *
+   * @param deadline 截止时间
+   */
+  public static void set(Deadline deadline) {
+    CURRENT.set(deadline);
+  }
+
+  /** 清除当前截止时间 */
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  /**
+   * 在截止时间内执行操作
+   *
+   * <p>执行前已过期则快速失败；执行中因过期或取消而失败时，统一转换为RPC_CALL_TIMEOUT。
+   *
+   * @param action 操作
+   * @param <T> 返回值类型
+   * @return 操作结果
+   */
+  public static <T> T call(Supplier<T> action) {
+    Deadline deadline = CURRENT.get();
+    if (deadline == null) {
+      return action.get();
+    }
+    deadline.check();
+    try {
+      return action.get();
+    } catch (RuntimeException e) {
+      if (deadline.isExpired()) {
+        throw deadline.timeout(e);
+      }
+      throw e;
+    }
+  }
+}
@@ -0,0 +1,48 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+
+/**
+ * 把请求截止时间应用到查询超时的JdbcTemplate。
+ *
+ * <p>不经过MyBatis的仓储（例如分片仓储）使用该模板，语句创建后按{@link DeadlineContext}的剩余时间设置查询超时；
+ * 已过期时在执行前快速失败。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class DeadlineJdbcTemplate extends JdbcTemplate {
+
+  public DeadlineJdbcTemplate(DataSource dataSource) {
+    super(dataSource);
+  }
+
+  @Override
+  protected void applyStatementSettings(Statement statement) throws SQLException {
+    super.applyStatementSettings(statement);
+    Deadline deadline = DeadlineContext.current();
+    if (deadline != null) {
+      deadline.applyTimeoutTo(statement);
+    }
+  }
+}
@@ -0,0 +1,70 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import org.apache.ibatis.executor.statement.StatementHandler;
+import org.apache.ibatis.plugin.Interceptor;
+import org.apache.ibatis.plugin.Intercepts;
+import org.apache.ibatis.plugin.Invocation;
+import org.apache.ibatis.plugin.Signature;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * 把请求截止时间应用到MyBatis执行的每条语句上。
+ *
+ * <p>语句准备完成后按剩余时间设置查询超时并登记到{@link Deadline}，执行结束后解除登记；
+ * 分页插件的COUNT查询同样经过该拦截器。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Intercepts({
+  @Signature(
+      type = StatementHandler.class,
+      method = "prepare",
+      args = {Connection.class, Integer.class}),
+  @Signature(
+      type = StatementHandler.class,
+      method = "query",
+      args = {Statement.class, ResultHandler.class}),
+  @Signature(type = StatementHandler.class, method = "update", args = Statement.class),
+  @Signature(type = StatementHandler.class, method = "batch", args = Statement.class)
+})
+public class DeadlineStatementInterceptor implements Interceptor {
+
+  @Override
+  public Object intercept(Invocation invocation) throws Throwable {
+    Deadline deadline = DeadlineContext.current();
+    if (deadline == null) {
+      return invocation.proceed();
+    }
+    if ("prepare".equals(invocation.getMethod().getName())) {
+      Statement statement = (Statement) invocation.proceed();
+      deadline.applyTo(statement);
+      return statement;
+    }
+    Statement statement = (Statement) invocation.getArgs()[0];
+    try {
+      return invocation.proceed();
+    } finally {
+      deadline.release(statement);
+    }
+  }
+}
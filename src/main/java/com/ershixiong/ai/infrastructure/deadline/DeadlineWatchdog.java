@@ -0,0 +1,67 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 截止时间看门狗。
+ *
+ * <p>在截止时间到达时取消请求，中止仍在执行的语句。JDBC查询超时只能精确到秒，
+ * 看门狗保证客户端放弃等待的同时服务端也停止查询。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Component
+public class DeadlineWatchdog implements AutoCloseable {
+
+  private final ScheduledThreadPoolExecutor scheduler;
+
+  public DeadlineWatchdog() {
+    scheduler =
+        new ScheduledThreadPoolExecutor(
+            1,
+            runnable -> {
+              Thread thread = new Thread(runnable, "city-deadline-watchdog");
+              thread.setDaemon(true);
+              return thread;
+            });
+    // 大部分请求在截止时间前完成，取消的任务立即移出队列
+    scheduler.setRemoveOnCancelPolicy(true);
+  }
+
+  /**
+   * 在截止时间到达时取消请求
+   *
+   * @param deadline 截止时间
+   * @return 定时任务，请求提前完成时应取消
+   */
+  public ScheduledFuture<?> watch(Deadline deadline) {
+    return scheduler.schedule(
+        deadline::cancel, deadline.remaining().toNanos(), TimeUnit.NANOSECONDS);
+  }
+
+  @Override
+  public void close() {
+    scheduler.shutdownNow();
+  }
+}
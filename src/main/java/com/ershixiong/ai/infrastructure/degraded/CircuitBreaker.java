@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+/**
+ * 数据库熔断器。
+ *
+ * <p>按连续失败次数熔断，状态转换如下：
+ *
+ * <ul>
+ *   <li>CLOSED: 正常访问数据库，连续失败达到failure-threshold次后进入OPEN
+ *   <li>OPEN: 不访问数据库，经过open-duration后进入HALF_OPEN
+ *   <li>HALF_OPEN: 最多放行half-open-probes个探测请求，全部成功后回到CLOSED，任一失败重新进入OPEN
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class CircuitBreaker {
+
+  /** 熔断器状态 */
+  public enum State {
+    CLOSED,
+    OPEN,
+    HALF_OPEN
+  }
+
+  private final int failureThreshold;
+  private final long openNanos;
+  private final int halfOpenProbes;
+  private final LongSupplier nanoTime;
+
+  private State state = State.CLOSED;
+  private int consecutiveFailures;
+  private long openedAtNanos;
+  private int probesInFlight;
+  private int probeSuccesses;
+  private long opened;
+
+  public CircuitBreaker(int failureThreshold, Duration openDuration, int halfOpenProbes) {
+    this(failureThreshold, openDuration, halfOpenProbes, System::nanoTime);
+  }
+
+  CircuitBreaker(
+      int failureThreshold, Duration openDuration, int halfOpenProbes, LongSupplier nanoTime) {
+    this.failureThreshold = failureThreshold;
+    this.openNanos = openDuration.toNanos();
+    this.halfOpenProbes = halfOpenProbes;
+    this.nanoTime = nanoTime;
+  }
+
+  /**
+   * 申请访问数据库
+   *
+   * @return 允许访问时返回true，调用方必须随后调用{@link #onSuccess()}或{@link #onFailure()}
+   */
+  public synchronized boolean tryAcquire() {
+    if (state == State.OPEN && nanoTime.getAsLong() - openedAtNanos >= openNanos) {
+      state = State.HALF_OPEN;
+      probesInFlight = 0;
+      probeSuccesses = 0;
+    }
+    if (state == State.CLOSED) {
+      return true;
+    }
+    if (state == State.OPEN || probesInFlight + probeSuccesses >= halfOpenProbes) {
+      return false;
+    }
+    probesInFlight++;
+    return true;
+  }
+
+  /** 记录一次成功访问 */
+  public synchronized void onSuccess() {
+    if (state == State.HALF_OPEN) {
+      probesInFlight = Math.max(0, probesInFlight - 1);
+      if (++probeSuccesses >= halfOpenProbes) {
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+      }
+      return;
+    }
+    consecutiveFailures = 0;
+  }
+
+  /** 记录一次连接或超时失败 */
+  public synchronized void onFailure() {
+    if (state == State.HALF_OPEN || ++consecutiveFailures >= failureThreshold) {
+      open();
+    }
+  }
+
+  /** 归还一次未产生结论的访问，例如业务异常 */
+  public synchronized void release() {
+    if (state == State.HALF_OPEN) {
+      probesInFlight = Math.max(0, probesInFlight - 1);
+    } else {
+      consecutiveFailures = 0;
+    }
+  }
+
+  /** 当前状态 */
+  public synchronized State getState() {
+    return state;
+  }
+
+  /** 累计熔断次数 */
+  public synchronized long getOpened() {
+    return opened;
+  }
+
+  private void open() {
+    if (state != State.OPEN) {
+      opened++;
+    }
+    state = State.OPEN;
+    openedAtNanos = nanoTime.getAsLong();
+    probesInFlight = 0;
+    probeSuccesses = 0;
+  }
+}
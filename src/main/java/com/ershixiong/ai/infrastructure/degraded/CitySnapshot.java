@@ -0,0 +1,263 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.NavigableMap;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 城市表的本地只读快照。
+ *
+ * <p>通过{@link CityChangeRepository}按版本增量追赶，供数据库不可用时降级读取：
+ *
+ * <ul>
+ *   <li>首次刷新从头全量加载，此后每次只拉取上次版本之后的新增、更新和删除
+ *   <li>增量令牌早于墓碑压缩水位线时丢弃快照并全量重建
+ *   <li>每次刷新生成新的不可变视图后整体替换，读取无需加锁
+ *   <li>可以定期写入{@link CitySnapshotFile}，启动时先从文件恢复再按版本追赶，新实例无需从头全量加载
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CitySnapshot {
+
+  private final CityChangeRepository cityChangeRepository;
+  private final int batchSize;
+  /** 串行化刷新和恢复；刷新期间分批读取数据库，使用ReentrantLock以免固定虚拟线程 */
+  private final ReentrantLock refreshLock = new ReentrantLock();
+
+  private volatile View view;
+  private volatile long persistedVersion = Long.MIN_VALUE;
+
+  public CitySnapshot(CityChangeRepository cityChangeRepository, int batchSize) {
+    this.cityChangeRepository = cityChangeRepository;
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * 从数据库追赶到最新版本
+   *
+   * @return 本次应用的变更条数
+   */
+  public int refresh() {
+    refreshLock.lock();
+    try {
+      View current = view;
+      long version = current == null ? -1L : current.version();
+      NavigableMap<Long, City> cities = null;
+      int applied = 0;
+      CityChangeSet changes;
+      do {
+        changes = cityChangeRepository.findChangesSince(version, batchSize);
+        if (changes.isResetRequired()) {
+          log.warn("City snapshot fell behind the tombstone horizon, rebuilding");
+          version = -1L;
+          cities = new TreeMap<>();
+          continue;
+        }
+        if (!changes.getUpserts().isEmpty() || !changes.getDeletedIds().isEmpty()) {
+          if (cities == null) {
+            cities = current == null ? new TreeMap<>() : new TreeMap<>(current.cities());
+          }
+          for (City city : changes.getUpserts()) {
+            cities.put(city.getId(), copy(city));
+          }
+          changes.getDeletedIds().forEach(cities::remove);
+          applied += changes.getUpserts().size() + changes.getDeletedIds().size();
+        }
+        version = changes.getLastVersion();
+      } while (changes.isHasMore() || changes.isResetRequired());
+      if (cities == null) {
+        cities = current == null ? new TreeMap<>() : current.cities();
+      }
+      view = new View(Collections.unmodifiableNavigableMap(cities), version, Instant.now());
+      return applied;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * 从快照文件恢复，只在首次加载前生效
+   *
+   * @param file 快照文件
+   * @return 是否已恢复
+   * @throws IOException 读取失败或文件损坏
+   */
+  public boolean restore(Path file) throws IOException {
+    refreshLock.lock();
+    try {
+      if (view != null) {
+        return false;
+      }
+      CitySnapshotFile.Contents contents = CitySnapshotFile.read(file);
+      NavigableMap<Long, City> cities = new TreeMap<>();
+      for (City city : contents.cities()) {
+        cities.put(city.getId(), city);
+      }
+      view =
+          new View(
+              Collections.unmodifiableNavigableMap(cities),
+              contents.version(),
+              contents.writtenAt());
+      persistedVersion = contents.version();
+      return true;
+    } finally {
+      refreshLock.unlock();
+    }
+  }
+
+  /**
+   * 把当前快照写入文件，版本与上次写入相同时跳过
+   *
+   * @param file 快照文件
+   * @return 是否写入
+   * @throws IOException 写入失败
+   */
+  public boolean persist(Path file) throws IOException {
+    View current = view;
+    if (current == null || current.version() == persistedVersion) {
+      return false;
+    }
+    CitySnapshotFile.write(file, current.cities().values(), current.version());
+    persistedVersion = current.version();
+    return true;
+  }
+
+  /** 快照是否已完成首次加载 */
+  public boolean isReady() {
+    return view != null;
+  }
+
+  /** 快照对应的数据库版本，未加载时为-1 */
+  public long getVersion() {
+    View current = view;
+    return current == null ? -1L : current.version();
+  }
+
+  /** 最近一次成功刷新的时间，未加载时为null */
+  public Instant getRefreshedAt() {
+    View current = view;
+    return current == null ? null : current.refreshedAt();
+  }
+
+  /** 快照中的城市数 */
+  public int size() {
+    View current = view;
+    return current == null ? 0 : current.cities().size();
+  }
+
+  /**
+   * 根据ID查询城市
+   *
+   * @param id 城市ID
+   * @return 城市副本
+   */
+  public Optional<City> findById(Long id) {
+    return Optional.ofNullable(require().cities().get(id)).map(CitySnapshot::copy);
+  }
+
+  /**
+   * 按ID升序查询所有城市
+   *
+   * @return 城市副本列表
+   */
+  public List<City> findAll() {
+    List<City> result = new ArrayList<>();
+    scanAll(result::add);
+    return result;
+  }
+
+  /**
+   * 按ID升序遍历所有城市
+   *
+   * @param consumer 城市处理函数
+   */
+  public void scanAll(Consumer<City> consumer) {
+    for (City city : require().cities().values()) {
+      consumer.accept(copy(city));
+    }
+  }
+
+  /**
+   * 按LIKE模式匹配名称，不区分大小写，按ID升序分页
+   *
+   * @param namePattern 名称模式，%匹配任意字符串，_匹配单个字符，反斜杠转义
+   * @param page 分页参数
+   * @return 分页的城市列表
+   */
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    Pattern pattern = LikePattern.compile(namePattern);
+    long offset = (page.getCurrent() - 1) * page.getSize();
+    List<City> records = new ArrayList<>();
+    long total = 0;
+    for (City city : require().cities().values()) {
+      if (city.getName() == null || !pattern.matcher(city.getName()).matches()) {
+        continue;
+      }
+      if (total >= offset && records.size() < page.getSize()) {
+        records.add(copy(city));
+      }
+      total++;
+    }
+    Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total);
+    result.setRecords(records);
+    return result;
+  }
+
+  private View require() {
+    View current = view;
+    if (current == null) {
+      throw new IllegalStateException("City snapshot is not loaded");
+    }
+    return current;
+  }
+
+  private static City copy(City city) {
+    return City.builder()
+        .id(city.getId())
+        .name(city.getName())
+        .countrycode(city.getCountrycode())
+        .district(city.getDistrict())
+        .population(city.getPopulation())
+        .version(city.getVersion())
+        .build();
+  }
+
+  /** 快照的不可变视图 */
+  private record View(NavigableMap<Long, City> cities, long version, Instant refreshedAt) {
+  }
+}
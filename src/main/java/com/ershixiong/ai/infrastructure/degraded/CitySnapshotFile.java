@@ -0,0 +1,248 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import com.ershixiong.ai.domain.model.City;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.zip.CRC32C;
+
+/**
+ * 城市快照文件的读写。
+ *
+ * <p>文件由定长文件头和定长记录组成，加载时整体内存映射后按偏移解码，不逐行解析：
+ *
+ * <pre>
+ * 文件头（64字节）
+ *   0  魔数 "CITYSNAP"        8字节
+ *   8  格式版本               int
+ *   12 记录长度               int
+ *   16 数据版本（city.version） long
+ *   24 写入时间（毫秒）        long
+ *   32 记录数                 int
+ *   36 CRC32C校验和           int，覆盖文件头前36字节和全部记录
+ *   40 保留                   24字节
+ * 记录（428字节）
+ *   0   id                    long
+ *   8   version               long，-1表示空
+ *   16  population            int，Integer.MIN_VALUE表示空
+ *   20  countrycode           1字节长度（-1表示空）+ 3字节
+ *   24  name                  short长度（-1表示空）+ 200字节UTF-8
+ *   226 district              short长度（-1表示空）+ 200字节UTF-8
+ * </pre>
+ *
+ * <p>写入时先写临时文件并刷盘，再原子替换正式文件，进程崩溃不会留下半个快照。
+ * 格式版本、记录长度或校验和不匹配时拒绝加载。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class CitySnapshotFile {
+
+  static final int FORMAT_VERSION = 1;
+  static final int HEADER_SIZE = 64;
+  static final int RECORD_SIZE = 428;
+
+  private static final byte[] MAGIC = "CITYSNAP".getBytes(StandardCharsets.US_ASCII);
+  private static final int CHECKSUMMED_HEADER = 36;
+  private static final int COUNTRYCODE_BYTES = 3;
+  private static final int TEXT_BYTES = 200;
+
+  private CitySnapshotFile() {
+  }
+
+  /**
+   * 快照文件内容
+   *
+   * @param cities 按ID升序排列的城市
+   * @param version 数据版本
+   * @param writtenAt 写入时间
+   */
+  public record Contents(List<City> cities, long version, Instant writtenAt) {
+  }
+
+  /**
+   * 写入快照文件
+   *
+   * @param file 快照文件
+   * @param cities 按ID升序排列的城市
+   * @param version 数据版本
+   * @throws IOException 写入失败
+   * @throws IllegalArgumentException 字段超出定长记录的容量
+   */
+  public static void write(Path file, Collection<City> cities, long version) throws IOException {
+    Path dir = file.toAbsolutePath().getParent();
+    Files.createDirectories(dir);
+    Path tmp = Files.createTempFile(dir, file.getFileName().toString(), ".tmp");
+    try {
+      long size = HEADER_SIZE + (long) RECORD_SIZE * cities.size();
+      try (FileChannel channel =
+          FileChannel.open(tmp, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+        MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.put(MAGIC);
+        buffer.putInt(FORMAT_VERSION);
+        buffer.putInt(RECORD_SIZE);
+        buffer.putLong(version);
+        buffer.putLong(System.currentTimeMillis());
+        buffer.putInt(cities.size());
+        int position = HEADER_SIZE;
+        for (City city : cities) {
+          writeRecord(buffer.position(position), city);
+          position += RECORD_SIZE;
+        }
+        buffer.putInt(CHECKSUMMED_HEADER, checksum(buffer, cities.size()));
+        buffer.force();
+      }
+      Files.move(tmp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    } finally {
+      Files.deleteIfExists(tmp);
+    }
+  }
+
+  /**
+   * 以内存映射方式读取快照文件
+   *
+   * @param file 快照文件
+   * @return 文件内容
+   * @throws IOException 读取失败，或文件格式、校验和不匹配
+   */
+  public static Contents read(Path file) throws IOException {
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+      long size = channel.size();
+      if (size < HEADER_SIZE) {
+        throw new IOException("City snapshot file is truncated: " + file);
+      }
+      MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+      byte[] magic = new byte[MAGIC.length];
+      buffer.get(magic);
+      int formatVersion = buffer.getInt();
+      int recordSize = buffer.getInt();
+      if (!Arrays.equals(magic, MAGIC)
+          || formatVersion != FORMAT_VERSION
+          || recordSize != RECORD_SIZE) {
+        throw new IOException("Unsupported city snapshot format: " + file);
+      }
+      long version = buffer.getLong();
+      Instant writtenAt = Instant.ofEpochMilli(buffer.getLong());
+      int count = buffer.getInt();
+      if (count < 0 || size != HEADER_SIZE + (long) RECORD_SIZE * count) {
+        throw new IOException("City snapshot file is truncated: " + file);
+      }
+      if (buffer.getInt(CHECKSUMMED_HEADER) != checksum(buffer, count)) {
+        throw new IOException("City snapshot checksum mismatch: " + file);
+      }
+      List<City> cities = new ArrayList<>(count);
+      for (int i = 0; i < count; i++) {
+        cities.add(readRecord(buffer.position(HEADER_SIZE + i * RECORD_SIZE)));
+      }
+      return new Contents(cities, version, writtenAt);
+    }
+  }
+
+  private static int checksum(ByteBuffer buffer, int count) {
+    CRC32C crc = new CRC32C();
+    crc.update(buffer.duplicate().position(0).limit(CHECKSUMMED_HEADER));
+    crc.update(
+        buffer.duplicate().position(HEADER_SIZE).limit(HEADER_SIZE + RECORD_SIZE * count));
+    return (int) crc.getValue();
+  }
+
+  private static void writeRecord(ByteBuffer buffer, City city) {
+    buffer.putLong(city.getId());
+    buffer.putLong(city.getVersion() == null ? -1L : city.getVersion());
+    buffer.putInt(city.getPopulation() == null ? Integer.MIN_VALUE : city.getPopulation());
+    int start = buffer.position();
+    if (city.getCountrycode() == null) {
+      buffer.put((byte) -1);
+    } else {
+      byte[] countrycode = city.getCountrycode().getBytes(StandardCharsets.UTF_8);
+      if (countrycode.length > COUNTRYCODE_BYTES) {
+        throw new IllegalArgumentException("Country code too long for city " + city.getId());
+      }
+      buffer.put((byte) countrycode.length);
+      buffer.put(countrycode);
+    }
+    buffer.position(start + 1 + COUNTRYCODE_BYTES);
+    writeText(buffer, city.getName(), city.getId());
+    writeText(buffer, city.getDistrict(), city.getId());
+  }
+
+  private static void writeText(ByteBuffer buffer, String value, Long id) {
+    int start = buffer.position();
+    if (value == null) {
+      buffer.putShort((short) -1);
+    } else {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      if (bytes.length > TEXT_BYTES) {
+        throw new IllegalArgumentException("Text field too long for city " + id);
+      }
+      buffer.putShort((short) bytes.length);
+      buffer.put(bytes);
+    }
+    buffer.position(start + Short.BYTES + TEXT_BYTES);
+  }
+
+  private static City readRecord(ByteBuffer buffer) {
+    long id = buffer.getLong();
+    long version = buffer.getLong();
+    int population = buffer.getInt();
+    int start = buffer.position();
+    byte length = buffer.get();
+    String countrycode = null;
+    if (length >= 0) {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      countrycode = new String(bytes, StandardCharsets.UTF_8);
+    }
+    buffer.position(start + 1 + COUNTRYCODE_BYTES);
+    String name = readText(buffer);
+    String district = readText(buffer);
+    return new City(
+        id,
+        name,
+        countrycode,
+        district,
+        population == Integer.MIN_VALUE ? null : population,
+        version < 0 ? null : version);
+  }
+
+  private static String readText(ByteBuffer buffer) {
+    int start = buffer.position();
+    short length = buffer.getShort();
+    String value = null;
+    if (length >= 0) {
+      byte[] bytes = new byte[length];
+      buffer.get(bytes);
+      value = new String(bytes, StandardCharsets.UTF_8);
+    }
+    buffer.position(start + Short.BYTES + TEXT_BYTES);
+    return value;
+  }
+}
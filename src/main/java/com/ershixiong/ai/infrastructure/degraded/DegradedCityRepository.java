@@ -0,0 +1,238 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityPopulationScans;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CitySearchScans;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.dao.TransientDataAccessResourceException;
+
+import java.net.ConnectException;
+import java.sql.SQLNonTransientConnectionException;
+import java.sql.SQLTimeoutException;
+import java.sql.SQLTransientConnectionException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+
+/**
+ * 带熔断和快照降级的城市仓储装饰器。
+ *
+ * <p>数据库连接失败或查询超时计入{@link CircuitBreaker}，熔断期间进入只读降级模式：
+ *
+ * <ul>
+ *   <li>读操作从{@link CitySnapshot}返回，并通过{@link StaleReadContext}标记本次响应数据可能过期
+ *   <li>熔断前的单次连接或超时失败同样降级为快照读取
+ *   <li>写操作直接失败，返回RPC_SERVICE_UNAVAILABLE
+ *   <li>快照尚未加载时无法降级：熔断期间的读操作返回RPC_SERVICE_UNAVAILABLE，单次失败原样抛出
+ * </ul>
+ *
+ * <p>请求自身的截止时间到期导致的超时不计入熔断，避免客户端设置过短的超时触发熔断。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class DegradedCityRepository implements CityRepository {
+
+  private final CityRepository delegate;
+  private final CircuitBreaker breaker;
+  private final CitySnapshot snapshot;
+
+  public DegradedCityRepository(
+      CityRepository delegate, CircuitBreaker breaker, CitySnapshot snapshot) {
+    this.delegate = delegate;
+    this.breaker = breaker;
+    this.snapshot = snapshot;
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    return read(() -> delegate.findById(id), () -> snapshot.findById(id));
+  }
+
+  /** 写入前镜像不从快照读取，熔断期间与写操作一样直接失败 */
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return write(() -> delegate.findByIdForWrite(id));
+  }
+
+  @Override
+  public List<City> findAll() {
+    return read(delegate::findAll, snapshot::findAll);
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    read(
+        () -> {
+          delegate.scanAll(consumer);
+          return null;
+        },
+        () -> {
+          snapshot.scanAll(consumer);
+          return null;
+        });
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return read(
+        () -> delegate.findByNameLike(namePattern, page),
+        () -> snapshot.findByNameLike(namePattern, page));
+  }
+
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return read(
+        () -> delegate.search(query, page),
+        () -> CitySearchScans.search(snapshot::findByNameLike, query, page));
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    return read(
+        () -> delegate.findTopByPopulation(countrycode, limit),
+        () -> CityPopulationScans.findTop(snapshot::scanAll, countrycode, limit));
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return read(
+        () -> delegate.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page),
+        () ->
+            CityPopulationScans.findBetween(
+                snapshot::scanAll, countrycode, minPopulation, maxPopulation, page));
+  }
+
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return read(
+        () -> delegate.findPopulationRank(id),
+        () ->
+            snapshot
+                .findById(id)
+                .map(city -> CityPopulationScans.rank(snapshot::scanAll, city)));
+  }
+
+
+  @Override
+  public City save(City city) {
+    return write(() -> delegate.save(city));
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    write(
+        () -> {
+          delegate.deleteById(id);
+          return null;
+        });
+  }
+
+  private <T> T read(Supplier<T> query, Supplier<T> fallback) {
+    if (!breaker.tryAcquire()) {
+      return fromSnapshot(fallback, null);
+    }
+    T result;
+    try {
+      result = query.get();
+    } catch (RuntimeException e) {
+      if (!recordFailure(e)) {
+        throw e;
+      }
+      return fromSnapshot(fallback, e);
+    }
+    breaker.onSuccess();
+    return result;
+  }
+
+  private <T> T write(Supplier<T> action) {
+    if (!breaker.tryAcquire()) {
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "数据库不可用，暂停写入");
+    }
+    T result;
+    try {
+      result = action.get();
+    } catch (RuntimeException e) {
+      recordFailure(e);
+      throw e;
+    }
+    breaker.onSuccess();
+    return result;
+  }
+
+  /**
+   * 记录失败，连接和超时失败计入熔断，其余异常说明数据库可达
+   *
+   * @param e 异常
+   * @return 是否为连接或超时失败
+   */
+  private boolean recordFailure(RuntimeException e) {
+    Deadline deadline = DeadlineContext.current();
+    if (!isUnavailable(e) || (deadline != null && deadline.isExpired())) {
+      breaker.release();
+      return false;
+    }
+    breaker.onFailure();
+    log.warn("City database unavailable, breaker {}: {}", breaker.getState(), e.getMessage());
+    return true;
+  }
+
+  private <T> T fromSnapshot(Supplier<T> fallback, RuntimeException cause) {
+    if (!snapshot.isReady()) {
+      if (cause != null) {
+        throw cause;
+      }
+      throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "数据库不可用，本地快照尚未加载");
+    }
+    StaleReadContext.markStale(snapshot.getRefreshedAt());
+    return fallback.get();
+  }
+
+  static boolean isUnavailable(Throwable e) {
+    for (Throwable t = e; t != null; t = t.getCause()) {
+      if (t instanceof DataAccessResourceFailureException
+          || t instanceof QueryTimeoutException
+          || t instanceof TransientDataAccessResourceException
+          || t instanceof SQLTransientConnectionException
+          || t instanceof SQLNonTransientConnectionException
+          || t instanceof SQLTimeoutException
+          || t instanceof ConnectException) {
+        return true;
+      }
+      if (t.getCause() == t) {
+        break;
+      }
+    }
+    return false;
+  }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import java.time.Instant;
+
+/**
+ * 当前请求的过期读取标记。
+ *
+ * <p>熔断期间仓储从本地快照返回数据时在请求上下文中记录快照时间，Web层据此在响应中标记数据可能过期。
+ * 上下文对象在请求线程和异步查询线程间共享，因此标记为volatile；未开启请求上下文时标记被忽略。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class StaleReadContext {
+
+  private static final ThreadLocal<StaleReadContext> CURRENT = new ThreadLocal<>();
+
+  private volatile Instant snapshotTime;
+
+  private StaleReadContext() {
+  }
+
+  /**
+   * 在当前线程开启请求上下文
+   *
+   * @return 请求上下文
+   */
+  public static StaleReadContext begin() {
+    StaleReadContext context = new StaleReadContext();
+    CURRENT.set(context);
+    return context;
+  }
+
+  /**
+   * 获取当前线程的请求上下文
+   *
+   * @return 请求上下文，未开启时为null
+   */
+  public static StaleReadContext current() {
+    return CURRENT.get();
+  }
+
+  /**
+   * 在当前线程恢复请求上下文
+   *
+   * @param context 请求上下文，为null时清除
+   */
+  public static void set(StaleReadContext context) {
+    if (context == null) {
+      CURRENT.remove();
+    } else {
+      CURRENT.set(context);
+    }
+  }
+
+  /** 清除当前线程的请求上下文 */
+  public static void clear() {
+    CURRENT.remove();
+  }
+
+  /**
+   * 标记本次请求读取了快照数据，同一请求多次读取时保留最早的快照时间
+   *
+   * @param snapshotTime 快照时间
+   */
+  public static void markStale(Instant snapshotTime) {
+    StaleReadContext context = CURRENT.get();
+    if (context == null) {
+      return;
+    }
+    synchronized (context) {
+      if (context.snapshotTime == null || snapshotTime.isBefore(context.snapshotTime)) {
+        context.snapshotTime = snapshotTime;
+      }
+    }
+  }
+
+  /** 本次请求是否读取了快照数据 */
+  public boolean isStale() {
+    return snapshotTime != null;
+  }
+
+  /** 读取的快照时间，未读取快照时为null */
+  public Instant getSnapshotTime() {
+    return snapshotTime;
+  }
+}
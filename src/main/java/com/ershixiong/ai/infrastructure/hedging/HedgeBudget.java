@@ -0,0 +1,72 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.hedging;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 对冲请求预算。
+ *
+ * <p>令牌桶实现：每个原始请求存入ratio个令牌，每次对冲消耗1个令牌，
+ * 因此长期看对冲请求不超过原始请求的ratio倍。令牌上限为max-tokens，避免空闲期积累过多令牌后集中对冲。
+ * 令牌以千分之一为单位存储，全程无锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class HedgeBudget {
+
+  private static final long SCALE = 1000L;
+
+  private final long depositPerRequest;
+  private final long maxBalance;
+  private final AtomicLong balance = new AtomicLong();
+
+  /**
+   * 创建对冲预算
+   *
+   * @param ratio 对冲请求占原始请求的最大比例，例如0.1表示最多增加10%的负载
+   * @param maxTokens 令牌上限
+   */
+  public HedgeBudget(double ratio, int maxTokens) {
+    this.depositPerRequest = Math.round(ratio * SCALE);
+    this.maxBalance = maxTokens * SCALE;
+  }
+
+  /** 记录一次原始请求 */
+  public void deposit() {
+    balance.accumulateAndGet(
+        depositPerRequest, (current, add) -> Math.min(maxBalance, current + add));
+  }
+
+  /**
+   * 尝试为一次对冲请求扣减令牌
+   *
+   * @return 预算是否充足
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      long current = balance.get();
+      if (current < SCALE) {
+        return false;
+      }
+      if (balance.compareAndSet(current, current - SCALE)) {
+        return true;
+      }
+    }
+  }
+}
@@ -0,0 +1,320 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.hedging;
+
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import lombok.extern.slf4j.Slf4j;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+/**
+ * 对冲查询执行器。
+ *
+ * <p>先向第一个从库发出查询，若在对冲延迟内未返回，再向第二个从库发出相同查询：
+ *
+ * <ul>
+ *   <li>对冲延迟取最近查询耗时的分位数，见{@link LatencyTracker}
+ *   <li>对冲次数受{@link HedgeBudget}限制，预算不足时继续等待第一个查询
+ *   <li>先成功返回的结果胜出，另一个查询通过{@link Statement#cancel()}取消，释放从库资源
+ *   <li>整个对冲查询受查询超时和请求截止时间（{@link DeadlineContext}）中较早者约束，
+ *       等待和从库上的语句都不会超过该时长；截止时间被取消时从库语句随之中止
+ *   <li>所有尝试都失败、超时或线程池已满时，执行调用方提供的兜底查询
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class HedgedQueryExecutor implements AutoCloseable {
+
+  private final ExecutorService executor;
+  private final LatencyTracker latencyTracker;
+  private final HedgeBudget budget;
+  private final long queryTimeoutNanos;
+  private final AtomicLong queries = new AtomicLong();
+  private final AtomicLong hedgesIssued = new AtomicLong();
+  private final AtomicLong hedgesWon = new AtomicLong();
+  private final AtomicLong budgetExhausted = new AtomicLong();
+  private final AtomicLong fallbacks = new AtomicLong();
+
+  public HedgedQueryExecutor(
+      ExecutorService executor,
+      LatencyTracker latencyTracker,
+      HedgeBudget budget,
+      Duration queryTimeout) {
+    this.executor = executor;
+    this.latencyTracker = latencyTracker;
+    this.budget = budget;
+    this.queryTimeoutNanos = queryTimeout.toNanos();
+  }
+
+  /**
+   * 在从库上执行对冲查询
+   *
+   * @param replicas 候选从库，按优先顺序排列，至少需要两个才会对冲
+   * @param sql 查询语句
+   * @param callback 绑定参数、执行查询并映射结果
+   * @param fallback 无法在从库上完成时的兜底查询
+   * @param <T> 结果类型
+   * @return 查询结果
+   */
+  public <T> T query(
+      List<DataSource> replicas, String sql, StatementCallback<T> callback, Fallback<T> fallback) {
+    if (replicas.size() < 2) {
+      return fallback.get();
+    }
+    queries.incrementAndGet();
+    budget.deposit();
+    Deadline requestDeadline = DeadlineContext.current();
+    long deadline = System.nanoTime() + queryTimeoutNanos;
+    if (requestDeadline != null) {
+      deadline = Math.min(deadline, System.nanoTime() + requestDeadline.remaining().toNanos());
+    }
+    Race<T> race = new Race<>(deadline, requestDeadline);
+    try {
+      Attempt<T> first = race.start(replicas.get(0), sql, callback);
+      try {
+        return first.future.get(
+            Math.min(latencyTracker.delayNanos(), remainingNanos(deadline)), TimeUnit.NANOSECONDS);
+      } catch (TimeoutException e) {
+        // 第一个查询过慢，尝试对冲
+      } catch (ExecutionException e) {
+        // 第一个查询失败，直接在另一个从库上重试
+      }
+      if (!first.future.isCompletedExceptionally() && !budget.tryAcquire()) {
+        budgetExhausted.incrementAndGet();
+        return first.future.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      }
+      hedgesIssued.incrementAndGet();
+      race.start(replicas.get(1), sql, callback);
+      Attempt<T> winner = race.winner.get(remainingNanos(deadline), TimeUnit.NANOSECONDS);
+      race.cancelLosers(winner);
+      if (winner != first) {
+        hedgesWon.incrementAndGet();
+      }
+      return winner.future.get();
+    } catch (TimeoutException e) {
+      race.cancelLosers(null);
+      fallbacks.incrementAndGet();
+      log.warn(
+          "Hedged replica query exceeded {}ms, falling back",
+          TimeUnit.NANOSECONDS.toMillis(queryTimeoutNanos));
+      return fallback.get();
+    } catch (ExecutionException | RejectedExecutionException e) {
+      race.cancelLosers(null);
+      fallbacks.incrementAndGet();
+      log.warn("Hedged replica query failed, falling back: {}", e.getMessage());
+      return fallback.get();
+    } catch (InterruptedException e) {
+      race.cancelLosers(null);
+      Thread.currentThread().interrupt();
+      throw new IllegalStateException("Interrupted while waiting for replica query", e);
+    }
+  }
+
+  /**
+   * 获取对冲查询总数
+   *
+   * @return 查询数
+   */
+  public long getQueries() {
+    return queries.get();
+  }
+
+  /**
+   * 获取已发出的对冲请求数
+   *
+   * @return 对冲数
+   */
+  public long getHedgesIssued() {
+    return hedgesIssued.get();
+  }
+
+  /**
+   * 获取对冲请求先于原始请求返回的次数
+   *
+   * @return 对冲胜出数
+   */
+  public long getHedgesWon() {
+    return hedgesWon.get();
+  }
+
+  /**
+   * 获取因预算不足放弃对冲的次数
+   *
+   * @return 预算耗尽次数
+   */
+  public long getBudgetExhausted() {
+    return budgetExhausted.get();
+  }
+
+  /**
+   * 获取执行兜底查询的次数
+   *
+   * @return 兜底次数
+   */
+  public long getFallbacks() {
+    return fallbacks.get();
+  }
+
+  private static long remainingNanos(long deadline) {
+    return Math.max(0L, deadline - System.nanoTime());
+  }
+
+  /** 关闭查询线程池 */
+  @Override
+  public void close() {
+    executor.shutdownNow();
+  }
+
+  /** 绑定参数、执行查询并映射结果 */
+  @FunctionalInterface
+  public interface StatementCallback<T> {
+    /**
+     * 在已准备好的语句上执行查询
+     *
+     * @param statement 预编译语句
+     * @return 查询结果
+     * @throws SQLException 查询失败或被取消
+     */
+    T doInStatement(PreparedStatement statement) throws SQLException;
+  }
+
+  /** 兜底查询 */
+  @FunctionalInterface
+  public interface Fallback<T> {
+    /**
+     * 执行兜底查询
+     *
+     * @return 查询结果
+     */
+    T get();
+  }
+
+  /** 一次对冲查询中的多个尝试，第一个成功的尝试胜出 */
+  private final class Race<T> {
+    private final CompletableFuture<Attempt<T>> winner = new CompletableFuture<>();
+    private final List<Attempt<T>> attempts = new CopyOnWriteArrayList<>();
+    private final AtomicInteger failures = new AtomicInteger();
+    private final long deadline;
+    private final Deadline requestDeadline;
+
+    Race(long deadline, Deadline requestDeadline) {
+      this.deadline = deadline;
+      this.requestDeadline = requestDeadline;
+    }
+
+    Attempt<T> start(DataSource dataSource, String sql, StatementCallback<T> callback) {
+      Attempt<T> attempt = new Attempt<>(deadline, requestDeadline);
+      attempts.add(attempt);
+      attempt.future =
+          CompletableFuture.supplyAsync(() -> attempt.run(dataSource, sql, callback), executor);
+      attempt.future.whenComplete(
+          (result, error) -> {
+            if (error == null) {
+              winner.complete(attempt);
+            } else if (failures.incrementAndGet() == 2) {
+              winner.completeExceptionally(error);
+            }
+          });
+      return attempt;
+    }
+
+    void cancelLosers(Attempt<T> keep) {
+      attempts.stream().filter(attempt -> attempt != keep).forEach(Attempt::cancel);
+    }
+  }
+
+  /** 单个从库上的查询尝试，持有语句以便取消 */
+  private final class Attempt<T> {
+    private final long deadline;
+    private final Deadline requestDeadline;
+    private volatile CompletableFuture<T> future;
+    private volatile Statement statement;
+    private volatile boolean cancelled;
+
+    Attempt(long deadline, Deadline requestDeadline) {
+      this.deadline = deadline;
+      this.requestDeadline = requestDeadline;
+    }
+
+    T run(DataSource dataSource, String sql, StatementCallback<T> callback) {
+      long start = System.nanoTime();
+      try (Connection connection = dataSource.getConnection();
+          PreparedStatement prepared = connection.prepareStatement(sql)) {
+        statement = prepared;
+        if (cancelled) {
+          throw new IllegalStateException("Replica query cancelled");
+        }
+        // JDBC查询超时以秒为单位，不足一秒按一秒计，更精确的中止由cancel完成
+        long remaining = remainingNanos(deadline);
+        prepared.setQueryTimeout(
+            (int) Math.max(1L, TimeUnit.NANOSECONDS.toSeconds(remaining - 1) + 1));
+        if (requestDeadline == null) {
+          return execute(prepared, callback, start);
+        }
+        // 登记到请求截止时间，看门狗或请求取消时一并中止从库语句
+        requestDeadline.applyTo(prepared);
+        try {
+          return execute(prepared, callback, start);
+        } finally {
+          requestDeadline.release(prepared);
+        }
+      } catch (SQLException e) {
+        throw new IllegalStateException(e.getMessage(), e);
+      } finally {
+        statement = null;
+      }
+    }
+
+    private T execute(PreparedStatement prepared, StatementCallback<T> callback, long start)
+        throws SQLException {
+      T result = callback.doInStatement(prepared);
+      latencyTracker.record(System.nanoTime() - start);
+      return result;
+    }
+
+    void cancel() {
+      cancelled = true;
+      Statement current = statement;
+      if (current == null) {
+        return;
+      }
+      try {
+        current.cancel();
+      } catch (SQLException e) {
+        log.debug("Failed to cancel replica query: {}", e.getMessage());
+      }
+    }
+  }
+}
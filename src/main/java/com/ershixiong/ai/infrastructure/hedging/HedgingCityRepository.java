@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.hedging;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.datasource.CityRoutingDataSource;
+
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 对冲读取的城市仓储装饰器。
+ *
+ * <p>按ID查询时通过{@link HedgedQueryExecutor}在两个从库上对冲，削减GC停顿、缓冲池未命中等偶发慢查询
+ * 造成的长尾延迟：
+ *
+ * <ul>
+ *   <li>候选从库由{@link CityRoutingDataSource}按延迟和一致性令牌筛选，可用从库少于两个时不对冲
+ *   <li>查询直接使用JDBC语句执行，落败的查询可以被取消
+ *   <li>列表和搜索查询扫描量大，对冲会成倍放大从库负载，直接透传给下层仓储
+ *   <li>写操作直接透传给下层仓储
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class HedgingCityRepository implements CityRepository {
+
+  static final String FIND_BY_ID_SQL =
+      "SELECT id, name, countrycode, district, population, version FROM city WHERE id = ?";
+
+  private final CityRepository delegate;
+  private final CityRoutingDataSource routingDataSource;
+  private final HedgedQueryExecutor executor;
+
+  public HedgingCityRepository(
+      CityRepository delegate,
+      CityRoutingDataSource routingDataSource,
+      HedgedQueryExecutor executor) {
+    this.delegate = delegate;
+    this.routingDataSource = routingDataSource;
+    this.executor = executor;
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    return executor.query(
+        routingDataSource.replicaCandidates(),
+        FIND_BY_ID_SQL,
+        statement -> {
+          statement.setLong(1, id);
+          try (ResultSet resultSet = statement.executeQuery()) {
+            return resultSet.next() ? Optional.of(toCity(resultSet)) : Optional.<City>empty();
+          }
+        },
+        () -> delegate.findById(id));
+  }
+
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return delegate.findByIdForWrite(id);
+  }
+
+  @Override
+  public List<City> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    delegate.scanAll(consumer);
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return delegate.findByNameLike(namePattern, page);
+  }
+
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return delegate.search(query, page);
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    return delegate.findTopByPopulation(countrycode, limit);
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return delegate.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page);
+  }
+
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return delegate.findPopulationRank(id);
+  }
+
+
+  @Override
+  public City save(City city) {
+    return delegate.save(city);
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    delegate.deleteById(id);
+  }
+
+  private static City toCity(ResultSet resultSet) throws SQLException {
+    return City.builder()
+        .id(resultSet.getLong("id"))
+        .name(resultSet.getString("name"))
+        .countrycode(resultSet.getString("countrycode"))
+        .district(resultSet.getString("district"))
+        .population(resultSet.getObject("population", Integer.class))
+        .version(resultSet.getObject("version", Long.class))
+        .build();
+  }
+}
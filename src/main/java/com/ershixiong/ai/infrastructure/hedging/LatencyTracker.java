@@ -0,0 +1,93 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.hedging;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 最近请求耗时统计，用于计算对冲延迟。
+ *
+ * <p>在固定大小的环形窗口中保存最近的耗时样本，按需计算分位数：
+ *
+ * <ul>
+ *   <li>每新增refresh-every个样本才重新排序计算一次分位数，读取时直接返回缓存值
+ *   <li>样本不足时返回最大延迟，避免冷启动阶段过早对冲
+ *   <li>结果限制在[min-delay, max-delay]区间内
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class LatencyTracker {
+
+  private static final int MIN_SAMPLES = 20;
+
+  private final long[] samples;
+  private final double percentile;
+  private final long minDelayNanos;
+  private final long maxDelayNanos;
+  private final int refreshEvery;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private int next;
+  private int count;
+  private int sinceRefresh;
+  private volatile long delayNanos;
+
+  public LatencyTracker(int windowSize, double percentile, Duration minDelay, Duration maxDelay) {
+    this.samples = new long[windowSize];
+    this.percentile = percentile;
+    this.minDelayNanos = minDelay.toNanos();
+    this.maxDelayNanos = maxDelay.toNanos();
+    this.refreshEvery = Math.max(1, windowSize / 20);
+    this.delayNanos = maxDelayNanos;
+  }
+
+  /**
+   * 记录一次请求耗时
+   *
+   * @param nanos 耗时纳秒数
+   */
+  public void record(long nanos) {
+    lock.lock();
+    try {
+      samples[next] = nanos;
+      next = (next + 1) % samples.length;
+      count = Math.min(count + 1, samples.length);
+      if (++sinceRefresh >= refreshEvery && count >= MIN_SAMPLES) {
+        sinceRefresh = 0;
+        long[] window = Arrays.copyOf(samples, count);
+        Arrays.sort(window);
+        int index = (int) Math.min(window.length - 1, Math.ceil(percentile * window.length) - 1);
+        delayNanos = Math.max(minDelayNanos, Math.min(maxDelayNanos, window[Math.max(0, index)]));
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /**
+   * 获取当前对冲延迟
+   *
+   * @return 对冲延迟纳秒数
+   */
+  public long delayNanos() {
+    return delayNanos;
+  }
+}
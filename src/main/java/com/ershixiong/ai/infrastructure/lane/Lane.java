@@ -0,0 +1,34 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+/**
+ * 流量通道。
+ *
+ * <p>每个通道拥有独立的数据库连接池和并发闸门，长时间运行的批量操作不会占用交互式请求的连接和线程。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public enum Lane {
+  /** 交互式点查和写入，例如按ID查询、新增、更新、删除 */
+  OLTP,
+  /** 分页搜索 */
+  SEARCH,
+  /** 导出、导入、全量查询等批量操作 */
+  BULK
+}
@@ -0,0 +1,57 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+/**
+ * 当前线程所属的流量通道。
+ *
+ * <p>由Web层在请求进入时设置，{@link LaneRoutingDataSource}据此选择连接池；未设置时视为OLTP通道。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class LaneContext {
+
+  private static final ThreadLocal<Lane> CURRENT = new ThreadLocal<>();
+
+  private LaneContext() {
+  }
+
+  /**
+   * 获取当前通道
+   *
+   * @return 当前通道，未设置时为OLTP
+   */
+  public static Lane current() {
+    Lane lane = CURRENT.get();
+    return lane == null ? Lane.OLTP : lane;
+  }
+
+  /**
+   * 设置当前通道
+   *
+   * @param lane 通道
+   */
+  public static void set(Lane lane) {
+    CURRENT.set(lane);
+  }
+
+  /** 清除当前通道 */
+  public static void clear() {
+    CURRENT.remove();
+  }
+}
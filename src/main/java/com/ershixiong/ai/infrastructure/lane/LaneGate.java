@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+
+import java.time.Duration;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 流量通道闸门。
+ *
+ * <p>限制单个通道同时占用的请求线程数，并为超出部分提供有界等待队列：
+ *
+ * <ul>
+ *   <li>并发数未满时直接放行
+ *   <li>并发数已满时最多允许max-queue个请求排队，每个请求最多等待queue-timeout
+ *   <li>队列已满或等待超时立即拒绝，抛出{@link ErrorCode#RPC_SERVICE_UNAVAILABLE}
+ * </ul>
+ *
+ * <p>批量通道的并发上限很小，长时间导出最多占用少量Tomcat线程，其余线程仍可服务交互式请求。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class LaneGate {
+
+  private final Lane lane;
+  private final Semaphore permits;
+  private final int maxQueue;
+  private final long queueTimeoutNanos;
+  private final AtomicInteger queued = new AtomicInteger();
+  private final AtomicInteger active = new AtomicInteger();
+  private final AtomicLong rejected = new AtomicLong();
+  private final AtomicLong waitNanos = new AtomicLong();
+
+  public LaneGate(Lane lane, int maxConcurrency, int maxQueue, Duration queueTimeout) {
+    this.lane = lane;
+    this.permits = new Semaphore(maxConcurrency, true);
+    this.maxQueue = maxQueue;
+    this.queueTimeoutNanos = queueTimeout.toNanos();
+  }
+
+  /**
+   * 进入通道，必要时排队等待
+   *
+   * @throws BusinessException 队列已满或等待超时
+   */
+  public void enter() {
+    if (permits.tryAcquire()) {
+      active.incrementAndGet();
+      return;
+    }
+    if (queued.incrementAndGet() > maxQueue) {
+      queued.decrementAndGet();
+      throw reject("队列已满");
+    }
+    long start = System.nanoTime();
+    try {
+      if (!permits.tryAcquire(queueTimeoutNanos, TimeUnit.NANOSECONDS)) {
+        throw reject("排队超时");
+      }
+      active.incrementAndGet();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw reject("排队被中断");
+    } finally {
+      queued.decrementAndGet();
+      waitNanos.addAndGet(System.nanoTime() - start);
+    }
+  }
+
+  /** 离开通道，释放并发许可 */
+  public void exit() {
+    active.decrementAndGet();
+    permits.release();
+  }
+
+  /**
+   * 获取通道
+   *
+   * @return 通道
+   */
+  public Lane getLane() {
+    return lane;
+  }
+
+  /**
+   * 获取正在执行的请求数
+   *
+   * @return 执行中请求数
+   */
+  public int getActive() {
+    return active.get();
+  }
+
+  /**
+   * 获取正在排队的请求数
+   *
+   * @return 排队请求数
+   */
+  public int getQueued() {
+    return queued.get();
+  }
+
+  /**
+   * 获取被拒绝的请求数
+   *
+   * @return 拒绝数
+   */
+  public long getRejected() {
+    return rejected.get();
+  }
+
+  /**
+   * 获取累计排队时间
+   *
+   * @return 累计排队纳秒数
+   */
+  public long getWaitNanos() {
+    return waitNanos.get();
+  }
+
+  private BusinessException reject(String reason) {
+    rejected.incrementAndGet();
+    return new BusinessException(
+        ErrorCode.RPC_SERVICE_UNAVAILABLE, lane + "通道繁忙（" + reason + "），请稍后重试");
+  }
+}
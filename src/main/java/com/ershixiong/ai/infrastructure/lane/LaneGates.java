@@ -0,0 +1,45 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+/**
+ * 各流量通道的闸门集合。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class LaneGates {
+
+  private final Map<Lane, LaneGate> gates;
+
+  public LaneGates(Map<Lane, LaneGate> gates) {
+    this.gates = new EnumMap<>(gates);
+  }
+
+  /**
+   * 获取指定通道的闸门
+   *
+   * @param lane 通道
+   * @return 闸门
+   */
+  public LaneGate get(Lane lane) {
+    return gates.get(lane);
+  }
+}
@@ -0,0 +1,77 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import javax.sql.DataSource;
+
+/**
+ * 按流量通道路由的数据源。
+ *
+ * <p>每个通道对应一个独立的连接池，按{@link LaneContext#current()}选择。
+ * 批量导出即使占满自己的连接池，也不影响OLTP通道获取连接。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class LaneRoutingDataSource extends AbstractRoutingDataSource implements AutoCloseable {
+
+  private final Map<Lane, DataSource> pools;
+
+  public LaneRoutingDataSource(Map<Lane, DataSource> pools) {
+    this.pools = new EnumMap<>(pools);
+    setTargetDataSources(new HashMap<>(pools));
+    setDefaultTargetDataSource(pools.get(Lane.OLTP));
+    afterPropertiesSet();
+  }
+
+  @Override
+  protected Object determineCurrentLookupKey() {
+    return LaneContext.current();
+  }
+
+  /**
+   * 获取指定通道的连接池
+   *
+   * @param lane 通道
+   * @return 连接池
+   */
+  public DataSource getPool(Lane lane) {
+    return pools.get(lane);
+  }
+
+  /** 关闭所有通道的连接池 */
+  @Override
+  public void close() {
+    pools.forEach(
+        (lane, dataSource) -> {
+          if (dataSource instanceof AutoCloseable closeable) {
+            try {
+              closeable.close();
+            } catch (Exception e) {
+              log.warn("Failed to close {} lane pool: {}", lane, e.getMessage());
+            }
+          }
+        });
+  }
+}
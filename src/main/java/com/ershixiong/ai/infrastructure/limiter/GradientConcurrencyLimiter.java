@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.limiter;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 基于延迟梯度的自适应并发限制器。
+ *
+ * <p>算法参考Gradient2，用实测延迟推断下游是否开始排队：
+ *
+ * <ul>
+ *   <li>短期延迟：最近一个采样窗口内的平均延迟
+ *   <li>长期延迟：指数平滑的基线延迟，代表下游未排队时的延迟
+ *   <li>梯度 = tolerance × 长期延迟 / 短期延迟，限制在[0.5, 1]之间；延迟升高时梯度小于1，并发限制随之收缩
+ *   <li>新限制 = 当前限制 × 梯度 + 排队余量，并做平滑，防止抖动
+ *   <li>下游报错视为过载信号，直接按backoff-ratio收缩
+ *   <li>在途请求不足限制一半时不再上调，避免低负载时限制无限增长
+ * </ul>
+ *
+ * <p>超过限制的请求立即拒绝，不排队等待连接池。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class GradientConcurrencyLimiter {
+
+  private static final double MIN_GRADIENT = 0.5;
+  private static final double BACKOFF_RATIO = 0.9;
+
+  private final int minLimit;
+  private final int maxLimit;
+  private final double tolerance;
+  private final double smoothing;
+  private final int windowSize;
+  private final int longWindow;
+  private final AtomicInteger inFlight = new AtomicInteger();
+  private final ReentrantLock lock = new ReentrantLock();
+
+  private volatile int limit;
+  private double estimatedLimit;
+  private double longRttNanos;
+  private long windowRttSum;
+  private int windowSamples;
+  private int windowMaxInFlight;
+
+  /**
+   * 创建并发限制器
+   *
+   * @param initialLimit 初始限制
+   * @param minLimit 最小限制
+   * @param maxLimit 最大限制
+   * @param tolerance 允许的延迟增长倍数，例如1.5表示延迟增长50%以内不收缩
+   * @param windowSize 每个采样窗口的样本数
+   */
+  public GradientConcurrencyLimiter(
+      int initialLimit, int minLimit, int maxLimit, double tolerance, int windowSize) {
+    this.minLimit = minLimit;
+    this.maxLimit = maxLimit;
+    this.tolerance = tolerance;
+    this.smoothing = 0.2;
+    this.windowSize = windowSize;
+    this.longWindow = 600;
+    this.limit = initialLimit;
+    this.estimatedLimit = initialLimit;
+  }
+
+  /**
+   * 尝试获取一个并发许可
+   *
+   * @return 是否获取成功，失败时调用方应立即拒绝请求
+   */
+  public boolean tryAcquire() {
+    while (true) {
+      int current = inFlight.get();
+      if (current >= limit) {
+        return false;
+      }
+      if (inFlight.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /**
+   * 释放许可并记录本次请求的延迟
+   *
+   * @param rttNanos 请求耗时纳秒数
+   * @param dropped 下游是否报错
+   */
+  public void release(long rttNanos, boolean dropped) {
+    int current = inFlight.getAndDecrement();
+    lock.lock();
+    try {
+      if (dropped) {
+        updateLimit(estimatedLimit * BACKOFF_RATIO);
+        resetWindow();
+        return;
+      }
+      windowRttSum += rttNanos;
+      windowSamples++;
+      windowMaxInFlight = Math.max(windowMaxInFlight, current);
+      if (windowSamples >= windowSize) {
+        onWindowComplete((double) windowRttSum / windowSamples, windowMaxInFlight);
+        resetWindow();
+      }
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  /** 释放许可但不记录样本，用于没有触达下游的请求，例如熔断快速失败 */
+  public void ignore() {
+    inFlight.decrementAndGet();
+  }
+
+  /**
+   * 获取当前并发限制
+   *
+   * @return 并发限制
+   */
+  public int getLimit() {
+    return limit;
+  }
+
+  /**
+   * 获取当前在途请求数
+   *
+   * @return 在途请求数
+   */
+  public int getInFlight() {
+    return inFlight.get();
+  }
+
+  private void onWindowComplete(double shortRttNanos, int maxInFlight) {
+    if (longRttNanos == 0) {
+      longRttNanos = shortRttNanos;
+    } else {
+      longRttNanos += (shortRttNanos - longRttNanos) * windowSize / longWindow;
+    }
+    // 负载下降后长期基线偏高，加速回落，避免延迟已恢复而限制迟迟不上调
+    if (longRttNanos / shortRttNanos > 2) {
+      longRttNanos *= 0.95;
+    }
+    double gradient =
+        Math.max(MIN_GRADIENT, Math.min(1.0, tolerance * longRttNanos / shortRttNanos));
+    double queueSize = Math.max(4.0, Math.sqrt(estimatedLimit));
+    double newLimit = estimatedLimit * gradient + queueSize;
+    if (maxInFlight < estimatedLimit / 2) {
+      newLimit = Math.min(newLimit, estimatedLimit);
+    }
+    updateLimit(estimatedLimit * (1 - smoothing) + newLimit * smoothing);
+  }
+
+  private void updateLimit(double newLimit) {
+    estimatedLimit = Math.max(minLimit, Math.min(maxLimit, newLimit));
+    limit = (int) estimatedLimit;
+  }
+
+  private void resetWindow() {
+    windowRttSum = 0;
+    windowSamples = 0;
+    windowMaxInFlight = 0;
+  }
+}
@@ -0,0 +1,38 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.limiter;
+
+/**
+ * 操作类别。
+ *
+ * <p>不同类别的操作使用独立的并发限制，避免某一类操作耗尽连接池后拖垮其他操作。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public enum OperationClass {
+  /** 按ID查询 */
+  POINT_READ,
+  /** 分页搜索 */
+  SEARCH,
+  /** 新增、更新、删除 */
+  WRITE,
+  /** 全量查询、增量同步等一次性返回整页结果的操作 */
+  LIST,
+  /** CSV导出等长时间占用连接的流式操作 */
+  BULK
+}
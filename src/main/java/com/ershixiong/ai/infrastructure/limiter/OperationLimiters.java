@@ -0,0 +1,148 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.limiter;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.config.CityLimiterProperties;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * 按操作类别划分的并发限制器集合。
+ *
+ * <p>应用服务把每次仓储调用包装在对应类别的限制器中执行：
+ *
+ * <ul>
+ *   <li>超过当前限制时立即抛出{@link ErrorCode#RPC_CIRCUIT_BREAK}，不占用连接池等待时间
+ *   <li>调用超时、服务不可用以及其他非业务异常视为下游过载信号，按丢弃处理
+ *   <li>熔断快速失败没有触达下游，不计入延迟样本；其余业务异常代表请求本身有误，只记录延迟
+ *   <li>每个类别暴露city.limiter.limit、city.limiter.in-flight和city.limiter.rejected指标
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Component
+public class OperationLimiters {
+
+  private final boolean enabled;
+  private final Map<OperationClass, GradientConcurrencyLimiter> limiters =
+      new EnumMap<>(OperationClass.class);
+  private final Map<OperationClass, Counter> rejections = new EnumMap<>(OperationClass.class);
+
+  public OperationLimiters(CityLimiterProperties properties, MeterRegistry meterRegistry) {
+    this.enabled = properties.isEnabled();
+    for (OperationClass operation : OperationClass.values()) {
+      CityLimiterProperties.Limit limit =
+          properties.getOperations().getOrDefault(operation, new CityLimiterProperties.Limit());
+      GradientConcurrencyLimiter limiter =
+          new GradientConcurrencyLimiter(
+              limit.getInitial(),
+              limit.getMin(),
+              limit.getMax(),
+              properties.getTolerance(),
+              properties.getWindowSize());
+      limiters.put(operation, limiter);
+      String tag = operation.name().toLowerCase();
+      Gauge.builder("city.limiter.limit", limiter, GradientConcurrencyLimiter::getLimit)
+          .tag("operation", tag)
+          .register(meterRegistry);
+      Gauge.builder("city.limiter.in-flight", limiter, GradientConcurrencyLimiter::getInFlight)
+          .tag("operation", tag)
+          .register(meterRegistry);
+      rejections.put(
+          operation,
+          Counter.builder("city.limiter.rejected").tag("operation", tag).register(meterRegistry));
+    }
+  }
+
+  /**
+   * 在并发限制下执行操作
+   *
+   * @param operation 操作类别
+   * @param action 操作
+   * @param <T> 返回值类型
+   * @return 操作结果
+   * @throws BusinessException 超过并发限制时抛出，错误码为RPC_CIRCUIT_BREAK
+   */
+  public <T> T execute(OperationClass operation, Supplier<T> action) {
+    if (!enabled) {
+      return action.get();
+    }
+    GradientConcurrencyLimiter limiter = limiters.get(operation);
+    if (!limiter.tryAcquire()) {
+      rejections.get(operation).increment();
+      throw new BusinessException(ErrorCode.RPC_CIRCUIT_BREAK, "系统繁忙，请稍后重试");
+    }
+    long start = System.nanoTime();
+    boolean dropped = false;
+    boolean ignored = false;
+    try {
+      return action.get();
+    } catch (BusinessException e) {
+      ErrorCode errorCode = e.getErrorCode();
+      if (errorCode == ErrorCode.RPC_CIRCUIT_BREAK) {
+        ignored = true;
+      } else if (errorCode == ErrorCode.RPC_CALL_TIMEOUT
+          || errorCode == ErrorCode.RPC_SERVICE_UNAVAILABLE) {
+        dropped = true;
+      }
+      throw e;
+    } catch (RuntimeException e) {
+      dropped = true;
+      throw e;
+    } finally {
+      if (ignored) {
+        limiter.ignore();
+      } else {
+        limiter.release(System.nanoTime() - start, dropped);
+      }
+    }
+  }
+
+  /**
+   * 在并发限制下执行无返回值的操作
+   *
+   * @param operation 操作类别
+   * @param action 操作
+   */
+  public void run(OperationClass operation, Runnable action) {
+    execute(
+        operation,
+        () -> {
+          action.run();
+          return null;
+        });
+  }
+
+  /**
+   * 获取指定类别的限制器
+   *
+   * @param operation 操作类别
+   * @return 限制器
+   */
+  public GradientConcurrencyLimiter get(OperationClass operation) {
+    return limiters.get(operation);
+  }
+}
@@ -0,0 +1,399 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.ranking;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.event.EventListener;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+
+/**
+ * 城市人口的进程内顺序统计索引。
+ *
+ * <p>每个国家和全部城市各有一棵{@link PopulationOrderTree}，另以ID保存城市的副本：
+ *
+ * <ul>
+ *   <li>人口最多的N个城市：从排名0起读取N个键，O(log n + N)
+ *   <li>人口范围查询：两次{@link PopulationOrderTree#countAbove}得到范围的起止排名和总数，
+ *       再从页首排名起读取一页，O(log n + 页大小)
+ *   <li>城市排名：在国家树和全局树中各求一次排名，O(log n)
+ * </ul>
+ *
+ * <p>人口未知的城市只保存副本，不进入排序树。查询持有读锁，写入持有写锁。
+ *
+ * <p>{@link #rebuild(Consumer)}流式扫描全表建立新索引后整体替换；扫描期间的写入除了立即应用到旧索引，
+ * 还会暂存下来，替换后按顺序重放到新索引，因此重建不会丢失经过本索引的写入。binlog捕获的变更由
+ * {@link #onCityChanged}直接应用到索引。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CityPopulationIndex {
+
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  /** 串行化重建，重建期间扫描数据库，使用ReentrantLock以免固定虚拟线程 */
+  private final ReentrantLock rebuildLock = new ReentrantLock();
+
+  // 以下状态由lock保护
+  private Entries entries;
+  /** 重建期间暂存的写入，value为null表示删除；未在重建时为null */
+  private List<Write> pending;
+  private Instant builtAt;
+
+  /** 是否已完成首次重建 */
+  public boolean isReady() {
+    lock.readLock().lock();
+    try {
+      return entries != null;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 最近一次重建的时间，尚未重建时为null */
+  public Instant getBuiltAt() {
+    lock.readLock().lock();
+    try {
+      return builtAt;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 索引中的城市数 */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 排序树占用的字节数，不含城市副本 */
+  public long getTreeBytes() {
+    lock.readLock().lock();
+    try {
+      return entries == null ? 0 : entries.treeBytes();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 流式扫描全表重建索引
+   *
+   * @param scan 扫描函数，对每个城市调用一次传入的回调
+   * @return 索引的城市数
+   */
+  public int rebuild(Consumer<Consumer<City>> scan) {
+    rebuildLock.lock();
+    try {
+      lock.writeLock().lock();
+      try {
+        pending = new ArrayList<>();
+      } finally {
+        lock.writeLock().unlock();
+      }
+      Entries rebuilt = new Entries();
+      try {
+        scan.accept(city -> rebuilt.put(copy(city)));
+      } catch (RuntimeException e) {
+        lock.writeLock().lock();
+        try {
+          pending = null;
+        } finally {
+          lock.writeLock().unlock();
+        }
+        throw e;
+      }
+      lock.writeLock().lock();
+      try {
+        for (Write write : pending) {
+          if (write.city() == null) {
+            rebuilt.remove(write.id());
+          } else {
+            rebuilt.put(write.city());
+          }
+        }
+        log.info(
+            "Rebuilt city population index with {} cities, replayed {} concurrent writes",
+            rebuilt.size(),
+            pending.size());
+        pending = null;
+        entries = rebuilt;
+        builtAt = Instant.now();
+        return rebuilt.size();
+      } finally {
+        lock.writeLock().unlock();
+      }
+    } finally {
+      rebuildLock.unlock();
+    }
+  }
+
+  /**
+   * 写入或更新城市
+   *
+   * @param city 保存后的城市
+   */
+  public void upsert(City city) {
+    City copy = copy(city);
+    lock.writeLock().lock();
+    try {
+      if (pending != null) {
+        pending.add(new Write(copy.getId(), copy));
+      }
+      if (entries != null) {
+        entries.put(copy);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 删除城市
+   *
+   * @param id 城市ID
+   */
+  public void delete(Long id) {
+    lock.writeLock().lock();
+    try {
+      if (pending != null) {
+        pending.add(new Write(id, null));
+      }
+      if (entries != null) {
+        entries.remove(id);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * 处理binlog捕获的变更，应用自身的写入由仓储装饰器在保存和删除后应用
+   *
+   * @param event 城市变更事件
+   */
+  @EventListener
+  public void onCityChanged(CityChangedEvent event) {
+    if (event.getSource() != CityChangedEvent.Source.BINLOG) {
+      return;
+    }
+    if (event.getCity() == null) {
+      delete(event.getCityId());
+    } else {
+      upsert(event.getCity());
+    }
+  }
+
+  /**
+   * 查询人口最多的城市
+   *
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param limit 最多返回的城市数
+   * @return 城市列表
+   */
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    lock.readLock().lock();
+    try {
+      Entries current = requireEntries();
+      PopulationOrderTree tree = current.tree(countrycode);
+      List<City> result = new ArrayList<>(Math.min(limit, tree == null ? 0 : tree.size()));
+      if (tree != null) {
+        tree.forEach(0, limit, (population, id) -> result.add(copy(current.city(id))));
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 查询人口在范围内的城市
+   *
+   * @param countrycode 国家代码，为null时在全部城市中查询
+   * @param minPopulation 最小人口数（包含）
+   * @param maxPopulation 最大人口数（包含）
+   * @param page 分页对象
+   * @return 分页的城市列表
+   */
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    lock.readLock().lock();
+    try {
+      Entries current = requireEntries();
+      PopulationOrderTree tree = current.tree(countrycode);
+      List<City> records = new ArrayList<>();
+      long total = 0;
+      if (tree != null && minPopulation <= maxPopulation) {
+        int start = tree.countAbove(maxPopulation);
+        int end = tree.countAbove((long) minPopulation - 1);
+        total = end - start;
+        long offset = start + (page.getCurrent() - 1) * page.getSize();
+        if (offset < end) {
+          int limit = (int) Math.min(page.getSize(), end - offset);
+          tree.forEach(
+              (int) offset, limit, (population, id) -> records.add(copy(current.city(id))));
+        }
+      }
+      Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total);
+      result.setRecords(records);
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 查询城市的人口排名
+   *
+   * @param id 城市ID
+   * @return 人口排名，城市不存在时为空
+   */
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    lock.readLock().lock();
+    try {
+      Entries current = requireEntries();
+      City city = current.city(id);
+      if (city == null) {
+        return Optional.empty();
+      }
+      PopulationOrderTree country = current.tree(key(city.getCountrycode()));
+      PopulationOrderTree global = current.tree(null);
+      Integer population = city.getPopulation();
+      return Optional.of(
+          CityPopulationRank.builder()
+              .city(copy(city))
+              .countryRank(population == null ? null : country.rank(population, id) + 1L)
+              .countryCities(country == null ? 0 : country.size())
+              .globalRank(population == null ? null : global.rank(population, id) + 1L)
+              .globalCities(global.size())
+              .build());
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private Entries requireEntries() {
+    if (entries == null) {
+      throw new IllegalStateException("City population index is not built");
+    }
+    return entries;
+  }
+
+  private static City copy(City city) {
+    return new City(
+        city.getId(),
+        city.getName(),
+        city.getCountrycode(),
+        city.getDistrict(),
+        city.getPopulation(),
+        city.getVersion());
+  }
+
+  private static String key(String countrycode) {
+    return countrycode == null ? "" : countrycode;
+  }
+
+  /**
+   * 重建期间暂存的一次写入
+   *
+   * @param id 城市ID
+   * @param city 写入后的城市，删除时为null
+   */
+  private record Write(Long id, City city) {
+  }
+
+  /** 一次重建得到的城市副本和排序树 */
+  private static final class Entries {
+    private final Map<Long, City> cities = new HashMap<>();
+    private final Map<String, PopulationOrderTree> countries = new HashMap<>();
+    private final PopulationOrderTree global = new PopulationOrderTree(1024);
+
+    /** 查询范围对应的排序树，countrycode为null时为全局树 */
+    PopulationOrderTree tree(String countrycode) {
+      return countrycode == null ? global : countries.get(countrycode);
+    }
+
+    /** 城市副本，不存在时为null */
+    City city(Long id) {
+      return cities.get(id);
+    }
+
+    int size() {
+      return cities.size();
+    }
+
+    /** 全局树和各国家树占用的字节数 */
+    long treeBytes() {
+      long bytes = global.bytes();
+      for (PopulationOrderTree tree : countries.values()) {
+        bytes += tree.bytes();
+      }
+      return bytes;
+    }
+
+    /** 写入城市，已有版本更新的副本时忽略，避免迟到的binlog事件覆盖新值 */
+    void put(City city) {
+      City existing = cities.get(city.getId());
+      if (existing != null
+          && existing.getVersion() != null
+          && city.getVersion() != null
+          && existing.getVersion() > city.getVersion()) {
+        return;
+      }
+      remove(city.getId());
+      cities.put(city.getId(), city);
+      if (city.getPopulation() != null) {
+        countries
+            .computeIfAbsent(key(city.getCountrycode()), k -> new PopulationOrderTree(64))
+            .insert(city.getPopulation(), city.getId());
+        global.insert(city.getPopulation(), city.getId());
+      }
+    }
+
+    void remove(Long id) {
+      City existing = cities.remove(id);
+      if (existing == null || existing.getPopulation() == null) {
+        return;
+      }
+      String key = key(existing.getCountrycode());
+      PopulationOrderTree country = countries.get(key);
+      country.remove(existing.getPopulation(), id);
+      if (country.size() == 0) {
+        countries.remove(key);
+      }
+      global.remove(existing.getPopulation(), id);
+    }
+  }
+}
@@ -0,0 +1,305 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.ranking;
+
+import java.util.Arrays;
+
+/**
+ * 按人口排序的顺序统计树。
+ *
+ * <p>键为（人口，城市ID），按人口降序、人口相同时按ID升序排列。实现为以子树大小增强的treap：
+ *
+ * <ul>
+ *   <li>节点存放在基本类型数组中，以下标互相引用，下标0是大小为0的哨兵，删除的节点进入空闲链表复用
+ *   <li>插入和删除的期望代价为O(log n)，优先级由xorshift随机数生成
+ *   <li>{@link #rank}和{@link #countAbove}沿一条根到叶的路径累加左子树大小，代价为O(log n)
+ *   <li>{@link #forEach}先按排名下降到起点，再用栈做中序遍历，读取k个键的代价为O(log n + k)
+ * </ul>
+ *
+ * <p>非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class PopulationOrderTree {
+
+  private static final int NIL = 0;
+
+  private int[] left;
+  private int[] right;
+  private int[] size;
+  private int[] priority;
+  private int[] populations;
+  private long[] ids;
+  private int root = NIL;
+  /** 下一个从未使用过的节点下标 */
+  private int next = 1;
+  /** 空闲链表头，以left数组串联 */
+  private int free = NIL;
+  private int seed;
+
+  // split的两个结果
+  private int splitLeft;
+  private int splitRight;
+
+  PopulationOrderTree(int capacity) {
+    int length = Math.max(capacity, 15) + 1;
+    left = new int[length];
+    right = new int[length];
+    size = new int[length];
+    priority = new int[length];
+    populations = new int[length];
+    ids = new long[length];
+    seed = System.identityHashCode(this) | 1;
+  }
+
+  /** 键的个数 */
+  int size() {
+    return size[root];
+  }
+
+  /** 节点数组占用的字节数 */
+  long bytes() {
+    return (long) left.length * (5 * Integer.BYTES + Long.BYTES);
+  }
+
+  /** 插入键，调用方保证键不存在 */
+  void insert(int population, long id) {
+    int node = allocate(population, id);
+    root = insert(root, node);
+  }
+
+  /**
+   * 删除键
+   *
+   * @return 键是否存在
+   */
+  boolean remove(int population, long id) {
+    int before = size[root];
+    root = remove(root, population, id);
+    return size[root] < before;
+  }
+
+  /** 排在键之前的键的个数，键不必存在 */
+  int rank(int population, long id) {
+    int rank = 0;
+    int t = root;
+    while (t != NIL) {
+      if (compare(population, id, populations[t], ids[t]) <= 0) {
+        t = left[t];
+      } else {
+        rank += size[left[t]] + 1;
+        t = right[t];
+      }
+    }
+    return rank;
+  }
+
+  /** 人口大于threshold的键的个数，即这些键占据的排名前缀长度 */
+  int countAbove(long threshold) {
+    int count = 0;
+    int t = root;
+    while (t != NIL) {
+      if (populations[t] > threshold) {
+        count += size[left[t]] + 1;
+        t = right[t];
+      } else {
+        t = left[t];
+      }
+    }
+    return count;
+  }
+
+  /**
+   * 从排名from（从0开始）起按顺序访问最多limit个键
+   *
+   * @param from 起始排名
+   * @param limit 最多访问的键数
+   * @param visitor 访问函数
+   */
+  void forEach(int from, int limit, Visitor visitor) {
+    int[] stack = new int[32];
+    int depth = 0;
+    int t = root;
+    int k = from;
+    while (t != NIL) {
+      int leftSize = size[left[t]];
+      if (k <= leftSize) {
+        stack = push(stack, depth++, t);
+        if (k == leftSize) {
+          break;
+        }
+        t = left[t];
+      } else {
+        k -= leftSize + 1;
+        t = right[t];
+      }
+    }
+    for (int visited = 0; visited < limit && depth > 0; visited++) {
+      int node = stack[--depth];
+      visitor.visit(populations[node], ids[node]);
+      for (t = right[node]; t != NIL; t = left[t]) {
+        stack = push(stack, depth++, t);
+      }
+    }
+  }
+
+  /** 键的访问函数 */
+  @FunctionalInterface
+  interface Visitor {
+    void visit(int population, long id);
+  }
+
+  /** 比较两个键，人口降序、ID升序 */
+  private static int compare(int populationA, long idA, int populationB, long idB) {
+    if (populationA != populationB) {
+      return populationA > populationB ? -1 : 1;
+    }
+    return Long.compare(idA, idB);
+  }
+
+  private int compare(int a, int b) {
+    return compare(populations[a], ids[a], populations[b], ids[b]);
+  }
+
+  private int insert(int t, int node) {
+    if (t == NIL) {
+      return node;
+    }
+    if (priority[node] > priority[t]) {
+      split(t, node);
+      left[node] = splitLeft;
+      right[node] = splitRight;
+      update(node);
+      return node;
+    }
+    if (compare(node, t) < 0) {
+      left[t] = insert(left[t], node);
+    } else {
+      right[t] = insert(right[t], node);
+    }
+    update(t);
+    return t;
+  }
+
+  private int remove(int t, int population, long id) {
+    if (t == NIL) {
+      return NIL;
+    }
+    int c = compare(population, id, populations[t], ids[t]);
+    if (c == 0) {
+      int merged = merge(left[t], right[t]);
+      release(t);
+      return merged;
+    }
+    if (c < 0) {
+      left[t] = remove(left[t], population, id);
+    } else {
+      right[t] = remove(right[t], population, id);
+    }
+    update(t);
+    return t;
+  }
+
+  /** 把子树t按node的键拆为小于和不小于两部分，结果写入splitLeft和splitRight */
+  private void split(int t, int node) {
+    if (t == NIL) {
+      splitLeft = NIL;
+      splitRight = NIL;
+      return;
+    }
+    if (compare(t, node) < 0) {
+      split(right[t], node);
+      right[t] = splitLeft;
+      update(t);
+      splitLeft = t;
+    } else {
+      split(left[t], node);
+      left[t] = splitRight;
+      update(t);
+      splitRight = t;
+    }
+  }
+
+  /** 合并两棵子树，a中的键都小于b中的键 */
+  private int merge(int a, int b) {
+    if (a == NIL) {
+      return b;
+    }
+    if (b == NIL) {
+      return a;
+    }
+    if (priority[a] > priority[b]) {
+      right[a] = merge(right[a], b);
+      update(a);
+      return a;
+    }
+    left[b] = merge(a, left[b]);
+    update(b);
+    return b;
+  }
+
+  private void update(int t) {
+    size[t] = size[left[t]] + size[right[t]] + 1;
+  }
+
+  private int allocate(int population, long id) {
+    int node;
+    if (free != NIL) {
+      node = free;
+      free = left[node];
+    } else {
+      if (next == left.length) {
+        grow();
+      }
+      node = next++;
+    }
+    seed ^= seed << 13;
+    seed ^= seed >>> 17;
+    seed ^= seed << 5;
+    left[node] = NIL;
+    right[node] = NIL;
+    size[node] = 1;
+    priority[node] = seed;
+    populations[node] = population;
+    ids[node] = id;
+    return node;
+  }
+
+  private void release(int node) {
+    size[node] = 0;
+    right[node] = NIL;
+    left[node] = free;
+    free = node;
+  }
+
+  private void grow() {
+    int length = left.length * 2;
+    left = Arrays.copyOf(left, length);
+    right = Arrays.copyOf(right, length);
+    size = Arrays.copyOf(size, length);
+    priority = Arrays.copyOf(priority, length);
+    populations = Arrays.copyOf(populations, length);
+    ids = Arrays.copyOf(ids, length);
+  }
+
+  private static int[] push(int[] stack, int depth, int node) {
+    int[] target = depth == stack.length ? Arrays.copyOf(stack, depth * 2) : stack;
+    target[depth] = node;
+    return target;
+  }
+}
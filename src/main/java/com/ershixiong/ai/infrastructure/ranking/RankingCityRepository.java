@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.ranking;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.repository.CityRepository;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+
+/**
+ * 以进程内人口索引回答人口查询的城市仓储装饰器。
+ *
+ * <ul>
+ *   <li>人口最多的城市、人口范围和人口排名查询在{@link CityPopulationIndex}加载完成后由索引回答，
+ *       加载完成前透传给下层仓储
+ *   <li>写操作成功后同步更新索引
+ *   <li>binlog来源的变更由索引自身监听，装饰器不必位于装饰链最外层
+ *   <li>其余查询直接透传给下层仓储
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class RankingCityRepository implements CityRepository {
+
+  private final CityRepository delegate;
+  private final CityPopulationIndex index;
+
+  public RankingCityRepository(CityRepository delegate, CityPopulationIndex index) {
+    this.delegate = delegate;
+    this.index = index;
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    return delegate.findById(id);
+  }
+
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return delegate.findByIdForWrite(id);
+  }
+
+  @Override
+  public List<City> findAll() {
+    return delegate.findAll();
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    delegate.scanAll(consumer);
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return delegate.findByNameLike(namePattern, page);
+  }
+
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    return delegate.search(query, page);
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    return index.isReady()
+        ? index.findTopByPopulation(countrycode, limit)
+        : delegate.findTopByPopulation(countrycode, limit);
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    return index.isReady()
+        ? index.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page)
+        : delegate.findByPopulationBetween(countrycode, minPopulation, maxPopulation, page);
+  }
+
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    return index.isReady() ? index.findPopulationRank(id) : delegate.findPopulationRank(id);
+  }
+
+  @Override
+  public City save(City city) {
+    City saved = delegate.save(city);
+    index.upsert(saved);
+    return saved;
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    delegate.deleteById(id);
+    index.delete(id);
+  }
+}
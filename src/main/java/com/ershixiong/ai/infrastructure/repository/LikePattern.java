@@ -0,0 +1,90 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository;
+
+import java.util.regex.Pattern;
+
+/**
+ * SQL LIKE模式在内存中的匹配，供不经过数据库的仓储实现按名称模糊查询。
+ *
+ * <p>%匹配任意字符串，_匹配单个字符，反斜杠转义下一个字符；与MySQL默认排序规则一致，不区分大小写。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class LikePattern {
+
+  private LikePattern() {
+  }
+
+  /**
+   * 把LIKE模式转换为正则表达式
+   *
+   * @param likePattern LIKE模式
+   * @return 正则表达式
+   */
+  public static Pattern compile(String likePattern) {
+    StringBuilder regex = new StringBuilder();
+    StringBuilder literal = new StringBuilder();
+    for (int i = 0; i < likePattern.length(); i++) {
+      char c = likePattern.charAt(i);
+      if (c == '\\' && i + 1 < likePattern.length()) {
+        literal.append(likePattern.charAt(++i));
+      } else if (c == '%' || c == '_') {
+        if (!literal.isEmpty()) {
+          regex.append(Pattern.quote(literal.toString()));
+          literal.setLength(0);
+        }
+        regex.append(c == '%' ? ".*" : ".");
+      } else {
+        literal.append(c);
+      }
+    }
+    if (!literal.isEmpty()) {
+      regex.append(Pattern.quote(literal.toString()));
+    }
+    return Pattern.compile(
+        regex.toString(), Pattern.CASE_INSENSITIVE | Pattern.UNICODE_CASE | Pattern.DOTALL);
+  }
+
+  /**
+   * 提取形如%literal%的模式中的字面量，供子串查找代替正则匹配
+   *
+   * @param likePattern LIKE模式
+   * @return 字面量，模式不是%literal%形式时为null
+   */
+  public static String containsLiteral(String likePattern) {
+    if (likePattern.length() < 2
+        || !likePattern.startsWith("%")
+        || !likePattern.endsWith("%")
+        || likePattern.endsWith("\\%")) {
+      return null;
+    }
+    StringBuilder literal = new StringBuilder();
+    for (int i = 1; i < likePattern.length() - 1; i++) {
+      char c = likePattern.charAt(i);
+      if (c == '\\' && i + 1 < likePattern.length() - 1) {
+        literal.append(likePattern.charAt(++i));
+      } else if (c == '%' || c == '_' || c == '\\') {
+        return null;
+      } else {
+        literal.append(c);
+      }
+    }
+    return literal.toString();
+  }
+}
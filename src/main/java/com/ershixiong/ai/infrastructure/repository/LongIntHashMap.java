@@ -0,0 +1,175 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository;
+
+import java.util.Arrays;
+
+/**
+ * 城市ID到槽位号的开放寻址哈希索引。
+ *
+ * <p>键和值分别保存在long[]和int[]中，线性探测，删除时向后移位而不留墓碑，
+ * 不为每条记录分配Entry和装箱的Long；负载因子超过0.5时容量翻倍。非线程安全，由调用方加锁。
+ *
+ * <p>用于堆外仓储的ID到槽位索引和列式快照的ID到行号索引。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public final class LongIntHashMap {
+
+  /** 查询不到键时的返回值，也用于标记空位 */
+  public static final int MISSING = -1;
+
+  private long[] keys;
+  private int[] values;
+  private int mask;
+  private int size;
+
+  public LongIntHashMap(int expectedSize) {
+    int capacity = Integer.highestOneBit(Math.max(16, expectedSize * 2 - 1)) << 1;
+    allocate(capacity);
+  }
+
+  /**
+   * 查询键对应的值
+   *
+   * @param key 键
+   * @return 值，不存在时为{@link #MISSING}
+   */
+  public int get(long key) {
+    for (int i = slot(key); values[i] != MISSING; i = (i + 1) & mask) {
+      if (keys[i] == key) {
+        return values[i];
+      }
+    }
+    return MISSING;
+  }
+
+  /**
+   * 写入键值，键已存在时覆盖
+   *
+   * @param key 键
+   * @param value 值，不能为负数
+   */
+  public void put(long key, int value) {
+    if (value < 0) {
+      throw new IllegalArgumentException("value must not be negative: " + value);
+    }
+    int i = slot(key);
+    while (values[i] != MISSING) {
+      if (keys[i] == key) {
+        values[i] = value;
+        return;
+      }
+      i = (i + 1) & mask;
+    }
+    keys[i] = key;
+    values[i] = value;
+    if (++size > (mask + 1) >>> 1) {
+      rehash((mask + 1) << 1);
+    }
+  }
+
+  /**
+   * 删除键
+   *
+   * @param key 键
+   * @return 被删除的值，不存在时为{@link #MISSING}
+   */
+  public int remove(long key) {
+    int i = slot(key);
+    while (values[i] != MISSING && keys[i] != key) {
+      i = (i + 1) & mask;
+    }
+    int removed = values[i];
+    if (removed == MISSING) {
+      return MISSING;
+    }
+    values[i] = MISSING;
+    size--;
+    // 后移删除：把探测链上本应落在空位之前的键前移，保证后续查找不会提前遇到空位
+    for (int j = (i + 1) & mask; values[j] != MISSING; j = (j + 1) & mask) {
+      int home = slot(keys[j]);
+      boolean movable = i <= j ? home <= i || home > j : home <= i && home > j;
+      if (movable) {
+        keys[i] = keys[j];
+        values[i] = values[j];
+        values[j] = MISSING;
+        i = j;
+      }
+    }
+    return removed;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * 返回所有键的升序副本
+   *
+   * @return 键数组
+   */
+  public long[] sortedKeys() {
+    long[] result = new long[size];
+    int n = 0;
+    for (int i = 0; i <= mask; i++) {
+      if (values[i] != MISSING) {
+        result[n++] = keys[i];
+      }
+    }
+    Arrays.sort(result);
+    return result;
+  }
+
+  /**
+   * 估算索引占用的堆内存字节数
+   *
+   * @return 字节数
+   */
+  public long memoryBytes() {
+    return (long) keys.length * Long.BYTES + (long) values.length * Integer.BYTES;
+  }
+
+  private int slot(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    return (int) (h ^ (h >>> 32)) & mask;
+  }
+
+  private void rehash(int capacity) {
+    long[] oldKeys = keys;
+    int[] oldValues = values;
+    allocate(capacity);
+    for (int i = 0; i < oldValues.length; i++) {
+      if (oldValues[i] != MISSING) {
+        int j = slot(oldKeys[i]);
+        while (values[j] != MISSING) {
+          j = (j + 1) & mask;
+        }
+        keys[j] = oldKeys[i];
+        values[j] = oldValues[i];
+      }
+    }
+  }
+
+  private void allocate(int capacity) {
+    keys = new long[capacity];
+    values = new int[capacity];
+    Arrays.fill(values, MISSING);
+    mask = capacity - 1;
+  }
+}
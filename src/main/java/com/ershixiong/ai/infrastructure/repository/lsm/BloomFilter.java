@@ -0,0 +1,104 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import java.nio.ByteBuffer;
+
+/**
+ * 按城市ID判断段文件是否可能包含记录的布隆过滤器。
+ *
+ * <p>用一个64位哈希拆出两个32位哈希，以h1 + i * h2模拟k个独立哈希函数。每个键10位时误判率约1%。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class BloomFilter {
+
+  private final long[] bits;
+  private final int hashes;
+  private final long bitCount;
+
+  private BloomFilter(long[] bits, int hashes) {
+    this.bits = bits;
+    this.hashes = hashes;
+    this.bitCount = (long) bits.length * Long.SIZE;
+  }
+
+  /**
+   * 创建空过滤器
+   *
+   * @param expectedKeys 预计键数
+   * @param bitsPerKey 每个键的位数
+   * @return 过滤器
+   */
+  static BloomFilter create(long expectedKeys, int bitsPerKey) {
+    long bitCount = Math.max(Long.SIZE, expectedKeys * bitsPerKey);
+    int hashes = Math.max(1, (int) Math.round(bitsPerKey * Math.log(2)));
+    return new BloomFilter(new long[(int) ((bitCount + Long.SIZE - 1) / Long.SIZE)], hashes);
+  }
+
+  void add(long key) {
+    long hash = mix(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashes; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+      bits[(int) (bit >>> 6)] |= 1L << bit;
+    }
+  }
+
+  boolean mightContain(long key) {
+    long hash = mix(key);
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    for (int i = 0; i < hashes; i++) {
+      long bit = Integer.toUnsignedLong(h1 + i * h2) % bitCount;
+      if ((bits[(int) (bit >>> 6)] & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /** 序列化后的字节数 */
+  int serializedSize() {
+    return Integer.BYTES * 2 + bits.length * Long.BYTES;
+  }
+
+  void writeTo(ByteBuffer buffer) {
+    buffer.putInt(hashes).putInt(bits.length);
+    for (long word : bits) {
+      buffer.putLong(word);
+    }
+  }
+
+  static BloomFilter readFrom(ByteBuffer buffer) {
+    int hashes = buffer.getInt();
+    long[] bits = new long[buffer.getInt()];
+    for (int i = 0; i < bits.length; i++) {
+      bits[i] = buffer.getLong();
+    }
+    return new BloomFilter(bits, hashes);
+  }
+
+  private static long mix(long key) {
+    long h = key * 0x9E3779B97F4A7C15L;
+    h ^= h >>> 32;
+    h *= 0xD6E8FEB86659FD93L;
+    return h ^ (h >>> 32);
+  }
+}
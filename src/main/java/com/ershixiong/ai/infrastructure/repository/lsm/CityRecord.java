@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import com.ershixiong.ai.domain.model.City;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * 存储引擎中的一条城市记录，可以是城市的某个版本，也可以是删除墓碑。
+ *
+ * <p>编码格式：id(8) version(8) flags(1) population(4)，随后name、countrycode、district依次为
+ * 2字节长度加UTF-8字节，长度为-1表示null。预写日志和段文件共用这一格式，外层各自加长度前缀。
+ *
+ * @param id 城市ID
+ * @param version 版本号，同一ID版本号大的记录生效
+ * @param tombstone 是否为删除墓碑
+ * @param name 城市名称
+ * @param countrycode 国家代码
+ * @param district 行政区
+ * @param population 人口
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+record CityRecord(
+    long id,
+    long version,
+    boolean tombstone,
+    String name,
+    String countrycode,
+    String district,
+    Integer population) {
+
+  private static final byte TOMBSTONE = 1;
+  private static final byte NULL_POPULATION = 1 << 1;
+  private static final int FIXED_BYTES = 8 + 8 + 1 + 4;
+
+  /**
+   * 由城市创建记录
+   *
+   * @param id 城市ID
+   * @param version 版本号
+   * @param city 城市
+   * @return 记录
+   */
+  static CityRecord of(long id, long version, City city) {
+    return new CityRecord(
+        id,
+        version,
+        false,
+        city.getName(),
+        city.getCountrycode(),
+        city.getDistrict(),
+        city.getPopulation());
+  }
+
+  /**
+   * 创建删除墓碑
+   *
+   * @param id 城市ID
+   * @param version 版本号
+   * @return 墓碑记录
+   */
+  static CityRecord tombstone(long id, long version) {
+    return new CityRecord(id, version, true, null, null, null, null);
+  }
+
+  /**
+   * 转换为城市
+   *
+   * @return 城市
+   */
+  City toCity() {
+    return City.builder()
+        .id(id)
+        .name(name)
+        .countrycode(countrycode)
+        .district(district)
+        .population(population)
+        .version(version)
+        .build();
+  }
+
+  /**
+   * 编码为字节
+   *
+   * @return 编码结果
+   */
+  byte[] encode() {
+    byte[] nameBytes = bytes(name);
+    byte[] countrycodeBytes = bytes(countrycode);
+    byte[] districtBytes = bytes(district);
+    int size =
+        FIXED_BYTES + textSize(nameBytes) + textSize(countrycodeBytes) + textSize(districtBytes);
+    ByteBuffer buffer = ByteBuffer.allocate(size);
+    byte flags = 0;
+    if (tombstone) {
+      flags |= TOMBSTONE;
+    }
+    if (population == null) {
+      flags |= NULL_POPULATION;
+    }
+    buffer.putLong(id).putLong(version).put(flags).putInt(population == null ? 0 : population);
+    putText(buffer, nameBytes);
+    putText(buffer, countrycodeBytes);
+    putText(buffer, districtBytes);
+    return buffer.array();
+  }
+
+  /**
+   * 从缓冲区当前位置解码，解码后位置移到记录末尾
+   *
+   * @param buffer 缓冲区
+   * @return 记录
+   */
+  static CityRecord decode(ByteBuffer buffer) {
+    long id = buffer.getLong();
+    long version = buffer.getLong();
+    byte flags = buffer.get();
+    int population = buffer.getInt();
+    String name = getText(buffer);
+    String countrycode = getText(buffer);
+    String district = getText(buffer);
+    return new CityRecord(
+        id,
+        version,
+        (flags & TOMBSTONE) != 0,
+        name,
+        countrycode,
+        district,
+        (flags & NULL_POPULATION) != 0 ? null : population);
+  }
+
+  /** 估算记录在内存表中占用的字节数 */
+  int estimatedSize() {
+    return 64 + textSize(bytes(name)) + textSize(bytes(district)) + 8;
+  }
+
+  private static byte[] bytes(String value) {
+    if (value == null) {
+      return null;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > Short.MAX_VALUE) {
+      throw new IllegalArgumentException("text field too long: " + bytes.length);
+    }
+    return bytes;
+  }
+
+  private static int textSize(byte[] bytes) {
+    return Short.BYTES + (bytes == null ? 0 : bytes.length);
+  }
+
+  private static void putText(ByteBuffer buffer, byte[] bytes) {
+    if (bytes == null) {
+      buffer.putShort((short) -1);
+    } else {
+      buffer.putShort((short) bytes.length).put(bytes);
+    }
+  }
+
+  private static String getText(ByteBuffer buffer) {
+    short length = buffer.getShort();
+    if (length < 0) {
+      return null;
+    }
+    byte[] bytes = new byte[length];
+    buffer.get(bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+}
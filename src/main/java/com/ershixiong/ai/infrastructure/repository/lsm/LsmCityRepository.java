@@ -0,0 +1,744 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 基于嵌入式日志结构存储的城市仓储，用于无法运行MySQL但需要持久化的站点。
+ *
+ * <p>写路径：
+ *
+ * <ul>
+ *   <li>分配ID和版本号后追加到{@link WriteAheadLog}，并发写入合并fsync，落盘后写入{@link Memtable}
+ *   <li>内存表超过阈值时冻结，切换到新的预写日志，由后台线程刷成{@link Segment}后删除旧日志
+ *   <li>段数达到阈值时后台线程把全部段合并为一个，同时丢弃被覆盖的旧版本和墓碑
+ * </ul>
+ *
+ * <p>读路径：按ID查询依次查看活动内存表、冻结内存表和由新到旧的段，段先经布隆过滤器和稀疏索引过滤；
+ * findAll、scanAll和findByNameLike对所有来源做按ID的多路归并，同一ID取版本号最大的记录。
+ *
+ * <p>启动时删除未完成的临时文件和已被合并替换的旧段，重放尚未刷盘的预写日志并立即刷成段。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public final class LsmCityRepository implements CityRepository, AutoCloseable {
+
+  private static final int MAX_FROZEN_MEMTABLES = 4;
+
+  private final Path directory;
+  private final Options options;
+  private final ReadWriteLock rotationLock = new ReentrantReadWriteLock();
+  private final ReentrantLock writeLock = new ReentrantLock();
+  private final Object stateMonitor = new Object();
+  private final ExecutorService background;
+
+  private volatile Tables tables;
+  private volatile WriteAheadLog wal;
+  private long nextSequence;
+  private long nextId;
+  private long lastVersion;
+  private volatile long retiredWalSyncCount;
+  private volatile long flushCount;
+  private volatile long compactionCount;
+
+  private LsmCityRepository(Path directory, Options options) {
+    this.directory = directory;
+    this.options = options;
+    this.background =
+        Executors.newSingleThreadExecutor(
+            r -> {
+              Thread thread = new Thread(r, "city-lsm-background");
+              thread.setDaemon(true);
+              return thread;
+            });
+  }
+
+  /**
+   * 打开或创建存储
+   *
+   * @param directory 数据目录
+   * @param options 存储参数
+   * @return 仓储
+   * @throws IOException 读取或恢复失败
+   */
+  public static LsmCityRepository open(Path directory, Options options) throws IOException {
+    LsmCityRepository repository = new LsmCityRepository(directory, options);
+    try {
+      repository.recover();
+    } catch (IOException | RuntimeException e) {
+      repository.background.shutdownNow();
+      throw e;
+    }
+    return repository;
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
+    Tables current = acquire();
+    try {
+      CityRecord record = current.find(id);
+      return record == null || record.tombstone()
+          ? Optional.empty()
+          : Optional.of(record.toCity());
+    } catch (UncheckedIOException e) {
+      throw storageFailure(e);
+    } finally {
+      current.release();
+    }
+  }
+
+  @Override
+  public List<City> findAll() {
+    List<City> result = new ArrayList<>();
+    scanAll(result::add);
+    return result;
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    Tables current = acquire();
+    try {
+      Iterator<CityRecord> records = current.merged();
+      while (records.hasNext()) {
+        CityRecord record = records.next();
+        if (!record.tombstone()) {
+          consumer.accept(record.toCity());
+        }
+      }
+    } catch (UncheckedIOException e) {
+      throw storageFailure(e);
+    } finally {
+      current.release();
+    }
+  }
+
+  /**
+   * 按LIKE模式匹配名称，不区分大小写，按ID升序分页
+   *
+   * @param namePattern 名称模式
+   * @param page 分页参数
+   * @return 分页的城市列表
+   */
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    Pattern pattern = LikePattern.compile(namePattern == null ? "%" : namePattern);
+    long offset = Math.max(0L, (page.getCurrent() - 1) * page.getSize());
+    List<City> records = new ArrayList<>();
+    long[] total = new long[1];
+    scanAll(
+        city -> {
+          if (city.getName() == null || !pattern.matcher(city.getName()).matches()) {
+            return;
+          }
+          if (total[0] >= offset && records.size() < page.getSize()) {
+            records.add(city);
+          }
+          total[0]++;
+        });
+    Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total[0]);
+    result.setRecords(records);
+    return result;
+  }
+
+  /**
+   * 保存城市，返回时已落盘。
+   *
+   * <p>ID为null时分配新ID插入，ID不存在时按给定ID插入，否则写入新版本覆盖。
+   *
+   * @param city 要保存的城市对象
+   * @return 保存后的城市对象
+   */
+  @Override
+  public City save(City city) {
+    if (city == null) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null");
+    }
+    CityRecord record =
+        write(
+            () -> {
+              long id = city.getId() == null ? nextId : city.getId();
+              nextId = Math.max(nextId, id + 1);
+              return CityRecord.of(id, ++lastVersion, city);
+            });
+    return record.toCity();
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    if (id == null || findById(id).isEmpty()) {
+      return;
+    }
+    write(() -> CityRecord.tombstone(id, ++lastVersion));
+  }
+
+  /** 关闭后台线程、预写日志和段文件，已确认的写入都已在预写日志中落盘 */
+  @Override
+  public void close() throws IOException {
+    background.shutdown();
+    try {
+      if (!background.awaitTermination(30, TimeUnit.SECONDS)) {
+        background.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+    rotationLock.writeLock().lock();
+    try {
+      wal.close();
+      for (Segment segment : tables.segments) {
+        segment.release();
+      }
+    } finally {
+      rotationLock.writeLock().unlock();
+    }
+  }
+
+  /** 段文件数 */
+  public int getSegmentCount() {
+    return tables.segments.size();
+  }
+
+  /** 活动内存表的估算字节数 */
+  public long getMemtableBytes() {
+    return tables.active.bytes();
+  }
+
+  /** 预写日志累计执行的fsync次数 */
+  public long getWalSyncCount() {
+    return retiredWalSyncCount + wal.syncCount();
+  }
+
+  /** 内存表刷盘次数 */
+  public long getFlushCount() {
+    return flushCount;
+  }
+
+  /** 段合并次数 */
+  public long getCompactionCount() {
+    return compactionCount;
+  }
+
+  /**
+   * 冻结当前内存表并等待后台刷盘和合并完成，用于测试和停机前整理
+   *
+   * @throws IOException 刷盘失败
+   */
+  public void flush() throws IOException {
+    Future<?> pending = rotate(true);
+    if (pending != null) {
+      await(pending);
+    }
+    await(
+        background.submit(
+            () -> {
+              compactIfNeeded();
+              return null;
+            }));
+  }
+
+  private CityRecord write(RecordFactory factory) {
+    CityRecord record;
+    rotationLock.readLock().lock();
+    try {
+      WriteAheadLog current;
+      long end;
+      writeLock.lock();
+      try {
+        record = factory.create();
+        current = wal;
+        end = current.append(record);
+      } finally {
+        writeLock.unlock();
+      }
+      current.sync(end);
+      tables.active.apply(record);
+    } catch (UncheckedIOException e) {
+      throw storageFailure(e);
+    } finally {
+      rotationLock.readLock().unlock();
+    }
+    if (tables.active.bytes() >= options.memtableBytes()) {
+      try {
+        Future<?> pending = rotate(false);
+        if (pending != null && tables.frozen.size() > MAX_FROZEN_MEMTABLES) {
+          // 刷盘跟不上写入时让写线程等待，避免冻结内存表无限堆积
+          await(pending);
+        }
+      } catch (IOException e) {
+        throw storageFailure(new UncheckedIOException(e));
+      }
+    }
+    return record;
+  }
+
+  /**
+   * 冻结活动内存表并提交后台刷盘
+   *
+   * @param force 是否不论大小都冻结
+   * @return 刷盘任务，无需冻结时为null
+   */
+  private Future<?> rotate(boolean force) throws IOException {
+    Memtable frozen;
+    rotationLock.writeLock().lock();
+    try {
+      Tables current = tables;
+      if (current.active.isEmpty()
+          || (!force && current.active.bytes() < options.memtableBytes())) {
+        return null;
+      }
+      frozen = current.active;
+      WriteAheadLog previous = wal;
+      long sequence = nextSequence++;
+      wal = WriteAheadLog.create(walPath(sequence));
+      previous.close();
+      retiredWalSyncCount += previous.syncCount();
+      synchronized (stateMonitor) {
+        List<Memtable> frozenTables = new ArrayList<>(current.frozen.size() + 1);
+        frozenTables.add(frozen);
+        frozenTables.addAll(tables.frozen);
+        tables = new Tables(new Memtable(sequence), frozenTables, tables.segments);
+      }
+    } finally {
+      rotationLock.writeLock().unlock();
+    }
+    return background.submit(
+        () -> {
+          flushMemtable(frozen);
+          compactIfNeeded();
+          return null;
+        });
+  }
+
+  private void flushMemtable(Memtable memtable) throws IOException {
+    Segment segment =
+        Segment.write(
+            directory,
+            memtable.walSequence(),
+            memtable.walSequence(),
+            memtable.records().iterator(),
+            memtable.records().size(),
+            0L,
+            options.indexInterval(),
+            options.bloomBitsPerKey());
+    synchronized (stateMonitor) {
+      List<Memtable> frozen = new ArrayList<>(tables.frozen);
+      frozen.remove(memtable);
+      List<Segment> segments = new ArrayList<>(tables.segments.size() + 1);
+      segments.add(segment);
+      segments.addAll(tables.segments);
+      tables = new Tables(tables.active, frozen, segments);
+    }
+    Files.deleteIfExists(walPath(memtable.walSequence()));
+    flushCount++;
+  }
+
+  /** 段数达到阈值时把全部段合并为一个，只在后台线程调用 */
+  private void compactIfNeeded() throws IOException {
+    List<Segment> inputs = tables.segments;
+    if (inputs.size() < options.compactionThreshold()) {
+      return;
+    }
+    long expected = 0;
+    long maxId = 0;
+    long minSequence = Long.MAX_VALUE;
+    long maxSequence = Long.MIN_VALUE;
+    List<Iterator<CityRecord>> sources = new ArrayList<>(inputs.size());
+    for (Segment segment : inputs) {
+      expected += segment.recordCount();
+      maxId = Math.max(maxId, segment.maxId());
+      minSequence = Math.min(minSequence, segment.minSequence());
+      maxSequence = Math.max(maxSequence, segment.maxSequence());
+      sources.add(segment.iterator());
+    }
+    // 输入包含最旧的段，墓碑之下已没有更旧的版本，可以直接丢弃
+    Iterator<CityRecord> live = skipTombstones(new MergingIterator(sources));
+    Segment output =
+        Segment.write(
+            directory,
+            minSequence,
+            maxSequence,
+            live,
+            expected,
+            maxId,
+            options.indexInterval(),
+            options.bloomBitsPerKey());
+    synchronized (stateMonitor) {
+      List<Segment> segments = new ArrayList<>(tables.segments);
+      segments.removeAll(inputs);
+      segments.add(output);
+      segments.sort(Comparator.comparingLong(Segment::maxSequence).reversed());
+      tables = new Tables(tables.active, tables.frozen, segments);
+    }
+    for (Segment segment : inputs) {
+      segment.retire();
+    }
+    compactionCount++;
+    log.debug("Compacted {} segments into {}", inputs.size(), output.recordCount());
+  }
+
+  private void recover() throws IOException {
+    Files.createDirectories(directory);
+    List<Path> segmentFiles = new ArrayList<>();
+    List<Path> walFiles = new ArrayList<>();
+    try (Stream<Path> files = Files.list(directory)) {
+      for (Path file : files.sorted().toList()) {
+        String name = file.getFileName().toString();
+        if (name.endsWith(".tmp")) {
+          Files.delete(file);
+        } else if (name.startsWith("segment-") && name.endsWith(".sst")) {
+          segmentFiles.add(file);
+        } else if (name.startsWith("wal-") && name.endsWith(".log")) {
+          walFiles.add(file);
+        }
+      }
+    }
+
+    List<Segment> segments = openSegments(segmentFiles);
+    long maxSequence = 0;
+    for (Segment segment : segments) {
+      maxSequence = Math.max(maxSequence, segment.maxSequence());
+      nextId = Math.max(nextId, segment.maxId());
+      lastVersion = Math.max(lastVersion, segment.maxVersion());
+    }
+    maxSequence = replayWal(walFiles, maxSequence, segments);
+
+    nextId = Math.max(1L, nextId + 1);
+    nextSequence = maxSequence + 1;
+    long sequence = nextSequence++;
+    wal = WriteAheadLog.create(walPath(sequence));
+    tables = new Tables(new Memtable(sequence), List.of(), segments);
+    background.submit(
+        () -> {
+          compactIfNeeded();
+          return null;
+        });
+  }
+
+  /**
+   * 打开段文件，丢弃合并后未删除的旧段
+   *
+   * @param segmentFiles 段文件
+   * @return 由新到旧排列的段
+   * @throws IOException 打开失败
+   */
+  private static List<Segment> openSegments(List<Path> segmentFiles) throws IOException {
+    List<Segment> segments = new ArrayList<>();
+    for (Path file : segmentFiles) {
+      segments.add(Segment.open(file));
+    }
+    // 合并后崩溃时可能留下已被替换的旧段，其序号范围被新段包含
+    List<Segment> replaced = new ArrayList<>();
+    for (Segment segment : segments) {
+      for (Segment other : segments) {
+        if (other != segment
+            && other.minSequence() <= segment.minSequence()
+            && other.maxSequence() >= segment.maxSequence()
+            && (other.minSequence() != segment.minSequence()
+                || other.maxSequence() != segment.maxSequence())) {
+          replaced.add(segment);
+          break;
+        }
+      }
+    }
+    segments.removeAll(replaced);
+    replaced.forEach(Segment::retire);
+    segments.sort(Comparator.comparingLong(Segment::maxSequence).reversed());
+    return segments;
+  }
+
+  /**
+   * 重放尚未刷盘的预写日志并立即刷成段，放在段列表最前面
+   *
+   * @param walFiles 预写日志文件
+   * @param flushedSequence 已刷成段的最大序号
+   * @param segments 由新到旧排列的段
+   * @return 段和预写日志中的最大序号
+   * @throws IOException 读写失败
+   */
+  private long replayWal(List<Path> walFiles, long flushedSequence, List<Segment> segments)
+      throws IOException {
+    long maxSequence = flushedSequence;
+    Memtable recovered = null;
+    long minReplayed = Long.MAX_VALUE;
+    List<Path> replayed = new ArrayList<>();
+    for (Path file : walFiles) {
+      long sequence = walSequence(file);
+      maxSequence = Math.max(maxSequence, sequence);
+      if (sequence <= flushedSequence) {
+        // 已刷成段但删除前崩溃
+        Files.delete(file);
+        continue;
+      }
+      if (recovered == null) {
+        recovered = new Memtable(sequence);
+      }
+      for (CityRecord record : WriteAheadLog.replay(file)) {
+        recovered.apply(record);
+        nextId = Math.max(nextId, record.id());
+        lastVersion = Math.max(lastVersion, record.version());
+      }
+      minReplayed = Math.min(minReplayed, sequence);
+      replayed.add(file);
+    }
+    if (recovered != null && !recovered.isEmpty()) {
+      Segment segment =
+          Segment.write(
+              directory,
+              minReplayed,
+              maxSequence,
+              recovered.records().iterator(),
+              recovered.records().size(),
+              0L,
+              options.indexInterval(),
+              options.bloomBitsPerKey());
+      segments.add(0, segment);
+      log.info("Recovered {} city records from the write-ahead log", segment.recordCount());
+    }
+    for (Path file : replayed) {
+      Files.delete(file);
+    }
+    return maxSequence;
+  }
+
+  private Tables acquire() {
+    while (true) {
+      Tables current = tables;
+      int retained = 0;
+      for (Segment segment : current.segments) {
+        if (!segment.retain()) {
+          break;
+        }
+        retained++;
+      }
+      if (retained == current.segments.size()) {
+        return current;
+      }
+      // 合并恰好替换了段，释放后读取新的状态
+      for (int i = 0; i < retained; i++) {
+        current.segments.get(i).release();
+      }
+    }
+  }
+
+  private Path walPath(long sequence) {
+    return directory.resolve(String.format("wal-%020d.log", sequence));
+  }
+
+  private static long walSequence(Path file) {
+    String name = file.getFileName().toString();
+    return Long.parseLong(name.substring("wal-".length(), name.length() - ".log".length()));
+  }
+
+  private static void await(Future<?> future) throws IOException {
+    try {
+      future.get();
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      throw new IOException("Interrupted while waiting for the city store", e);
+    } catch (ExecutionException e) {
+      if (e.getCause() instanceof IOException cause) {
+        throw cause;
+      }
+      throw new IOException("City store background task failed", e.getCause());
+    }
+  }
+
+  private static Iterator<CityRecord> skipTombstones(Iterator<CityRecord> records) {
+    return new Iterator<>() {
+      private CityRecord next = advance();
+
+      private CityRecord advance() {
+        while (records.hasNext()) {
+          CityRecord record = records.next();
+          if (!record.tombstone()) {
+            return record;
+          }
+        }
+        return null;
+      }
+
+      @Override
+      public boolean hasNext() {
+        return next != null;
+      }
+
+      @Override
+      public CityRecord next() {
+        if (next == null) {
+          throw new NoSuchElementException();
+        }
+        CityRecord result = next;
+        next = advance();
+        return result;
+      }
+    };
+  }
+
+  private static DataAccessResourceFailureException storageFailure(UncheckedIOException e) {
+    return new DataAccessResourceFailureException("City store I/O failed", e.getCause());
+  }
+
+  /** 在写锁内生成待写入的记录 */
+  @FunctionalInterface
+  private interface RecordFactory {
+    CityRecord create();
+  }
+
+  /**
+   * 存储参数
+   *
+   * @param memtableBytes 内存表冻结阈值
+   * @param compactionThreshold 触发合并的段数
+   * @param indexInterval 段文件稀疏索引间隔
+   * @param bloomBitsPerKey 布隆过滤器每个键的位数
+   */
+  public record Options(
+      long memtableBytes, int compactionThreshold, int indexInterval, int bloomBitsPerKey) {
+  }
+
+  /** 某一时刻的内存表和段集合，创建后不再修改 */
+  private static final class Tables {
+    private final Memtable active;
+    private final List<Memtable> frozen;
+    private final List<Segment> segments;
+
+    Tables(Memtable active, List<Memtable> frozen, List<Segment> segments) {
+      this.active = active;
+      this.frozen = List.copyOf(frozen);
+      this.segments = List.copyOf(segments);
+    }
+
+    CityRecord find(long id) {
+      CityRecord record = active.get(id);
+      for (int i = 0; record == null && i < frozen.size(); i++) {
+        record = frozen.get(i).get(id);
+      }
+      for (int i = 0; record == null && i < segments.size(); i++) {
+        record = segments.get(i).get(id);
+      }
+      return record;
+    }
+
+    Iterator<CityRecord> merged() {
+      List<Iterator<CityRecord>> sources = new ArrayList<>(2 + frozen.size() + segments.size());
+      sources.add(active.records().iterator());
+      for (Memtable memtable : frozen) {
+        sources.add(memtable.records().iterator());
+      }
+      for (Segment segment : segments) {
+        sources.add(segment.iterator());
+      }
+      return new MergingIterator(sources);
+    }
+
+    void release() {
+      for (Segment segment : segments) {
+        segment.release();
+      }
+    }
+  }
+
+  /** 多个按ID升序的来源的归并，同一ID只返回版本号最大的记录 */
+  private static final class MergingIterator implements Iterator<CityRecord> {
+    private final PriorityQueue<Cursor> heap =
+        new PriorityQueue<>(Comparator.comparingLong(cursor -> cursor.current.id()));
+
+    MergingIterator(List<Iterator<CityRecord>> sources) {
+      for (Iterator<CityRecord> source : sources) {
+        if (source.hasNext()) {
+          heap.add(new Cursor(source));
+        }
+      }
+    }
+
+    @Override
+    public boolean hasNext() {
+      return !heap.isEmpty();
+    }
+
+    @Override
+    public CityRecord next() {
+      Cursor first = heap.poll();
+      if (first == null) {
+        throw new NoSuchElementException();
+      }
+      CityRecord newest = first.current;
+      advance(first);
+      while (!heap.isEmpty() && heap.peek().current.id() == newest.id()) {
+        Cursor same = heap.poll();
+        if (same.current.version() > newest.version()) {
+          newest = same.current;
+        }
+        advance(same);
+      }
+      return newest;
+    }
+
+    private void advance(Cursor cursor) {
+      if (cursor.source.hasNext()) {
+        cursor.current = cursor.source.next();
+        heap.add(cursor);
+      }
+    }
+
+    private static final class Cursor {
+      private final Iterator<CityRecord> source;
+      private CityRecord current;
+
+      Cursor(Iterator<CityRecord> source) {
+        this.source = source;
+        this.current = source.next();
+      }
+    }
+  }
+}
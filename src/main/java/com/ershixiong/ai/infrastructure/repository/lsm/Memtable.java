@@ -0,0 +1,71 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * 内存表，按ID有序保存最近写入、尚未刷入段文件的记录。
+ *
+ * <p>同一ID只保留版本号最大的记录，写入顺序与版本顺序不一致时也不会以旧覆盖新。
+ * 写满后冻结为只读，由后台线程刷成段文件。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class Memtable {
+
+  private final long walSequence;
+  private final ConcurrentSkipListMap<Long, CityRecord> records = new ConcurrentSkipListMap<>();
+  private final AtomicLong bytes = new AtomicLong();
+
+  /**
+   * @param walSequence 对应预写日志的序号，刷盘后生成同序号的段文件
+   */
+  Memtable(long walSequence) {
+    this.walSequence = walSequence;
+  }
+
+  void apply(CityRecord record) {
+    records.merge(
+        record.id(), record, (old, fresh) -> fresh.version() > old.version() ? fresh : old);
+    bytes.addAndGet(record.estimatedSize());
+  }
+
+  CityRecord get(long id) {
+    return records.get(id);
+  }
+
+  /** 按ID升序排列的记录 */
+  Collection<CityRecord> records() {
+    return records.values();
+  }
+
+  long walSequence() {
+    return walSequence;
+  }
+
+  long bytes() {
+    return bytes.get();
+  }
+
+  boolean isEmpty() {
+    return records.isEmpty();
+  }
+}
@@ -0,0 +1,435 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 不可变的有序段文件。
+ *
+ * <p>文件布局：
+ *
+ * <ul>
+ *   <li>按ID升序排列的记录，每条为长度(4) + {@link CityRecord}编码
+ *   <li>稀疏索引：每隔固定条数记录一次ID和文件偏移
+ *   <li>布隆过滤器
+ *   <li>定长尾部：索引偏移、过滤器偏移、记录数、最大ID、最大版本号和魔数
+ * </ul>
+ *
+ * <p>文件名为segment-最小序号-最大序号.sst。刷盘生成的段两个序号都等于预写日志序号，
+ * 合并生成的段覆盖所有输入段的序号范围；序号范围被其他段包含的段是合并后尚未删除的旧文件。
+ * 段打开后索引和过滤器常驻内存，按ID查找只读一个索引区间。读取方持有引用期间文件不会被关闭。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class Segment {
+
+  private static final long MAGIC = 0x4349545953535431L;
+  private static final int FOOTER_BYTES = 8 * 6;
+  private static final int READ_CHUNK = 64 * 1024;
+
+  private final Path path;
+  private final long minSequence;
+  private final long maxSequence;
+  private final FileChannel channel;
+  private final long[] indexIds;
+  private final long[] indexOffsets;
+  private final long dataEnd;
+  private final BloomFilter bloomFilter;
+  private final long recordCount;
+  private final long maxId;
+  private final long maxVersion;
+  private final AtomicInteger references = new AtomicInteger(1);
+  private volatile boolean obsolete;
+
+  private Segment(
+      Path path,
+      long minSequence,
+      long maxSequence,
+      FileChannel channel,
+      long[] indexIds,
+      long[] indexOffsets,
+      BloomFilter bloomFilter,
+      Footer footer) {
+    this.path = path;
+    this.minSequence = minSequence;
+    this.maxSequence = maxSequence;
+    this.channel = channel;
+    this.indexIds = indexIds;
+    this.indexOffsets = indexOffsets;
+    this.dataEnd = footer.indexOffset();
+    this.bloomFilter = bloomFilter;
+    this.recordCount = footer.recordCount();
+    this.maxId = footer.maxId();
+    this.maxVersion = footer.maxVersion();
+  }
+
+  /**
+   * 段文件名
+   *
+   * @param minSequence 最小序号
+   * @param maxSequence 最大序号
+   * @return 文件名
+   */
+  static String fileName(long minSequence, long maxSequence) {
+    return String.format("segment-%020d-%020d.sst", minSequence, maxSequence);
+  }
+
+  /**
+   * 把按ID升序排列的记录写成段文件，先写临时文件并落盘，再原子改名
+   *
+   * @param directory 数据目录
+   * @param minSequence 最小序号
+   * @param maxSequence 最大序号
+   * @param records 按ID升序排列、ID不重复的记录
+   * @param expectedRecords 预计记录数，用于确定过滤器大小
+   * @param maxId 需要保留的最大ID，包括已删除的ID，避免重启后复用
+   * @param indexInterval 稀疏索引间隔
+   * @param bloomBitsPerKey 过滤器每个键的位数
+   * @return 打开的段
+   * @throws IOException 写入失败
+   */
+  static Segment write(
+      Path directory,
+      long minSequence,
+      long maxSequence,
+      Iterator<CityRecord> records,
+      long expectedRecords,
+      long maxId,
+      int indexInterval,
+      int bloomBitsPerKey)
+      throws IOException {
+    Path target = directory.resolve(fileName(minSequence, maxSequence));
+    Path temp = directory.resolve(target.getFileName() + ".tmp");
+    BloomFilter bloomFilter = BloomFilter.create(Math.max(1, expectedRecords), bloomBitsPerKey);
+    long[] indexIds = new long[16];
+    long[] indexOffsets = new long[16];
+    int indexSize = 0;
+    long count = 0;
+    long maxVersion = 0;
+    try (FileChannel out =
+        FileChannel.open(
+            temp,
+            StandardOpenOption.CREATE,
+            StandardOpenOption.TRUNCATE_EXISTING,
+            StandardOpenOption.WRITE)) {
+      ByteBuffer buffer = ByteBuffer.allocate(READ_CHUNK);
+      long position = 0;
+      while (records.hasNext()) {
+        CityRecord record = records.next();
+        byte[] payload = record.encode();
+        if (count % indexInterval == 0) {
+          if (indexSize == indexIds.length) {
+            indexIds = Arrays.copyOf(indexIds, indexSize * 2);
+            indexOffsets = Arrays.copyOf(indexOffsets, indexSize * 2);
+          }
+          indexIds[indexSize] = record.id();
+          indexOffsets[indexSize++] = position;
+        }
+        if (buffer.remaining() < Integer.BYTES + payload.length) {
+          flush(out, buffer);
+          if (buffer.capacity() < Integer.BYTES + payload.length) {
+            buffer = ByteBuffer.allocate(Integer.BYTES + payload.length);
+          }
+        }
+        buffer.putInt(payload.length).put(payload);
+        position += Integer.BYTES + payload.length;
+        bloomFilter.add(record.id());
+        maxId = Math.max(maxId, record.id());
+        maxVersion = Math.max(maxVersion, record.version());
+        count++;
+      }
+      flush(out, buffer);
+      long indexOffset = position;
+      ByteBuffer tail =
+          ByteBuffer.allocate(
+              Integer.BYTES + indexSize * 16 + bloomFilter.serializedSize() + FOOTER_BYTES);
+      tail.putInt(indexSize);
+      for (int i = 0; i < indexSize; i++) {
+        tail.putLong(indexIds[i]).putLong(indexOffsets[i]);
+      }
+      long bloomOffset = indexOffset + tail.position();
+      bloomFilter.writeTo(tail);
+      new Footer(indexOffset, bloomOffset, count, maxId, maxVersion).writeTo(tail);
+      flush(out, tail);
+      out.force(true);
+    }
+    Files.move(temp, target, StandardCopyOption.ATOMIC_MOVE);
+    return open(target);
+  }
+
+  /**
+   * 打开段文件
+   *
+   * @param path 文件路径
+   * @return 段
+   * @throws IOException 读取失败或文件不完整
+   */
+  static Segment open(Path path) throws IOException {
+    String[] parts = path.getFileName().toString().split("[-.]");
+    long minSequence = Long.parseLong(parts[1]);
+    long maxSequence = Long.parseLong(parts[2]);
+    FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+    try {
+      long size = channel.size();
+      if (size < FOOTER_BYTES) {
+        throw new IOException("Segment too small: " + path);
+      }
+      Footer footer = Footer.readFrom(readFully(channel, size - FOOTER_BYTES, FOOTER_BYTES));
+      if (footer == null
+          || footer.indexOffset() < 0
+          || footer.bloomOffset() < footer.indexOffset()
+          || footer.bloomOffset() > size - FOOTER_BYTES) {
+        throw new IOException("Corrupt segment footer: " + path);
+      }
+      ByteBuffer tail =
+          readFully(
+              channel, footer.indexOffset(), (int) (size - FOOTER_BYTES - footer.indexOffset()));
+      int indexSize = tail.getInt();
+      long[] indexIds = new long[indexSize];
+      long[] indexOffsets = new long[indexSize];
+      for (int i = 0; i < indexSize; i++) {
+        indexIds[i] = tail.getLong();
+        indexOffsets[i] = tail.getLong();
+      }
+      BloomFilter bloomFilter = BloomFilter.readFrom(tail);
+      return new Segment(
+          path,
+          minSequence,
+          maxSequence,
+          channel,
+          indexIds,
+          indexOffsets,
+          bloomFilter,
+          footer);
+    } catch (IOException | RuntimeException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * 按ID查找记录
+   *
+   * @param id 城市ID
+   * @return 记录，可能是墓碑；不存在时为null
+   */
+  CityRecord get(long id) {
+    if (indexIds.length == 0 || id < indexIds[0] || !bloomFilter.mightContain(id)) {
+      return null;
+    }
+    int block = Arrays.binarySearch(indexIds, id);
+    if (block < 0) {
+      block = -block - 2;
+    }
+    long start = indexOffsets[block];
+    long end = block + 1 < indexOffsets.length ? indexOffsets[block + 1] : dataEnd;
+    try {
+      ByteBuffer data = readFully(channel, start, (int) (end - start));
+      while (data.hasRemaining()) {
+        int length = data.getInt();
+        ByteBuffer payload = data.slice(data.position(), length);
+        if (payload.getLong(0) == id) {
+          return CityRecord.decode(payload);
+        }
+        if (payload.getLong(0) > id) {
+          return null;
+        }
+        data.position(data.position() + length);
+      }
+      return null;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to read " + path, e);
+    }
+  }
+
+  /**
+   * 按ID升序遍历所有记录，分块顺序读取
+   *
+   * @return 记录迭代器
+   */
+  Iterator<CityRecord> iterator() {
+    return new Iterator<>() {
+      private long position;
+      private ByteBuffer chunk = ByteBuffer.allocate(0);
+
+      @Override
+      public boolean hasNext() {
+        return chunk.hasRemaining() || position < dataEnd;
+      }
+
+      @Override
+      public CityRecord next() {
+        if (!hasNext()) {
+          throw new NoSuchElementException();
+        }
+        try {
+          if (chunk.remaining() < Integer.BYTES
+              || chunk.remaining() < Integer.BYTES + chunk.getInt(chunk.position())) {
+            refill();
+          }
+          int length = chunk.getInt();
+          CityRecord record = CityRecord.decode(chunk.slice(chunk.position(), length));
+          chunk.position(chunk.position() + length);
+          return record;
+        } catch (IOException e) {
+          throw new UncheckedIOException("Failed to read " + path, e);
+        }
+      }
+
+      private void refill() throws IOException {
+        long start = position - chunk.remaining();
+        int length = (int) Math.min(READ_CHUNK, dataEnd - start);
+        ByteBuffer head = readFully(channel, start, Math.min(length, Integer.BYTES));
+        int recordBytes = Integer.BYTES + head.getInt(0);
+        chunk = readFully(channel, start, Math.max(length, recordBytes));
+        position = start + chunk.remaining();
+      }
+    };
+  }
+
+  /**
+   * 增加引用，段已关闭时失败
+   *
+   * @return 是否成功
+   */
+  boolean retain() {
+    while (true) {
+      int current = references.get();
+      if (current == 0) {
+        return false;
+      }
+      if (references.compareAndSet(current, current + 1)) {
+        return true;
+      }
+    }
+  }
+
+  /** 释放引用，已被合并替换的段在最后一个引用释放时关闭并删除文件 */
+  void release() {
+    if (references.decrementAndGet() == 0) {
+      try {
+        channel.close();
+        if (obsolete) {
+          Files.deleteIfExists(path);
+        }
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to release " + path, e);
+      }
+    }
+  }
+
+  /** 标记为已被合并替换，并释放存储引擎持有的引用 */
+  void retire() {
+    obsolete = true;
+    release();
+  }
+
+  long minSequence() {
+    return minSequence;
+  }
+
+  long maxSequence() {
+    return maxSequence;
+  }
+
+  long recordCount() {
+    return recordCount;
+  }
+
+  long maxId() {
+    return maxId;
+  }
+
+  long maxVersion() {
+    return maxVersion;
+  }
+
+  long fileBytes() {
+    try {
+      return channel.size();
+    } catch (IOException e) {
+      return 0L;
+    }
+  }
+
+  /**
+   * 段文件的定长尾部，魔数之前的字段
+   *
+   * @param indexOffset 索引区偏移，也是数据区的结束位置
+   * @param bloomOffset 过滤器偏移
+   * @param recordCount 记录数
+   * @param maxId 最大ID
+   * @param maxVersion 最大版本号
+   */
+  private record Footer(
+      long indexOffset, long bloomOffset, long recordCount, long maxId, long maxVersion) {
+
+    /** 读取尾部，魔数不匹配时返回null */
+    static Footer readFrom(ByteBuffer buffer) {
+      Footer footer =
+          new Footer(
+              buffer.getLong(),
+              buffer.getLong(),
+              buffer.getLong(),
+              buffer.getLong(),
+              buffer.getLong());
+      return buffer.getLong() == MAGIC ? footer : null;
+    }
+
+    void writeTo(ByteBuffer buffer) {
+      buffer
+          .putLong(indexOffset)
+          .putLong(bloomOffset)
+          .putLong(recordCount)
+          .putLong(maxId)
+          .putLong(maxVersion)
+          .putLong(MAGIC);
+    }
+  }
+
+  private static void flush(FileChannel out, ByteBuffer buffer) throws IOException {
+    buffer.flip();
+    while (buffer.hasRemaining()) {
+      out.write(buffer);
+    }
+    buffer.clear();
+  }
+
+  private static ByteBuffer readFully(FileChannel channel, long position, int length)
+      throws IOException {
+    ByteBuffer buffer = ByteBuffer.allocate(length);
+    while (buffer.hasRemaining()) {
+      if (channel.read(buffer, position + buffer.position()) < 0) {
+        throw new IOException("Unexpected end of segment");
+      }
+    }
+    return buffer.flip();
+  }
+}
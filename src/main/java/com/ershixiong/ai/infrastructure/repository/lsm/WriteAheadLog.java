@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.zip.CRC32C;
+
+/**
+ * 预写日志。
+ *
+ * <p>每条记录为长度(4) + CRC32C(4) + {@link CityRecord}编码。写入分两步：
+ *
+ * <ul>
+ *   <li>{@link #append}在锁内顺序写入文件，返回记录末尾位置
+ *   <li>{@link #sync}保证该位置之前的数据已落盘。同一时刻只有一个线程执行fsync，
+ *       等待的线程在它完成后若已被覆盖则直接返回，否则由其中一个线程为所有已写入的记录再做一次fsync，
+ *       并发写入因此合并为少量fsync
+ * </ul>
+ *
+ * <p>写入和fsync期间持有的是{@link ReentrantLock}而非synchronized，虚拟线程阻塞在文件IO上时不会固定载体线程。
+ *
+ * <p>恢复时从头读取，遇到长度越界或校验失败即视为崩溃时未写完的尾部，截断后继续使用。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+final class WriteAheadLog implements AutoCloseable {
+
+  private static final int HEADER_BYTES = Integer.BYTES * 2;
+  private static final int MAX_RECORD_BYTES = 1 << 20;
+
+  private final Path path;
+  private final FileChannel channel;
+  private final ReentrantLock appendLock = new ReentrantLock();
+  private final ReentrantLock syncLock = new ReentrantLock();
+  private volatile long written;
+  private volatile long synced;
+  private long syncCount;
+
+  private WriteAheadLog(Path path, FileChannel channel, long size) {
+    this.path = path;
+    this.channel = channel;
+    this.written = size;
+    this.synced = size;
+  }
+
+  /**
+   * 创建新的日志文件
+   *
+   * @param path 文件路径
+   * @return 日志
+   * @throws IOException 创建失败
+   */
+  static WriteAheadLog create(Path path) throws IOException {
+    FileChannel channel =
+        FileChannel.open(
+            path,
+            StandardOpenOption.CREATE_NEW,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.READ);
+    return new WriteAheadLog(path, channel, 0L);
+  }
+
+  /**
+   * 读取日志中的全部完整记录，并截断损坏的尾部
+   *
+   * @param path 文件路径
+   * @return 按写入顺序排列的记录
+   * @throws IOException 读取失败
+   */
+  static List<CityRecord> replay(Path path) throws IOException {
+    List<CityRecord> records = new ArrayList<>();
+    try (FileChannel channel =
+        FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+      long size = channel.size();
+      ByteBuffer data = ByteBuffer.allocate((int) Math.min(size, Integer.MAX_VALUE));
+      while (data.hasRemaining()) {
+        if (channel.read(data, data.position()) < 0) {
+          break;
+        }
+      }
+      data.flip();
+      long valid = 0;
+      CRC32C crc = new CRC32C();
+      while (data.remaining() >= HEADER_BYTES) {
+        int length = data.getInt();
+        int checksum = data.getInt();
+        if (length <= 0 || length > MAX_RECORD_BYTES || length > data.remaining()) {
+          break;
+        }
+        ByteBuffer payload = data.slice(data.position(), length);
+        crc.reset();
+        crc.update(payload.duplicate());
+        if ((int) crc.getValue() != checksum) {
+          break;
+        }
+        records.add(CityRecord.decode(payload));
+        data.position(data.position() + length);
+        valid = data.position();
+      }
+      if (valid < size) {
+        log.warn("Truncating {} torn bytes at the end of {}", size - valid, path);
+        channel.truncate(valid);
+        channel.force(false);
+      }
+    }
+    return records;
+  }
+
+  /**
+   * 追加记录，此时尚未保证落盘
+   *
+   * @param record 记录
+   * @return 记录末尾在日志中的位置，传给{@link #sync}
+   */
+  long append(CityRecord record) {
+    byte[] payload = record.encode();
+    CRC32C crc = new CRC32C();
+    crc.update(payload);
+    ByteBuffer buffer = ByteBuffer.allocate(HEADER_BYTES + payload.length);
+    buffer.putInt(payload.length).putInt((int) crc.getValue()).put(payload).flip();
+    appendLock.lock();
+    try {
+      long position = written;
+      while (buffer.hasRemaining()) {
+        position += channel.write(buffer, position);
+      }
+      written = position;
+      return position;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Failed to append to " + path, e);
+    } finally {
+      appendLock.unlock();
+    }
+  }
+
+  /**
+   * 等待指定位置之前的数据落盘
+   *
+   * @param position {@link #append}返回的位置
+   */
+  void sync(long position) {
+    if (synced >= position) {
+      return;
+    }
+    syncLock.lock();
+    try {
+      if (synced >= position) {
+        return;
+      }
+      long target = written;
+      try {
+        channel.force(false);
+      } catch (IOException e) {
+        throw new UncheckedIOException("Failed to sync " + path, e);
+      }
+      synced = target;
+      syncCount++;
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  Path path() {
+    return path;
+  }
+
+  /** 已执行的fsync次数 */
+  long syncCount() {
+    syncLock.lock();
+    try {
+      return syncCount;
+    } finally {
+      syncLock.unlock();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.memory;
+
+import com.ershixiong.ai.domain.model.City;
+
+import java.util.function.Consumer;
+
+/**
+ * 以城市ID为键的持久化位图压缩字典树。
+ *
+ * <p>每层取ID的5位作为下标，节点用32位位图标记存在的子节点，子节点数组只保存存在的项；
+ * 直接以ID而不是哈希值分层，按位图顺序遍历即为ID升序。树高随最大ID增长，ID小于2^20时只有4层。
+ *
+ * <p>所有修改都复制从根到叶子的路径并返回新树，旧树保持不变，可以被任意线程无锁读取。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class CityTrie {
+
+  /** 空树 */
+  static final CityTrie EMPTY = new CityTrie(null, 0, 0);
+
+  private static final int BITS = 5;
+  private static final int MASK = (1 << BITS) - 1;
+
+  private final Node root;
+  private final int shift;
+  private final int size;
+
+  private CityTrie(Node root, int shift, int size) {
+    this.root = root;
+    this.shift = shift;
+    this.size = size;
+  }
+
+  int size() {
+    return size;
+  }
+
+  /**
+   * 查询城市
+   *
+   * @param id 城市ID
+   * @return 城市，不存在时为null
+   */
+  City get(long id) {
+    if (root == null || id < 0 || (id >>> shift) >>> BITS != 0) {
+      return null;
+    }
+    Node node = root;
+    for (int level = shift; ; level -= BITS) {
+      int bit = 1 << ((id >>> level) & MASK);
+      if ((node.bitmap & bit) == 0) {
+        return null;
+      }
+      Object child = node.children[node.index(bit)];
+      if (level == 0) {
+        return (City) child;
+      }
+      node = (Node) child;
+    }
+  }
+
+  /**
+   * 写入城市，ID已存在时替换
+   *
+   * @param id 城市ID，不能为负数
+   * @param city 城市
+   * @return 新树
+   */
+  CityTrie put(long id, City city) {
+    if (id < 0) {
+      throw new IllegalArgumentException("id must not be negative: " + id);
+    }
+    Node node = root;
+    int level = shift;
+    if (node == null) {
+      level = 0;
+      while ((id >>> level) >>> BITS != 0) {
+        level += BITS;
+      }
+    } else {
+      // 新ID超出当前树高时在根上方加层，原根成为新根的第0个子节点
+      while ((id >>> level) >>> BITS != 0) {
+        node = new Node(1, new Object[] {node});
+        level += BITS;
+      }
+    }
+    boolean[] added = new boolean[1];
+    Node updated = put(node, level, id, city, added);
+    return new CityTrie(updated, level, added[0] ? size + 1 : size);
+  }
+
+  /**
+   * 删除城市
+   *
+   * @param id 城市ID
+   * @return 新树，ID不存在时返回当前树
+   */
+  CityTrie remove(long id) {
+    if (get(id) == null) {
+      return this;
+    }
+    Node updated = remove(root, shift, id);
+    return updated == null ? EMPTY : new CityTrie(updated, shift, size - 1);
+  }
+
+  /**
+   * 按ID升序遍历
+   *
+   * @param consumer 城市处理函数
+   */
+  void forEach(Consumer<City> consumer) {
+    if (root != null) {
+      forEach(root, shift, consumer);
+    }
+  }
+
+  /**
+   * 最大的城市ID
+   *
+   * @return 最大ID，空树时为0
+   */
+  long maxId() {
+    if (root == null) {
+      return 0L;
+    }
+    Node node = root;
+    for (int level = shift; ; level -= BITS) {
+      Object last = node.children[node.children.length - 1];
+      if (level == 0) {
+        return ((City) last).getId();
+      }
+      node = (Node) last;
+    }
+  }
+
+  private static Node put(Node node, int level, long id, City city, boolean[] added) {
+    int bit = 1 << ((id >>> level) & MASK);
+    if (node == null) {
+      Object child = level == 0 ? city : put(null, level - BITS, id, city, added);
+      added[0] |= level == 0;
+      return new Node(bit, new Object[] {child});
+    }
+    int index = node.index(bit);
+    if ((node.bitmap & bit) != 0) {
+      Object child =
+          level == 0 ? city : put((Node) node.children[index], level - BITS, id, city, added);
+      Object[] children = node.children.clone();
+      children[index] = child;
+      return new Node(node.bitmap, children);
+    }
+    Object child = level == 0 ? city : put(null, level - BITS, id, city, added);
+    added[0] = true;
+    Object[] children = new Object[node.children.length + 1];
+    System.arraycopy(node.children, 0, children, 0, index);
+    children[index] = child;
+    System.arraycopy(node.children, index, children, index + 1, node.children.length - index);
+    return new Node(node.bitmap | bit, children);
+  }
+
+  private static Node remove(Node node, int level, long id) {
+    int bit = 1 << ((id >>> level) & MASK);
+    int index = node.index(bit);
+    if (level > 0) {
+      Node child = remove((Node) node.children[index], level - BITS, id);
+      if (child != null) {
+        Object[] children = node.children.clone();
+        children[index] = child;
+        return new Node(node.bitmap, children);
+      }
+    }
+    if (node.children.length == 1) {
+      return null;
+    }
+    Object[] children = new Object[node.children.length - 1];
+    System.arraycopy(node.children, 0, children, 0, index);
+    System.arraycopy(node.children, index + 1, children, index, children.length - index);
+    return new Node(node.bitmap & ~bit, children);
+  }
+
+  private static void forEach(Node node, int level, Consumer<City> consumer) {
+    for (Object child : node.children) {
+      if (level == 0) {
+        consumer.accept((City) child);
+      } else {
+        forEach((Node) child, level - BITS, consumer);
+      }
+    }
+  }
+
+  /** 树节点，创建后不再修改 */
+  private static final class Node {
+    private final int bitmap;
+    private final Object[] children;
+
+    Node(int bitmap, Object[] children) {
+      this.bitmap = bitmap;
+      this.children = children;
+    }
+
+    int index(int bit) {
+      return Integer.bitCount(bitmap & (bit - 1));
+    }
+  }
+}
@@ -0,0 +1,235 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.memory;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 多版本并发控制的内存城市仓储，用于测试、基准和小规模部署。
+ *
+ * <p>实现说明：
+ *
+ * <ul>
+ *   <li>全部数据是一棵不可变的{@link CityTrie}，连同下一个ID和版本号组成一个{@link Snapshot}
+ *   <li>读操作取当前快照后在其上完成，不加锁、不重试，也不会被写操作阻塞
+ *   <li>写操作基于当前快照构造新快照，通过对根引用的一次CAS提交，冲突时基于新快照重做
+ *   <li>{@link #snapshot()}返回的快照可以跨多次调用使用，例如逐页翻页时保持结果一致
+ * </ul>
+ *
+ * <p>快照中的City只在提交前复制一次，此后不再修改；返回给调用方的是副本。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class MvccCityRepository implements CityRepository {
+
+  private final AtomicReference<Snapshot> root =
+      new AtomicReference<>(new Snapshot(CityTrie.EMPTY, 1L, 0L));
+
+  /**
+   * 获取当前快照
+   *
+   * @return 不可变快照
+   */
+  public Snapshot snapshot() {
+    return root.get();
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    return snapshot().findById(id);
+  }
+
+  @Override
+  public List<City> findAll() {
+    return snapshot().findAll();
+  }
+
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    snapshot().scanAll(consumer);
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    return snapshot().findByNameLike(namePattern, page);
+  }
+
+  /**
+   * 保存城市。
+   *
+   * <p>ID为null时分配新ID插入，ID不存在时按给定ID插入，否则替换；每次提交分配新的版本号。
+   *
+   * @param city 要保存的城市对象
+   * @return 保存后的城市对象
+   */
+  @Override
+  public City save(City city) {
+    if (city == null) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null");
+    }
+    if (city.getId() != null && city.getId() < 0) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City id must not be negative");
+    }
+    while (true) {
+      Snapshot current = root.get();
+      long id = city.getId() == null ? current.nextId() : city.getId();
+      long version = current.getVersion() + 1;
+      City stored = copy(city, id, version);
+      Snapshot next =
+          new Snapshot(
+              current.cities().put(id, stored), Math.max(current.nextId(), id + 1), version);
+      if (root.compareAndSet(current, next)) {
+        return copy(stored, id, version);
+      }
+    }
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    if (id == null) {
+      return;
+    }
+    while (true) {
+      Snapshot current = root.get();
+      CityTrie cities = current.cities().remove(id);
+      if (cities == current.cities()) {
+        return;
+      }
+      Snapshot next = new Snapshot(cities, current.nextId(), current.getVersion() + 1);
+      if (root.compareAndSet(current, next)) {
+        return;
+      }
+    }
+  }
+
+  private static City copy(City city, long id, Long version) {
+    return City.builder()
+        .id(id)
+        .name(city.getName())
+        .countrycode(city.getCountrycode())
+        .district(city.getDistrict())
+        .population(city.getPopulation())
+        .version(version)
+        .build();
+  }
+
+  /** 仓储在某一时刻的不可变快照 */
+  public static final class Snapshot {
+
+    private final CityTrie cities;
+    private final long nextId;
+    private final long version;
+
+    Snapshot(CityTrie cities, long nextId, long version) {
+      this.cities = cities;
+      this.nextId = nextId;
+      this.version = version;
+    }
+
+    CityTrie cities() {
+      return cities;
+    }
+
+    long nextId() {
+      return nextId;
+    }
+
+    /** 最近一次提交的版本号 */
+    public long getVersion() {
+      return version;
+    }
+
+    /** 快照中的城市数 */
+    public int size() {
+      return cities.size();
+    }
+
+    /**
+     * 根据ID查询城市
+     *
+     * @param id 城市ID
+     * @return 城市副本
+     */
+    public Optional<City> findById(Long id) {
+      if (id == null) {
+        return Optional.empty();
+      }
+      City city = cities.get(id);
+      return city == null ? Optional.empty() : Optional.of(copy(city, id, city.getVersion()));
+    }
+
+    /**
+     * 按ID升序查询所有城市
+     *
+     * @return 城市副本列表
+     */
+    public List<City> findAll() {
+      List<City> result = new ArrayList<>(cities.size());
+      scanAll(result::add);
+      return result;
+    }
+
+    /**
+     * 按ID升序遍历所有城市
+     *
+     * @param consumer 城市处理函数
+     */
+    public void scanAll(Consumer<City> consumer) {
+      cities.forEach(city -> consumer.accept(copy(city, city.getId(), city.getVersion())));
+    }
+
+    /**
+     * 按LIKE模式匹配名称，不区分大小写，按ID升序分页
+     *
+     * @param namePattern 名称模式，%匹配任意字符串，_匹配单个字符，反斜杠转义
+     * @param page 分页参数
+     * @return 分页的城市列表
+     */
+    public Page<City> findByNameLike(String namePattern, Page<City> page) {
+      Pattern pattern = LikePattern.compile(namePattern == null ? "%" : namePattern);
+      long offset = Math.max(0L, (page.getCurrent() - 1) * page.getSize());
+      List<City> records = new ArrayList<>();
+      long[] total = new long[1];
+      cities.forEach(
+          city -> {
+            if (city.getName() == null || !pattern.matcher(city.getName()).matches()) {
+              return;
+            }
+            if (total[0] >= offset && records.size() < page.getSize()) {
+              records.add(copy(city, city.getId(), city.getVersion()));
+            }
+            total[0]++;
+          });
+      Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total[0]);
+      result.setRecords(records);
+      return result;
+    }
+  }
+}
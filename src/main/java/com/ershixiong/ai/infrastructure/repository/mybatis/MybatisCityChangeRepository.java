@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.infrastructure.repository.mybatis.converter.CityDataConverter;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityTombstoneDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityChangeMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * MyBatis实现的城市变更仓储类。
+ *
+ * <p>查询说明：
+ *
+ * <ul>
+ *   <li>城市和墓碑分别按version索引做范围扫描，各取limit条后按版本号归并
+ *   <li>两次查询在同一只读事务中执行，InnoDB一致性快照保证两者看到同一时刻的数据
+ *   <li>返回的最大版本号作为下一次增量同步的起点
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+@Repository
+public class MybatisCityChangeRepository implements CityChangeRepository {
+
+  private final CityChangeMapper cityChangeMapper;
+  private final CityDataConverter cityDataConverter;
+
+  public MybatisCityChangeRepository(
+      CityChangeMapper cityChangeMapper, CityDataConverter cityDataConverter) {
+    this.cityChangeMapper = cityChangeMapper;
+    this.cityDataConverter = cityDataConverter;
+  }
+
+  @Override
+  @Transactional(readOnly = true)
+  public CityChangeSet findChangesSince(long sinceVersion, int limit) {
+    long horizon = cityChangeMapper.selectTombstoneHorizon();
+    if (sinceVersion >= 0 && sinceVersion < horizon) {
+      return CityChangeSet.builder()
+          .upserts(List.of())
+          .deletedIds(List.of())
+          .lastVersion(sinceVersion)
+          .resetRequired(true)
+          .build();
+    }
+
+    // 多取一条用于判断是否还有后续变更
+    List<CityDO> cities = cityChangeMapper.selectCitiesSince(sinceVersion, limit + 1);
+    List<CityTombstoneDO> tombstones =
+        cityChangeMapper.selectTombstonesSince(sinceVersion, limit + 1);
+
+    List<City> upserts = new ArrayList<>();
+    List<Long> deletedIds = new ArrayList<>();
+    long lastVersion = sinceVersion;
+    int i = 0;
+    int j = 0;
+    while (upserts.size() + deletedIds.size() < limit
+        && (i < cities.size() || j < tombstones.size())) {
+      boolean takeCity =
+          j >= tombstones.size()
+              || (i < cities.size()
+                  && cities.get(i).getVersion() < tombstones.get(j).getVersion());
+      if (takeCity) {
+        CityDO cityDO = cities.get(i++);
+        upserts.add(cityDataConverter.toEntity(cityDO));
+        lastVersion = cityDO.getVersion();
+      } else {
+        CityTombstoneDO tombstone = tombstones.get(j++);
+        deletedIds.add(tombstone.getId());
+        lastVersion = tombstone.getVersion();
+      }
+    }
+
+    return CityChangeSet.builder()
+        .upserts(upserts)
+        .deletedIds(deletedIds)
+        .lastVersion(lastVersion)
+        .hasMore(i < cities.size() || j < tombstones.size())
+        .build();
+  }
+
+  /**
+   * 压缩过期墓碑。
+   *
+   * <p>先推进压缩水位线再删除墓碑，起始版本早于水位线的增量请求会收到全量重新同步的提示。
+   *
+   * @param deletedBefore 删除时间上限
+   * @return 被清理的墓碑数量
+   */
+  @Override
+  @Transactional(rollbackFor = Exception.class)
+  public int compactTombstones(Instant deletedBefore) {
+    Long maxVersion = cityChangeMapper.selectMaxTombstoneVersionBefore(deletedBefore);
+    if (maxVersion == null) {
+      return 0;
+    }
+    cityChangeMapper.advanceTombstoneHorizon(maxVersion);
+    int removed = cityChangeMapper.deleteTombstonesUpTo(maxVersion);
+    log.info("Compacted {} city tombstones up to version {}", removed, maxVersion);
+    return removed;
+  }
+}
@@ -20,15 +20,34 @@ import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ershixiong.ai.common.exception.BusinessException;
 import com.ershixiong.ai.common.exception.ErrorCode;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
+import com.ershixiong.ai.domain.repository.CityFacetCounter;
 import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CitySearchScans;
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
 import com.ershixiong.ai.infrastructure.repository.mybatis.converter.CityDataConverter;
 import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityFacetDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityChangeMapper;
 import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityMapper;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * MyBatis实现的城市仓储类。
@@ -39,6 +58,8 @@ import java.util.Optional;
  *   <li>基本的CRUD操作
  *   <li>分页查询
  *   <li>模糊搜索
+ *   <li>按人口排序的查询和排名，配合db/city_population_index.sql中的索引避免全表排序
+ *   <li>搜索：过滤条件下推为IN，有索引的排序字段下推为ORDER BY，否则流式读取匹配的城市在内存中取前若干个
  * </ul>
  *
  * <p>实现说明：
@@ -47,6 +68,8 @@ import java.util.Optional;
  *   <li>使用MyBatis Plus进行数据访问
  *   <li>通过{@link CityDataConverter}进行DO和实体对象的转换
  *   <li>包含完整的参数验证和异常处理
+ *   <li>写操作通过{@link CityChangeMapper}分配版本号，删除操作写入墓碑，支撑增量同步
+ *   <li>查询声明为从库读，启用读写分离时由{@link ReadRoutingContext}路由到从库
  * </ul>
  *
  * @author ershixiong
@@ -57,26 +80,60 @@ import java.util.Optional;
 @Repository
 public class MybatisCityRepository implements CityRepository {
 
+  /**
+   * 有索引可以按顺序读取的排序字段：主键和db/city_population_index.sql中的人口索引
+   *
+   * <p>人口相同时总是按ID升序，人口降序和升序分别对应idx_city_population和idx_city_population_asc的正向扫描。
+   */
+  static final Set<CitySortField> INDEXED_SORTS =
+      EnumSet.of(CitySortField.ID, CitySortField.POPULATION);
+
   private final CityMapper cityMapper;
+  private final CityChangeMapper cityChangeMapper;
   private final CityDataConverter cityDataConverter;
 
-  public MybatisCityRepository(CityMapper cityMapper, CityDataConverter cityDataConverter) {
+  public MybatisCityRepository(
+      CityMapper cityMapper,
+      CityChangeMapper cityChangeMapper,
+      CityDataConverter cityDataConverter) {
     this.cityMapper = cityMapper;
+    this.cityChangeMapper = cityChangeMapper;
     this.cityDataConverter = cityDataConverter;
   }
 
   @Override
   public List<City> findAll() {
-    List<CityDO> cityDOs = cityMapper.selectList(null);
+    List<CityDO> cityDOs = ReadRoutingContext.replicaRead(() -> cityMapper.selectList(null));
     return cityDataConverter.toEntityList(cityDOs);
   }
 
+  /**
+   * 流式遍历所有城市，逐行转换后交给处理函数，内存占用与表大小无关
+   *
+   * @param consumer 城市处理函数
+   */
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    ReadRoutingContext.replicaRead(
+        () -> {
+          cityMapper.streamAll(
+              context -> consumer.accept(cityDataConverter.toEntity(context.getResultObject())));
+          return null;
+        });
+  }
+
   @Override
   public Optional<City> findById(Long id) {
-    CityDO cityDO = cityMapper.selectById(id);
+    CityDO cityDO = ReadRoutingContext.replicaRead(() -> cityMapper.selectById(id));
     return Optional.ofNullable(cityDO).map(cityDataConverter::toEntity);
   }
 
+  /** 不声明从库读，路由到写入所在的主库 */
+  @Override
+  public Optional<City> findByIdForWrite(Long id) {
+    return Optional.ofNullable(cityMapper.selectById(id)).map(cityDataConverter::toEntity);
+  }
+
   /**
    * 保存城市信息。
    *
@@ -87,28 +144,44 @@ public class MybatisCityRepository implements CityRepository {
    *   <li>如果ID不为null，执行更新操作
    * </ul>
    *
+   * <p>每次保存都会在同一事务中分配新的全局版本号，版本序列行锁持有到提交，保证版本号按提交顺序递增。
+   * 所有实例的写入因此在该行锁上串行，吞吐上限见db/city_change_tracking.sql。
+   *
    * @param city 要保存的城市对象
    * @return 保存后的城市对象
    * @throws BusinessException 当city参数为null时抛出
    */
   @Override
+  @Transactional(rollbackFor = Exception.class)
   public City save(City city) {
     if (city == null) {
       throw new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null");
     }
 
     CityDO cityDO = cityDataConverter.toDO(city);
+    cityDO.setVersion(cityChangeMapper.nextVersion());
     if (city.getId() == null) {
       cityMapper.insert(cityDO);
     } else {
       cityMapper.updateById(cityDO);
     }
+    ReadRoutingContext.recordWrite(cityDO.getVersion());
     return cityDataConverter.toEntity(cityDO);
   }
 
+  /**
+   * 删除城市，并在同一事务中写入墓碑记录，供增量同步下发删除。
+   *
+   * @param id 城市ID
+   */
   @Override
+  @Transactional(rollbackFor = Exception.class)
   public void deleteById(Long id) {
-    cityMapper.deleteById(id);
+    if (cityMapper.deleteById(id) > 0) {
+      long version = cityChangeMapper.nextVersion();
+      cityChangeMapper.upsertTombstone(id, version);
+      ReadRoutingContext.recordWrite(version);
+    }
   }
 
   /**
@@ -132,7 +205,8 @@ public class MybatisCityRepository implements CityRepository {
     LambdaQueryWrapper<CityDO> queryWrapper =
         new LambdaQueryWrapper<CityDO>().like(CityDO::getName, namePattern);
 
-    Page<CityDO> resultPage = cityMapper.selectPage(cityDOPage, queryWrapper);
+    Page<CityDO> resultPage =
+        ReadRoutingContext.replicaRead(() -> cityMapper.selectPage(cityDOPage, queryWrapper));
 
     // 转换结果
     Page<City> resultCityPage =
@@ -145,4 +219,224 @@ public class MybatisCityRepository implements CityRepository {
     resultCityPage.setRecords(cityDataConverter.toEntityList(resultPage.getRecords()));
     return resultCityPage;
   }
+
+  /**
+   * 按名称、国家代码和行政区搜索城市，按指定方式排序后分页。
+   *
+   * <p>国家代码和行政区条件下推为IN条件。排序字段有索引时在SQL中ORDER BY，由MySQL按索引顺序读取并在凑满一页后停止；
+   * 没有索引时（按名称排序）流式读取全部匹配的城市，只在内存中保留到当前页为止的城市，
+   * 避免数据库对全部匹配行做文件排序。
+   *
+   * <p>要求分面计数时，流式读取的情况在同一次遍历中统计；否则按国家代码和行政区各执行一条分组计数查询，
+   * 见{@link #countFacets}。
+   *
+   * @param query 搜索条件
+   * @param page 分页参数
+   * @return 分页的城市列表、执行计划和分面计数
+   */
+  @Override
+  public CitySearchResult search(CitySearchQuery query, Page<City> page) {
+    CitySort sort = query.getSort();
+    if (sort != null && !INDEXED_SORTS.contains(sort.getField())) {
+      CityFacetCounter facets =
+          query.getFacets() == null ? null : new CityFacetCounter(query.getFacets());
+      return ReadRoutingContext.replicaRead(
+          () ->
+              CitySearchScans.topK(
+                  consumer ->
+                      cityMapper.streamSearch(
+                          query.getNamePattern(),
+                          query.getCountrycodes(),
+                          query.getDistricts(),
+                          context ->
+                              consumer.accept(
+                                  cityDataConverter.toEntity(context.getResultObject()))),
+                  sort,
+                  page,
+                  facets));
+    }
+    Page<CityDO> cityDOPage = new Page<>(page.getCurrent(), page.getSize());
+    LambdaQueryWrapper<CityDO> queryWrapper =
+        new LambdaQueryWrapper<CityDO>()
+            .like(CityDO::getName, query.getNamePattern())
+            .in(
+                query.getCountrycodes() != null && !query.getCountrycodes().isEmpty(),
+                CityDO::getCountrycode,
+                query.getCountrycodes())
+            .in(
+                query.getDistricts() != null && !query.getDistricts().isEmpty(),
+                CityDO::getDistrict,
+                query.getDistricts());
+    if (sort != null) {
+      queryWrapper
+          .orderBy(
+              true,
+              !sort.isDescending(),
+              sort.getField() == CitySortField.POPULATION ? CityDO::getPopulation : CityDO::getId)
+          .orderByAsc(sort.getField() != CitySortField.ID, CityDO::getId);
+    }
+    Page<CityDO> resultPage =
+        ReadRoutingContext.replicaRead(() -> cityMapper.selectPage(cityDOPage, queryWrapper));
+    Page<City> resultCityPage =
+        new Page<>(resultPage.getCurrent(), resultPage.getSize(), resultPage.getTotal());
+    resultCityPage.setRecords(cityDataConverter.toEntityList(resultPage.getRecords()));
+    return CitySearchResult.builder()
+        .page(resultCityPage)
+        .plan(sort == null ? CitySearchPlan.UNSORTED : CitySearchPlan.INDEX_ORDER)
+        .facets(query.getFacets() == null ? null : countFacets(query))
+        .build();
+  }
+
+  /**
+   * 按国家代码和行政区分别分组计数，得到两个维度的分面
+   *
+   * <p>每个维度单独按城市数降序取不同取值数上限加一个取值，多出一个时该维度只保留前面的取值，
+   * 结果标记为截断。耗时预算短于请求剩余时间时，
+   * 查询在预算对应的截止时间下执行（JDBC查询超时以秒为单位，不足一秒按一秒计），
+   * 超时只放弃分面计数，不影响已经取得的一页城市。
+   *
+   * @param query 搜索条件
+   * @return 分面计数
+   */
+  private CityFacets countFacets(CitySearchQuery query) {
+    CityFacetOptions options = query.getFacets();
+    CityFacetCounter counter = new CityFacetCounter(options);
+    Deadline outer = DeadlineContext.current();
+    Deadline budget = Deadline.after(options.getBudget());
+    boolean budgeted = outer == null || budget.remaining().compareTo(outer.remaining()) < 0;
+    if (budgeted) {
+      DeadlineContext.set(budget);
+    }
+    try {
+      int limit = options.getMaxValues() + 1;
+      List<CityFacetDO> countrycodes =
+          ReadRoutingContext.replicaRead(
+              () ->
+                  DeadlineContext.call(
+                      () ->
+                          cityMapper.countCountrycodeFacets(
+                              query.getNamePattern(),
+                              query.getCountrycodes(),
+                              query.getDistricts(),
+                              limit)));
+      for (CityFacetDO facet : cap(countrycodes, options.getMaxValues(), counter)) {
+        counter.add(facet.getFacetKey(), null, facet.getCityCount());
+      }
+      List<CityFacetDO> districts =
+          ReadRoutingContext.replicaRead(
+              () ->
+                  DeadlineContext.call(
+                      () ->
+                          cityMapper.countDistrictFacets(
+                              query.getNamePattern(),
+                              query.getCountrycodes(),
+                              query.getDistricts(),
+                              limit)));
+      for (CityFacetDO facet : cap(districts, options.getMaxValues(), counter)) {
+        counter.add(null, facet.getFacetKey(), facet.getCityCount());
+      }
+    } catch (RuntimeException e) {
+      if (!budgeted || !budget.isExpired()) {
+        throw e;
+      }
+      log.debug("City facet count exceeded its budget of {}", options.getBudget());
+      counter.truncate();
+    } finally {
+      if (outer == null) {
+        DeadlineContext.clear();
+      } else {
+        DeadlineContext.set(outer);
+      }
+    }
+    return counter.toFacets();
+  }
+
+  /** 多取的一个取值存在时说明该维度还有更多取值，只保留前maxValues个并标记为截断 */
+  private static List<CityFacetDO> cap(
+      List<CityFacetDO> facets, int maxValues, CityFacetCounter counter) {
+    if (facets.size() <= maxValues) {
+      return facets;
+    }
+    counter.truncate();
+    return facets.subList(0, maxValues);
+  }
+
+  @Override
+  public List<City> findTopByPopulation(String countrycode, int limit) {
+    LambdaQueryWrapper<CityDO> queryWrapper =
+        populationQuery(countrycode)
+            .orderByDesc(CityDO::getPopulation)
+            .orderByAsc(CityDO::getId)
+            .last("LIMIT " + limit);
+    List<CityDO> cityDOs =
+        ReadRoutingContext.replicaRead(() -> cityMapper.selectList(queryWrapper));
+    return cityDataConverter.toEntityList(cityDOs);
+  }
+
+  @Override
+  public Page<City> findByPopulationBetween(
+      String countrycode, int minPopulation, int maxPopulation, Page<City> page) {
+    Page<CityDO> cityDOPage = new Page<>(page.getCurrent(), page.getSize());
+    LambdaQueryWrapper<CityDO> queryWrapper =
+        populationQuery(countrycode)
+            .between(CityDO::getPopulation, minPopulation, maxPopulation)
+            .orderByDesc(CityDO::getPopulation)
+            .orderByAsc(CityDO::getId);
+    Page<CityDO> resultPage =
+        ReadRoutingContext.replicaRead(() -> cityMapper.selectPage(cityDOPage, queryWrapper));
+    Page<City> resultCityPage =
+        new Page<>(resultPage.getCurrent(), resultPage.getSize(), resultPage.getTotal());
+    resultCityPage.setRecords(cityDataConverter.toEntityList(resultPage.getRecords()));
+    return resultCityPage;
+  }
+
+  /**
+   * 查询城市的人口排名，以四次COUNT查询代替遍历全表，人口索引上都是范围扫描
+   *
+   * @param id 城市ID
+   * @return 人口排名，城市不存在时为空
+   */
+  @Override
+  public Optional<CityPopulationRank> findPopulationRank(Long id) {
+    Optional<City> found = findById(id);
+    if (found.isEmpty()) {
+      return Optional.empty();
+    }
+    City city = found.get();
+    return ReadRoutingContext.replicaRead(
+        () -> {
+          Integer population = city.getPopulation();
+          return Optional.of(
+              CityPopulationRank.builder()
+                  .city(city)
+                  .countryRank(
+                      population == null
+                          ? null
+                          : cityMapper.selectCount(ahead(city.getCountrycode(), city)) + 1)
+                  .countryCities(cityMapper.selectCount(populationQuery(city.getCountrycode())))
+                  .globalRank(
+                      population == null ? null : cityMapper.selectCount(ahead(null, city)) + 1)
+                  .globalCities(cityMapper.selectCount(populationQuery(null)))
+                  .build());
+        });
+  }
+
+  /** 人口已知、可选按国家过滤的查询条件 */
+  private static LambdaQueryWrapper<CityDO> populationQuery(String countrycode) {
+    return new LambdaQueryWrapper<CityDO>()
+        .eq(countrycode != null, CityDO::getCountrycode, countrycode)
+        .isNotNull(CityDO::getPopulation);
+  }
+
+  /** 按人口降序、ID升序排在城市之前的查询条件 */
+  private static LambdaQueryWrapper<CityDO> ahead(String countrycode, City city) {
+    return populationQuery(countrycode)
+        .and(
+            w ->
+                w.gt(CityDO::getPopulation, city.getPopulation())
+                    .or(
+                        o ->
+                            o.eq(CityDO::getPopulation, city.getPopulation())
+                                .lt(CityDO::getId, city.getId())));
+  }
 }
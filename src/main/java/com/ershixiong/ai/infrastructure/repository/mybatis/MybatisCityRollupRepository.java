@@ -0,0 +1,112 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis;
+
+import com.ershixiong.ai.domain.model.CityRollup;
+import com.ershixiong.ai.domain.repository.CityRollupRepository;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityRollupDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityRollupMapper;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * MyBatis实现的城市人口汇总仓储类。
+ *
+ * <p>写入说明：
+ *
+ * <ul>
+ *   <li>城市数大于0的汇总以多行INSERT ... ON DUPLICATE KEY UPDATE覆盖写入，城市数为0的汇总删除
+ *   <li>每条语句最多{@value #BATCH_SIZE}行，全部语句在同一事务中执行
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Repository
+public class MybatisCityRollupRepository implements CityRollupRepository {
+
+  /** 每条批量语句的最大行数 */
+  static final int BATCH_SIZE = 500;
+
+  private final CityRollupMapper cityRollupMapper;
+
+  public MybatisCityRollupRepository(CityRollupMapper cityRollupMapper) {
+    this.cityRollupMapper = cityRollupMapper;
+  }
+
+  @Override
+  public List<CityRollup> findAll() {
+    return cityRollupMapper.selectAll().stream()
+        .map(MybatisCityRollupRepository::toEntity)
+        .toList();
+  }
+
+  @Override
+  public List<CityRollup> aggregateCities(String countrycode) {
+    return cityRollupMapper.aggregateCities(countrycode).stream()
+        .map(MybatisCityRollupRepository::toEntity)
+        .toList();
+  }
+
+  @Override
+  @Transactional(rollbackFor = Exception.class)
+  public void saveAll(Collection<CityRollup> rollups) {
+    List<CityRollupDO> upserts = new ArrayList<>();
+    List<CityRollupDO> deletes = new ArrayList<>();
+    for (CityRollup rollup : rollups) {
+      (rollup.getCityCount() > 0 ? upserts : deletes).add(toDataObject(rollup));
+    }
+    for (int from = 0; from < upserts.size(); from += BATCH_SIZE) {
+      cityRollupMapper.upsertAll(batch(upserts, from));
+    }
+    for (int from = 0; from < deletes.size(); from += BATCH_SIZE) {
+      cityRollupMapper.deleteAll(batch(deletes, from));
+    }
+  }
+
+  private static List<CityRollupDO> batch(List<CityRollupDO> rollups, int from) {
+    return rollups.subList(from, Math.min(rollups.size(), from + BATCH_SIZE));
+  }
+
+  private static CityRollup toEntity(CityRollupDO rollupDO) {
+    return CityRollup.builder()
+        .countrycode(rollupDO.getCountrycode())
+        .district(rollupDO.getDistrict())
+        .cityCount(rollupDO.getCityCount())
+        .populationCount(rollupDO.getPopulationCount())
+        .populationSum(rollupDO.getPopulationSum())
+        .populationMin(rollupDO.getPopulationMin())
+        .populationMax(rollupDO.getPopulationMax())
+        .build();
+  }
+
+  private static CityRollupDO toDataObject(CityRollup rollup) {
+    return CityRollupDO.builder()
+        .countrycode(rollup.getCountrycode())
+        .district(rollup.getDistrict())
+        .cityCount(rollup.getCityCount())
+        .populationCount(rollup.getPopulationCount())
+        .populationSum(rollup.getPopulationSum())
+        .populationMin(rollup.getPopulationMin())
+        .populationMax(rollup.getPopulationMax())
+        .build();
+  }
+}
@@ -15,7 +15,9 @@
  */
 package com.ershixiong.ai.infrastructure.repository.mybatis.dataobject;
 
+import com.baomidou.mybatisplus.annotation.FieldStrategy;
 import com.baomidou.mybatisplus.annotation.IdType;
+import com.baomidou.mybatisplus.annotation.TableField;
 import com.baomidou.mybatisplus.annotation.TableId;
 import com.baomidou.mybatisplus.annotation.TableName;
 import lombok.AllArgsConstructor;
@@ -34,8 +36,11 @@ import lombok.NoArgsConstructor;
  *   <li>countrycode: 国家代码
  *   <li>district: 地区
  *   <li>population: 人口数量
+ *   <li>version: 变更版本号
  * </ul>
  *
+ * <p>可为空的列按ALWAYS策略更新，与其他仓储实现一致，保存时整行替换而不是跳过为null的字段。
+ *
  * @author ershixiong
  * @since 1.0.0
  * @date 2025-01-31
@@ -54,11 +59,17 @@ public class CityDO {
   private String name;
 
   /** 国家代码 */
+  @TableField(updateStrategy = FieldStrategy.ALWAYS)
   private String countrycode;
 
   /** 城市所属行政区 */
+  @TableField(updateStrategy = FieldStrategy.ALWAYS)
   private String district;
 
   /** 城市人口 */
+  @TableField(updateStrategy = FieldStrategy.ALWAYS)
   private Integer population;
+
+  /** 变更版本号 全局单调递增，每次写入时由city_change_seq分配 */
+  private Long version;
 }
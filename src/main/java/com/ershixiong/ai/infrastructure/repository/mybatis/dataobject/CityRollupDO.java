@@ -0,0 +1,58 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis.dataobject;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * 城市人口汇总数据对象。
+ *
+ * <p>对应city_rollup表，每行是一个国家下一个行政区的城市数与人口汇总；
+ * 按城市表分组统计的查询结果也映射为该对象。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CityRollupDO {
+  /** 国家代码 */
+  private String countrycode;
+
+  /** 行政区 */
+  private String district;
+
+  /** 城市数 */
+  private Long cityCount;
+
+  /** 人口已知的城市数 */
+  private Long populationCount;
+
+  /** 已知人口的总和 */
+  private Long populationSum;
+
+  /** 最小人口 */
+  private Integer populationMin;
+
+  /** 最大人口 */
+  private Integer populationMax;
+}
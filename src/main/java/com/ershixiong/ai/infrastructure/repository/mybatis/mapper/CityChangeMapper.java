@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis.mapper;
+
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityTombstoneDO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+/**
+ * 城市变更Mapper接口 负责版本号分配、墓碑记录和按版本号的增量查询 SQL定义见mapper/CityChangeMapper.xml
+ *
+ * <p>版本号通过city_change_seq表的行锁分配，该行锁持有到事务提交，因此版本号的提交顺序与分配顺序一致，
+ * 按版本号增量拉取不会漏掉"晚提交的小版本"。
+ *
+ * <p>代价是全集群的城市写入在这一行上串行，写入吞吐的上限约为1 / 取号到提交的耗时，
+ * 详见db/city_change_tracking.sql。
+ */
+@Mapper
+public interface CityChangeMapper {
+
+  /** 递增城市版本序列，必须与{@link #lastInsertId()}在同一事务（同一连接）中调用 */
+  void incrementVersion();
+
+  /** 读取当前连接上最近一次LAST_INSERT_ID(expr)的值 */
+  long lastInsertId();
+
+  /**
+   * 分配下一个城市版本号，调用方必须处于事务中
+   *
+   * @return 新的版本号
+   */
+  default long nextVersion() {
+    incrementVersion();
+    return lastInsertId();
+  }
+
+  /**
+   * 写入或覆盖墓碑记录
+   *
+   * @param id 被删除的城市ID
+   * @param version 删除时分配的版本号
+   * @return 影响行数
+   */
+  int upsertTombstone(@Param("id") Long id, @Param("version") long version);
+
+  /** 按版本号升序查询指定版本之后新增或更新的城市 */
+  List<CityDO> selectCitiesSince(
+      @Param("sinceVersion") long sinceVersion, @Param("limit") int limit);
+
+  /** 按版本号升序查询指定版本之后的墓碑 */
+  List<CityTombstoneDO> selectTombstonesSince(
+      @Param("sinceVersion") long sinceVersion, @Param("limit") int limit);
+
+  /** 查询墓碑压缩水位线，早于该版本的墓碑可能已被清理 */
+  long selectTombstoneHorizon();
+
+  /** 查询删除时间早于指定时间的墓碑中的最大版本号，没有则返回null */
+  Long selectMaxTombstoneVersionBefore(@Param("deletedBefore") Instant deletedBefore);
+
+  /** 删除版本号不大于指定版本的墓碑 */
+  int deleteTombstonesUpTo(@Param("version") long version);
+
+  /** 将墓碑压缩水位线推进到指定版本（只增不减） */
+  int advanceTombstoneHorizon(@Param("version") long version);
+}
@@ -17,11 +17,76 @@ package com.ershixiong.ai.infrastructure.repository.mybatis.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityFacetDO;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
+
+import java.util.Collection;
+import java.util.List;
 
 /** 城市Mapper接口 继承BaseMapper获取基础的CRUD功能 包括分页查询功能 */
 @Mapper
 public interface CityMapper extends BaseMapper<CityDO> {
   // BaseMapper提供了足够的基础功能，包括分页查询
   // 如果需要复杂的自定义查询，可以在这里添加
+
+  /**
+   * 按ID升序流式读取全部城市，SQL定义见mapper/CityMapper.xml
+   *
+   * <p>使用MySQL流式结果集逐行回调，不在内存中缓存整表，调用期间独占一个连接。
+   *
+   * @param handler 逐行回调
+   */
+  void streamAll(ResultHandler<CityDO> handler);
+
+  /**
+   * 流式读取名称包含关键字、可选按国家代码和行政区过滤的城市，SQL定义见mapper/CityMapper.xml
+   *
+   * <p>与LambdaQueryWrapper的like条件相同，在模式前后加%；结果不排序，由调用方在内存中取前若干个。
+   *
+   * @param name 名称模式
+   * @param countrycodes 国家代码，为空时不过滤
+   * @param districts 行政区，为空时不过滤
+   * @param handler 逐行回调
+   */
+  void streamSearch(
+      @Param("name") String name,
+      @Param("countrycodes") Collection<String> countrycodes,
+      @Param("districts") Collection<String> districts,
+      ResultHandler<CityDO> handler);
+
+  /**
+   * 按国家代码分组统计搜索条件匹配的城市数，SQL定义见mapper/CityMapper.xml
+   *
+   * <p>过滤条件与{@link #streamSearch}相同，按城市数降序、国家代码升序取前若干个国家代码。
+   *
+   * @param name 名称模式
+   * @param countrycodes 国家代码，为空时不过滤
+   * @param districts 行政区，为空时不过滤
+   * @param limit 最多返回的国家代码数
+   * @return 各国家代码的城市数
+   */
+  List<CityFacetDO> countCountrycodeFacets(
+      @Param("name") String name,
+      @Param("countrycodes") Collection<String> countrycodes,
+      @Param("districts") Collection<String> districts,
+      @Param("limit") int limit);
+
+  /**
+   * 按行政区分组统计搜索条件匹配的城市数，SQL定义见mapper/CityMapper.xml
+   *
+   * <p>过滤条件与{@link #streamSearch}相同，按城市数降序、行政区升序取前若干个行政区。
+   *
+   * @param name 名称模式
+   * @param countrycodes 国家代码，为空时不过滤
+   * @param districts 行政区，为空时不过滤
+   * @param limit 最多返回的行政区数
+   * @return 各行政区的城市数
+   */
+  List<CityFacetDO> countDistrictFacets(
+      @Param("name") String name,
+      @Param("countrycodes") Collection<String> countrycodes,
+      @Param("districts") Collection<String> districts,
+      @Param("limit") int limit);
 }
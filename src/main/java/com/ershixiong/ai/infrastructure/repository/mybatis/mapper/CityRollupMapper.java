@@ -0,0 +1,44 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis.mapper;
+
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityRollupDO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
+
+/** 城市人口汇总Mapper接口 负责汇总表的读写和按城市表分组统计 SQL定义见mapper/CityRollupMapper.xml */
+@Mapper
+public interface CityRollupMapper {
+
+  /** 查询汇总表的全部行 */
+  List<CityRollupDO> selectAll();
+
+  /**
+   * 按（国家代码，行政区）对城市表分组统计
+   *
+   * @param countrycode 国家代码，为null时统计全部国家
+   * @return 各行政区的统计结果
+   */
+  List<CityRollupDO> aggregateCities(@Param("countrycode") String countrycode);
+
+  /** 批量写入或覆盖汇总行 */
+  int upsertAll(@Param("rollups") List<CityRollupDO> rollups);
+
+  /** 按（国家代码，行政区）批量删除汇总行 */
+  int deleteAll(@Param("rollups") List<CityRollupDO> rollups);
+}
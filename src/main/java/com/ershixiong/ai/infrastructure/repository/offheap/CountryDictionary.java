@@ -0,0 +1,76 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.offheap;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * 国家代码字典。
+ *
+ * <p>国家代码取值只有两百多个，记录中只保存两字节编码，字典本身常驻堆内。非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class CountryDictionary {
+
+  /** null国家代码的编码 */
+  static final short NULL_CODE = -1;
+
+  private final Map<String, Short> codes = new HashMap<>();
+  private final List<String> values = new ArrayList<>();
+
+  /**
+   * 编码国家代码，首次出现时分配新编码
+   *
+   * @param countrycode 国家代码
+   * @return 编码
+   */
+  short encode(String countrycode) {
+    if (countrycode == null) {
+      return NULL_CODE;
+    }
+    Short code = codes.get(countrycode);
+    if (code != null) {
+      return code;
+    }
+    if (values.size() > Short.MAX_VALUE) {
+      throw new IllegalStateException("too many distinct country codes");
+    }
+    short next = (short) values.size();
+    values.add(countrycode);
+    codes.put(countrycode, next);
+    return next;
+  }
+
+  /**
+   * 解码国家代码
+   *
+   * @param code 编码
+   * @return 国家代码
+   */
+  String decode(short code) {
+    return code == NULL_CODE ? null : values.get(code);
+  }
+
+  int size() {
+    return values.size();
+  }
+}
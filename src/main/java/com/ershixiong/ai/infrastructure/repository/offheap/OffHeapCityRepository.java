@@ -0,0 +1,411 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.offheap;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import com.ershixiong.ai.infrastructure.repository.LongIntHashMap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+/**
+ * 堆外存储的城市仓储，用于没有MySQL的边缘部署。
+ *
+ * <p>存储结构：
+ *
+ * <ul>
+ *   <li>每个城市占一个48字节的定长槽位，槽位按块分配在直接内存中，删除后的槽位复用
+ *   <li>名称和行政区写入{@link StringArena}，槽位中只保存地址和长度
+ *   <li>国家代码经{@link CountryDictionary}编码为两字节
+ *   <li>ID到槽位号的索引是{@link LongIntHashMap}，不为每条记录分配堆内对象
+ * </ul>
+ *
+ * <p>City对象只在接口返回时按需创建，堆内常驻的只有索引和字典，GC扫描量与城市数几乎无关。
+ * 读操作共享读锁，写操作独占写锁。findAll、scanAll和findByNameLike按ID升序返回，与MyBatis仓储一致。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class OffHeapCityRepository implements CityRepository {
+
+  /** 槽位字节数 */
+  static final int SLOT_SIZE = 48;
+
+  private static final int ID = 0;
+  private static final int VERSION = 8;
+  private static final int NAME_ADDRESS = 16;
+  private static final int DISTRICT_ADDRESS = 24;
+  private static final int POPULATION = 32;
+  private static final int NAME_LENGTH = 36;
+  private static final int NAME_CAPACITY = 38;
+  private static final int DISTRICT_LENGTH = 40;
+  private static final int DISTRICT_CAPACITY = 42;
+  private static final int COUNTRYCODE = 44;
+  private static final int FLAGS = 46;
+
+  private static final byte NULL_NAME = 1;
+  private static final byte NULL_DISTRICT = 1 << 1;
+  private static final byte NULL_POPULATION = 1 << 2;
+
+  private static final int MAX_TEXT_BYTES = Character.MAX_VALUE;
+
+  private final int slotsPerChunk;
+  private final List<ByteBuffer> slotChunks = new ArrayList<>();
+  private final StringArena arena;
+  private final CountryDictionary countries = new CountryDictionary();
+  private final LongIntHashMap index;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+  private int[] freeSlots = new int[16];
+  private int freeCount;
+  private int slotCount;
+  private long nextId = 1;
+  private long version;
+
+  /**
+   * 创建堆外仓储
+   *
+   * @param expectedSize 预计城市数，用于预分配ID索引
+   * @param slotsPerChunk 每个槽位块容纳的城市数
+   * @param arenaChunkSize 字符串区每块的字节数
+   */
+  public OffHeapCityRepository(int expectedSize, int slotsPerChunk, int arenaChunkSize) {
+    if (slotsPerChunk <= 0 || (long) slotsPerChunk * SLOT_SIZE > Integer.MAX_VALUE) {
+      throw new IllegalArgumentException("invalid slots per chunk: " + slotsPerChunk);
+    }
+    this.slotsPerChunk = slotsPerChunk;
+    this.arena = new StringArena(arenaChunkSize);
+    this.index = new LongIntHashMap(expectedSize);
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    if (id == null) {
+      return Optional.empty();
+    }
+    lock.readLock().lock();
+    try {
+      int slot = index.get(id);
+      return slot == LongIntHashMap.MISSING ? Optional.empty() : Optional.of(materialize(slot));
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  @Override
+  public List<City> findAll() {
+    List<City> result = new ArrayList<>();
+    scanAll(result::add);
+    return result;
+  }
+
+  /**
+   * 按ID升序遍历所有城市，遍历期间持有读锁
+   *
+   * @param consumer 城市处理函数
+   */
+  @Override
+  public void scanAll(Consumer<City> consumer) {
+    lock.readLock().lock();
+    try {
+      for (long id : index.sortedKeys()) {
+        consumer.accept(materialize(index.get(id)));
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /**
+   * 按LIKE模式匹配名称，不区分大小写，按ID升序分页。
+   *
+   * <p>%literal%形式且字面量为ASCII的模式直接在堆外字节上查找，不解码名称；其余模式解码后按正则匹配。
+   *
+   * @param namePattern 名称模式
+   * @param page 分页参数
+   * @return 分页的城市列表
+   */
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    String pattern = namePattern == null ? "%" : namePattern;
+    String literal = LikePattern.containsLiteral(pattern);
+    byte[] needle = literal != null && isAscii(literal) ? asciiLower(literal) : null;
+    Pattern regex = needle == null ? LikePattern.compile(pattern) : null;
+    long offset = Math.max(0L, (page.getCurrent() - 1) * page.getSize());
+    List<City> records = new ArrayList<>();
+    long total = 0;
+    lock.readLock().lock();
+    try {
+      for (long id : index.sortedKeys()) {
+        int slot = index.get(id);
+        if (!nameMatches(slot, needle, regex)) {
+          continue;
+        }
+        if (total >= offset && records.size() < page.getSize()) {
+          records.add(materialize(slot));
+        }
+        total++;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    Page<City> result = new Page<>(page.getCurrent(), page.getSize(), total);
+    result.setRecords(records);
+    return result;
+  }
+
+  /**
+   * 保存城市。
+   *
+   * <p>ID为null时分配新ID插入；ID不存在时按给定ID插入，便于从快照或其他数据源批量装载；否则原位更新。
+   * 每次保存分配新的版本号。
+   *
+   * @param city 要保存的城市对象
+   * @return 保存后的城市对象
+   */
+  @Override
+  public City save(City city) {
+    if (city == null) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null");
+    }
+    byte[] name = encode(city.getName());
+    byte[] district = encode(city.getDistrict());
+    lock.writeLock().lock();
+    try {
+      long id = city.getId() == null ? nextId : city.getId();
+      int slot = index.get(id);
+      if (slot == LongIntHashMap.MISSING) {
+        slot = allocateSlot();
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        chunk.putLong(base + ID, id);
+        writeNewText(chunk, base + NAME_ADDRESS, base + NAME_LENGTH, base + NAME_CAPACITY, name);
+        writeNewText(
+            chunk, base + DISTRICT_ADDRESS, base + DISTRICT_LENGTH, base + DISTRICT_CAPACITY,
+            district);
+        index.put(id, slot);
+        nextId = Math.max(nextId, id + 1);
+      } else {
+        ByteBuffer chunk = chunk(slot);
+        int base = base(slot);
+        rewriteText(chunk, base + NAME_ADDRESS, base + NAME_LENGTH, base + NAME_CAPACITY, name);
+        rewriteText(
+            chunk, base + DISTRICT_ADDRESS, base + DISTRICT_LENGTH, base + DISTRICT_CAPACITY,
+            district);
+      }
+      ByteBuffer chunk = chunk(slot);
+      int base = base(slot);
+      chunk.putLong(base + VERSION, ++version);
+      chunk.putShort(base + COUNTRYCODE, countries.encode(city.getCountrycode()));
+      chunk.putInt(base + POPULATION, city.getPopulation() == null ? 0 : city.getPopulation());
+      byte flags = 0;
+      if (name == null) {
+        flags |= NULL_NAME;
+      }
+      if (district == null) {
+        flags |= NULL_DISTRICT;
+      }
+      if (city.getPopulation() == null) {
+        flags |= NULL_POPULATION;
+      }
+      chunk.put(base + FLAGS, flags);
+      return materialize(slot);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    if (id == null) {
+      return;
+    }
+    lock.writeLock().lock();
+    try {
+      int slot = index.remove(id);
+      if (slot == LongIntHashMap.MISSING) {
+        return;
+      }
+      ByteBuffer chunk = chunk(slot);
+      int base = base(slot);
+      arena.release(chunk.getChar(base + NAME_CAPACITY));
+      arena.release(chunk.getChar(base + DISTRICT_CAPACITY));
+      if (freeCount == freeSlots.length) {
+        freeSlots = Arrays.copyOf(freeSlots, freeCount * 2);
+      }
+      freeSlots[freeCount++] = slot;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /** 城市数 */
+  public int size() {
+    lock.readLock().lock();
+    try {
+      return index.size();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 已分配的直接内存字节数，包括槽位块和字符串区 */
+  public long getOffHeapBytes() {
+    lock.readLock().lock();
+    try {
+      return (long) slotChunks.size() * slotsPerChunk * SLOT_SIZE + arena.allocatedBytes();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** ID索引占用的堆内存字节数 */
+  public long getHeapIndexBytes() {
+    lock.readLock().lock();
+    try {
+      return index.memoryBytes() + (long) freeSlots.length * Integer.BYTES;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  /** 字符串区中因更新或删除而不再使用的字节数 */
+  public long getWastedBytes() {
+    lock.readLock().lock();
+    try {
+      return arena.wastedBytes();
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private City materialize(int slot) {
+    ByteBuffer chunk = chunk(slot);
+    int base = base(slot);
+    byte flags = chunk.get(base + FLAGS);
+    return City.builder()
+        .id(chunk.getLong(base + ID))
+        .name(
+            (flags & NULL_NAME) != 0
+                ? null
+                : arena.read(chunk.getLong(base + NAME_ADDRESS), chunk.getChar(base + NAME_LENGTH)))
+        .countrycode(countries.decode(chunk.getShort(base + COUNTRYCODE)))
+        .district(
+            (flags & NULL_DISTRICT) != 0
+                ? null
+                : arena.read(
+                    chunk.getLong(base + DISTRICT_ADDRESS), chunk.getChar(base + DISTRICT_LENGTH)))
+        .population((flags & NULL_POPULATION) != 0 ? null : chunk.getInt(base + POPULATION))
+        .version(chunk.getLong(base + VERSION))
+        .build();
+  }
+
+  private boolean nameMatches(int slot, byte[] needle, Pattern regex) {
+    ByteBuffer chunk = chunk(slot);
+    int base = base(slot);
+    if ((chunk.get(base + FLAGS) & NULL_NAME) != 0) {
+      return false;
+    }
+    long address = chunk.getLong(base + NAME_ADDRESS);
+    int length = chunk.getChar(base + NAME_LENGTH);
+    if (needle != null) {
+      return arena.containsIgnoreAsciiCase(address, length, needle);
+    }
+    return regex.matcher(arena.read(address, length)).matches();
+  }
+
+  private int allocateSlot() {
+    if (freeCount > 0) {
+      return freeSlots[--freeCount];
+    }
+    if (slotCount == slotChunks.size() * slotsPerChunk) {
+      slotChunks.add(ByteBuffer.allocateDirect(slotsPerChunk * SLOT_SIZE));
+    }
+    return slotCount++;
+  }
+
+  private void writeNewText(
+      ByteBuffer chunk, int addressAt, int lengthAt, int capacityAt, byte[] bytes) {
+    int length = bytes == null ? 0 : bytes.length;
+    long address = length == 0 ? 0L : arena.append(bytes);
+    chunk.putLong(addressAt, address);
+    chunk.putChar(lengthAt, (char) length);
+    chunk.putChar(capacityAt, (char) length);
+  }
+
+  private void rewriteText(
+      ByteBuffer chunk, int addressAt, int lengthAt, int capacityAt, byte[] bytes) {
+    int length = bytes == null ? 0 : bytes.length;
+    int capacity = chunk.getChar(capacityAt);
+    if (length == 0) {
+      chunk.putChar(lengthAt, (char) 0);
+      return;
+    }
+    long address = arena.write(chunk.getLong(addressAt), capacity, bytes);
+    chunk.putLong(addressAt, address);
+    chunk.putChar(lengthAt, (char) length);
+    if (length > capacity) {
+      chunk.putChar(capacityAt, (char) length);
+    }
+  }
+
+  private ByteBuffer chunk(int slot) {
+    return slotChunks.get(slot / slotsPerChunk);
+  }
+
+  private int base(int slot) {
+    return (slot % slotsPerChunk) * SLOT_SIZE;
+  }
+
+  private static byte[] encode(String value) {
+    if (value == null) {
+      return null;
+    }
+    byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+    if (bytes.length > MAX_TEXT_BYTES) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City text field is too long");
+    }
+    return bytes;
+  }
+
+  private static boolean isAscii(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      if (value.charAt(i) > 0x7F) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static byte[] asciiLower(String value) {
+    return value.toLowerCase(Locale.ROOT).getBytes(StandardCharsets.US_ASCII);
+  }
+}
@@ -0,0 +1,159 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.offheap;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * 堆外字符串区。
+ *
+ * <p>字符串以UTF-8字节追加写入按块分配的直接内存，返回的地址由块号和块内偏移组成；
+ * 单个字符串不跨块。原位置放得下的更新直接覆盖，否则追加并把旧空间计入碎片，
+ * 碎片只统计不回收。非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class StringArena {
+
+  private final int chunkSize;
+  private final List<ByteBuffer> chunks = new ArrayList<>();
+  private int position;
+  private long wastedBytes;
+
+  StringArena(int chunkSize) {
+    this.chunkSize = chunkSize;
+    chunks.add(ByteBuffer.allocateDirect(chunkSize));
+  }
+
+  /**
+   * 追加字符串
+   *
+   * @param bytes UTF-8字节
+   * @return 地址
+   */
+  long append(byte[] bytes) {
+    if (bytes.length > chunkSize) {
+      throw new IllegalArgumentException("string exceeds arena chunk: " + bytes.length);
+    }
+    if (position + bytes.length > chunkSize) {
+      wastedBytes += chunkSize - position;
+      chunks.add(ByteBuffer.allocateDirect(chunkSize));
+      position = 0;
+    }
+    long address = (long) (chunks.size() - 1) * chunkSize + position;
+    chunks.get(chunks.size() - 1).put(position, bytes);
+    position += bytes.length;
+    return address;
+  }
+
+  /**
+   * 写入字符串，原空间放得下时原位覆盖，否则追加
+   *
+   * @param address 原地址
+   * @param capacity 原空间字节数
+   * @param bytes UTF-8字节
+   * @return 新地址
+   */
+  long write(long address, int capacity, byte[] bytes) {
+    if (bytes.length <= capacity) {
+      chunk(address).put(offset(address), bytes);
+      return address;
+    }
+    release(capacity);
+    return append(bytes);
+  }
+
+  /**
+   * 记录不再使用的空间
+   *
+   * @param length 字节数
+   */
+  void release(int length) {
+    wastedBytes += length;
+  }
+
+  /**
+   * 读取字符串
+   *
+   * @param address 地址
+   * @param length 字节数
+   * @return 字符串
+   */
+  String read(long address, int length) {
+    byte[] bytes = new byte[length];
+    chunk(address).get(offset(address), bytes);
+    return new String(bytes, StandardCharsets.UTF_8);
+  }
+
+  /**
+   * 不解码地按ASCII忽略大小写查找子串
+   *
+   * @param address 地址
+   * @param length 字节数
+   * @param lowerNeedle 已转为小写的ASCII子串
+   * @return 是否包含
+   */
+  boolean containsIgnoreAsciiCase(long address, int length, byte[] lowerNeedle) {
+    ByteBuffer chunk = chunk(address);
+    int start = offset(address);
+    int last = length - lowerNeedle.length;
+    for (int i = 0; i <= last; i++) {
+      int j = 0;
+      while (j < lowerNeedle.length && toLower(chunk.get(start + i + j)) == lowerNeedle[j]) {
+        j++;
+      }
+      if (j == lowerNeedle.length) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * 已分配的直接内存字节数
+   *
+   * @return 字节数
+   */
+  long allocatedBytes() {
+    return (long) chunks.size() * chunkSize;
+  }
+
+  /**
+   * 被覆盖或删除而不再使用的字节数
+   *
+   * @return 字节数
+   */
+  long wastedBytes() {
+    return wastedBytes;
+  }
+
+  private ByteBuffer chunk(long address) {
+    return chunks.get((int) (address / chunkSize));
+  }
+
+  private int offset(long address) {
+    return (int) (address % chunkSize);
+  }
+
+  private static byte toLower(byte b) {
+    return b >= 'A' && b <= 'Z' ? (byte) (b + ('a' - 'A')) : b;
+  }
+}
@@ -0,0 +1,228 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.r2dbc;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.ReactiveCityRepository;
+import io.r2dbc.spi.Readable;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.transaction.reactive.TransactionalOperator;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * 基于R2DBC的响应式城市仓储。
+ *
+ * <p>实现说明：
+ *
+ * <ul>
+ *   <li>SQL与{@code CityMapper.xml}、{@code CityChangeMapper.xml}保持一致，两套实现可以共用同一个库
+ *   <li>写操作在同一事务中从city_change_seq分配版本号，删除时写入墓碑，保证增量同步不受影响
+ *   <li>查询结果按行发出，遵循下游的背压请求
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class R2dbcCityRepository implements ReactiveCityRepository {
+
+  private static final String COLUMNS = "id, name, countrycode, district, population, version";
+  private static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM city WHERE id = :id";
+  private static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM city ORDER BY id";
+  private static final String SELECT_BY_NAME_SQL =
+      "SELECT "
+          + COLUMNS
+          + " FROM city WHERE name LIKE :name ORDER BY id LIMIT :limit OFFSET :offset";
+  private static final String COUNT_BY_NAME_SQL = "SELECT COUNT(*) FROM city WHERE name LIKE :name";
+  private static final String INCREMENT_VERSION_SQL =
+      "UPDATE city_change_seq SET seq = LAST_INSERT_ID(seq + 1) WHERE name = 'city'";
+  private static final String LAST_INSERT_ID_SQL = "SELECT LAST_INSERT_ID()";
+  private static final String INSERT_SQL =
+      "INSERT INTO city (name, countrycode, district, population, version)"
+          + " VALUES (:name, :countrycode, :district, :population, :version)";
+  private static final String UPDATE_SQL =
+      "UPDATE city SET name = :name, countrycode = :countrycode, district = :district,"
+          + " population = :population, version = :version WHERE id = :id";
+  private static final String DELETE_SQL = "DELETE FROM city WHERE id = :id";
+  private static final String UPSERT_TOMBSTONE_SQL =
+      "INSERT INTO city_tombstone (id, version) VALUES (:id, :version)"
+          + " ON DUPLICATE KEY UPDATE version = VALUES(version), deleted_at = CURRENT_TIMESTAMP";
+
+  private final DatabaseClient databaseClient;
+  private final TransactionalOperator transactionalOperator;
+
+  public R2dbcCityRepository(
+      DatabaseClient databaseClient, TransactionalOperator transactionalOperator) {
+    this.databaseClient = databaseClient;
+    this.transactionalOperator = transactionalOperator;
+  }
+
+  @Override
+  public Mono<City> findById(Long id) {
+    return databaseClient
+        .sql(SELECT_BY_ID_SQL)
+        .bind("id", id)
+        .map(R2dbcCityRepository::toCity)
+        .one();
+  }
+
+  @Override
+  public Flux<City> findAll() {
+    return databaseClient.sql(SELECT_ALL_SQL).map(R2dbcCityRepository::toCity).all();
+  }
+
+  @Override
+  public Flux<City> findByNameLike(String namePattern, long offset, long limit) {
+    return databaseClient
+        .sql(SELECT_BY_NAME_SQL)
+        .bind("name", namePattern)
+        .bind("limit", limit)
+        .bind("offset", offset)
+        .map(R2dbcCityRepository::toCity)
+        .all();
+  }
+
+  @Override
+  public Mono<Long> countByNameLike(String namePattern) {
+    return databaseClient
+        .sql(COUNT_BY_NAME_SQL)
+        .bind("name", namePattern)
+        .map(row -> row.get(0, Long.class))
+        .one();
+  }
+
+  /**
+   * 保存城市，ID为null时插入，否则更新；版本号在同一事务中分配
+   *
+   * @param city 要保存的城市对象
+   * @return 保存后的城市对象
+   */
+  @Override
+  public Mono<City> save(City city) {
+    if (city == null) {
+      return Mono.error(new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null"));
+    }
+    Mono<City> save =
+        nextVersion()
+            .flatMap(
+                version -> {
+                  City saved = copyWithVersion(city, version);
+                  return city.getId() == null ? insert(saved) : update(saved);
+                });
+    return transactionalOperator.transactional(save);
+  }
+
+  /**
+   * 删除城市，并在同一事务中写入墓碑记录
+   *
+   * @param id 城市ID
+   * @return 完成信号
+   */
+  @Override
+  public Mono<Void> deleteById(Long id) {
+    Mono<Void> delete =
+        databaseClient
+            .sql(DELETE_SQL)
+            .bind("id", id)
+            .fetch()
+            .rowsUpdated()
+            .flatMap(
+                deleted ->
+                    deleted == 0
+                        ? Mono.empty()
+                        : nextVersion()
+                            .flatMap(
+                                version ->
+                                    databaseClient
+                                        .sql(UPSERT_TOMBSTONE_SQL)
+                                        .bind("id", id)
+                                        .bind("version", version)
+                                        .fetch()
+                                        .rowsUpdated()))
+            .then();
+    return transactionalOperator.transactional(delete);
+  }
+
+  /** 分配下一个版本号，必须在事务中调用，保证两条语句使用同一连接 */
+  private Mono<Long> nextVersion() {
+    return databaseClient
+        .sql(INCREMENT_VERSION_SQL)
+        .fetch()
+        .rowsUpdated()
+        .then(
+            databaseClient
+                .sql(LAST_INSERT_ID_SQL)
+                .map(row -> row.get(0, Long.class))
+                .one());
+  }
+
+  private Mono<City> insert(City city) {
+    return bindColumns(databaseClient.sql(INSERT_SQL), city)
+        .filter(statement -> statement.returnGeneratedValues("id"))
+        .map(row -> row.get("id", Long.class))
+        .one()
+        .map(
+            id -> {
+              city.setId(id);
+              return city;
+            });
+  }
+
+  private Mono<City> update(City city) {
+    return bindColumns(databaseClient.sql(UPDATE_SQL), city)
+        .bind("id", city.getId())
+        .fetch()
+        .rowsUpdated()
+        .thenReturn(city);
+  }
+
+  private static DatabaseClient.GenericExecuteSpec bindColumns(
+      DatabaseClient.GenericExecuteSpec spec, City city) {
+    DatabaseClient.GenericExecuteSpec bound =
+        spec.bind("name", city.getName())
+            .bind("countrycode", city.getCountrycode())
+            .bind("district", city.getDistrict())
+            .bind("version", city.getVersion());
+    return city.getPopulation() == null
+        ? bound.bindNull("population", Integer.class)
+        : bound.bind("population", city.getPopulation());
+  }
+
+  private static City copyWithVersion(City city, long version) {
+    return City.builder()
+        .id(city.getId())
+        .name(city.getName())
+        .countrycode(city.getCountrycode())
+        .district(city.getDistrict())
+        .population(city.getPopulation())
+        .version(version)
+        .build();
+  }
+
+  private static City toCity(Readable row) {
+    return City.builder()
+        .id(row.get("id", Long.class))
+        .name(row.get("name", String.class))
+        .countrycode(row.get("countrycode", String.class))
+        .district(row.get("district", String.class))
+        .population(row.get("population", Integer.class))
+        .version(row.get("version", Long.class))
+        .build();
+  }
+}
@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.sharding;
+
+/**
+ * 城市分片路由。
+ *
+ * <p>路由规则：
+ *
+ * <ul>
+ *   <li>新增城市按国家代码哈希选择分片，同一国家的城市落在同一分片
+ *   <li>城市ID高位编码所属分片：id = (shard &lt;&lt; {@value #SHARD_SHIFT}) | seq，每个分片独占一段ID区间
+ *   <li>按ID查询、更新和删除直接由ID区间定位分片，无需查询路由表
+ * </ul>
+ *
+ * <p>分片一经上线，分片数量和国家代码的哈希方式都不能再修改。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class ShardRouter {
+
+  /** 分片内序号占用的位数 */
+  public static final int SHARD_SHIFT = 40;
+
+  /** 分片内序号上限 */
+  public static final long MAX_SEQUENCE = (1L << SHARD_SHIFT) - 1;
+
+  private final int shardCount;
+
+  public ShardRouter(int shardCount) {
+    if (shardCount <= 0 || shardCount > (1 << (Long.SIZE - 1 - SHARD_SHIFT))) {
+      throw new IllegalArgumentException("Invalid shard count: " + shardCount);
+    }
+    this.shardCount = shardCount;
+  }
+
+  /**
+   * 获取分片数量
+   *
+   * @return 分片数量
+   */
+  public int getShardCount() {
+    return shardCount;
+  }
+
+  /**
+   * 按国家代码选择分片
+   *
+   * @param countrycode 国家代码
+   * @return 分片序号
+   */
+  public int shardForCountry(String countrycode) {
+    String key = countrycode == null ? "" : countrycode.trim().toUpperCase();
+    return Math.floorMod(key.hashCode(), shardCount);
+  }
+
+  /**
+   * 按城市ID定位分片
+   *
+   * @param id 城市ID
+   * @return 分片序号，ID不属于任何分片时返回-1
+   */
+  public int shardForId(long id) {
+    if (id <= 0) {
+      return -1;
+    }
+    long shard = id >>> SHARD_SHIFT;
+    return shard < shardCount ? (int) shard : -1;
+  }
+
+  /**
+   * 由分片序号和分片内序号组成城市ID
+   *
+   * @param shard 分片序号
+   * @param sequence 分片内序号
+   * @return 城市ID
+   */
+  public static long toId(int shard, long sequence) {
+    if (sequence <= 0 || sequence > MAX_SEQUENCE) {
+      throw new IllegalStateException("Shard " + shard + " sequence exhausted: " + sequence);
+    }
+    return ((long) shard << SHARD_SHIFT) | sequence;
+  }
+}
@@ -0,0 +1,302 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.sharding;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Optional;
+import java.util.PriorityQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Function;
+
+/**
+ * 按国家代码分片的城市仓储。
+ *
+ * <p>每个分片是一个独立的数据源，路由规则见{@link ShardRouter}：
+ *
+ * <ul>
+ *   <li>新增城市按国家代码选择分片，并由{@link ShardedIdGenerator}生成带分片编号的ID
+ *   <li>按ID查询、更新和删除只访问ID所属分片；更新国家代码不会迁移分片
+ *   <li>findAll和findByNameLike并行查询所有分片，按ID做多路归并，结果整体按ID升序
+ *   <li>分页查询每个分片取前offset+size条，归并后再截取当前页，总数为各分片计数之和
+ *   <li>并行查询把调用方的{@link DeadlineContext}传递到查询线程，分片使用DeadlineJdbcTemplate时按剩余时间设置查询超时
+ * </ul>
+ *
+ * <p>深分页时每个分片都要返回offset+size条数据，代价随页码线性增长。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class ShardedCityRepository implements CityRepository, AutoCloseable {
+
+  static final String COLUMNS = "id, name, countrycode, district, population";
+  static final String SELECT_BY_ID_SQL = "SELECT " + COLUMNS + " FROM city WHERE id = ?";
+  static final String SELECT_ALL_SQL = "SELECT " + COLUMNS + " FROM city ORDER BY id";
+  static final String SELECT_BY_NAME_SQL =
+      "SELECT " + COLUMNS + " FROM city WHERE name LIKE ? ORDER BY id LIMIT ?";
+  static final String COUNT_BY_NAME_SQL = "SELECT COUNT(*) FROM city WHERE name LIKE ?";
+  static final String INSERT_SQL =
+      "INSERT INTO city (" + COLUMNS + ") VALUES (?, ?, ?, ?, ?)";
+  static final String UPDATE_SQL =
+      "UPDATE city SET name = ?, countrycode = ?, district = ?, population = ? WHERE id = ?";
+  static final String DELETE_SQL = "DELETE FROM city WHERE id = ?";
+
+  private static final RowMapper<City> CITY_ROW_MAPPER =
+      (resultSet, rowNum) ->
+          City.builder()
+              .id(resultSet.getLong("id"))
+              .name(resultSet.getString("name"))
+              .countrycode(resultSet.getString("countrycode"))
+              .district(resultSet.getString("district"))
+              .population(resultSet.getObject("population", Integer.class))
+              .build();
+
+  private final ShardRouter router;
+  private final List<JdbcTemplate> shards;
+  private final List<ShardedIdGenerator> idGenerators;
+  private final ExecutorService scatterExecutor;
+  private final List<AutoCloseable> resources;
+
+  /**
+   * 创建分片仓储
+   *
+   * @param shards 各分片的JdbcTemplate，下标即分片序号
+   * @param idGenerators 各分片的ID生成器，与shards一一对应
+   * @param scatterExecutor 并行查询线程池
+   * @param resources 关闭仓储时需要一并释放的资源，例如分片连接池
+   */
+  public ShardedCityRepository(
+      List<JdbcTemplate> shards,
+      List<ShardedIdGenerator> idGenerators,
+      ExecutorService scatterExecutor,
+      List<AutoCloseable> resources) {
+    this.router = new ShardRouter(shards.size());
+    this.shards = List.copyOf(shards);
+    this.idGenerators = List.copyOf(idGenerators);
+    this.scatterExecutor = scatterExecutor;
+    this.resources = List.copyOf(resources);
+  }
+
+  @Override
+  public Optional<City> findById(Long id) {
+    int shard = id == null ? -1 : router.shardForId(id);
+    if (shard < 0) {
+      return Optional.empty();
+    }
+    return shards.get(shard).query(SELECT_BY_ID_SQL, CITY_ROW_MAPPER, id).stream().findFirst();
+  }
+
+  @Override
+  public List<City> findAll() {
+    List<List<City>> results =
+        joinAll(scatter(shard -> shard.query(SELECT_ALL_SQL, CITY_ROW_MAPPER)));
+    return mergeById(results, 0, Integer.MAX_VALUE);
+  }
+
+  @Override
+  public City save(City city) {
+    if (city == null) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City cannot be null");
+    }
+    if (city.getId() == null) {
+      int shard = router.shardForCountry(city.getCountrycode());
+      long id = idGenerators.get(shard).nextId();
+      shards
+          .get(shard)
+          .update(
+              INSERT_SQL,
+              id,
+              city.getName(),
+              city.getCountrycode(),
+              city.getDistrict(),
+              city.getPopulation());
+      return copyWithId(city, id);
+    }
+    int shard = router.shardForId(city.getId());
+    if (shard < 0) {
+      throw new BusinessException(ErrorCode.PARAM_INVALID, "City id does not belong to any shard");
+    }
+    shards
+        .get(shard)
+        .update(
+            UPDATE_SQL,
+            city.getName(),
+            city.getCountrycode(),
+            city.getDistrict(),
+            city.getPopulation(),
+            city.getId());
+    return copyWithId(city, city.getId());
+  }
+
+  @Override
+  public void deleteById(Long id) {
+    int shard = id == null ? -1 : router.shardForId(id);
+    if (shard >= 0) {
+      shards.get(shard).update(DELETE_SQL, id);
+    }
+  }
+
+  @Override
+  public Page<City> findByNameLike(String namePattern, Page<City> page) {
+    String like = "%" + (namePattern == null ? "" : namePattern) + "%";
+    long offset = Math.max(0L, (page.getCurrent() - 1) * page.getSize());
+    long perShardLimit = Math.min(Integer.MAX_VALUE, offset + page.getSize());
+
+    // 计数与分页查询同时发出，总耗时取决于最慢的分片
+    List<CompletableFuture<Long>> counts =
+        scatter(shard -> shard.queryForObject(COUNT_BY_NAME_SQL, Long.class, like));
+    List<CompletableFuture<List<City>>> pages =
+        scatter(shard -> shard.query(SELECT_BY_NAME_SQL, CITY_ROW_MAPPER, like, perShardLimit));
+    List<List<City>> results = joinAll(pages);
+    long total = joinAll(counts).stream().mapToLong(Long::longValue).sum();
+
+    Page<City> resultPage = new Page<>(page.getCurrent(), page.getSize(), total);
+    resultPage.setRecords(mergeById(results, offset, page.getSize()));
+    return resultPage;
+  }
+
+  /** 关闭并行查询线程池和分片连接池 */
+  @Override
+  public void close() {
+    scatterExecutor.shutdownNow();
+    for (AutoCloseable resource : resources) {
+      try {
+        resource.close();
+      } catch (Exception e) {
+        log.warn("Failed to close shard resource: {}", e.getMessage());
+      }
+    }
+  }
+
+  /**
+   * 在所有分片上并行发起查询
+   *
+   * @param query 单个分片上的查询
+   * @param <T> 结果类型
+   * @return 按分片序号排列的查询结果
+   */
+  private <T> List<CompletableFuture<T>> scatter(Function<JdbcTemplate, T> query) {
+    Deadline deadline = DeadlineContext.current();
+    List<CompletableFuture<T>> futures = new ArrayList<>(shards.size());
+    for (JdbcTemplate shard : shards) {
+      futures.add(
+          CompletableFuture.supplyAsync(
+              () -> {
+                if (deadline != null) {
+                  DeadlineContext.set(deadline);
+                }
+                try {
+                  return query.apply(shard);
+                } finally {
+                  DeadlineContext.clear();
+                }
+              },
+              scatterExecutor));
+    }
+    return futures;
+  }
+
+  private static <T> List<T> joinAll(List<CompletableFuture<T>> futures) {
+    List<T> results = new ArrayList<>(futures.size());
+    for (CompletableFuture<T> future : futures) {
+      try {
+        results.add(future.join());
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * 多路归并各分片按ID升序排列的结果
+   *
+   * @param results 各分片的有序结果
+   * @param offset 跳过的条数
+   * @param limit 最多返回的条数
+   * @return 归并后的结果
+   */
+  static List<City> mergeById(List<List<City>> results, long offset, long limit) {
+    PriorityQueue<Cursor> heap =
+        new PriorityQueue<>(Comparator.comparingLong(cursor -> cursor.current().getId()));
+    for (List<City> result : results) {
+      if (!result.isEmpty()) {
+        heap.add(new Cursor(result));
+      }
+    }
+    List<City> merged = new ArrayList<>((int) Math.min(limit, 1024));
+    long skipped = 0;
+    while (!heap.isEmpty() && merged.size() < limit) {
+      Cursor cursor = heap.poll();
+      if (skipped < offset) {
+        skipped++;
+      } else {
+        merged.add(cursor.current());
+      }
+      if (cursor.advance()) {
+        heap.add(cursor);
+      }
+    }
+    return merged;
+  }
+
+  private static City copyWithId(City city, long id) {
+    return City.builder()
+        .id(id)
+        .name(city.getName())
+        .countrycode(city.getCountrycode())
+        .district(city.getDistrict())
+        .population(city.getPopulation())
+        .build();
+  }
+
+  /** 单个分片结果上的游标 */
+  private static final class Cursor {
+    private final List<City> cities;
+    private int position;
+
+    Cursor(List<City> cities) {
+      this.cities = cities;
+    }
+
+    City current() {
+      return cities.get(position);
+    }
+
+    boolean advance() {
+      return ++position < cities.size();
+    }
+  }
+}
@@ -0,0 +1,95 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.sharding;
+
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * 分片感知的城市ID生成器。
+ *
+ * <p>每个分片在自身的city_id_seq表中维护序号，生成器按号段批量申请：
+ *
+ * <ul>
+ *   <li>号段申请在分片内的事务中以SELECT ... FOR UPDATE加锁，多实例并发申请互不重叠
+ *   <li>号段内的ID在进程内分配，不访问数据库
+ *   <li>进程重启会丢弃未用完的号段，ID不连续但保证唯一
+ * </ul>
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+public class ShardedIdGenerator {
+
+  static final String SELECT_SEQ_SQL =
+      "SELECT seq FROM city_id_seq WHERE name = 'city' FOR UPDATE";
+  static final String UPDATE_SEQ_SQL = "UPDATE city_id_seq SET seq = ? WHERE name = 'city'";
+
+  private final int shard;
+  private final JdbcTemplate jdbcTemplate;
+  private final TransactionTemplate transactionTemplate;
+  private final int blockSize;
+  private final ReentrantLock lock = new ReentrantLock();
+
+  /** 当前号段中下一个可用序号，以及号段上限（不含） */
+  private long next;
+
+  private long limit;
+
+  public ShardedIdGenerator(
+      int shard,
+      JdbcTemplate jdbcTemplate,
+      TransactionTemplate transactionTemplate,
+      int blockSize) {
+    this.shard = shard;
+    this.jdbcTemplate = jdbcTemplate;
+    this.transactionTemplate = transactionTemplate;
+    this.blockSize = blockSize;
+  }
+
+  /**
+   * 生成下一个城市ID
+   *
+   * @return 城市ID
+   */
+  public long nextId() {
+    lock.lock();
+    try {
+      if (next >= limit) {
+        allocateBlock();
+      }
+      return ShardRouter.toId(shard, next++);
+    } finally {
+      lock.unlock();
+    }
+  }
+
+  private void allocateBlock() {
+    Long start =
+        transactionTemplate.execute(
+            status -> {
+              Long current = jdbcTemplate.queryForObject(SELECT_SEQ_SQL, Long.class);
+              long base = current == null ? 0L : current;
+              jdbcTemplate.update(UPDATE_SEQ_SQL, base + blockSize);
+              return base + 1;
+            });
+    next = start;
+    limit = start + blockSize;
+  }
+}
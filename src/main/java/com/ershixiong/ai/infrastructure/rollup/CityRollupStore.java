@@ -0,0 +1,397 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.rollup;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.model.CityRollup;
+import com.ershixiong.ai.domain.model.CityStats;
+import com.ershixiong.ai.domain.repository.CityRollupRepository;
+import lombok.extern.slf4j.Slf4j;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+
+/**
+ * 按国家和（国家，行政区）增量维护的城市人口汇总。
+ *
+ * <p>维护方式：
+ *
+ * <ul>
+ *   <li>应用服务每次写入城市后调用{@link #apply(City, City)}，从旧城市所在组减去、向新城市所在组加上，
+ *       国家级和行政区级汇总同时更新，写路径只有几次{@link java.util.concurrent.atomic.LongAdder}累加
+ *   <li>被修改的行政区记入待持久化集合，由{@link #flush()}批量写入汇总表；实例启动时从汇总表加载，
+ *       汇总表为空时按城市表分组统计一次
+ *   <li>移除的人口恰为极值时极值过期，{@link #flush()}先按城市表重新统计所在国家再持久化
+ *   <li>{@link #reconcile()}定期与城市表分组统计的结果比较，修复绕过应用服务的写入、其他实例的写入
+ *       和进程中断造成的偏差；比较期间有并发写入的组跳过，留给下一次核对
+ * </ul>
+ *
+ * <p>汇总最终一致：统计结果可能暂时遗漏其他实例或直接修改数据库的写入，最多落后一个核对间隔。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CityRollupStore {
+
+  private static final Comparator<CityPopulationStats> BY_KEY =
+      Comparator.comparing(
+          CityPopulationStats::getKey, Comparator.nullsFirst(Comparator.naturalOrder()));
+
+  private final CityRollupRepository cityRollupRepository;
+  private final ConcurrentHashMap<String, CountryRollup> countries = new ConcurrentHashMap<>();
+  /** 已修改、尚未写入汇总表的行政区 */
+  private final Set<DistrictKey> dirty = ConcurrentHashMap.newKeySet();
+  private final AtomicLong repairs = new AtomicLong();
+  /** 串行化加载、持久化和核对，三者都在持锁期间访问数据库，使用ReentrantLock以免固定虚拟线程 */
+  private final ReentrantLock maintenanceLock = new ReentrantLock();
+
+  private volatile boolean ready;
+  private volatile Instant reconciledAt;
+
+  public CityRollupStore(CityRollupRepository cityRollupRepository) {
+    this.cityRollupRepository = cityRollupRepository;
+  }
+
+  /**
+   * 首次加载：读取汇总表，为空时按城市表分组统计并标记为待持久化
+   *
+   * <p>加载完成前的写入不计入汇总，由之后的核对补上。
+   */
+  public void load() {
+    maintenanceLock.lock();
+    try {
+      List<CityRollup> rollups = cityRollupRepository.findAll();
+      boolean rebuilt = rollups.isEmpty();
+      if (rebuilt) {
+        rollups = cityRollupRepository.aggregateCities(null);
+        reconciledAt = Instant.now();
+      }
+      countries.clear();
+      for (CityRollup rollup : rollups) {
+        CountryRollup country = country(rollup.getCountrycode());
+        country.total.merge(rollup);
+        district(country, rollup.getDistrict()).reset(rollup);
+        if (rebuilt) {
+          dirty.add(new DistrictKey(rollup.getCountrycode(), rollup.getDistrict()));
+        }
+      }
+      ready = true;
+      log.info(
+          "Loaded {} city rollups from the {}",
+          rollups.size(),
+          rebuilt ? "city table" : "summary table");
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * 把一次城市写入计入汇总
+   *
+   * @param before 写入前的城市，新建时为null
+   * @param after 写入后的城市，删除时为null
+   */
+  public void apply(City before, City after) {
+    if (!ready) {
+      return;
+    }
+    if (before != null
+        && after != null
+        && Objects.equals(before.getCountrycode(), after.getCountrycode())
+        && Objects.equals(before.getDistrict(), after.getDistrict())
+        && Objects.equals(before.getPopulation(), after.getPopulation())) {
+      return;
+    }
+    if (before != null) {
+      CountryRollup country = country(before.getCountrycode());
+      country.total.remove(before.getPopulation());
+      district(country, before.getDistrict()).remove(before.getPopulation());
+      dirty.add(new DistrictKey(before.getCountrycode(), before.getDistrict()));
+    }
+    if (after != null) {
+      CountryRollup country = country(after.getCountrycode());
+      country.total.add(after.getPopulation());
+      district(country, after.getDistrict()).add(after.getPopulation());
+      dirty.add(new DistrictKey(after.getCountrycode(), after.getDistrict()));
+    }
+  }
+
+  /**
+   * 读取人口统计
+   *
+   * @param countrycode 国家代码，为null时返回全部国家的总计和各国统计
+   * @return 统计结果，指定的国家没有城市时返回null
+   */
+  public CityStats stats(String countrycode) {
+    if (countrycode != null) {
+      CountryRollup country = countries.get(countrycode);
+      if (country == null || country.total.cityCount() <= 0) {
+        return null;
+      }
+      return CityStats.builder()
+          .countrycode(countrycode)
+          .total(country.total.toStats(countrycode))
+          .groups(nonEmpty(country.districts))
+          .reconciledAt(reconciledAt)
+          .build();
+    }
+    PopulationRollup total = new PopulationRollup();
+    Map<String, PopulationRollup> totals = new HashMap<>();
+    countries.forEach(
+        (code, country) -> {
+          total.merge(country.total.toRollup(code, null));
+          totals.put(code, country.total);
+        });
+    return CityStats.builder()
+        .total(total.toStats(null))
+        .groups(nonEmpty(totals))
+        .reconciledAt(reconciledAt)
+        .build();
+  }
+
+  /**
+   * 重新统计极值过期的国家，再把已修改的行政区写入汇总表
+   *
+   * @return 写入的行政区数
+   */
+  public int flush() {
+    maintenanceLock.lock();
+    try {
+      if (!ready) {
+        return 0;
+      }
+      for (String countrycode : staleCountries()) {
+        Stamps stamps = stamps(countrycode);
+        repair(countrycode, cityRollupRepository.aggregateCities(countrycode), stamps);
+      }
+      List<DistrictKey> keys = new ArrayList<>(dirty);
+      if (keys.isEmpty()) {
+        return 0;
+      }
+      dirty.removeAll(keys);
+      List<CityRollup> rollups = new ArrayList<>(keys.size());
+      for (DistrictKey key : keys) {
+        CountryRollup country = countries.get(key.countrycode());
+        PopulationRollup district = country.districts.get(key.district());
+        rollups.add(district.toRollup(key.countrycode(), key.district()));
+      }
+      try {
+        cityRollupRepository.saveAll(rollups);
+      } catch (RuntimeException e) {
+        dirty.addAll(keys);
+        throw e;
+      }
+      return rollups.size();
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /**
+   * 与城市表的分组统计结果核对，修复有偏差的汇总
+   *
+   * @return 修复的汇总数
+   */
+  public int reconcile() {
+    maintenanceLock.lock();
+    try {
+      if (!ready) {
+        return 0;
+      }
+      // 先记录写入次数再统计，统计期间被写入过的组不修复
+      Stamps stamps = stamps(null);
+      Map<String, List<CityRollup>> actual =
+          cityRollupRepository.aggregateCities(null).stream()
+              .collect(Collectors.groupingBy(CityRollup::getCountrycode));
+      Set<String> codes = new HashSet<>(countries.keySet());
+      codes.addAll(actual.keySet());
+      int repaired = 0;
+      for (String countrycode : codes) {
+        repaired += repair(countrycode, actual.getOrDefault(countrycode, List.of()), stamps);
+      }
+      reconciledAt = Instant.now();
+      if (repaired > 0) {
+        log.warn("Repaired {} drifted city rollups", repaired);
+      }
+      return repaired;
+    } finally {
+      maintenanceLock.unlock();
+    }
+  }
+
+  /** 是否已完成首次加载 */
+  public boolean isReady() {
+    return ready;
+  }
+
+  /** 最近一次与城市表核对的时间 */
+  public Instant getReconciledAt() {
+    return reconciledAt;
+  }
+
+  /** 维护中的行政区汇总数 */
+  public int getDistrictCount() {
+    return countries.values().stream().mapToInt(country -> country.districts.size()).sum();
+  }
+
+  /** 尚未写入汇总表的行政区数 */
+  public int getPendingCount() {
+    return dirty.size();
+  }
+
+  /** 累计修复的汇总数 */
+  public long getRepairCount() {
+    return repairs.get();
+  }
+
+  /**
+   * 用一个国家在城市表中的统计结果修复该国的行政区汇总和国家汇总
+   *
+   * @param countrycode 国家代码
+   * @param actual 该国各行政区在城市表中的统计结果
+   * @param stamps 统计前记录的写入次数
+   * @return 修复的汇总数
+   */
+  private int repair(String countrycode, List<CityRollup> actual, Stamps stamps) {
+    CountryRollup country = country(countrycode);
+    Map<String, CityRollup> expectedDistricts = new HashMap<>();
+    PopulationRollup expectedTotal = new PopulationRollup();
+    for (CityRollup rollup : actual) {
+      expectedDistricts.put(rollup.getDistrict(), rollup);
+      expectedTotal.merge(rollup);
+    }
+    Set<String> names = new HashSet<>(country.districts.keySet());
+    names.addAll(expectedDistricts.keySet());
+    int repaired = 0;
+    for (String name : names) {
+      DistrictKey key = new DistrictKey(countrycode, name);
+      CityRollup expected =
+          expectedDistricts.getOrDefault(
+              name, CityRollup.builder().countrycode(countrycode).district(name).build());
+      if (needsRepair(country.districts.get(name), expected, stamps.districts().get(key))) {
+        district(country, name).reset(expected);
+        dirty.add(key);
+        repaired++;
+      }
+    }
+    CityRollup expected = expectedTotal.toRollup(countrycode, null);
+    if (needsRepair(country.total, expected, stamps.countries().get(countrycode))) {
+      country.total.reset(expected);
+      repaired++;
+    }
+    repairs.addAndGet(repaired);
+    return repaired;
+  }
+
+  /**
+   * 汇总与统计结果不一致，且统计期间没有并发写入时需要修复
+   *
+   * <p>一致且没有并发写入时顺带清除极值过期标记。
+   */
+  private static boolean needsRepair(PopulationRollup rollup, CityRollup expected, Long stamp) {
+    if (rollup == null) {
+      return expected.getCityCount() != 0;
+    }
+    // 统计后才创建、且没有写入过的汇总同样视为没有并发写入
+    boolean quiet = (stamp == null ? 0L : stamp) == rollup.modifications();
+    if (rollup.matches(expected)) {
+      if (quiet) {
+        rollup.clearExtremesStale();
+      }
+      return false;
+    }
+    return quiet;
+  }
+
+  /** 有极值过期的国家 */
+  private List<String> staleCountries() {
+    List<String> stale = new ArrayList<>();
+    countries.forEach(
+        (code, country) -> {
+          if (country.total.isExtremesStale()
+              || country.districts.values().stream().anyMatch(PopulationRollup::isExtremesStale)) {
+            stale.add(code);
+          }
+        });
+    return stale;
+  }
+
+  /** 记录各汇总当前的写入次数，countrycode为null时记录全部国家 */
+  private Stamps stamps(String countrycode) {
+    Stamps stamps = new Stamps(new HashMap<>(), new HashMap<>());
+    countries.forEach(
+        (code, country) -> {
+          if (countrycode != null && !countrycode.equals(code)) {
+            return;
+          }
+          stamps.countries().put(code, country.total.modifications());
+          country.districts.forEach(
+              (name, district) ->
+                  stamps.districts().put(new DistrictKey(code, name), district.modifications()));
+        });
+    return stamps;
+  }
+
+  private CountryRollup country(String countrycode) {
+    return countries.computeIfAbsent(countrycode, k -> new CountryRollup());
+  }
+
+  private static PopulationRollup district(CountryRollup country, String district) {
+    return country.districts.computeIfAbsent(district, k -> new PopulationRollup());
+  }
+
+  /** 城市数大于0的汇总，按键升序 */
+  private static List<CityPopulationStats> nonEmpty(Map<String, PopulationRollup> rollups) {
+    List<CityPopulationStats> stats = new ArrayList<>();
+    rollups.forEach(
+        (key, rollup) -> {
+          if (rollup.cityCount() > 0) {
+            stats.add(rollup.toStats(key));
+          }
+        });
+    stats.sort(BY_KEY);
+    return stats;
+  }
+
+  /** 一个国家的汇总及其下各行政区的汇总 */
+  private static final class CountryRollup {
+    private final PopulationRollup total = new PopulationRollup();
+    private final ConcurrentHashMap<String, PopulationRollup> districts =
+        new ConcurrentHashMap<>();
+  }
+
+  /** 行政区汇总的键 */
+  private record DistrictKey(String countrycode, String district) {
+  }
+
+  /** 统计前记录的写入次数 */
+  private record Stamps(Map<String, Long> countries, Map<DistrictKey, Long> districts) {
+  }
+}
@@ -0,0 +1,165 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.rollup;
+
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.model.CityRollup;
+
+import java.util.Objects;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * 一组城市的人口汇总计数器。
+ *
+ * <p>计数和总和使用{@link LongAdder}、极值使用{@link LongAccumulator}，并发写入分散到各自的槽位，
+ * 写路径上没有锁和CAS重试热点。
+ *
+ * <p>计数和总和可以增减，极值只能单向收紧：移除的人口等于当前最小值或最大值时，极值无法增量回退，
+ * 标记为过期后由{@link CityRollupStore}按城市表重新统计。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class PopulationRollup {
+
+  private final LongAdder cities = new LongAdder();
+  private final LongAdder populations = new LongAdder();
+  private final LongAdder sum = new LongAdder();
+  private final LongAccumulator min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+  private final LongAccumulator max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+  /** 写入次数，核对时据此判断比较期间是否有并发写入 */
+  private final LongAdder modifications = new LongAdder();
+  private volatile boolean extremesStale;
+
+  /** 计入一个城市 */
+  void add(Integer population) {
+    cities.increment();
+    if (population != null) {
+      populations.increment();
+      sum.add(population);
+      min.accumulate(population);
+      max.accumulate(population);
+    }
+    modifications.increment();
+  }
+
+  /** 移除一个城市 */
+  void remove(Integer population) {
+    cities.decrement();
+    if (population != null) {
+      populations.decrement();
+      sum.add(-population);
+      if (population <= min.get() || population >= max.get()) {
+        extremesStale = true;
+      }
+    }
+    modifications.increment();
+  }
+
+  /** 合并一个汇总，用于由行政区汇总累加国家汇总 */
+  void merge(CityRollup rollup) {
+    cities.add(rollup.getCityCount());
+    populations.add(rollup.getPopulationCount());
+    sum.add(rollup.getPopulationSum());
+    if (rollup.getPopulationMin() != null) {
+      min.accumulate(rollup.getPopulationMin());
+    }
+    if (rollup.getPopulationMax() != null) {
+      max.accumulate(rollup.getPopulationMax());
+    }
+  }
+
+  /** 以核对结果覆盖当前值，与并发写入之间不是原子的，遗漏的写入由下一次核对修复 */
+  void reset(CityRollup rollup) {
+    cities.reset();
+    populations.reset();
+    sum.reset();
+    min.reset();
+    max.reset();
+    merge(rollup);
+    extremesStale = false;
+  }
+
+  /** 当前值是否与给定汇总一致 */
+  boolean matches(CityRollup rollup) {
+    return cities.sum() == rollup.getCityCount()
+        && populations.sum() == rollup.getPopulationCount()
+        && sum.sum() == rollup.getPopulationSum()
+        && Objects.equals(min(), rollup.getPopulationMin())
+        && Objects.equals(max(), rollup.getPopulationMax());
+  }
+
+  long cityCount() {
+    return cities.sum();
+  }
+
+  long populationCount() {
+    return populations.sum();
+  }
+
+  long populationSum() {
+    return sum.sum();
+  }
+
+  /** 最小人口，人口全部未知时为null */
+  Integer min() {
+    return populations.sum() == 0 ? null : (int) min.get();
+  }
+
+  /** 最大人口，人口全部未知时为null */
+  Integer max() {
+    return populations.sum() == 0 ? null : (int) max.get();
+  }
+
+  long modifications() {
+    return modifications.sum();
+  }
+
+  boolean isExtremesStale() {
+    return extremesStale;
+  }
+
+  void clearExtremesStale() {
+    extremesStale = false;
+  }
+
+  CityRollup toRollup(String countrycode, String district) {
+    return CityRollup.builder()
+        .countrycode(countrycode)
+        .district(district)
+        .cityCount(cityCount())
+        .populationCount(populationCount())
+        .populationSum(populationSum())
+        .populationMin(min())
+        .populationMax(max())
+        .build();
+  }
+
+  CityPopulationStats toStats(String key) {
+    long known = populationCount();
+    long total = populationSum();
+    return CityPopulationStats.builder()
+        .key(key)
+        .count(cityCount())
+        .sum(known == 0 ? null : total)
+        .min(min())
+        .max(max())
+        .avg(known == 0 ? null : (double) total / known)
+        .build();
+  }
+}
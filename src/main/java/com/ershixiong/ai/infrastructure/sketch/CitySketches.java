@@ -0,0 +1,334 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.sketch;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CitySketchStats;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 按国家维护的城市流式草图，提供人口分位数、不同行政区数和高频行政区的近似统计。
+ *
+ * <p>维护方式：
+ *
+ * <ul>
+ *   <li>{@link #rebuild(Consumer)}对全表做一次流式扫描建出全部草图，完成后整体替换
+ *   <li>应用服务每次写入城市后调用{@link #apply(City, City)}，写路径只锁所在国家的草图
+ *   <li>分位数和基数草图不支持删除，删除和修改前的旧值会一直计入，直到下一次重建；
+ *       {@link #needsRebuild(Duration, double)}按重建时间和删除比例判断是否需要重建
+ * </ul>
+ *
+ * <p>各草图都可合并，{@link #toBytes()}和{@link #fromBytes(byte[])}在节点之间传递序列化的草图，
+ * {@link #merge(CitySketches)}合并持有不同数据（例如不同分片）的节点的草图，误差界保持不变。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+@Slf4j
+public class CitySketches {
+
+  /** 序列化格式标识 "CSK1" */
+  private static final int FORMAT = 0x43534B31;
+
+  private final Settings settings;
+  private volatile State state;
+
+  /**
+   * 草图参数，合并和反序列化要求参数一致
+   *
+   * @param quantileAccuracy KLL精度参数k
+   * @param distinctPrecision HyperLogLog精度p，寄存器数为2^p
+   * @param frequencyEpsilon Count-Min相对总数的误差ε
+   * @param frequencyDelta Count-Min超出误差的概率δ
+   * @param heavyHitters 每个国家保留的高频行政区候选数
+   */
+  public record Settings(
+      int quantileAccuracy,
+      int distinctPrecision,
+      double frequencyEpsilon,
+      double frequencyDelta,
+      int heavyHitters) {
+  }
+
+  public CitySketches(Settings settings) {
+    this.settings = settings;
+  }
+
+  /**
+   * 流式扫描全表重建草图，扫描期间的写入可能遗漏，由下一次重建补上
+   *
+   * @param scan 扫描函数，对每个城市调用一次传入的回调
+   * @return 扫描的城市数
+   */
+  public long rebuild(Consumer<Consumer<City>> scan) {
+    Map<String, CountrySketch> countries = new ConcurrentHashMap<>();
+    long[] scanned = new long[1];
+    scan.accept(
+        city -> {
+          countries.computeIfAbsent(key(city), k -> new CountrySketch(settings)).add(city);
+          scanned[0]++;
+        });
+    state = new State(countries, Instant.now());
+    log.info("Rebuilt city sketches from {} cities in {} countries", scanned[0], countries.size());
+    return scanned[0];
+  }
+
+  /**
+   * 把一次城市写入计入草图，草图尚未建立时忽略
+   *
+   * @param before 写入前的城市，新建时为null
+   * @param after 写入后的城市，删除时为null
+   */
+  public void apply(City before, City after) {
+    State current = state;
+    if (current == null) {
+      return;
+    }
+    if (before != null
+        && after != null
+        && Objects.equals(before.getCountrycode(), after.getCountrycode())
+        && Objects.equals(before.getDistrict(), after.getDistrict())
+        && Objects.equals(before.getPopulation(), after.getPopulation())) {
+      return;
+    }
+    if (before != null) {
+      CountrySketch sketch = current.countries().get(key(before));
+      if (sketch != null) {
+        synchronized (sketch) {
+          sketch.remove(before);
+        }
+      }
+    }
+    if (after != null) {
+      CountrySketch sketch =
+          current.countries().computeIfAbsent(key(after), k -> new CountrySketch(settings));
+      synchronized (sketch) {
+        sketch.add(after);
+      }
+    }
+  }
+
+  /** 是否已完成首次重建 */
+  public boolean isReady() {
+    return state != null;
+  }
+
+  /** 最近一次重建的时间，尚未重建时为null */
+  public Instant getBuiltAt() {
+    State current = state;
+    return current == null ? null : current.builtAt();
+  }
+
+  /**
+   * 是否需要重建：尚未建立、距上次重建超过maxAge，或重建后删除和修改的城市超过城市数的removalRatio
+   *
+   * @param maxAge 两次重建的最长间隔
+   * @param removalRatio 触发提前重建的删除比例
+   * @return 是否需要重建
+   */
+  public boolean needsRebuild(Duration maxAge, double removalRatio) {
+    State current = state;
+    if (current == null || current.builtAt().plus(maxAge).isBefore(Instant.now())) {
+      return true;
+    }
+    long cities = 0;
+    long removals = 0;
+    for (CountrySketch sketch : current.countries().values()) {
+      synchronized (sketch) {
+        cities += sketch.cities();
+        removals += sketch.removals();
+      }
+    }
+    return removals > removalRatio * Math.max(1, cities);
+  }
+
+  /**
+   * 近似统计
+   *
+   * @param countrycode 国家代码，为null时合并全部国家
+   * @param fractions 人口分位点
+   * @param top 返回的高频行政区数，不超过{@link Settings#heavyHitters()}
+   * @return 统计结果，指定的国家不存在时返回null
+   */
+  public CitySketchStats stats(String countrycode, double[] fractions, int top) {
+    State current = requireState();
+    CountrySketch merged = new CountrySketch(settings);
+    if (countrycode != null) {
+      CountrySketch sketch = current.countries().get(countrycode);
+      if (sketch == null) {
+        return null;
+      }
+      synchronized (sketch) {
+        merged.merge(sketch);
+      }
+    } else {
+      for (CountrySketch sketch : current.countries().values()) {
+        synchronized (sketch) {
+          merged.merge(sketch);
+        }
+      }
+    }
+    List<CitySketchStats.Quantile> quantiles = new ArrayList<>(fractions.length);
+    for (double fraction : fractions) {
+      quantiles.add(new CitySketchStats.Quantile(fraction, merged.quantile(fraction)));
+    }
+    return CitySketchStats.builder()
+        .countrycode(countrycode)
+        .cities(merged.cities())
+        .removedSinceRebuild(merged.removals())
+        .populationQuantiles(quantiles)
+        .quantileRankError(KllSketch.rankError(settings.quantileAccuracy()))
+        .distinctDistricts(merged.distinctDistricts())
+        .distinctStandardError(HyperLogLog.standardError(settings.distinctPrecision()))
+        .topDistricts(merged.top(top))
+        .frequencyError(merged.frequencyError())
+        .frequencyConfidence(1 - settings.frequencyDelta())
+        .builtAt(current.builtAt())
+        .build();
+  }
+
+  /** 全部草图占用的字节数（估算） */
+  public long getMemoryBytes() {
+    State current = state;
+    if (current == null) {
+      return 0;
+    }
+    long bytes = 0;
+    for (CountrySketch sketch : current.countries().values()) {
+      synchronized (sketch) {
+        bytes += sketch.bytes();
+      }
+    }
+    return bytes;
+  }
+
+  /** 序列化全部草图 */
+  public byte[] toBytes() {
+    State current = requireState();
+    ByteArrayOutputStream buffer = new ByteArrayOutputStream();
+    try (DataOutputStream out = new DataOutputStream(buffer)) {
+      out.writeInt(FORMAT);
+      out.writeInt(settings.quantileAccuracy());
+      out.writeInt(settings.distinctPrecision());
+      out.writeDouble(settings.frequencyEpsilon());
+      out.writeDouble(settings.frequencyDelta());
+      out.writeInt(settings.heavyHitters());
+      out.writeLong(current.builtAt().getEpochSecond());
+      out.writeInt(current.builtAt().getNano());
+      List<Map.Entry<String, CountrySketch>> countries =
+          new ArrayList<>(current.countries().entrySet());
+      out.writeInt(countries.size());
+      for (Map.Entry<String, CountrySketch> entry : countries) {
+        out.writeUTF(entry.getKey());
+        synchronized (entry.getValue()) {
+          entry.getValue().writeTo(out);
+        }
+      }
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    return buffer.toByteArray();
+  }
+
+  /**
+   * 反序列化草图
+   *
+   * @param bytes {@link #toBytes()}的结果
+   * @return 草图
+   */
+  public static CitySketches fromBytes(byte[] bytes) {
+    try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes))) {
+      if (in.readInt() != FORMAT) {
+        throw new IllegalArgumentException("Not a serialized city sketch");
+      }
+      CitySketches sketches =
+          new CitySketches(
+              new Settings(
+                  in.readInt(), in.readInt(), in.readDouble(), in.readDouble(), in.readInt()));
+      Instant builtAt = Instant.ofEpochSecond(in.readLong(), in.readInt());
+      int count = in.readInt();
+      Map<String, CountrySketch> countries = new ConcurrentHashMap<>();
+      for (int i = 0; i < count; i++) {
+        countries.put(in.readUTF(), CountrySketch.readFrom(in));
+      }
+      sketches.state = new State(countries, builtAt);
+      return sketches;
+    } catch (IOException e) {
+      throw new IllegalArgumentException("Corrupted city sketch", e);
+    }
+  }
+
+  /**
+   * 合并持有不同数据的节点的草图，两份草图的参数必须一致
+   *
+   * <p>合并后的重建时间取两者中较早的一个。
+   *
+   * @param other 另一个节点的草图
+   */
+  public synchronized void merge(CitySketches other) {
+    if (!settings.equals(other.settings)) {
+      throw new IllegalArgumentException("Cannot merge city sketches with different settings");
+    }
+    State current = requireState();
+    State incoming = other.requireState();
+    for (Map.Entry<String, CountrySketch> entry : incoming.countries().entrySet()) {
+      CountrySketch sketch =
+          current.countries().computeIfAbsent(entry.getKey(), k -> new CountrySketch(settings));
+      CountrySketch copy = new CountrySketch(settings);
+      synchronized (entry.getValue()) {
+        copy.merge(entry.getValue());
+      }
+      synchronized (sketch) {
+        sketch.merge(copy);
+      }
+    }
+    if (incoming.builtAt().isBefore(current.builtAt())) {
+      state = new State(current.countries(), incoming.builtAt());
+    }
+  }
+
+  private State requireState() {
+    State current = state;
+    if (current == null) {
+      throw new IllegalStateException("City sketches are not built");
+    }
+    return current;
+  }
+
+  private static String key(City city) {
+    return city.getCountrycode() == null ? "" : city.getCountrycode();
+  }
+
+  /** 一次重建得到的全部草图 */
+  private record State(Map<String, CountrySketch> countries, Instant builtAt) {
+  }
+}
@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.sketch;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+
+/**
+ * Count-Min频率草图。
+ *
+ * <p>depth行、每行width个计数器，元素在每行由双重哈希选一个计数器累加，估计值取各行的最小值。
+ * 计数可以减少（删除），只要每个元素的真实频率不为负，估计值就不会低于真实值。
+ *
+ * <p>误差：width = ⌈e/ε⌉、depth = ⌈ln(1/δ)⌉时，估计值以不低于1-δ的概率不超过真实值+εN，
+ * N为全部计数之和。合并即逐个计数器相加。非线程安全，由调用方加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class CountMinSketch {
+
+  private final int depth;
+  private final int width;
+  private final long[] counters;
+  private long total;
+
+  CountMinSketch(int depth, int width) {
+    if (depth < 1 || width < 1) {
+      throw new IllegalArgumentException("Count-Min dimensions must be positive");
+    }
+    this.depth = depth;
+    this.width = width;
+    this.counters = new long[depth * width];
+  }
+
+  /**
+   * 按误差要求创建草图
+   *
+   * @param epsilon 相对总数的误差ε
+   * @param delta 超出误差的概率δ
+   * @return 草图
+   */
+  static CountMinSketch withError(double epsilon, double delta) {
+    return new CountMinSketch(
+        (int) Math.ceil(Math.log(1 / delta)), (int) Math.ceil(Math.E / epsilon));
+  }
+
+  /**
+   * 累加一个元素的计数
+   *
+   * @param hash 元素的64位哈希
+   * @param delta 增量，删除时为负
+   * @return 累加后的估计值
+   */
+  long add(long hash, long delta) {
+    total += delta;
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      int slot = row * width + index(hash, row);
+      counters[slot] += delta;
+      estimate = Math.min(estimate, counters[slot]);
+    }
+    return estimate;
+  }
+
+  /** 估计元素的计数 */
+  long estimate(long hash) {
+    long estimate = Long.MAX_VALUE;
+    for (int row = 0; row < depth; row++) {
+      estimate = Math.min(estimate, counters[row * width + index(hash, row)]);
+    }
+    return estimate;
+  }
+
+  /** 合并另一个尺寸相同的草图 */
+  void merge(CountMinSketch other) {
+    if (other.depth != depth || other.width != width) {
+      throw new IllegalArgumentException("Cannot merge Count-Min sketches of different sizes");
+    }
+    for (int i = 0; i < counters.length; i++) {
+      counters[i] += other.counters[i];
+    }
+    total += other.total;
+  }
+
+  /** 当前总数下估计值的绝对误差上界εN */
+  long errorBound() {
+    return (long) Math.ceil(Math.E / width * total);
+  }
+
+  /** 计数器占用的字节数 */
+  int bytes() {
+    return counters.length * Long.BYTES;
+  }
+
+  void writeTo(DataOutput out) throws IOException {
+    out.writeInt(depth);
+    out.writeInt(width);
+    out.writeLong(total);
+    for (long counter : counters) {
+      out.writeLong(counter);
+    }
+  }
+
+  static CountMinSketch readFrom(DataInput in) throws IOException {
+    CountMinSketch sketch = new CountMinSketch(in.readInt(), in.readInt());
+    sketch.total = in.readLong();
+    for (int i = 0; i < sketch.counters.length; i++) {
+      sketch.counters[i] = in.readLong();
+    }
+    return sketch;
+  }
+
+  /** Kirsch-Mitzenmacher双重哈希：第row行取h1 + row * h2 */
+  private int index(long hash, int row) {
+    int h1 = (int) hash;
+    int h2 = (int) (hash >>> 32);
+    return Math.floorMod(h1 + row * h2, width);
+  }
+}
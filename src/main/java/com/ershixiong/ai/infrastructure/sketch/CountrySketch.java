@@ -0,0 +1,241 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.sketch;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CitySketchStats;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 一个国家（或合并后的多个国家）的城市草图。
+ *
+ * <p>人口进入{@link KllSketch}，行政区进入{@link HyperLogLog}和{@link CountMinSketch}；
+ * Count-Min本身不能列举元素，另外保留估计城市数最大的若干行政区作为高频候选，
+ * 新行政区的估计值超过候选中最小者时替换之。非线程安全，由{@link CitySketches}按国家加锁。
+ *
+ * @author ershixiong
+ * @since 1.0.0
+ * @date 2026-10-19
+ */
+final class CountrySketch {
+
+  private final KllSketch populations;
+  private final HyperLogLog districts;
+  private final CountMinSketch frequencies;
+  private final int candidateCapacity;
+  private final Set<District> candidates = new HashSet<>();
+  private long cities;
+  private long removals;
+
+  CountrySketch(CitySketches.Settings settings) {
+    this(
+        new KllSketch(settings.quantileAccuracy()),
+        new HyperLogLog(settings.distinctPrecision()),
+        CountMinSketch.withError(settings.frequencyEpsilon(), settings.frequencyDelta()),
+        settings.heavyHitters());
+  }
+
+  private CountrySketch(
+      KllSketch populations,
+      HyperLogLog districts,
+      CountMinSketch frequencies,
+      int candidateCapacity) {
+    this.populations = populations;
+    this.districts = districts;
+    this.frequencies = frequencies;
+    this.candidateCapacity = candidateCapacity;
+  }
+
+  /** 计入一个城市 */
+  void add(City city) {
+    cities++;
+    if (city.getPopulation() != null) {
+      populations.update(city.getPopulation());
+    }
+    District district = District.of(city.getCountrycode(), city.getDistrict());
+    districts.add(district.hash());
+    offer(district, frequencies.add(district.hash(), 1));
+  }
+
+  /** 移除一个城市，只有行政区频率可以扣减 */
+  void remove(City city) {
+    cities--;
+    removals++;
+    frequencies.add(District.of(city.getCountrycode(), city.getDistrict()).hash(), -1);
+  }
+
+  /** 合并另一个参数相同的草图 */
+  void merge(CountrySketch other) {
+    populations.merge(other.populations);
+    districts.merge(other.districts);
+    frequencies.merge(other.frequencies);
+    cities += other.cities;
+    removals += other.removals;
+    candidates.addAll(other.candidates);
+    // 合并后按新的估计值只保留容量内的候选
+    if (candidates.size() > candidateCapacity) {
+      List<District> ranked = ranked();
+      candidates.retainAll(ranked.subList(0, candidateCapacity));
+    }
+  }
+
+  long cities() {
+    return cities;
+  }
+
+  long removals() {
+    return removals;
+  }
+
+  /** 草图各结构占用的字节数（估算） */
+  long bytes() {
+    return populations.retained() * (long) Integer.BYTES
+        + districts.bytes()
+        + frequencies.bytes()
+        + candidates.size() * 64L;
+  }
+
+  Integer quantile(double fraction) {
+    return populations.quantile(fraction);
+  }
+
+  long distinctDistricts() {
+    return districts.estimate();
+  }
+
+  long frequencyError() {
+    return frequencies.errorBound();
+  }
+
+  /** 估计城市数最多的行政区，不超过候选容量 */
+  List<CitySketchStats.Frequency> top(int limit) {
+    List<CitySketchStats.Frequency> top = new ArrayList<>();
+    for (District district : ranked()) {
+      long count = frequencies.estimate(district.hash());
+      if (top.size() == limit || count <= 0) {
+        break;
+      }
+      top.add(new CitySketchStats.Frequency(district.countrycode(), district.name(), count));
+    }
+    return top;
+  }
+
+  void writeTo(DataOutput out) throws IOException {
+    out.writeLong(cities);
+    out.writeLong(removals);
+    populations.writeTo(out);
+    districts.writeTo(out);
+    frequencies.writeTo(out);
+    out.writeInt(candidateCapacity);
+    out.writeInt(candidates.size());
+    for (District district : candidates) {
+      out.writeUTF(district.countrycode());
+      out.writeUTF(district.name());
+    }
+  }
+
+  static CountrySketch readFrom(DataInput in) throws IOException {
+    long cities = in.readLong();
+    long removals = in.readLong();
+    CountrySketch sketch =
+        new CountrySketch(
+            KllSketch.readFrom(in),
+            HyperLogLog.readFrom(in),
+            CountMinSketch.readFrom(in),
+            in.readInt());
+    sketch.cities = cities;
+    sketch.removals = removals;
+    int candidates = in.readInt();
+    for (int i = 0; i < candidates; i++) {
+      sketch.candidates.add(District.of(in.readUTF(), in.readUTF()));
+    }
+    return sketch;
+  }
+
+  /** 新行政区的估计值超过候选中最小者时替换之 */
+  private void offer(District district, long estimate) {
+    if (candidates.contains(district)) {
+      return;
+    }
+    if (candidates.size() < candidateCapacity) {
+      candidates.add(district);
+      return;
+    }
+    District weakest = null;
+    long weakestCount = Long.MAX_VALUE;
+    for (District candidate : candidates) {
+      long count = frequencies.estimate(candidate.hash());
+      if (count < weakestCount) {
+        weakest = candidate;
+        weakestCount = count;
+      }
+    }
+    if (estimate > weakestCount) {
+      candidates.remove(weakest);
+      candidates.add(district);
+    }
+  }
+
+  /** 候选按估计值降序排列 */
+  private List<District> ranked() {
+    List<District> ranked = new ArrayList<>(candidates);
+    ranked.sort(
+        Comparator.comparingLong((District d) -> frequencies.estimate(d.hash()))
+            .reversed()
+            .thenComparing(District::countrycode)
+            .thenComparing(District::name));
+    return ranked;
+  }
+
+  /**
+   * 草图中的行政区，以（国家代码，行政区）区分不同国家的同名行政区
+   *
+   * @param countrycode 国家代码
+   * @param name 行政区
+   * @param hash 64位哈希
+   */
+  record District(String countrycode, String name, long hash) {
+
+    static District of(String countrycode, String name) {
+      String code = countrycode == null ? "" : countrycode;
+      String district = name == null ? "" : name;
+      return new District(code, district, hash(code + '\u0000' + district));
+    }
+
+    /** FNV-1a后接MurmurHash3的fmix64，使各位充分混合 */
+    private static long hash(String value) {
+      long h = 0xcbf29ce484222325L;
+      for (int i = 0; i < value.length(); i++) {
+        h ^= value.charAt(i);
+        h *= 0x100000001b3L;
+      }
+      h ^= h >>> 33;
+      h *= 0xff51afd7ed558ccdL;
+      h ^= h >>> 33;
+      h *= 0xc4ceb9fe1a85ec53L;
+      h ^= h >>> 33;
+      return h;
+    }
+  }
+}
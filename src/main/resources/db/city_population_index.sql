@@ -0,0 +1,15 @@
+-- 城市人口索引（需要 MySQL 8.0 的降序索引）
+--
+-- 支撑 CityRepository 按人口查询最大的城市、人口范围内的城市和城市排名：
+-- 1. 不指定国家时顺序扫描 idx_city_population，取前 N 个或定位范围起点后顺序读取，不做全表排序
+-- 2. 指定国家时在 idx_city_country_population 中该国的区间内扫描
+-- InnoDB 二级索引隐含升序的主键列，正向扫描恰好是查询要求的“人口降序、人口相同时 id 升序”。
+-- 3. 搜索按人口升序排序时 ORDER BY population ASC, id ASC，与降序索引的正反两个扫描方向都不一致，
+--    由 idx_city_population_asc 正向扫描，否则 MySQL 会对全部匹配行做文件排序
+-- 启用 city.ranking 时这些查询由进程内排序树回答，索引只用于排序树加载完成前的回退查询。
+
+CREATE INDEX idx_city_population ON city (population DESC);
+
+CREATE INDEX idx_city_population_asc ON city (population);
+
+CREATE INDEX idx_city_country_population ON city (countrycode, population DESC);
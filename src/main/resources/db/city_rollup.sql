@@ -0,0 +1,20 @@
+-- 城市人口汇总表
+--
+-- 每行是一个国家下一个行政区的城市数与人口汇总，国家级汇总由同一国家的各行为合并得到。
+-- 汇总由应用服务在写入城市时增量维护、批量回写，并定期与 city 表的分组统计核对修复；
+-- 表为空时实例启动会按 city 表分组统计一次并回写。
+
+CREATE TABLE city_rollup (
+    countrycode      CHAR(3)     NOT NULL,
+    district         VARCHAR(50) NOT NULL,
+    city_count       BIGINT      NOT NULL,
+    population_count BIGINT      NOT NULL,
+    population_sum   BIGINT      NOT NULL,
+    population_min   INT         NULL,
+    population_max   INT         NULL,
+    updated_at       TIMESTAMP   NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
+    PRIMARY KEY (countrycode, district)
+) ENGINE = InnoDB;
+
+-- 核对时按国家和行政区分组统计 city 表，覆盖索引使分组只按索引顺序扫描，不回表
+CREATE INDEX idx_city_rollup ON city (countrycode, district, population);
@@ -0,0 +1,13 @@
+-- 城市分片ID序列（在每个分片上执行）
+--
+-- 城市ID = (分片序号 << 40) | seq，seq 由 ShardedIdGenerator 按号段从本表申请。
+-- 分片上的 city 表不再依赖 AUTO_INCREMENT，由应用写入带分片编号的 ID。
+-- 从单库迁移时，原有数据整体放入 0 号分片，seq 从原最大 ID 继续。
+
+CREATE TABLE city_id_seq (
+    name VARCHAR(32) NOT NULL PRIMARY KEY,
+    seq  BIGINT      NOT NULL
+) ENGINE = InnoDB;
+
+INSERT INTO city_id_seq (name, seq)
+SELECT 'city', COALESCE(MAX(id), 0) FROM city;
@@ -1,18 +1,51 @@
 package com.ershixiong.ai.api.controller;
 
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ershixiong.ai.application.service.CityApplicationService;
+import com.ershixiong.ai.application.service.CityChangeService;
+import com.ershixiong.ai.api.stream.CityEventStreamHub;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import jakarta.servlet.AsyncListener;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.MediaType;
+import org.springframework.mock.web.MockAsyncContext;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @SpringBootTest
@@ -25,6 +58,12 @@ public class CityControllerTest {
     @MockitoBean
     private CityApplicationService cityApplicationService;
 
+    @MockitoBean
+    private CityChangeService cityChangeService;
+
+    @Autowired
+    private CityEventStreamHub cityEventStreamHub;
+
     @Test
     public void getCityById_ValidId_ReturnsCityDTO() throws Exception {
         // 准备
@@ -55,4 +94,401 @@ public class CityControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.data").isEmpty());
     }
+
+    @Test
+    public void searchCities_CountrycodeOnly_SearchesWithoutName() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 10, 1);
+        page.setRecords(List.of(new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200)));
+        when(cityApplicationService.searchByName(
+                        isNull(), eq("NLD"), isNull(), isNull(), isNull(), eq(0), eq(1L), eq(10L)))
+                .thenReturn(CitySearchResult.builder()
+                        .page(page)
+                        .plan(CitySearchPlan.UNSORTED)
+                        .build());
+
+        mockMvc.perform(get("/api/cities/search")
+                .param("countrycode", "NLD")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CityController.QUERY_PLAN_HEADER, "UNSORTED"))
+                .andExpect(jsonPath("$.data.totalCount").value(1))
+                .andExpect(jsonPath("$.data.datas[0].name").value("Amsterdam"));
+    }
+
+    @Test
+    public void searchCities_WithoutNameOrFilters_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", " ")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("criteriaPresent: 城市名称、国家代码和行政区至少指定一项"));
+        verify(cityApplicationService, never())
+                .searchByName(any(), any(), any(), any(), any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void exportCities_ShouldStreamCsv() throws Exception {
+        // 准备
+        doAnswer(invocation -> {
+            Consumer<City> consumer = invocation.getArgument(0);
+            consumer.accept(new City(1L, "Kabul", "AFG", "Kabol", 1780000));
+            return null;
+        }).when(cityApplicationService).exportAll(any());
+
+        mockMvc.perform(get("/api/cities/export"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentTypeCompatibleWith("text/csv"))
+                .andExpect(header().string(
+                        "Content-Disposition", "attachment; filename=\"cities.csv\""))
+                .andExpect(content().string(
+                        "id,name,countrycode,district,population\n1,Kabul,AFG,Kabol,1780000\n"));
+    }
+
+    @Test
+    public void exportCities_WhenRejected_ReturnsJsonErrorWithoutCsvHeaders() throws Exception {
+        // 准备
+        doThrow(new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "批量操作并发已满"))
+                .when(cityApplicationService).exportAll(any());
+
+        mockMvc.perform(get("/api/cities/export"))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(content().contentTypeCompatibleWith(MediaType.APPLICATION_JSON))
+                .andExpect(header().doesNotExist("Content-Disposition"))
+                .andExpect(jsonPath("$.message").value("批量操作并发已满"));
+    }
+
+    @Test
+    public void getCityChanges_WithToken_ReturnsUpsertsDeletesAndNextToken() throws Exception {
+        // 准备
+        CityChangeSet changes = CityChangeSet.builder()
+                .upserts(List.of(new City(3L, "Herat", "AFG", "Herat", 186800)))
+                .deletedIds(List.of(4L))
+                .lastVersion(9L)
+                .hasMore(true)
+                .build();
+        when(cityChangeService.getChangesSince("5", 2)).thenReturn(changes);
+
+        mockMvc.perform(get("/api/cities/changes")
+                .param("since", "5")
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.upserts[0].name").value("Herat"))
+                .andExpect(jsonPath("$.data.deletedIds[0]").value(4))
+                .andExpect(jsonPath("$.data.nextToken").value("9"))
+                .andExpect(jsonPath("$.data.hasMore").value(true))
+                .andExpect(jsonPath("$.data.resetRequired").value(false));
+    }
+
+    @Test
+    public void getCityChanges_WithoutToken_StartsFullSync() throws Exception {
+        // 准备
+        when(cityChangeService.getChangesSince(null, null)).thenReturn(CityChangeSet.builder()
+                .upserts(List.of())
+                .deletedIds(List.of())
+                .lastVersion(-1L)
+                .build());
+
+        mockMvc.perform(get("/api/cities/changes")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.upserts").isEmpty())
+                .andExpect(jsonPath("$.data.nextToken").value("0"));
+    }
+
+    @Test
+    public void streamCityChanges_ShouldPushChangeEventsAsServerSentEvents() throws Exception {
+        MvcResult result = mockMvc.perform(get("/api/cities/stream")
+                .accept(MediaType.TEXT_EVENT_STREAM))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        cityEventStreamHub.onCityChanged(CityChangedEvent.deleted(7L));
+
+        // 事件由分发线程异步写出
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!result.getResponse().getContentAsString().contains("\"cityId\":7")
+                && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        String body = result.getResponse().getContentAsString();
+        result.getRequest().getAsyncContext().complete();
+        assertTrue(MediaType.TEXT_EVENT_STREAM.isCompatibleWith(
+                MediaType.parseMediaType(result.getResponse().getContentType())));
+        assertTrue(body.contains("event:deleted"), body);
+        assertTrue(body.contains("\"cityId\":7"), body);
+    }
+
+    @Test
+    public void getCityByIdAsync_ValidId_ReturnsCityDTO() throws Exception {
+        // 准备
+        when(cityApplicationService.getByIdAsync(1L)).thenReturn(CompletableFuture.completedFuture(
+                new City(1L, "Kabul", "AFG", "Kabol", 1780000)));
+
+        MvcResult result = mockMvc.perform(get("/api/cities/async/{id}", 1L)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.name").value("Kabul"));
+    }
+
+    @Test
+    public void searchCitiesAsync_ReturnsQueryPlanHeader() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 10, 1);
+        page.setRecords(List.of(new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200)));
+        when(cityApplicationService.searchByNameAsync(
+                        eq("Ams"), isNull(), isNull(), eq("id"), isNull(), eq(0), eq(1L), eq(10L)))
+                .thenReturn(CompletableFuture.completedFuture(CitySearchResult.builder()
+                        .page(page)
+                        .plan(CitySearchPlan.INDEX_ORDER)
+                        .build()));
+
+        MvcResult result = mockMvc.perform(get("/api/cities/async/search")
+                .param("name", "Ams")
+                .param("sort", "id")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CityController.QUERY_PLAN_HEADER, "INDEX_ORDER"))
+                .andExpect(jsonPath("$.data.datas[0].name").value("Amsterdam"));
+    }
+
+    @Test
+    public void getAllCitiesAsync_WhenOverloaded_ReturnsServiceUnavailable() throws Exception {
+        // 准备
+        when(cityApplicationService.getAllAsync()).thenReturn(CompletableFuture.failedFuture(
+                new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "查询线程池已满")));
+
+        MvcResult result = mockMvc.perform(get("/api/cities/async")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isServiceUnavailable())
+                .andExpect(jsonPath("$.errorCode")
+                        .value(ErrorCode.RPC_SERVICE_UNAVAILABLE.getCode()))
+                .andExpect(jsonPath("$.message").value("查询线程池已满"));
+    }
+
+    @Test
+    public void getCityByIdAsync_WhenQueryTimesOut_ReturnsGatewayTimeout() throws Exception {
+        // 准备
+        when(cityApplicationService.getByIdAsync(1L)).thenReturn(CompletableFuture.failedFuture(
+                new BusinessException(ErrorCode.RPC_CALL_TIMEOUT, "查询超时")));
+
+        MvcResult result = mockMvc.perform(get("/api/cities/async/{id}", 1L)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.errorCode").value(ErrorCode.RPC_CALL_TIMEOUT.getCode()));
+    }
+
+    @Test
+    public void getCityByIdAsync_WhenRequestTimesOut_ReturnsGatewayTimeout() throws Exception {
+        // 准备
+        when(cityApplicationService.getByIdAsync(1L)).thenReturn(new CompletableFuture<>());
+
+        MvcResult result = mockMvc.perform(get("/api/cities/async/{id}", 1L)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        // 模拟容器触发异步请求超时
+        MockAsyncContext asyncContext = (MockAsyncContext) result.getRequest().getAsyncContext();
+        for (AsyncListener listener : asyncContext.getListeners()) {
+            listener.onTimeout(null);
+        }
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isGatewayTimeout())
+                .andExpect(jsonPath("$.errorCode").value(ErrorCode.RPC_CALL_TIMEOUT.getCode()))
+                .andExpect(jsonPath("$.message").value("请求已超时"));
+    }
+
+    @Test
+    public void getTopCities_ReturnsCitiesByPopulation() throws Exception {
+        // 准备
+        when(cityApplicationService.getTopByPopulation("NLD", 2)).thenReturn(List.of(
+                new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200),
+                new City(6L, "Rotterdam", "NLD", "Zuid-Holland", 593321)));
+
+        mockMvc.perform(get("/api/cities/top")
+                .param("countrycode", "NLD")
+                .param("limit", "2")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data[0].name").value("Amsterdam"))
+                .andExpect(jsonPath("$.data[1].name").value("Rotterdam"));
+    }
+
+    @Test
+    public void searchCitiesByPopulation_ValidRange_ReturnsPage() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 10, 1);
+        page.setRecords(List.of(new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200)));
+        when(cityApplicationService.searchByPopulation(
+                        eq("NLD"), eq(600000), isNull(), eq(1L), eq(10L)))
+                .thenReturn(page);
+
+        mockMvc.perform(get("/api/cities/population")
+                .param("countrycode", "NLD")
+                .param("minPopulation", "600000")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.totalCount").value(1))
+                .andExpect(jsonPath("$.data.datas[0].population").value(731200));
+    }
+
+    @Test
+    public void searchCitiesByPopulation_NegativeMinimum_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cities/population")
+                .param("minPopulation", "-1")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("minPopulation: 最小人口数不能为负数"));
+        verify(cityApplicationService, never())
+                .searchByPopulation(any(), any(), any(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void getCityRank_ReturnsCountryAndGlobalRank() throws Exception {
+        // 准备
+        when(cityApplicationService.getPopulationRank(6L)).thenReturn(CityPopulationRank.builder()
+                .city(new City(6L, "Rotterdam", "NLD", "Zuid-Holland", 593321))
+                .countryRank(2L)
+                .countryCities(28)
+                .globalRank(480L)
+                .globalCities(4079)
+                .build());
+
+        mockMvc.perform(get("/api/cities/{id}/rank", 6L)
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.city.name").value("Rotterdam"))
+                .andExpect(jsonPath("$.data.countryRank").value(2))
+                .andExpect(jsonPath("$.data.countryCities").value(28))
+                .andExpect(jsonPath("$.data.globalRank").value(480))
+                .andExpect(jsonPath("$.data.globalCities").value(4079));
+    }
+
+    @Test
+    public void searchCities_SortedByPopulation_ReturnsPlanHeaderAndSortedPage() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 2, 3);
+        page.setRecords(List.of(
+                new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200),
+                new City(6L, "Rotterdam", "NLD", "Zuid-Holland", 593321)));
+        when(cityApplicationService.searchByName(isNull(), eq("NLD"), isNull(),
+                        eq("population"), eq("desc"), eq(0), eq(1L), eq(2L)))
+                .thenReturn(CitySearchResult.builder()
+                        .page(page)
+                        .plan(CitySearchPlan.TOP_K)
+                        .build());
+
+        mockMvc.perform(get("/api/cities/search")
+                .param("countrycode", "NLD")
+                .param("sort", "population")
+                .param("direction", "desc")
+                .param("pageSize", "2")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CityController.QUERY_PLAN_HEADER, "TOP_K"))
+                .andExpect(jsonPath("$.data.totalCount").value(3))
+                .andExpect(jsonPath("$.data.datas[0].name").value("Amsterdam"))
+                .andExpect(jsonPath("$.data.datas[1].name").value("Rotterdam"));
+    }
+
+    @Test
+    public void searchCities_UnknownSortField_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", "Ams")
+                .param("sort", "area")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("sort: 排序字段必须是id、name或population"));
+        verify(cityApplicationService, never())
+                .searchByName(any(), any(), any(), any(), any(), anyInt(), anyLong(), anyLong());
+    }
+
+    @Test
+    public void searchCities_UnknownDirection_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", "Ams")
+                .param("sort", "name")
+                .param("direction", "up")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("direction: 排序方向必须是asc或desc"));
+    }
+
+    @Test
+    public void searchCities_WithFacets_ReturnsFacetCounts() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 10, 3);
+        page.setRecords(List.of(new City(5L, "Amsterdam", "NLD", "Noord-Holland", 731200)));
+        CityFacets facets = CityFacets.builder()
+                .countrycodes(List.of(new CityFacetCount("NLD", 2), new CityFacetCount("USA", 1)))
+                .districts(List.of(new CityFacetCount("Noord-Holland", 2)))
+                .truncated(true)
+                .build();
+        when(cityApplicationService.searchByName(
+                        eq("am"), isNull(), isNull(), isNull(), isNull(), eq(5), eq(1L), eq(10L)))
+                .thenReturn(CitySearchResult.builder()
+                        .page(page)
+                        .plan(CitySearchPlan.BITMAP)
+                        .facets(facets)
+                        .build());
+
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", "am")
+                .param("facets", "5")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(header().string(CityController.QUERY_PLAN_HEADER, "BITMAP"))
+                .andExpect(jsonPath("$.data.facets.countrycodes[0].key").value("NLD"))
+                .andExpect(jsonPath("$.data.facets.countrycodes[0].count").value(2))
+                .andExpect(jsonPath("$.data.facets.countrycodes[1].key").value("USA"))
+                .andExpect(jsonPath("$.data.facets.districts[0].key").value("Noord-Holland"))
+                .andExpect(jsonPath("$.data.facets.truncated").value(true));
+    }
+
+    @Test
+    public void searchCities_WithoutFacets_OmitsFacetCounts() throws Exception {
+        // 准备
+        Page<City> page = new Page<>(1, 10, 0);
+        page.setRecords(List.of());
+        when(cityApplicationService.searchByName(
+                        eq("am"), isNull(), isNull(), isNull(), isNull(), eq(0), eq(1L), eq(10L)))
+                .thenReturn(CitySearchResult.builder()
+                        .page(page)
+                        .plan(CitySearchPlan.UNSORTED)
+                        .build());
+
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", "am")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.data.facets").doesNotExist());
+    }
+
+    @Test
+    public void searchCities_TooManyFacets_ReturnsBadRequest() throws Exception {
+        mockMvc.perform(get("/api/cities/search")
+                .param("name", "am")
+                .param("facets", "51")
+                .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message").value("facets: 分面数不能超过50"));
+    }
 }
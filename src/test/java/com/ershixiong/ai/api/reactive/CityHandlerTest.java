@@ -0,0 +1,180 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.reactive;
+
+import com.ershixiong.ai.application.service.ReactiveCityApplicationService;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.ReactiveCityRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.validation.Validation;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.http.MediaType;
+import org.springframework.test.web.reactive.server.WebTestClient;
+import org.springframework.web.reactive.function.server.HandlerStrategies;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/** 以模拟仓储验证响应式城市接口的响应格式与阻塞式接口一致 */
+class CityHandlerTest {
+
+  private ReactiveCityRepository cityRepository;
+  private WebTestClient client;
+
+  @BeforeEach
+  void setUp() {
+    cityRepository = mock(ReactiveCityRepository.class);
+    CityHandler handler =
+        new CityHandler(
+            new ReactiveCityApplicationService(
+                cityRepository, mock(ApplicationEventPublisher.class)),
+            Validation.buildDefaultValidatorFactory().getValidator());
+    client =
+        WebTestClient.bindToRouterFunction(new CityRouter().cityRoutes(handler))
+            .handlerStrategies(
+                HandlerStrategies.builder()
+                    .exceptionHandler(new ReactiveExceptionHandler(new ObjectMapper()))
+                    .build())
+            .build();
+  }
+
+  @Test
+  void getCityById_WhenExists_ShouldReturnResult() {
+    // Arrange
+    when(cityRepository.findById(1L))
+        .thenReturn(Mono.just(new City(1L, "Kabul", "AFG", "Kabol", 1780000)));
+
+    // Act & Assert
+    client
+        .get()
+        .uri("/api/cities/{id}", 1)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.data.id")
+        .isEqualTo(1)
+        .jsonPath("$.data.name")
+        .isEqualTo("Kabul");
+  }
+
+  @Test
+  void getCityById_WhenMissing_ShouldReturnBusinessError() {
+    // Arrange
+    when(cityRepository.findById(999L)).thenReturn(Mono.empty());
+
+    // Act & Assert
+    client
+        .get()
+        .uri("/api/cities/{id}", 999)
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.errorCode")
+        .isEqualTo(ErrorCode.BIZ_DATA_NOT_FOUND.getCode());
+  }
+
+  @Test
+  void searchCitiesByName_WithNdjson_ShouldStreamPageAndTotalCount() {
+    // Arrange
+    when(cityRepository.countByNameLike("%Ka%")).thenReturn(Mono.just(12L));
+    when(cityRepository.findByNameLike("%Ka%", 10, 10))
+        .thenReturn(
+            Flux.just(
+                new City(11L, "Kandahar", "AFG", "Qandahar", 237500),
+                new City(12L, "Karachi", "PAK", "Sindh", 9269265)));
+
+    // Act & Assert
+    client
+        .get()
+        .uri("/api/cities/search?name=Ka&pageNo=2&pageSize=10")
+        .accept(MediaType.APPLICATION_NDJSON)
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectHeader()
+        .valueEquals(CityHandler.TOTAL_COUNT_HEADER, "12")
+        .expectHeader()
+        .contentTypeCompatibleWith(MediaType.APPLICATION_NDJSON)
+        .expectBodyList(Map.class)
+        .hasSize(2);
+  }
+
+  @Test
+  void searchCitiesByName_WhenPageSizeTooLarge_ShouldReturnParamInvalid() {
+    // Act & Assert
+    client
+        .get()
+        .uri("/api/cities/search?name=Ka&pageSize=500")
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.errorCode")
+        .isEqualTo(ErrorCode.PARAM_INVALID.getCode())
+        .jsonPath("$.message")
+        .isEqualTo("pageSize: 每页记录数不能超过100");
+  }
+
+  @Test
+  void createCity_WithInvalidBody_ShouldRejectBeforeRepository() {
+    // Act & Assert
+    client
+        .post()
+        .uri("/api/cities")
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            Map.of("name", "Atlantis", "countrycode", "ATLX", "district", "Sea", "population", 1))
+        .exchange()
+        .expectStatus()
+        .isBadRequest()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("countrycode: 国家代码必须是3个字符");
+    verify(cityRepository, never()).save(any());
+  }
+
+  @Test
+  void updateCity_WhenPathAndBodyIdDiffer_ShouldReturnFailure() {
+    // Act & Assert
+    client
+        .put()
+        .uri("/api/cities/{id}", 1)
+        .contentType(MediaType.APPLICATION_JSON)
+        .bodyValue(
+            Map.of(
+                "id", 2, "name", "Kabul", "countrycode", "AFG", "district", "Kabol",
+                "population", 1))
+        .exchange()
+        .expectStatus()
+        .isOk()
+        .expectBody()
+        .jsonPath("$.message")
+        .isEqualTo("路径ID与请求体ID不匹配");
+    verify(cityRepository, never()).save(any());
+  }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.reactive;
+
+import com.ershixiong.ai.application.service.ReactiveCityApplicationService;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.ReactiveCityRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+/**
+ * 阻塞式与响应式城市查询在高并发、高延迟下的吞吐和线程数对比基准。
+ *
+ * <p>数据库延迟注入在仓储边界：阻塞式以固定大小的请求线程池执行，每次查询休眠固定时间；
+ * 响应式仓储以{@link Mono#delay}在相同时间后返回，由少量事件循环线程承载全部并发请求。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=ReactiveCityLoadTest，
+ * 可通过benchmark.delay-ms、benchmark.requests、benchmark.concurrency、benchmark.blocking-threads调整参数。
+ */
+@Tag("benchmark")
+class ReactiveCityLoadTest {
+
+  private static final long DELAY_MILLIS = Long.getLong("benchmark.delay-ms", 50);
+  private static final int REQUESTS = Integer.getInteger("benchmark.requests", 20000);
+  private static final int CONCURRENCY = Integer.getInteger("benchmark.concurrency", 2000);
+  private static final int BLOCKING_THREADS = Integer.getInteger("benchmark.blocking-threads", 200);
+
+  private static final ThreadMXBean THREADS = ManagementFactory.getThreadMXBean();
+
+  @Test
+  void compare_BlockingAndReactive_UnderHighConcurrency() throws Exception {
+    // Arrange
+    ReactiveCityRepository repository = mock(ReactiveCityRepository.class);
+    when(repository.findById(anyLong()))
+        .thenAnswer(
+            invocation ->
+                Mono.delay(Duration.ofMillis(DELAY_MILLIS))
+                    .map(tick -> city(invocation.getArgument(0))));
+    ReactiveCityApplicationService service =
+        new ReactiveCityApplicationService(repository, mock(ApplicationEventPublisher.class));
+    // 预热
+    runBlocking(BLOCKING_THREADS * 2);
+    runReactive(service, CONCURRENCY);
+
+    // Act
+    Result blocking = runBlocking(REQUESTS);
+    Result reactive = runReactive(service, REQUESTS);
+
+    // Assert
+    System.out.printf(
+        "delay=%dms requests=%d concurrency=%d blockingThreads=%d%n",
+        DELAY_MILLIS, REQUESTS, CONCURRENCY, BLOCKING_THREADS);
+    System.out.printf("blocking: %s%nreactive: %s%n", blocking, reactive);
+    assertTrue(
+        reactive.throughput() > blocking.throughput(),
+        "reactive requests should not be bound by the request thread count");
+    assertTrue(reactive.peakThreads() < blocking.peakThreads());
+  }
+
+  private Result runBlocking(int requests) throws Exception {
+    THREADS.resetPeakThreadCount();
+    List<Future<City>> futures = new ArrayList<>(requests);
+    long start = System.nanoTime();
+    try (ExecutorService executor = Executors.newFixedThreadPool(BLOCKING_THREADS)) {
+      for (int i = 0; i < requests; i++) {
+        long id = i % 4000 + 1;
+        futures.add(
+            executor.submit(
+                () -> {
+                  Thread.sleep(DELAY_MILLIS);
+                  return city(id);
+                }));
+      }
+      for (Future<City> future : futures) {
+        assertNotNull(future.get(1, TimeUnit.MINUTES));
+      }
+    }
+    return new Result(throughput(requests, start), THREADS.getPeakThreadCount());
+  }
+
+  private Result runReactive(ReactiveCityApplicationService service, int requests) {
+    THREADS.resetPeakThreadCount();
+    long start = System.nanoTime();
+    Long count =
+        Flux.range(0, requests)
+            .flatMap(i -> service.getById((long) (i % 4000 + 1)), CONCURRENCY)
+            .count()
+            .block(Duration.ofMinutes(1));
+    assertEquals(requests, count);
+    return new Result(throughput(requests, start), THREADS.getPeakThreadCount());
+  }
+
+  private static double throughput(int requests, long start) {
+    return requests * (double) TimeUnit.SECONDS.toNanos(1) / (System.nanoTime() - start);
+  }
+
+  private static City city(long id) {
+    return new City(id, "City" + id, "AFG", "District", 100000);
+  }
+
+  private record Result(double throughput, int peakThreads) {
+
+    @Override
+    public String toString() {
+      return String.format("%.0f req/s, peak threads %d", throughput, peakThreads);
+    }
+  }
+}
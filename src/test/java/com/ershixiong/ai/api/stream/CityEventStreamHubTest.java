@@ -0,0 +1,321 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.api.stream;
+
+import com.ershixiong.ai.application.converter.CityConverter;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.infrastructure.config.CityStreamProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityEventStreamHubTest {
+
+  private static final Pattern FIELD = Pattern.compile("(?m)^(id|event):(.*)$");
+
+  private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+  private CityEventStreamHub hub;
+
+  @AfterEach
+  void tearDown() {
+    if (hub != null) {
+      hub.shutdown();
+    }
+  }
+
+  private CityEventStreamHub hub(int ringBufferSize, int subscriberBufferSize, int maxSubscribers) {
+    CityStreamProperties properties = new CityStreamProperties();
+    properties.setRingBufferSize(ringBufferSize);
+    properties.setSubscriberBufferSize(subscriberBufferSize);
+    properties.setMaxSubscribers(maxSubscribers);
+    hub =
+        new CityEventStreamHub(
+            properties, new CityConverter(), new ObjectMapper(), meterRegistry);
+    return hub;
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met within 5 seconds");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  void subscribe_WithLastEventId_ShouldReplayMissedEvents() throws Exception {
+    // Arrange
+    hub(16, 16, 10);
+    RecordingEmitter live = new RecordingEmitter(null);
+    hub.subscribe(null, live);
+    for (long id = 1; id <= 3; id++) {
+      hub.onCityChanged(CityChangedEvent.deleted(id));
+    }
+    awaitTrue(() -> live.ids().size() == 3);
+
+    // Act
+    RecordingEmitter resumed = new RecordingEmitter(null);
+    hub.subscribe(live.ids().get(0), resumed);
+    awaitTrue(() -> resumed.ids().size() == 2);
+    RecordingEmitter upToDate = new RecordingEmitter(null);
+    hub.subscribe(live.ids().get(2), upToDate);
+
+    // Assert
+    assertEquals(live.ids().subList(1, 3), resumed.ids());
+    assertEquals(List.of("deleted", "deleted"), resumed.names());
+    assertTrue(upToDate.ids().isEmpty());
+    assertEquals(3, hub.getSubscriberCount());
+  }
+
+  @Test
+  void subscribe_WhenLastEventIdIsUnknownOrOutsideRing_ShouldSendReset() throws Exception {
+    // Arrange
+    hub(4, 16, 10);
+    RecordingEmitter live = new RecordingEmitter(null);
+    hub.subscribe(null, live);
+    for (long id = 1; id <= 6; id++) {
+      hub.onCityChanged(CityChangedEvent.deleted(id));
+    }
+    awaitTrue(() -> live.ids().size() == 6);
+
+    // Act
+    RecordingEmitter overwritten = new RecordingEmitter(null);
+    hub.subscribe(live.ids().get(0), overwritten);
+    RecordingEmitter previousEpoch = new RecordingEmitter(null);
+    hub.subscribe("1-1", previousEpoch);
+    RecordingEmitter malformed = new RecordingEmitter(null);
+    hub.subscribe("garbage", malformed);
+    awaitTrue(
+        () ->
+            overwritten.names().size() == 1
+                && previousEpoch.names().size() == 1
+                && malformed.names().size() == 1);
+
+    // Assert
+    assertEquals(List.of(CityEventStreamHub.RESET_EVENT), overwritten.names());
+    assertEquals(List.of(CityEventStreamHub.RESET_EVENT), previousEpoch.names());
+    assertEquals(List.of(CityEventStreamHub.RESET_EVENT), malformed.names());
+  }
+
+  @Test
+  void fanOut_WhenSubscriberBufferOverflows_ShouldEvictOnlySlowSubscriber() throws Exception {
+    // Arrange
+    hub(16, 2, 10);
+    CountDownLatch release = new CountDownLatch(1);
+    RecordingEmitter slow = new RecordingEmitter(release);
+    RecordingEmitter fast = new RecordingEmitter(null);
+    hub.subscribe(null, slow);
+    hub.subscribe(null, fast);
+
+    // Act
+    // 慢订阅者的分发线程阻塞在第1个事件上，缓冲区再容纳2个，第4个事件到达时溢出
+    try {
+      for (int i = 1; i <= 5; i++) {
+        hub.onCityChanged(CityChangedEvent.deleted((long) i));
+        int expected = i;
+        awaitTrue(() -> fast.ids().size() == expected);
+      }
+      awaitTrue(() -> slow.completed);
+    } finally {
+      release.countDown();
+    }
+
+    // Assert
+    assertEquals(1, hub.getSubscriberCount());
+    assertFalse(fast.completed);
+    assertEquals(
+        1.0, meterRegistry.get("city.stream.subscribers.evicted").functionCounter().count());
+  }
+
+  @Test
+  void evictStalledSubscribers_WhenSendsBlockPastTimeout_ShouldKeepDeliveringToOthers()
+      throws Exception {
+    // Arrange
+    CityStreamProperties properties = new CityStreamProperties();
+    properties.setDispatcherThreads(2);
+    properties.setSendTimeout(Duration.ofMillis(50));
+    hub =
+        new CityEventStreamHub(
+            properties, new CityConverter(), new ObjectMapper(), meterRegistry);
+    CountDownLatch release = new CountDownLatch(1);
+    StalledEmitter first = new StalledEmitter(release);
+    StalledEmitter second = new StalledEmitter(release);
+    hub.subscribe(null, first);
+    hub.subscribe(null, second);
+    RecordingEmitter fast = new RecordingEmitter(null);
+
+    // Act
+    // 两个分发线程都阻塞在卡住的连接上，之后订阅的快消费者只能由补充的线程投递
+    try {
+      hub.onCityChanged(CityChangedEvent.deleted(1L));
+      awaitTrue(() -> first.sending && second.sending);
+      hub.subscribe(null, fast);
+      hub.onCityChanged(CityChangedEvent.deleted(2L));
+      Thread.sleep(100);
+      hub.evictStalledSubscribers();
+      awaitTrue(() -> fast.ids().size() == 1);
+    } finally {
+      release.countDown();
+    }
+
+    // Assert
+    assertTrue(first.completed);
+    assertTrue(second.completed);
+    assertEquals(1, hub.getSubscriberCount());
+    assertEquals(
+        2.0, meterRegistry.get("city.stream.subscribers.evicted").functionCounter().count());
+    awaitTrue(() -> hub.getDispatcherPoolSize() == 2);
+  }
+
+  @Test
+  void subscribe_WhenAtCapacity_ShouldRejectConcurrentSubscribersWithServiceUnavailable()
+      throws Exception {
+    // Arrange
+    hub(16, 16, 3);
+    ExecutorService executor = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+    for (int i = 0; i < 8; i++) {
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                return hub.subscribe(null, new RecordingEmitter(null));
+              }));
+    }
+
+    // Act
+    start.countDown();
+    int accepted = 0;
+    List<BusinessException> rejections = new ArrayList<>();
+    try {
+      for (Future<?> future : futures) {
+        try {
+          future.get(5, TimeUnit.SECONDS);
+          accepted++;
+        } catch (ExecutionException e) {
+          rejections.add((BusinessException) e.getCause());
+        }
+      }
+    } finally {
+      executor.shutdownNow();
+    }
+
+    // Assert
+    assertEquals(3, accepted);
+    assertEquals(3, hub.getSubscriberCount());
+    assertEquals(5, rejections.size());
+    rejections.forEach(e -> assertEquals(ErrorCode.RPC_SERVICE_UNAVAILABLE, e.getErrorCode()));
+  }
+
+  /** 发送时不响应中断地阻塞，模拟卡住的socket写出 */
+  private static final class StalledEmitter extends SseEmitter {
+    private final CountDownLatch release;
+    private volatile boolean sending;
+    private volatile boolean completed;
+
+    private StalledEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) {
+      sending = true;
+      boolean interrupted = false;
+      while (release.getCount() > 0) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          interrupted = true;
+        }
+      }
+      if (interrupted) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public synchronized void complete() {
+      completed = true;
+    }
+  }
+
+  /** 记录发出的事件ID和名称的发射器，可以阻塞发送以模拟慢消费者 */
+  private static final class RecordingEmitter extends SseEmitter {
+    private final CountDownLatch release;
+    private final List<String> ids = new CopyOnWriteArrayList<>();
+    private final List<String> names = new CopyOnWriteArrayList<>();
+    private volatile boolean completed;
+
+    private RecordingEmitter(CountDownLatch release) {
+      this.release = release;
+    }
+
+    @Override
+    public void send(SseEventBuilder builder) throws IOException {
+      if (release != null) {
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+          throw new IOException(e);
+        }
+      }
+      StringBuilder text = new StringBuilder();
+      builder.build().forEach(data -> text.append(data.getData()));
+      Matcher matcher = FIELD.matcher(text);
+      while (matcher.find()) {
+        (matcher.group(1).equals("id") ? ids : names).add(matcher.group(2));
+      }
+    }
+
+    @Override
+    public synchronized void complete() {
+      completed = true;
+    }
+
+    List<String> ids() {
+      return ids;
+    }
+
+    List<String> names() {
+      return names;
+    }
+  }
+}
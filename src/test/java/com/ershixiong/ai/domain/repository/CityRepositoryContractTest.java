@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.domain.repository;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * {@link CityRepository}各实现共用的行为测试。
+ *
+ * <p>场景与MyBatisCityRepositoryTest一一对应，但针对真实存储断言结果而不是校验Mapper调用；
+ * 子类只需提供待测仓储，MyBatis实现以H2内存库运行，见MybatisCityRepositoryH2Test。
+ */
+public abstract class CityRepositoryContractTest {
+
+  /** 待测仓储 */
+  protected CityRepository cityRepository;
+
+  private City testCity;
+
+  /**
+   * 创建空的待测仓储，每个测试调用一次
+   *
+   * @return 仓储
+   */
+  protected abstract CityRepository createRepository() throws Exception;
+
+  @BeforeEach
+  void setUpContract() throws Exception {
+    cityRepository = createRepository();
+    testCity =
+        City.builder()
+            .name("Test City")
+            .countrycode("CHN")
+            .district("Test District")
+            .population(1000000)
+            .build();
+  }
+
+  @Test
+  void contract_findAll_ShouldReturnAllCitiesOrderedById() {
+    // Arrange
+    City first = cityRepository.save(testCity);
+    City second = cityRepository.save(new City(null, "Other City", "USA", "Other", null));
+
+    // Act
+    List<City> actualCities = cityRepository.findAll();
+
+    // Assert
+    assertEquals(List.of(first, second), actualCities);
+    assertNull(actualCities.get(1).getPopulation());
+  }
+
+  @Test
+  void contract_findById_WhenCityExists_ShouldReturnCity() {
+    // Arrange
+    City saved = cityRepository.save(testCity);
+
+    // Act
+    Optional<City> result = cityRepository.findById(saved.getId());
+
+    // Assert
+    assertTrue(result.isPresent());
+    City city = result.get();
+    assertEquals(saved.getId(), city.getId());
+    assertEquals(testCity.getName(), city.getName());
+    assertEquals(testCity.getCountrycode(), city.getCountrycode());
+    assertEquals(testCity.getDistrict(), city.getDistrict());
+    assertEquals(testCity.getPopulation(), city.getPopulation());
+  }
+
+  @Test
+  void contract_findById_WhenCityDoesNotExist_ShouldReturnEmpty() {
+    // Arrange
+    cityRepository.save(testCity);
+
+    // Act & Assert
+    assertFalse(cityRepository.findById(999L).isPresent());
+    assertFalse(cityRepository.findById(null).isPresent());
+  }
+
+  @Test
+  void contract_save_WhenCityIsNull_ShouldThrowException() {
+    // Act & Assert
+    assertThrows(BusinessException.class, () -> cityRepository.save(null));
+    assertTrue(cityRepository.findAll().isEmpty());
+  }
+
+  @Test
+  void contract_save_WhenCityHasId_ShouldUpdate() {
+    // Arrange
+    City saved = cityRepository.save(testCity);
+    City changed = new City(saved.getId(), "Renamed", "JPN", null, 42);
+
+    // Act
+    City updated = cityRepository.save(changed);
+
+    // Assert
+    assertEquals(changed, updated);
+    assertEquals(changed, cityRepository.findById(saved.getId()).orElseThrow());
+    assertEquals(1, cityRepository.findAll().size());
+  }
+
+  @Test
+  void contract_save_WhenCityHasNoId_ShouldInsert() {
+    // Act
+    City first = cityRepository.save(testCity);
+    City second = cityRepository.save(testCity);
+
+    // Assert
+    assertNotNull(first.getId());
+    assertNotNull(second.getId());
+    assertNotEquals(first.getId(), second.getId());
+    assertEquals(testCity.getName(), second.getName());
+    assertEquals(2, cityRepository.findAll().size());
+  }
+
+  @Test
+  void contract_save_ShouldAssignNewVersion() {
+    // Act
+    City saved = cityRepository.save(testCity);
+    City updated = cityRepository.save(saved);
+
+    // Assert
+    assertNotNull(saved.getVersion());
+    assertTrue(updated.getVersion() > saved.getVersion());
+    assertEquals(
+        updated.getVersion(), cityRepository.findById(saved.getId()).orElseThrow().getVersion());
+  }
+
+  @Test
+  void contract_deleteById_ShouldDeleteCity() {
+    // Arrange
+    City saved = cityRepository.save(testCity);
+
+    // Act
+    cityRepository.deleteById(saved.getId());
+
+    // Assert
+    assertFalse(cityRepository.findById(saved.getId()).isPresent());
+    assertTrue(cityRepository.findAll().isEmpty());
+  }
+
+  @Test
+  void contract_deleteById_WhenCityDoesNotExist_ShouldDoNothing() {
+    // Arrange
+    City saved = cityRepository.save(testCity);
+
+    // Act
+    cityRepository.deleteById(999L);
+    cityRepository.deleteById(null);
+
+    // Assert
+    assertEquals(List.of(saved), cityRepository.findAll());
+  }
+
+  @Test
+  void contract_findByNameLike_ShouldReturnPagedResults() {
+    // Arrange
+    List<City> matching = new ArrayList<>();
+    for (int i = 0; i < 5; i++) {
+      matching.add(cityRepository.save(new City(null, "Test " + i, "CHN", "D", i)));
+      cityRepository.save(new City(null, "Other " + i, "CHN", "D", i));
+    }
+
+    // Act
+    Page<City> result = cityRepository.findByNameLike("%test%", new Page<>(2, 2));
+
+    // Assert
+    assertEquals(5, result.getTotal());
+    assertEquals(matching.subList(2, 4), result.getRecords());
+  }
+
+  @Test
+  void contract_searchWithSort_ShouldReturnSortedPages() {
+    // Arrange
+    City delft = cityRepository.save(new City(null, "test Delft", "NLD", "D", 101000));
+    City almere = cityRepository.save(new City(null, "Test Almere", "NLD", "D", 211000));
+    City unknown = cityRepository.save(new City(null, "Test Unknown", "NLD", "D", null));
+    City breda = cityRepository.save(new City(null, "Test Breda", "NLD", "D", 101000));
+    cityRepository.save(new City(null, "Other", "NLD", "D", 999000));
+
+    // Act
+    CitySearchResult byName =
+        cityRepository.search(
+            query("%test%", new CitySort(CitySortField.NAME, false)), new Page<>(1, 3));
+    CitySearchResult byPopulationSecondPage =
+        cityRepository.search(
+            query("%test%", new CitySort(CitySortField.POPULATION, true)), new Page<>(2, 2));
+    CitySearchResult byIdDesc =
+        cityRepository.search(
+            query("%test%", new CitySort(CitySortField.ID, true)), new Page<>(1, 10));
+    CitySearchResult unsorted = cityRepository.search(query("%test%", null), new Page<>(1, 10));
+
+    // Assert
+    assertEquals(4, byName.getPage().getTotal());
+    assertEquals(List.of(almere, breda, delft), byName.getPage().getRecords());
+    assertEquals(4, byPopulationSecondPage.getPage().getTotal());
+    // 人口相同时按ID升序，人口未知排在降序的最后
+    assertEquals(List.of(breda, unknown), byPopulationSecondPage.getPage().getRecords());
+    assertEquals(List.of(breda, unknown, almere, delft), byIdDesc.getPage().getRecords());
+    assertNotEquals(CitySearchPlan.UNSORTED, byName.getPlan());
+    assertEquals(CitySearchPlan.UNSORTED, unsorted.getPlan());
+    assertEquals(4, unsorted.getPage().getTotal());
+  }
+
+  @Test
+  void contract_searchWithFilters_ShouldMatchAnyValueWithinAndAllDimensions() {
+    // Arrange
+    City amsterdam = cityRepository.save(new City(null, "Test Amsterdam", "NLD", "Noord", 731200));
+    City haarlem = cityRepository.save(new City(null, "Test Haarlem", "NLD", "Noord", 148772));
+    City utrecht = cityRepository.save(new City(null, "Test Utrecht", "NLD", "Utrecht", 234323));
+    cityRepository.save(new City(null, "Test Kabul", "AFG", "Kabol", 1780000));
+    cityRepository.save(new City(null, "Test Herat", "AFG", "Herat", 186800));
+    cityRepository.save(new City(null, "Other", "NLD", "Noord", 1));
+
+    // Act
+    CitySearchResult byCountries =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%test%")
+                .countrycodes(Set.of("NLD", "ZZZ"))
+                .districts(Set.of("Noord", "Utrecht", "Kabol"))
+                .build(),
+            new Page<>(1, 10));
+    CitySearchResult sortedSecondPage =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%test%")
+                .districts(Set.of("Noord", "Kabol"))
+                .sort(new CitySort(CitySortField.POPULATION, true))
+                .build(),
+            new Page<>(2, 2));
+    CitySearchResult noMatch =
+        cityRepository.search(
+            CitySearchQuery.builder().namePattern("%test%").countrycodes(Set.of("ZZZ")).build(),
+            new Page<>(1, 10));
+
+    // Assert
+    assertEquals(3, byCountries.getPage().getTotal());
+    assertEquals(
+        Set.of(amsterdam, haarlem, utrecht), Set.copyOf(byCountries.getPage().getRecords()));
+    assertEquals(3, sortedSecondPage.getPage().getTotal());
+    assertEquals(List.of(haarlem), sortedSecondPage.getPage().getRecords());
+    assertEquals(0, noMatch.getPage().getTotal());
+    assertTrue(noMatch.getPage().getRecords().isEmpty());
+  }
+
+  @Test
+  void contract_searchWithFacets_ShouldCountAllMatchedCities() {
+    // Arrange
+    cityRepository.save(new City(null, "Test Amsterdam", "NLD", "Noord", 731200));
+    cityRepository.save(new City(null, "Test Haarlem", "NLD", "Noord", 148772));
+    cityRepository.save(new City(null, "Test Utrecht", "NLD", "Utrecht", 234323));
+    cityRepository.save(new City(null, "Test Kabul", "AFG", "Kabol", 1780000));
+    cityRepository.save(new City(null, "Other", "AFG", "Kabol", 1));
+    CityFacetOptions options = new CityFacetOptions(2, 100, Duration.ofSeconds(10));
+
+    // Act
+    CityFacets facets =
+        cityRepository
+            .search(
+                CitySearchQuery.builder()
+                    .namePattern("%test%")
+                    .sort(new CitySort(CitySortField.NAME, false))
+                    .facets(options)
+                    .build(),
+                new Page<>(1, 1))
+            .getFacets();
+    CityFacets filtered =
+        cityRepository
+            .search(
+                CitySearchQuery.builder()
+                    .namePattern("%test%")
+                    .countrycodes(Set.of("NLD"))
+                    .facets(options)
+                    .build(),
+                new Page<>(1, 1))
+            .getFacets();
+
+    // Assert
+    assertEquals(
+        List.of(new CityFacetCount("NLD", 3), new CityFacetCount("AFG", 1)),
+        facets.getCountrycodes());
+    assertEquals(
+        List.of(new CityFacetCount("Noord", 2), new CityFacetCount("Kabol", 1)),
+        facets.getDistricts());
+    assertFalse(facets.isTruncated());
+    assertEquals(List.of(new CityFacetCount("NLD", 3)), filtered.getCountrycodes());
+    assertEquals(
+        List.of(new CityFacetCount("Noord", 2), new CityFacetCount("Utrecht", 1)),
+        filtered.getDistricts());
+  }
+
+  @Test
+  void contract_scanAll_ShouldVisitCitiesInIdOrder() {
+    // Arrange
+    for (int i = 0; i < 20; i++) {
+      cityRepository.save(new City(null, "City " + i, "CHN", "D", i));
+    }
+    List<City> visited = new ArrayList<>();
+
+    // Act
+    cityRepository.scanAll(visited::add);
+
+    // Assert
+    assertEquals(cityRepository.findAll(), visited);
+    for (int i = 1; i < visited.size(); i++) {
+      assertTrue(visited.get(i - 1).getId() < visited.get(i).getId());
+    }
+  }
+
+  private static CitySearchQuery query(String namePattern, CitySort sort) {
+    return CitySearchQuery.builder().namePattern(namePattern).sort(sort).build();
+  }
+}
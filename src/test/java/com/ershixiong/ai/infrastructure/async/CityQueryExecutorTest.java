@@ -0,0 +1,147 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.async;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.lane.Lane;
+import com.ershixiong.ai.infrastructure.lane.LaneContext;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityQueryExecutorTest {
+
+  private CityQueryExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    executor =
+        new CityQueryExecutor(
+            new ThreadPoolExecutor(
+                1, 1, 60L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(1)));
+  }
+
+  @AfterEach
+  void tearDown() {
+    executor.close();
+    LaneContext.clear();
+    DeadlineContext.clear();
+    ReadRoutingContext.clear();
+  }
+
+  @Test
+  void supply_ShouldRestoreRequestContextOnQueryThread() throws Exception {
+    // Arrange
+    Deadline deadline = Deadline.after(Duration.ofSeconds(5));
+    LaneContext.set(Lane.SEARCH);
+    DeadlineContext.set(deadline);
+    ReadRoutingContext.requireVersion(42L);
+    Thread caller = Thread.currentThread();
+
+    // Act
+    Object[] seen =
+        executor
+            .supply(
+                () ->
+                    new Object[] {
+                      Thread.currentThread(),
+                      LaneContext.current(),
+                      DeadlineContext.current(),
+                      ReadRoutingContext.getRequiredVersion()
+                    })
+            .get(5, TimeUnit.SECONDS);
+    LaneContext.clear();
+    DeadlineContext.clear();
+    ReadRoutingContext.clear();
+    Object[] reused =
+        executor
+            .supply(
+                () ->
+                    new Object[] {
+                      LaneContext.current(),
+                      DeadlineContext.current(),
+                      ReadRoutingContext.getRequiredVersion()
+                    })
+            .get(5, TimeUnit.SECONDS);
+
+    // Assert
+    assertNotSame(caller, seen[0]);
+    assertEquals(Lane.SEARCH, seen[1]);
+    assertSame(deadline, seen[2]);
+    assertEquals(42L, seen[3]);
+    // 查询线程复用时不残留上一个请求的上下文
+    assertEquals(Lane.OLTP, reused[0]);
+    assertNull(reused[1]);
+    assertEquals(0L, reused[2]);
+  }
+
+  @Test
+  void supply_WhenPoolAndQueueFull_ShouldFailWithServiceUnavailable() throws Exception {
+    // Arrange
+    CountDownLatch release = new CountDownLatch(1);
+    CompletableFuture<Boolean> running = executor.supply(() -> await(release));
+    CompletableFuture<Boolean> queued = executor.supply(() -> await(release));
+
+    // Act
+    CompletableFuture<Boolean> rejected = executor.supply(() -> true);
+
+    // Assert
+    ExecutionException e = assertThrows(ExecutionException.class, rejected::get);
+    BusinessException cause = assertInstanceOf(BusinessException.class, e.getCause());
+    assertEquals(ErrorCode.RPC_SERVICE_UNAVAILABLE, cause.getErrorCode());
+    assertEquals(1, executor.getRejected());
+    release.countDown();
+    assertTrue(running.get(5, TimeUnit.SECONDS));
+    assertTrue(queued.get(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void supply_WhenActionThrows_ShouldCompleteExceptionallyWithCause() {
+    // Act
+    CompletableFuture<Object> future =
+        executor.supply(
+            () -> {
+              throw new BusinessException(ErrorCode.BIZ_DATA_NOT_FOUND, "城市不存在");
+            });
+
+    // Assert
+    ExecutionException e = assertThrows(ExecutionException.class, future::get);
+    assertInstanceOf(BusinessException.class, e.getCause());
+  }
+
+  private static boolean await(CountDownLatch latch) {
+    try {
+      return latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+      return false;
+    }
+  }
+}
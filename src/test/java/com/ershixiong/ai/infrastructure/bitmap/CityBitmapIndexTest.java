@@ -0,0 +1,347 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.bitmap;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
+import com.ershixiong.ai.domain.repository.CityFacetCounter;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityBitmapIndexTest {
+
+  private static final String[] COUNTRIES = {"AFG", "NLD", "CHN"};
+
+  private final CityBitmapIndex index = new CityBitmapIndex();
+
+  /** 国家很少，每个国家的位图都超过数组容器的上限 */
+  private static City randomCity(long id, long version, Random random) {
+    String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+    return new City(
+        id,
+        "City" + random.nextInt(1000),
+        country,
+        country + "-" + random.nextInt(8),
+        random.nextInt(500),
+        version);
+  }
+
+  private static Consumer<Consumer<City>> scan(Map<Long, City> cities) {
+    return consumer -> cities.values().forEach(consumer);
+  }
+
+  /** 逐行过滤并排序的参考结果 */
+  private static List<City> expected(Map<Long, City> cities, CitySearchQuery query) {
+    Pattern pattern = LikePattern.compile(query.getNamePattern());
+    List<City> matched = new ArrayList<>();
+    for (City city : cities.values()) {
+      if (query.matchesFilters(city) && pattern.matcher(city.getName()).matches()) {
+        matched.add(city);
+      }
+    }
+    if (query.getSort() != null) {
+      matched.sort(query.getSort().comparator());
+    }
+    return matched;
+  }
+
+  @Test
+  void search_AfterRandomWrites_ShouldMatchFullScan() {
+    // Arrange
+    Random random = new Random(42);
+    Map<Long, City> reference = new TreeMap<>();
+    for (long id = 1; id <= 20_000; id++) {
+      reference.put(id, randomCity(id, 1L, random));
+    }
+    index.rebuild(scan(reference));
+    for (int i = 0; i < 10_000; i++) {
+      long id = 1 + random.nextInt(25_000);
+      if (random.nextInt(4) == 0) {
+        reference.remove(id);
+        index.delete(id);
+      } else {
+        City city = randomCity(id, 2L + i, random);
+        reference.put(id, city);
+        index.upsert(city);
+      }
+    }
+    List<CitySearchQuery> queries =
+        List.of(
+            CitySearchQuery.builder().namePattern("%ty1%").build(),
+            CitySearchQuery.builder().namePattern("%").countrycodes(Set.of("NLD", "ZZZ")).build(),
+            CitySearchQuery.builder()
+                .namePattern("City_5%")
+                .countrycodes(Set.of("AFG", "CHN"))
+                .districts(Set.of("AFG-1", "CHN-2", "NLD-3"))
+                .build(),
+            CitySearchQuery.builder()
+                .namePattern("%2%")
+                .districts(Set.of("NLD-4"))
+                .sort(new CitySort(CitySortField.POPULATION, true))
+                .build(),
+            CitySearchQuery.builder()
+                .namePattern("%")
+                .countrycodes(Set.of("CHN"))
+                .sort(new CitySort(CitySortField.NAME, false))
+                .build());
+
+    // Act & Assert
+    assertEquals(reference.size(), index.size());
+    for (CitySearchQuery query : queries) {
+      List<City> expected = expected(reference, query);
+      List<City> pages = new ArrayList<>();
+      for (long pageNo = 1; pageNo <= 3; pageNo++) {
+        CitySearchResult result = index.search(query, new Page<>(pageNo, 100));
+        assertEquals(CitySearchPlan.BITMAP, result.getPlan());
+        assertEquals(expected.size(), result.getPage().getTotal());
+        pages.addAll(result.getPage().getRecords());
+      }
+      List<City> firstPages = expected.subList(0, Math.min(300, expected.size()));
+      if (query.getSort() != null) {
+        assertEquals(firstPages, pages);
+      } else {
+        // 不排序时按行号顺序分页，页之间不重复
+        assertEquals(firstPages.size(), pages.size());
+        assertEquals(pages.size(), new HashSet<>(pages).size());
+        assertTrue(expected.containsAll(pages));
+      }
+    }
+    assertTrue(index.getBitmapBytes() > 0);
+  }
+
+  /** 逐行计数的参考分面 */
+  private static List<CityFacetCount> expectedFacet(
+      List<City> matched, Function<City, String> key, int limit) {
+    Map<String, Long> counts = new TreeMap<>();
+    matched.forEach(city -> counts.merge(key.apply(city), 1L, Long::sum));
+    List<CityFacetCount> result = new ArrayList<>();
+    counts.forEach((k, count) -> result.add(new CityFacetCount(k, count)));
+    result.sort(CityFacetCounter.ORDER);
+    return result.subList(0, Math.min(limit, result.size()));
+  }
+
+  @Test
+  void search_WithFacets_ShouldMatchRowWiseCounts() {
+    // Arrange
+    Random random = new Random(11);
+    Map<Long, City> reference = new TreeMap<>();
+    for (long id = 1; id <= 20_000; id++) {
+      reference.put(id, randomCity(id, 1L, random));
+    }
+    index.rebuild(scan(reference));
+    CityFacetOptions options = new CityFacetOptions(3, 1000, Duration.ofSeconds(10));
+    // 前两个查询匹配行多，按取值求交集；后两个匹配行少，逐行计数
+    List<CitySearchQuery> queries =
+        List.of(
+            CitySearchQuery.builder().namePattern("%").facets(options).build(),
+            CitySearchQuery.builder()
+                .namePattern("City1%")
+                .countrycodes(Set.of("NLD", "CHN"))
+                .sort(new CitySort(CitySortField.POPULATION, true))
+                .facets(options)
+                .build(),
+            CitySearchQuery.builder().namePattern("City999").facets(options).build(),
+            CitySearchQuery.builder()
+                .namePattern("City99%")
+                .districts(Set.of("AFG-1", "NLD-2"))
+                .facets(options)
+                .build());
+
+    // Act & Assert
+    for (CitySearchQuery query : queries) {
+      List<City> matched = expected(reference, query);
+      CityFacets facets = index.search(query, new Page<>(1, 10)).getFacets();
+      assertEquals(expectedFacet(matched, City::getCountrycode, 3), facets.getCountrycodes());
+      assertEquals(expectedFacet(matched, City::getDistrict, 3), facets.getDistricts());
+      assertFalse(facets.isTruncated());
+    }
+    assertNull(
+        index.search(CitySearchQuery.builder().namePattern("%").build(), new Page<>(1, 10))
+            .getFacets());
+  }
+
+  @Test
+  void search_WhenFacetValuesExceedLimit_ShouldMarkTruncated() {
+    // Arrange
+    Random random = new Random(5);
+    Map<Long, City> reference = new TreeMap<>();
+    for (long id = 1; id <= 5_000; id++) {
+      reference.put(id, randomCity(id, 1L, random));
+    }
+    index.rebuild(scan(reference));
+    CityFacetOptions options = new CityFacetOptions(10, 2, Duration.ofSeconds(10));
+
+    // Act
+    CityFacets intersected =
+        index
+            .search(
+                CitySearchQuery.builder().namePattern("%").facets(options).build(),
+                new Page<>(1, 10))
+            .getFacets();
+    CityFacets scanned =
+        index
+            .search(
+                CitySearchQuery.builder().namePattern("City99%").facets(options).build(),
+                new Page<>(1, 10))
+            .getFacets();
+
+    // Assert
+    assertTrue(intersected.isTruncated());
+    assertEquals(2, intersected.getCountrycodes().size());
+    assertEquals(2, intersected.getDistricts().size());
+    assertTrue(scanned.isTruncated());
+    assertTrue(scanned.getDistricts().size() <= 2);
+  }
+
+  @Test
+  void search_WhenFilterValueUnknown_ShouldReturnEmptyPage() {
+    // Arrange
+    Map<Long, City> reference = new TreeMap<>();
+    reference.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+    reference.put(2L, new City(2L, "Kabul", "AFG", "Kabol", 1780000, 1L));
+    index.rebuild(scan(reference));
+
+    // Act
+    CitySearchResult unknownCountry =
+        index.search(
+            CitySearchQuery.builder().namePattern("%").countrycodes(Set.of("ZZZ")).build(),
+            new Page<>(1, 10));
+    CitySearchResult mismatchedDimensions =
+        index.search(
+            CitySearchQuery.builder()
+                .namePattern("%")
+                .countrycodes(Set.of("NLD"))
+                .districts(Set.of("Kabol"))
+                .build(),
+            new Page<>(1, 10));
+    CitySearchResult beyondLastPage =
+        index.search(CitySearchQuery.builder().namePattern("%a%").build(), new Page<>(3, 10));
+
+    // Assert
+    assertEquals(0, unknownCountry.getPage().getTotal());
+    assertTrue(unknownCountry.getPage().getRecords().isEmpty());
+    assertEquals(0, mismatchedDimensions.getPage().getTotal());
+    assertEquals(2, beyondLastPage.getPage().getTotal());
+    assertTrue(beyondLastPage.getPage().getRecords().isEmpty());
+  }
+
+  @Test
+  void upsert_WhenDistrictChanges_ShouldMoveCityBetweenBitmaps() {
+    // Arrange
+    Map<Long, City> reference = new TreeMap<>();
+    reference.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+    reference.put(2L, new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 593321, 1L));
+    index.rebuild(scan(reference));
+    CitySearchQuery noord =
+        CitySearchQuery.builder().namePattern("%").districts(Set.of("Noord-Holland")).build();
+
+    // Act
+    index.upsert(new City(2L, "Rotterdam", "NLD", "Noord-Holland", 593321, 2L));
+    index.upsert(new City(1L, "Amsterdam", "NLD", "Zuid-Holland", 1, 0L));
+    CitySearchResult moved = index.search(noord, new Page<>(1, 10));
+    index.delete(1L);
+    CitySearchResult deleted = index.search(noord, new Page<>(1, 10));
+
+    // Assert
+    assertEquals(List.of(1L, 2L), moved.getPage().getRecords().stream().map(City::getId).toList());
+    assertEquals(List.of(2L), deleted.getPage().getRecords().stream().map(City::getId).toList());
+    assertEquals(1, index.size());
+    assertEquals(1, index.getDeadRows());
+  }
+
+  @Test
+  void rebuild_ShouldReplayWritesMadeDuringScanAndCompactDeadRows() {
+    // Arrange
+    Map<Long, City> initial = new TreeMap<>();
+    initial.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+    initial.put(2L, new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 593321, 1L));
+    index.rebuild(scan(initial));
+    index.delete(2L);
+    City added = new City(3L, "Utrecht", "NLD", "Utrecht", 234323, 1L);
+
+    // Act
+    // 扫描读到的是写入前的数据，写入发生在扫描过程中
+    index.rebuild(
+        consumer -> {
+          consumer.accept(initial.get(1L));
+          index.upsert(added);
+          index.delete(1L);
+        });
+    CitySearchResult result =
+        index.search(
+            CitySearchQuery.builder().namePattern("%").countrycodes(Set.of("NLD")).build(),
+            new Page<>(1, 10));
+    // 重放的删除留下一个空行号，再次重建时回收
+    int deadAfterReplay = index.getDeadRows();
+    index.rebuild(consumer -> consumer.accept(added));
+
+    // Assert
+    assertEquals(List.of(added), result.getPage().getRecords());
+    assertEquals(1, deadAfterReplay);
+    assertEquals(0, index.getDeadRows());
+    assertEquals(1, index.size());
+  }
+
+  @Test
+  void onCityChanged_ShouldOnlyApplyBinlogEvents() {
+    // Arrange
+    City amsterdam = new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L);
+    index.rebuild(consumer -> consumer.accept(amsterdam));
+
+    // Act
+    index.onCityChanged(CityChangedEvent.deleted(1L));
+    int afterApplicationEvent = index.size();
+    index.onCityChanged(
+        new CityChangedEvent(
+            CityChangedEvent.Type.DELETED, 1L, null, CityChangedEvent.Source.BINLOG));
+
+    // Assert
+    assertEquals(1, afterApplicationEvent);
+    assertEquals(0, index.size());
+  }
+
+  @Test
+  void search_WhenNotBuilt_ShouldFail() {
+    // Act & Assert
+    assertFalse(index.isReady());
+    assertThrows(
+        IllegalStateException.class,
+        () -> index.search(CitySearchQuery.builder().namePattern("%").build(), new Page<>(1, 10)));
+  }
+}
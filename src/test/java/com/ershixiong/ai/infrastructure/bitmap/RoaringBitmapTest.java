@@ -0,0 +1,154 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.bitmap;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeSet;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RoaringBitmapTest {
+
+  /** 值集中在前两个桶，使容器在数组和位图之间反复转换 */
+  private static int randomValue(Random random) {
+    return random.nextInt(10) == 0 ? random.nextInt(1 << 20) : random.nextInt(3 << 15);
+  }
+
+  private static List<Integer> values(RoaringBitmap bitmap) {
+    List<Integer> values = new ArrayList<>();
+    bitmap.forEach(
+        value -> {
+          values.add(value);
+          return true;
+        });
+    return values;
+  }
+
+  @Test
+  void addAndRemove_ShouldMatchTreeSetAcrossContainerConversions() {
+    // Arrange
+    Random random = new Random(42);
+    RoaringBitmap bitmap = new RoaringBitmap();
+    TreeSet<Integer> reference = new TreeSet<>();
+
+    // Act & Assert
+    for (int round = 0; round < 4; round++) {
+      for (int i = 0; i < 20_000; i++) {
+        int value = randomValue(random);
+        bitmap.add(value);
+        reference.add(value);
+      }
+      assertEquals(reference.size(), bitmap.cardinality());
+      for (int i = 0; i < 30_000; i++) {
+        int value = randomValue(random);
+        bitmap.remove(value);
+        reference.remove(value);
+      }
+      assertEquals(reference.size(), bitmap.cardinality());
+      assertEquals(List.copyOf(reference), values(bitmap));
+      for (int i = 0; i < 1000; i++) {
+        int value = randomValue(random);
+        assertEquals(reference.contains(value), bitmap.contains(value));
+      }
+    }
+  }
+
+  @Test
+  void andOrAndCardinality_ShouldMatchSetOperations() {
+    // Arrange
+    Random random = new Random(7);
+    RoaringBitmap dense = new RoaringBitmap();
+    RoaringBitmap sparse = new RoaringBitmap();
+    TreeSet<Integer> denseReference = new TreeSet<>();
+    TreeSet<Integer> sparseReference = new TreeSet<>();
+    for (int i = 0; i < 50_000; i++) {
+      int value = random.nextInt(1 << 17);
+      dense.add(value);
+      denseReference.add(value);
+    }
+    for (int i = 0; i < 3000; i++) {
+      int value = random.nextInt(1 << 18);
+      sparse.add(value);
+      sparseReference.add(value);
+    }
+    TreeSet<Integer> intersection = new TreeSet<>(denseReference);
+    intersection.retainAll(sparseReference);
+    TreeSet<Integer> union = new TreeSet<>(denseReference);
+    union.addAll(sparseReference);
+
+    // Act
+    RoaringBitmap and = RoaringBitmap.and(dense, sparse);
+    RoaringBitmap or = RoaringBitmap.or(sparse, dense);
+    RoaringBitmap denseAndDense = RoaringBitmap.and(dense, RoaringBitmap.or(dense, dense));
+
+    // Assert
+    assertEquals(List.copyOf(intersection), values(and));
+    assertEquals(intersection.size(), and.cardinality());
+    assertEquals(List.copyOf(union), values(or));
+    assertEquals(union.size(), or.cardinality());
+    assertEquals(List.copyOf(denseReference), values(denseAndDense));
+    assertTrue(RoaringBitmap.and(dense, new RoaringBitmap()).isEmpty());
+    assertEquals(intersection.size(), RoaringBitmap.andCardinality(dense, sparse));
+    assertEquals(intersection.size(), RoaringBitmap.andCardinality(sparse, dense));
+    assertEquals(denseReference.size(), RoaringBitmap.andCardinality(dense, dense));
+    assertEquals(sparseReference.size(), RoaringBitmap.andCardinality(sparse, sparse));
+    assertEquals(0, RoaringBitmap.andCardinality(new RoaringBitmap(), dense));
+  }
+
+  @Test
+  void bytes_ShouldPickSmallerContainerByDensity() {
+    // Arrange
+    RoaringBitmap sparse = new RoaringBitmap();
+    RoaringBitmap dense = new RoaringBitmap();
+    for (int i = 0; i < 1000; i++) {
+      sparse.add(i * 1000);
+    }
+    for (int i = 0; i < 1 << 20; i++) {
+      dense.add(i);
+    }
+
+    // Act & Assert
+    assertEquals(16, dense.containerCount());
+    assertTrue(dense.bytes() < (1 << 20) / 8 + 1024, "dense bytes: " + dense.bytes());
+    // 16个稀疏的数组容器加起来仍小于一个位图容器
+    assertEquals(16, sparse.containerCount());
+    assertTrue(sparse.bytes() < 8 * 1024, "sparse bytes: " + sparse.bytes());
+  }
+
+  @Test
+  void forEach_WhenVisitorStops_ShouldNotVisitRemainingValues() {
+    // Arrange
+    RoaringBitmap bitmap = new RoaringBitmap();
+    for (int i = 0; i < 100_000; i += 3) {
+      bitmap.add(i);
+    }
+    List<Integer> visited = new ArrayList<>();
+
+    // Act
+    bitmap.forEach(
+        value -> {
+          visited.add(value);
+          return visited.size() < 5;
+        });
+
+    // Assert
+    assertEquals(List.of(0, 3, 6, 9, 12), visited);
+  }
+}
@@ -0,0 +1,293 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cache;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.config.CityCacheProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.DatagramSocket;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+class CityInvalidationBusTest {
+
+  private final List<CityInvalidationBus> buses = new ArrayList<>();
+
+  @AfterEach
+  void tearDown() {
+    buses.forEach(CityInvalidationBus::close);
+  }
+
+  private static CityCacheProperties.Bus busProperties() {
+    CityCacheProperties.Bus properties = new CityCacheProperties.Bus();
+    properties.setBatchWindow(Duration.ofMillis(2));
+    properties.setHeartbeatInterval(Duration.ofMillis(50));
+    properties.setGapTimeout(Duration.ofMillis(100));
+    return properties;
+  }
+
+  private static City city(long id, long version) {
+    return City.builder()
+        .id(id)
+        .name("City " + id)
+        .countrycode("CHN")
+        .district("District")
+        .population(1000)
+        .version(version)
+        .build();
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws Exception {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met within 5 seconds");
+      }
+      Thread.sleep(5);
+    }
+  }
+
+  @Test
+  void save_OnOneNode_ShouldEvictCachedEntryOnOtherNode() throws Exception {
+    // Arrange
+    InJvmCityInvalidationBus.Network network = new InJvmCityInvalidationBus.Network();
+    CityInvalidationBus busA = new InJvmCityInvalidationBus(busProperties(), network);
+    CityInvalidationBus busB = new InJvmCityInvalidationBus(busProperties(), network);
+    buses.add(busA);
+    buses.add(busB);
+
+    CityRepository delegate = mock(CityRepository.class);
+    when(delegate.findById(1L)).thenReturn(Optional.of(city(1, 10)));
+    when(delegate.save(any(City.class))).thenReturn(city(1, 11));
+
+    CachingCityRepository nodeA = new CachingCityRepository(delegate, busA, 100);
+    CachingCityRepository nodeB = new CachingCityRepository(delegate, busB, 100);
+    busA.addListener(nodeA);
+    busB.addListener(nodeB);
+    nodeB.findById(1L);
+    assertEquals(1, nodeB.size());
+
+    // Act
+    nodeA.save(city(1, 10));
+
+    // Assert
+    awaitTrue(() -> nodeB.size() == 0);
+  }
+
+  @Test
+  void findById_WhenCacheIsFull_ShouldEvictLeastRecentlyUsedEntry() {
+    // Arrange
+    CityInvalidationBus bus =
+        new InJvmCityInvalidationBus(busProperties(), new InJvmCityInvalidationBus.Network());
+    buses.add(bus);
+    CityRepository delegate = mock(CityRepository.class);
+    for (long id = 1; id <= 3; id++) {
+      when(delegate.findById(id)).thenReturn(Optional.of(city(id, 1)));
+    }
+    CachingCityRepository repository = new CachingCityRepository(delegate, bus, 2);
+    repository.findById(1L);
+    repository.findById(2L);
+    repository.findById(1L);
+
+    // Act
+    repository.findById(3L);
+    repository.findById(1L);
+    repository.findById(2L);
+
+    // Assert
+    assertEquals(2, repository.size());
+    verify(delegate, times(1)).findById(1L);
+    verify(delegate, times(2)).findById(2L);
+    verify(delegate, times(1)).findById(3L);
+  }
+
+  @Test
+  void findByIdForWrite_ShouldBypassCache() {
+    // Arrange
+    CityInvalidationBus bus =
+        new InJvmCityInvalidationBus(busProperties(), new InJvmCityInvalidationBus.Network());
+    buses.add(bus);
+    CityRepository delegate = mock(CityRepository.class);
+    when(delegate.findById(1L)).thenReturn(Optional.of(city(1, 1)));
+    when(delegate.findByIdForWrite(1L)).thenReturn(Optional.of(city(1, 2)));
+    CachingCityRepository repository = new CachingCityRepository(delegate, bus, 10);
+    repository.findById(1L);
+
+    // Act
+    Optional<City> result = repository.findByIdForWrite(1L);
+
+    // Assert
+    assertEquals(2L, result.orElseThrow().getVersion());
+    assertEquals(1L, repository.findById(1L).orElseThrow().getVersion());
+    verify(delegate, times(1)).findById(1L);
+  }
+
+  @Test
+  void heartbeat_WhenSenderGoesSilent_ShouldForgetSenderAndRequireResync() throws Exception {
+    // Arrange
+    InJvmCityInvalidationBus.Network network = new InJvmCityInvalidationBus.Network();
+    CityCacheProperties.Bus receiverProperties = busProperties();
+    receiverProperties.setSenderTimeout(Duration.ofMillis(200));
+    InJvmCityInvalidationBus receiver = new InJvmCityInvalidationBus(receiverProperties, network);
+    CityInvalidationBus sender = new InJvmCityInvalidationBus(busProperties(), network);
+    buses.add(receiver);
+    AtomicInteger resyncs = new AtomicInteger();
+    receiver.addListener(new RecordingListener(new CopyOnWriteArrayList<>(), resyncs));
+    sender.publish(1L, 1L);
+    sender.flush();
+    awaitTrue(() -> receiver.getTrackedSenderCount() == 1);
+
+    // Act
+    sender.close();
+
+    // Assert
+    awaitTrue(() -> resyncs.get() == 1);
+    assertEquals(0, receiver.getTrackedSenderCount());
+  }
+
+  @Test
+  void publish_ShouldBatchAndDeduplicateById() {
+    // Arrange
+    InJvmCityInvalidationBus.Network network = new InJvmCityInvalidationBus.Network();
+    CityCacheProperties.Bus properties = busProperties();
+    properties.setBatchWindow(Duration.ofHours(1));
+    CityInvalidationBus sender = new InJvmCityInvalidationBus(properties, network);
+    CityInvalidationBus receiver = new InJvmCityInvalidationBus(properties, network);
+    buses.add(sender);
+    buses.add(receiver);
+    List<List<CityInvalidation>> received = new CopyOnWriteArrayList<>();
+    receiver.addListener(new RecordingListener(received, new AtomicInteger()));
+
+    // Act
+    sender.publish(1L, 5L);
+    sender.publish(2L, 6L);
+    sender.publish(1L, 7L);
+    sender.flush();
+
+    // Assert
+    assertEquals(1, received.size());
+    assertEquals(
+        List.of(new CityInvalidation(1L, 7L), new CityInvalidation(2L, 6L)), received.get(0));
+  }
+
+  @Test
+  void gapDetector_WhenBatchIsLost_ShouldRequireResyncAfterTimeout() {
+    // Arrange
+    SequenceGapDetector detector = new SequenceGapDetector(TimeUnit.MILLISECONDS.toNanos(100), 64);
+
+    // Act & Assert
+    assertFalse(detector.onBatch(1, 0));
+    assertFalse(detector.onBatch(2, 0));
+    assertFalse(detector.onBatch(4, TimeUnit.MILLISECONDS.toNanos(10)));
+    assertTrue(detector.isDuplicate(2));
+    assertFalse(detector.check(TimeUnit.MILLISECONDS.toNanos(50)));
+    assertTrue(detector.check(TimeUnit.MILLISECONDS.toNanos(200)));
+    assertFalse(detector.onBatch(5, TimeUnit.MILLISECONDS.toNanos(210)));
+  }
+
+  @Test
+  void gapDetector_WhenReorderedBatchArrives_ShouldNotRequireResync() {
+    // Arrange
+    SequenceGapDetector detector = new SequenceGapDetector(TimeUnit.MILLISECONDS.toNanos(100), 64);
+
+    // Act & Assert
+    assertFalse(detector.onBatch(1, 0));
+    assertFalse(detector.onBatch(3, 0));
+    assertFalse(detector.onBatch(2, TimeUnit.MILLISECONDS.toNanos(50)));
+    assertFalse(detector.check(TimeUnit.MILLISECONDS.toNanos(500)));
+  }
+
+  @Test
+  void gapDetector_WhenHeartbeatAnnouncesUnseenBatch_ShouldRequireResync() {
+    // Arrange
+    SequenceGapDetector detector = new SequenceGapDetector(TimeUnit.MILLISECONDS.toNanos(100), 64);
+
+    // Act & Assert
+    assertFalse(detector.onBatch(1, 0));
+    assertFalse(detector.onHeartbeat(2, TimeUnit.MILLISECONDS.toNanos(10)));
+    assertTrue(detector.onHeartbeat(2, TimeUnit.MILLISECONDS.toNanos(200)));
+  }
+
+  @Test
+  void udpBus_OnLoopback_ShouldDeliverInvalidationsBetweenNodes() throws Exception {
+    // Arrange
+    int portA = freePort();
+    int portB = freePort();
+    CityCacheProperties.Bus propertiesA = busProperties();
+    propertiesA.setBindPort(portA);
+    propertiesA.setPeers(List.of("127.0.0.1:" + portB));
+    CityCacheProperties.Bus propertiesB = busProperties();
+    propertiesB.setBindPort(portB);
+    propertiesB.setPeers(List.of("127.0.0.1:" + portA));
+    CityInvalidationBus busA = new UdpCityInvalidationBus(propertiesA);
+    CityInvalidationBus busB = new UdpCityInvalidationBus(propertiesB);
+    buses.add(busA);
+    buses.add(busB);
+    List<List<CityInvalidation>> received = new CopyOnWriteArrayList<>();
+    AtomicInteger resyncs = new AtomicInteger();
+    busB.addListener(new RecordingListener(received, resyncs));
+
+    // Act
+    for (long id = 1; id <= 200; id++) {
+      busA.publish(id, id);
+    }
+    busA.flush();
+
+    // Assert
+    awaitTrue(() -> received.stream().mapToInt(List::size).sum() == 200);
+    assertTrue(received.stream().allMatch(batch -> batch.size() <= 85));
+    assertEquals(0, resyncs.get());
+  }
+
+  private static int freePort() throws Exception {
+    try (DatagramSocket socket = new DatagramSocket(0)) {
+      return socket.getLocalPort();
+    }
+  }
+
+  private static final class RecordingListener implements CityInvalidationListener {
+    private final List<List<CityInvalidation>> received;
+    private final AtomicInteger resyncs;
+
+    private RecordingListener(List<List<CityInvalidation>> received, AtomicInteger resyncs) {
+      this.received = received;
+      this.resyncs = resyncs;
+    }
+
+    @Override
+    public void onInvalidations(List<CityInvalidation> invalidations) {
+      received.add(invalidations);
+    }
+
+    @Override
+    public void onResyncRequired() {
+      resyncs.incrementAndGet();
+    }
+  }
+}
@@ -0,0 +1,212 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cdc;
+
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.infrastructure.config.CityBinlogProperties;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 对真实MySQL的binlog订阅测试：连接、TABLE_MAP到行事件再到XID的位点推进，以及从保存的位点恢复。
+ *
+ * <p>在临时建立的city_binlog_it表上读写，不触碰业务数据。MySQL需要开启binlog_format=ROW，
+ * 账号需要REPLICATION SLAVE和REPLICATION CLIENT权限以及建表权限。
+ *
+ * <p>运行方式：mvn test -Pmysql-it -Dtest=CityBinlogTailerIntegrationTest，
+ * 可通过it.mysql.host、it.mysql.port、it.mysql.database、it.mysql.username、it.mysql.password指定连接。
+ */
+@Tag("mysql")
+class CityBinlogTailerIntegrationTest {
+
+  private static final String HOST = System.getProperty("it.mysql.host", "localhost");
+  private static final int PORT = Integer.getInteger("it.mysql.port", 3306);
+  private static final String DATABASE = System.getProperty("it.mysql.database", "world");
+  private static final String USERNAME = System.getProperty("it.mysql.username", "root");
+  private static final String PASSWORD = System.getProperty("it.mysql.password", "123456");
+  private static final String TABLE = "city_binlog_it";
+  private static final String OTHER_TABLE = "city_binlog_it_other";
+  private static final long TIMEOUT_SECONDS = 30;
+
+  @TempDir
+  Path directory;
+
+  private JdbcTemplate jdbcTemplate;
+  private final BlockingQueue<CityChangedEvent> events = new LinkedBlockingQueue<>();
+  private final List<CityBinlogTailer> tailers = new ArrayList<>();
+
+  @BeforeEach
+  void setUp() {
+    jdbcTemplate =
+        new JdbcTemplate(
+            new DriverManagerDataSource(
+                "jdbc:mysql://" + HOST + ":" + PORT + "/" + DATABASE + "?useSSL=false"
+                    + "&allowPublicKeyRetrieval=true&serverTimezone=UTC",
+                USERNAME,
+                PASSWORD));
+    dropTables();
+    jdbcTemplate.execute(
+        "CREATE TABLE " + TABLE + " (ID INT PRIMARY KEY, Name CHAR(35) NOT NULL,"
+            + " CountryCode CHAR(3) NOT NULL, District CHAR(20) NOT NULL, Population INT,"
+            + " version BIGINT NOT NULL DEFAULT 0)");
+    jdbcTemplate.execute("CREATE TABLE " + OTHER_TABLE + " (ID INT PRIMARY KEY)");
+  }
+
+  @AfterEach
+  void tearDown() {
+    tailers.forEach(CityBinlogTailer::stop);
+    dropTables();
+  }
+
+  @Test
+  void tail_FromSavedPosition_ShouldPublishRowEventsAndCommitPositionAfterXid() throws Exception {
+    // Arrange
+    BinlogPosition start = currentPosition();
+    Path positionFile = directory.resolve("city.position");
+    new BinlogPositionStore(positionFile).save(start);
+    jdbcTemplate.update(
+        "INSERT INTO " + TABLE + " VALUES (1, '上海', 'CHN', 'Shanghai', 24870895, 1)");
+    jdbcTemplate.update("INSERT INTO " + OTHER_TABLE + " VALUES (1)");
+    jdbcTemplate.update("UPDATE " + TABLE + " SET Population = 24870896, version = 2 WHERE ID = 1");
+    jdbcTemplate.update("DELETE FROM " + TABLE + " WHERE ID = 1");
+
+    // Act
+    CityBinlogTailer tailer = start(positionFile);
+    CityChangedEvent created = nextEvent();
+    CityChangedEvent updated = nextEvent();
+    CityChangedEvent deleted = nextEvent();
+    awaitTrue(() -> after(tailer.getCommittedPosition(), start));
+    BinlogPosition committed = tailer.getCommittedPosition();
+    tailer.stop();
+
+    // Assert
+    assertEquals(CityChangedEvent.Type.CREATED, created.getType());
+    assertEquals(CityChangedEvent.Source.BINLOG, created.getSource());
+    assertEquals("上海", created.getCity().getName());
+    assertEquals("CHN", created.getCity().getCountrycode());
+    assertEquals(1L, created.getCity().getVersion());
+    assertEquals(CityChangedEvent.Type.UPDATED, updated.getType());
+    assertEquals(24870896, updated.getCity().getPopulation());
+    assertEquals(2L, updated.getCity().getVersion());
+    assertEquals(CityChangedEvent.Type.DELETED, deleted.getType());
+    assertEquals(1L, deleted.getCityId());
+    assertNull(deleted.getCity());
+    assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+    assertEquals(committed, new BinlogPositionStore(positionFile).load().orElseThrow());
+  }
+
+  @Test
+  void tail_AfterRestart_ShouldResumeFromFlushedPositionWithoutReplay() throws Exception {
+    // Arrange
+    Path positionFile = directory.resolve("city.position");
+    new BinlogPositionStore(positionFile).save(currentPosition());
+    jdbcTemplate.update(
+        "INSERT INTO " + TABLE + " VALUES (1, 'Kabul', 'AFG', 'Kabol', 1780000, 1)");
+    CityBinlogTailer first = start(positionFile);
+    assertEquals(1L, nextEvent().getCityId());
+    awaitTrue(() -> first.getCommittedPosition() != null);
+    first.stop();
+    jdbcTemplate.update("INSERT INTO " + TABLE + " VALUES (2, 'Herat', 'AFG', 'Herat', 186800, 1)");
+
+    // Act
+    start(positionFile);
+    CityChangedEvent resumed = nextEvent();
+
+    // Assert
+    assertEquals(2L, resumed.getCityId());
+    assertEquals(CityChangedEvent.Type.CREATED, resumed.getType());
+    assertNull(events.poll(500, TimeUnit.MILLISECONDS));
+  }
+
+  private CityBinlogTailer start(Path positionFile) {
+    CityBinlogProperties properties = new CityBinlogProperties();
+    properties.setHost(HOST);
+    properties.setPort(PORT);
+    properties.setUsername(USERNAME);
+    properties.setPassword(PASSWORD);
+    properties.setServerId(ThreadLocalRandom.current().nextLong(100_000, 1_000_000));
+    properties.setDatabase(DATABASE);
+    properties.setTable(TABLE);
+    properties.setPositionFile(positionFile.toString());
+    properties.setPositionFlushInterval(Duration.ofMillis(50));
+    properties.setReconnectInterval(Duration.ofMillis(200));
+    CityBinlogTailer tailer =
+        new CityBinlogTailer(
+            properties, event -> events.add((CityChangedEvent) event), jdbcTemplate);
+    tailers.add(tailer);
+    tailer.start();
+    return tailer;
+  }
+
+  private CityChangedEvent nextEvent() throws InterruptedException {
+    CityChangedEvent event = events.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertNotNull(event, "No binlog event within " + TIMEOUT_SECONDS + " seconds");
+    return event;
+  }
+
+  /** MySQL 8.4起SHOW MASTER STATUS更名为SHOW BINARY LOG STATUS */
+  private BinlogPosition currentPosition() {
+    Map<String, Object> status;
+    try {
+      status = jdbcTemplate.queryForMap("SHOW BINARY LOG STATUS");
+    } catch (DataAccessException e) {
+      status = jdbcTemplate.queryForMap("SHOW MASTER STATUS");
+    }
+    return new BinlogPosition(
+        (String) status.get("File"), ((Number) status.get("Position")).longValue());
+  }
+
+  private static boolean after(BinlogPosition position, BinlogPosition start) {
+    if (position == null) {
+      return false;
+    }
+    int files = position.getFilename().compareTo(start.getFilename());
+    return files > 0 || (files == 0 && position.getPosition() > start.getPosition());
+  }
+
+  private static void awaitTrue(BooleanSupplier condition) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    while (!condition.getAsBoolean()) {
+      if (System.nanoTime() > deadline) {
+        fail("Condition not met within " + TIMEOUT_SECONDS + " seconds");
+      }
+      Thread.sleep(10);
+    }
+  }
+
+  private void dropTables() {
+    jdbcTemplate.execute("DROP TABLE IF EXISTS " + TABLE + ", " + OTHER_TABLE);
+  }
+}
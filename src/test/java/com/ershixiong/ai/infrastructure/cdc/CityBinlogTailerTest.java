@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.cdc;
+
+import com.ershixiong.ai.domain.event.CityChangedEvent;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.cache.CachingCityRepository;
+import com.ershixiong.ai.infrastructure.cache.CityInvalidation;
+import com.ershixiong.ai.infrastructure.cache.CityInvalidationBus;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.Serializable;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+class CityBinlogTailerTest {
+
+  private static final Map<String, Integer> ORDINALS =
+      CityBinlogTailer.ordinalsOf(
+          List.of("ID", "Name", "CountryCode", "District", "Population", "version", "updated_at"));
+
+  @Test
+  void toCity_WithByteArrayColumns_ShouldDecodeUtf8() {
+    // Arrange
+    Serializable[] row = {
+      42L,
+      "上海".getBytes(StandardCharsets.UTF_8),
+      "CHN".getBytes(StandardCharsets.UTF_8),
+      "Shanghai".getBytes(StandardCharsets.UTF_8),
+      24870895,
+      1001L,
+      1760000000000L
+    };
+
+    // Act
+    City city = CityBinlogTailer.toCity(row, ORDINALS);
+
+    // Assert
+    assertEquals(42L, city.getId());
+    assertEquals("上海", city.getName());
+    assertEquals("CHN", city.getCountrycode());
+    assertEquals("Shanghai", city.getDistrict());
+    assertEquals(24870895, city.getPopulation());
+    assertEquals(1001L, city.getVersion());
+  }
+
+  @Test
+  void toCity_WithoutVersionColumn_ShouldLeaveVersionNull() {
+    // Arrange
+    Map<String, Integer> ordinals =
+        CityBinlogTailer.ordinalsOf(List.of("id", "name", "countrycode", "district", "population"));
+    Serializable[] row = {7, "Kabul", "AFG", "Kabol", 1780000};
+
+    // Act
+    City city = CityBinlogTailer.toCity(row, ordinals);
+
+    // Assert
+    assertEquals(7L, city.getId());
+    assertEquals("Kabul", city.getName());
+    assertNull(city.getVersion());
+  }
+
+  @Test
+  void positionStore_SaveThenLoad_ShouldRoundTrip(@TempDir Path dir) throws Exception {
+    // Arrange
+    BinlogPositionStore store = new BinlogPositionStore(dir.resolve("cdc/city.position"));
+
+    // Act
+    Optional<BinlogPosition> empty = store.load();
+    store.save(new BinlogPosition("mysql-bin.000001", 4L));
+    store.save(new BinlogPosition("mysql-bin.000002", 1234L));
+
+    // Assert
+    assertTrue(empty.isEmpty());
+    assertEquals(Optional.of(new BinlogPosition("mysql-bin.000002", 1234L)), store.load());
+    assertFalse(Files.exists(dir.resolve("cdc/city.position.tmp")));
+  }
+
+  @Test
+  void positionStore_WithCorruptFile_ShouldLoadEmpty(@TempDir Path dir) throws Exception {
+    // Arrange
+    Path file = dir.resolve("city.position");
+    Files.writeString(file, "garbage");
+
+    // Act & Assert
+    assertTrue(new BinlogPositionStore(file).load().isEmpty());
+  }
+
+  @Test
+  void cachingRepository_OnBinlogEvent_ShouldEvictAndPublishForcedInvalidation() {
+    // Arrange
+    CityRepository delegate = mock(CityRepository.class);
+    CityInvalidationBus bus = mock(CityInvalidationBus.class);
+    City stored = City.builder().id(1L).name("Old").version(5L).build();
+    when(delegate.findById(1L)).thenReturn(Optional.of(stored));
+    CachingCityRepository repository = new CachingCityRepository(delegate, bus, 100);
+    repository.findById(1L);
+    City updated = City.builder().id(1L).name("New").version(5L).build();
+
+    // Act
+    repository.onCityChanged(
+        new CityChangedEvent(
+            CityChangedEvent.Type.UPDATED, 1L, updated, CityChangedEvent.Source.BINLOG));
+    repository.onCityChanged(
+        new CityChangedEvent(
+            CityChangedEvent.Type.DELETED, 2L, null, CityChangedEvent.Source.BINLOG));
+
+    // Assert
+    assertEquals(0, repository.size());
+    verify(bus).publish(1L, CityInvalidation.DELETED_VERSION);
+    verify(bus).publish(2L, CityInvalidation.DELETED_VERSION);
+  }
+
+  @Test
+  void cachingRepository_OnApplicationEvent_ShouldIgnore() {
+    // Arrange
+    CityRepository delegate = mock(CityRepository.class);
+    CityInvalidationBus bus = mock(CityInvalidationBus.class);
+    CachingCityRepository repository = new CachingCityRepository(delegate, bus, 100);
+
+    // Act
+    repository.onCityChanged(CityChangedEvent.deleted(3L));
+
+    // Assert
+    verify(bus, never()).publish(anyLong(), anyLong());
+  }
+}
@@ -0,0 +1,174 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityAggregation;
+import com.ershixiong.ai.domain.model.CityAggregationQuery;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.model.CityGroupBy;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.IntSummaryStatistics;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 列式快照聚合与逐行聚合的耗时对比基准。
+ *
+ * <p>生成相同的城市数据，分别以列式快照和对City列表做Stream分组（相当于客户端拉取全表后自行聚合）
+ * 计算全表汇总、按国家分组、按国家过滤后按行政区分组三种查询，统计多次执行的中位耗时。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=ColumnarAggregationBenchmarkTest，
+ * 可通过benchmark.rows、benchmark.iterations调整参数。
+ */
+@Tag("benchmark")
+class ColumnarAggregationBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 2_000_000);
+  private static final int ITERATIONS = Integer.getInteger("benchmark.iterations", 20);
+
+  @Test
+  void compare_ColumnarAndRowWise_AggregationLatency() {
+    // Arrange
+    List<City> cities = new ArrayList<>(ROWS);
+    for (int i = 1; i <= ROWS; i++) {
+      cities.add(city(i));
+    }
+    long loadStart = System.nanoTime();
+    try (ColumnarCitySnapshot snapshot =
+        new ColumnarCitySnapshot(
+            new ListChangeRepository(cities), 10_000, Runtime.getRuntime().availableProcessors())) {
+      snapshot.refresh();
+      long loadMillis = (System.nanoTime() - loadStart) / 1_000_000;
+      CityAggregationQuery byCountry =
+          CityAggregationQuery.builder().groupBy(CityGroupBy.COUNTRYCODE).build();
+      CityAggregationQuery filtered =
+          CityAggregationQuery.builder()
+              .groupBy(CityGroupBy.DISTRICT)
+              .countrycode("C07")
+              .minPopulation(100_000)
+              .build();
+
+      // Act
+      double columnarTotal = medianMillis(() -> snapshot.aggregate(new CityAggregationQuery()));
+      double rowTotal =
+          medianMillis(
+              () -> cities.stream().mapToInt(City::getPopulation).summaryStatistics());
+      double columnarByCountry = medianMillis(() -> snapshot.aggregate(byCountry));
+      double rowByCountry =
+          medianMillis(
+              () ->
+                  cities.stream()
+                      .collect(
+                          Collectors.groupingBy(
+                              City::getCountrycode,
+                              Collectors.summarizingInt(City::getPopulation))));
+      double columnarFiltered = medianMillis(() -> snapshot.aggregate(filtered));
+      double rowFiltered =
+          medianMillis(
+              () ->
+                  cities.stream()
+                      .filter(c -> c.getCountrycode().equals("C07"))
+                      .filter(c -> c.getPopulation() >= 100_000)
+                      .collect(
+                          Collectors.groupingBy(
+                              City::getDistrict,
+                              Collectors.summarizingInt(City::getPopulation))));
+
+      System.out.printf(
+          "rows=%d cores=%d load=%dms columns=%dMB%n",
+          ROWS,
+          Runtime.getRuntime().availableProcessors(),
+          loadMillis,
+          snapshot.getColumnBytes() >> 20);
+      System.out.printf(
+          "total      columnar %8.2fms   row-wise %8.2fms%n", columnarTotal, rowTotal);
+      System.out.printf(
+          "by country columnar %8.2fms   row-wise %8.2fms%n", columnarByCountry, rowByCountry);
+      System.out.printf(
+          "filtered   columnar %8.2fms   row-wise %8.2fms%n", columnarFiltered, rowFiltered);
+
+      // Assert
+      CityAggregation result = snapshot.aggregate(byCountry);
+      Map<String, IntSummaryStatistics> expected =
+          cities.stream()
+              .collect(
+                  Collectors.groupingBy(
+                      City::getCountrycode, Collectors.summarizingInt(City::getPopulation)));
+      assertEquals(expected.size(), result.getGroups().size());
+      result
+          .getGroups()
+          .forEach(g -> assertEquals(expected.get(g.getKey()).getSum(), g.getSum()));
+      assertTrue(columnarByCountry < rowByCountry, "columnar grouping should beat row-wise");
+    }
+  }
+
+  private static City city(int id) {
+    // 约200个国家、每国50个行政区，人口为确定性的伪随机数
+    int hash = id * 0x9E3779B1;
+    String country = String.format("C%02d", Math.floorMod(hash >>> 8, 200));
+    return new City(
+        (long) id,
+        "City" + id,
+        country,
+        country + "-" + Math.floorMod(hash >>> 16, 50),
+        Math.floorMod(hash, 5_000_000),
+        (long) id);
+  }
+
+  private static double medianMillis(Supplier<?> query) {
+    query.get();
+    double[] millis = new double[ITERATIONS];
+    for (int i = 0; i < ITERATIONS; i++) {
+      long start = System.nanoTime();
+      assertNotNull(query.get());
+      millis[i] = (System.nanoTime() - start) / 1e6;
+    }
+    Arrays.sort(millis);
+    return millis[ITERATIONS / 2];
+  }
+
+  /** 以版本号为下标分批返回列表中城市的变更仓储 */
+  private record ListChangeRepository(List<City> cities) implements CityChangeRepository {
+
+    @Override
+    public CityChangeSet findChangesSince(long sinceVersion, int limit) {
+      int from = (int) Math.max(sinceVersion, 0);
+      int to = Math.min(cities.size(), from + limit);
+      return CityChangeSet.builder()
+          .upserts(cities.subList(from, to))
+          .deletedIds(List.of())
+          .lastVersion(to)
+          .hasMore(to < cities.size())
+          .build();
+    }
+
+    @Override
+    public int compactTombstones(Instant deletedBefore) {
+      return 0;
+    }
+  }
+}
@@ -0,0 +1,295 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.columnar;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityAggregation;
+import com.ershixiong.ai.domain.model.CityAggregationQuery;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.model.CityGroupBy;
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ColumnarCitySnapshotTest {
+
+  private static final String[] COUNTRIES = {"AFG", "NLD", "CHN", "USA", "BRA"};
+
+  private CityChangeRepository changeRepository;
+  private ColumnarCitySnapshot snapshot;
+
+  @BeforeEach
+  void setUp() {
+    changeRepository = mock(CityChangeRepository.class);
+    snapshot = new ColumnarCitySnapshot(changeRepository, 1000, 4);
+  }
+
+  @AfterEach
+  void tearDown() {
+    snapshot.close();
+  }
+
+  /** 跨越多个段的随机城市，约5%人口未知 */
+  private static List<City> randomCities(int count, long firstId, Random random) {
+    List<City> cities = new ArrayList<>();
+    for (int i = 0; i < count; i++) {
+      String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+      Integer population = random.nextInt(20) == 0 ? null : random.nextInt(5_000_000);
+      cities.add(
+          new City(
+              firstId + i,
+              "City" + i,
+              country,
+              country + "-" + random.nextInt(40),
+              population,
+              firstId + i));
+    }
+    return cities;
+  }
+
+  @Test
+  void aggregate_ShouldMatchRowWiseComputation() {
+    // Arrange
+    Random random = new Random(42);
+    List<City> cities = randomCities(ColumnChunk.ROWS * 3 + 17, 1, random);
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(cities, List.of(), cities.size()));
+    snapshot.refresh();
+
+    // Act
+    CityAggregation total = snapshot.aggregate(new CityAggregationQuery());
+    CityAggregation byCountry =
+        snapshot.aggregate(
+            CityAggregationQuery.builder().groupBy(CityGroupBy.COUNTRYCODE).build());
+    CityAggregation byDistrictFiltered =
+        snapshot.aggregate(
+            CityAggregationQuery.builder()
+                .groupBy(CityGroupBy.DISTRICT)
+                .countrycode("NLD")
+                .minPopulation(1_000_000)
+                .maxPopulation(3_000_000)
+                .build());
+
+    // Assert
+    assertEquals(cities.size(), total.getScannedRows());
+    assertEquals(expected(cities, null, city -> true), total.getGroups());
+    assertEquals(expected(cities, City::getCountrycode, city -> true), byCountry.getGroups());
+    Predicate<City> filter =
+        city ->
+            city.getCountrycode().equals("NLD")
+                && city.getPopulation() != null
+                && city.getPopulation() >= 1_000_000
+                && city.getPopulation() <= 3_000_000;
+    assertEquals(expected(cities, City::getDistrict, filter), byDistrictFiltered.getGroups());
+    assertEquals(cities.stream().filter(filter).count(), byDistrictFiltered.getMatchedRows());
+  }
+
+  @Test
+  void refresh_ShouldApplyIncrementalUpsertsAndDeletes() {
+    // Arrange
+    Random random = new Random(7);
+    List<City> initial = randomCities(ColumnChunk.ROWS + 100, 1, random);
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(initial, List.of(), initial.size()));
+    snapshot.refresh();
+    Map<Long, City> reference = new TreeMap<>();
+    initial.forEach(city -> reference.put(city.getId(), city));
+
+    // 删除第一段中的行、最后一行和不存在的ID，更新一行的国家代码，并追加新城市
+    City moved = new City(5L, "Moved", "XYZ", "Nowhere", 10, initial.size() + 1L);
+    List<City> appended = randomCities(50, initial.size() + 1L, random);
+    List<City> upserts = new ArrayList<>(appended);
+    upserts.add(moved);
+    List<Long> deleted = List.of(1L, 2L, (long) initial.size(), 999_999L);
+    when(changeRepository.findChangesSince(eq((long) initial.size()), anyInt()))
+        .thenReturn(changes(upserts, deleted, initial.size() + 100L));
+    upserts.forEach(city -> reference.put(city.getId(), city));
+    deleted.forEach(reference::remove);
+
+    // Act
+    CityAggregation before = snapshot.aggregate(new CityAggregationQuery());
+    int applied = snapshot.refresh();
+    CityAggregation after =
+        snapshot.aggregate(
+            CityAggregationQuery.builder().groupBy(CityGroupBy.COUNTRYCODE).build());
+
+    // Assert
+    assertEquals(upserts.size() + deleted.size(), applied);
+    assertEquals(initial.size(), before.getMatchedRows());
+    assertEquals(reference.size(), snapshot.size());
+    assertEquals(initial.size() + 100L, after.getVersion());
+    assertEquals(
+        expected(List.copyOf(reference.values()), City::getCountrycode, city -> true),
+        after.getGroups());
+  }
+
+  @Test
+  void refresh_WhenChangeFeedFails_ShouldKeepPreviousVersionAndRecover() {
+    // Arrange
+    List<City> initial = randomCities(100, 1, new Random(1));
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(initial, List.of(), 100L));
+    snapshot.refresh();
+    City renamed = new City(3L, "Renamed", "NLD", "Utrecht", 500, 101L);
+    when(changeRepository.findChangesSince(eq(100L), anyInt()))
+        .thenReturn(
+            CityChangeSet.builder()
+                .upserts(List.of(renamed))
+                .deletedIds(List.of(4L))
+                .lastVersion(101L)
+                .hasMore(true)
+                .build());
+    when(changeRepository.findChangesSince(eq(101L), anyInt()))
+        .thenThrow(new DataAccessResourceFailureException("Communications link failure"))
+        .thenReturn(changes(List.of(), List.of(), 101L));
+
+    // Act
+    assertThrows(DataAccessResourceFailureException.class, snapshot::refresh);
+    CityAggregation afterFailure = snapshot.aggregate(new CityAggregationQuery());
+    snapshot.refresh();
+    CityAggregation recovered =
+        snapshot.aggregate(CityAggregationQuery.builder().district("Utrecht").build());
+
+    // Assert
+    assertEquals(100L, afterFailure.getVersion());
+    assertEquals(100, afterFailure.getMatchedRows());
+    assertEquals(101L, recovered.getVersion());
+    assertEquals(99, snapshot.size());
+    assertEquals(1, recovered.getMatchedRows());
+    assertEquals(500L, recovered.getGroups().get(0).getSum());
+  }
+
+  @Test
+  void refresh_WhenResetRequired_ShouldRebuildFromScratch() {
+    // Arrange
+    List<City> initial = randomCities(10, 1, new Random(3));
+    List<City> rebuilt = randomCities(4, 100, new Random(4));
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(initial, List.of(), 10L))
+        .thenReturn(changes(rebuilt, List.of(), 200L));
+    when(changeRepository.findChangesSince(eq(10L), anyInt()))
+        .thenReturn(CityChangeSet.builder().resetRequired(true).lastVersion(10L).build());
+    snapshot.refresh();
+
+    // Act
+    snapshot.refresh();
+    CityAggregation result = snapshot.aggregate(new CityAggregationQuery());
+
+    // Assert
+    assertEquals(200L, result.getVersion());
+    assertEquals(4, result.getMatchedRows());
+    assertEquals(expected(rebuilt, null, city -> true), result.getGroups());
+  }
+
+  @Test
+  void aggregate_WhenFilterMatchesNothing_ShouldReturnEmptyGroups() {
+    // Arrange
+    List<City> cities =
+        List.of(
+            new City(1L, "Kabul", "AFG", "Kabol", 1780000, 1L),
+            new City(2L, "Unknown", "AFG", "Kabol", null, 2L));
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(cities, List.of(), 2L));
+    snapshot.refresh();
+
+    // Act
+    CityAggregation unknownCountry =
+        snapshot.aggregate(CityAggregationQuery.builder().countrycode("ZZZ").build());
+    CityAggregation unknownCountryGrouped =
+        snapshot.aggregate(
+            CityAggregationQuery.builder()
+                .groupBy(CityGroupBy.DISTRICT)
+                .countrycode("ZZZ")
+                .build());
+    CityAggregation onlyUnknownPopulation =
+        snapshot.aggregate(CityAggregationQuery.builder().maxPopulation(-1).build());
+
+    // Assert
+    assertEquals(0, unknownCountry.getMatchedRows());
+    assertEquals(1, unknownCountry.getGroups().size());
+    assertNull(unknownCountry.getGroups().get(0).getSum());
+    assertTrue(unknownCountryGrouped.getGroups().isEmpty());
+    assertEquals(0, onlyUnknownPopulation.getMatchedRows());
+  }
+
+  @Test
+  void aggregate_WhenNotLoaded_ShouldFail() {
+    // Act & Assert
+    assertFalse(snapshot.isReady());
+    assertThrows(
+        IllegalStateException.class, () -> snapshot.aggregate(new CityAggregationQuery()));
+  }
+
+  /** 逐行计算的参考结果，按分组键升序，key为null表示不分组 */
+  private static List<CityPopulationStats> expected(
+      List<City> cities, Function<City, String> key, Predicate<City> filter) {
+    Map<String, List<City>> groups =
+        new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+    if (key == null) {
+      groups.put(null, new ArrayList<>());
+    }
+    for (City city : cities) {
+      if (filter.test(city)) {
+        groups
+            .computeIfAbsent(key == null ? null : key.apply(city), k -> new ArrayList<>())
+            .add(city);
+      }
+    }
+    List<CityPopulationStats> result = new ArrayList<>();
+    groups.forEach(
+        (k, members) -> {
+          List<Integer> known =
+              members.stream().map(City::getPopulation).filter(p -> p != null).toList();
+          long sum = known.stream().mapToLong(Integer::longValue).sum();
+          result.add(
+              CityPopulationStats.builder()
+                  .key(k)
+                  .count(members.size())
+                  .sum(known.isEmpty() ? null : sum)
+                  .min(known.stream().min(Integer::compare).orElse(null))
+                  .max(known.stream().max(Integer::compare).orElse(null))
+                  .avg(known.isEmpty() ? null : (double) sum / known.size())
+                  .build());
+        });
+    return result;
+  }
+
+  private static CityChangeSet changes(List<City> upserts, List<Long> deletedIds, long last) {
+    return CityChangeSet.builder()
+        .upserts(upserts)
+        .deletedIds(deletedIds)
+        .lastVersion(last)
+        .build();
+  }
+}
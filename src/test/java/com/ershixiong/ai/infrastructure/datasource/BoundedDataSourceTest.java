@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.SQLTransientConnectionException;
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 以H2内存库作为被包装的数据源，验证信号量对并发连接数的限制 */
+class BoundedDataSourceTest {
+
+  private BoundedDataSource dataSource;
+
+  @BeforeEach
+  void setUp() {
+    JdbcDataSource target = new JdbcDataSource();
+    target.setURL("jdbc:h2:mem:bounded" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    dataSource = new BoundedDataSource("test", target, 2, Duration.ofMillis(100));
+  }
+
+  @Test
+  void getConnection_WhenPermitsExhausted_ShouldTimeOut() throws SQLException {
+    // Arrange
+    try (Connection first = dataSource.getConnection();
+        Connection second = dataSource.getConnection()) {
+      // Act
+      long start = System.nanoTime();
+      SQLException exception = assertThrows(SQLException.class, dataSource::getConnection);
+      long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+      // Assert
+      assertInstanceOf(SQLTransientConnectionException.class, exception);
+      assertTrue(elapsedMillis >= 90, "timed out after " + elapsedMillis + "ms");
+      assertEquals(0, dataSource.getAvailable());
+    }
+  }
+
+  @Test
+  void close_WhenCalledTwice_ShouldReleasePermitOnce() throws SQLException {
+    // Arrange
+    Connection connection = dataSource.getConnection();
+
+    // Act
+    connection.close();
+    connection.close();
+
+    // Assert
+    assertTrue(connection.isClosed());
+    assertEquals(2, dataSource.getAvailable());
+  }
+
+  @Test
+  void getConnection_WhenPermitReleased_ShouldWakeWaitingThread() throws Exception {
+    // Arrange
+    dataSource =
+        new BoundedDataSource("test", dataSource.getTargetDataSource(), 1, Duration.ofSeconds(5));
+    Connection held = dataSource.getConnection();
+    CountDownLatch acquired = new CountDownLatch(1);
+    AtomicReference<Throwable> failure = new AtomicReference<>();
+    Thread waiter =
+        Thread.ofVirtual()
+            .start(
+                () -> {
+                  try (Connection connection = dataSource.getConnection()) {
+                    acquired.countDown();
+                  } catch (Throwable e) {
+                    failure.set(e);
+                  }
+                });
+    while (dataSource.getWaiting() == 0) {
+      Thread.sleep(5);
+    }
+
+    // Act
+    held.close();
+
+    // Assert
+    assertTrue(acquired.await(5, TimeUnit.SECONDS));
+    waiter.join();
+    assertNull(failure.get());
+    assertEquals(1, dataSource.getAvailable());
+  }
+}
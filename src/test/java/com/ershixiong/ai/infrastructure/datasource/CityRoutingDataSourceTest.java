@@ -0,0 +1,205 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 以两个独立的H2内存库分别充当主库和从库，复制由测试手动推进 */
+class CityRoutingDataSourceTest {
+
+  private final AtomicLong clock = new AtomicLong();
+  private DataSource primary;
+  private DataSource replica;
+  private ReplicaLagMonitor monitor;
+  private CityRoutingDataSource routingDataSource;
+
+  private static DataSource database(String name) throws SQLException {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:" + name + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    execute(
+        dataSource,
+        "CREATE TABLE city_change_seq (name VARCHAR(32) PRIMARY KEY, seq BIGINT NOT NULL)",
+        "INSERT INTO city_change_seq VALUES ('city', 0)",
+        "CREATE TABLE city (id BIGINT PRIMARY KEY, name VARCHAR(35))",
+        "INSERT INTO city VALUES (1, '" + name + "')");
+    return dataSource;
+  }
+
+  private static void execute(DataSource dataSource, String... sqls) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      for (String sql : sqls) {
+        statement.execute(sql);
+      }
+    }
+  }
+
+  private static void setVersion(DataSource dataSource, long version) throws SQLException {
+    execute(dataSource, "UPDATE city_change_seq SET seq = " + version + " WHERE name = 'city'");
+  }
+
+  /** 读取id为1的城市名称，用于判断连接来自哪个库 */
+  private String readCityName() {
+    return ReadRoutingContext.replicaRead(
+        () -> {
+          try (Connection connection = routingDataSource.getConnection();
+              Statement statement = connection.createStatement();
+              ResultSet resultSet = statement.executeQuery("SELECT name FROM city WHERE id = 1")) {
+            resultSet.next();
+            return resultSet.getString(1);
+          } catch (SQLException e) {
+            throw new IllegalStateException(e);
+          }
+        });
+  }
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    primary = database("primary");
+    replica = database("replica");
+    monitor = new ReplicaLagMonitor(primary, Map.of("replica", replica), clock::get);
+    routingDataSource =
+        new CityRoutingDataSource(
+            primary, Map.of("replica", replica), monitor, Duration.ofSeconds(1));
+  }
+
+  @AfterEach
+  void tearDown() {
+    ReadRoutingContext.clear();
+    routingDataSource.close();
+  }
+
+  @Test
+  void replicaRead_WithCaughtUpReplica_ShouldUseReplica() throws SQLException {
+    // Arrange
+    setVersion(primary, 10);
+    setVersion(replica, 10);
+    monitor.refresh();
+
+    // Act & Assert
+    assertEquals("replica", readCityName());
+    assertEquals(1, routingDataSource.getReplicaReads());
+  }
+
+  @Test
+  void read_WithoutReplicaDeclaration_ShouldUsePrimary() throws SQLException {
+    // Arrange
+    monitor.refresh();
+
+    // Act
+    String name;
+    try (Connection connection = routingDataSource.getConnection();
+        Statement statement = connection.createStatement();
+        ResultSet resultSet = statement.executeQuery("SELECT name FROM city WHERE id = 1")) {
+      resultSet.next();
+      name = resultSet.getString(1);
+    }
+
+    // Assert
+    assertEquals("primary", name);
+  }
+
+  @Test
+  void replicaRead_WhenLagExceedsThreshold_ShouldFallBackToPrimary() throws SQLException {
+    // Arrange
+    setVersion(primary, 5);
+    setVersion(replica, 5);
+    monitor.refresh();
+    setVersion(primary, 6);
+    monitor.refresh();
+    assertEquals("replica", readCityName());
+
+    // Act
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    monitor.refresh();
+
+    // Assert
+    assertEquals(Duration.ofSeconds(2), monitor.getLag("replica"));
+    assertEquals("primary", readCityName());
+    assertEquals(1, routingDataSource.getPrimaryFallbacks());
+
+    // 从库追平后恢复从库读
+    setVersion(replica, 6);
+    monitor.refresh();
+    assertEquals(Duration.ZERO, monitor.getLag("replica"));
+    assertEquals("replica", readCityName());
+  }
+
+  @Test
+  void replicaRead_WithTokenAheadOfReplica_ShouldReadYourWritesFromPrimary() throws SQLException {
+    // Arrange
+    setVersion(primary, 20);
+    setVersion(replica, 19);
+    monitor.refresh();
+
+    // Act & Assert
+    ReadRoutingContext.requireVersion(20);
+    assertEquals("primary", readCityName());
+
+    setVersion(replica, 20);
+    monitor.refresh();
+    assertEquals("replica", readCityName());
+  }
+
+  @Test
+  void replicaRead_AfterWriteInSameRequest_ShouldRequireWrittenVersion() throws SQLException {
+    // Arrange
+    setVersion(primary, 3);
+    setVersion(replica, 3);
+    monitor.refresh();
+
+    // Act
+    ReadRoutingContext.begin();
+    ReadRoutingContext.recordWrite(4);
+
+    // Assert
+    assertEquals(4L, ReadRoutingContext.getLastWriteVersion());
+    ReadRoutingContext.clear();
+    ReadRoutingContext.recordWrite(5);
+    assertNull(ReadRoutingContext.getLastWriteVersion());
+    ReadRoutingContext.begin();
+    ReadRoutingContext.recordWrite(4);
+    assertEquals("primary", readCityName());
+  }
+
+  @Test
+  void replicaRead_WhenReplicaUnavailable_ShouldUsePrimary() throws SQLException {
+    // Arrange
+    monitor.refresh();
+    execute(replica, "DROP TABLE city_change_seq");
+
+    // Act
+    monitor.refresh();
+
+    // Assert
+    assertEquals("primary", readCityName());
+  }
+}
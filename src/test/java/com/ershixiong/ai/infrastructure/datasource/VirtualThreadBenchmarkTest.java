@@ -0,0 +1,232 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.datasource;
+
+import com.zaxxer.hikari.HikariDataSource;
+import org.h2.tools.Server;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 平台线程与虚拟线程的吞吐对比基准。
+ *
+ * <p>H2以TCP服务模式运行，客户端经本地延迟代理访问，每个响应包延迟固定时间，模拟高延迟数据库。
+ * 平台线程模式的线程数小于连接池大小，模拟请求线程成为瓶颈的实例；虚拟线程模式每个请求一个线程，
+ * 并发连接数由{@link BoundedDataSource}限制在连接池大小。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=VirtualThreadBenchmarkTest，
+ * 可通过benchmark.delay-ms、benchmark.requests、benchmark.pool-size、benchmark.platform-threads调整参数。
+ */
+@Tag("benchmark")
+class VirtualThreadBenchmarkTest {
+
+  private static final long DELAY_MILLIS = Long.getLong("benchmark.delay-ms", 5);
+  private static final int REQUESTS = Integer.getInteger("benchmark.requests", 2000);
+  private static final int POOL_SIZE = Integer.getInteger("benchmark.pool-size", 32);
+  private static final int PLATFORM_THREADS = Integer.getInteger("benchmark.platform-threads", 16);
+
+  private Server h2;
+  private DelayProxy proxy;
+  private HikariDataSource pool;
+  private BoundedDataSource dataSource;
+
+  @BeforeEach
+  void setUp() throws Exception {
+    h2 = Server.createTcpServer("-tcpPort", "0", "-ifNotExists").start();
+    proxy = new DelayProxy(h2.getPort(), Duration.ofMillis(DELAY_MILLIS));
+    pool = new HikariDataSource();
+    pool.setJdbcUrl(
+        "jdbc:h2:tcp://localhost:" + proxy.getPort() + "/mem:bench;DB_CLOSE_DELAY=-1");
+    pool.setPoolName("benchmark");
+    pool.setMaximumPoolSize(POOL_SIZE);
+    pool.setMinimumIdle(POOL_SIZE);
+    dataSource =
+        new BoundedDataSource(
+            "benchmark", pool, POOL_SIZE, Duration.ofMillis(pool.getConnectionTimeout()));
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE city (id BIGINT PRIMARY KEY, name VARCHAR(35))");
+      statement.execute("INSERT INTO city SELECT X, 'City' || X FROM SYSTEM_RANGE(1, 1000)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    dataSource.close();
+    proxy.close();
+    h2.stop();
+  }
+
+  @Test
+  void compare_PlatformAndVirtualThreads_UnderHighLatencyDatabase() throws Exception {
+    // Arrange
+    // 预热连接池和两种执行器
+    run(Executors.newFixedThreadPool(PLATFORM_THREADS), POOL_SIZE * 4);
+    run(Executors.newVirtualThreadPerTaskExecutor(), POOL_SIZE * 4);
+
+    // Act
+    Result platform = run(Executors.newFixedThreadPool(PLATFORM_THREADS), REQUESTS);
+    Result virtual = run(Executors.newVirtualThreadPerTaskExecutor(), REQUESTS);
+
+    // Assert
+    System.out.printf(
+        "delay=%dms requests=%d pool=%d platformThreads=%d%n",
+        DELAY_MILLIS, REQUESTS, POOL_SIZE, PLATFORM_THREADS);
+    System.out.printf("platform: %s%nvirtual:  %s%n", platform, virtual);
+    assertTrue(
+        virtual.throughput() > platform.throughput(),
+        "virtual threads should not be bound by the platform thread count");
+  }
+
+  private Result run(ExecutorService executor, int requests) throws Exception {
+    long[] latencies = new long[requests];
+    List<Future<?>> futures = new ArrayList<>(requests);
+    long start = System.nanoTime();
+    try (executor) {
+      for (int i = 0; i < requests; i++) {
+        int index = i;
+        long submitted = System.nanoTime();
+        futures.add(
+            executor.submit(
+                () -> {
+                  pointRead(index % 1000 + 1);
+                  latencies[index] = System.nanoTime() - submitted;
+                  return null;
+                }));
+      }
+      for (Future<?> future : futures) {
+        future.get(1, TimeUnit.MINUTES);
+      }
+    }
+    long elapsed = System.nanoTime() - start;
+    Arrays.sort(latencies);
+    return new Result(
+        requests * (double) TimeUnit.SECONDS.toNanos(1) / elapsed,
+        Duration.ofNanos(latencies[requests / 2]),
+        Duration.ofNanos(latencies[(int) Math.ceil(requests * 0.99) - 1]));
+  }
+
+  private void pointRead(long id) throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement =
+            connection.prepareStatement("SELECT name FROM city WHERE id = ?")) {
+      statement.setLong(1, id);
+      try (ResultSet resultSet = statement.executeQuery()) {
+        assertTrue(resultSet.next());
+      }
+    }
+  }
+
+  private record Result(double throughput, Duration p50, Duration p99) {
+
+    @Override
+    public String toString() {
+      return String.format(
+          "%.0f req/s, p50 %dms, p99 %dms", throughput, p50.toMillis(), p99.toMillis());
+    }
+  }
+
+  /** 本地TCP代理，服务端到客户端方向的每个数据包延迟固定时间后转发 */
+  private static final class DelayProxy implements AutoCloseable {
+
+    private final ServerSocket serverSocket;
+    private final int upstreamPort;
+    private final long delayMillis;
+    private final List<Socket> sockets = new CopyOnWriteArrayList<>();
+
+    DelayProxy(int upstreamPort, Duration delay) throws IOException {
+      this.serverSocket = new ServerSocket(0, 256, InetAddress.getLoopbackAddress());
+      this.upstreamPort = upstreamPort;
+      this.delayMillis = delay.toMillis();
+      Thread.ofVirtual().name("delay-proxy").start(this::accept);
+    }
+
+    int getPort() {
+      return serverSocket.getLocalPort();
+    }
+
+    private void accept() {
+      while (!serverSocket.isClosed()) {
+        try {
+          Socket client = serverSocket.accept();
+          Socket upstream = new Socket(InetAddress.getLoopbackAddress(), upstreamPort);
+          client.setTcpNoDelay(true);
+          upstream.setTcpNoDelay(true);
+          sockets.add(client);
+          sockets.add(upstream);
+          Thread.ofVirtual().start(() -> pump(client, upstream, 0));
+          Thread.ofVirtual().start(() -> pump(upstream, client, delayMillis));
+        } catch (IOException e) {
+          // 代理关闭
+          return;
+        }
+      }
+    }
+
+    private static void pump(Socket from, Socket to, long delayMillis) {
+      byte[] buffer = new byte[8192];
+      try (InputStream in = from.getInputStream();
+          OutputStream out = to.getOutputStream()) {
+        int read;
+        while ((read = in.read(buffer)) >= 0) {
+          if (delayMillis > 0) {
+            Thread.sleep(delayMillis);
+          }
+          out.write(buffer, 0, read);
+          out.flush();
+        }
+      } catch (IOException e) {
+        // 连接关闭
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    }
+
+    @Override
+    public void close() throws IOException {
+      serverSocket.close();
+      for (Socket socket : sockets) {
+        socket.close();
+      }
+    }
+  }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.deadline;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.StatementCallback;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 以H2内存库上的长时间扫描模拟慢查询，验证截止时间到达时语句被中止 */
+class DeadlineTest {
+
+  /** 扫描数十亿行，不被取消时需要运行数分钟 */
+  private static final String SLOW_SQL = "SELECT SUM(X) FROM SYSTEM_RANGE(1, 5000000000)";
+
+  private JdbcDataSource dataSource;
+  private DeadlineWatchdog watchdog;
+
+  @BeforeEach
+  void setUp() {
+    dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:deadline" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    watchdog = new DeadlineWatchdog();
+  }
+
+  @AfterEach
+  void tearDown() {
+    watchdog.close();
+    DeadlineContext.clear();
+  }
+
+  @Test
+  void watch_WhenDeadlineReached_ShouldCancelRunningStatement() throws SQLException {
+    // Arrange
+    Deadline deadline = Deadline.after(Duration.ofMillis(200));
+    watchdog.watch(deadline);
+
+    // Act
+    long start = System.nanoTime();
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement(SLOW_SQL)) {
+      deadline.applyTo(statement);
+      assertThrows(SQLException.class, statement::executeQuery);
+    }
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // Assert
+    assertTrue(deadline.isExpired());
+    assertTrue(elapsedMillis < 5000, "statement ran for " + elapsedMillis + "ms");
+  }
+
+  @Test
+  void applyTo_ShouldRoundRemainingTimeUpToWholeSeconds() throws SQLException {
+    try (Connection connection = dataSource.getConnection();
+        PreparedStatement statement = connection.prepareStatement("SELECT 1")) {
+      // Arrange
+      Deadline deadline = Deadline.after(Duration.ofMillis(10_500));
+
+      // Act
+      deadline.applyTo(statement);
+
+      // Assert
+      assertEquals(11, statement.getQueryTimeout());
+    }
+  }
+
+  @Test
+  void deadlineJdbcTemplate_ShouldApplyRemainingTimeAsQueryTimeout() {
+    // Arrange
+    DeadlineContext.set(Deadline.after(Duration.ofMillis(10_500)));
+
+    // Act
+    Integer timeout =
+        new DeadlineJdbcTemplate(dataSource)
+            .execute((StatementCallback<Integer>) Statement::getQueryTimeout);
+
+    // Assert
+    assertEquals(11, timeout);
+  }
+
+  @Test
+  void call_WhenDeadlineExpired_ShouldFailFastWithoutRunningAction() {
+    // Arrange
+    DeadlineContext.set(Deadline.after(Duration.ZERO));
+    boolean[] executed = {false};
+
+    // Act
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class,
+            () ->
+                DeadlineContext.call(
+                    () -> {
+                      executed[0] = true;
+                      return null;
+                    }));
+
+    // Assert
+    assertEquals(ErrorCode.RPC_CALL_TIMEOUT, exception.getErrorCode());
+    assertFalse(executed[0]);
+  }
+
+  @Test
+  void call_WhenCancelledDuringAction_ShouldTranslateFailureToTimeout() {
+    // Arrange
+    Deadline deadline = Deadline.after(Duration.ofSeconds(10));
+    DeadlineContext.set(deadline);
+
+    // Act
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class,
+            () ->
+                DeadlineContext.call(
+                    () -> {
+                      deadline.cancel();
+                      throw new IllegalStateException("Query execution was interrupted");
+                    }));
+
+    // Assert
+    assertEquals(ErrorCode.RPC_CALL_TIMEOUT, exception.getErrorCode());
+    assertEquals("请求已取消", exception.getMessage());
+    assertInstanceOf(IllegalStateException.class, exception.getCause());
+  }
+
+  @Test
+  void call_WhenActionFailsBeforeDeadline_ShouldRethrowOriginalException() {
+    // Arrange
+    DeadlineContext.set(Deadline.after(Duration.ofSeconds(10)));
+
+    // Act
+    IllegalStateException exception =
+        assertThrows(
+            IllegalStateException.class,
+            () ->
+                DeadlineContext.call(
+                    () -> {
+                      throw new IllegalStateException("boom");
+                    }));
+
+    // Assert
+    assertEquals("boom", exception.getMessage());
+  }
+}
@@ -0,0 +1,149 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class CitySnapshotFileTest {
+
+  @TempDir Path dir;
+
+  @Test
+  void writeAndRead_ShouldRoundTripAllFields() throws IOException {
+    // Arrange
+    Path file = dir.resolve("city-snapshot.bin");
+    List<City> cities =
+        List.of(
+            new City(1L, "Kabul", "AFG", "Kabol", 1780000, 7L),
+            new City(2L, "上海", "CHN", "上海市", null, null),
+            new City(3L, null, null, null, 0, 9L));
+
+    // Act
+    CitySnapshotFile.write(file, cities, 42L);
+    CitySnapshotFile.Contents contents = CitySnapshotFile.read(file);
+
+    // Assert
+    assertEquals(
+        CitySnapshotFile.HEADER_SIZE + 3L * CitySnapshotFile.RECORD_SIZE, Files.size(file));
+    assertEquals(42L, contents.version());
+    assertEquals(cities, contents.cities());
+    assertNotNull(contents.writtenAt());
+  }
+
+  @Test
+  void read_WhenRecordCorrupted_ShouldRejectFile() throws IOException {
+    // Arrange
+    Path file = dir.resolve("city-snapshot.bin");
+    CitySnapshotFile.write(file, List.of(new City(1L, "Kabul", "AFG", "Kabol", 1780000)), 1L);
+    try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+      channel.write(ByteBuffer.wrap(new byte[] {'X'}), CitySnapshotFile.HEADER_SIZE + 30);
+    }
+
+    // Act
+    IOException e = assertThrows(IOException.class, () -> CitySnapshotFile.read(file));
+
+    // Assert
+    assertTrue(e.getMessage().contains("checksum"));
+  }
+
+  @Test
+  void write_WhenFieldTooLong_ShouldKeepPreviousFile() throws IOException {
+    // Arrange
+    Path file = dir.resolve("city-snapshot.bin");
+    CitySnapshotFile.write(file, List.of(new City(1L, "Kabul", "AFG", "Kabol", 1)), 1L);
+    City tooLong = new City(2L, "x".repeat(201), "AFG", "Kabol", 1);
+
+    // Act
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> CitySnapshotFile.write(file, List.of(tooLong), 2L));
+
+    // Assert
+    assertEquals(1L, CitySnapshotFile.read(file).version());
+    try (Stream<Path> files = Files.list(dir)) {
+      assertEquals(1, files.count());
+    }
+  }
+
+  @Test
+  void restore_ShouldWarmStartAndCatchUpFromFileVersion() throws IOException {
+    // Arrange
+    List<City> cities = new ArrayList<>();
+    for (long id = 1; id <= 5000; id++) {
+      cities.add(new City(id, "City" + id, "AFG", "District" + id, (int) id, id));
+    }
+    CityChangeRepository changes = mock(CityChangeRepository.class);
+    when(changes.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(
+            CityChangeSet.builder()
+                .upserts(cities)
+                .deletedIds(List.of())
+                .lastVersion(5000L)
+                .build());
+    CitySnapshot source = new CitySnapshot(changes, 10000);
+    source.refresh();
+    Path file = dir.resolve("city-snapshot.bin");
+    assertTrue(source.persist(file));
+    assertFalse(source.persist(file));
+
+    CityChangeRepository restarted = mock(CityChangeRepository.class);
+    when(restarted.findChangesSince(eq(5000L), anyInt()))
+        .thenReturn(
+            CityChangeSet.builder()
+                .upserts(List.of(new City(5001L, "New", "AFG", "District", 1, 5001L)))
+                .deletedIds(List.of(1L))
+                .lastVersion(5001L)
+                .build());
+    CitySnapshot snapshot = new CitySnapshot(restarted, 10000);
+
+    // Act
+    long start = System.nanoTime();
+    assertTrue(snapshot.restore(file));
+    long restoreMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+    snapshot.refresh();
+
+    // Assert
+    assertTrue(restoreMillis < 1000, "restore took " + restoreMillis + "ms");
+    assertEquals(5000, snapshot.size());
+    assertEquals(5001L, snapshot.getVersion());
+    assertTrue(snapshot.findById(1L).isEmpty());
+    assertEquals("City4000", snapshot.findById(4000L).orElseThrow().getName());
+    verify(restarted, never()).findChangesSince(eq(-1L), anyInt());
+  }
+}
@@ -0,0 +1,224 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.degraded;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.domain.repository.CityChangeRepository;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.repository.LikePattern;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DuplicateKeyException;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class DegradedCityRepositoryTest {
+
+  private static final City KABUL = new City(1L, "Kabul", "AFG", "Kabol", 1780000, 1L);
+  private static final City KANDAHAR = new City(2L, "Kandahar", "AFG", "Qandahar", 237500, 2L);
+
+  private final AtomicLong nanos = new AtomicLong();
+  private CityRepository delegate;
+  private CityChangeRepository changeRepository;
+  private CircuitBreaker breaker;
+  private CitySnapshot snapshot;
+  private DegradedCityRepository repository;
+
+  @BeforeEach
+  void setUp() {
+    delegate = mock(CityRepository.class);
+    changeRepository = mock(CityChangeRepository.class);
+    when(changeRepository.findChangesSince(eq(-1L), anyInt()))
+        .thenReturn(changes(List.of(KABUL, KANDAHAR), List.of(), 2L));
+    breaker = new CircuitBreaker(2, Duration.ofSeconds(10), 2, nanos::get);
+    snapshot = new CitySnapshot(changeRepository, 100);
+    repository = new DegradedCityRepository(delegate, breaker, snapshot);
+    StaleReadContext.begin();
+  }
+
+  @AfterEach
+  void tearDown() {
+    StaleReadContext.clear();
+  }
+
+  @Test
+  void read_WhenDatabaseUnavailable_ShouldOpenBreakerAndServeSnapshot() {
+    // Arrange
+    snapshot.refresh();
+    when(delegate.findById(anyLong())).thenThrow(unavailable());
+
+    // Act
+    Optional<City> first = repository.findById(1L);
+    Optional<City> second = repository.findById(2L);
+    Optional<City> third = repository.findById(1L);
+
+    // Assert
+    assertEquals("Kabul", first.orElseThrow().getName());
+    assertEquals("Kandahar", second.orElseThrow().getName());
+    assertEquals("Kabul", third.orElseThrow().getName());
+    assertEquals(CircuitBreaker.State.OPEN, breaker.getState());
+    // 熔断后不再访问数据库
+    verify(delegate, times(2)).findById(anyLong());
+    assertTrue(StaleReadContext.current().isStale());
+    assertEquals(snapshot.getRefreshedAt(), StaleReadContext.current().getSnapshotTime());
+  }
+
+  @Test
+  void write_WhenBreakerOpen_ShouldFailFastWithServiceUnavailable() {
+    // Arrange
+    snapshot.refresh();
+    when(delegate.findAll()).thenThrow(unavailable());
+    repository.findAll();
+    repository.findAll();
+
+    // Act
+    BusinessException e =
+        assertThrows(BusinessException.class, () -> repository.save(new City()));
+
+    // Assert
+    assertEquals(ErrorCode.RPC_SERVICE_UNAVAILABLE, e.getErrorCode());
+    verify(delegate, never()).save(any());
+  }
+
+  @Test
+  void read_WhenHalfOpenProbesSucceed_ShouldCloseBreaker() {
+    // Arrange
+    snapshot.refresh();
+    when(delegate.findById(anyLong())).thenThrow(unavailable());
+    repository.findById(1L);
+    repository.findById(1L);
+    reset(delegate);
+    when(delegate.findById(1L)).thenReturn(Optional.of(KABUL));
+    StaleReadContext.begin();
+
+    // Act
+    repository.findById(1L);
+    boolean servedFromSnapshotWhileOpen = StaleReadContext.current().isStale();
+    nanos.addAndGet(TimeUnit.SECONDS.toNanos(10));
+    StaleReadContext.begin();
+    repository.findById(1L);
+    repository.findById(1L);
+
+    // Assert
+    assertTrue(servedFromSnapshotWhileOpen);
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+    assertFalse(StaleReadContext.current().isStale());
+    verify(delegate, times(2)).findById(1L);
+  }
+
+  @Test
+  void failure_WhenNotConnectionOrTimeout_ShouldNotCountTowardsBreaker() {
+    // Arrange
+    when(delegate.save(any())).thenThrow(new DuplicateKeyException("duplicate"));
+
+    // Act
+    for (int i = 0; i < 5; i++) {
+      assertThrows(DuplicateKeyException.class, () -> repository.save(new City()));
+    }
+
+    // Assert
+    assertEquals(CircuitBreaker.State.CLOSED, breaker.getState());
+  }
+
+  @Test
+  void read_WhenSnapshotNotLoaded_ShouldFailWithServiceUnavailableWhileOpen() {
+    // Arrange
+    when(delegate.findAll()).thenThrow(unavailable());
+    assertThrows(DataAccessResourceFailureException.class, repository::findAll);
+    assertThrows(DataAccessResourceFailureException.class, repository::findAll);
+
+    // Act
+    BusinessException e = assertThrows(BusinessException.class, repository::findAll);
+
+    // Assert
+    assertEquals(ErrorCode.RPC_SERVICE_UNAVAILABLE, e.getErrorCode());
+  }
+
+  @Test
+  void refresh_ShouldApplyIncrementalChangesAndRebuildAfterReset() {
+    // Arrange
+    snapshot.refresh();
+    City renamed = new City(1L, "Kabul City", "AFG", "Kabol", 1780000, 3L);
+    when(changeRepository.findChangesSince(eq(2L), anyInt()))
+        .thenReturn(changes(List.of(renamed), List.of(2L), 4L));
+    when(changeRepository.findChangesSince(eq(4L), anyInt()))
+        .thenReturn(CityChangeSet.builder().resetRequired(true).lastVersion(4L).build());
+
+    // Act
+    int applied = snapshot.refresh();
+    List<City> afterIncrement = snapshot.findAll();
+    snapshot.refresh();
+
+    // Assert
+    assertEquals(2, applied);
+    assertEquals(List.of("Kabul City"), afterIncrement.stream().map(City::getName).toList());
+    assertEquals(2, snapshot.size());
+    assertEquals(2L, snapshot.getVersion());
+  }
+
+  @Test
+  void findByNameLike_ShouldMatchLikePatternCaseInsensitivelyAndPage() {
+    // Arrange
+    snapshot.refresh();
+
+    // Act
+    Page<City> firstPage = snapshot.findByNameLike("%ka%", new Page<>(1, 1));
+    Page<City> secondPage = snapshot.findByNameLike("%ka%", new Page<>(2, 1));
+    Page<City> single = snapshot.findByNameLike("Kab_l", new Page<>(1, 10));
+
+    // Assert
+    assertEquals(2, firstPage.getTotal());
+    assertEquals("Kabul", firstPage.getRecords().get(0).getName());
+    assertEquals("Kandahar", secondPage.getRecords().get(0).getName());
+    assertEquals(1, single.getTotal());
+    assertTrue(LikePattern.compile("100\\%").matcher("100%").matches());
+    assertFalse(LikePattern.compile("100\\%").matcher("1000").matches());
+  }
+
+  private static DataAccessResourceFailureException unavailable() {
+    return new DataAccessResourceFailureException("Communications link failure");
+  }
+
+  private static CityChangeSet changes(List<City> upserts, List<Long> deletedIds, long last) {
+    return CityChangeSet.builder()
+        .upserts(upserts)
+        .deletedIds(deletedIds)
+        .lastVersion(last)
+        .build();
+  }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.hedging;
+
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 以H2内存库充当从库，通过扫描行数模拟快慢从库 */
+class HedgedQueryExecutorTest {
+
+  /** 扫描work表指定行数，慢从库的扫描需要数秒，可以被Statement.cancel中断 */
+  private static final String SQL = "SELECT SUM(X) FROM SYSTEM_RANGE(1, (SELECT n FROM work))";
+
+  private ThreadPoolExecutor pool;
+  private HedgedQueryExecutor executor;
+
+  private static DataSource replica(long rows) throws SQLException {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL("jdbc:h2:mem:replica" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute("CREATE TABLE work (n BIGINT)");
+      statement.execute("INSERT INTO work VALUES (" + rows + ")");
+    }
+    return dataSource;
+  }
+
+  private static long sum(PreparedStatement statement) throws SQLException {
+    try (ResultSet resultSet = statement.executeQuery()) {
+      resultSet.next();
+      return resultSet.getLong(1);
+    }
+  }
+
+  private HedgedQueryExecutor executor(double budgetRatio) {
+    return executor(budgetRatio, Duration.ofSeconds(30));
+  }
+
+  private HedgedQueryExecutor executor(double budgetRatio, Duration queryTimeout) {
+    return new HedgedQueryExecutor(
+        pool,
+        new LatencyTracker(100, 0.95, Duration.ofMillis(1), Duration.ofMillis(50)),
+        new HedgeBudget(budgetRatio, 10),
+        queryTimeout);
+  }
+
+  private void awaitIdlePool() throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (pool.getActiveCount() > 0 && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+  }
+
+  @BeforeEach
+  void setUp() {
+    pool = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(16));
+    executor = executor(1.0);
+  }
+
+  @AfterEach
+  void tearDown() {
+    DeadlineContext.clear();
+    executor.close();
+  }
+
+  @Test
+  void query_WhenFirstReplicaIsFast_ShouldNotHedge() throws SQLException {
+    // Arrange
+    List<DataSource> replicas = List.of(replica(10), replica(10));
+    // 预热H2，排除首次执行的类加载开销
+    executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+    long hedgesBefore = executor.getHedgesIssued();
+
+    // Act
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+
+    // Assert
+    assertEquals(55L, result);
+    assertEquals(hedgesBefore, executor.getHedgesIssued());
+  }
+
+  @Test
+  void query_WhenFirstReplicaIsSlow_ShouldHedgeAndCancelLoser() throws Exception {
+    // Arrange
+    List<DataSource> replicas = List.of(replica(2_000_000_000L), replica(10));
+
+    // Act
+    long start = System.nanoTime();
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // Assert
+    assertEquals(55L, result);
+    assertTrue(elapsedMillis < 1000, "hedged query took " + elapsedMillis + "ms");
+    assertEquals(1, executor.getHedgesIssued());
+    assertEquals(1, executor.getHedgesWon());
+    awaitIdlePool();
+    assertEquals(0, pool.getActiveCount(), "slow replica query should have been cancelled");
+  }
+
+  @Test
+  void query_WhenAllReplicasExceedQueryTimeout_ShouldCancelAndFallBack() throws Exception {
+    // Arrange
+    executor.close();
+    pool = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(16));
+    executor = executor(1.0, Duration.ofMillis(300));
+    List<DataSource> replicas = List.of(replica(2_000_000_000L), replica(2_000_000_000L));
+
+    // Act
+    long start = System.nanoTime();
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // Assert
+    assertEquals(-1L, result);
+    assertTrue(elapsedMillis < 1000, "timed out query took " + elapsedMillis + "ms");
+    assertEquals(1, executor.getFallbacks());
+    awaitIdlePool();
+    assertEquals(0, pool.getActiveCount(), "replica queries should have been cancelled");
+  }
+
+  @Test
+  void query_WithRequestDeadline_ShouldStopWaitingAtRequestDeadline() throws Exception {
+    // Arrange
+    List<DataSource> replicas = List.of(replica(2_000_000_000L), replica(2_000_000_000L));
+    DeadlineContext.set(Deadline.after(Duration.ofMillis(300)));
+
+    // Act
+    long start = System.nanoTime();
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+    long elapsedMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+    // Assert
+    assertEquals(-1L, result);
+    assertTrue(elapsedMillis < 1000, "query outlived request deadline by " + elapsedMillis + "ms");
+    awaitIdlePool();
+    assertEquals(0, pool.getActiveCount(), "replica queries should have been cancelled");
+  }
+
+  @Test
+  void query_WhenBudgetExhaustedAndFirstReplicaHangs_ShouldNotWaitBeyondQueryTimeout()
+      throws Exception {
+    // Arrange
+    executor.close();
+    pool = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(16));
+    executor = executor(0.0, Duration.ofMillis(300));
+    List<DataSource> replicas = List.of(replica(2_000_000_000L), replica(10));
+
+    // Act
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+
+    // Assert
+    assertEquals(-1L, result);
+    assertEquals(0, executor.getHedgesIssued());
+    assertEquals(1, executor.getFallbacks());
+    awaitIdlePool();
+    assertEquals(0, pool.getActiveCount(), "replica query should have been cancelled");
+  }
+
+  @Test
+  void query_WhenBudgetExhausted_ShouldWaitForFirstReplica() throws SQLException {
+    // Arrange
+    executor.close();
+    pool = new ThreadPoolExecutor(4, 4, 0L, TimeUnit.SECONDS, new ArrayBlockingQueue<>(16));
+    executor = executor(0.0);
+    List<DataSource> replicas = List.of(replica(3_000_000L), replica(10));
+
+    // Act
+    long result = executor.query(replicas, SQL, HedgedQueryExecutorTest::sum, () -> -1L);
+
+    // Assert
+    assertEquals(3_000_000L * 3_000_001L / 2, result);
+    assertEquals(0, executor.getHedgesIssued());
+  }
+
+  @Test
+  void query_WhenAllReplicasFail_ShouldFallBack() throws SQLException {
+    // Arrange
+    List<DataSource> replicas = List.of(replica(10), replica(10));
+
+    // Act
+    long result =
+        executor.query(
+            replicas, "SELECT * FROM missing_table", HedgedQueryExecutorTest::sum, () -> -1L);
+
+    // Assert
+    assertEquals(-1L, result);
+    assertEquals(1, executor.getFallbacks());
+  }
+
+  @Test
+  void query_WithSingleReplica_ShouldFallBackWithoutHedging() throws SQLException {
+    // Act
+    long result = executor.query(List.of(replica(10)), SQL, HedgedQueryExecutorTest::sum, () -> 7L);
+
+    // Assert
+    assertEquals(7L, result);
+    assertEquals(0, executor.getQueries());
+  }
+
+  @Test
+  void hedgeBudget_ShouldLimitHedgesToRatioOfRequests() {
+    // Arrange
+    HedgeBudget budget = new HedgeBudget(0.1, 5);
+
+    // Act
+    int acquired = 0;
+    for (int i = 0; i < 100; i++) {
+      budget.deposit();
+      if (budget.tryAcquire()) {
+        acquired++;
+      }
+    }
+
+    // Assert
+    assertEquals(10, acquired);
+  }
+
+  @Test
+  void latencyTracker_ShouldClampPercentileToBounds() {
+    // Arrange
+    LatencyTracker tracker =
+        new LatencyTracker(100, 0.9, Duration.ofMillis(1), Duration.ofMillis(100));
+
+    // Act & Assert
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(100), tracker.delayNanos());
+    for (int i = 1; i <= 100; i++) {
+      tracker.record(TimeUnit.MILLISECONDS.toNanos(i % 10 == 0 ? 500 : 5));
+    }
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(5), tracker.delayNanos());
+    for (int i = 1; i <= 100; i++) {
+      tracker.record(TimeUnit.MICROSECONDS.toNanos(10));
+    }
+    assertEquals(TimeUnit.MILLISECONDS.toNanos(1), tracker.delayNanos());
+  }
+}
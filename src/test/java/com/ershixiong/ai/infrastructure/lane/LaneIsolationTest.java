@@ -0,0 +1,216 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.lane;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.zaxxer.hikari.HikariDataSource;
+import com.zaxxer.hikari.HikariPoolMXBean;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 流量通道隔离负载测试。
+ *
+ * <p>以H2内存库充当数据库，批量线程持有连接休眠模拟长时间导出，对比点查p99：
+ * 独立通道连接池下点查延迟保持平稳，共享连接池下点查需要排队等待批量查询释放连接。
+ */
+class LaneIsolationTest {
+
+  /** 批量查询持有连接的时长 */
+  private static final long BULK_HOLD_NANOS = TimeUnit.MILLISECONDS.toNanos(200);
+
+  private static final int BULK_THREADS = 4;
+
+  private String url;
+  private final List<HikariDataSource> pools = new ArrayList<>();
+  private final List<Thread> bulkThreads = new ArrayList<>();
+  private final AtomicBoolean running = new AtomicBoolean(true);
+
+  @BeforeEach
+  void setUp() throws SQLException {
+    url = "jdbc:h2:mem:lanes" + System.nanoTime() + ";DB_CLOSE_DELAY=-1";
+    try (Connection connection = pool("setup", 1).getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(
+          "CREATE ALIAS PARK_NANOS FOR 'java.util.concurrent.locks.LockSupport.parkNanos'");
+      statement.execute(
+          "CREATE TABLE city (id BIGINT PRIMARY KEY, name VARCHAR(35), population INT)");
+      statement.execute(
+          "INSERT INTO city SELECT X, 'City' || X, X * 1000 FROM SYSTEM_RANGE(1, 1000)");
+    }
+  }
+
+  @AfterEach
+  void tearDown() throws InterruptedException {
+    running.set(false);
+    for (Thread thread : bulkThreads) {
+      thread.join(TimeUnit.SECONDS.toMillis(5));
+    }
+    pools.forEach(HikariDataSource::close);
+    LaneContext.clear();
+  }
+
+  private HikariDataSource pool(String name, int size) {
+    HikariDataSource pool = new HikariDataSource();
+    pool.setJdbcUrl(url);
+    pool.setPoolName("test-" + name);
+    pool.setMaximumPoolSize(size);
+    pool.setMinimumIdle(size);
+    pool.setConnectionTimeout(TimeUnit.SECONDS.toMillis(5));
+    pools.add(pool);
+    return pool;
+  }
+
+  /** 启动批量线程，循环执行持有连接的慢查询，直到测试结束 */
+  private void startBulkLoad(DataSource dataSource) {
+    for (int i = 0; i < BULK_THREADS; i++) {
+      Thread thread =
+          new Thread(
+              () -> {
+                LaneContext.set(Lane.BULK);
+                while (running.get()) {
+                  try (Connection connection = dataSource.getConnection();
+                      Statement statement = connection.createStatement()) {
+                    statement.execute("CALL PARK_NANOS(" + BULK_HOLD_NANOS + ")");
+                  } catch (SQLException e) {
+                    // 连接池关闭后退出
+                    return;
+                  }
+                }
+              },
+              "bulk-" + i);
+      thread.setDaemon(true);
+      thread.start();
+      bulkThreads.add(thread);
+    }
+  }
+
+  private static void awaitSaturated(HikariDataSource bulkPool) throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!isSaturated(bulkPool.getHikariPoolMXBean(), bulkPool.getMaximumPoolSize())) {
+      assertTrue(System.nanoTime() < deadline, "bulk load did not saturate the pool");
+      Thread.sleep(10);
+    }
+  }
+
+  private static boolean isSaturated(HikariPoolMXBean pool, int maximumPoolSize) {
+    // 连接池在首次获取连接时才启动
+    return pool != null
+        && pool.getActiveConnections() == maximumPoolSize
+        && pool.getThreadsAwaitingConnection() > 0;
+  }
+
+  /** 在OLTP通道上执行点查，返回延迟p99 */
+  private static Duration pointReadP99(DataSource dataSource, int reads) throws SQLException {
+    LaneContext.set(Lane.OLTP);
+    long[] latencies = new long[reads];
+    for (int i = 0; i < reads; i++) {
+      long start = System.nanoTime();
+      try (Connection connection = dataSource.getConnection();
+          PreparedStatement statement =
+              connection.prepareStatement("SELECT name FROM city WHERE id = ?")) {
+        statement.setLong(1, i % 1000 + 1);
+        try (ResultSet resultSet = statement.executeQuery()) {
+          assertTrue(resultSet.next());
+        }
+      }
+      latencies[i] = System.nanoTime() - start;
+    }
+    Arrays.sort(latencies);
+    return Duration.ofNanos(latencies[(int) Math.ceil(reads * 0.99) - 1]);
+  }
+
+  private LaneRoutingDataSource laneDataSource(HikariDataSource oltp, HikariDataSource bulk) {
+    Map<Lane, DataSource> lanePools = new EnumMap<>(Lane.class);
+    lanePools.put(Lane.OLTP, oltp);
+    lanePools.put(Lane.SEARCH, pool("search", 1));
+    lanePools.put(Lane.BULK, bulk);
+    return new LaneRoutingDataSource(lanePools);
+  }
+
+  @Test
+  void pointRead_WhenBulkLaneSaturated_ShouldKeepP99Flat() throws Exception {
+    // Arrange
+    HikariDataSource bulkPool = pool("bulk", 2);
+    LaneRoutingDataSource dataSource = laneDataSource(pool("oltp", 4), bulkPool);
+    // 预热连接和H2执行计划
+    pointReadP99(dataSource, 200);
+    Duration baseline = pointReadP99(dataSource, 500);
+
+    // Act
+    startBulkLoad(dataSource);
+    awaitSaturated(bulkPool);
+    Duration underLoad = pointReadP99(dataSource, 500);
+
+    // Assert
+    assertTrue(
+        underLoad.compareTo(baseline.plusMillis(20)) < 0,
+        "baseline p99 " + baseline + ", under bulk load p99 " + underLoad);
+  }
+
+  @Test
+  void pointRead_WhenSharedPoolSaturatedByBulk_ShouldWaitForConnections() throws Exception {
+    // Arrange
+    HikariDataSource sharedPool = pool("shared", 2);
+
+    // Act
+    startBulkLoad(sharedPool);
+    awaitSaturated(sharedPool);
+    Duration underLoad = pointReadP99(sharedPool, 20);
+
+    // Assert
+    assertTrue(
+        underLoad.toNanos() >= BULK_HOLD_NANOS / 4,
+        "shared pool p99 under bulk load " + underLoad);
+  }
+
+  @Test
+  void enter_WhenConcurrencyAndQueueFull_ShouldRejectWithServiceUnavailable() {
+    // Arrange
+    LaneGate gate = new LaneGate(Lane.BULK, 1, 0, Duration.ofMillis(10));
+    gate.enter();
+
+    // Act
+    BusinessException exception = assertThrows(BusinessException.class, gate::enter);
+
+    // Assert
+    assertEquals(ErrorCode.RPC_SERVICE_UNAVAILABLE, exception.getErrorCode());
+    assertEquals(1, gate.getActive());
+    assertEquals(1, gate.getRejected());
+    gate.exit();
+    gate.enter();
+    assertEquals(1, gate.getActive());
+  }
+}
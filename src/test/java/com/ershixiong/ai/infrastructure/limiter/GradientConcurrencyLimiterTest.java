@@ -0,0 +1,207 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.limiter;
+
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.infrastructure.config.CityLimiterProperties;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class GradientConcurrencyLimiterTest {
+
+  private static final long BASE_RTT = TimeUnit.MILLISECONDS.toNanos(5);
+
+  /** 以固定并发和延迟跑若干个采样窗口 */
+  private static void simulate(GradientConcurrencyLimiter limiter, int requests, long rttNanos) {
+    for (int i = 0; i < requests; i++) {
+      int concurrency = limiter.getLimit();
+      int acquired = 0;
+      while (acquired < concurrency && limiter.tryAcquire()) {
+        acquired++;
+      }
+      for (int j = 0; j < acquired; j++) {
+        limiter.release(rttNanos, false);
+      }
+    }
+  }
+
+  @Test
+  void tryAcquire_BeyondLimit_ShouldRejectImmediately() {
+    // Arrange
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(2, 1, 10, 1.5, 10);
+
+    // Act & Assert
+    assertTrue(limiter.tryAcquire());
+    assertTrue(limiter.tryAcquire());
+    assertFalse(limiter.tryAcquire());
+    limiter.release(BASE_RTT, false);
+    assertTrue(limiter.tryAcquire());
+  }
+
+  @Test
+  void release_WithStableLatencyUnderLoad_ShouldGrowLimit() {
+    // Arrange
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(10, 1, 100, 1.5, 10);
+
+    // Act
+    simulate(limiter, 200, BASE_RTT);
+
+    // Assert
+    assertTrue(limiter.getLimit() > 10, "limit should grow, was " + limiter.getLimit());
+  }
+
+  @Test
+  void release_WhenLatencyRises_ShouldShrinkLimit() {
+    // Arrange
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(40, 1, 100, 1.5, 10);
+    simulate(limiter, 50, BASE_RTT);
+    int before = limiter.getLimit();
+
+    // Act
+    simulate(limiter, 3, BASE_RTT * 10);
+
+    // Assert
+    assertTrue(
+        limiter.getLimit() < before, "limit should shrink from " + before + " to below it");
+  }
+
+  @Test
+  void release_WhenDropped_ShouldBackOff() {
+    // Arrange
+    GradientConcurrencyLimiter limiter = new GradientConcurrencyLimiter(20, 1, 100, 1.5, 10);
+
+    // Act
+    for (int i = 0; i < 5; i++) {
+      assertTrue(limiter.tryAcquire());
+      limiter.release(BASE_RTT, true);
+    }
+
+    // Assert
+    assertEquals(11, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void execute_WhenOneClassSaturated_ShouldNotAffectOtherClasses() throws Exception {
+    // Arrange
+    CityLimiterProperties properties = new CityLimiterProperties();
+    properties.getOperations().put(OperationClass.BULK, new CityLimiterProperties.Limit(1, 1, 1));
+    OperationLimiters limiters = new OperationLimiters(properties, new SimpleMeterRegistry());
+    CountDownLatch started = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    ExecutorService executor = Executors.newSingleThreadExecutor();
+    executor.submit(
+        () ->
+            limiters.run(
+                OperationClass.BULK,
+                () -> {
+                  started.countDown();
+                  try {
+                    release.await();
+                  } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                  }
+                }));
+    assertTrue(started.await(5, TimeUnit.SECONDS));
+
+    // Act
+    BusinessException rejected =
+        assertThrows(
+            BusinessException.class, () -> limiters.execute(OperationClass.BULK, () -> "bulk"));
+    String pointRead = limiters.execute(OperationClass.POINT_READ, () -> "point");
+
+    // Assert
+    assertEquals(ErrorCode.RPC_CIRCUIT_BREAK, rejected.getErrorCode());
+    assertEquals("point", pointRead);
+    release.countDown();
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(5, TimeUnit.SECONDS));
+  }
+
+  @Test
+  void execute_WhenDownstreamTimesOutOrIsUnavailable_ShouldBackOff() {
+    // Arrange
+    OperationLimiters limiters =
+        new OperationLimiters(new CityLimiterProperties(), new SimpleMeterRegistry());
+    GradientConcurrencyLimiter limiter = limiters.get(OperationClass.POINT_READ);
+
+    // Act
+    assertThrows(
+        BusinessException.class,
+        () ->
+            limiters.execute(
+                OperationClass.POINT_READ,
+                () -> {
+                  throw new BusinessException(ErrorCode.RPC_CALL_TIMEOUT, "请求已超时");
+                }));
+    assertThrows(
+        BusinessException.class,
+        () ->
+            limiters.execute(
+                OperationClass.POINT_READ,
+                () -> {
+                  throw new BusinessException(ErrorCode.RPC_SERVICE_UNAVAILABLE, "服务不可用");
+                }));
+
+    // Assert
+    assertEquals(16, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+
+  @Test
+  void execute_WhenBreakerFastFails_ShouldNotRecordLatencySample() {
+    // Arrange
+    OperationLimiters limiters =
+        new OperationLimiters(new CityLimiterProperties(), new SimpleMeterRegistry());
+    GradientConcurrencyLimiter limiter = limiters.get(OperationClass.POINT_READ);
+
+    // Act
+    for (int i = 0; i < 10; i++) {
+      assertThrows(
+          BusinessException.class,
+          () ->
+              limiters.execute(
+                  OperationClass.POINT_READ,
+                  () -> {
+                    throw new BusinessException(ErrorCode.RPC_CIRCUIT_BREAK, "熔断");
+                  }));
+    }
+    for (int i = 0; i < 10; i++) {
+      limiters.run(
+          OperationClass.POINT_READ,
+          () -> {
+            try {
+              Thread.sleep(2);
+            } catch (InterruptedException e) {
+              Thread.currentThread().interrupt();
+            }
+          });
+    }
+
+    // Assert
+    // 若快速失败计入样本，长期基线会远低于真实延迟，限制随之收缩
+    assertEquals(20, limiter.getLimit());
+    assertEquals(0, limiter.getInFlight());
+  }
+}
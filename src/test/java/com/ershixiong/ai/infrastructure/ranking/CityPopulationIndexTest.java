@@ -0,0 +1,193 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.ranking;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationRank;
+import com.ershixiong.ai.domain.repository.CityPopulationScans;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityPopulationIndexTest {
+
+  private static final String[] COUNTRIES = {"AFG", "NLD", "CHN", "USA", "BRA"};
+
+  private final CityPopulationIndex index = new CityPopulationIndex();
+
+  /** 人口取值范围很小以产生大量并列，约5%人口未知 */
+  private static City randomCity(long id, long version, Random random) {
+    String country = COUNTRIES[random.nextInt(COUNTRIES.length)];
+    Integer population = random.nextInt(20) == 0 ? null : random.nextInt(500);
+    return new City(id, "City" + id, country, country + "-1", population, version);
+  }
+
+  private static Consumer<Consumer<City>> scan(Map<Long, City> cities) {
+    return consumer -> cities.values().forEach(consumer);
+  }
+
+  @Test
+  void queries_AfterRandomWrites_ShouldMatchFullScan() {
+    // Arrange
+    Random random = new Random(42);
+    Map<Long, City> reference = new TreeMap<>();
+    for (long id = 1; id <= 2000; id++) {
+      reference.put(id, randomCity(id, 1L, random));
+    }
+    index.rebuild(scan(reference));
+    for (int i = 0; i < 3000; i++) {
+      long id = 1 + random.nextInt(2500);
+      if (random.nextInt(4) == 0) {
+        reference.remove(id);
+        index.delete(id);
+      } else {
+        City city = randomCity(id, 2L + i, random);
+        reference.put(id, city);
+        index.upsert(city);
+      }
+    }
+
+    // Act & Assert
+    assertEquals(reference.size(), index.size());
+    for (String country : new String[] {null, "NLD", "ZZZ"}) {
+      assertEquals(
+          CityPopulationScans.findTop(scan(reference), country, 25),
+          index.findTopByPopulation(country, 25));
+      for (long pageNo = 1; pageNo <= 4; pageNo++) {
+        Page<City> expected =
+            CityPopulationScans.findBetween(
+                scan(reference), country, 100, 300, new Page<>(pageNo, 50));
+        Page<City> actual =
+            index.findByPopulationBetween(country, 100, 300, new Page<>(pageNo, 50));
+        assertEquals(expected.getTotal(), actual.getTotal());
+        assertEquals(expected.getRecords(), actual.getRecords());
+      }
+    }
+    for (long id = 1; id <= 2500; id += 7) {
+      City city = reference.get(id);
+      Optional<CityPopulationRank> rank = index.findPopulationRank(id);
+      assertEquals(
+          Optional.ofNullable(city).map(c -> CityPopulationScans.rank(scan(reference), c)), rank);
+    }
+  }
+
+  @Test
+  void findByPopulationBetween_WithOpenOrEmptyRange_ShouldHandleBounds() {
+    // Arrange
+    Map<Long, City> reference = new TreeMap<>();
+    reference.put(1L, new City(1L, "A", "NLD", "X", Integer.MAX_VALUE, 1L));
+    reference.put(2L, new City(2L, "B", "NLD", "X", 0, 1L));
+    reference.put(3L, new City(3L, "C", "NLD", "X", null, 1L));
+    index.rebuild(scan(reference));
+
+    // Act
+    Page<City> all =
+        index.findByPopulationBetween(
+            null, Integer.MIN_VALUE, Integer.MAX_VALUE, new Page<>(1, 10));
+    Page<City> empty = index.findByPopulationBetween(null, 10, 5, new Page<>(1, 10));
+    Page<City> beyond = index.findByPopulationBetween(null, 0, 100, new Page<>(3, 10));
+
+    // Assert
+    assertEquals(2, all.getTotal());
+    assertEquals(List.of(1L, 2L), all.getRecords().stream().map(City::getId).toList());
+    assertEquals(0, empty.getTotal());
+    assertEquals(1, beyond.getTotal());
+    assertTrue(beyond.getRecords().isEmpty());
+  }
+
+  @Test
+  void findPopulationRank_WhenPopulationUnknown_ShouldReturnCountsWithoutRank() {
+    // Arrange
+    Map<Long, City> reference = new TreeMap<>();
+    reference.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+    reference.put(2L, new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 593321, 1L));
+    reference.put(3L, new City(3L, "Kabul", "AFG", "Kabol", 1780000, 1L));
+    reference.put(4L, new City(4L, "Nowhere", "NLD", "Zuid-Holland", null, 1L));
+    index.rebuild(scan(reference));
+
+    // Act
+    CityPopulationRank rotterdam = index.findPopulationRank(2L).orElseThrow();
+    CityPopulationRank nowhere = index.findPopulationRank(4L).orElseThrow();
+
+    // Assert
+    assertEquals(2L, rotterdam.getCountryRank());
+    assertEquals(2, rotterdam.getCountryCities());
+    assertEquals(3L, rotterdam.getGlobalRank());
+    assertEquals(3, rotterdam.getGlobalCities());
+    assertNull(nowhere.getCountryRank());
+    assertNull(nowhere.getGlobalRank());
+    assertEquals(2, nowhere.getCountryCities());
+    assertTrue(index.findPopulationRank(99L).isEmpty());
+  }
+
+  @Test
+  void rebuild_ShouldReplayWritesMadeDuringScan() {
+    // Arrange
+    Map<Long, City> initial = new TreeMap<>();
+    initial.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+    initial.put(2L, new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 593321, 1L));
+    index.rebuild(scan(initial));
+    City renamed = new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 900000, 2L);
+    City added = new City(3L, "Utrecht", "NLD", "Utrecht", 234323, 1L);
+
+    // Act
+    // 扫描读到的是写入前的数据，写入发生在扫描过程中
+    index.rebuild(
+        consumer -> {
+          consumer.accept(initial.get(1L));
+          index.upsert(renamed);
+          index.upsert(added);
+          index.delete(1L);
+          consumer.accept(initial.get(2L));
+        });
+
+    // Assert
+    assertEquals(2, index.size());
+    assertEquals(List.of(renamed, added), index.findTopByPopulation("NLD", 10));
+    assertTrue(index.findPopulationRank(1L).isEmpty());
+  }
+
+  @Test
+  void upsert_WithOlderVersion_ShouldBeIgnored() {
+    // Arrange
+    City current = new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 5L);
+    index.rebuild(consumer -> consumer.accept(current));
+
+    // Act
+    index.upsert(new City(1L, "Amsterdam", "NLD", "Noord-Holland", 1, 4L));
+
+    // Assert
+    assertEquals(List.of(current), index.findTopByPopulation(null, 1));
+  }
+
+  @Test
+  void queries_WhenNotBuilt_ShouldFail() {
+    // Arrange
+    index.upsert(new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200, 1L));
+
+    // Act & Assert
+    assertFalse(index.isReady());
+    assertThrows(IllegalStateException.class, () -> index.findTopByPopulation(null, 10));
+  }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import com.ershixiong.ai.domain.model.City;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 日志结构仓储的写入、点查和全表扫描基准。
+ *
+ * <p>先逐条写入（每条都等待WAL落盘），再刷盘并等待合并，之后分别统计存在与不存在ID的点查延迟
+ * 和全表扫描吞吐；不存在的ID主要由布隆过滤器拦截，不读数据块。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=LsmCityRepositoryBenchmarkTest，
+ * 可通过benchmark.rows、benchmark.reads调整参数。
+ */
+@Tag("benchmark")
+class LsmCityRepositoryBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 20_000);
+  private static final int READS = Integer.getInteger("benchmark.reads", 100_000);
+
+  @TempDir
+  Path directory;
+
+  @Test
+  void measure_WriteReadAndScan() throws Exception {
+    // Arrange
+    LsmCityRepository.Options options = new LsmCityRepository.Options(256 * 1024, 4, 64, 10);
+    try (LsmCityRepository repository = LsmCityRepository.open(directory, options)) {
+
+      // Act
+      long[] writes = new long[ROWS];
+      long writeStart = System.nanoTime();
+      for (int i = 0; i < ROWS; i++) {
+        long start = System.nanoTime();
+        repository.save(new City(null, "City" + i, "NLD", "Noord-Holland", i));
+        writes[i] = System.nanoTime() - start;
+      }
+      double writeRate = ROWS * 1e9 / (System.nanoTime() - writeStart);
+      repository.flush();
+
+      ThreadLocalRandom random = ThreadLocalRandom.current();
+      long[] hits = new long[READS];
+      long[] misses = new long[READS];
+      for (int i = 0; i < READS; i++) {
+        long id = random.nextLong(1, ROWS + 1);
+        long start = System.nanoTime();
+        assertTrue(repository.findById(id).isPresent());
+        hits[i] = System.nanoTime() - start;
+
+        long missing = ROWS + 1 + random.nextLong(ROWS);
+        start = System.nanoTime();
+        assertTrue(repository.findById(missing).isEmpty());
+        misses[i] = System.nanoTime() - start;
+      }
+
+      AtomicLong scanned = new AtomicLong();
+      long scanStart = System.nanoTime();
+      repository.scanAll(city -> scanned.incrementAndGet());
+      double scanRate = scanned.get() * 1e9 / (System.nanoTime() - scanStart);
+
+      System.out.printf(
+          "rows=%d segments=%d fsyncs=%d flushes=%d compactions=%d%n",
+          ROWS,
+          repository.getSegmentCount(),
+          repository.getWalSyncCount(),
+          repository.getFlushCount(),
+          repository.getCompactionCount());
+      System.out.printf("write  %,10.0f ops/s   %s%n", writeRate, percentiles(writes));
+      System.out.printf("hit    %s%n", percentiles(hits));
+      System.out.printf("miss   %s%n", percentiles(misses));
+      System.out.printf("scan   %,10.0f rows/s%n", scanRate);
+
+      // Assert
+      assertEquals(ROWS, scanned.get());
+    }
+  }
+
+  private static String percentiles(long[] nanos) {
+    long[] sorted = nanos.clone();
+    Arrays.sort(sorted);
+    return String.format(
+        "p50 %,8dns   p99 %,10dns",
+        sorted[sorted.length / 2], sorted[(int) (sorted.length * 0.99)]);
+  }
+}
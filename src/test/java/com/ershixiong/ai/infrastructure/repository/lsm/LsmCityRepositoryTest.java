@@ -0,0 +1,233 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.lsm;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CityRepositoryContractTest;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class LsmCityRepositoryTest extends CityRepositoryContractTest {
+
+  /** 小内存表和小索引间隔，让少量数据也会刷盘、合并并跨越多个索引区间 */
+  private static final LsmCityRepository.Options OPTIONS =
+      new LsmCityRepository.Options(4 * 1024, 3, 4, 10);
+
+  @TempDir
+  Path directory;
+
+  private final List<LsmCityRepository> opened = new ArrayList<>();
+
+  @Override
+  protected CityRepository createRepository() throws IOException {
+    return open();
+  }
+
+  @AfterEach
+  void tearDown() throws IOException {
+    for (LsmCityRepository repository : opened) {
+      repository.close();
+    }
+  }
+
+  private LsmCityRepository repository() {
+    return (LsmCityRepository) cityRepository;
+  }
+
+  private LsmCityRepository open() throws IOException {
+    LsmCityRepository repository = LsmCityRepository.open(directory, OPTIONS);
+    opened.add(repository);
+    return repository;
+  }
+
+  private static City city(String name, int population) {
+    return new City(null, name, "NLD", "Noord-Holland", population);
+  }
+
+  @Test
+  void reopen_ShouldReplayWriteAheadLogWithoutFlush() throws IOException {
+    // Arrange
+    LsmCityRepository repository = repository();
+    City amsterdam = repository.save(city("Amsterdam", 731200));
+    City rotterdam = repository.save(city("Rotterdam", 593321));
+    repository.deleteById(rotterdam.getId());
+    repository.save(new City(amsterdam.getId(), "Amsterdam", "NLD", "Noord-Holland", 800000));
+
+    // Act：不关闭旧实例，模拟进程崩溃
+    LsmCityRepository reopened = open();
+
+    // Assert
+    assertEquals(
+        List.of(new City(amsterdam.getId(), "Amsterdam", "NLD", "Noord-Holland", 800000)),
+        reopened.findAll());
+    City next = reopened.save(city("Utrecht", 234323));
+    assertTrue(next.getId() > rotterdam.getId(), "deleted ids must not be reused");
+    assertTrue(next.getVersion() > 4);
+  }
+
+  @Test
+  void reopen_ShouldTruncateTornWriteAheadLogTail() throws IOException {
+    // Arrange
+    LsmCityRepository repository = repository();
+    repository.save(city("Amsterdam", 731200));
+    repository.save(city("Rotterdam", 593321));
+    Path wal = onlyFile("wal-");
+    long size = Files.size(wal);
+    try (FileChannel channel = FileChannel.open(wal, StandardOpenOption.WRITE)) {
+      channel.truncate(size - 3);
+    }
+
+    // Act
+    LsmCityRepository reopened = open();
+
+    // Assert
+    assertEquals(List.of("Amsterdam"), reopened.findAll().stream().map(City::getName).toList());
+  }
+
+  @Test
+  void flushAndCompaction_ShouldKeepNewestVersionsAndDropTombstones() throws IOException {
+    // Arrange
+    LsmCityRepository repository = repository();
+    TreeMap<Long, City> expected = new TreeMap<>();
+    for (int round = 0; round < 6; round++) {
+      for (int i = 0; i < 60; i++) {
+        City saved = repository.save(new City((long) i + 1, "City" + i, "NLD", "R" + round, i));
+        expected.put(saved.getId(), saved);
+      }
+      for (int i = round; i < 60; i += 7) {
+        repository.deleteById((long) i + 1);
+        expected.remove((long) i + 1);
+      }
+    }
+
+    // Act
+    repository.flush();
+
+    // Assert
+    assertTrue(repository.getFlushCount() > 3);
+    assertTrue(repository.getCompactionCount() > 0);
+    assertTrue(repository.getSegmentCount() < OPTIONS.compactionThreshold());
+    assertEquals(new ArrayList<>(expected.values()), repository.findAll());
+    for (long id = 1; id <= 60; id++) {
+      assertEquals(Optional.ofNullable(expected.get(id)), repository.findById(id));
+    }
+    Page<City> page = repository.findByNameLike("%City1%", new Page<>(1, 100));
+    assertEquals(
+        expected.values().stream().filter(c -> c.getName().startsWith("City1")).count(),
+        page.getTotal());
+
+    // Act：重启后从段文件读取，墓碑已随合并丢弃
+    LsmCityRepository reopened = open();
+
+    // Assert
+    assertEquals(new ArrayList<>(expected.values()), reopened.findAll());
+    assertTrue(reopened.save(city("New", 0)).getId() > 60);
+  }
+
+  @Test
+  void reopen_ShouldDiscardSegmentsReplacedByCompaction() throws IOException {
+    // Arrange：第一个段含有Deleted，第二个段含有它的墓碑，合并后两者都被丢弃
+    LsmCityRepository repository = repository();
+    City kept = repository.save(city("Kept", 1));
+    City deleted = repository.save(city("Deleted", 2));
+    repository.flush();
+    repository.deleteById(deleted.getId());
+    repository.flush();
+    Path oldest = files("segment-").get(0);
+    byte[] oldestContents = Files.readAllBytes(oldest);
+    repository.save(city("Trigger", 3));
+    repository.flush();
+    assertEquals(1, repository.getCompactionCount());
+    assertEquals(1, files("segment-").size());
+
+    // Act：模拟合并后旧段没有删除，若不识别为已替换，Deleted会复活
+    repository.close();
+    opened.remove(repository);
+    Files.write(oldest, oldestContents);
+    LsmCityRepository reopened = open();
+
+    // Assert
+    assertEquals(
+        List.of("Kept", "Trigger"), reopened.findAll().stream().map(City::getName).toList());
+    assertEquals(1, files("segment-").size());
+    assertEquals(kept, reopened.findById(kept.getId()).orElseThrow());
+  }
+
+  @Test
+  void save_ShouldGroupConcurrentFsyncs() throws Exception {
+    // Arrange
+    LsmCityRepository repository = repository();
+    int threads = 8;
+    int perThread = 50;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int i = 0; i < perThread; i++) {
+                    repository.save(city("City", i));
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+
+    // Assert
+    assertEquals(threads * perThread, repository.findAll().size());
+    assertTrue(repository.getWalSyncCount() <= threads * perThread);
+  }
+
+  private Path onlyFile(String prefix) throws IOException {
+    List<Path> files = files(prefix);
+    assertEquals(1, files.size());
+    return files.get(0);
+  }
+
+  private List<Path> files(String prefix) throws IOException {
+    try (Stream<Path> files = Files.list(directory)) {
+      return files.filter(p -> p.getFileName().toString().startsWith(prefix)).sorted().toList();
+    }
+  }
+}
@@ -0,0 +1,171 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.memory;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CityRepositoryContractTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class MvccCityRepositoryTest extends CityRepositoryContractTest {
+
+  private MvccCityRepository repository;
+
+  private static City city(String name) {
+    return City.builder()
+        .name(name)
+        .countrycode("AFG")
+        .district("District")
+        .population(1000)
+        .build();
+  }
+
+  @Override
+  protected CityRepository createRepository() {
+    repository = new MvccCityRepository();
+    return repository;
+  }
+
+  @Test
+  void save_ShouldAssignIdsAndVersions() {
+    // Act
+    City first = repository.save(city("Kabul"));
+    City second = repository.save(city("Herat"));
+    City updated = repository.save(new City(first.getId(), "Kabul", "AFG", "Kabol", 1780000));
+
+    // Assert
+    assertEquals(1L, first.getId());
+    assertEquals(2L, second.getId());
+    assertEquals(3L, updated.getVersion());
+    assertEquals(updated, repository.findById(1L).orElseThrow());
+    assertEquals(2, repository.snapshot().size());
+    assertThrows(BusinessException.class, () -> repository.save(null));
+    assertThrows(BusinessException.class, () -> repository.save(new City(-1L, "X", "X", "X", 1)));
+  }
+
+  @Test
+  void returnedCities_ShouldNotAliasStoredState() {
+    // Arrange
+    City saved = repository.save(city("Kabul"));
+
+    // Act
+    saved.setName("Changed");
+    repository.findById(saved.getId()).orElseThrow().setName("Changed");
+
+    // Assert
+    assertEquals("Kabul", repository.findById(saved.getId()).orElseThrow().getName());
+  }
+
+  @Test
+  void snapshot_ShouldKeepPaginationStableWhileWritesCommit() {
+    // Arrange
+    for (int i = 0; i < 10; i++) {
+      repository.save(city("City" + i));
+    }
+    MvccCityRepository.Snapshot snapshot = repository.snapshot();
+
+    // Act
+    Page<City> firstPage = snapshot.findByNameLike("%city%", new Page<>(1, 4));
+    repository.deleteById(1L);
+    repository.save(city("City10"));
+    Page<City> secondPage = snapshot.findByNameLike("%city%", new Page<>(2, 4));
+
+    // Assert
+    assertEquals(10, firstPage.getTotal());
+    assertEquals(10, secondPage.getTotal());
+    assertEquals(
+        List.of(1L, 2L, 3L, 4L), firstPage.getRecords().stream().map(City::getId).toList());
+    assertEquals(
+        List.of(5L, 6L, 7L, 8L), secondPage.getRecords().stream().map(City::getId).toList());
+    assertEquals(10, repository.findByNameLike("%city%", new Page<>(1, 4)).getTotal());
+    assertTrue(repository.findById(1L).isEmpty());
+    assertTrue(snapshot.findById(1L).isPresent());
+  }
+
+  @Test
+  void operations_ShouldMatchTreeMapUnderRandomWorkload() {
+    // Arrange
+    Random random = new Random(7);
+    TreeMap<Long, City> expected = new TreeMap<>();
+
+    // Act
+    for (int i = 0; i < 20000; i++) {
+      long id = random.nextInt(random.nextBoolean() ? 64 : 5_000_000);
+      if (random.nextInt(3) == 0) {
+        repository.deleteById(id);
+        expected.remove(id);
+      } else {
+        City saved = repository.save(new City(id, "City" + i, "AFG", "District", i));
+        expected.put(id, saved);
+      }
+    }
+
+    // Assert
+    assertEquals(new ArrayList<>(expected.values()), repository.findAll());
+    assertEquals(expected.size(), repository.snapshot().size());
+    for (long id : expected.keySet()) {
+      assertEquals(expected.get(id), repository.findById(id).orElseThrow());
+    }
+  }
+
+  @Test
+  void save_ShouldNotLoseConcurrentCommits() throws Exception {
+    // Arrange
+    int threads = 8;
+    int perThread = 500;
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> futures = new ArrayList<>();
+
+    // Act
+    try (ExecutorService executor = Executors.newFixedThreadPool(threads)) {
+      for (int t = 0; t < threads; t++) {
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  for (int i = 0; i < perThread; i++) {
+                    repository.save(city("City"));
+                  }
+                  return null;
+                }));
+      }
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+
+    // Assert
+    MvccCityRepository.Snapshot snapshot = repository.snapshot();
+    assertEquals(threads * perThread, snapshot.size());
+    assertEquals(threads * perThread, snapshot.getVersion());
+    List<City> all = snapshot.findAll();
+    assertEquals(threads * perThread, all.get(all.size() - 1).getId());
+  }
+}
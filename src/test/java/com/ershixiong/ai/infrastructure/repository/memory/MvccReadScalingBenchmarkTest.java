@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.memory;
+
+import com.ershixiong.ai.domain.model.City;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongFunction;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 多版本内存仓储与synchronized Map的按ID读取吞吐随线程数变化的对比基准。
+ *
+ * <p>两种实现装载相同数据，1个写线程持续更新，其余线程在固定时长内随机按ID读取，
+ * 分别统计1、2、4直到CPU核数个读线程时的总吞吐。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=MvccReadScalingBenchmarkTest，
+ * 可通过benchmark.rows、benchmark.duration-ms调整参数。
+ */
+@Tag("benchmark")
+class MvccReadScalingBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 100_000);
+  private static final long DURATION_MILLIS = Long.getLong("benchmark.duration-ms", 1000);
+
+  @Test
+  void compare_MvccAndSynchronizedMap_ReadThroughputByThreads() throws Exception {
+    // Arrange
+    MvccCityRepository mvcc = new MvccCityRepository();
+    Map<Long, City> synchronizedMap = Collections.synchronizedMap(new HashMap<>());
+    for (long id = 1; id <= ROWS; id++) {
+      City city = new City(id, "City" + id, "AFG", "District", (int) id);
+      mvcc.save(city);
+      synchronizedMap.put(id, city);
+    }
+    int cores = Runtime.getRuntime().availableProcessors();
+
+    // Act
+    List<Integer> threadCounts = new ArrayList<>();
+    for (int threads = 1; threads <= cores; threads *= 2) {
+      threadCounts.add(threads);
+    }
+    double mvccMax = 0;
+    double baselineMax = 0;
+    System.out.printf("rows=%d duration=%dms cores=%d%n", ROWS, DURATION_MILLIS, cores);
+    for (int threads : threadCounts) {
+      double mvccRate =
+          run(
+              threads,
+              id -> mvcc.findById(id).orElseThrow(),
+              id -> mvcc.save(new City(id, "Updated", "AFG", "District", 0)));
+      double baselineRate =
+          run(
+              threads,
+              synchronizedMap::get,
+              id -> synchronizedMap.put(id, new City(id, "Updated", "AFG", "District", 0)));
+      mvccMax = Math.max(mvccMax, mvccRate);
+      baselineMax = Math.max(baselineMax, baselineRate);
+      System.out.printf(
+          "readers=%-3d mvcc %,12.0f reads/s   synchronized %,12.0f reads/s%n",
+          threads, mvccRate, baselineRate);
+    }
+
+    // Assert
+    assertTrue(mvccMax > baselineMax, "lock-free reads should outscale the synchronized map");
+  }
+
+  private static double run(int readers, LongFunction<Object> read, LongFunction<Object> write)
+      throws Exception {
+    CountDownLatch start = new CountDownLatch(1);
+    long[] counts = new long[readers];
+    List<Future<?>> futures = new ArrayList<>();
+    try (ExecutorService executor = Executors.newFixedThreadPool(readers + 1)) {
+      for (int r = 0; r < readers; r++) {
+        int reader = r;
+        futures.add(
+            executor.submit(
+                () -> {
+                  start.await();
+                  long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+                  long n = 0;
+                  ThreadLocalRandom random = ThreadLocalRandom.current();
+                  while ((n & 1023) != 0 || System.nanoTime() < end) {
+                    assertNotNull(read.apply(random.nextLong(1, ROWS + 1)));
+                    n++;
+                  }
+                  counts[reader] = n;
+                  return null;
+                }));
+      }
+      futures.add(
+          executor.submit(
+              () -> {
+                start.await();
+                long end = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(DURATION_MILLIS);
+                ThreadLocalRandom random = ThreadLocalRandom.current();
+                while (System.nanoTime() < end) {
+                  write.apply(random.nextLong(1, ROWS + 1));
+                  Thread.sleep(0, 100_000);
+                }
+                return null;
+              }));
+      start.countDown();
+      for (Future<?> future : futures) {
+        future.get();
+      }
+    }
+    long total = 0;
+    for (long count : counts) {
+      total += count;
+    }
+    return total * 1000.0 / DURATION_MILLIS;
+  }
+}
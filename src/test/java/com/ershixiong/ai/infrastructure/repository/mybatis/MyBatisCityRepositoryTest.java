@@ -19,24 +19,44 @@ import com.baomidou.mybatisplus.core.conditions.query.LambdaQueryWrapper;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
 import com.ershixiong.ai.common.exception.BusinessException;
 import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityFacetCount;
+import com.ershixiong.ai.domain.model.CityFacetOptions;
+import com.ershixiong.ai.domain.model.CityFacets;
+import com.ershixiong.ai.domain.model.CitySearchPlan;
+import com.ershixiong.ai.domain.model.CitySearchQuery;
+import com.ershixiong.ai.domain.model.CitySearchResult;
+import com.ershixiong.ai.domain.model.CitySort;
+import com.ershixiong.ai.domain.model.CitySortField;
 import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.infrastructure.datasource.ReadRoutingContext;
 import com.ershixiong.ai.infrastructure.repository.mybatis.converter.CityDataConverter;
 import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityFacetDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityChangeMapper;
 import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.context.bean.override.mockito.MockitoBean;
 
+import java.time.Duration;
 import java.util.Arrays;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.argThat;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @SpringBootTest
@@ -46,6 +66,9 @@ class MyBatisCityRepositoryTest {
   @MockitoBean
   private CityMapper cityMapper;
 
+  @MockitoBean
+  private CityChangeMapper cityChangeMapper;
+
   @Autowired
   private CityDataConverter cityDataConverter;
 
@@ -57,7 +80,7 @@ class MyBatisCityRepositoryTest {
 
   @BeforeEach
   void setUp() {
-    cityRepository = new MybatisCityRepository(cityMapper, cityDataConverter);
+    cityRepository = new MybatisCityRepository(cityMapper, cityChangeMapper, cityDataConverter);
 
     // 初始化测试数据
     testCity = City.builder()
@@ -109,6 +132,25 @@ class MyBatisCityRepositoryTest {
     verify(cityMapper).selectById(1L);
   }
 
+  @Test
+  void findByIdForWrite_ShouldReadFromPrimary() {
+    // Arrange
+    AtomicBoolean replicaRead = new AtomicBoolean(true);
+    when(cityMapper.selectById(1L))
+        .thenAnswer(
+            invocation -> {
+              replicaRead.set(ReadRoutingContext.isReplicaRead());
+              return testCityDO;
+            });
+
+    // Act
+    Optional<City> result = cityRepository.findByIdForWrite(1L);
+
+    // Assert
+    assertEquals(testCity.getPopulation(), result.orElseThrow().getPopulation());
+    assertFalse(replicaRead.get());
+  }
+
   @Test
   void findById_WhenCityDoesNotExist_ShouldReturnEmpty() {
     // Arrange
@@ -167,16 +209,45 @@ class MyBatisCityRepositoryTest {
     verify(cityMapper, never()).updateById(any());
   }
 
+  @Test
+  void save_ShouldAssignNewVersion() {
+    // Arrange
+    when(cityChangeMapper.nextVersion()).thenReturn(42L);
+    when(cityMapper.updateById(any(CityDO.class))).thenReturn(1);
+
+    // Act
+    City savedCity = cityRepository.save(testCity);
+
+    // Assert
+    assertEquals(42L, savedCity.getVersion());
+    verify(cityMapper).updateById(argThat((CityDO cityDO) -> cityDO.getVersion() == 42L));
+  }
+
   @Test
   void deleteById_ShouldDeleteCity() {
     // Arrange
     when(cityMapper.deleteById(1L)).thenReturn(1);
+    when(cityChangeMapper.nextVersion()).thenReturn(43L);
 
     // Act
     cityRepository.deleteById(1L);
 
     // Assert
     verify(cityMapper).deleteById(1L);
+    verify(cityChangeMapper).upsertTombstone(1L, 43L);
+  }
+
+  @Test
+  void deleteById_WhenCityDoesNotExist_ShouldNotWriteTombstone() {
+    // Arrange
+    when(cityMapper.deleteById(999L)).thenReturn(0);
+
+    // Act
+    cityRepository.deleteById(999L);
+
+    // Assert
+    verify(cityChangeMapper, never()).nextVersion();
+    verify(cityChangeMapper, never()).upsertTombstone(any(), anyLong());
   }
 
   @SuppressWarnings("unchecked")
@@ -205,4 +276,177 @@ class MyBatisCityRepositoryTest {
     assertEquals(testCity.getPopulation(), city.getPopulation());
     verify(cityMapper).selectPage(any(), any(LambdaQueryWrapper.class));
   }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void searchWithSort_WhenFieldIsIndexed_ShouldPushDownOrderBy() {
+    // Arrange
+    Page<CityDO> resultDoPage = new Page<CityDO>(1, 10).setRecords(List.of(testCityDO));
+    resultDoPage.setTotal(1);
+    when(cityMapper.selectPage(any(), any(LambdaQueryWrapper.class))).thenReturn(resultDoPage);
+
+    // Act
+    CitySearchResult result =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%Test%")
+                .sort(new CitySort(CitySortField.POPULATION, true))
+                .build(),
+            new Page<>(1, 10));
+
+    // Assert
+    assertEquals(CitySearchPlan.INDEX_ORDER, result.getPlan());
+    assertEquals(1, result.getPage().getTotal());
+    assertEquals(testCity.getId(), result.getPage().getRecords().get(0).getId());
+    verify(cityMapper, never()).streamSearch(any(), any(), any(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void searchWithSort_WhenPopulationAscending_ShouldOrderLikeAscendingIndex() {
+    // Arrange
+    Page<CityDO> resultDoPage =
+        new Page<CityDO>(1, 10)
+            .setRecords(
+                List.of(
+                    new City(2L, "Test Ant", "CHN", "D", 1).toDO(),
+                    new City(1L, "Test Bee", "CHN", "D", 5).toDO()));
+    resultDoPage.setTotal(2);
+    ArgumentCaptor<LambdaQueryWrapper<CityDO>> wrapper =
+        ArgumentCaptor.forClass(LambdaQueryWrapper.class);
+    when(cityMapper.selectPage(any(), wrapper.capture())).thenReturn(resultDoPage);
+
+    // Act
+    CitySearchResult result =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%Test%")
+                .sort(new CitySort(CitySortField.POPULATION, false))
+                .build(),
+            new Page<>(1, 10));
+
+    // Assert
+    assertEquals(CitySearchPlan.INDEX_ORDER, result.getPlan());
+    assertEquals(List.of(2L, 1L), result.getPage().getRecords().stream().map(City::getId).toList());
+    assertTrue(
+        wrapper.getValue().getSqlSegment().endsWith("ORDER BY population ASC,id ASC"),
+        wrapper.getValue().getSqlSegment());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void searchWithSort_WhenFieldIsNotIndexed_ShouldKeepTopKOfStreamedRows() {
+    // Arrange
+    List<CityDO> rows =
+        List.of(
+            new City(3L, "Test Cee", "CHN", "D", 3).toDO(),
+            new City(1L, "Test Bee", "CHN", "D", 1).toDO(),
+            new City(2L, "Test Ant", "CHN", "D", 2).toDO());
+    doAnswer(
+            invocation -> {
+              ResultHandler<CityDO> handler = invocation.getArgument(3);
+              DefaultResultContext<CityDO> context = new DefaultResultContext<>();
+              for (CityDO row : rows) {
+                context.nextResultObject(row);
+                handler.handleResult(context);
+              }
+              return null;
+            })
+        .when(cityMapper)
+        .streamSearch(eq("%Test%"), eq(Set.of("CHN")), isNull(), any());
+
+    // Act
+    CitySearchResult result =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%Test%")
+                .countrycodes(Set.of("CHN"))
+                .sort(new CitySort(CitySortField.NAME, false))
+                .build(),
+            new Page<>(2, 2));
+
+    // Assert
+    assertEquals(CitySearchPlan.TOP_K, result.getPlan());
+    assertEquals(3, result.getPage().getTotal());
+    assertEquals(List.of(3L), result.getPage().getRecords().stream().map(City::getId).toList());
+    verify(cityMapper, never()).selectPage(any(), any(LambdaQueryWrapper.class));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void searchWithFilters_WhenUnsorted_ShouldPushDownInConditions() {
+    // Arrange
+    Page<CityDO> resultDoPage = new Page<CityDO>(1, 10).setRecords(List.of(testCityDO));
+    resultDoPage.setTotal(1);
+    when(cityMapper.selectPage(any(), any(LambdaQueryWrapper.class))).thenReturn(resultDoPage);
+
+    // Act
+    CitySearchResult result =
+        cityRepository.search(
+            CitySearchQuery.builder()
+                .namePattern("%Test%")
+                .countrycodes(Set.of("CHN"))
+                .districts(Set.of("Test District"))
+                .build(),
+            new Page<>(1, 10));
+
+    // Assert
+    assertEquals(CitySearchPlan.UNSORTED, result.getPlan());
+    assertEquals(1, result.getPage().getTotal());
+    verify(cityMapper).selectPage(any(), any(LambdaQueryWrapper.class));
+    verify(cityMapper, never()).streamSearch(any(), any(), any(), any());
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  void searchWithFacets_WhenUnsorted_ShouldCountEachDimensionAndCapItSeparately() {
+    // Arrange
+    Page<CityDO> resultDoPage = new Page<CityDO>(1, 10).setRecords(List.of(testCityDO));
+    resultDoPage.setTotal(6);
+    when(cityMapper.selectPage(any(), any(LambdaQueryWrapper.class))).thenReturn(resultDoPage);
+    when(cityMapper.countCountrycodeFacets(eq("%Test%"), isNull(), isNull(), anyInt()))
+        .thenReturn(
+            List.of(
+                CityFacetDO.builder().facetKey("NLD").cityCount(5L).build(),
+                CityFacetDO.builder().facetKey("AFG").cityCount(1L).build()));
+    when(cityMapper.countDistrictFacets(eq("%Test%"), isNull(), isNull(), anyInt()))
+        .thenReturn(
+            List.of(
+                CityFacetDO.builder().facetKey("Zuid").cityCount(3L).build(),
+                CityFacetDO.builder().facetKey("Noord").cityCount(2L).build(),
+                CityFacetDO.builder().facetKey("Kabol").cityCount(1L).build()));
+    CitySearchQuery.CitySearchQueryBuilder query = CitySearchQuery.builder().namePattern("%Test%");
+
+    // Act
+    CityFacets facets =
+        cityRepository
+            .search(
+                query.facets(new CityFacetOptions(2, 10, Duration.ofSeconds(5))).build(),
+                new Page<>(1, 10))
+            .getFacets();
+    CityFacets capped =
+        cityRepository
+            .search(
+                query.facets(new CityFacetOptions(2, 2, Duration.ofSeconds(5))).build(),
+                new Page<>(1, 10))
+            .getFacets();
+
+    // Assert
+    assertEquals(
+        List.of(new CityFacetCount("NLD", 5), new CityFacetCount("AFG", 1)),
+        facets.getCountrycodes());
+    assertEquals(
+        List.of(new CityFacetCount("Zuid", 3), new CityFacetCount("Noord", 2)),
+        facets.getDistricts());
+    assertFalse(facets.isTruncated());
+    assertTrue(capped.isTruncated());
+    assertEquals(
+        List.of(new CityFacetCount("NLD", 5), new CityFacetCount("AFG", 1)),
+        capped.getCountrycodes());
+    assertEquals(
+        List.of(new CityFacetCount("Zuid", 3), new CityFacetCount("Noord", 2)),
+        capped.getDistricts());
+    verify(cityMapper).countCountrycodeFacets(eq("%Test%"), isNull(), isNull(), eq(11));
+    verify(cityMapper).countDistrictFacets(eq("%Test%"), isNull(), isNull(), eq(3));
+  }
 }
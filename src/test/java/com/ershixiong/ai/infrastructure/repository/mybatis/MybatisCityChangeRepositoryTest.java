@@ -0,0 +1,129 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis;
+
+import com.ershixiong.ai.domain.model.CityChangeSet;
+import com.ershixiong.ai.infrastructure.repository.mybatis.converter.CityDataConverter;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.dataobject.CityTombstoneDO;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityChangeMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class MybatisCityChangeRepositoryTest {
+
+  @Mock private CityChangeMapper cityChangeMapper;
+
+  private MybatisCityChangeRepository changeRepository;
+
+  @BeforeEach
+  void setUp() {
+    changeRepository = new MybatisCityChangeRepository(cityChangeMapper, new CityDataConverter());
+  }
+
+  private static CityDO city(long id, long version) {
+    return CityDO.builder()
+        .id(id)
+        .name("City " + id)
+        .countrycode("CHN")
+        .district("District")
+        .population(1000)
+        .version(version)
+        .build();
+  }
+
+  private static CityTombstoneDO tombstone(long id, long version) {
+    return CityTombstoneDO.builder().id(id).version(version).build();
+  }
+
+  @Test
+  void findChangesSince_ShouldMergeUpsertsAndTombstonesByVersion() {
+    // Arrange
+    when(cityChangeMapper.selectTombstoneHorizon()).thenReturn(0L);
+    when(cityChangeMapper.selectCitiesSince(10L, 4)).thenReturn(List.of(city(1, 11), city(2, 14)));
+    when(cityChangeMapper.selectTombstonesSince(10L, 4))
+        .thenReturn(List.of(tombstone(7, 12), tombstone(8, 15)));
+
+    // Act
+    CityChangeSet changes = changeRepository.findChangesSince(10L, 3);
+
+    // Assert
+    assertEquals(List.of(1L, 2L), changes.getUpserts().stream().map(c -> c.getId()).toList());
+    assertEquals(List.of(7L), changes.getDeletedIds());
+    assertEquals(14L, changes.getLastVersion());
+    assertTrue(changes.isHasMore());
+    assertFalse(changes.isResetRequired());
+  }
+
+  @Test
+  void findChangesSince_WhenNoChanges_ShouldKeepToken() {
+    // Arrange
+    when(cityChangeMapper.selectTombstoneHorizon()).thenReturn(0L);
+    when(cityChangeMapper.selectCitiesSince(anyLong(), anyInt())).thenReturn(List.of());
+    when(cityChangeMapper.selectTombstonesSince(anyLong(), anyInt())).thenReturn(List.of());
+
+    // Act
+    CityChangeSet changes = changeRepository.findChangesSince(20L, 100);
+
+    // Assert
+    assertTrue(changes.getUpserts().isEmpty());
+    assertTrue(changes.getDeletedIds().isEmpty());
+    assertEquals(20L, changes.getLastVersion());
+    assertFalse(changes.isHasMore());
+  }
+
+  @Test
+  void findChangesSince_WhenTokenOlderThanHorizon_ShouldRequireReset() {
+    // Arrange
+    when(cityChangeMapper.selectTombstoneHorizon()).thenReturn(50L);
+
+    // Act
+    CityChangeSet changes = changeRepository.findChangesSince(10L, 100);
+
+    // Assert
+    assertTrue(changes.isResetRequired());
+    verify(cityChangeMapper, never()).selectCitiesSince(anyLong(), anyInt());
+  }
+
+  @Test
+  void compactTombstones_ShouldAdvanceHorizonBeforeDeleting() {
+    // Arrange
+    Instant cutoff = Instant.now();
+    when(cityChangeMapper.selectMaxTombstoneVersionBefore(cutoff)).thenReturn(30L);
+    when(cityChangeMapper.deleteTombstonesUpTo(30L)).thenReturn(5);
+
+    // Act
+    int removed = changeRepository.compactTombstones(cutoff);
+
+    // Assert
+    assertEquals(5, removed);
+    var inOrder = inOrder(cityChangeMapper);
+    inOrder.verify(cityChangeMapper).advanceTombstoneHorizon(30L);
+    inOrder.verify(cityChangeMapper).deleteTombstonesUpTo(30L);
+  }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.mybatis;
+
+import com.baomidou.mybatisplus.annotation.DbType;
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.extension.plugins.MybatisPlusInterceptor;
+import com.baomidou.mybatisplus.extension.plugins.inner.PaginationInnerInterceptor;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CityRepositoryContractTest;
+import com.ershixiong.ai.infrastructure.repository.mybatis.converter.CityDataConverter;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityChangeMapper;
+import com.ershixiong.ai.infrastructure.repository.mybatis.mapper.CityMapper;
+import org.apache.ibatis.builder.xml.XMLMapperBuilder;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.mybatis.spring.SqlSessionTemplate;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.sql.Connection;
+import java.sql.Statement;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.mockito.Mockito.*;
+
+/**
+ * 以H2内存库（MySQL兼容模式）运行仓储契约测试，覆盖MyBatis Plus生成的SQL和CityMapper.xml中的查询。
+ *
+ * <p>与MySQL的差异在测试中就地处理：版本号序列依赖LAST_INSERT_ID(expr)，由内存计数器代替；
+ * H2不接受MySQL流式结果集使用的负数fetchSize，加载映射文件时去掉该属性。
+ */
+class MybatisCityRepositoryH2Test extends CityRepositoryContractTest {
+
+  private static final String SCHEMA =
+      "CREATE TABLE city (id BIGINT AUTO_INCREMENT PRIMARY KEY, name VARCHAR(35) NOT NULL,"
+          + " countrycode CHAR(3), district VARCHAR(20), population INT,"
+          + " version BIGINT NOT NULL DEFAULT 0)";
+
+  private static final String STREAMING_FETCH_SIZE = "fetchSize=\"-2147483648\"";
+
+  @Override
+  protected CityRepository createRepository() throws Exception {
+    JdbcDataSource dataSource = new JdbcDataSource();
+    dataSource.setURL(
+        "jdbc:h2:mem:mybatis"
+            + System.nanoTime()
+            + ";MODE=MySQL;IGNORECASE=TRUE;DB_CLOSE_DELAY=-1");
+    try (Connection connection = dataSource.getConnection();
+        Statement statement = connection.createStatement()) {
+      statement.execute(SCHEMA);
+    }
+
+    MybatisConfiguration configuration = new MybatisConfiguration();
+    configuration.setEnvironment(
+        new Environment("h2", new JdbcTransactionFactory(), dataSource));
+    configuration.setMapUnderscoreToCamelCase(true);
+    MybatisPlusInterceptor interceptor = new MybatisPlusInterceptor();
+    interceptor.addInnerInterceptor(new PaginationInnerInterceptor(DbType.MYSQL));
+    configuration.addInterceptor(interceptor);
+    String xml;
+    try (InputStream in = getClass().getResourceAsStream("/mapper/CityMapper.xml")) {
+      xml = new String(in.readAllBytes(), StandardCharsets.UTF_8).replace(STREAMING_FETCH_SIZE, "");
+    }
+    new XMLMapperBuilder(
+            new ByteArrayInputStream(xml.getBytes(StandardCharsets.UTF_8)),
+            configuration,
+            "mapper/CityMapper.xml",
+            configuration.getSqlFragments())
+        .parse();
+    CityMapper cityMapper =
+        new SqlSessionTemplate(new MybatisSqlSessionFactoryBuilder().build(configuration))
+            .getMapper(CityMapper.class);
+
+    AtomicLong versions = new AtomicLong();
+    CityChangeMapper cityChangeMapper = mock(CityChangeMapper.class);
+    when(cityChangeMapper.nextVersion()).thenAnswer(invocation -> versions.incrementAndGet());
+    return new MybatisCityRepository(cityMapper, cityChangeMapper, new CityDataConverter());
+  }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.offheap;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.repository.CityRepository;
+import com.ershixiong.ai.domain.repository.CityRepositoryContractTest;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class OffHeapCityRepositoryTest extends CityRepositoryContractTest {
+
+  private OffHeapCityRepository repository;
+
+  private static City city(String name, String countrycode, String district, Integer population) {
+    return City.builder()
+        .name(name)
+        .countrycode(countrycode)
+        .district(district)
+        .population(population)
+        .build();
+  }
+
+  @Override
+  protected CityRepository createRepository() {
+    // 小块尺寸让测试覆盖跨块分配
+    repository = new OffHeapCityRepository(4, 4, 64);
+    return repository;
+  }
+
+  @Test
+  void save_ShouldAssignIdsAndRoundTripAllFields() {
+    // Act
+    City saved = repository.save(city("Kabul", "AFG", "Kabol", 1780000));
+    City nulls = repository.save(city("Qandahar", null, null, null));
+
+    // Assert
+    assertEquals(1L, saved.getId());
+    assertEquals(2L, nulls.getId());
+    assertEquals(new City(1L, "Kabul", "AFG", "Kabol", 1780000), repository.findById(1L).get());
+    City loaded = repository.findById(2L).orElseThrow();
+    assertNull(loaded.getCountrycode());
+    assertNull(loaded.getDistrict());
+    assertNull(loaded.getPopulation());
+    assertTrue(nulls.getVersion() > saved.getVersion());
+    assertTrue(repository.findById(3L).isEmpty());
+    assertTrue(repository.findById(null).isEmpty());
+  }
+
+  @Test
+  void save_ShouldUpdateInPlaceAndRelocateLongerStrings() {
+    // Arrange
+    City saved = repository.save(city("Herat", "AFG", "Herat", 186800));
+
+    // Act
+    repository.save(new City(saved.getId(), "Hera", "NLD", "Noord-Holland", 0));
+
+    // Assert
+    assertEquals(
+        new City(saved.getId(), "Hera", "NLD", "Noord-Holland", 0),
+        repository.findById(saved.getId()).orElseThrow());
+    assertEquals(5, repository.getWastedBytes());
+    assertEquals(1, repository.size());
+  }
+
+  @Test
+  void save_ShouldInsertUnknownIdAndContinueAfterIt() {
+    // Act
+    repository.save(new City(100L, "Amsterdam", "NLD", "Noord-Holland", 731200));
+    City next = repository.save(city("Rotterdam", "NLD", "Zuid-Holland", 593321));
+
+    // Assert
+    assertEquals(101L, next.getId());
+    assertEquals("Amsterdam", repository.findById(100L).orElseThrow().getName());
+  }
+
+  @Test
+  void save_ShouldRejectNull() {
+    assertThrows(BusinessException.class, () -> repository.save(null));
+  }
+
+  @Test
+  void deleteById_ShouldRemoveAndReuseSlot() {
+    // Arrange
+    City first = repository.save(city("Kabul", "AFG", "Kabol", 1780000));
+    City second = repository.save(city("Herat", "AFG", "Herat", 186800));
+    long allocated = repository.getOffHeapBytes();
+
+    // Act
+    repository.deleteById(first.getId());
+    repository.deleteById(first.getId());
+    repository.deleteById(null);
+    City third = repository.save(city("Mazar", "AFG", "Balkh", 127800));
+
+    // Assert
+    assertTrue(repository.findById(first.getId()).isEmpty());
+    assertEquals(
+        List.of(second.getId(), third.getId()),
+        repository.findAll().stream().map(City::getId).toList());
+    assertEquals(allocated, repository.getOffHeapBytes());
+  }
+
+  @Test
+  void findByNameLike_ShouldMatchCaseInsensitiveAndPaginateById() {
+    // Arrange
+    repository.save(city("Kabul", "AFG", "Kabol", 1));
+    repository.save(city("Herat", "AFG", "Herat", 2));
+    repository.save(city("Kandahar", "AFG", "Qandahar", 3));
+    repository.save(city("São Paulo", "BRA", "São Paulo", 4));
+
+    // Act
+    Page<City> firstPage = repository.findByNameLike("%KA%", new Page<>(1, 1));
+    Page<City> secondPage = repository.findByNameLike("%ka%", new Page<>(2, 1));
+    Page<City> unicode = repository.findByNameLike("%SÃO%", new Page<>(1, 10));
+    Page<City> wildcard = repository.findByNameLike("K_nda%", new Page<>(1, 10));
+
+    // Assert
+    assertEquals(2, firstPage.getTotal());
+    assertEquals("Kabul", firstPage.getRecords().get(0).getName());
+    assertEquals("Kandahar", secondPage.getRecords().get(0).getName());
+    assertEquals("São Paulo", unicode.getRecords().get(0).getName());
+    assertEquals(1, wildcard.getTotal());
+  }
+
+  @Test
+  void operations_ShouldMatchHeapModelUnderRandomWorkload() {
+    // Arrange
+    Random random = new Random(42);
+    Map<Long, City> expected = new HashMap<>();
+    List<Long> ids = new ArrayList<>();
+
+    // Act
+    for (int i = 0; i < 5000; i++) {
+      int action = random.nextInt(10);
+      if (action < 5 || ids.isEmpty()) {
+        City saved =
+            repository.save(
+                city("City" + random.nextInt(1000), "C" + random.nextInt(300), "D" + i, i));
+        expected.put(saved.getId(), saved);
+        ids.add(saved.getId());
+      } else if (action < 8) {
+        Long id = ids.get(random.nextInt(ids.size()));
+        String name = "x".repeat(random.nextInt(20));
+        City updated = repository.save(new City(id, name, "UPD", null, null));
+        expected.put(id, updated);
+      } else {
+        Long id = ids.remove(random.nextInt(ids.size()));
+        repository.deleteById(id);
+        expected.remove(id);
+      }
+    }
+
+    // Assert
+    assertEquals(expected.size(), repository.size());
+    List<City> all = repository.findAll();
+    assertEquals(expected.size(), all.size());
+    for (City city : all) {
+      assertEquals(expected.get(city.getId()), city);
+    }
+    for (int i = 1; i < all.size(); i++) {
+      assertTrue(all.get(i - 1).getId() < all.get(i).getId());
+    }
+  }
+}
@@ -0,0 +1,115 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.offheap;
+
+import com.ershixiong.ai.domain.model.City;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * 堆内TreeMap与堆外仓储的每行内存和GC停顿对比基准。
+ *
+ * <p>分别装载相同的城市数据，以Full GC后的堆使用量之差计算每行堆内存，堆外仓储另计直接内存；
+ * 数据常驻期间连续触发Full GC，以GC累计耗时的平均值作为停顿时间，反映存活对象数对GC扫描量的影响。
+ *
+ * <p>运行方式：mvn test -Pbenchmark -Dtest=OffHeapMemoryBenchmarkTest，
+ * 可通过benchmark.rows、benchmark.gc-runs调整参数。
+ */
+@Tag("benchmark")
+class OffHeapMemoryBenchmarkTest {
+
+  private static final int ROWS = Integer.getInteger("benchmark.rows", 1_000_000);
+  private static final int GC_RUNS = Integer.getInteger("benchmark.gc-runs", 5);
+
+  @Test
+  void compare_HeapAndOffHeap_MemoryPerRowAndGcPause() {
+    // Arrange
+    long baseline = usedHeap();
+
+    // Act
+    NavigableMap<Long, City> heap = new TreeMap<>();
+    for (int i = 1; i <= ROWS; i++) {
+      heap.put((long) i, city(i));
+    }
+    long heapBytes = usedHeap() - baseline;
+    Duration heapPause = averageFullGc();
+    heap = null;
+
+    baseline = usedHeap();
+    OffHeapCityRepository offHeap = new OffHeapCityRepository(ROWS, 65_536, 4 * 1024 * 1024);
+    for (int i = 1; i <= ROWS; i++) {
+      offHeap.save(city(i));
+    }
+    long offHeapHeapBytes = usedHeap() - baseline;
+    Duration offHeapPause = averageFullGc();
+
+    // Assert
+    double heapPerRow = (double) heapBytes / ROWS;
+    double offHeapPerRow = (double) (offHeapHeapBytes + offHeap.getOffHeapBytes()) / ROWS;
+    System.out.printf("rows=%d gcRuns=%d%n", ROWS, GC_RUNS);
+    System.out.printf(
+        "heap TreeMap: %.1f bytes/row, full GC %dms%n", heapPerRow, heapPause.toMillis());
+    System.out.printf(
+        "off-heap:     %.1f bytes/row (heap %.1f, direct %.1f), full GC %dms%n",
+        offHeapPerRow,
+        (double) offHeapHeapBytes / ROWS,
+        (double) offHeap.getOffHeapBytes() / ROWS,
+        offHeapPause.toMillis());
+    assertEquals(ROWS, offHeap.size());
+    assertTrue(offHeapPerRow < heapPerRow, "off-heap rows should be smaller than heap rows");
+  }
+
+  private static City city(int i) {
+    return City.builder()
+        .id((long) i)
+        .name("City" + i)
+        .countrycode("C" + (i % 239))
+        .district("District" + (i % 4079))
+        .population(i)
+        .version((long) i)
+        .build();
+  }
+
+  private static long usedHeap() {
+    averageFullGc();
+    Runtime runtime = Runtime.getRuntime();
+    return runtime.totalMemory() - runtime.freeMemory();
+  }
+
+  private static Duration averageFullGc() {
+    long before = totalGcMillis();
+    for (int i = 0; i < GC_RUNS; i++) {
+      System.gc();
+    }
+    return Duration.ofMillis((totalGcMillis() - before) / GC_RUNS);
+  }
+
+  private static long totalGcMillis() {
+    long total = 0;
+    for (GarbageCollectorMXBean bean : ManagementFactory.getGarbageCollectorMXBeans()) {
+      total += Math.max(0, bean.getCollectionTime());
+    }
+    return total;
+  }
+}
@@ -0,0 +1,202 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.repository.sharding;
+
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.ershixiong.ai.common.exception.BusinessException;
+import com.ershixiong.ai.common.exception.ErrorCode;
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.infrastructure.deadline.Deadline;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineContext;
+import com.ershixiong.ai.infrastructure.deadline.DeadlineJdbcTemplate;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import javax.sql.DataSource;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/** 以三个独立的H2内存库充当分片 */
+class ShardedCityRepositoryTest {
+
+  private static final int SHARDS = 3;
+
+  private final List<DataSource> dataSources = new ArrayList<>();
+  private final List<JdbcTemplate> shards = new ArrayList<>();
+  private ShardedCityRepository repository;
+
+  private static City city(String name, String countrycode) {
+    return City.builder()
+        .name(name)
+        .countrycode(countrycode)
+        .district("District")
+        .population(1000)
+        .build();
+  }
+
+  private ShardedIdGenerator idGenerator(int shard, int blockSize) {
+    return new ShardedIdGenerator(
+        shard,
+        shards.get(shard),
+        new TransactionTemplate(new DataSourceTransactionManager(dataSources.get(shard))),
+        blockSize);
+  }
+
+  @BeforeEach
+  void setUp() {
+    List<ShardedIdGenerator> idGenerators = new ArrayList<>();
+    for (int i = 0; i < SHARDS; i++) {
+      JdbcDataSource dataSource = new JdbcDataSource();
+      dataSource.setURL("jdbc:h2:mem:shard" + i + "_" + System.nanoTime() + ";DB_CLOSE_DELAY=-1");
+      JdbcTemplate jdbcTemplate = new DeadlineJdbcTemplate(dataSource);
+      jdbcTemplate.execute(
+          "CREATE TABLE city (id BIGINT PRIMARY KEY, name VARCHAR(35), countrycode CHAR(3),"
+              + " district VARCHAR(20), population INT)");
+      jdbcTemplate.execute(
+          "CREATE TABLE city_id_seq (name VARCHAR(32) PRIMARY KEY, seq BIGINT NOT NULL)");
+      jdbcTemplate.execute("INSERT INTO city_id_seq VALUES ('city', 0)");
+      dataSources.add(dataSource);
+      shards.add(jdbcTemplate);
+      idGenerators.add(idGenerator(i, 2));
+    }
+    repository =
+        new ShardedCityRepository(
+            shards, idGenerators, Executors.newFixedThreadPool(SHARDS), List.of());
+  }
+
+  @AfterEach
+  void tearDown() {
+    DeadlineContext.clear();
+    repository.close();
+  }
+
+  @Test
+  void save_ShouldPlaceCitiesOfSameCountryOnSameShard() {
+    // Arrange
+    ShardRouter router = new ShardRouter(SHARDS);
+
+    // Act
+    City first = repository.save(city("Shanghai", "CHN"));
+    City second = repository.save(city("Beijing", "CHN"));
+
+    // Assert
+    int expectedShard = router.shardForCountry("CHN");
+    assertEquals(expectedShard, router.shardForId(first.getId()));
+    assertEquals(expectedShard, router.shardForId(second.getId()));
+    Long rows =
+        shards.get(expectedShard).queryForObject("SELECT COUNT(*) FROM city", Long.class);
+    assertEquals(2L, rows);
+    assertEquals("Beijing", repository.findById(second.getId()).orElseThrow().getName());
+  }
+
+  @Test
+  void findAll_ShouldMergeShardsOrderedById() {
+    // Arrange
+    for (String country : List.of("CHN", "USA", "JPN", "FRA", "BRA", "IND")) {
+      repository.save(city("City of " + country, country));
+    }
+
+    // Act
+    List<City> cities = repository.findAll();
+
+    // Assert
+    assertEquals(6, cities.size());
+    List<City> sorted = new ArrayList<>(cities);
+    sorted.sort(Comparator.comparing(City::getId));
+    assertEquals(sorted, cities);
+  }
+
+  @Test
+  void findByNameLike_ShouldPaginateAcrossShards() {
+    // Arrange
+    List<String> countries = List.of("CHN", "USA", "JPN", "FRA", "BRA", "IND", "DEU");
+    for (int i = 0; i < 14; i++) {
+      repository.save(city("San " + i, countries.get(i % countries.size())));
+    }
+    repository.save(city("Other", "CHN"));
+    List<City> all =
+        repository.findAll().stream().filter(city -> city.getName().startsWith("San")).toList();
+
+    // Act
+    Page<City> page = repository.findByNameLike("San", new Page<>(2, 5));
+
+    // Assert
+    assertEquals(14L, page.getTotal());
+    assertEquals(all.subList(5, 10), page.getRecords());
+  }
+
+  @Test
+  void saveAndDelete_WithExistingId_ShouldOnlyTouchOwningShard() {
+    // Arrange
+    City saved = repository.save(city("Osaka", "JPN"));
+
+    // Act
+    saved.setPopulation(2_700_000);
+    repository.save(saved);
+    City updated = repository.findById(saved.getId()).orElseThrow();
+    repository.deleteById(saved.getId());
+
+    // Assert
+    assertEquals(2_700_000, updated.getPopulation());
+    assertTrue(repository.findById(saved.getId()).isEmpty());
+    assertTrue(repository.findById(Long.MAX_VALUE).isEmpty());
+  }
+
+  @Test
+  void idGenerator_WithConcurrentInstances_ShouldNotOverlap() {
+    // Arrange
+    ShardedIdGenerator generatorA = idGenerator(1, 10);
+    ShardedIdGenerator generatorB = idGenerator(1, 10);
+    Set<Long> ids = new HashSet<>();
+
+    // Act
+    for (int i = 0; i < 25; i++) {
+      ids.add(generatorA.nextId());
+      ids.add(generatorB.nextId());
+    }
+
+    // Assert
+    assertEquals(50, ids.size());
+    assertTrue(ids.stream().allMatch(id -> new ShardRouter(SHARDS).shardForId(id) == 1));
+  }
+
+  @Test
+  void findByNameLike_WhenDeadlineExpired_ShouldFailFastOnEveryShard() {
+    // Arrange
+    repository.save(city("Shanghai", "CHN"));
+    DeadlineContext.set(Deadline.after(Duration.ZERO));
+
+    // Act
+    BusinessException exception =
+        assertThrows(
+            BusinessException.class, () -> repository.findByNameLike("", new Page<>(1, 10)));
+
+    // Assert
+    assertEquals(ErrorCode.RPC_CALL_TIMEOUT, exception.getErrorCode());
+  }
+}
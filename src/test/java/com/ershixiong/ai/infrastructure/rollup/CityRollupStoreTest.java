@@ -0,0 +1,307 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.rollup;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CityPopulationStats;
+import com.ershixiong.ai.domain.model.CityRollup;
+import com.ershixiong.ai.domain.model.CityStats;
+import com.ershixiong.ai.domain.repository.CityRollupRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CityRollupStoreTest {
+
+  private InMemoryRollupRepository repository;
+  private CityRollupStore store;
+
+  @BeforeEach
+  void setUp() {
+    repository = new InMemoryRollupRepository();
+    repository.cities.put(1L, new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200));
+    repository.cities.put(2L, new City(2L, "Haarlem", "NLD", "Noord-Holland", 148772));
+    repository.cities.put(3L, new City(3L, "Utrecht", "NLD", "Utrecht", 234323));
+    repository.cities.put(4L, new City(4L, "Kabul", "AFG", "Kabol", 1780000));
+    repository.cities.put(5L, new City(5L, "Unknown", "AFG", "Kabol", null));
+    store = new CityRollupStore(repository);
+  }
+
+  @Test
+  void load_WhenSummaryTableEmpty_ShouldRebuildFromCitiesAndPersist() {
+    // Act
+    store.load();
+    int written = store.flush();
+
+    // Assert
+    assertTrue(store.isReady());
+    assertNotNull(store.getReconciledAt());
+    assertEquals(3, written);
+    assertEquals(repository.aggregateCities(null).size(), repository.table.size());
+    assertStatsMatchCities();
+  }
+
+  @Test
+  void apply_ShouldMaintainCountryAndDistrictRollups() {
+    // Arrange
+    store.load();
+
+    // Act：新建、跨国家移动、修改人口、删除
+    write(null, new City(6L, "Rotterdam", "NLD", "Zuid-Holland", 593321));
+    write(repository.cities.get(2L), new City(2L, "Haarlem", "AFG", "Herat", 186800));
+    write(repository.cities.get(3L), new City(3L, "Utrecht", "NLD", "Utrecht", 240000));
+    write(repository.cities.get(4L), null);
+    CityStats beforeFlush = store.stats("AFG");
+    store.flush();
+
+    // Assert：删除Kabul后AFG的最大值过期，回写时按城市表重新统计
+    assertEquals(1780000, beforeFlush.getTotal().getMax());
+    assertEquals(2, beforeFlush.getTotal().getCount());
+    assertStatsMatchCities();
+    assertNull(store.stats("ZZZ"));
+  }
+
+  @Test
+  void flush_ShouldPersistChangedDistrictsAndDeleteEmptyOnes() {
+    // Arrange
+    store.load();
+    store.flush();
+
+    // Act
+    write(repository.cities.get(3L), null);
+    write(null, new City(6L, "Rotterdam", "NLD", "Zuid-Holland", 593321));
+    int written = store.flush();
+
+    // Assert
+    assertEquals(2, written);
+    assertEquals(0, store.getPendingCount());
+    assertEquals(toMap(repository.aggregateCities(null)), repository.table);
+  }
+
+  @Test
+  void flush_WhenExtremeRemoved_ShouldRecomputeExtremesFromCityTable() {
+    // Arrange
+    store.load();
+    store.flush();
+
+    // Act
+    write(repository.cities.get(1L), null);
+    Integer staleMax = store.stats("NLD").getTotal().getMax();
+    store.flush();
+
+    // Assert：删除最大值后极值不能增量回退，回写前按城市表重新统计
+    assertEquals(731200, staleMax);
+    assertEquals(234323, store.stats("NLD").getTotal().getMax());
+    assertEquals(148772, store.stats("NLD").getGroups().get(0).getMax());
+    assertStatsMatchCities();
+    assertEquals(toMap(repository.aggregateCities(null)), repository.table);
+  }
+
+  @Test
+  void reconcile_ShouldRepairDriftFromWritesThatBypassTheStore() {
+    // Arrange
+    store.load();
+    store.flush();
+    repository.cities.remove(3L);
+    repository.cities.put(7L, new City(7L, "Herat", "AFG", "Herat", 186800));
+    repository.cities.put(8L, new City(8L, "Berlin", "DEU", "Berliini", 3386667));
+
+    // Act
+    int repaired = store.reconcile();
+    int repairedAgain = store.reconcile();
+    store.flush();
+
+    // Assert
+    assertTrue(repaired > 0);
+    assertEquals(0, repairedAgain);
+    assertEquals(repaired, store.getRepairCount());
+    assertStatsMatchCities();
+    assertEquals(toMap(repository.aggregateCities(null)), repository.table);
+  }
+
+  @Test
+  void load_ShouldPreferSummaryTableUntilReconciled() {
+    // Arrange：汇总表中的数据已经过期
+    repository.table.putAll(toMap(repository.aggregateCities(null)));
+    repository.cities.remove(1L);
+
+    // Act
+    store.load();
+    long before = store.stats("NLD").getTotal().getCount();
+    store.reconcile();
+    store.flush();
+
+    // Assert
+    assertEquals(3, before);
+    assertStatsMatchCities();
+    assertEquals(toMap(repository.aggregateCities(null)), repository.table);
+  }
+
+  @Test
+  void apply_FromConcurrentWriters_ShouldNotLoseUpdates() throws Exception {
+    // Arrange
+    store.load();
+    int threads = 8;
+    int citiesPerThread = 2000;
+    ExecutorService executor = Executors.newFixedThreadPool(threads);
+
+    // Act
+    for (int t = 0; t < threads; t++) {
+      long firstId = 100 + (long) t * citiesPerThread;
+      executor.execute(
+          () -> {
+            for (long id = firstId; id < firstId + citiesPerThread; id++) {
+              City city = new City(id, "City" + id, "NLD", "D" + id % 7, (int) id);
+              write(null, city);
+              if (id % 3 == 0) {
+                write(city, null);
+              }
+            }
+          });
+    }
+    executor.shutdown();
+    assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+    store.flush();
+
+    // Assert
+    assertStatsMatchCities();
+  }
+
+  /** 模拟应用服务：写入城市表后计入汇总 */
+  private void write(City before, City after) {
+    if (after == null) {
+      repository.cities.remove(before.getId());
+    } else {
+      repository.cities.put(after.getId(), after);
+    }
+    store.apply(before, after);
+  }
+
+  /** 全部国家和每个国家的统计都与逐行计算的结果一致 */
+  private void assertStatsMatchCities() {
+    List<City> cities = List.copyOf(repository.cities.values());
+    CityStats all = store.stats(null);
+    assertEquals(expected(cities, city -> null).get(0), all.getTotal());
+    assertEquals(expected(cities, City::getCountrycode), all.getGroups());
+    for (CityPopulationStats country : all.getGroups()) {
+      List<City> members =
+          cities.stream().filter(city -> city.getCountrycode().equals(country.getKey())).toList();
+      assertEquals(expected(members, City::getDistrict), store.stats(country.getKey()).getGroups());
+    }
+  }
+
+  private static List<CityPopulationStats> expected(
+      List<City> cities, Function<City, String> key) {
+    Map<String, List<City>> groups =
+        new TreeMap<>(Comparator.nullsFirst(Comparator.<String>naturalOrder()));
+    cities.forEach(
+        city -> groups.computeIfAbsent(key.apply(city), k -> new ArrayList<>()).add(city));
+    List<CityPopulationStats> result = new ArrayList<>();
+    groups.forEach(
+        (k, members) -> {
+          List<Integer> known =
+              members.stream().map(City::getPopulation).filter(Objects::nonNull).toList();
+          long sum = known.stream().mapToLong(Integer::longValue).sum();
+          result.add(
+              CityPopulationStats.builder()
+                  .key(k)
+                  .count(members.size())
+                  .sum(known.isEmpty() ? null : sum)
+                  .min(known.stream().min(Integer::compare).orElse(null))
+                  .max(known.stream().max(Integer::compare).orElse(null))
+                  .avg(known.isEmpty() ? null : (double) sum / known.size())
+                  .build());
+        });
+    return result;
+  }
+
+  private static Map<String, CityRollup> toMap(Collection<CityRollup> rollups) {
+    Map<String, CityRollup> map = new TreeMap<>();
+    rollups.forEach(
+        rollup -> map.put(rollup.getCountrycode() + "/" + rollup.getDistrict(), rollup));
+    return map;
+  }
+
+  /** 以城市列表模拟城市表、以Map模拟汇总表的仓储 */
+  private static final class InMemoryRollupRepository implements CityRollupRepository {
+    private final Map<Long, City> cities = new ConcurrentHashMap<>();
+    private final Map<String, CityRollup> table = new TreeMap<>();
+
+    @Override
+    public List<CityRollup> findAll() {
+      return List.copyOf(table.values());
+    }
+
+    @Override
+    public List<CityRollup> aggregateCities(String countrycode) {
+      Map<String, CityRollup> rollups = new TreeMap<>();
+      for (City city : cities.values()) {
+        if (countrycode != null && !countrycode.equals(city.getCountrycode())) {
+          continue;
+        }
+        CityRollup rollup =
+            rollups.computeIfAbsent(
+                city.getCountrycode() + "/" + city.getDistrict(),
+                k ->
+                    CityRollup.builder()
+                        .countrycode(city.getCountrycode())
+                        .district(city.getDistrict())
+                        .build());
+        rollup.setCityCount(rollup.getCityCount() + 1);
+        Integer population = city.getPopulation();
+        if (population != null) {
+          rollup.setPopulationCount(rollup.getPopulationCount() + 1);
+          rollup.setPopulationSum(rollup.getPopulationSum() + population);
+          rollup.setPopulationMin(
+              rollup.getPopulationMin() == null
+                  ? population
+                  : Math.min(rollup.getPopulationMin(), population));
+          rollup.setPopulationMax(
+              rollup.getPopulationMax() == null
+                  ? population
+                  : Math.max(rollup.getPopulationMax(), population));
+        }
+      }
+      return List.copyOf(rollups.values());
+    }
+
+    @Override
+    public void saveAll(Collection<CityRollup> rollups) {
+      for (CityRollup rollup : rollups) {
+        String key = rollup.getCountrycode() + "/" + rollup.getDistrict();
+        if (rollup.getCityCount() > 0) {
+          table.put(key, rollup);
+        } else {
+          table.remove(key);
+        }
+      }
+    }
+  }
+}
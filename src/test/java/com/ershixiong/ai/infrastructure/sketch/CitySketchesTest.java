@@ -0,0 +1,257 @@
+/*
+ * Copyright (c) 2026 The Ershixiong Authors
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *     http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.ershixiong.ai.infrastructure.sketch;
+
+import com.ershixiong.ai.domain.model.City;
+import com.ershixiong.ai.domain.model.CitySketchStats;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CitySketchesTest {
+
+  private static final CitySketches.Settings SETTINGS =
+      new CitySketches.Settings(200, 11, 0.01, 0.01, 16);
+
+  /** 偏斜分布的城市：每个国家少数行政区占大部分城市，人口近似对数均匀分布 */
+  private static List<City> skewedCities(int count, String[] countries, Random random) {
+    List<City> cities = new ArrayList<>(count);
+    for (int i = 0; i < count; i++) {
+      String country = countries[random.nextInt(countries.length)];
+      int district = random.nextInt(4) == 0 ? random.nextInt(500) : random.nextInt(5);
+      int population = (int) Math.pow(10, 3 + random.nextDouble() * 4);
+      cities.add(
+          new City((long) i + 1, "City" + i, country, country + "-" + district, population));
+    }
+    return cities;
+  }
+
+  @Test
+  void kll_ShouldStayWithinRankError() {
+    // Arrange
+    Random random = new Random(42);
+    int[] values = new int[100_000];
+    KllSketch left = new KllSketch(200);
+    KllSketch right = new KllSketch(200);
+    for (int i = 0; i < values.length; i++) {
+      values[i] = random.nextInt(10_000_000);
+      (i % 3 == 0 ? left : right).update(values[i]);
+    }
+    Arrays.sort(values);
+
+    // Act
+    left.merge(right);
+
+    // Assert
+    double bound = KllSketch.rankError(200);
+    assertEquals(values.length, left.count());
+    assertTrue(left.retained() < 2_000, "retained " + left.retained());
+    assertEquals(values[0], left.quantile(0));
+    assertEquals(values[values.length - 1], left.quantile(1));
+    for (double fraction = 0.01; fraction < 1; fraction += 0.01) {
+      int estimate = left.quantile(fraction);
+      double trueRank = (double) lowerBound(values, estimate) / values.length;
+      assertEquals(fraction, trueRank, bound, "quantile " + fraction);
+    }
+  }
+
+  @Test
+  void hyperLogLog_ShouldStayWithinThreeStandardErrors() {
+    // Arrange
+    HyperLogLog small = new HyperLogLog(11);
+    HyperLogLog large = new HyperLogLog(11);
+    HyperLogLog other = new HyperLogLog(11);
+
+    // Act
+    for (int i = 0; i < 100; i++) {
+      small.add(CountrySketch.District.of("NLD", "D" + i).hash());
+    }
+    for (int i = 0; i < 200_000; i++) {
+      long hash = CountrySketch.District.of("CHN", "D" + i).hash();
+      // 一半元素同时加入两个草图，合并后不应重复计数
+      (i % 2 == 0 ? large : other).add(hash);
+      if (i % 4 == 0) {
+        other.add(hash);
+      }
+    }
+    large.merge(other);
+
+    // Assert
+    double error = 3 * HyperLogLog.standardError(11);
+    assertEquals(100, small.estimate(), 100 * error);
+    assertEquals(200_000, large.estimate(), 200_000 * error);
+  }
+
+  @Test
+  void countMin_ShouldNeverUnderestimateAndStayWithinErrorBound() {
+    // Arrange
+    CountMinSketch sketch = CountMinSketch.withError(0.01, 0.01);
+    Random random = new Random(5);
+    Map<Long, Long> exact = new HashMap<>();
+
+    // Act
+    for (int i = 0; i < 100_000; i++) {
+      int key = random.nextInt(10) == 0 ? random.nextInt(10_000) : random.nextInt(20);
+      long hash = CountrySketch.District.of("USA", "D" + key).hash();
+      sketch.add(hash, 1);
+      exact.merge(hash, 1L, Long::sum);
+    }
+
+    // Assert
+    long bound = sketch.errorBound();
+    assertTrue(bound <= 0.01 * 100_000 + 1, "bound " + bound);
+    long violations = 0;
+    for (Map.Entry<Long, Long> entry : exact.entrySet()) {
+      long estimate = sketch.estimate(entry.getKey());
+      assertTrue(estimate >= entry.getValue());
+      if (estimate > entry.getValue() + bound) {
+        violations++;
+      }
+    }
+    assertTrue(violations <= exact.size() * 0.01, "violations " + violations);
+  }
+
+  @Test
+  void stats_ShouldEstimateQuantilesDistinctDistrictsAndHeavyHitters() {
+    // Arrange
+    List<City> cities = skewedCities(50_000, new String[] {"NLD", "CHN"}, new Random(11));
+    CitySketches sketches = new CitySketches(SETTINGS);
+    sketches.rebuild(scan -> cities.forEach(scan));
+
+    // Act
+    CitySketchStats stats = sketches.stats("NLD", new double[] {0.5, 0.9}, 5);
+    CitySketchStats all = sketches.stats(null, new double[] {0.5}, 3);
+
+    // Assert
+    List<City> dutch = cities.stream().filter(c -> c.getCountrycode().equals("NLD")).toList();
+    int[] populations = dutch.stream().mapToInt(City::getPopulation).sorted().toArray();
+    assertEquals(dutch.size(), stats.getCities());
+    for (CitySketchStats.Quantile quantile : stats.getPopulationQuantiles()) {
+      double trueRank = (double) lowerBound(populations, quantile.getPopulation()) / dutch.size();
+      assertEquals(quantile.getFraction(), trueRank, stats.getQuantileRankError());
+    }
+    long districts = dutch.stream().map(City::getDistrict).distinct().count();
+    assertEquals(districts, stats.getDistinctDistricts(), districts * 0.07);
+
+    Map<String, Long> exact = new HashMap<>();
+    dutch.forEach(c -> exact.merge(c.getDistrict(), 1L, Long::sum));
+    assertEquals(5, stats.getTopDistricts().size());
+    for (CitySketchStats.Frequency frequency : stats.getTopDistricts()) {
+      assertEquals("NLD", frequency.getCountrycode());
+      // 5个高频行政区各约占15%，其余行政区各不足0.1%
+      assertTrue(frequency.getDistrict().matches("NLD-[0-4]"), frequency.getDistrict());
+      long actual = exact.get(frequency.getDistrict());
+      assertTrue(frequency.getCount() >= actual);
+      assertTrue(frequency.getCount() <= actual + stats.getFrequencyError());
+    }
+    assertEquals(cities.size(), all.getCities());
+    assertEquals(3, all.getTopDistricts().size());
+    assertNull(sketches.stats("ZZZ", new double[] {0.5}, 1));
+  }
+
+  @Test
+  void apply_ShouldTrackWritesAndRequestRebuildAfterManyRemovals() {
+    // Arrange
+    CitySketches sketches = new CitySketches(SETTINGS);
+    assertTrue(sketches.needsRebuild(Duration.ofHours(1), 0.05));
+    sketches.apply(null, new City(1L, "Ignored", "NLD", "Utrecht", 1));
+    sketches.rebuild(scan -> {});
+    City amsterdam = new City(1L, "Amsterdam", "NLD", "Noord-Holland", 731200);
+    City rotterdam = new City(2L, "Rotterdam", "NLD", "Zuid-Holland", 593321);
+
+    // Act
+    sketches.apply(null, amsterdam);
+    sketches.apply(null, rotterdam);
+    sketches.apply(rotterdam, new City(2L, "Rotterdam2", "NLD", "Zuid-Holland", 593321));
+    CitySketchStats beforeRemoval = sketches.stats("NLD", new double[] {0, 1}, 2);
+    sketches.apply(rotterdam, null);
+    CitySketchStats afterRemoval = sketches.stats("NLD", new double[] {1}, 2);
+
+    // Assert
+    assertEquals(2, beforeRemoval.getCities());
+    assertEquals(0, beforeRemoval.getRemovedSinceRebuild());
+    assertEquals(593321, beforeRemoval.getPopulationQuantiles().get(0).getPopulation());
+    assertEquals(731200, beforeRemoval.getPopulationQuantiles().get(1).getPopulation());
+    assertEquals(1, afterRemoval.getCities());
+    assertEquals(1, afterRemoval.getRemovedSinceRebuild());
+    assertEquals(1, afterRemoval.getTopDistricts().size());
+    assertEquals("Noord-Holland", afterRemoval.getTopDistricts().get(0).getDistrict());
+    assertTrue(sketches.needsRebuild(Duration.ofHours(1), 0.05));
+    assertFalse(sketches.needsRebuild(Duration.ofHours(1), 1.0));
+  }
+
+  @Test
+  void toBytes_ShouldRoundTripAndMergeLikeCombinedRebuild() {
+    // Arrange
+    String[] countries = {"NLD", "CHN", "USA"};
+    List<City> first = skewedCities(20_000, countries, new Random(1));
+    List<City> second = skewedCities(20_000, countries, new Random(2));
+    CitySketches node1 = new CitySketches(SETTINGS);
+    CitySketches node2 = new CitySketches(SETTINGS);
+    node1.rebuild(scan -> first.forEach(scan));
+    node2.rebuild(scan -> second.forEach(scan));
+
+    // Act
+    CitySketches restored = CitySketches.fromBytes(node1.toBytes());
+    restored.merge(CitySketches.fromBytes(node2.toBytes()));
+    CitySketchStats merged = restored.stats("USA", new double[] {0.5, 0.99}, 5);
+
+    // Assert
+    assertEquals(
+        node1.stats("NLD", new double[] {0.5}, 5),
+        CitySketches.fromBytes(node1.toBytes()).stats("NLD", new double[] {0.5}, 5));
+    List<City> combined = new ArrayList<>(first);
+    combined.addAll(second);
+    List<City> american = combined.stream().filter(c -> c.getCountrycode().equals("USA")).toList();
+    int[] populations = american.stream().mapToInt(City::getPopulation).sorted().toArray();
+    assertEquals(american.size(), merged.getCities());
+    for (CitySketchStats.Quantile quantile : merged.getPopulationQuantiles()) {
+      double trueRank =
+          (double) lowerBound(populations, quantile.getPopulation()) / american.size();
+      assertEquals(quantile.getFraction(), trueRank, merged.getQuantileRankError());
+    }
+    long districts = american.stream().map(City::getDistrict).distinct().count();
+    assertEquals(districts, merged.getDistinctDistricts(), districts * 0.07);
+    assertEquals(5, merged.getTopDistricts().size());
+    assertThrows(
+        IllegalArgumentException.class,
+        () -> restored.merge(new CitySketches(new CitySketches.Settings(100, 11, 0.01, 0.01, 16))));
+    assertThrows(IllegalArgumentException.class, () -> CitySketches.fromBytes(new byte[8]));
+  }
+
+  /** 有序数组中小于value的元素个数 */
+  private static int lowerBound(int[] sorted, int value) {
+    int low = 0;
+    int high = sorted.length;
+    while (low < high) {
+      int mid = (low + high) >>> 1;
+      if (sorted[mid] < value) {
+        low = mid + 1;
+      } else {
+        high = mid;
+      }
+    }
+    return low;
+  }
+}